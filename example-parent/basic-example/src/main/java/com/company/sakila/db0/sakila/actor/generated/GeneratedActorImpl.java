@@ -2,6 +2,7 @@ package com.company.sakila.db0.sakila.actor.generated;
 
 import com.company.sakila.db0.sakila.actor.Actor;
 import com.speedment.common.annotation.GeneratedCode;
+import com.speedment.runtime.core.manager.HasDirtyFields;
 import java.sql.Timestamp;
 import java.util.Objects;
 import java.util.StringJoiner;
@@ -16,8 +17,9 @@ import java.util.StringJoiner;
  * @author Speedment
  */
 @GeneratedCode("Speedment")
-public abstract class GeneratedActorImpl implements Actor {
+public abstract class GeneratedActorImpl implements Actor, HasDirtyFields {
     
+    private long dirtyFields;
     private int actorId;
     private String firstName;
     private String lastName;
@@ -25,6 +27,16 @@ public abstract class GeneratedActorImpl implements Actor {
     
     protected GeneratedActorImpl() {}
     
+    @Override
+    public long dirtyFields() {
+        return dirtyFields;
+    }
+    
+    @Override
+    public void clearDirtyFields() {
+        dirtyFields = 0;
+    }
+    
     @Override
     public int getActorId() {
         return actorId;
@@ -48,24 +60,28 @@ public abstract class GeneratedActorImpl implements Actor {
     @Override
     public Actor setActorId(int actorId) {
         this.actorId = actorId;
+        this.dirtyFields |= 1L << 0;
         return this;
     }
     
     @Override
     public Actor setFirstName(String firstName) {
         this.firstName = firstName;
+        this.dirtyFields |= 1L << 1;
         return this;
     }
     
     @Override
     public Actor setLastName(String lastName) {
         this.lastName = lastName;
+        this.dirtyFields |= 1L << 2;
         return this;
     }
     
     @Override
     public Actor setLastUpdate(Timestamp lastUpdate) {
         this.lastUpdate = lastUpdate;
+        this.dirtyFields |= 1L << 3;
         return this;
     }
     
@@ -3,7 +3,9 @@ package com.company.sakila.db0.sakila.address.generated;
 import com.company.sakila.db0.sakila.address.Address;
 import com.company.sakila.db0.sakila.city.City;
 import com.speedment.common.annotation.GeneratedCode;
+import com.speedment.runtime.core.manager.HasDirtyFields;
 import com.speedment.runtime.core.manager.Manager;
+import com.speedment.runtime.core.stream.ForeignKeyResolver;
 import com.speedment.runtime.core.util.OptionalUtil;
 import java.sql.Blob;
 import java.sql.Timestamp;
@@ -21,8 +23,9 @@ import java.util.StringJoiner;
  * @author Speedment
  */
 @GeneratedCode("Speedment")
-public abstract class GeneratedAddressImpl implements Address {
+public abstract class GeneratedAddressImpl implements Address, HasDirtyFields {
     
+    private long dirtyFields;
     private int addressId;
     private String address;
     private String address2;
@@ -35,6 +38,16 @@ public abstract class GeneratedAddressImpl implements Address {
     
     protected GeneratedAddressImpl() {}
     
+    @Override
+    public long dirtyFields() {
+        return dirtyFields;
+    }
+    
+    @Override
+    public void clearDirtyFields() {
+        dirtyFields = 0;
+    }
+    
     @Override
     public int getAddressId() {
         return addressId;
@@ -83,54 +96,63 @@ public abstract class GeneratedAddressImpl implements Address {
     @Override
     public Address setAddressId(int addressId) {
         this.addressId = addressId;
+        this.dirtyFields |= 1L << 0;
         return this;
     }
     
     @Override
     public Address setAddress(String address) {
         this.address = address;
+        this.dirtyFields |= 1L << 1;
         return this;
     }
     
     @Override
     public Address setAddress2(String address2) {
         this.address2 = address2;
+        this.dirtyFields |= 1L << 2;
         return this;
     }
     
     @Override
     public Address setDistrict(String district) {
         this.district = district;
+        this.dirtyFields |= 1L << 3;
         return this;
     }
     
     @Override
     public Address setCityId(int cityId) {
         this.cityId = cityId;
+        this.dirtyFields |= 1L << 4;
         return this;
     }
     
     @Override
     public Address setPostalCode(String postalCode) {
         this.postalCode = postalCode;
+        this.dirtyFields |= 1L << 5;
         return this;
     }
     
     @Override
     public Address setPhone(String phone) {
         this.phone = phone;
+        this.dirtyFields |= 1L << 6;
         return this;
     }
     
     @Override
     public Address setLocation(Blob location) {
         this.location = location;
+        this.dirtyFields |= 1L << 7;
         return this;
     }
     
     @Override
     public Address setLastUpdate(Timestamp lastUpdate) {
         this.lastUpdate = lastUpdate;
+        this.dirtyFields |= 1L << 8;
         return this;
     }
     
@@ -139,6 +161,18 @@ public abstract class GeneratedAddressImpl implements Address {
         return foreignManager.stream().filter(City.CITY_ID.equal(getCityId())).findAny().orElse(null);
     }
     
+    /**
+     * Creates a resolver that reads the referenced City entities of many
+     * Address entities using one query per chunk rather than one query per
+     * entity.
+     * 
+     * @param foreignManager the manager to query for the entities
+     * @return               a resolver of the foreign entities referenced
+     */
+    public static ForeignKeyResolver<Address, City> cityIdResolver(Manager<City> foreignManager) {
+        return ForeignKeyResolver.of(Address.CITY_ID, foreignManager);
+    }
+    
     @Override
     public String toString() {
         final StringJoiner sj = new StringJoiner(", ", "{ ", " }");
@@ -2,6 +2,7 @@ package com.company.sakila.db0.sakila.category.generated;
 
 import com.company.sakila.db0.sakila.category.Category;
 import com.speedment.common.annotation.GeneratedCode;
+import com.speedment.runtime.core.manager.HasDirtyFields;
 import java.sql.Timestamp;
 import java.util.Objects;
 import java.util.StringJoiner;
@@ -16,14 +17,25 @@ import java.util.StringJoiner;
  * @author Speedment
  */
 @GeneratedCode("Speedment")
-public abstract class GeneratedCategoryImpl implements Category {
+public abstract class GeneratedCategoryImpl implements Category, HasDirtyFields {
     
+    private long dirtyFields;
     private short categoryId;
     private String name;
     private Timestamp lastUpdate;
     
     protected GeneratedCategoryImpl() {}
     
+    @Override
+    public long dirtyFields() {
+        return dirtyFields;
+    }
+    
+    @Override
+    public void clearDirtyFields() {
+        dirtyFields = 0;
+    }
+    
     @Override
     public short getCategoryId() {
         return categoryId;
@@ -42,18 +54,21 @@ public abstract class GeneratedCategoryImpl implements Category {
     @Override
     public Category setCategoryId(short categoryId) {
         this.categoryId = categoryId;
+        this.dirtyFields |= 1L << 0;
         return this;
     }
     
     @Override
     public Category setName(String name) {
         this.name = name;
+        this.dirtyFields |= 1L << 1;
         return this;
     }
     
     @Override
     public Category setLastUpdate(Timestamp lastUpdate) {
         this.lastUpdate = lastUpdate;
+        this.dirtyFields |= 1L << 2;
         return this;
     }
     
@@ -3,7 +3,9 @@ package com.company.sakila.db0.sakila.city.generated;
 import com.company.sakila.db0.sakila.city.City;
 import com.company.sakila.db0.sakila.country.Country;
 import com.speedment.common.annotation.GeneratedCode;
+import com.speedment.runtime.core.manager.HasDirtyFields;
 import com.speedment.runtime.core.manager.Manager;
+import com.speedment.runtime.core.stream.ForeignKeyResolver;
 import java.sql.Timestamp;
 import java.util.Objects;
 import java.util.StringJoiner;
@@ -18,8 +20,9 @@ import java.util.StringJoiner;
  * @author Speedment
  */
 @GeneratedCode("Speedment")
-public abstract class GeneratedCityImpl implements City {
+public abstract class GeneratedCityImpl implements City, HasDirtyFields {
     
+    private long dirtyFields;
     private int cityId;
     private String city;
     private int countryId;
@@ -27,6 +30,16 @@ public abstract class GeneratedCityImpl implements City {
     
     protected GeneratedCityImpl() {}
     
+    @Override
+    public long dirtyFields() {
+        return dirtyFields;
+    }
+    
+    @Override
+    public void clearDirtyFields() {
+        dirtyFields = 0;
+    }
+    
     @Override
     public int getCityId() {
         return cityId;
@@ -50,24 +63,28 @@ public abstract class GeneratedCityImpl implements City {
     @Override
     public City setCityId(int cityId) {
         this.cityId = cityId;
+        this.dirtyFields |= 1L << 0;
         return this;
     }
     
     @Override
     public City setCity(String city) {
         this.city = city;
+        this.dirtyFields |= 1L << 1;
         return this;
     }
     
     @Override
     public City setCountryId(int countryId) {
         this.countryId = countryId;
+        this.dirtyFields |= 1L << 2;
         return this;
     }
     
     @Override
     public City setLastUpdate(Timestamp lastUpdate) {
         this.lastUpdate = lastUpdate;
+        this.dirtyFields |= 1L << 3;
         return this;
     }
     
@@ -76,6 +93,17 @@ public abstract class GeneratedCityImpl implements City {
         return foreignManager.stream().filter(Country.COUNTRY_ID.equal(getCountryId())).findAny().orElse(null);
     }
     
+    /**
+     * Creates a resolver that reads the referenced Country entities of many
+     * City entities using one query per chunk rather than one query per entity.
+     * 
+     * @param foreignManager the manager to query for the entities
+     * @return               a resolver of the foreign entities referenced
+     */
+    public static ForeignKeyResolver<City, Country> countryIdResolver(Manager<Country> foreignManager) {
+        return ForeignKeyResolver.of(City.COUNTRY_ID, foreignManager);
+    }
+    
     @Override
     public String toString() {
         final StringJoiner sj = new StringJoiner(", ", "{ ", " }");
@@ -2,6 +2,7 @@ package com.company.sakila.db0.sakila.country.generated;
 
 import com.company.sakila.db0.sakila.country.Country;
 import com.speedment.common.annotation.GeneratedCode;
+import com.speedment.runtime.core.manager.HasDirtyFields;
 import java.sql.Timestamp;
 import java.util.Objects;
 import java.util.StringJoiner;
@@ -16,14 +17,25 @@ import java.util.StringJoiner;
  * @author Speedment
  */
 @GeneratedCode("Speedment")
-public abstract class GeneratedCountryImpl implements Country {
+public abstract class GeneratedCountryImpl implements Country, HasDirtyFields {
     
+    private long dirtyFields;
     private int countryId;
     private String country;
     private Timestamp lastUpdate;
     
     protected GeneratedCountryImpl() {}
     
+    @Override
+    public long dirtyFields() {
+        return dirtyFields;
+    }
+    
+    @Override
+    public void clearDirtyFields() {
+        dirtyFields = 0;
+    }
+    
     @Override
     public int getCountryId() {
         return countryId;
@@ -42,18 +54,21 @@ public abstract class GeneratedCountryImpl implements Country {
     @Override
     public Country setCountryId(int countryId) {
         this.countryId = countryId;
+        this.dirtyFields |= 1L << 0;
         return this;
     }
     
     @Override
     public Country setCountry(String country) {
         this.country = country;
+        this.dirtyFields |= 1L << 1;
         return this;
     }
     
     @Override
     public Country setLastUpdate(Timestamp lastUpdate) {
         this.lastUpdate = lastUpdate;
+        this.dirtyFields |= 1L << 2;
         return this;
     }
     
@@ -4,7 +4,9 @@ import com.company.sakila.db0.sakila.address.Address;
 import com.company.sakila.db0.sakila.customer.Customer;
 import com.company.sakila.db0.sakila.store.Store;
 import com.speedment.common.annotation.GeneratedCode;
+import com.speedment.runtime.core.manager.HasDirtyFields;
 import com.speedment.runtime.core.manager.Manager;
+import com.speedment.runtime.core.stream.ForeignKeyResolver;
 import com.speedment.runtime.core.util.OptionalUtil;
 import java.sql.Timestamp;
 import java.util.Objects;
@@ -21,8 +23,9 @@ import java.util.StringJoiner;
  * @author Speedment
  */
 @GeneratedCode("Speedment")
-public abstract class GeneratedCustomerImpl implements Customer {
+public abstract class GeneratedCustomerImpl implements Customer, HasDirtyFields {
     
+    private long dirtyFields;
     private int customerId;
     private short storeId;
     private String firstName;
@@ -35,6 +38,16 @@ public abstract class GeneratedCustomerImpl implements Customer {
     
     protected GeneratedCustomerImpl() {}
     
+    @Override
+    public long dirtyFields() {
+        return dirtyFields;
+    }
+    
+    @Override
+    public void clearDirtyFields() {
+        dirtyFields = 0;
+    }
+    
     @Override
     public int getCustomerId() {
         return customerId;
@@ -83,54 +96,63 @@ public abstract class GeneratedCustomerImpl implements Customer {
     @Override
     public Customer setCustomerId(int customerId) {
         this.customerId = customerId;
+        this.dirtyFields |= 1L << 0;
         return this;
     }
     
     @Override
     public Customer setStoreId(short storeId) {
         this.storeId = storeId;
+        this.dirtyFields |= 1L << 1;
         return this;
     }
     
     @Override
     public Customer setFirstName(String firstName) {
         this.firstName = firstName;
+        this.dirtyFields |= 1L << 2;
         return this;
     }
     
     @Override
     public Customer setLastName(String lastName) {
         this.lastName = lastName;
+        this.dirtyFields |= 1L << 3;
         return this;
     }
     
     @Override
     public Customer setEmail(String email) {
         this.email = email;
+        this.dirtyFields |= 1L << 4;
         return this;
     }
     
     @Override
     public Customer setAddressId(int addressId) {
         this.addressId = addressId;
+        this.dirtyFields |= 1L << 5;
         return this;
     }
     
     @Override
     public Customer setActive(int active) {
         this.active = active;
+        this.dirtyFields |= 1L << 6;
         return this;
     }
     
     @Override
     public Customer setCreateDate(Timestamp createDate) {
         this.createDate = createDate;
+        this.dirtyFields |= 1L << 7;
         return this;
     }
     
     @Override
     public Customer setLastUpdate(Timestamp lastUpdate) {
         this.lastUpdate = lastUpdate;
+        this.dirtyFields |= 1L << 8;
         return this;
     }
     
@@ -139,11 +161,35 @@ public abstract class GeneratedCustomerImpl implements Customer {
         return foreignManager.stream().filter(Store.STORE_ID.equal(getStoreId())).findAny().orElse(null);
     }
     
+    /**
+     * Creates a resolver that reads the referenced Store entities of many
+     * Customer entities using one query per chunk rather than one query per
+     * entity.
+     * 
+     * @param foreignManager the manager to query for the entities
+     * @return               a resolver of the foreign entities referenced
+     */
+    public static ForeignKeyResolver<Customer, Store> storeIdResolver(Manager<Store> foreignManager) {
+        return ForeignKeyResolver.of(Customer.STORE_ID, foreignManager);
+    }
+    
     @Override
     public Address findAddressId(Manager<Address> foreignManager) {
         return foreignManager.stream().filter(Address.ADDRESS_ID.equal(getAddressId())).findAny().orElse(null);
     }
     
+    /**
+     * Creates a resolver that reads the referenced Address entities of many
+     * Customer entities using one query per chunk rather than one query per
+     * entity.
+     * 
+     * @param foreignManager the manager to query for the entities
+     * @return               a resolver of the foreign entities referenced
+     */
+    public static ForeignKeyResolver<Customer, Address> addressIdResolver(Manager<Address> foreignManager) {
+        return ForeignKeyResolver.of(Customer.ADDRESS_ID, foreignManager);
+    }
+    
     @Override
     public String toString() {
         final StringJoiner sj = new StringJoiner(", ", "{ ", " }");
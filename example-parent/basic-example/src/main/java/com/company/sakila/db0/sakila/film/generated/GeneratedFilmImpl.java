@@ -3,7 +3,9 @@ package com.company.sakila.db0.sakila.film.generated;
 import com.company.sakila.db0.sakila.film.Film;
 import com.company.sakila.db0.sakila.language.Language;
 import com.speedment.common.annotation.GeneratedCode;
+import com.speedment.runtime.core.manager.HasDirtyFields;
 import com.speedment.runtime.core.manager.Manager;
+import com.speedment.runtime.core.stream.ForeignKeyResolver;
 import com.speedment.runtime.core.util.OptionalUtil;
 import java.math.BigDecimal;
 import java.sql.Date;
@@ -23,8 +25,9 @@ import java.util.StringJoiner;
  * @author Speedment
  */
 @GeneratedCode("Speedment")
-public abstract class GeneratedFilmImpl implements Film {
+public abstract class GeneratedFilmImpl implements Film, HasDirtyFields {
     
+    private long dirtyFields;
     private int filmId;
     private String title;
     private String description;
@@ -41,6 +44,16 @@ public abstract class GeneratedFilmImpl implements Film {
     
     protected GeneratedFilmImpl() {}
     
+    @Override
+    public long dirtyFields() {
+        return dirtyFields;
+    }
+    
+    @Override
+    public void clearDirtyFields() {
+        dirtyFields = 0;
+    }
+    
     @Override
     public int getFilmId() {
         return filmId;
@@ -109,78 +122,91 @@ public abstract class GeneratedFilmImpl implements Film {
     @Override
     public Film setFilmId(int filmId) {
         this.filmId = filmId;
+        this.dirtyFields |= 1L << 0;
         return this;
     }
     
     @Override
     public Film setTitle(String title) {
         this.title = title;
+        this.dirtyFields |= 1L << 1;
         return this;
     }
     
     @Override
     public Film setDescription(String description) {
         this.description = description;
+        this.dirtyFields |= 1L << 2;
         return this;
     }
     
     @Override
     public Film setReleaseYear(Date releaseYear) {
         this.releaseYear = releaseYear;
+        this.dirtyFields |= 1L << 3;
         return this;
     }
     
     @Override
     public Film setLanguageId(short languageId) {
         this.languageId = languageId;
+        this.dirtyFields |= 1L << 4;
         return this;
     }
     
     @Override
     public Film setOriginalLanguageId(Short originalLanguageId) {
         this.originalLanguageId = originalLanguageId;
+        this.dirtyFields |= 1L << 5;
         return this;
     }
     
     @Override
     public Film setRentalDuration(short rentalDuration) {
         this.rentalDuration = rentalDuration;
+        this.dirtyFields |= 1L << 6;
         return this;
     }
     
     @Override
     public Film setRentalRate(BigDecimal rentalRate) {
         this.rentalRate = rentalRate;
+        this.dirtyFields |= 1L << 7;
         return this;
     }
     
     @Override
     public Film setLength(Integer length) {
         this.length = length;
+        this.dirtyFields |= 1L << 8;
         return this;
     }
     
     @Override
     public Film setReplacementCost(BigDecimal replacementCost) {
         this.replacementCost = replacementCost;
+        this.dirtyFields |= 1L << 9;
         return this;
     }
     
     @Override
     public Film setRating(String rating) {
         this.rating = rating;
+        this.dirtyFields |= 1L << 10;
         return this;
     }
     
     @Override
     public Film setSpecialFeatures(String specialFeatures) {
         this.specialFeatures = specialFeatures;
+        this.dirtyFields |= 1L << 11;
         return this;
     }
     
     @Override
     public Film setLastUpdate(Timestamp lastUpdate) {
         this.lastUpdate = lastUpdate;
+        this.dirtyFields |= 1L << 12;
         return this;
     }
     
@@ -189,6 +215,17 @@ public abstract class GeneratedFilmImpl implements Film {
         return foreignManager.stream().filter(Language.LANGUAGE_ID.equal(getLanguageId())).findAny().orElse(null);
     }
     
+    /**
+     * Creates a resolver that reads the referenced Language entities of many
+     * Film entities using one query per chunk rather than one query per entity.
+     * 
+     * @param foreignManager the manager to query for the entities
+     * @return               a resolver of the foreign entities referenced
+     */
+    public static ForeignKeyResolver<Film, Language> languageIdResolver(Manager<Language> foreignManager) {
+        return ForeignKeyResolver.of(Film.LANGUAGE_ID, foreignManager);
+    }
+    
     @Override
     public Optional<Language> findOriginalLanguageId(Manager<Language> foreignManager) {
         if (getOriginalLanguageId().isPresent()) {
@@ -198,6 +235,17 @@ public abstract class GeneratedFilmImpl implements Film {
         }
     }
     
+    /**
+     * Creates a resolver that reads the referenced Language entities of many
+     * Film entities using one query per chunk rather than one query per entity.
+     * 
+     * @param foreignManager the manager to query for the entities
+     * @return               a resolver of the foreign entities referenced
+     */
+    public static ForeignKeyResolver<Film, Language> originalLanguageIdResolver(Manager<Language> foreignManager) {
+        return ForeignKeyResolver.of(Film.ORIGINAL_LANGUAGE_ID, foreignManager);
+    }
+    
     @Override
     public String toString() {
         final StringJoiner sj = new StringJoiner(", ", "{ ", " }");
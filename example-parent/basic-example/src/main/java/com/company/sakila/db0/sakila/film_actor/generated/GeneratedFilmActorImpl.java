@@ -4,7 +4,9 @@ import com.company.sakila.db0.sakila.actor.Actor;
 import com.company.sakila.db0.sakila.film.Film;
 import com.company.sakila.db0.sakila.film_actor.FilmActor;
 import com.speedment.common.annotation.GeneratedCode;
+import com.speedment.runtime.core.manager.HasDirtyFields;
 import com.speedment.runtime.core.manager.Manager;
+import com.speedment.runtime.core.stream.ForeignKeyResolver;
 import java.sql.Timestamp;
 import java.util.Objects;
 import java.util.StringJoiner;
@@ -19,14 +21,25 @@ import java.util.StringJoiner;
  * @author Speedment
  */
 @GeneratedCode("Speedment")
-public abstract class GeneratedFilmActorImpl implements FilmActor {
+public abstract class GeneratedFilmActorImpl implements FilmActor, HasDirtyFields {
     
+    private long dirtyFields;
     private int actorId;
     private int filmId;
     private Timestamp lastUpdate;
     
     protected GeneratedFilmActorImpl() {}
     
+    @Override
+    public long dirtyFields() {
+        return dirtyFields;
+    }
+    
+    @Override
+    public void clearDirtyFields() {
+        dirtyFields = 0;
+    }
+    
     @Override
     public int getActorId() {
         return actorId;
@@ -45,18 +58,21 @@ public abstract class GeneratedFilmActorImpl implements FilmActor {
     @Override
     public FilmActor setActorId(int actorId) {
         this.actorId = actorId;
+        this.dirtyFields |= 1L << 0;
         return this;
     }
     
     @Override
     public FilmActor setFilmId(int filmId) {
         this.filmId = filmId;
+        this.dirtyFields |= 1L << 1;
         return this;
     }
     
     @Override
     public FilmActor setLastUpdate(Timestamp lastUpdate) {
         this.lastUpdate = lastUpdate;
+        this.dirtyFields |= 1L << 2;
         return this;
     }
     
@@ -65,11 +81,35 @@ public abstract class GeneratedFilmActorImpl implements FilmActor {
         return foreignManager.stream().filter(Actor.ACTOR_ID.equal(getActorId())).findAny().orElse(null);
     }
     
+    /**
+     * Creates a resolver that reads the referenced Actor entities of many
+     * FilmActor entities using one query per chunk rather than one query per
+     * entity.
+     * 
+     * @param foreignManager the manager to query for the entities
+     * @return               a resolver of the foreign entities referenced
+     */
+    public static ForeignKeyResolver<FilmActor, Actor> actorIdResolver(Manager<Actor> foreignManager) {
+        return ForeignKeyResolver.of(FilmActor.ACTOR_ID, foreignManager);
+    }
+    
     @Override
     public Film findFilmId(Manager<Film> foreignManager) {
         return foreignManager.stream().filter(Film.FILM_ID.equal(getFilmId())).findAny().orElse(null);
     }
     
+    /**
+     * Creates a resolver that reads the referenced Film entities of many
+     * FilmActor entities using one query per chunk rather than one query per
+     * entity.
+     * 
+     * @param foreignManager the manager to query for the entities
+     * @return               a resolver of the foreign entities referenced
+     */
+    public static ForeignKeyResolver<FilmActor, Film> filmIdResolver(Manager<Film> foreignManager) {
+        return ForeignKeyResolver.of(FilmActor.FILM_ID, foreignManager);
+    }
+    
     @Override
     public String toString() {
         final StringJoiner sj = new StringJoiner(", ", "{ ", " }");
@@ -4,7 +4,9 @@ import com.company.sakila.db0.sakila.category.Category;
 import com.company.sakila.db0.sakila.film.Film;
 import com.company.sakila.db0.sakila.film_category.FilmCategory;
 import com.speedment.common.annotation.GeneratedCode;
+import com.speedment.runtime.core.manager.HasDirtyFields;
 import com.speedment.runtime.core.manager.Manager;
+import com.speedment.runtime.core.stream.ForeignKeyResolver;
 import java.sql.Timestamp;
 import java.util.Objects;
 import java.util.StringJoiner;
@@ -19,14 +21,25 @@ import java.util.StringJoiner;
  * @author Speedment
  */
 @GeneratedCode("Speedment")
-public abstract class GeneratedFilmCategoryImpl implements FilmCategory {
+public abstract class GeneratedFilmCategoryImpl implements FilmCategory, HasDirtyFields {
     
+    private long dirtyFields;
     private int filmId;
     private short categoryId;
     private Timestamp lastUpdate;
     
     protected GeneratedFilmCategoryImpl() {}
     
+    @Override
+    public long dirtyFields() {
+        return dirtyFields;
+    }
+    
+    @Override
+    public void clearDirtyFields() {
+        dirtyFields = 0;
+    }
+    
     @Override
     public int getFilmId() {
         return filmId;
@@ -45,18 +58,21 @@ public abstract class GeneratedFilmCategoryImpl implements FilmCategory {
     @Override
     public FilmCategory setFilmId(int filmId) {
         this.filmId = filmId;
+        this.dirtyFields |= 1L << 0;
         return this;
     }
     
     @Override
     public FilmCategory setCategoryId(short categoryId) {
         this.categoryId = categoryId;
+        this.dirtyFields |= 1L << 1;
         return this;
     }
     
     @Override
     public FilmCategory setLastUpdate(Timestamp lastUpdate) {
         this.lastUpdate = lastUpdate;
+        this.dirtyFields |= 1L << 2;
         return this;
     }
     
@@ -65,11 +81,35 @@ public abstract class GeneratedFilmCategoryImpl implements FilmCategory {
         return foreignManager.stream().filter(Film.FILM_ID.equal(getFilmId())).findAny().orElse(null);
     }
     
+    /**
+     * Creates a resolver that reads the referenced Film entities of many
+     * FilmCategory entities using one query per chunk rather than one query per
+     * entity.
+     * 
+     * @param foreignManager the manager to query for the entities
+     * @return               a resolver of the foreign entities referenced
+     */
+    public static ForeignKeyResolver<FilmCategory, Film> filmIdResolver(Manager<Film> foreignManager) {
+        return ForeignKeyResolver.of(FilmCategory.FILM_ID, foreignManager);
+    }
+    
     @Override
     public Category findCategoryId(Manager<Category> foreignManager) {
         return foreignManager.stream().filter(Category.CATEGORY_ID.equal(getCategoryId())).findAny().orElse(null);
     }
     
+    /**
+     * Creates a resolver that reads the referenced Category entities of many
+     * FilmCategory entities using one query per chunk rather than one query per
+     * entity.
+     * 
+     * @param foreignManager the manager to query for the entities
+     * @return               a resolver of the foreign entities referenced
+     */
+    public static ForeignKeyResolver<FilmCategory, Category> categoryIdResolver(Manager<Category> foreignManager) {
+        return ForeignKeyResolver.of(FilmCategory.CATEGORY_ID, foreignManager);
+    }
+    
     @Override
     public String toString() {
         final StringJoiner sj = new StringJoiner(", ", "{ ", " }");
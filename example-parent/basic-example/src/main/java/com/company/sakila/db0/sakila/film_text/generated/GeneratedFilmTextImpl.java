@@ -2,6 +2,7 @@ package com.company.sakila.db0.sakila.film_text.generated;
 
 import com.company.sakila.db0.sakila.film_text.FilmText;
 import com.speedment.common.annotation.GeneratedCode;
+import com.speedment.runtime.core.manager.HasDirtyFields;
 import com.speedment.runtime.core.util.OptionalUtil;
 import java.util.Objects;
 import java.util.Optional;
@@ -17,14 +18,25 @@ import java.util.StringJoiner;
  * @author Speedment
  */
 @GeneratedCode("Speedment")
-public abstract class GeneratedFilmTextImpl implements FilmText {
+public abstract class GeneratedFilmTextImpl implements FilmText, HasDirtyFields {
     
+    private long dirtyFields;
     private short filmId;
     private String title;
     private String description;
     
     protected GeneratedFilmTextImpl() {}
     
+    @Override
+    public long dirtyFields() {
+        return dirtyFields;
+    }
+    
+    @Override
+    public void clearDirtyFields() {
+        dirtyFields = 0;
+    }
+    
     @Override
     public short getFilmId() {
         return filmId;
@@ -43,18 +55,21 @@ public abstract class GeneratedFilmTextImpl implements FilmText {
     @Override
     public FilmText setFilmId(short filmId) {
         this.filmId = filmId;
+        this.dirtyFields |= 1L << 0;
         return this;
     }
     
     @Override
     public FilmText setTitle(String title) {
         this.title = title;
+        this.dirtyFields |= 1L << 1;
         return this;
     }
     
     @Override
     public FilmText setDescription(String description) {
         this.description = description;
+        this.dirtyFields |= 1L << 2;
         return this;
     }
     
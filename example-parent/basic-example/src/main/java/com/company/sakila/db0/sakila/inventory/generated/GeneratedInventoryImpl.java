@@ -4,7 +4,9 @@ import com.company.sakila.db0.sakila.film.Film;
 import com.company.sakila.db0.sakila.inventory.Inventory;
 import com.company.sakila.db0.sakila.store.Store;
 import com.speedment.common.annotation.GeneratedCode;
+import com.speedment.runtime.core.manager.HasDirtyFields;
 import com.speedment.runtime.core.manager.Manager;
+import com.speedment.runtime.core.stream.ForeignKeyResolver;
 import java.sql.Timestamp;
 import java.util.Objects;
 import java.util.StringJoiner;
@@ -19,8 +21,9 @@ import java.util.StringJoiner;
  * @author Speedment
  */
 @GeneratedCode("Speedment")
-public abstract class GeneratedInventoryImpl implements Inventory {
+public abstract class GeneratedInventoryImpl implements Inventory, HasDirtyFields {
     
+    private long dirtyFields;
     private int inventoryId;
     private int filmId;
     private short storeId;
@@ -28,6 +31,16 @@ public abstract class GeneratedInventoryImpl implements Inventory {
     
     protected GeneratedInventoryImpl() {}
     
+    @Override
+    public long dirtyFields() {
+        return dirtyFields;
+    }
+    
+    @Override
+    public void clearDirtyFields() {
+        dirtyFields = 0;
+    }
+    
     @Override
     public int getInventoryId() {
         return inventoryId;
@@ -51,24 +64,28 @@ public abstract class GeneratedInventoryImpl implements Inventory {
     @Override
     public Inventory setInventoryId(int inventoryId) {
         this.inventoryId = inventoryId;
+        this.dirtyFields |= 1L << 0;
         return this;
     }
     
     @Override
     public Inventory setFilmId(int filmId) {
         this.filmId = filmId;
+        this.dirtyFields |= 1L << 1;
         return this;
     }
     
     @Override
     public Inventory setStoreId(short storeId) {
         this.storeId = storeId;
+        this.dirtyFields |= 1L << 2;
         return this;
     }
     
     @Override
     public Inventory setLastUpdate(Timestamp lastUpdate) {
         this.lastUpdate = lastUpdate;
+        this.dirtyFields |= 1L << 3;
         return this;
     }
     
@@ -77,11 +94,35 @@ public abstract class GeneratedInventoryImpl implements Inventory {
         return foreignManager.stream().filter(Film.FILM_ID.equal(getFilmId())).findAny().orElse(null);
     }
     
+    /**
+     * Creates a resolver that reads the referenced Film entities of many
+     * Inventory entities using one query per chunk rather than one query per
+     * entity.
+     * 
+     * @param foreignManager the manager to query for the entities
+     * @return               a resolver of the foreign entities referenced
+     */
+    public static ForeignKeyResolver<Inventory, Film> filmIdResolver(Manager<Film> foreignManager) {
+        return ForeignKeyResolver.of(Inventory.FILM_ID, foreignManager);
+    }
+    
     @Override
     public Store findStoreId(Manager<Store> foreignManager) {
         return foreignManager.stream().filter(Store.STORE_ID.equal(getStoreId())).findAny().orElse(null);
     }
     
+    /**
+     * Creates a resolver that reads the referenced Store entities of many
+     * Inventory entities using one query per chunk rather than one query per
+     * entity.
+     * 
+     * @param foreignManager the manager to query for the entities
+     * @return               a resolver of the foreign entities referenced
+     */
+    public static ForeignKeyResolver<Inventory, Store> storeIdResolver(Manager<Store> foreignManager) {
+        return ForeignKeyResolver.of(Inventory.STORE_ID, foreignManager);
+    }
+    
     @Override
     public String toString() {
         final StringJoiner sj = new StringJoiner(", ", "{ ", " }");
@@ -2,6 +2,7 @@ package com.company.sakila.db0.sakila.language.generated;
 
 import com.company.sakila.db0.sakila.language.Language;
 import com.speedment.common.annotation.GeneratedCode;
+import com.speedment.runtime.core.manager.HasDirtyFields;
 import java.sql.Timestamp;
 import java.util.Objects;
 import java.util.StringJoiner;
@@ -16,14 +17,25 @@ import java.util.StringJoiner;
  * @author Speedment
  */
 @GeneratedCode("Speedment")
-public abstract class GeneratedLanguageImpl implements Language {
+public abstract class GeneratedLanguageImpl implements Language, HasDirtyFields {
     
+    private long dirtyFields;
     private short languageId;
     private String name;
     private Timestamp lastUpdate;
     
     protected GeneratedLanguageImpl() {}
     
+    @Override
+    public long dirtyFields() {
+        return dirtyFields;
+    }
+    
+    @Override
+    public void clearDirtyFields() {
+        dirtyFields = 0;
+    }
+    
     @Override
     public short getLanguageId() {
         return languageId;
@@ -42,18 +54,21 @@ public abstract class GeneratedLanguageImpl implements Language {
     @Override
     public Language setLanguageId(short languageId) {
         this.languageId = languageId;
+        this.dirtyFields |= 1L << 0;
         return this;
     }
     
     @Override
     public Language setName(String name) {
         this.name = name;
+        this.dirtyFields |= 1L << 1;
         return this;
     }
     
     @Override
     public Language setLastUpdate(Timestamp lastUpdate) {
         this.lastUpdate = lastUpdate;
+        this.dirtyFields |= 1L << 2;
         return this;
     }
     
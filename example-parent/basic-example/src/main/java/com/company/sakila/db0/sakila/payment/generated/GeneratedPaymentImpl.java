@@ -5,7 +5,9 @@ import com.company.sakila.db0.sakila.payment.Payment;
 import com.company.sakila.db0.sakila.rental.Rental;
 import com.company.sakila.db0.sakila.staff.Staff;
 import com.speedment.common.annotation.GeneratedCode;
+import com.speedment.runtime.core.manager.HasDirtyFields;
 import com.speedment.runtime.core.manager.Manager;
+import com.speedment.runtime.core.stream.ForeignKeyResolver;
 import com.speedment.runtime.core.util.OptionalUtil;
 import java.math.BigDecimal;
 import java.sql.Timestamp;
@@ -24,8 +26,9 @@ import java.util.StringJoiner;
  * @author Speedment
  */
 @GeneratedCode("Speedment")
-public abstract class GeneratedPaymentImpl implements Payment {
+public abstract class GeneratedPaymentImpl implements Payment, HasDirtyFields {
     
+    private long dirtyFields;
     private int paymentId;
     private int customerId;
     private short staffId;
@@ -36,6 +39,16 @@ public abstract class GeneratedPaymentImpl implements Payment {
     
     protected GeneratedPaymentImpl() {}
     
+    @Override
+    public long dirtyFields() {
+        return dirtyFields;
+    }
+    
+    @Override
+    public void clearDirtyFields() {
+        dirtyFields = 0;
+    }
+    
     @Override
     public int getPaymentId() {
         return paymentId;
@@ -74,42 +87,49 @@ public abstract class GeneratedPaymentImpl implements Payment {
     @Override
     public Payment setPaymentId(int paymentId) {
         this.paymentId = paymentId;
+        this.dirtyFields |= 1L << 0;
         return this;
     }
     
     @Override
     public Payment setCustomerId(int customerId) {
         this.customerId = customerId;
+        this.dirtyFields |= 1L << 1;
         return this;
     }
     
     @Override
     public Payment setStaffId(short staffId) {
         this.staffId = staffId;
+        this.dirtyFields |= 1L << 2;
         return this;
     }
     
     @Override
     public Payment setRentalId(Integer rentalId) {
         this.rentalId = rentalId;
+        this.dirtyFields |= 1L << 3;
         return this;
     }
     
     @Override
     public Payment setAmount(BigDecimal amount) {
         this.amount = amount;
+        this.dirtyFields |= 1L << 4;
         return this;
     }
     
     @Override
     public Payment setPaymentDate(Timestamp paymentDate) {
         this.paymentDate = paymentDate;
+        this.dirtyFields |= 1L << 5;
         return this;
     }
     
     @Override
     public Payment setLastUpdate(Timestamp lastUpdate) {
         this.lastUpdate = lastUpdate;
+        this.dirtyFields |= 1L << 6;
         return this;
     }
     
@@ -118,11 +138,35 @@ public abstract class GeneratedPaymentImpl implements Payment {
         return foreignManager.stream().filter(Customer.CUSTOMER_ID.equal(getCustomerId())).findAny().orElse(null);
     }
     
+    /**
+     * Creates a resolver that reads the referenced Customer entities of many
+     * Payment entities using one query per chunk rather than one query per
+     * entity.
+     * 
+     * @param foreignManager the manager to query for the entities
+     * @return               a resolver of the foreign entities referenced
+     */
+    public static ForeignKeyResolver<Payment, Customer> customerIdResolver(Manager<Customer> foreignManager) {
+        return ForeignKeyResolver.of(Payment.CUSTOMER_ID, foreignManager);
+    }
+    
     @Override
     public Staff findStaffId(Manager<Staff> foreignManager) {
         return foreignManager.stream().filter(Staff.STAFF_ID.equal(getStaffId())).findAny().orElse(null);
     }
     
+    /**
+     * Creates a resolver that reads the referenced Staff entities of many
+     * Payment entities using one query per chunk rather than one query per
+     * entity.
+     * 
+     * @param foreignManager the manager to query for the entities
+     * @return               a resolver of the foreign entities referenced
+     */
+    public static ForeignKeyResolver<Payment, Staff> staffIdResolver(Manager<Staff> foreignManager) {
+        return ForeignKeyResolver.of(Payment.STAFF_ID, foreignManager);
+    }
+    
     @Override
     public Optional<Rental> findRentalId(Manager<Rental> foreignManager) {
         if (getRentalId().isPresent()) {
@@ -132,6 +176,18 @@ public abstract class GeneratedPaymentImpl implements Payment {
         }
     }
     
+    /**
+     * Creates a resolver that reads the referenced Rental entities of many
+     * Payment entities using one query per chunk rather than one query per
+     * entity.
+     * 
+     * @param foreignManager the manager to query for the entities
+     * @return               a resolver of the foreign entities referenced
+     */
+    public static ForeignKeyResolver<Payment, Rental> rentalIdResolver(Manager<Rental> foreignManager) {
+        return ForeignKeyResolver.of(Payment.RENTAL_ID, foreignManager);
+    }
+    
     @Override
     public String toString() {
         final StringJoiner sj = new StringJoiner(", ", "{ ", " }");
@@ -5,7 +5,9 @@ import com.company.sakila.db0.sakila.inventory.Inventory;
 import com.company.sakila.db0.sakila.rental.Rental;
 import com.company.sakila.db0.sakila.staff.Staff;
 import com.speedment.common.annotation.GeneratedCode;
+import com.speedment.runtime.core.manager.HasDirtyFields;
 import com.speedment.runtime.core.manager.Manager;
+import com.speedment.runtime.core.stream.ForeignKeyResolver;
 import com.speedment.runtime.core.util.OptionalUtil;
 import java.sql.Timestamp;
 import java.util.Objects;
@@ -22,8 +24,9 @@ import java.util.StringJoiner;
  * @author Speedment
  */
 @GeneratedCode("Speedment")
-public abstract class GeneratedRentalImpl implements Rental {
+public abstract class GeneratedRentalImpl implements Rental, HasDirtyFields {
     
+    private long dirtyFields;
     private int rentalId;
     private Timestamp rentalDate;
     private int inventoryId;
@@ -34,6 +37,16 @@ public abstract class GeneratedRentalImpl implements Rental {
     
     protected GeneratedRentalImpl() {}
     
+    @Override
+    public long dirtyFields() {
+        return dirtyFields;
+    }
+    
+    @Override
+    public void clearDirtyFields() {
+        dirtyFields = 0;
+    }
+    
     @Override
     public int getRentalId() {
         return rentalId;
@@ -72,42 +85,49 @@ public abstract class GeneratedRentalImpl implements Rental {
     @Override
     public Rental setRentalId(int rentalId) {
         this.rentalId = rentalId;
+        this.dirtyFields |= 1L << 0;
         return this;
     }
     
     @Override
     public Rental setRentalDate(Timestamp rentalDate) {
         this.rentalDate = rentalDate;
+        this.dirtyFields |= 1L << 1;
         return this;
     }
     
     @Override
     public Rental setInventoryId(int inventoryId) {
         this.inventoryId = inventoryId;
+        this.dirtyFields |= 1L << 2;
         return this;
     }
     
     @Override
     public Rental setCustomerId(int customerId) {
         this.customerId = customerId;
+        this.dirtyFields |= 1L << 3;
         return this;
     }
     
     @Override
     public Rental setReturnDate(Timestamp returnDate) {
         this.returnDate = returnDate;
+        this.dirtyFields |= 1L << 4;
         return this;
     }
     
     @Override
     public Rental setStaffId(short staffId) {
         this.staffId = staffId;
+        this.dirtyFields |= 1L << 5;
         return this;
     }
     
     @Override
     public Rental setLastUpdate(Timestamp lastUpdate) {
         this.lastUpdate = lastUpdate;
+        this.dirtyFields |= 1L << 6;
         return this;
     }
     
@@ -116,16 +136,52 @@ public abstract class GeneratedRentalImpl implements Rental {
         return foreignManager.stream().filter(Inventory.INVENTORY_ID.equal(getInventoryId())).findAny().orElse(null);
     }
     
+    /**
+     * Creates a resolver that reads the referenced Inventory entities of many
+     * Rental entities using one query per chunk rather than one query per
+     * entity.
+     * 
+     * @param foreignManager the manager to query for the entities
+     * @return               a resolver of the foreign entities referenced
+     */
+    public static ForeignKeyResolver<Rental, Inventory> inventoryIdResolver(Manager<Inventory> foreignManager) {
+        return ForeignKeyResolver.of(Rental.INVENTORY_ID, foreignManager);
+    }
+    
     @Override
     public Customer findCustomerId(Manager<Customer> foreignManager) {
         return foreignManager.stream().filter(Customer.CUSTOMER_ID.equal(getCustomerId())).findAny().orElse(null);
     }
     
+    /**
+     * Creates a resolver that reads the referenced Customer entities of many
+     * Rental entities using one query per chunk rather than one query per
+     * entity.
+     * 
+     * @param foreignManager the manager to query for the entities
+     * @return               a resolver of the foreign entities referenced
+     */
+    public static ForeignKeyResolver<Rental, Customer> customerIdResolver(Manager<Customer> foreignManager) {
+        return ForeignKeyResolver.of(Rental.CUSTOMER_ID, foreignManager);
+    }
+    
     @Override
     public Staff findStaffId(Manager<Staff> foreignManager) {
         return foreignManager.stream().filter(Staff.STAFF_ID.equal(getStaffId())).findAny().orElse(null);
     }
     
+    /**
+     * Creates a resolver that reads the referenced Staff entities of many
+     * Rental entities using one query per chunk rather than one query per
+     * entity.
+     * 
+     * @param foreignManager the manager to query for the entities
+     * @return               a resolver of the foreign entities referenced
+     */
+    public static ForeignKeyResolver<Rental, Staff> staffIdResolver(Manager<Staff> foreignManager) {
+        return ForeignKeyResolver.of(Rental.STAFF_ID, foreignManager);
+    }
+    
     @Override
     public String toString() {
         final StringJoiner sj = new StringJoiner(", ", "{ ", " }");
@@ -4,7 +4,9 @@ import com.company.sakila.db0.sakila.address.Address;
 import com.company.sakila.db0.sakila.staff.Staff;
 import com.company.sakila.db0.sakila.store.Store;
 import com.speedment.common.annotation.GeneratedCode;
+import com.speedment.runtime.core.manager.HasDirtyFields;
 import com.speedment.runtime.core.manager.Manager;
+import com.speedment.runtime.core.stream.ForeignKeyResolver;
 import com.speedment.runtime.core.util.OptionalUtil;
 import java.sql.Blob;
 import java.sql.Timestamp;
@@ -22,8 +24,9 @@ import java.util.StringJoiner;
  * @author Speedment
  */
 @GeneratedCode("Speedment")
-public abstract class GeneratedStaffImpl implements Staff {
+public abstract class GeneratedStaffImpl implements Staff, HasDirtyFields {
     
+    private long dirtyFields;
     private short staffId;
     private String firstName;
     private String lastName;
@@ -38,6 +41,16 @@ public abstract class GeneratedStaffImpl implements Staff {
     
     protected GeneratedStaffImpl() {}
     
+    @Override
+    public long dirtyFields() {
+        return dirtyFields;
+    }
+    
+    @Override
+    public void clearDirtyFields() {
+        dirtyFields = 0;
+    }
+    
     @Override
     public short getStaffId() {
         return staffId;
@@ -96,66 +109,77 @@ public abstract class GeneratedStaffImpl implements Staff {
     @Override
     public Staff setStaffId(short staffId) {
         this.staffId = staffId;
+        this.dirtyFields |= 1L << 0;
         return this;
     }
     
     @Override
     public Staff setFirstName(String firstName) {
         this.firstName = firstName;
+        this.dirtyFields |= 1L << 1;
         return this;
     }
     
     @Override
     public Staff setLastName(String lastName) {
         this.lastName = lastName;
+        this.dirtyFields |= 1L << 2;
         return this;
     }
     
     @Override
     public Staff setAddressId(int addressId) {
         this.addressId = addressId;
+        this.dirtyFields |= 1L << 3;
         return this;
     }
     
     @Override
     public Staff setPicture(Blob picture) {
         this.picture = picture;
+        this.dirtyFields |= 1L << 4;
         return this;
     }
     
     @Override
     public Staff setEmail(String email) {
         this.email = email;
+        this.dirtyFields |= 1L << 5;
         return this;
     }
     
     @Override
     public Staff setStoreId(short storeId) {
         this.storeId = storeId;
+        this.dirtyFields |= 1L << 6;
         return this;
     }
     
     @Override
     public Staff setActive(String active) {
         this.active = active;
+        this.dirtyFields |= 1L << 7;
         return this;
     }
     
     @Override
     public Staff setUsername(String username) {
         this.username = username;
+        this.dirtyFields |= 1L << 8;
         return this;
     }
     
     @Override
     public Staff setPassword(String password) {
         this.password = password;
+        this.dirtyFields |= 1L << 9;
         return this;
     }
     
     @Override
     public Staff setLastUpdate(Timestamp lastUpdate) {
         this.lastUpdate = lastUpdate;
+        this.dirtyFields |= 1L << 10;
         return this;
     }
     
@@ -164,11 +188,34 @@ public abstract class GeneratedStaffImpl implements Staff {
         return foreignManager.stream().filter(Address.ADDRESS_ID.equal(getAddressId())).findAny().orElse(null);
     }
     
+    /**
+     * Creates a resolver that reads the referenced Address entities of many
+     * Staff entities using one query per chunk rather than one query per
+     * entity.
+     * 
+     * @param foreignManager the manager to query for the entities
+     * @return               a resolver of the foreign entities referenced
+     */
+    public static ForeignKeyResolver<Staff, Address> addressIdResolver(Manager<Address> foreignManager) {
+        return ForeignKeyResolver.of(Staff.ADDRESS_ID, foreignManager);
+    }
+    
     @Override
     public Store findStoreId(Manager<Store> foreignManager) {
         return foreignManager.stream().filter(Store.STORE_ID.equal(getStoreId())).findAny().orElse(null);
     }
     
+    /**
+     * Creates a resolver that reads the referenced Store entities of many Staff
+     * entities using one query per chunk rather than one query per entity.
+     * 
+     * @param foreignManager the manager to query for the entities
+     * @return               a resolver of the foreign entities referenced
+     */
+    public static ForeignKeyResolver<Staff, Store> storeIdResolver(Manager<Store> foreignManager) {
+        return ForeignKeyResolver.of(Staff.STORE_ID, foreignManager);
+    }
+    
     @Override
     public String toString() {
         final StringJoiner sj = new StringJoiner(", ", "{ ", " }");
@@ -4,7 +4,9 @@ import com.company.sakila.db0.sakila.address.Address;
 import com.company.sakila.db0.sakila.staff.Staff;
 import com.company.sakila.db0.sakila.store.Store;
 import com.speedment.common.annotation.GeneratedCode;
+import com.speedment.runtime.core.manager.HasDirtyFields;
 import com.speedment.runtime.core.manager.Manager;
+import com.speedment.runtime.core.stream.ForeignKeyResolver;
 import java.sql.Timestamp;
 import java.util.Objects;
 import java.util.StringJoiner;
@@ -19,8 +21,9 @@ import java.util.StringJoiner;
  * @author Speedment
  */
 @GeneratedCode("Speedment")
-public abstract class GeneratedStoreImpl implements Store {
+public abstract class GeneratedStoreImpl implements Store, HasDirtyFields {
     
+    private long dirtyFields;
     private short storeId;
     private short managerStaffId;
     private int addressId;
@@ -28,6 +31,16 @@ public abstract class GeneratedStoreImpl implements Store {
     
     protected GeneratedStoreImpl() {}
     
+    @Override
+    public long dirtyFields() {
+        return dirtyFields;
+    }
+    
+    @Override
+    public void clearDirtyFields() {
+        dirtyFields = 0;
+    }
+    
     @Override
     public short getStoreId() {
         return storeId;
@@ -51,24 +64,28 @@ public abstract class GeneratedStoreImpl implements Store {
     @Override
     public Store setStoreId(short storeId) {
         this.storeId = storeId;
+        this.dirtyFields |= 1L << 0;
         return this;
     }
     
     @Override
     public Store setManagerStaffId(short managerStaffId) {
         this.managerStaffId = managerStaffId;
+        this.dirtyFields |= 1L << 1;
         return this;
     }
     
     @Override
     public Store setAddressId(int addressId) {
         this.addressId = addressId;
+        this.dirtyFields |= 1L << 2;
         return this;
     }
     
     @Override
     public Store setLastUpdate(Timestamp lastUpdate) {
         this.lastUpdate = lastUpdate;
+        this.dirtyFields |= 1L << 3;
         return this;
     }
     
@@ -77,11 +94,34 @@ public abstract class GeneratedStoreImpl implements Store {
         return foreignManager.stream().filter(Staff.STAFF_ID.equal(getManagerStaffId())).findAny().orElse(null);
     }
     
+    /**
+     * Creates a resolver that reads the referenced Staff entities of many Store
+     * entities using one query per chunk rather than one query per entity.
+     * 
+     * @param foreignManager the manager to query for the entities
+     * @return               a resolver of the foreign entities referenced
+     */
+    public static ForeignKeyResolver<Store, Staff> managerStaffIdResolver(Manager<Staff> foreignManager) {
+        return ForeignKeyResolver.of(Store.MANAGER_STAFF_ID, foreignManager);
+    }
+    
     @Override
     public Address findAddressId(Manager<Address> foreignManager) {
         return foreignManager.stream().filter(Address.ADDRESS_ID.equal(getAddressId())).findAny().orElse(null);
     }
     
+    /**
+     * Creates a resolver that reads the referenced Address entities of many
+     * Store entities using one query per chunk rather than one query per
+     * entity.
+     * 
+     * @param foreignManager the manager to query for the entities
+     * @return               a resolver of the foreign entities referenced
+     */
+    public static ForeignKeyResolver<Store, Address> addressIdResolver(Manager<Address> foreignManager) {
+        return ForeignKeyResolver.of(Store.ADDRESS_ID, foreignManager);
+    }
+    
     @Override
     public String toString() {
         final StringJoiner sj = new StringJoiner(", ", "{ ", " }");
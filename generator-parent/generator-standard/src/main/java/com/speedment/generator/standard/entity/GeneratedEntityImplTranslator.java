@@ -17,6 +17,7 @@
 package com.speedment.generator.standard.entity;
 
 import com.speedment.common.codegen.constant.DefaultAnnotationUsage;
+import com.speedment.common.codegen.constant.DefaultJavadocTag;
 import static com.speedment.common.codegen.constant.DefaultAnnotationUsage.OVERRIDE;
 import com.speedment.common.codegen.constant.DefaultType;
 import com.speedment.common.codegen.constant.SimpleParameterizedType;
@@ -25,6 +26,7 @@ import com.speedment.common.codegen.model.Constructor;
 import com.speedment.common.codegen.model.Field;
 import com.speedment.common.codegen.model.File;
 import com.speedment.common.codegen.model.Import;
+import com.speedment.common.codegen.model.Javadoc;
 import com.speedment.common.codegen.model.Method;
 import static com.speedment.common.codegen.util.Formatting.block;
 import com.speedment.common.injector.Injector;
@@ -40,14 +42,19 @@ import com.speedment.generator.translator.component.TypeMapperComponent;
 import com.speedment.runtime.config.Column;
 import com.speedment.runtime.config.Table;
 import com.speedment.runtime.config.trait.HasNullable;
+import com.speedment.runtime.core.manager.HasDirtyFields;
 import com.speedment.runtime.core.manager.Manager;
+import com.speedment.runtime.core.stream.ForeignKeyResolver;
 import com.speedment.runtime.core.util.OptionalUtil;
 import java.lang.reflect.Type;
+import java.util.List;
 import java.util.Objects;
 import static java.util.Objects.requireNonNull;
 import java.util.Optional;
 import java.util.OptionalInt;
 import java.util.StringJoiner;
+import static java.util.Comparator.comparing;
+import static java.util.stream.Collectors.toList;
 
 /**
  *
@@ -56,6 +63,8 @@ import java.util.StringJoiner;
  */
 public final class GeneratedEntityImplTranslator extends AbstractEntityAndManagerTranslator<Class> {
 
+    private static final String DIRTY_FIELDS = "dirtyFields";
+
     @Inject private TypeMapperComponent typeMappers;
     @Inject private Injector injector;
     
@@ -79,6 +88,23 @@ public final class GeneratedEntityImplTranslator extends AbstractEntityAndManage
                     .add(Constructor.of().protected_())
             )
             
+            /**
+             * Dirty field tracking
+             */
+            .forEveryTable((clazz, table) -> {
+                if (tracksDirtyFields()) {
+                    file.add(Import.of(HasDirtyFields.class));
+                    clazz.add(HasDirtyFields.class)
+                        .add(Field.of(DIRTY_FIELDS, long.class).private_())
+                        .add(Method.of(DIRTY_FIELDS, long.class)
+                            .public_().add(OVERRIDE)
+                            .add("return " + DIRTY_FIELDS + ";"))
+                        .add(Method.of("clearDirtyFields", void.class)
+                            .public_().add(OVERRIDE)
+                            .add(DIRTY_FIELDS + " = 0;"));
+                }
+            })
+            
             /**
              * Getters
              */
@@ -106,15 +132,18 @@ public final class GeneratedEntityImplTranslator extends AbstractEntityAndManage
             /**
              * Setters
              */
-            .forEveryColumn((clazz, col) -> 
-                clazz
-                    .add(Method.of(SETTER_METHOD_PREFIX + getSupport().typeName(col), getSupport().entityType())
-                        .public_()
-                        .add(OVERRIDE)
-                        .add(fieldFor(col))
-                        .add("this." + getSupport().variableName(col) + " = " + getSupport().variableName(col) + ";")
-                        .add("return this;"))
-            )
+            .forEveryColumn((clazz, col) -> {
+                final Method setter = Method.of(SETTER_METHOD_PREFIX + getSupport().typeName(col), getSupport().entityType())
+                    .public_()
+                    .add(OVERRIDE)
+                    .add(fieldFor(col))
+                    .add("this." + getSupport().variableName(col) + " = " + getSupport().variableName(col) + ";");
+                final OptionalInt bit = dirtyFieldBit(col);
+                if (bit.isPresent()) {
+                    setter.add("this." + DIRTY_FIELDS + " |= 1L << " + bit.getAsInt() + ";");
+                }
+                clazz.add(setter.add("return this;"));
+            })
             
             /**
              * Finders
@@ -157,6 +186,31 @@ public final class GeneratedEntityImplTranslator extends AbstractEntityAndManage
                                     "()" + getterName + ")).findAny().orElse(null);"
                         )
                     );
+
+                    file.add(Import.of(ForeignKeyResolver.class));
+                    clazz.add(Method.of(getSupport().variableName(col) + "Resolver",
+                        SimpleParameterizedType.create(
+                            ForeignKeyResolver.class,
+                            getSupport().entityType(),
+                            fuSupport.entityType()
+                        ))
+                        .public_().static_()
+                        .set(Javadoc.of(
+                            "Creates a resolver that reads the referenced "
+                            + fuSupport.entityName() + " entities of many "
+                            + getSupport().entityName() + " entities using one query per chunk "
+                            + "rather than one query per entity."
+                        ).add(DefaultJavadocTag.PARAM.setValue("foreignManager").setText("the manager to query for the entities"))
+                            .add(DefaultJavadocTag.RETURN.setText("a resolver of the foreign entities referenced"))
+                        )
+                        .add(Field.of("foreignManager", SimpleParameterizedType.create(
+                            Manager.class, fuSupport.entityType()
+                        )))
+                        .add("return ForeignKeyResolver.of(" + getSupport().entityName() +
+                            "." + getSupport().namer().javaStaticFieldName(col.getJavaName()) +
+                            ", foreignManager);"
+                        )
+                    );
                 });
             })
             
@@ -171,6 +225,38 @@ public final class GeneratedEntityImplTranslator extends AbstractEntityAndManage
 
     }
 
+    /**
+     * Returns if the generated class should implement {@link HasDirtyFields}.
+     * Tables with too many columns, or with a column that would clash with
+     * the tracking field, are not tracked.
+     *
+     * @return if the generated class tracks dirty fields
+     */
+    private boolean tracksDirtyFields() {
+        return columns().count() <= HasDirtyFields.MAX_FIELDS
+            && columns().map(getSupport()::variableName).noneMatch(DIRTY_FIELDS::equals);
+    }
+
+    /**
+     * Returns the {@link HasDirtyFields} bit of the given column. The bits
+     * are assigned in ordinal position order of the enabled columns, just as
+     * the runtime expects them to be.
+     *
+     * @param col the column
+     * @return the bit or empty if dirty fields are not tracked
+     */
+    private OptionalInt dirtyFieldBit(Column col) {
+        if (!tracksDirtyFields()) {
+            return OptionalInt.empty();
+        }
+        final List<String> columnIds = columns()
+            .sorted(comparing(Column::getOrdinalPosition))
+            .map(Column::getId)
+            .collect(toList());
+        final int bit = columnIds.indexOf(col.getId());
+        return bit < 0 ? OptionalInt.empty() : OptionalInt.of(bit);
+    }
+
     protected Method toStringMethod(File file) {
         file.add(Import.of(StringJoiner.class));
         file.add(Import.of(Objects.class));
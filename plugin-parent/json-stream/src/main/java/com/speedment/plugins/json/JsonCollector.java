@@ -34,6 +34,10 @@ import static java.util.stream.Collectors.joining;
  *              jsonComponent.allOf(employees)
  *          ));
  * </code>
+ * <p>
+ * The collector builds the complete JSON array in memory. Large streams can
+ * instead be written directly to an {@link java.io.OutputStream} using
+ * {@link JsonEncoder#writeTo(java.util.stream.Stream, java.io.OutputStream)}.
  *
  * @param <ENTITY> the entity type
  *
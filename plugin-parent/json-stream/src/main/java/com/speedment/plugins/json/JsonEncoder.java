@@ -21,6 +21,9 @@ import com.speedment.runtime.field.*;
 import com.speedment.runtime.field.method.*;
 import com.speedment.runtime.field.trait.HasFinder;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.WritableByteChannel;
 import java.util.function.Function;
 import java.util.stream.Stream;
 
@@ -381,4 +384,38 @@ public interface JsonEncoder<ENTITY> {
      * @return  the collector
      */
     JsonCollector<ENTITY> collector();
+
+    /**
+     * Writes the specified entities as a JSON array to the specified output
+     * stream using this encoder. The JSON is encoded as UTF-8 and written
+     * through a fixed size buffer, so the entities are never held in memory
+     * as a whole. This makes it suitable for streams that are too large to
+     * be collected into a {@code String}.
+     * <p>
+     * The entity stream is closed when this method returns. The output stream
+     * is flushed but not closed.
+     *
+     * @param entities  the entities to write
+     * @param out       the output stream to write to
+     * @throws IOException  if the output stream could not be written to
+     *
+     * @since 3.1.6
+     */
+    void writeTo(Stream<? extends ENTITY> entities, OutputStream out) throws IOException;
+
+    /**
+     * Writes the specified entities as a JSON array to the specified channel
+     * using this encoder. The JSON is encoded as UTF-8 and written through a
+     * fixed size buffer, so the entities are never held in memory as a whole.
+     * <p>
+     * The entity stream is closed when this method returns. The channel is
+     * not closed.
+     *
+     * @param entities  the entities to write
+     * @param channel   the channel to write to
+     * @throws IOException  if the channel could not be written to
+     *
+     * @since 3.1.6
+     */
+    void writeTo(Stream<? extends ENTITY> entities, WritableByteChannel channel) throws IOException;
 }
\ No newline at end of file
@@ -25,6 +25,10 @@ import com.speedment.runtime.field.*;
 import com.speedment.runtime.field.method.*;
 import com.speedment.runtime.field.trait.HasFinder;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.WritableByteChannel;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Optional;
@@ -48,6 +52,7 @@ import static java.util.stream.Collectors.joining;
 final class JsonEncoderImpl<ENTITY> implements JsonEncoder<ENTITY> {
     
     private final Map<String, Function<ENTITY, String>> getters;
+    private final Map<String, ValueWriter<ENTITY>> writers;
     private final Project project;
     private final Manager<ENTITY> manager;
 
@@ -57,6 +62,7 @@ final class JsonEncoderImpl<ENTITY> implements JsonEncoder<ENTITY> {
      */
     JsonEncoderImpl(Project project, Manager<ENTITY> manager) {
         this.getters = new LinkedHashMap<>();
+        this.writers = new LinkedHashMap<>();
         this.project = requireNonNull(project);
         this.manager = requireNonNull(manager);
     }
@@ -133,52 +139,84 @@ final class JsonEncoderImpl<ENTITY> implements JsonEncoder<ENTITY> {
 
     @Override
     public <T> JsonEncoder<ENTITY> put(String label, ReferenceGetter<ENTITY, T> getter) {
-        return putHelper(label, e -> jsonValue(getter.apply(e)));
+        return putHelper(label,
+            e -> jsonValue(getter.apply(e)),
+            (e, out) -> writeValue(getter.apply(e), out)
+        );
     }
 
     @Override
     public JsonEncoder<ENTITY> putByte(String label, ByteGetter<ENTITY> getter) {
-        return putHelper(label, e -> jsonValue(getter.applyAsByte(e)));
+        return putHelper(label,
+            e -> jsonValue(getter.applyAsByte(e)),
+            (e, out) -> out.writeLong(getter.applyAsByte(e))
+        );
     }
 
     @Override
     public JsonEncoder<ENTITY> putShort(String label, ShortGetter<ENTITY> getter) {
-        return putHelper(label, e -> jsonValue(getter.applyAsShort(e)));
+        return putHelper(label,
+            e -> jsonValue(getter.applyAsShort(e)),
+            (e, out) -> out.writeLong(getter.applyAsShort(e))
+        );
     }
 
     @Override
     public JsonEncoder<ENTITY> putInt(String label, IntGetter<ENTITY> getter) {
-        return putHelper(label, e -> jsonValue(getter.applyAsInt(e)));
+        return putHelper(label,
+            e -> jsonValue(getter.applyAsInt(e)),
+            (e, out) -> out.writeLong(getter.applyAsInt(e))
+        );
     }
 
     @Override
     public JsonEncoder<ENTITY> putLong(String label, LongGetter<ENTITY> getter) {
-        return putHelper(label, e -> jsonValue(getter.applyAsLong(e)));
+        return putHelper(label,
+            e -> jsonValue(getter.applyAsLong(e)),
+            (e, out) -> out.writeLong(getter.applyAsLong(e))
+        );
     }
 
     @Override
     public JsonEncoder<ENTITY> putFloat(String label, FloatGetter<ENTITY> getter) {
-        return putHelper(label, e -> jsonValue(getter.applyAsFloat(e)));
+        return putHelper(label,
+            e -> jsonValue(getter.applyAsFloat(e)),
+            (e, out) -> out.writeFloat(getter.applyAsFloat(e))
+        );
     }
 
     @Override
     public JsonEncoder<ENTITY> putDouble(String label, DoubleGetter<ENTITY> getter) {
-        return putHelper(label, e -> jsonValue(getter.applyAsDouble(e)));
+        return putHelper(label,
+            e -> jsonValue(getter.applyAsDouble(e)),
+            (e, out) -> out.writeDouble(getter.applyAsDouble(e))
+        );
     }
 
     @Override
     public JsonEncoder<ENTITY> putChar(String label, CharGetter<ENTITY> getter) {
-        return putHelper(label, e -> jsonValue(getter.applyAsChar(e)));
+        return putHelper(label,
+            e -> jsonValue(getter.applyAsChar(e)),
+            (e, out) -> out.writeChar(getter.applyAsChar(e))
+        );
     }
 
     @Override
     public JsonEncoder<ENTITY> putBoolean(String label, BooleanGetter<ENTITY> getter) {
-        return putHelper(label, e -> jsonValue(getter.applyAsBoolean(e)));
+        return putHelper(label,
+            e -> jsonValue(getter.applyAsBoolean(e)),
+            (e, out) -> out.writeBoolean(getter.applyAsBoolean(e))
+        );
     }
     
-    private JsonEncoder<ENTITY> putHelper(String label, Function<ENTITY, String> jsonValue) {
+    private JsonEncoder<ENTITY> putHelper(String label, Function<ENTITY, String> jsonValue, ValueWriter<ENTITY> valueWriter) {
         requireNonNull(label);
         getters.put(label, e -> "\"" + label + "\":" + jsonValue.apply(e));
+        final byte[] key = JsonWriter.bytes("\"" + label + "\":");
+        writers.put(label, (e, out) -> {
+            out.writeRaw(key);
+            valueWriter.write(e, out);
+        });
         return this;
     }
     
@@ -208,11 +246,10 @@ final class JsonEncoderImpl<ENTITY> implements JsonEncoder<ENTITY> {
             JsonEncoder<FK_ENTITY> fkEncoder) {
         
         requireNonNulls(label, finder, fkEncoder);
-        getters.put(label, e -> "\"" + label + "\":" + 
-            fkEncoder.apply(finder.apply(e))
+        return putHelper(label,
+            e -> fkEncoder.apply(finder.apply(e)),
+            (e, out) -> write(fkEncoder, finder.apply(e), out)
         );
-        
-        return this;
     }
 
     /**************************************************************************/
@@ -226,12 +263,10 @@ final class JsonEncoderImpl<ENTITY> implements JsonEncoder<ENTITY> {
             JsonEncoder<FK_ENTITY> fkEncoder) {
         
         requireNonNulls(label, streamer, fkEncoder);
-        getters.put(label, e -> "\"" + label + "\":[" + 
-            streamer.apply(e).map(fkEncoder::apply).collect(joining(",")) + 
-            "]"
+        return putHelper(label,
+            e -> "[" + streamer.apply(e).map(fkEncoder::apply).collect(joining(",")) + "]",
+            (e, out) -> writeArray(streamer.apply(e), fk -> write(fkEncoder, fk, out), out)
         );
-        
-        return this;
     }
 
     @Override
@@ -241,12 +276,10 @@ final class JsonEncoderImpl<ENTITY> implements JsonEncoder<ENTITY> {
             Function<FK_ENTITY, String> fkEncoder) {
         
         requireNonNulls(label, streamer, fkEncoder);
-        getters.put(label, e -> "\"" + label + "\":[" + 
-            streamer.apply(e).map(fkEncoder).collect(joining(",")) +
-            "]"
+        return putHelper(label,
+            e -> "[" + streamer.apply(e).map(fkEncoder).collect(joining(",")) + "]",
+            (e, out) -> writeArray(streamer.apply(e), fk -> out.writeUnescaped(fkEncoder.apply(fk)), out)
         );
-        
-        return this;
     }
 
     /**************************************************************************/
@@ -257,14 +290,14 @@ final class JsonEncoderImpl<ENTITY> implements JsonEncoder<ENTITY> {
     public JsonEncoder<ENTITY> remove(String label) {
         requireNonNull(label);
         getters.remove(label);
+        writers.remove(label);
         return this;
     }
 
     @Override
     public JsonEncoder<ENTITY> remove(Field<ENTITY> field) {
         requireNonNull(field);
-        getters.remove(jsonField(project, field.identifier()));
-        return this;
+        return remove(jsonField(project, field.identifier()));
     }
 
     /**************************************************************************/
@@ -285,10 +318,131 @@ final class JsonEncoderImpl<ENTITY> implements JsonEncoder<ENTITY> {
         return JsonCollector.toJson(this);
     }
 
+    @Override
+    public void writeTo(Stream<? extends ENTITY> entities, OutputStream out) throws IOException {
+        requireNonNulls(entities, out);
+        final JsonWriter writer = JsonWriter.of(out);
+        writeArray(entities, e -> write(e, writer), writer);
+        writer.flush();
+        out.flush();
+    }
+
+    @Override
+    public void writeTo(Stream<? extends ENTITY> entities, WritableByteChannel channel) throws IOException {
+        requireNonNulls(entities, channel);
+        final JsonWriter writer = JsonWriter.of(channel);
+        writeArray(entities, e -> write(e, writer), writer);
+        writer.flush();
+    }
+
+    /**
+     * Writes the specified entity as a JSON object to the specified writer.
+     *
+     * @param entity  the entity, may be {@code null}
+     * @param out     the writer
+     * @throws IOException if the writer could not be flushed
+     */
+    void write(ENTITY entity, JsonWriter out) throws IOException {
+        if (entity == null) {
+            out.writeNull();
+            return;
+        }
+        out.writeByte('{');
+        boolean first = true;
+        for (final ValueWriter<ENTITY> writer : writers.values()) {
+            if (first) {
+                first = false;
+            } else {
+                out.writeByte(',');
+            }
+            writer.write(entity, out);
+        }
+        out.writeByte('}');
+    }
+
     /**************************************************************************/
     /*                  Protected and Private Helper Methods                  */
     /**************************************************************************/
 
+    /**
+     * Writes the specified entity using the specified encoder. Encoders of
+     * this type write directly to the writer, other encoders are first
+     * applied to the entity.
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> void write(JsonEncoder<T> encoder, T entity, JsonWriter out) throws IOException {
+        if (encoder instanceof JsonEncoderImpl) {
+            ((JsonEncoderImpl<T>) encoder).write(entity, out);
+        } else {
+            out.writeUnescaped(encoder.apply(entity));
+        }
+    }
+
+    /**
+     * Writes the elements of the specified stream as a JSON array. The stream
+     * is closed once all elements have been written.
+     */
+    private static <T> void writeArray(Stream<T> stream, ElementWriter<T> elementWriter, JsonWriter out) throws IOException {
+        try (final Stream<T> elements = stream) {
+            out.writeByte('[');
+            final Iterator<T> iterator = elements.iterator();
+            boolean first = true;
+            while (iterator.hasNext()) {
+                if (first) {
+                    first = false;
+                } else {
+                    out.writeByte(',');
+                }
+                elementWriter.write(iterator.next());
+            }
+            out.writeByte(']');
+        }
+    }
+
+    /**
+     * Writes the specified value into JSON in the same way as
+     * {@link #jsonValue(Object)} encodes it.
+     *
+     * @param in   the value
+     * @param out  the writer
+     * @throws IOException if the writer could not be flushed
+     */
+    private static void writeValue(Object in, JsonWriter out) throws IOException {
+        if (in instanceof Optional<?>) {
+            final Optional<?> o = (Optional<?>) in;
+            if (o.isPresent()) {
+                writeValue(o.get(), out);
+            } else {
+                out.writeNull();
+            }
+        } else if (in == null) {
+            out.writeNull();
+        } else if (in instanceof Byte
+            || in instanceof Short
+            || in instanceof Integer
+            || in instanceof Long) {
+            out.writeLong(((Number) in).longValue());
+        } else if (in instanceof Boolean) {
+            out.writeBoolean((Boolean) in);
+        } else if (in instanceof Float) {
+            out.writeFloat((Float) in);
+        } else if (in instanceof Double) {
+            out.writeDouble((Double) in);
+        } else {
+            out.writeQuoted(String.valueOf(in));
+        }
+    }
+
+    @FunctionalInterface
+    private interface ValueWriter<ENTITY> {
+        void write(ENTITY entity, JsonWriter out) throws IOException;
+    }
+
+    @FunctionalInterface
+    private interface ElementWriter<T> {
+        void write(T element) throws IOException;
+    }
+
     /**
      * Parse the specified value into JSON.
      * 
@@ -0,0 +1,222 @@
+/**
+ *
+ * Copyright (c) 2006-2018, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.plugins.json.internal;
+
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Writes JSON tokens as UTF-8 encoded bytes to a reusable buffer that is
+ * flushed to an {@link OutputStream} or a {@link WritableByteChannel} when it
+ * is full. Integral values are formatted without creating any intermediate
+ * objects.
+ * <p>
+ * Instances of this class are not thread safe.
+ *
+ * @author Per Minborg
+ * @since 3.1.6
+ */
+final class JsonWriter implements Flushable {
+
+    static final int BUFFER_SIZE = 8192;
+
+    private static final byte[] NULL = bytes("null");
+    private static final byte[] TRUE = bytes("true");
+    private static final byte[] FALSE = bytes("false");
+    private static final byte[] LONG_MIN_VALUE = bytes(Long.toString(Long.MIN_VALUE));
+    private static final int MAX_LONG_DIGITS = 20;
+    private static final int MAX_UTF8_CHAR_BYTES = 4;
+
+    private final Sink sink;
+    private final byte[] buffer;
+    private int position;
+
+    private JsonWriter(Sink sink, int bufferSize) {
+        this.sink = requireNonNull(sink);
+        this.buffer = new byte[bufferSize];
+    }
+
+    static JsonWriter of(OutputStream out) {
+        requireNonNull(out);
+        return new JsonWriter((b, len) -> out.write(b, 0, len), BUFFER_SIZE);
+    }
+
+    static JsonWriter of(WritableByteChannel channel) {
+        requireNonNull(channel);
+        return new JsonWriter((b, len) -> {
+            final ByteBuffer byteBuffer = ByteBuffer.wrap(b, 0, len);
+            while (byteBuffer.hasRemaining()) {
+                channel.write(byteBuffer);
+            }
+        }, BUFFER_SIZE);
+    }
+
+    static byte[] bytes(String s) {
+        return s.getBytes(UTF_8);
+    }
+
+    void writeByte(char ascii) throws IOException {
+        ensureCapacity(1);
+        buffer[position++] = (byte) ascii;
+    }
+
+    void writeRaw(byte[] bytes) throws IOException {
+        if (bytes.length > buffer.length) {
+            flush();
+            sink.write(bytes, bytes.length);
+            return;
+        }
+        ensureCapacity(bytes.length);
+        System.arraycopy(bytes, 0, buffer, position, bytes.length);
+        position += bytes.length;
+    }
+
+    void writeNull() throws IOException {
+        writeRaw(NULL);
+    }
+
+    void writeBoolean(boolean value) throws IOException {
+        writeRaw(value ? TRUE : FALSE);
+    }
+
+    void writeLong(long value) throws IOException {
+        if (value == Long.MIN_VALUE) {
+            writeRaw(LONG_MIN_VALUE);
+            return;
+        }
+        ensureCapacity(MAX_LONG_DIGITS);
+        if (value < 0) {
+            buffer[position++] = '-';
+            value = -value;
+        }
+        final int length = digits(value);
+        int index = position + length;
+        do {
+            buffer[--index] = (byte) ('0' + (value % 10));
+            value /= 10;
+        } while (value != 0);
+        position += length;
+    }
+
+    void writeChar(char value) throws IOException {
+        if (value < 0x80) {
+            writeByte(value);
+        } else {
+            writeUnescaped(String.valueOf(value));
+        }
+    }
+
+    void writeFloat(float value) throws IOException {
+        writeUnescaped(String.valueOf(value));
+    }
+
+    void writeDouble(double value) throws IOException {
+        writeUnescaped(String.valueOf(value));
+    }
+
+    /**
+     * Writes the given text as it is. Unpaired surrogates are replaced by
+     * {@code '?'} in the same way as {@link String#getBytes}.
+     *
+     * @param text  the text
+     * @throws IOException if the buffer could not be flushed
+     */
+    void writeUnescaped(CharSequence text) throws IOException {
+        writeText(text, false);
+    }
+
+    /**
+     * Writes the given text surrounded by quotes with any quotes within the
+     * text escaped.
+     *
+     * @param text  the text
+     * @throws IOException if the buffer could not be flushed
+     */
+    void writeQuoted(CharSequence text) throws IOException {
+        writeByte('"');
+        writeText(text, true);
+        writeByte('"');
+    }
+
+    @Override
+    public void flush() throws IOException {
+        if (position > 0) {
+            sink.write(buffer, position);
+            position = 0;
+        }
+    }
+
+    private void writeText(CharSequence text, boolean escapeQuotes) throws IOException {
+        final int length = text.length();
+        for (int i = 0; i < length; i++) {
+            final char c = text.charAt(i);
+            if (c < 0x80) {
+                if (escapeQuotes && c == '"') {
+                    writeByte('\\');
+                }
+                writeByte(c);
+                continue;
+            }
+
+            ensureCapacity(MAX_UTF8_CHAR_BYTES);
+            if (c < 0x800) {
+                buffer[position++] = (byte) (0xC0 | (c >> 6));
+                buffer[position++] = (byte) (0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c)
+                && i + 1 < length
+                && Character.isLowSurrogate(text.charAt(i + 1))) {
+                final int codePoint = Character.toCodePoint(c, text.charAt(++i));
+                buffer[position++] = (byte) (0xF0 | (codePoint >> 18));
+                buffer[position++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                buffer[position++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                buffer[position++] = (byte) (0x80 | (codePoint & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                buffer[position++] = '?';
+            } else {
+                buffer[position++] = (byte) (0xE0 | (c >> 12));
+                buffer[position++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                buffer[position++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+    }
+
+    private void ensureCapacity(int bytes) throws IOException {
+        if (position + bytes > buffer.length) {
+            flush();
+        }
+    }
+
+    private static int digits(long value) {
+        int digits = 1;
+        for (long limit = 10; digits < MAX_LONG_DIGITS - 1 && value >= limit; limit *= 10) {
+            digits++;
+        }
+        return digits;
+    }
+
+    @FunctionalInterface
+    private interface Sink {
+        void write(byte[] bytes, int length) throws IOException;
+    }
+
+}
@@ -0,0 +1,125 @@
+/**
+ *
+ * Copyright (c) 2006-2018, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.plugins.json.internal;
+
+import com.speedment.runtime.config.Project;
+import com.speedment.runtime.core.manager.Manager;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+
+/**
+ *
+ * @author Per Minborg
+ */
+public class JsonEncoderImplTest {
+
+    private JsonEncoderImpl<Item> encoder;
+
+    @Before
+    @SuppressWarnings("unchecked")
+    public void init() {
+        final JsonEncoderImpl<Item> child = new JsonEncoderImpl<>(mock(Project.class), (Manager<Item>) mock(Manager.class));
+        child.putInt("id", Item::getId);
+
+        encoder = new JsonEncoderImpl<>(mock(Project.class), (Manager<Item>) mock(Manager.class));
+        encoder.putInt("id", Item::getId)
+            .putLong("big", i -> Long.MIN_VALUE + i.getId())
+            .putDouble("ratio", i -> i.getId() / 3d)
+            .putBoolean("even", i -> i.getId() % 2 == 0)
+            .putChar("initial", i -> i.getName().charAt(0))
+            .put("name", Item::getName)
+            .put("nickname", i -> i.getId() % 3 == 0 ? Optional.empty() : Optional.of(i.getName()))
+            .putStreamer("tags", i -> Stream.of("a", "b").limit(i.getId() % 3), tag -> "\"" + tag + "\"")
+            .putStreamer("children", i -> IntStream.range(0, i.getId() % 4).mapToObj(Item::new), child);
+    }
+
+    @Test
+    public void testWriteToOutputStream() throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        encoder.writeTo(items(2_000), out);
+        assertEquals(items(2_000).collect(encoder.collector()), new String(out.toByteArray(), UTF_8));
+    }
+
+    @Test
+    public void testWriteToChannel() throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        encoder.writeTo(items(2_000), Channels.newChannel(out));
+        assertEquals(items(2_000).collect(encoder.collector()), new String(out.toByteArray(), UTF_8));
+    }
+
+    @Test
+    public void testWriteEmpty() throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        encoder.writeTo(Stream.empty(), out);
+        assertEquals("[]", new String(out.toByteArray(), UTF_8));
+    }
+
+    @Test
+    public void testRemove() throws IOException {
+        encoder.remove("children").remove("tags");
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        encoder.writeTo(items(1), out);
+        assertEquals(
+            "[{\"id\":0,\"big\":-9223372036854775808,\"ratio\":0.0,\"even\":true,"
+                + "\"initial\":Å,\"name\":\"Åsa \\\"0\\\" 😀\",\"nickname\":null}]",
+            new String(out.toByteArray(), UTF_8)
+        );
+    }
+
+    @Test
+    public void testStreamIsClosed() throws IOException {
+        final AtomicBoolean closed = new AtomicBoolean();
+        encoder.writeTo(items(3).onClose(() -> closed.set(true)), new ByteArrayOutputStream());
+        assertTrue(closed.get());
+    }
+
+    private static Stream<Item> items(int count) {
+        return IntStream.range(0, count).mapToObj(Item::new);
+    }
+
+    private static final class Item {
+
+        private final int id;
+
+        private Item(int id) {
+            this.id = id;
+        }
+
+        int getId() {
+            return id;
+        }
+
+        String getName() {
+            return "Åsa \"" + id + "\" 😀";
+        }
+    }
+
+}
@@ -0,0 +1,93 @@
+/**
+ *
+ * Copyright (c) 2006-2018, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.plugins.json.internal;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+/**
+ *
+ * @author Per Minborg
+ */
+public class JsonWriterTest {
+
+    @Test
+    public void testWriteLong() throws IOException {
+        final long[] values = LongStream.concat(
+            LongStream.of(0, 1, -1, 9, 10, 99, 100, Integer.MIN_VALUE, Integer.MAX_VALUE, Long.MIN_VALUE, Long.MAX_VALUE, Long.MIN_VALUE + 1),
+            LongStream.iterate(7, l -> l * 10).limit(19)
+        ).toArray();
+
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final JsonWriter writer = JsonWriter.of(out);
+        for (long value : values) {
+            writer.writeLong(value);
+            writer.writeByte(',');
+        }
+        writer.flush();
+
+        final String expected = LongStream.of(values)
+            .mapToObj(Long::toString)
+            .collect(Collectors.joining(",", "", ","));
+        assertEquals(expected, new String(out.toByteArray(), UTF_8));
+    }
+
+    @Test
+    public void testWriteText() throws IOException {
+        final String text = "a\"å€😀\ud800x";
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final JsonWriter writer = JsonWriter.of(out);
+        writer.writeUnescaped(text);
+        writer.writeQuoted(text);
+        writer.flush();
+        assertArrayEquals(
+            (text + "\"" + text.replace("\"", "\\\"") + "\"").getBytes(UTF_8),
+            out.toByteArray()
+        );
+    }
+
+    @Test
+    public void testBufferBoundaries() throws IOException {
+        final String text = IntStream.range(0, 3 * JsonWriter.BUFFER_SIZE)
+            .mapToObj(i -> i % 3 == 0 ? "€" : "😀")
+            .collect(Collectors.joining());
+        final byte[] large = new byte[2 * JsonWriter.BUFFER_SIZE + 1];
+
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final JsonWriter writer = JsonWriter.of(out);
+        writer.writeUnescaped(text);
+        writer.writeRaw(large);
+        writer.writeLong(Long.MIN_VALUE + 1);
+        writer.flush();
+
+        final ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        expected.write(text.getBytes(UTF_8));
+        expected.write(large);
+        expected.write(Long.toString(Long.MIN_VALUE + 1).getBytes(UTF_8));
+        assertArrayEquals(expected.toByteArray(), out.toByteArray());
+    }
+
+}
@@ -30,6 +30,7 @@ import com.speedment.runtime.core.internal.component.PasswordComponentImpl;
 import com.speedment.runtime.core.internal.component.ProjectComponentImpl;
 import com.speedment.runtime.core.internal.component.StatisticsReporterComponentImpl;
 import com.speedment.runtime.core.internal.component.StatisticsReporterSchedulerComponentImpl;
+import com.speedment.runtime.core.internal.component.cache.EntityCacheComponentImpl;
 import com.speedment.runtime.core.internal.component.resultset.ResultSetMapperComponentImpl;
 import com.speedment.runtime.core.internal.component.sql.SqlPersistanceComponentImpl;
 import com.speedment.runtime.core.internal.component.sql.SqlStreamOptimizerComponentImpl;
@@ -65,7 +66,8 @@ public class RuntimeBundle implements InjectBundle {
             StatisticsReporterSchedulerComponentImpl.class,
             SqlStreamOptimizerComponentImpl.class,
             SqlStreamTerminatorComponentImpl.class,
-            TransactionComponentImpl.class
+            TransactionComponentImpl.class,
+            EntityCacheComponentImpl.class
 
         )
             .withBundle(new MySqlBundle())
@@ -0,0 +1,67 @@
+/**
+ *
+ * Copyright (c) 2006-2018, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.bulk;
+
+import com.speedment.common.injector.annotation.InjectKey;
+import com.speedment.runtime.core.exception.SpeedmentException;
+
+/**
+ * A BulkOperationExecutor can be used to execute {@link BulkOperation
+ * BulkOperations} against a relational database using JDBC batches rather
+ * than one round trip per entity.
+ * <p>
+ * Operations are executed in the order they appear in the BulkOperation.
+ * <ul>
+ * <li>Persist operations are rendered as a single {@code INSERT} statement
+ * that is executed in batches.
+ * <li>Remove operations are rendered as a single {@code DELETE ... WHERE}
+ * statement if all predicates are field predicates that can be rendered by
+ * the database's {@code FieldPredicateView}. Otherwise, the matching entities
+ * are streamed and removed in batches using their primary keys.
+ * <li>Update operations stream the entities that match the predicates
+ * (whereby field predicates are pushed down to the database) apply the
+ * mappers and consumers and update the entities in batches using their
+ * primary keys.
+ * </ul>
+ * Changes are committed every {@code bulk.commitInterval} rows and after each
+ * operation. If an operation fails, only the changes made since the last
+ * commit are rolled back. If the current thread is already part of a
+ * transaction, the transaction's connection is used and no commits are made.
+ *
+ * @author Per Minborg
+ * @since 3.1.6
+ */
+@InjectKey(BulkOperationExecutor.class)
+public interface BulkOperationExecutor {
+
+    /**
+     * Executes the provided {@code bulkOperation} and returns the total number
+     * of rows that were affected, as reported by the database.
+     * <p>
+     * Some JDBC drivers do not report the number of affected rows for batched
+     * statements. Such rows are not included in the returned count.
+     *
+     * @param bulkOperation to execute
+     * @return the total number of rows that were affected
+     *
+     * @throws NullPointerException if the provided {@code bulkOperation} is
+     * {@code null}
+     * @throws SpeedmentException if the operation could not be executed
+     */
+    long execute(BulkOperation bulkOperation);
+
+}
@@ -0,0 +1,256 @@
+/**
+ *
+ * Copyright (c) 2006-2018, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.bulk.internal.executor;
+
+import com.speedment.common.logger.Logger;
+import com.speedment.common.logger.LoggerManager;
+import com.speedment.runtime.bulk.Operation;
+import com.speedment.runtime.bulk.PersistOperation;
+import com.speedment.runtime.bulk.RemoveOperation;
+import com.speedment.runtime.bulk.UpdateOperation;
+import com.speedment.runtime.core.ApplicationBuilder;
+import com.speedment.runtime.core.db.SqlArrayParameter;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import static com.speedment.common.invariant.IntRangeUtil.requirePositive;
+import static java.util.Objects.requireNonNull;
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Executes bulk operations on a single {@link Connection} using JDBC batches.
+ * The connection is expected to have auto commit turned off.
+ *
+ * @author Per Minborg
+ * @since 3.1.6
+ */
+final class BulkJdbcExecutor {
+
+    private static final Logger LOGGER_PERSIST = LoggerManager.getLogger(ApplicationBuilder.LogType.PERSIST.getLoggerName());
+    private static final Logger LOGGER_UPDATE = LoggerManager.getLogger(ApplicationBuilder.LogType.UPDATE.getLoggerName());
+    private static final Logger LOGGER_REMOVE = LoggerManager.getLogger(ApplicationBuilder.LogType.REMOVE.getLoggerName());
+
+    private final Connection connection;
+    private final int batchSize;
+    private final int commitInterval;
+    private final boolean commitAllowed;
+    private long uncommitted;
+
+    /**
+     * Creates a new executor.
+     *
+     * @param connection      to execute statements on
+     * @param batchSize       max number of rows in a single JDBC batch
+     * @param commitInterval  max number of rows between commits
+     * @param commitAllowed   if this executor may commit the connection. This
+     *                        should be {@code false} if the connection is
+     *                        owned by an ongoing transaction
+     */
+    BulkJdbcExecutor(
+        final Connection connection,
+        final int batchSize,
+        final int commitInterval,
+        final boolean commitAllowed
+    ) {
+        this.connection = requireNonNull(connection);
+        this.batchSize = requirePositive(batchSize);
+        this.commitInterval = requirePositive(commitInterval);
+        this.commitAllowed = commitAllowed;
+    }
+
+    @SuppressWarnings("unchecked")
+    <ENTITY> long execute(BulkTable<ENTITY> table, Operation<ENTITY> operation) throws SQLException {
+        requireNonNull(table);
+        requireNonNull(operation);
+        switch (operation.type()) {
+            case PERSIST: return persist(table, (PersistOperation<ENTITY>) operation);
+            case UPDATE:  return update(table, (UpdateOperation<ENTITY>) operation);
+            case REMOVE:  return remove(table, (RemoveOperation<ENTITY>) operation);
+            default: throw new UnsupportedOperationException(
+                "Unknown operation type " + operation.type()
+            );
+        }
+    }
+
+    <ENTITY> long persist(BulkTable<ENTITY> table, PersistOperation<ENTITY> operation) throws SQLException {
+        final String sql = table.insertStatement();
+        LOGGER_PERSIST.debug("%s (batched)", sql);
+        long affected = 0;
+        for (final Supplier<Stream<? extends ENTITY>> generatorSupplier
+            : operation.generatorSuppliers().collect(toList())) {
+
+            try (final Stream<? extends ENTITY> entities = generatorSupplier.get()) {
+                affected += executeBatched(sql, entities, table::bindInsert);
+            }
+        }
+        return affected;
+    }
+
+    <ENTITY> long update(BulkTable<ENTITY> table, UpdateOperation<ENTITY> operation) throws SQLException {
+        final String sql = table.updateStatement();
+        LOGGER_UPDATE.debug("%s (batched)", sql);
+        final List<Function<? super ENTITY, ? extends ENTITY>> mappers = operation.mappers().collect(toList());
+        final List<Consumer<? super ENTITY>> consumers = operation.consumers().collect(toList());
+
+        final List<ENTITY> entities = matching(table, operation.predicates().collect(toList()));
+        // The original keys are captured before the mappers are applied
+        // since the mappers may change the primary key of the entity
+        return executeBatched(
+            sql,
+            entities.stream().map(e -> new Updated<>(table.primaryKeyValues(e), apply(e, mappers, consumers))),
+            (PreparedStatement ps, Updated<ENTITY> u) -> table.bindUpdate(ps, u.entity, u.primaryKeyValues)
+        );
+    }
+
+    <ENTITY> long remove(BulkTable<ENTITY> table, RemoveOperation<ENTITY> operation) throws SQLException {
+        final List<Predicate<ENTITY>> predicates = operation.predicates().collect(toList());
+        final Optional<BulkTable.Statement> deleteWhere = table.deleteWhere(predicates);
+        if (deleteWhere.isPresent()) {
+            final BulkTable.Statement statement = deleteWhere.get();
+            LOGGER_REMOVE.debug("%s, values:%s", statement.getSql(), statement.getValues());
+            try (final PreparedStatement ps = connection.prepareStatement(statement.getSql())) {
+                int i = 1;
+                for (final Object value : statement.getValues()) {
+                    SqlArrayParameter.bind(ps, i++, value);
+                }
+                final int affected = ps.executeUpdate();
+                uncommitted += affected;
+                return affected;
+            }
+        }
+
+        final String sql = table.deleteStatement();
+        LOGGER_REMOVE.debug("%s (batched)", sql);
+        final List<Object[]> primaryKeys = matching(table, predicates).stream()
+            .map(table::primaryKeyValues)
+            .collect(toList());
+        return executeBatched(sql, primaryKeys.stream(), table::bindDelete);
+    }
+
+    /**
+     * Commits the connection if this executor is allowed to do so and there
+     * are uncommitted changes.
+     *
+     * @throws SQLException if the commit fails
+     */
+    void commit() throws SQLException {
+        if (commitAllowed && uncommitted > 0) {
+            connection.commit();
+        }
+        uncommitted = 0;
+    }
+
+    private <T> long executeBatched(
+        final String sql,
+        final Stream<? extends T> entities,
+        final Binder<T> binder
+    ) throws SQLException {
+        long affected = 0;
+        int inBatch = 0;
+        try (final PreparedStatement ps = connection.prepareStatement(sql)) {
+            final Iterator<? extends T> iterator = entities.iterator();
+            while (iterator.hasNext()) {
+                binder.bind(ps, iterator.next());
+                ps.addBatch();
+                inBatch++;
+                uncommitted++;
+                if (inBatch == batchSize || uncommitted >= commitInterval) {
+                    affected += sum(ps.executeBatch());
+                    inBatch = 0;
+                }
+                if (uncommitted >= commitInterval) {
+                    commit();
+                }
+            }
+            if (inBatch > 0) {
+                affected += sum(ps.executeBatch());
+            }
+        }
+        return affected;
+    }
+
+    /**
+     * Reads all entities that match the given predicates. The result set is
+     * read completely and closed before any statement is executed since
+     * many drivers (for example MySQL) do not allow another statement to be
+     * executed on a connection while a streaming result set is open on it.
+     * This is the case if the operation is part of a transaction.
+     */
+    private static <ENTITY> List<ENTITY> matching(BulkTable<ENTITY> table, List<Predicate<ENTITY>> predicates) {
+        // Field predicates are pushed down to the database by the stream
+        Stream<ENTITY> stream = table.manager().stream();
+        for (final Predicate<ENTITY> predicate : predicates) {
+            stream = stream.filter(predicate);
+        }
+        try (final Stream<ENTITY> entities = stream) {
+            return entities.collect(toList());
+        }
+    }
+
+    private static <ENTITY> ENTITY apply(
+        final ENTITY entity,
+        final List<Function<? super ENTITY, ? extends ENTITY>> mappers,
+        final List<Consumer<? super ENTITY>> consumers
+    ) {
+        ENTITY result = entity;
+        for (final Function<? super ENTITY, ? extends ENTITY> mapper : mappers) {
+            result = mapper.apply(result);
+        }
+        for (final Consumer<? super ENTITY> consumer : consumers) {
+            consumer.accept(result);
+        }
+        return result;
+    }
+
+    private static long sum(int[] counts) {
+        long sum = 0;
+        for (final int count : counts) {
+            // Some drivers report Statement.SUCCESS_NO_INFO
+            if (count >= 0) {
+                sum += count;
+            }
+        }
+        return sum;
+    }
+
+    @FunctionalInterface
+    private interface Binder<T> {
+        void bind(PreparedStatement ps, T element) throws SQLException;
+    }
+
+    private static final class Updated<ENTITY> {
+
+        private final Object[] primaryKeyValues;
+        private final ENTITY entity;
+
+        private Updated(Object[] primaryKeyValues, ENTITY entity) {
+            this.primaryKeyValues = requireNonNull(primaryKeyValues);
+            this.entity = requireNonNull(entity);
+        }
+    }
+
+}
@@ -0,0 +1,157 @@
+/**
+ *
+ * Copyright (c) 2006-2018, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.bulk.internal.executor;
+
+import com.speedment.common.injector.annotation.Config;
+import com.speedment.common.injector.annotation.Inject;
+import com.speedment.runtime.bulk.BulkOperation;
+import com.speedment.runtime.bulk.BulkOperationExecutor;
+import com.speedment.runtime.bulk.Operation;
+import com.speedment.runtime.config.Dbms;
+import com.speedment.runtime.config.Project;
+import com.speedment.runtime.config.util.DocumentDbUtil;
+import com.speedment.runtime.core.component.DbmsHandlerComponent;
+import com.speedment.runtime.core.component.ProjectComponent;
+import com.speedment.runtime.core.component.connectionpool.ConnectionPoolComponent;
+import com.speedment.runtime.core.component.connectionpool.PoolableConnection;
+import com.speedment.runtime.core.component.transaction.TransactionComponent;
+import com.speedment.runtime.core.db.DbmsType;
+import com.speedment.runtime.core.exception.SpeedmentException;
+import com.speedment.runtime.core.exception.TransactionException;
+import com.speedment.runtime.core.util.DatabaseUtil;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
+import static java.util.Objects.requireNonNull;
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Default implementation of the {@link BulkOperationExecutor} interface.
+ *
+ * @author Per Minborg
+ * @since 3.1.6
+ */
+public final class BulkOperationExecutorImpl implements BulkOperationExecutor {
+
+    @Config(name = "bulk.batchSize", value = "1000")
+    private int batchSize;
+
+    @Config(name = "bulk.commitInterval", value = "10000")
+    private int commitInterval;
+
+    private @Inject ProjectComponent projectComponent;
+    private @Inject DbmsHandlerComponent dbmsHandlerComponent;
+    private @Inject ConnectionPoolComponent connectionPoolComponent;
+    private @Inject TransactionComponent transactionComponent;
+
+    @Override
+    public long execute(BulkOperation bulkOperation) {
+        requireNonNull(bulkOperation);
+        final List<Operation<?>> operations = bulkOperation.operations().collect(toList());
+        long affected = 0;
+        for (final Operation<?> operation : operations) {
+            affected += execute(operation);
+        }
+        return affected;
+    }
+
+    private <ENTITY> long execute(Operation<ENTITY> operation) {
+        final Project project = projectComponent.getProject();
+        final Dbms dbms = DocumentDbUtil.referencedDbms(project, operation.manager().getTableIdentifier());
+        final DbmsType dbmsType = DatabaseUtil.dbmsTypeOf(dbmsHandlerComponent, dbms);
+        final BulkTable<ENTITY> table = new BulkTable<>(project, operation.manager(), dbmsType);
+
+        try {
+            final Optional<Connection> txConnection = transactionConnection(dbms);
+            if (txConnection.isPresent()) {
+                // The transaction owns the connection and decides when to commit
+                return new BulkJdbcExecutor(txConnection.get(), batchSize, commitInterval, false)
+                    .execute(table, operation);
+            }
+
+            try (final Connection connection = connectionPoolComponent.getConnection(dbms)) {
+                final boolean autoCommit = connection.getAutoCommit();
+                connection.setAutoCommit(false);
+                try {
+                    final BulkJdbcExecutor executor = new BulkJdbcExecutor(connection, batchSize, commitInterval, true);
+                    final long affected = executor.execute(table, operation);
+                    executor.commit();
+                    return affected;
+                } catch (final SQLException | RuntimeException ex) {
+                    connection.rollback();
+                    throw ex;
+                } finally {
+                    connection.setAutoCommit(autoCommit);
+                }
+            }
+        } catch (final SQLException ex) {
+            throw new SpeedmentException(ex);
+        }
+    }
+
+    private Optional<Connection> transactionConnection(Dbms dbms) {
+        final Optional<Object> txObject = transactionComponent.get(Thread.currentThread());
+        if (!txObject.isPresent()) {
+            return Optional.empty();
+        }
+        final Object o = txObject.get();
+        if (o instanceof Connection) {
+            assertSameDbms((Connection) o, dbms);
+            return Optional.of((Connection) o);
+        }
+        throw new TransactionException(
+            String.format(
+                "A transaction object %s of type %s already exists but comes from another transaction domain. Not from %s",
+                o,
+                o.getClass(),
+                dbms
+            )
+        );
+    }
+
+    /**
+     * Makes sure that a connection held by an ongoing transaction is connected
+     * to the given dbms. Otherwise, the bulk operation would be executed
+     * against the tables of another database.
+     *
+     * @param connection  held by the current transaction
+     * @param dbms        that the operation is targeting
+     */
+    private void assertSameDbms(Connection connection, Dbms dbms) {
+        if (connection instanceof PoolableConnection) {
+            final PoolableConnection pc = (PoolableConnection) connection;
+            final String uri = DatabaseUtil.findConnectionUrl(dbmsHandlerComponent, dbms);
+            final String user = dbms.getUsername().orElse(null);
+            if (!uri.equals(pc.getUri()) || !Objects.equals(user, pc.getUser())) {
+                throw new TransactionException(
+                    String.format(
+                        "The current transaction is connected to %s but the bulk operation targets %s (%s). "
+                        + "A transaction can only span a single dbms.",
+                        pc.getUri(),
+                        dbms.getName(),
+                        uri
+                    )
+                );
+            }
+        }
+    }
+
+}
@@ -0,0 +1,321 @@
+/**
+ *
+ * Copyright (c) 2006-2018, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.bulk.internal.executor;
+
+import com.speedment.runtime.config.Column;
+import com.speedment.runtime.config.Project;
+import com.speedment.runtime.config.Table;
+import com.speedment.runtime.config.util.DocumentDbUtil;
+import com.speedment.runtime.core.db.DatabaseNamingConvention;
+import com.speedment.runtime.core.db.DbmsColumnHandler;
+import com.speedment.runtime.core.db.DbmsType;
+import com.speedment.runtime.core.db.FieldPredicateView;
+import com.speedment.runtime.core.db.SqlPredicateFragment;
+import com.speedment.runtime.core.exception.SpeedmentException;
+import com.speedment.runtime.core.manager.Manager;
+import com.speedment.runtime.field.Field;
+import com.speedment.runtime.field.predicate.CombinedPredicate;
+import com.speedment.runtime.field.predicate.FieldPredicate;
+import com.speedment.runtime.field.predicate.PredicateType;
+import com.speedment.runtime.typemapper.TypeMapper;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Predicate;
+
+import static com.speedment.common.invariant.NullUtil.requireNonNulls;
+import static java.util.Comparator.comparing;
+import static java.util.Objects.requireNonNull;
+import static java.util.stream.Collectors.joining;
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Holds the SQL statements and the field-to-column mappings needed to execute
+ * bulk operations on a single table.
+ *
+ * @param <ENTITY> entity type
+ *
+ * @author Per Minborg
+ * @since 3.1.6
+ */
+final class BulkTable<ENTITY> {
+
+    private final Manager<ENTITY> manager;
+    private final FieldPredicateView fieldPredicateView;
+    private final Map<String, Column> columns;
+    private final Map<String, String> columnNames;
+    private final List<Field<ENTITY>> insertFields;
+    private final List<Field<ENTITY>> updateFields;
+    private final List<Field<ENTITY>> primaryKeyFields;
+    private final String tableReference;
+    private final String insertStatement;
+    private final String updateStatement;
+    private final String deleteStatement;
+
+    BulkTable(
+        final Project project,
+        final Manager<ENTITY> manager,
+        final DbmsType dbmsType
+    ) {
+        requireNonNulls(project, manager, dbmsType);
+        this.manager = manager;
+        this.fieldPredicateView = dbmsType.getFieldPredicateView();
+
+        final Table table = DocumentDbUtil.referencedTable(project, manager.getTableIdentifier());
+        final DatabaseNamingConvention naming = dbmsType.getDatabaseNamingConvention();
+        final DbmsColumnHandler columnHandler = dbmsType.getColumnHandler();
+
+        this.columns = new HashMap<>();
+        this.columnNames = new HashMap<>();
+        manager.fields().forEach(f -> {
+            final Column column = DocumentDbUtil.referencedColumn(project, f.identifier());
+            columns.put(key(f), column);
+            columnNames.put(key(f), naming.encloseField(column.getName()));
+        });
+
+        final List<Field<ENTITY>> fields = manager.fields()
+            .filter(f -> columns.get(key(f)).isEnabled())
+            .sorted(comparing(f -> columns.get(key(f)).getOrdinalPosition()))
+            .collect(toList());
+
+        this.insertFields = fields.stream()
+            .filter(f -> !columnHandler.excludedInInsertStatement().test(columns.get(key(f))))
+            .collect(toList());
+
+        this.updateFields = fields.stream()
+            .filter(f -> !columnHandler.excludedInUpdateStatement().test(columns.get(key(f))))
+            .collect(toList());
+
+        this.primaryKeyFields = manager.primaryKeyFields().collect(toList());
+
+        this.tableReference = naming.fullNameOf(table);
+
+        this.insertStatement = "INSERT INTO " + tableReference + " ("
+            + insertFields.stream().map(this::columnName).collect(joining(","))
+            + ") VALUES ("
+            + insertFields.stream().map(f -> "?").collect(joining(","))
+            + ")";
+
+        this.updateStatement = "UPDATE " + tableReference + " SET "
+            + updateFields.stream().map(f -> columnName(f) + " = ?").collect(joining(","))
+            + " WHERE " + primaryKeyWhere();
+
+        this.deleteStatement = "DELETE FROM " + tableReference
+            + " WHERE " + primaryKeyWhere();
+    }
+
+    Manager<ENTITY> manager() {
+        return manager;
+    }
+
+    String insertStatement() {
+        return insertStatement;
+    }
+
+    String updateStatement() {
+        assertHasPrimaryKeyFields();
+        return updateStatement;
+    }
+
+    String deleteStatement() {
+        assertHasPrimaryKeyFields();
+        return deleteStatement;
+    }
+
+    /**
+     * Renders a {@code DELETE} statement that removes all rows matching the
+     * given predicates, or returns an empty Optional if one or several of the
+     * predicates can not be rendered as SQL.
+     *
+     * @param predicates that must all be true for a row to be removed
+     * @return a statement that removes all matching rows, or empty
+     */
+    Optional<Statement> deleteWhere(List<Predicate<ENTITY>> predicates) {
+        final StringBuilder sql = new StringBuilder("DELETE FROM ").append(tableReference);
+        final List<Object> values = new ArrayList<>();
+        final List<Predicate<ENTITY>> effective = predicates.stream()
+            .filter(p -> !isAlwaysTrue(p))
+            .collect(toList());
+
+        for (int i = 0; i < effective.size(); i++) {
+            sql.append(i == 0 ? " WHERE " : " AND ");
+            if (!render(effective.get(i), sql, values)) {
+                return Optional.empty();
+            }
+        }
+        return Optional.of(new Statement(sql.toString(), values));
+    }
+
+    void bindInsert(PreparedStatement ps, ENTITY entity) throws SQLException {
+        bind(ps, 1, insertFields, entity);
+    }
+
+    /**
+     * Returns the database values of the primary key fields of the given
+     * entity. The values must be captured before an entity is updated so that
+     * the {@code WHERE} clause of the update statement matches the row as it
+     * was read, even if the update modifies the primary key.
+     *
+     * @param entity to read primary key values from
+     * @return the database values of the primary key fields
+     */
+    Object[] primaryKeyValues(ENTITY entity) {
+        final Object[] values = new Object[primaryKeyFields.size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = toDatabaseType(primaryKeyFields.get(i), entity);
+        }
+        return values;
+    }
+
+    void bindUpdate(PreparedStatement ps, ENTITY entity, Object[] primaryKeyValues) throws SQLException {
+        int i = bind(ps, 1, updateFields, entity);
+        for (final Object value : primaryKeyValues) {
+            ps.setObject(i++, value);
+        }
+    }
+
+    void bindDelete(PreparedStatement ps, Object[] primaryKeyValues) throws SQLException {
+        int i = 1;
+        for (final Object value : primaryKeyValues) {
+            ps.setObject(i++, value);
+        }
+    }
+
+    private int bind(PreparedStatement ps, int index, List<Field<ENTITY>> fields, ENTITY entity) throws SQLException {
+        int i = index;
+        for (final Field<ENTITY> field : fields) {
+            ps.setObject(i++, toDatabaseType(field, entity));
+        }
+        return i;
+    }
+
+    private boolean render(Predicate<ENTITY> predicate, StringBuilder sql, List<Object> values) {
+        if (predicate instanceof FieldPredicate) {
+            @SuppressWarnings("unchecked")
+            final FieldPredicate<ENTITY> fieldPredicate = (FieldPredicate<ENTITY>) predicate;
+            if (!columns.containsKey(key(fieldPredicate.getField()))) {
+                return false;
+            }
+            final SqlPredicateFragment fragment = fieldPredicateView.transform(
+                this::columnName,
+                this::databaseType,
+                fieldPredicate
+            );
+
+            @SuppressWarnings("unchecked")
+            final TypeMapper<Object, Object> tm = (TypeMapper<Object, Object>) fieldPredicate.getField().typeMapper();
+
+            sql.append(fragment.getSql());
+            fragment.objects().map(tm::toDatabaseType).forEachOrdered(values::add);
+            return true;
+        } else if (predicate instanceof CombinedPredicate) {
+            @SuppressWarnings("unchecked")
+            final CombinedPredicate<ENTITY> combinedPredicate = (CombinedPredicate<ENTITY>) predicate;
+            final List<Predicate<? super ENTITY>> inner = combinedPredicate.stream().collect(toList());
+            sql.append("(");
+            for (int i = 0; i < inner.size(); i++) {
+                if (i != 0) {
+                    sql.append(" ").append(combinedPredicate.getType().toString()).append(" ");
+                }
+                @SuppressWarnings("unchecked")
+                final Predicate<ENTITY> castedInner = (Predicate<ENTITY>) inner.get(i);
+                if (!render(castedInner, sql, values)) {
+                    return false;
+                }
+            }
+            sql.append(")");
+            return true;
+        } else {
+            return false;
+        }
+    }
+
+    private boolean isAlwaysTrue(Predicate<ENTITY> predicate) {
+        return predicate instanceof FieldPredicate
+            && ((FieldPredicate<?>) predicate).getPredicateType() == PredicateType.ALWAYS_TRUE;
+    }
+
+    private String columnName(Field<ENTITY> field) {
+        return columnNames.get(key(field));
+    }
+
+    private Class<?> databaseType(Field<ENTITY> field) {
+        return columns.get(key(field)).findDatabaseType();
+    }
+
+    private String primaryKeyWhere() {
+        return primaryKeyFields.stream()
+            .map(f -> columnName(f) + " = ?")
+            .collect(joining(" AND "));
+    }
+
+    private void assertHasPrimaryKeyFields() {
+        if (primaryKeyFields.isEmpty()) {
+            throw new SpeedmentException(
+                "The table " + tableReference + " does not have any primary "
+                + "keys. Bulk updates and keyed bulk removes require at least "
+                + "one primary key."
+            );
+        }
+    }
+
+    private static String key(Field<?> field) {
+        return field.identifier().getColumnId();
+    }
+
+    private static <ENTITY> Object toDatabaseType(Field<ENTITY> field, ENTITY entity) {
+        final Object javaValue = field.getter().apply(entity);
+
+        @SuppressWarnings("unchecked")
+        final Object dbValue = ((TypeMapper<Object, Object>) field.typeMapper()).toDatabaseType(javaValue);
+
+        return dbValue;
+    }
+
+    /**
+     * An SQL statement together with the values of its parameters.
+     */
+    static final class Statement {
+
+        private final String sql;
+        private final List<Object> values;
+
+        Statement(String sql, List<Object> values) {
+            this.sql = requireNonNull(sql);
+            this.values = requireNonNull(values);
+        }
+
+        String getSql() {
+            return sql;
+        }
+
+        List<Object> getValues() {
+            return values;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Statement {sql=%s, values=%s}", sql, values);
+        }
+    }
+
+}
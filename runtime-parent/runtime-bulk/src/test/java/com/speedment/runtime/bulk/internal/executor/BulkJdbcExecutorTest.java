@@ -0,0 +1,523 @@
+/**
+ *
+ * Copyright (c) 2006-2018, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.bulk.internal.executor;
+
+import com.speedment.runtime.bulk.BulkOperation;
+import com.speedment.runtime.bulk.Operation;
+import com.speedment.runtime.config.Column;
+import com.speedment.runtime.config.Dbms;
+import com.speedment.runtime.config.Project;
+import com.speedment.runtime.config.Schema;
+import com.speedment.runtime.config.Table;
+import com.speedment.runtime.config.identifier.ColumnIdentifier;
+import com.speedment.runtime.config.identifier.TableIdentifier;
+import com.speedment.runtime.config.internal.ProjectImpl;
+import com.speedment.runtime.config.trait.HasName;
+import com.speedment.runtime.config.trait.HasOrdinalPosition;
+import com.speedment.runtime.core.db.DbmsColumnHandler;
+import com.speedment.runtime.core.db.DbmsType;
+import com.speedment.runtime.core.db.FieldPredicateView;
+import com.speedment.runtime.core.db.SqlPredicateFragment;
+import com.speedment.runtime.core.internal.db.DefaultDatabaseNamingConvention;
+import com.speedment.runtime.core.internal.manager.sql.AbstractFieldPredicateView;
+import com.speedment.runtime.core.manager.HasLabelSet;
+import com.speedment.runtime.core.manager.Manager;
+import com.speedment.runtime.core.manager.Persister;
+import com.speedment.runtime.core.manager.Remover;
+import com.speedment.runtime.core.manager.Updater;
+import com.speedment.runtime.field.Field;
+import com.speedment.runtime.field.IntField;
+import com.speedment.runtime.field.StringField;
+import com.speedment.runtime.field.predicate.FieldPredicate;
+import com.speedment.runtime.typemapper.TypeMapper;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntSupplier;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static java.util.Collections.singletonList;
+import static java.util.stream.Collectors.toList;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Per Minborg
+ */
+public class BulkJdbcExecutorTest {
+
+    private static final String DBMS = "dbms";
+    private static final String SCHEMA = "schema";
+    private static final String TABLE = "point";
+
+    private MockConnection mock;
+    private List<Point> points;
+    private PointManager manager;
+    private BulkTable<Point> table;
+
+    @Before
+    public void setup() {
+        points = IntStream.range(0, 10)
+            .mapToObj(i -> new Point(i, "p" + i))
+            .collect(toList());
+        manager = new PointManager(points);
+        mock = new MockConnection(() -> manager.openStreams);
+        table = new BulkTable<>(project(), manager, dbmsType());
+    }
+
+    @Test
+    public void testStatements() {
+        assertEquals("INSERT INTO `schema`.`point` (`id`,`name`) VALUES (?,?)", table.insertStatement());
+        assertEquals("UPDATE `schema`.`point` SET `id` = ?,`name` = ? WHERE `id` = ?", table.updateStatement());
+        assertEquals("DELETE FROM `schema`.`point` WHERE `id` = ?", table.deleteStatement());
+    }
+
+    @Test
+    public void testPersistBatches() throws Exception {
+        final BulkJdbcExecutor executor = new BulkJdbcExecutor(mock.connection(), 1000, 2000, true);
+        final long affected = executor.execute(table, operation(BulkOperation.builder()
+            .persist(table.manager())
+            .values(() -> IntStream.range(0, 2500).mapToObj(i -> new Point(i, "p" + i)))
+            .build()));
+        executor.commit();
+
+        assertEquals(2500, affected);
+        assertEquals(singletonList(table.insertStatement()), mock.prepared);
+        assertEquals(2500, mock.addBatchCount);
+        assertEquals(Arrays.asList(1000, 1000, 500), mock.batchSizes);
+        assertEquals(2, mock.commitCount);
+        assertEquals(Arrays.asList(2499, "p2499"), mock.lastValues);
+    }
+
+    @Test
+    public void testCommitIntervalFlushesBatch() throws Exception {
+        final BulkJdbcExecutor executor = new BulkJdbcExecutor(mock.connection(), 100, 30, true);
+        executor.execute(table, operation(BulkOperation.builder()
+            .persist(table.manager())
+            .values(() -> IntStream.range(0, 100).mapToObj(i -> new Point(i, "p" + i)))
+            .build()));
+        executor.commit();
+
+        assertEquals(Arrays.asList(30, 30, 30, 10), mock.batchSizes);
+        assertEquals(4, mock.commitCount);
+    }
+
+    @Test
+    public void testNoCommitInTransaction() throws Exception {
+        final BulkJdbcExecutor executor = new BulkJdbcExecutor(mock.connection(), 10, 10, false);
+        executor.execute(table, operation(BulkOperation.builder()
+            .persist(table.manager())
+            .values(() -> IntStream.range(0, 100).mapToObj(i -> new Point(i, "p" + i)))
+            .build()));
+        executor.commit();
+
+        assertEquals(10, mock.batchSizes.size());
+        assertEquals(0, mock.commitCount);
+    }
+
+    @Test
+    public void testRemoveWithFieldPredicates() throws Exception {
+        final BulkJdbcExecutor executor = new BulkJdbcExecutor(mock.connection(), 1000, 10000, true);
+        executor.execute(table, operation(BulkOperation.builder()
+            .remove(table.manager())
+            .where(Point.ID.greaterThan(4))
+            .where(Point.NAME.equal("p7").or(Point.ID.lessThan(7)))
+            .build()));
+
+        assertEquals(
+            singletonList("DELETE FROM `schema`.`point` WHERE (`id` > ?) AND ((`name` = ?) OR (`id` < ?))"),
+            mock.prepared
+        );
+        assertEquals(Arrays.asList(4, "p7", 7), mock.lastValues);
+        assertEquals(1, mock.executeUpdateCount);
+        assertEquals(0, mock.addBatchCount);
+    }
+
+    @Test
+    public void testRemoveAll() throws Exception {
+        final BulkJdbcExecutor executor = new BulkJdbcExecutor(mock.connection(), 1000, 10000, true);
+        executor.execute(table, operation(BulkOperation.builder()
+            .remove(table.manager())
+            .build()));
+
+        assertEquals(singletonList("DELETE FROM `schema`.`point`"), mock.prepared);
+        assertEquals(1, mock.executeUpdateCount);
+    }
+
+    @Test
+    public void testRemoveWithLambdaFallsBackToKeyedBatch() throws Exception {
+        final BulkJdbcExecutor executor = new BulkJdbcExecutor(mock.connection(), 3, 10000, true);
+        final long affected = executor.execute(table, operation(BulkOperation.builder()
+            .remove(table.manager())
+            .where(Point.ID.greaterThan(1))
+            .where(p -> p.getId() % 2 == 0)
+            .build()));
+
+        assertEquals(4, affected); // 2, 4, 6, 8
+        assertEquals(singletonList(table.deleteStatement()), mock.prepared);
+        assertEquals(Arrays.asList(3, 1), mock.batchSizes);
+        assertEquals(singletonList(8), mock.lastValues);
+        assertEquals(0, mock.executeUpdateCount);
+    }
+
+    @Test
+    public void testUpdateAppliesMappersAndConsumers() throws Exception {
+        final BulkJdbcExecutor executor = new BulkJdbcExecutor(mock.connection(), 1000, 10000, true);
+        final long affected = executor.execute(table, operation(BulkOperation.builder()
+            .update(table.manager())
+            .where(Point.ID.equal(3))
+            .compute(p -> new Point(p.getId(), p.getName() + "!"))
+            .set(p -> p.setName(p.getName() + "?"))
+            .build()));
+
+        assertEquals(1, affected);
+        assertEquals(singletonList(table.updateStatement()), mock.prepared);
+        assertEquals(Arrays.asList(3, "p3!?", 3), mock.lastValues);
+        assertEquals("p3", points.get(3).getName());
+    }
+
+    @Test
+    public void testUpdateOfPrimaryKeyBindsOriginalKey() throws Exception {
+        final BulkJdbcExecutor executor = new BulkJdbcExecutor(mock.connection(), 1000, 10000, true);
+        final long affected = executor.execute(table, operation(BulkOperation.builder()
+            .update(table.manager())
+            .where(Point.ID.equal(3))
+            .compute(p -> new Point(p.getId() + 100, p.getName()))
+            .set(p -> p.setId(p.getId() + 1000))
+            .build()));
+
+        assertEquals(1, affected);
+        assertEquals(Arrays.asList(1103, "p3", 3), mock.lastValues);
+    }
+
+    @Test
+    public void testMatchingRowsAreReadBeforeBatchIsExecuted() throws Exception {
+        final BulkJdbcExecutor executor = new BulkJdbcExecutor(mock.connection(), 2, 10000, false);
+        final long updated = executor.execute(table, operation(BulkOperation.builder()
+            .update(table.manager())
+            .where(p -> p.getId() < 5)
+            .set(p -> p.setName(p.getName() + "!"))
+            .build()));
+        final long removed = executor.execute(table, operation(BulkOperation.builder()
+            .remove(table.manager())
+            .where(p -> p.getId() >= 5)
+            .build()));
+
+        // The mock connection fails if a batch is executed while a stream is open
+        assertEquals(5, updated);
+        assertEquals(5, removed);
+        assertEquals(0, manager.openStreams);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Operation<Point> operation(BulkOperation bulkOperation) {
+        return (Operation<Point>) bulkOperation.operations().findFirst().get();
+    }
+
+    private static Project project() {
+        final Map<String, Object> id = new HashMap<>();
+        id.put(HasName.NAME, "id");
+        id.put(Column.DATABASE_TYPE, Integer.class.getName());
+        id.put(HasOrdinalPosition.ORDINAL_POSITION, 1);
+
+        final Map<String, Object> name = new HashMap<>();
+        name.put(HasName.NAME, "name");
+        name.put(Column.DATABASE_TYPE, String.class.getName());
+        name.put(HasOrdinalPosition.ORDINAL_POSITION, 2);
+
+        final Map<String, Object> pk = new HashMap<>();
+        pk.put(HasName.NAME, "id");
+
+        final Map<String, Object> table = new HashMap<>();
+        table.put(HasName.NAME, TABLE);
+        table.put(Table.COLUMNS, new ArrayList<>(Arrays.asList(name, id)));
+        table.put(Table.PRIMARY_KEY_COLUMNS, new ArrayList<>(singletonList(pk)));
+
+        final Map<String, Object> schema = new HashMap<>();
+        schema.put(HasName.NAME, SCHEMA);
+        schema.put(Schema.TABLES, new ArrayList<>(singletonList(table)));
+
+        final Map<String, Object> dbms = new HashMap<>();
+        dbms.put(HasName.NAME, DBMS);
+        dbms.put(Dbms.TYPE_NAME, "MockDb");
+        dbms.put(Dbms.SCHEMAS, new ArrayList<>(singletonList(schema)));
+
+        final Map<String, Object> project = new HashMap<>();
+        project.put(HasName.NAME, "project");
+        project.put(Project.DBMSES, new ArrayList<>(singletonList(dbms)));
+
+        return new ProjectImpl(project);
+    }
+
+    private static DbmsType dbmsType() {
+        final DbmsColumnHandler columnHandler = new DbmsColumnHandler() {
+            @Override
+            public java.util.function.Predicate<Column> excludedInInsertStatement() {
+                return c -> false;
+            }
+
+            @Override
+            public java.util.function.Predicate<Column> excludedInUpdateStatement() {
+                return c -> false;
+            }
+        };
+        final FieldPredicateView fieldPredicateView = new MockFieldPredicateView();
+
+        return (DbmsType) Proxy.newProxyInstance(
+            BulkJdbcExecutorTest.class.getClassLoader(),
+            new Class<?>[]{DbmsType.class},
+            (proxy, method, args) -> {
+                switch (method.getName()) {
+                    case "getDatabaseNamingConvention": return new DefaultDatabaseNamingConvention();
+                    case "getColumnHandler": return columnHandler;
+                    case "getFieldPredicateView": return fieldPredicateView;
+                    default: throw new UnsupportedOperationException(method.getName());
+                }
+            }
+        );
+    }
+
+    private static final class MockConnection {
+
+        private final IntSupplier openStreams;
+        private final List<String> prepared = new ArrayList<>();
+        private final List<Integer> batchSizes = new ArrayList<>();
+        private final List<Object> values = new ArrayList<>();
+        private List<Object> lastValues = new ArrayList<>();
+        private int addBatchCount;
+        private int executeUpdateCount;
+        private int commitCount;
+        private int inBatch;
+
+        private MockConnection(IntSupplier openStreams) {
+            this.openStreams = openStreams;
+        }
+
+        private Connection connection() {
+            return (Connection) Proxy.newProxyInstance(
+                BulkJdbcExecutorTest.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "prepareStatement": {
+                            prepared.add((String) args[0]);
+                            return preparedStatement();
+                        }
+                        case "commit": {
+                            commitCount++;
+                            return null;
+                        }
+                        default: throw new UnsupportedOperationException(method.getName());
+                    }
+                }
+            );
+        }
+
+        private PreparedStatement preparedStatement() {
+            return (PreparedStatement) Proxy.newProxyInstance(
+                BulkJdbcExecutorTest.class.getClassLoader(),
+                new Class<?>[]{PreparedStatement.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "setObject": {
+                            values.add(args[1]);
+                            return null;
+                        }
+                        case "addBatch": {
+                            addBatchCount++;
+                            inBatch++;
+                            lastValues = new ArrayList<>(values);
+                            values.clear();
+                            return null;
+                        }
+                        case "executeBatch": {
+                            if (openStreams.getAsInt() > 0) {
+                                throw new SQLException("Streaming result set is still active");
+                            }
+                            batchSizes.add(inBatch);
+                            final int[] result = new int[inBatch];
+                            Arrays.fill(result, 1);
+                            inBatch = 0;
+                            return result;
+                        }
+                        case "executeUpdate": {
+                            executeUpdateCount++;
+                            lastValues = new ArrayList<>(values);
+                            values.clear();
+                            return 1;
+                        }
+                        case "close": return null;
+                        default: throw new UnsupportedOperationException(method.getName());
+                    }
+                }
+            );
+        }
+    }
+
+    private static final class MockFieldPredicateView extends AbstractFieldPredicateView {
+
+        @Override
+        protected SqlPredicateFragment equalIgnoreCaseHelper(String cn, FieldPredicate<?> model, boolean negated) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        protected SqlPredicateFragment startsWithHelper(String cn, FieldPredicate<?> model, boolean negated) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        protected SqlPredicateFragment startsWithIgnoreCaseHelper(String cn, FieldPredicate<?> model, boolean negated) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        protected SqlPredicateFragment endsWithHelper(String cn, FieldPredicate<?> model, boolean negated) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        protected SqlPredicateFragment endsWithIgnoreCaseHelper(String cn, FieldPredicate<?> model, boolean negated) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        protected SqlPredicateFragment containsHelper(String cn, FieldPredicate<?> model, boolean negated) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        protected SqlPredicateFragment containsIgnoreCaseHelper(String cn, FieldPredicate<?> model, boolean negated) {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    private static final class Point {
+
+        static final IntField<Point, Integer> ID = IntField.create(
+            ColumnIdentifier.of(DBMS, SCHEMA, TABLE, "id"),
+            Point::getId,
+            Point::setId,
+            TypeMapper.primitive(),
+            true
+        );
+
+        static final StringField<Point, String> NAME = StringField.create(
+            ColumnIdentifier.of(DBMS, SCHEMA, TABLE, "name"),
+            Point::getName,
+            Point::setName,
+            TypeMapper.identity(),
+            false
+        );
+
+        private int id;
+        private String name;
+
+        Point(int id, String name) {
+            this.id = id;
+            this.name = name;
+        }
+
+        int getId() {
+            return id;
+        }
+
+        void setId(int id) {
+            this.id = id;
+        }
+
+        String getName() {
+            return name;
+        }
+
+        void setName(String name) {
+            this.name = name;
+        }
+    }
+
+    private static final class PointManager implements Manager<Point> {
+
+        private final List<Point> points;
+        private int openStreams;
+
+        private PointManager(List<Point> points) {
+            this.points = points;
+        }
+
+        @Override
+        public TableIdentifier<Point> getTableIdentifier() {
+            return TableIdentifier.of(DBMS, SCHEMA, TABLE);
+        }
+
+        @Override
+        public Class<Point> getEntityClass() {
+            return Point.class;
+        }
+
+        @Override
+        public Stream<Field<Point>> fields() {
+            return Stream.of(Point.ID, Point.NAME);
+        }
+
+        @Override
+        public Stream<Field<Point>> primaryKeyFields() {
+            return Stream.of(Point.ID);
+        }
+
+        @Override
+        public Stream<Point> stream() {
+            openStreams++;
+            return points.stream().onClose(() -> openStreams--);
+        }
+
+        @Override
+        public Persister<Point> persister() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Persister<Point> persister(HasLabelSet<Point> fields) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Updater<Point> updater() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Updater<Point> updater(HasLabelSet<Point> fields) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Remover<Point> remover() {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+}
@@ -0,0 +1,138 @@
+/**
+ *
+ * Copyright (c) 2006-2018, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.compute.expression;
+
+import com.speedment.runtime.compute.ToByte;
+import com.speedment.runtime.compute.ToDouble;
+import com.speedment.runtime.compute.ToFloat;
+import com.speedment.runtime.compute.ToInt;
+import com.speedment.runtime.compute.ToLong;
+import com.speedment.runtime.compute.ToShort;
+import com.speedment.runtime.compute.internal.compiler.ExpressionCompilerImpl;
+
+/**
+ * Optional compiler that turns an expression tree built using the
+ * {@link Expressions} utility class, or using the methods of the expression
+ * interfaces, into a single generated class.
+ * <p>
+ * An interpreted expression like
+ * {@code Film.LENGTH.asDouble().multiply(Film.RENTAL_RATE.asDouble()).plus(1)}
+ * invokes one object per node of the tree for every evaluation. The compiled
+ * expression evaluates all arithmetic in a single method and only invokes the
+ * leaves of the tree, for example the fields of the entity. Compilation is
+ * relatively expensive and should therefore be done once, ahead of evaluating
+ * the expression for a large number of entities.
+ * <p>
+ * Compilation is always optional. If an expression can not be compiled, the
+ * original expression is returned. The compiled expression is equivalent to
+ * the original expression but can not be introspected. Components that
+ * inspect expression trees, for example to render them as SQL, should
+ * therefore be given the original expression.
+ *
+ * @author Per Minborg
+ * @since  3.1.6
+ */
+public final class ExpressionCompiler {
+
+    /**
+     * Utility classes should not be instantiated.
+     */
+    private ExpressionCompiler() {throw new UnsupportedOperationException();}
+
+    /**
+     * Returns a compiled version of the specified expression or the
+     * expression itself if it can not be compiled.
+     *
+     * @param expression  the expression to compile
+     * @param <T>         the input type
+     * @return            the compiled expression
+     */
+    public static <T> ToByte<T> compile(ToByte<T> expression) {
+        return ExpressionCompilerImpl.compile(expression).orElse(expression);
+    }
+
+    /**
+     * Returns a compiled version of the specified expression or the
+     * expression itself if it can not be compiled.
+     *
+     * @param expression  the expression to compile
+     * @param <T>         the input type
+     * @return            the compiled expression
+     */
+    public static <T> ToShort<T> compile(ToShort<T> expression) {
+        return ExpressionCompilerImpl.compile(expression).orElse(expression);
+    }
+
+    /**
+     * Returns a compiled version of the specified expression or the
+     * expression itself if it can not be compiled.
+     *
+     * @param expression  the expression to compile
+     * @param <T>         the input type
+     * @return            the compiled expression
+     */
+    public static <T> ToInt<T> compile(ToInt<T> expression) {
+        return ExpressionCompilerImpl.compile(expression).orElse(expression);
+    }
+
+    /**
+     * Returns a compiled version of the specified expression or the
+     * expression itself if it can not be compiled.
+     *
+     * @param expression  the expression to compile
+     * @param <T>         the input type
+     * @return            the compiled expression
+     */
+    public static <T> ToLong<T> compile(ToLong<T> expression) {
+        return ExpressionCompilerImpl.compile(expression).orElse(expression);
+    }
+
+    /**
+     * Returns a compiled version of the specified expression or the
+     * expression itself if it can not be compiled.
+     *
+     * @param expression  the expression to compile
+     * @param <T>         the input type
+     * @return            the compiled expression
+     */
+    public static <T> ToFloat<T> compile(ToFloat<T> expression) {
+        return ExpressionCompilerImpl.compile(expression).orElse(expression);
+    }
+
+    /**
+     * Returns a compiled version of the specified expression or the
+     * expression itself if it can not be compiled.
+     *
+     * @param expression  the expression to compile
+     * @param <T>         the input type
+     * @return            the compiled expression
+     */
+    public static <T> ToDouble<T> compile(ToDouble<T> expression) {
+        return ExpressionCompilerImpl.compile(expression).orElse(expression);
+    }
+
+    /**
+     * Returns {@code true} if the specified expression was created by this
+     * compiler.
+     *
+     * @param expression  the expression
+     * @return            {@code true} if compiled, else {@code false}
+     */
+    public static boolean isCompiled(Expression<?> expression) {
+        return ExpressionCompilerImpl.isCompiled(expression);
+    }
+}
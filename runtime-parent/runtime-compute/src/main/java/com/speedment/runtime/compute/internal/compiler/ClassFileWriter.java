@@ -0,0 +1,378 @@
+/**
+ *
+ * Copyright (c) 2006-2018, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.compute.internal.compiler;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Minimal writer of class files that is just capable enough to produce the
+ * classes generated by the {@link ExpressionCompilerImpl}.
+ * <p>
+ * Classes are written using class file version 49 (Java 5). Such classes are
+ * verified by type inference and therefore do not need any stack map frames,
+ * which keeps branching code simple to generate.
+ *
+ * @author Per Minborg
+ * @since  3.1.6
+ */
+final class ClassFileWriter {
+
+    static final int ACC_PUBLIC = 0x0001;
+    static final int ACC_FINAL  = 0x0010;
+    static final int ACC_SUPER  = 0x0020;
+
+    private static final int MAGIC         = 0xCAFEBABE;
+    private static final int MAJOR_VERSION = 49;
+
+    private static final int CONSTANT_UTF8                 = 1;
+    private static final int CONSTANT_INTEGER              = 3;
+    private static final int CONSTANT_FLOAT                = 4;
+    private static final int CONSTANT_LONG                 = 5;
+    private static final int CONSTANT_DOUBLE               = 6;
+    private static final int CONSTANT_CLASS                = 7;
+    private static final int CONSTANT_FIELDREF             = 9;
+    private static final int CONSTANT_METHODREF            = 10;
+    private static final int CONSTANT_INTERFACE_METHODREF  = 11;
+    private static final int CONSTANT_NAME_AND_TYPE        = 12;
+
+    private final ByteVector pool;
+    private final Map<String, Integer> poolIndices;
+    private final ByteVector fields;
+    private final ByteVector methods;
+    private final int thisClass;
+    private final int superClass;
+    private final int[] interfaces;
+    private int poolCount;
+    private int fieldCount;
+    private int methodCount;
+
+    /**
+     * Creates a new writer of a public final class.
+     *
+     * @param name        internal name of the class, like {@code a/b/C}
+     * @param superName   internal name of the super class
+     * @param interfaces  internal names of the implemented interfaces
+     */
+    ClassFileWriter(String name, String superName, String... interfaces) {
+        this.pool        = new ByteVector();
+        this.poolIndices = new HashMap<>();
+        this.fields      = new ByteVector();
+        this.methods     = new ByteVector();
+        this.poolCount   = 1;
+        this.thisClass   = classRef(name);
+        this.superClass  = classRef(superName);
+        this.interfaces  = Arrays.stream(interfaces).mapToInt(this::classRef).toArray();
+    }
+
+    int utf8(String value) {
+        return constant("U" + value, 1, () -> pool.put1(CONSTANT_UTF8).putUtf8(value));
+    }
+
+    int classRef(String internalName) {
+        final int name = utf8(internalName);
+        return constant("C" + internalName, 1, () -> pool.put1(CONSTANT_CLASS).put2(name));
+    }
+
+    int integer(int value) {
+        return constant("I" + value, 1, () -> pool.put1(CONSTANT_INTEGER).put4(value));
+    }
+
+    int floatConstant(float value) {
+        final int bits = Float.floatToRawIntBits(value);
+        return constant("F" + bits, 1, () -> pool.put1(CONSTANT_FLOAT).put4(bits));
+    }
+
+    int longConstant(long value) {
+        return constant("J" + value, 2, () -> pool.put1(CONSTANT_LONG).put8(value));
+    }
+
+    int doubleConstant(double value) {
+        final long bits = Double.doubleToRawLongBits(value);
+        return constant("D" + bits, 2, () -> pool.put1(CONSTANT_DOUBLE).put8(bits));
+    }
+
+    int fieldRef(String owner, String name, String descriptor) {
+        return memberRef(CONSTANT_FIELDREF, owner, name, descriptor);
+    }
+
+    int methodRef(String owner, String name, String descriptor) {
+        return memberRef(CONSTANT_METHODREF, owner, name, descriptor);
+    }
+
+    int interfaceMethodRef(String owner, String name, String descriptor) {
+        return memberRef(CONSTANT_INTERFACE_METHODREF, owner, name, descriptor);
+    }
+
+    /**
+     * Adds a field without any attributes to the class.
+     *
+     * @param access      access flags
+     * @param name        field name
+     * @param descriptor  field descriptor
+     */
+    void field(int access, String name, String descriptor) {
+        fields.put2(access).put2(utf8(name)).put2(utf8(descriptor)).put2(0);
+        fieldCount++;
+    }
+
+    /**
+     * Adds a method with the specified code to the class.
+     *
+     * @param access      access flags
+     * @param name        method name
+     * @param descriptor  method descriptor
+     * @param code        the method body
+     */
+    void method(int access, String name, String descriptor, Code code) {
+        final ByteVector bytes = code.bytes;
+        methods.put2(access).put2(utf8(name)).put2(utf8(descriptor))
+            .put2(1) // One attribute: Code
+            .put2(utf8("Code"))
+            .put4(12 + bytes.length)
+            .put2(code.maxStack)
+            .put2(code.maxLocals)
+            .put4(bytes.length)
+            .put(bytes)
+            .put2(0)  // Exception table length
+            .put2(0); // Attributes count
+        methodCount++;
+    }
+
+    byte[] toByteArray() {
+        final ByteVector out = new ByteVector()
+            .put4(MAGIC)
+            .put2(0)
+            .put2(MAJOR_VERSION)
+            .put2(poolCount)
+            .put(pool)
+            .put2(ACC_PUBLIC | ACC_FINAL | ACC_SUPER)
+            .put2(thisClass)
+            .put2(superClass)
+            .put2(interfaces.length);
+
+        for (final int iface : interfaces) {
+            out.put2(iface);
+        }
+
+        return out
+            .put2(fieldCount).put(fields)
+            .put2(methodCount).put(methods)
+            .put2(0) // Attributes count
+            .toByteArray();
+    }
+
+    private int memberRef(int tag, String owner, String name, String descriptor) {
+        final int clazz = classRef(owner);
+        final int nameIndex = utf8(name);
+        final int descriptorIndex = utf8(descriptor);
+        final int nameAndType = constant(
+            "N" + name + ":" + descriptor, 1,
+            () -> pool.put1(CONSTANT_NAME_AND_TYPE).put2(nameIndex).put2(descriptorIndex)
+        );
+        return constant(
+            tag + ":" + owner + "." + name + ":" + descriptor, 1,
+            () -> pool.put1(tag).put2(clazz).put2(nameAndType)
+        );
+    }
+
+    private int constant(String key, int slots, Runnable writer) {
+        final Integer existing = poolIndices.get(key);
+        if (existing != null) {
+            return existing;
+        }
+        final int index = poolCount;
+        writer.run();
+        poolCount += slots;
+        if (poolCount > 0xFFFF) {
+            throw new IllegalStateException("Too many constants in the class");
+        }
+        poolIndices.put(key, index);
+        return index;
+    }
+
+    /**
+     * The body of a method. Keeps track of the maximum stack depth as
+     * instructions are added.
+     */
+    static final class Code {
+
+        private final ByteVector bytes;
+        private final int maxLocals;
+        private int stack;
+        private int maxStack;
+
+        Code(int maxLocals) {
+            this.bytes     = new ByteVector();
+            this.maxLocals = maxLocals;
+        }
+
+        /**
+         * Appends an instruction without operands.
+         *
+         * @param opcode      the instruction
+         * @param stackDelta  the number of stack slots the instruction pushes
+         *                    minus the number of slots it pops
+         * @return            this instance
+         */
+        Code op(int opcode, int stackDelta) {
+            bytes.put1(opcode);
+            return adjust(stackDelta);
+        }
+
+        /**
+         * Appends an instruction with an unsigned byte operand.
+         *
+         * @param opcode      the instruction
+         * @param operand     the operand
+         * @param stackDelta  the change of the stack depth
+         * @return            this instance
+         */
+        Code op1(int opcode, int operand, int stackDelta) {
+            bytes.put1(opcode).put1(operand);
+            return adjust(stackDelta);
+        }
+
+        /**
+         * Appends an instruction with a two byte operand.
+         *
+         * @param opcode      the instruction
+         * @param operand     the operand
+         * @param stackDelta  the change of the stack depth
+         * @return            this instance
+         */
+        Code op2(int opcode, int operand, int stackDelta) {
+            bytes.put1(opcode).put2(operand);
+            return adjust(stackDelta);
+        }
+
+        /**
+         * Appends an {@code invokeinterface} instruction.
+         *
+         * @param method      constant pool index of the method
+         * @param argSlots    number of argument slots, including the receiver
+         * @param stackDelta  the change of the stack depth
+         * @return            this instance
+         */
+        Code invokeInterface(int method, int argSlots, int stackDelta) {
+            bytes.put1(Opcodes.INVOKEINTERFACE).put2(method).put1(argSlots).put1(0);
+            return adjust(stackDelta);
+        }
+
+        /**
+         * Appends a forward branch instruction with an offset that must later
+         * be resolved using {@link #resolve(int)}.
+         *
+         * @param opcode      the branch instruction
+         * @param stackDelta  the change of the stack depth
+         * @return            the position of the instruction
+         */
+        int branch(int opcode, int stackDelta) {
+            final int position = bytes.length;
+            bytes.put1(opcode).put2(0);
+            adjust(stackDelta);
+            return position;
+        }
+
+        /**
+         * Makes the branch at the specified position jump to the current end
+         * of the code.
+         *
+         * @param position  position of the branch instruction
+         */
+        void resolve(int position) {
+            bytes.set2(position + 1, bytes.length - position);
+        }
+
+        private Code adjust(int stackDelta) {
+            stack += stackDelta;
+            if (stack < 0) {
+                throw new IllegalStateException("Stack underflow");
+            }
+            maxStack = Math.max(maxStack, stack);
+            return this;
+        }
+    }
+
+    /**
+     * Growable array of big endian encoded bytes.
+     */
+    private static final class ByteVector {
+
+        private byte[] data = new byte[64];
+        private int length;
+
+        ByteVector put1(int value) {
+            ensureCapacity(1);
+            data[length++] = (byte) value;
+            return this;
+        }
+
+        ByteVector put2(int value) {
+            if (value < 0 || value > 0xFFFF) {
+                throw new IllegalArgumentException("Value " + value + " does not fit in two bytes");
+            }
+            return put1(value >>> 8).put1(value);
+        }
+
+        ByteVector put4(int value) {
+            return put1(value >>> 24).put1(value >>> 16).put1(value >>> 8).put1(value);
+        }
+
+        ByteVector put8(long value) {
+            return put4((int) (value >>> 32)).put4((int) value);
+        }
+
+        ByteVector putUtf8(String value) {
+            requireNonNull(value);
+            put2(value.length());
+            for (int i = 0; i < value.length(); i++) {
+                final char c = value.charAt(i);
+                if (c == 0 || c > 0x7F) {
+                    throw new IllegalArgumentException("Only ASCII is supported: " + value);
+                }
+                put1(c);
+            }
+            return this;
+        }
+
+        ByteVector put(ByteVector other) {
+            ensureCapacity(other.length);
+            System.arraycopy(other.data, 0, data, length, other.length);
+            length += other.length;
+            return this;
+        }
+
+        void set2(int position, int value) {
+            data[position]     = (byte) (value >>> 8);
+            data[position + 1] = (byte) value;
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(data, length);
+        }
+
+        private void ensureCapacity(int additional) {
+            if (length + additional > data.length) {
+                data = Arrays.copyOf(data, Math.max(data.length * 2, length + additional));
+            }
+        }
+    }
+}
@@ -0,0 +1,430 @@
+/**
+ *
+ * Copyright (c) 2006-2018, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.compute.internal.compiler;
+
+import com.speedment.runtime.compute.expression.BinaryExpression;
+import com.speedment.runtime.compute.expression.BinaryObjExpression;
+import com.speedment.runtime.compute.expression.ConstantExpression;
+import com.speedment.runtime.compute.expression.Expression;
+import com.speedment.runtime.compute.expression.UnaryExpression;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.speedment.runtime.compute.internal.compiler.ClassFileWriter.ACC_PUBLIC;
+import static com.speedment.runtime.compute.internal.compiler.ClassFileWriter.ACC_FINAL;
+import static com.speedment.runtime.compute.internal.compiler.Opcodes.*;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Compiles trees of the built-in expressions into a generated class that
+ * evaluates the entire tree in a single method.
+ * <p>
+ * Every node of the tree that is created by this module and that adds,
+ * subtracts, multiplies, divides, negates, casts or takes the absolute value,
+ * sign or square root of primitive numeric operands is inlined into the
+ * generated method. Constants are inlined as well. Any other expression,
+ * like a field of an entity or a custom lambda, is kept as a leaf that is
+ * invoked through a field of the generated class. Since every generated
+ * class has its own call sites, these calls are typically monomorphic and
+ * can be inlined by the JIT.
+ * <p>
+ * Each generated class is defined in a class loader of its own so that it
+ * can be unloaded when the compiled expression is no longer used.
+ *
+ * @author Per Minborg
+ * @since  3.1.6
+ */
+public final class ExpressionCompilerImpl {
+
+    private static final String BUILT_IN_PREFIX = "com.speedment.runtime.compute.internal.";
+    private static final String GENERATED_PACKAGE = "com/speedment/runtime/compute/internal/compiler/generated/";
+    private static final String OBJECT = "java/lang/Object";
+    private static final String CONSTRUCTOR_DESCRIPTOR = "([Ljava/lang/Object;)V";
+
+    private static final AtomicLong COUNTER = new AtomicLong();
+
+    /**
+     * Utility classes should not be instantiated.
+     */
+    private ExpressionCompilerImpl() {throw new UnsupportedOperationException();}
+
+    /**
+     * Compiles the specified expression into a new instance of a generated
+     * class that implements the same expression interface. If the expression
+     * does not have any built-in nodes that can be inlined, or if the
+     * generated class can not be defined, {@code Optional.empty()} is
+     * returned and the original expression should be used instead.
+     *
+     * @param expression  the expression to compile
+     * @param <E>         the expression type
+     * @return            the compiled expression or empty
+     */
+    public static <E extends Expression<?>> Optional<E> compile(E expression) {
+        requireNonNull(expression);
+        final Optional<Primitive> type = Primitive.of(expression);
+        if (!type.isPresent() || !isInlined(expression)) {
+            return Optional.empty();
+        }
+
+        try {
+            @SuppressWarnings("unchecked")
+            final E compiled = (E) new Generator(type.get()).generate(expression);
+            return Optional.of(compiled);
+        } catch (final RuntimeException | LinkageError | ReflectiveOperationException ex) {
+            // The interpreted expression is always a valid fallback
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Returns {@code true} if the specified expression is an instance of a
+     * class generated by this compiler.
+     *
+     * @param expression  the expression
+     * @return            {@code true} if compiled
+     */
+    public static boolean isCompiled(Expression<?> expression) {
+        return expression.getClass().getClassLoader() instanceof GeneratedClassLoader;
+    }
+
+    /**
+     * Returns {@code true} if the specified expression can be inlined into
+     * the generated method rather than being invoked as a leaf.
+     *
+     * @param expression  the expression
+     * @return            {@code true} if the node is inlined
+     */
+    private static boolean isInlined(Expression<?> expression) {
+        if (!expression.getClass().getName().startsWith(BUILT_IN_PREFIX)
+        ||  isCompiled(expression)) {
+            return false;
+        }
+
+        if (expression instanceof ConstantExpression) {
+            final Object value = ((ConstantExpression<?, ?>) expression).value();
+            return Primitive.ofConstant(value).equals(Primitive.of(expression));
+        } else if (expression instanceof UnaryExpression) {
+            final UnaryExpression<?, ?> unary = (UnaryExpression<?, ?>) expression;
+            switch (unary.operator()) {
+                case ABS: case CAST: case NEGATE: case SIGN: case SQRT:
+                    return Primitive.of(unary.inner()).isPresent();
+                default: return false;
+            }
+        } else if (expression instanceof BinaryExpression) {
+            final BinaryExpression<?, ?, ?> binary = (BinaryExpression<?, ?, ?>) expression;
+            switch (binary.operator()) {
+                case PLUS: case MINUS: case MULTIPLY: case DIVIDE:
+                    return Primitive.of(binary.first()).isPresent()
+                        && Primitive.of(binary.second()).isPresent();
+                default: return false;
+            }
+        } else if (expression instanceof BinaryObjExpression) {
+            final BinaryObjExpression<?, ?, ?> binary = (BinaryObjExpression<?, ?, ?>) expression;
+            switch (binary.operator()) {
+                case PLUS: case MINUS: case MULTIPLY: case DIVIDE:
+                    return Primitive.of(binary.first()).isPresent()
+                        && Primitive.ofConstant(binary.second()).isPresent();
+                default: return false;
+            }
+        } else {
+            return false;
+        }
+    }
+
+    /**
+     * Generates the class for a single expression tree.
+     */
+    private static final class Generator {
+
+        private final Primitive type;
+        private final String className;
+        private final ClassFileWriter writer;
+        private final ClassFileWriter.Code code;
+        private final Map<Expression<?>, Integer> leafIndices;
+        private final List<Expression<?>> leaves;
+
+        private Generator(Primitive type) {
+            this.type        = requireNonNull(type);
+            this.className   = GENERATED_PACKAGE + "Compiled"
+                + type.internalName().substring(type.internalName().lastIndexOf('/') + 1)
+                + "$" + COUNTER.incrementAndGet();
+            this.writer      = new ClassFileWriter(className, OBJECT, type.internalName());
+            this.code        = new ClassFileWriter.Code(2);
+            this.leafIndices = new IdentityHashMap<>();
+            this.leaves      = new ArrayList<>();
+        }
+
+        private Object generate(Expression<?> expression)
+        throws ReflectiveOperationException {
+            emit(expression, type);
+            code.op(type.returnOpcode(), -type.slots());
+            writer.method(ACC_PUBLIC | ACC_FINAL, type.method(), type.methodDescriptor(), code);
+            writer.method(ACC_PUBLIC, "<init>", CONSTRUCTOR_DESCRIPTOR, constructor());
+
+            final byte[] bytes = writer.toByteArray();
+            final ClassLoader parent = Primitive.class.getClassLoader();
+            final Class<?> clazz = new GeneratedClassLoader(parent)
+                .define(className.replace('/', '.'), bytes);
+
+            return clazz.getConstructor(Object[].class)
+                .newInstance((Object) leaves.toArray());
+        }
+
+        /**
+         * Emits code that leaves the result of the specified expression on
+         * the stack, converted to the specified type.
+         *
+         * @param expression  the expression to evaluate
+         * @param to          the type to leave on the stack
+         */
+        private void emit(Expression<?> expression, Primitive to) {
+            final Primitive result = Primitive.of(expression)
+                .orElseThrow(() -> new IllegalStateException(
+                    "Expression " + expression + " is not of a primitive numeric type"
+                ));
+
+            if (!isInlined(expression)) {
+                emitLeaf(expression, result);
+            } else if (expression instanceof ConstantExpression) {
+                emitConstant(((ConstantExpression<?, ?>) expression).value());
+            } else if (expression instanceof UnaryExpression) {
+                emitUnary((UnaryExpression<?, ?>) expression, result);
+            } else if (expression instanceof BinaryExpression) {
+                final BinaryExpression<?, ?, ?> binary = (BinaryExpression<?, ?, ?>) expression;
+                final Primitive first  = Primitive.of(binary.first()).get();
+                final Primitive second = Primitive.of(binary.second()).get();
+                final Primitive common = common(binary.operator().name(), first, second);
+                emit(binary.first(), common);
+                emit(binary.second(), common);
+                emitArithmetic(binary.operator().name(), common, result);
+            } else {
+                final BinaryObjExpression<?, ?, ?> binary = (BinaryObjExpression<?, ?, ?>) expression;
+                final Primitive first  = Primitive.of(binary.first()).get();
+                final Primitive second = Primitive.ofConstant(binary.second()).get();
+                final Primitive common = common(binary.operator().name(), first, second);
+                emit(binary.first(), common);
+                emitConstant(binary.second());
+                second.convert(code, common);
+                emitArithmetic(binary.operator().name(), common, result);
+            }
+
+            result.convert(code, to);
+        }
+
+        private void emitLeaf(Expression<?> expression, Primitive result) {
+            final Integer existing = leafIndices.get(expression);
+            final int index;
+            if (existing == null) {
+                index = leaves.size();
+                leaves.add(expression);
+                leafIndices.put(expression, index);
+                writer.field(ACC_FINAL, leafName(index), leafDescriptor(result));
+            } else {
+                index = existing;
+            }
+
+            code.op(ALOAD_0, 1)
+                .op2(GETFIELD, writer.fieldRef(className, leafName(index), leafDescriptor(result)), 0)
+                .op(ALOAD_1, 1)
+                .invokeInterface(
+                    writer.interfaceMethodRef(result.internalName(), result.method(), result.methodDescriptor()),
+                    2, result.slots() - 2
+                );
+        }
+
+        private void emitConstant(Object value) {
+            final Primitive constant = Primitive.ofConstant(value).get();
+            final Number number = (Number) value;
+            switch (constant) {
+                case BYTE: case SHORT: case INT:
+                    ldc(writer.integer(number.intValue()));
+                    break;
+                case FLOAT:
+                    ldc(writer.floatConstant(number.floatValue()));
+                    break;
+                case LONG:
+                    code.op2(LDC2_W, writer.longConstant(number.longValue()), 2);
+                    break;
+                case DOUBLE:
+                    code.op2(LDC2_W, writer.doubleConstant(number.doubleValue()), 2);
+                    break;
+                default: throw new UnsupportedOperationException(
+                    "Unknown constant type " + constant
+                );
+            }
+        }
+
+        private void emitUnary(UnaryExpression<?, ?> unary, Primitive result) {
+            final Primitive inner = Primitive.of(unary.inner()).get();
+            switch (unary.operator()) {
+                case CAST:
+                    emit(unary.inner(), result);
+                    return;
+
+                case NEGATE: {
+                    final Primitive computed = inner.onStack();
+                    emit(unary.inner(), computed);
+                    code.op(INEG + computed.category(), 0);
+                    computed.convert(code, result);
+                    return;
+                }
+
+                case ABS: {
+                    // Same as "value < 0 ? -value : value", which unlike
+                    // Math.abs() keeps the sign of negative zero
+                    emit(unary.inner(), inner);
+                    final int branch;
+                    switch (inner.onStack()) {
+                        case INT:
+                            code.op(DUP, 1);
+                            branch = code.branch(IFGE, -1);
+                            break;
+                        case LONG:
+                            code.op(DUP2, 2).op(LCONST_0, 2).op(LCMP, -3);
+                            branch = code.branch(IFGE, -1);
+                            break;
+                        case FLOAT:
+                            code.op(DUP, 1).op(FCONST_0, 1).op(FCMPG, -1);
+                            branch = code.branch(IFGE, -1);
+                            break;
+                        default:
+                            code.op(DUP2, 2).op(DCONST_0, 2).op(DCMPG, -3);
+                            branch = code.branch(IFGE, -1);
+                            break;
+                    }
+                    code.op(INEG + inner.category(), 0);
+                    inner.onStack().convert(code, inner);
+                    code.resolve(branch);
+                    inner.convert(code, result);
+                    return;
+                }
+
+                case SIGN: {
+                    // Math.signum() is zero for NaN once converted to an int,
+                    // which is the same as "value < 0 ? -1 : (value > 0 ? 1 : 0)"
+                    emit(unary.inner(), inner.onStack());
+                    switch (inner.onStack()) {
+                        case INT:
+                            invokeStatic("java/lang/Integer", "signum", "(I)I", 0);
+                            break;
+                        case LONG:
+                            invokeStatic("java/lang/Long", "signum", "(J)I", -1);
+                            break;
+                        case FLOAT:
+                            invokeStatic("java/lang/Math", "signum", "(F)F", 0);
+                            Primitive.FLOAT.convert(code, Primitive.INT);
+                            break;
+                        default:
+                            invokeStatic("java/lang/Math", "signum", "(D)D", 0);
+                            Primitive.DOUBLE.convert(code, Primitive.INT);
+                            break;
+                    }
+                    Primitive.INT.convert(code, result);
+                    return;
+                }
+
+                case SQRT:
+                    emit(unary.inner(), Primitive.DOUBLE);
+                    invokeStatic("java/lang/Math", "sqrt", "(D)D", 0);
+                    Primitive.DOUBLE.convert(code, result);
+                    return;
+
+                default: throw new UnsupportedOperationException(
+                    "Unsupported operator " + unary.operator()
+                );
+            }
+        }
+
+        private void emitArithmetic(String operator, Primitive common, Primitive result) {
+            final int opcode;
+            switch (operator) {
+                case "PLUS":     opcode = IADD + common.category(); break;
+                case "MINUS":    opcode = ISUB + common.category(); break;
+                case "MULTIPLY": opcode = IMUL + common.category(); break;
+                case "DIVIDE":   opcode = DDIV; break;
+                default: throw new UnsupportedOperationException(
+                    "Unsupported operator " + operator
+                );
+            }
+            code.op(opcode, -common.slots());
+            common.convert(code, result);
+        }
+
+        private ClassFileWriter.Code constructor() {
+            final ClassFileWriter.Code init = new ClassFileWriter.Code(2)
+                .op(ALOAD_0, 1)
+                .op2(INVOKESPECIAL, writer.methodRef(OBJECT, "<init>", "()V"), -1);
+
+            for (int i = 0; i < leaves.size(); i++) {
+                final Primitive leaf = Primitive.of(leaves.get(i)).get();
+                init.op(ALOAD_0, 1)
+                    .op(ALOAD_1, 1)
+                    .op2(LDC_W, writer.integer(i), 1)
+                    .op(AALOAD, -1)
+                    .op2(CHECKCAST, writer.classRef(leaf.internalName()), 0)
+                    .op2(PUTFIELD, writer.fieldRef(className, leafName(i), leafDescriptor(leaf)), -2);
+            }
+
+            return init.op(RETURN, 0);
+        }
+
+        private void invokeStatic(String owner, String name, String descriptor, int stackDelta) {
+            code.op2(INVOKESTATIC, writer.methodRef(owner, name, descriptor), stackDelta);
+        }
+
+        private void ldc(int index) {
+            if (index <= 0xFF) {
+                code.op1(LDC, index, 1);
+            } else {
+                code.op2(LDC_W, index, 1);
+            }
+        }
+
+        private static Primitive common(String operator, Primitive first, Primitive second) {
+            return "DIVIDE".equals(operator)
+                ? Primitive.DOUBLE
+                : Primitive.promote(first, second);
+        }
+
+        private static String leafName(int index) {
+            return "leaf" + index;
+        }
+
+        private static String leafDescriptor(Primitive type) {
+            return "L" + type.internalName() + ";";
+        }
+    }
+
+    /**
+     * Class loader that defines a single generated class.
+     */
+    private static final class GeneratedClassLoader extends ClassLoader {
+
+        private GeneratedClassLoader(ClassLoader parent) {
+            super(parent);
+        }
+
+        private Class<?> define(String name, byte[] bytes) {
+            return defineClass(name, bytes, 0, bytes.length);
+        }
+    }
+}
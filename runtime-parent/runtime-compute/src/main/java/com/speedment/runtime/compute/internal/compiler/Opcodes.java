@@ -0,0 +1,82 @@
+/**
+ *
+ * Copyright (c) 2006-2018, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.compute.internal.compiler;
+
+/**
+ * The JVM instructions used by the {@link ExpressionCompilerImpl}.
+ *
+ * @author Per Minborg
+ * @since  3.1.6
+ */
+final class Opcodes {
+
+    static final int ALOAD_0         = 0x2A;
+    static final int ALOAD_1         = 0x2B;
+    static final int LDC             = 0x12;
+    static final int LDC_W           = 0x13;
+    static final int LDC2_W          = 0x14;
+    static final int AALOAD          = 0x32;
+    static final int DUP             = 0x59;
+    static final int DUP2            = 0x5C;
+    static final int LCONST_0        = 0x09;
+    static final int FCONST_0        = 0x0B;
+    static final int DCONST_0        = 0x0E;
+
+    static final int IADD            = 0x60;
+    static final int ISUB            = 0x64;
+    static final int IMUL            = 0x68;
+    static final int DDIV            = 0x6F;
+    static final int INEG            = 0x74;
+
+    static final int I2L             = 0x85;
+    static final int I2F             = 0x86;
+    static final int I2D             = 0x87;
+    static final int L2I             = 0x88;
+    static final int L2F             = 0x89;
+    static final int L2D             = 0x8A;
+    static final int F2I             = 0x8B;
+    static final int F2L             = 0x8C;
+    static final int F2D             = 0x8D;
+    static final int D2I             = 0x8E;
+    static final int D2L             = 0x8F;
+    static final int D2F             = 0x90;
+    static final int I2B             = 0x91;
+    static final int I2S             = 0x93;
+
+    static final int LCMP            = 0x94;
+    static final int FCMPG           = 0x96;
+    static final int DCMPG           = 0x98;
+    static final int IFGE            = 0x9C;
+
+    static final int IRETURN         = 0xAC;
+    static final int LRETURN         = 0xAD;
+    static final int FRETURN         = 0xAE;
+    static final int DRETURN         = 0xAF;
+    static final int RETURN          = 0xB1;
+
+    static final int GETFIELD        = 0xB4;
+    static final int PUTFIELD        = 0xB5;
+    static final int INVOKESPECIAL   = 0xB7;
+    static final int INVOKESTATIC    = 0xB8;
+    static final int INVOKEINTERFACE = 0xB9;
+    static final int CHECKCAST       = 0xC0;
+
+    /**
+     * Utility classes should not be instantiated.
+     */
+    private Opcodes() {throw new UnsupportedOperationException();}
+}
@@ -0,0 +1,200 @@
+/**
+ *
+ * Copyright (c) 2006-2018, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.compute.internal.compiler;
+
+import com.speedment.runtime.compute.ToByte;
+import com.speedment.runtime.compute.ToDouble;
+import com.speedment.runtime.compute.ToFloat;
+import com.speedment.runtime.compute.ToInt;
+import com.speedment.runtime.compute.ToLong;
+import com.speedment.runtime.compute.ToShort;
+import com.speedment.runtime.compute.expression.Expression;
+import com.speedment.runtime.compute.expression.ExpressionType;
+
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static com.speedment.runtime.compute.internal.compiler.Opcodes.*;
+
+/**
+ * The primitive numeric types that the {@link ExpressionCompilerImpl} can
+ * generate code for, together with the interface used to evaluate an
+ * expression of each type.
+ *
+ * @author Per Minborg
+ * @since  3.1.6
+ */
+enum Primitive {
+
+    BYTE   (ExpressionType.BYTE,   ToByte.class,   "applyAsByte",   'B', 0, 1, IRETURN),
+    SHORT  (ExpressionType.SHORT,  ToShort.class,  "applyAsShort",  'S', 0, 1, IRETURN),
+    INT    (ExpressionType.INT,    ToInt.class,    "applyAsInt",    'I', 0, 1, IRETURN),
+    LONG   (ExpressionType.LONG,   ToLong.class,   "applyAsLong",   'J', 1, 2, LRETURN),
+    FLOAT  (ExpressionType.FLOAT,  ToFloat.class,  "applyAsFloat",  'F', 2, 1, FRETURN),
+    DOUBLE (ExpressionType.DOUBLE, ToDouble.class, "applyAsDouble", 'D', 3, 2, DRETURN);
+
+    /**
+     * Conversion instructions indexed by the category of the source and the
+     * category of the target type.
+     */
+    private static final int[][] CONVERSIONS = {
+        {0,   I2L, I2F, I2D},
+        {L2I, 0,   L2F, L2D},
+        {F2I, F2L, 0,   F2D},
+        {D2I, D2L, D2F, 0  }
+    };
+
+    private final ExpressionType expressionType;
+    private final Class<?> type;
+    private final String method;
+    private final char descriptor;
+    private final int category;
+    private final int slots;
+    private final int returnOpcode;
+
+    Primitive(ExpressionType expressionType,
+              Class<?> type,
+              String method,
+              char descriptor,
+              int category,
+              int slots,
+              int returnOpcode) {
+
+        this.expressionType = expressionType;
+        this.type           = type;
+        this.method         = method;
+        this.descriptor     = descriptor;
+        this.category       = category;
+        this.slots          = slots;
+        this.returnOpcode   = returnOpcode;
+    }
+
+    /**
+     * Returns the primitive type of the specified expression if it is a
+     * non-nullable numeric expression that implements the matching
+     * interface, otherwise {@code Optional.empty()}.
+     *
+     * @param expression  the expression
+     * @return            the primitive type or empty
+     */
+    static Optional<Primitive> of(Expression<?> expression) {
+        final ExpressionType expressionType = expression.expressionType();
+        return Stream.of(values())
+            .filter(p -> p.expressionType == expressionType)
+            .filter(p -> p.type.isInstance(expression))
+            .findFirst();
+    }
+
+    /**
+     * Returns the primitive type of the specified boxed constant or
+     * {@code Optional.empty()} if it is not a boxed numeric primitive.
+     *
+     * @param constant  the constant
+     * @return          the primitive type or empty
+     */
+    static Optional<Primitive> ofConstant(Object constant) {
+        if (constant instanceof Byte) {
+            return Optional.of(BYTE);
+        } else if (constant instanceof Short) {
+            return Optional.of(SHORT);
+        } else if (constant instanceof Integer) {
+            return Optional.of(INT);
+        } else if (constant instanceof Long) {
+            return Optional.of(LONG);
+        } else if (constant instanceof Float) {
+            return Optional.of(FLOAT);
+        } else if (constant instanceof Double) {
+            return Optional.of(DOUBLE);
+        } else {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Returns the type that two operands are converted to before a binary
+     * arithmetic operation, following the binary numeric promotion rules of
+     * the Java language.
+     *
+     * @param first   type of the first operand
+     * @param second  type of the second operand
+     * @return        the promoted type
+     */
+    static Primitive promote(Primitive first, Primitive second) {
+        final Primitive a = first.onStack();
+        final Primitive b = second.onStack();
+        return a.ordinal() >= b.ordinal() ? a : b;
+    }
+
+    /**
+     * Returns the type that values of this type have on the operand stack.
+     * Bytes and shorts are held as ints.
+     *
+     * @return  the computational type
+     */
+    Primitive onStack() {
+        return category == 0 ? INT : this;
+    }
+
+    /**
+     * Emits instructions that convert a value of this type on top of the
+     * stack to the specified type, following the casting rules of the Java
+     * language.
+     *
+     * @param code  the code to append to
+     * @param to    the target type
+     */
+    void convert(ClassFileWriter.Code code, Primitive to) {
+        if (this == to) {
+            return;
+        }
+
+        final int conversion = CONVERSIONS[category][to.category];
+        if (conversion != 0) {
+            code.op(conversion, to.slots - slots);
+        }
+
+        if (to == BYTE) {
+            code.op(I2B, 0);
+        } else if (to == SHORT && this != BYTE) {
+            code.op(I2S, 0);
+        }
+    }
+
+    String internalName() {
+        return type.getName().replace('.', '/');
+    }
+
+    String method() {
+        return method;
+    }
+
+    String methodDescriptor() {
+        return "(Ljava/lang/Object;)" + descriptor;
+    }
+
+    int category() {
+        return category;
+    }
+
+    int slots() {
+        return slots;
+    }
+
+    int returnOpcode() {
+        return returnOpcode;
+    }
+}
@@ -0,0 +1,8 @@
+/**
+ * Compiler that turns trees of the built-in expressions into generated
+ * classes that evaluate the whole tree in a single method.
+ *
+ * @author Per Minborg
+ * @since  3.1.6
+ */
+package com.speedment.runtime.compute.internal.compiler;
@@ -0,0 +1,143 @@
+/**
+ *
+ * Copyright (c) 2006-2018, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.compute.expression;
+
+import com.speedment.runtime.compute.ToDouble;
+import com.speedment.runtime.compute.ToInt;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Compares interpreted and compiled evaluation of the expression
+ * {@code LENGTH.asDouble().multiply(RENTAL_RATE).plus(1)} over 10 million
+ * entities.
+ * <p>
+ * Before measuring, a number of other expressions built from the same kind
+ * of nodes are evaluated so that the call sites of the interpreted nodes see
+ * several receiver types, as they would in an application that uses more
+ * than one expression.
+ * <p>
+ * Run using the {@link #main(String[])} method from the test class path.
+ *
+ * @author Per Minborg
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class ExpressionCompilerBenchmark {
+
+    private static final int ENTITIES = 10_000_000;
+
+    private static final ToInt<Film> LENGTH = Film::getLength;
+    private static final ToDouble<Film> RENTAL_RATE = Film::getRentalRate;
+    private static final ToInt<Film> RATING = Film::getRating;
+
+    private Film[] films;
+    private ToDouble<Film> interpreted;
+    private ToDouble<Film> compiled;
+
+    @Setup
+    public void setup() {
+        final Random random = new Random(42);
+        films = new Film[ENTITIES];
+        for (int i = 0; i < ENTITIES; i++) {
+            films[i] = new Film(
+                46 + random.nextInt(140),
+                0.99 + random.nextInt(5),
+                random.nextInt(5)
+            );
+        }
+
+        interpreted = LENGTH.asDouble().multiply(RENTAL_RATE).plus(1);
+        compiled = ExpressionCompiler.compile(interpreted);
+        if (!ExpressionCompiler.isCompiled(compiled)) {
+            throw new IllegalStateException("The expression was not compiled");
+        }
+
+        Stream.<ToDouble<Film>>of(
+            RATING.asDouble().multiply(RENTAL_RATE).plus(2),
+            RENTAL_RATE.multiply(RENTAL_RATE).plus(3),
+            LENGTH.asDouble().multiply(RATING.asDouble()).plus(4),
+            RENTAL_RATE.negate().multiply(LENGTH.asDouble()).plus(5)
+        ).forEach(expression -> {
+            for (int i = 0; i < 100_000; i++) {
+                expression.applyAsDouble(films[i]);
+            }
+        });
+    }
+
+    @Benchmark
+    public double interpreted() {
+        return sum(interpreted);
+    }
+
+    @Benchmark
+    public double compiled() {
+        return sum(compiled);
+    }
+
+    private double sum(ToDouble<Film> expression) {
+        double sum = 0;
+        for (final Film film : films) {
+            sum += expression.applyAsDouble(film);
+        }
+        return sum;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        final Options options = new OptionsBuilder()
+            .include(ExpressionCompilerBenchmark.class.getSimpleName())
+            .build();
+
+        new Runner(options).run();
+    }
+
+    private static final class Film {
+
+        private final int length;
+        private final double rentalRate;
+        private final int rating;
+
+        private Film(int length, double rentalRate, int rating) {
+            this.length     = length;
+            this.rentalRate = rentalRate;
+            this.rating     = rating;
+        }
+
+        private int getLength() {
+            return length;
+        }
+
+        private double getRentalRate() {
+            return rentalRate;
+        }
+
+        private int getRating() {
+            return rating;
+        }
+    }
+}
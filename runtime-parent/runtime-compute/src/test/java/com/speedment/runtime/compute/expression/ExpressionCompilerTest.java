@@ -0,0 +1,268 @@
+/**
+ *
+ * Copyright (c) 2006-2018, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.compute.expression;
+
+import com.speedment.runtime.compute.ToByte;
+import com.speedment.runtime.compute.ToDouble;
+import com.speedment.runtime.compute.ToFloat;
+import com.speedment.runtime.compute.ToInt;
+import com.speedment.runtime.compute.ToLong;
+import com.speedment.runtime.compute.ToShort;
+import org.junit.Test;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static java.util.stream.Collectors.toList;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Per Minborg
+ */
+public class ExpressionCompilerTest {
+
+    private static final ToByte<Numbers> BYTE = n -> n.b;
+    private static final ToShort<Numbers> SHORT = n -> n.s;
+    private static final ToInt<Numbers> INT = n -> n.i;
+    private static final ToLong<Numbers> LONG = n -> n.l;
+    private static final ToFloat<Numbers> FLOAT = n -> n.f;
+    private static final ToDouble<Numbers> DOUBLE = n -> n.d;
+
+    private static final List<Expression<Numbers>> LEAVES
+        = Arrays.asList(BYTE, SHORT, INT, LONG, FLOAT, DOUBLE);
+
+    private static final List<String> OPERATIONS = Arrays.asList(
+        "plus", "minus", "multiply", "divide", "pow",
+        "abs", "negate", "sign", "sqrt", "asInt", "asLong", "asDouble"
+    );
+
+    private static final Object[] CONSTANTS = {
+        (byte) -3, (byte) 7, -5, 0, 1_000_000, -7L, 3_000_000_000L, -2.5, 0.0, 1e10
+    };
+
+    private static final List<Numbers> NUMBERS = Arrays.asList(
+        new Numbers(0, 0, 0, 0, 0f, 0d),
+        new Numbers(1, 2, 3, 4, 5.5f, 6.25d),
+        new Numbers(-1, -2, -3, -4, -0f, -0d),
+        new Numbers(Byte.MIN_VALUE, Short.MIN_VALUE, Integer.MIN_VALUE, Long.MIN_VALUE, Float.NaN, Double.NaN),
+        new Numbers(Byte.MAX_VALUE, Short.MAX_VALUE, Integer.MAX_VALUE, Long.MAX_VALUE, Float.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY),
+        new Numbers(42, -1234, 123_456_789, -9_876_543_210L, Float.MIN_VALUE, -1e300),
+        new Numbers(-100, 30_000, -65_536, 1L << 40, 3e38f, 1e-300)
+    );
+
+    @Test
+    public void testSingleOperations() {
+        final List<Expression<Numbers>> expressions = derive(LEAVES);
+        int compiled = 0;
+        for (final Expression<Numbers> expression : expressions) {
+            if (assertEquivalent(expression)) {
+                compiled++;
+            }
+        }
+        assertTrue("Only " + compiled + " expressions were compiled", compiled > expressions.size() / 2);
+    }
+
+    @Test
+    public void testNestedOperations() {
+        final List<Expression<Numbers>> singles = derive(LEAVES);
+        final Random random = new Random(42);
+        for (int i = 0; i < 500; i++) {
+            final Expression<Numbers> first = singles.get(random.nextInt(singles.size()));
+            final List<Expression<Numbers>> nested = derive(singletonOf(first));
+            final Expression<Numbers> second = nested.get(random.nextInt(nested.size()));
+            assertEquivalent(second);
+        }
+    }
+
+    @Test
+    public void testCombinedExpression() {
+        final ToDouble<Numbers> expression = INT.asDouble()
+            .multiply(DOUBLE)
+            .plus(1)
+            .minus(LONG.negate().abs())
+            .divide(FLOAT.asDouble().plus(SHORT.asDouble().sqrt()));
+
+        final ToDouble<Numbers> compiled = ExpressionCompiler.compile(expression);
+        assertTrue(ExpressionCompiler.isCompiled(compiled));
+        assertFalse(ExpressionCompiler.isCompiled(expression));
+        assertEquals(ExpressionType.DOUBLE, compiled.expressionType());
+        NUMBERS.forEach(n -> assertEquals(
+            expression.applyAsDouble(n), compiled.applyAsDouble(n), 0d
+        ));
+        assertSame(compiled, ExpressionCompiler.compile(compiled));
+    }
+
+    @Test
+    public void testSharedLeaf() {
+        final ToLong<Numbers> expression = LONG.multiply(LONG).plus(LONG);
+        final ToLong<Numbers> compiled = ExpressionCompiler.compile(expression);
+        assertTrue(ExpressionCompiler.isCompiled(compiled));
+        NUMBERS.forEach(n -> assertEquals(expression.applyAsLong(n), compiled.applyAsLong(n)));
+    }
+
+    @Test
+    public void testNonInlinedNodeKeptAsLeaf() {
+        final ToDouble<Numbers> expression = INT.pow(3).plus(DOUBLE.map(d -> d * 2));
+        final ToDouble<Numbers> compiled = ExpressionCompiler.compile(expression);
+        assertTrue(ExpressionCompiler.isCompiled(compiled));
+        NUMBERS.forEach(n -> assertEquals(
+            expression.applyAsDouble(n), compiled.applyAsDouble(n), 0d
+        ));
+    }
+
+    @Test
+    public void testFallback() {
+        assertSame(DOUBLE, ExpressionCompiler.compile(DOUBLE));
+        final ToDouble<Numbers> pow = DOUBLE.pow(2);
+        assertSame(pow, ExpressionCompiler.compile(pow));
+        final ToDouble<Numbers> constant = ToDouble.constant(1);
+        assertEquals(1d, ExpressionCompiler.compile(constant).applyAsDouble(null), 0d);
+    }
+
+    /**
+     * Asserts that the compiled version of the expression gives the exact
+     * same results as the interpreted expression.
+     *
+     * @param expression  the expression to test
+     * @return            {@code true} if the expression was compiled
+     */
+    private static boolean assertEquivalent(Expression<Numbers> expression) {
+        final Expression<Numbers> compiled = compile(expression);
+        assertEquals(expression.expressionType(), compiled.expressionType());
+        for (final Numbers n : NUMBERS) {
+            assertEquals(n + ": " + expression, evaluate(expression, n), evaluate(compiled, n));
+        }
+        return ExpressionCompiler.isCompiled(compiled);
+    }
+
+    /**
+     * Creates all expressions that can be formed by applying one of the
+     * {@link #OPERATIONS} to each of the specified expressions, using either
+     * a leaf or a constant as second operand.
+     *
+     * @param expressions  the expressions to derive from
+     * @return             the derived expressions
+     */
+    private static List<Expression<Numbers>> derive(List<Expression<Numbers>> expressions) {
+        final List<Expression<Numbers>> result = new ArrayList<>();
+        for (final Expression<Numbers> expression : expressions) {
+            if (compile(expression) == null) {
+                continue;
+            }
+            for (final Method method : expression.getClass().getMethods()) {
+                if (!OPERATIONS.contains(method.getName())
+                ||  Modifier.isStatic(method.getModifiers())
+                ||  !Expression.class.isAssignableFrom(method.getReturnType())) {
+                    continue;
+                }
+                if (method.getParameterCount() == 0) {
+                    invoke(method, expression).ifPresent(result::add);
+                } else if (method.getParameterCount() == 1) {
+                    final Class<?> parameter = method.getParameterTypes()[0];
+                    Stream.concat(LEAVES.stream(), Stream.of(CONSTANTS))
+                        .filter(arg -> isAssignable(parameter, arg))
+                        .forEach(arg -> invoke(method, expression, arg).ifPresent(result::add));
+                }
+            }
+        }
+        return result;
+    }
+
+    private static List<Expression<Numbers>> singletonOf(Expression<Numbers> expression) {
+        return Stream.of(expression).collect(toList());
+    }
+
+    private static boolean isAssignable(Class<?> parameter, Object arg) {
+        if (parameter.isPrimitive()) {
+            return (parameter == byte.class && arg instanceof Byte)
+                || (parameter == int.class && arg instanceof Integer)
+                || (parameter == long.class && arg instanceof Long)
+                || (parameter == double.class && arg instanceof Double);
+        }
+        return parameter.isInstance(arg);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static java.util.Optional<Expression<Numbers>> invoke(Method method, Object target, Object... args) {
+        try {
+            method.setAccessible(true);
+            return java.util.Optional.of((Expression<Numbers>) method.invoke(target, args));
+        } catch (final ReflectiveOperationException ex) {
+            throw new RuntimeException(ex);
+        }
+    }
+
+    /**
+     * Returns the compiled expression, or {@code null} if the expression is
+     * not of a type that can be compiled.
+     */
+    @SuppressWarnings("unchecked")
+    private static Expression<Numbers> compile(Expression<Numbers> expression) {
+        switch (expression.expressionType()) {
+            case BYTE:   return ExpressionCompiler.compile((ToByte<Numbers>) expression);
+            case SHORT:  return ExpressionCompiler.compile((ToShort<Numbers>) expression);
+            case INT:    return ExpressionCompiler.compile((ToInt<Numbers>) expression);
+            case LONG:   return ExpressionCompiler.compile((ToLong<Numbers>) expression);
+            case FLOAT:  return ExpressionCompiler.compile((ToFloat<Numbers>) expression);
+            case DOUBLE: return ExpressionCompiler.compile((ToDouble<Numbers>) expression);
+            default:     return null;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Object evaluate(Expression<Numbers> expression, Numbers n) {
+        switch (expression.expressionType()) {
+            case BYTE:   return ((ToByte<Numbers>) expression).applyAsByte(n);
+            case SHORT:  return ((ToShort<Numbers>) expression).applyAsShort(n);
+            case INT:    return ((ToInt<Numbers>) expression).applyAsInt(n);
+            case LONG:   return ((ToLong<Numbers>) expression).applyAsLong(n);
+            case FLOAT:  return ((ToFloat<Numbers>) expression).applyAsFloat(n);
+            case DOUBLE: return ((ToDouble<Numbers>) expression).applyAsDouble(n);
+            default:     throw new IllegalArgumentException(expression.expressionType().name());
+        }
+    }
+
+    private static final class Numbers {
+
+        private final byte b;
+        private final short s;
+        private final int i;
+        private final long l;
+        private final float f;
+        private final double d;
+
+        private Numbers(int b, int s, int i, long l, float f, double d) {
+            this.b = (byte) b;
+            this.s = (short) s;
+            this.i = i;
+            this.l = l;
+            this.f = f;
+            this.d = d;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Numbers{b=%d, s=%d, i=%d, l=%d, f=%s, d=%s}", b, s, i, l, f, d);
+        }
+    }
+}
@@ -31,6 +31,7 @@ import java.util.Set;
 import java.util.function.Predicate;
 import java.util.stream.Stream;
 
+import com.speedment.runtime.connector.mysql.internal.MySqlExpressionView;
 import com.speedment.runtime.connector.mysql.internal.MySqlSpeedmentPredicateView;
 import static java.util.stream.Collectors.collectingAndThen;
 import static java.util.stream.Collectors.toSet;
@@ -44,6 +45,7 @@ public final class MariaDbDbmsType extends AbstractDbmsType {
 
     private final MariaDbNamingConvention namingConvention;
     private final MariaDbConnectionUrlGenerator connectionUrlGenerator;
+    private final MySqlExpressionView expressionView;
 
     @Inject
     private MySqlDbmsMetadataHandler metadataHandler;
@@ -55,6 +57,7 @@ public final class MariaDbDbmsType extends AbstractDbmsType {
     private MariaDbDbmsType() {
         namingConvention = new MariaDbNamingConvention();
         connectionUrlGenerator = new MariaDbConnectionUrlGenerator();
+        expressionView = new MySqlExpressionView();
     }
 
     @Override
@@ -112,6 +115,11 @@ public final class MariaDbDbmsType extends AbstractDbmsType {
         return fieldPredicateView;
     }
 
+    @Override
+    public ExpressionView getExpressionView() {
+        return expressionView;
+    }
+
     @Override
     public String getInitialQuery() {
         return "select version() as `MariaDB version`";
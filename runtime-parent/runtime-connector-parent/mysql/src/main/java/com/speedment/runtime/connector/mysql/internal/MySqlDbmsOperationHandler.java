@@ -16,6 +16,8 @@
  */
 package com.speedment.runtime.connector.mysql.internal;
 
+import com.speedment.common.injector.annotation.Config;
+import com.speedment.runtime.core.db.FetchHints;
 import com.speedment.runtime.core.internal.db.AbstractDbmsOperationHandler;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
@@ -27,9 +29,36 @@ import java.sql.SQLException;
  */
 public final class MySqlDbmsOperationHandler extends AbstractDbmsOperationHandler {
 
+    @Config(name = "db.mysql.useCursorFetch", value = "false")
+    private boolean useCursorFetch;
+
+    /**
+     * Returns if positive fetch sizes shall be read using a server side cursor.
+     * This requires {@code useCursorFetch=true} in the connection URL, which
+     * is added by {@link MySqlDbmsType} based on this value.
+     *
+     * @return if cursor fetch is used
+     */
+    boolean isUseCursorFetch() {
+        return useCursorFetch;
+    }
+
     @Override
     public void configureSelect(PreparedStatement statement) throws SQLException {
         statement.setFetchSize(Integer.MIN_VALUE); // Enable streaming ResultSet
     }
 
+    @Override
+    public void configureSelect(PreparedStatement statement, FetchHints fetchHints) throws SQLException {
+        if (useCursorFetch && fetchHints.getFetchSize().isPresent()) {
+            // Read in batches using a server side cursor
+            statement.setFetchSize(fetchHints.getFetchSize().getAsInt());
+        } else {
+            // Without useCursorFetch=true in the connection URL, the driver
+            // would read the entire result into memory for a positive fetch
+            // size so the rows are streamed instead
+            configureSelect(statement);
+        }
+    }
+
 }
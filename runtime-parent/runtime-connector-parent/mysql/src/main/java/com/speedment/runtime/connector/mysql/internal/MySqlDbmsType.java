@@ -45,6 +45,7 @@ public final class MySqlDbmsType extends AbstractDbmsType {
 
     private final MySqlNamingConvention namingConvention;
     private final MySqlConnectionUrlGenerator connectionUrlGenerator;
+    private final MySqlExpressionView expressionView;
 
     @Inject private MySqlDbmsMetadataHandler metadataHandler;
     @Inject private MySqlDbmsOperationHandler operationHandler;
@@ -53,6 +54,7 @@ public final class MySqlDbmsType extends AbstractDbmsType {
     private MySqlDbmsType() {
         namingConvention = new MySqlNamingConvention();
         connectionUrlGenerator = new MySqlConnectionUrlGenerator();
+        expressionView = new MySqlExpressionView();
     }
 
     @Override
@@ -116,6 +118,11 @@ public final class MySqlDbmsType extends AbstractDbmsType {
         return fieldPredicateView;
     }
 
+    @Override
+    public ExpressionView getExpressionView() {
+        return expressionView;
+    }
+
     @Override
     public String getInitialQuery() {
         return "select version() as `MySQL version`";
@@ -184,7 +191,16 @@ public final class MySqlDbmsType extends AbstractDbmsType {
 
             result/*.append("/").append(dbms.getName())*/ // MySQL treats this as default schema name
                 .append("?useUnicode=true&characterEncoding=UTF-8")
-                .append("&useServerPrepStmts=true")
+                .append("&useServerPrepStmts=true");
+
+            if (operationHandler.isUseCursorFetch()) {
+                // Makes a positive fetch size read the rows in batches using
+                // a server side cursor. It changes how Connector/J executes
+                // every query so it is only added to the URL on request
+                result.append("&useCursorFetch=true");
+            }
+
+            result
                 .append("&zeroDateTimeBehavior=")
                 .append(driverVersion() >= 8 ? "CONVERT_TO_NULL" : "convertToNull")
                 .append("&nullNamePatternMatchesAll=true") // Fix #190
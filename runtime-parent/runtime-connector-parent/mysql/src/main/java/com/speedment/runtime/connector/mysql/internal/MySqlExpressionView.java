@@ -0,0 +1,37 @@
+/**
+ *
+ * Copyright (c) 2006-2018, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.connector.mysql.internal;
+
+import com.speedment.runtime.core.db.ExpressionView;
+import com.speedment.runtime.core.internal.manager.sql.ExpressionViewImpl;
+
+/**
+ * {@link ExpressionView} for MySQL and MariaDB. Casts to {@code DOUBLE} are
+ * only supported from MySQL 8.0.17 so values are converted by adding a
+ * floating point zero instead.
+ *
+ * @author Per Minborg
+ * @since 3.1.6
+ */
+public final class MySqlExpressionView extends ExpressionViewImpl {
+
+    @Override
+    protected String castToDouble(String sql) {
+        return "(" + sql + " + 0E0)";
+    }
+
+}
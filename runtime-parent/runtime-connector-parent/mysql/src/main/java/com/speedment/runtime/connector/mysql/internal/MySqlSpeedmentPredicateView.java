@@ -23,6 +23,7 @@ import com.speedment.runtime.core.internal.manager.sql.AbstractFieldPredicateVie
 import com.speedment.runtime.field.predicate.FieldPredicate;
 import com.speedment.runtime.field.predicate.Inclusion;
 
+import java.math.BigInteger;
 import java.util.Set;
 
 import static com.speedment.runtime.field.util.PredicateOperandUtil.*;
@@ -41,6 +42,39 @@ implements FieldPredicateView {
     private String binaryCollationName;
     @Config(name = "db.mysql.collationName", value = "utf8_general_ci")
     private String collationName;
+    @Config(name = "db.mysql.inListThreshold", value = "1000")
+    private int inListThreshold;
+
+    ////////////////////////////////////////////////////////////////////////////
+    //                             Large IN Lists                             //
+    ////////////////////////////////////////////////////////////////////////////
+
+    @Override
+    protected int inListThreshold() {
+        return inListThreshold;
+    }
+
+    @Override
+    protected SqlPredicateFragment largeInHelper(
+            String cn,
+            Class<?> dbType,
+            FieldPredicate<?> model,
+            Set<?> set,
+            boolean negated) {
+        // Integral values can safely be inlined. This avoids the limit on
+        // the number of parameters in a prepared statement. Inlined values
+        // bypass the type mapper so the field must be identity mapped.
+        if (isIntegral(dbType)
+            && isIdentityMapped(model)
+            && set.stream().allMatch(dbType::isInstance)) {
+            return of("(" + cn + " IN (" +
+                set.stream().map(Object::toString).collect(joining(",")) +
+                "))", negated
+            );
+        } else {
+            return super.largeInHelper(cn, dbType, model, set, negated);
+        }
+    }
 
     ////////////////////////////////////////////////////////////////////////////
     //                         String Operation Helpers                       //
@@ -221,6 +255,8 @@ implements FieldPredicateView {
             return negated
                 ? notEqualHelper(cn, String.class, arg)
                 : equalHelper(cn, String.class, arg);
+        } else if (set.size() > inListThreshold) {
+            return chunkedInHelper(cn, set, inListThreshold, " COLLATE " + binaryCollationName, negated);
         }
 
         return of("(" + cn + " IN (" +
@@ -282,6 +318,14 @@ implements FieldPredicateView {
         }
     }
 
+    private static boolean isIntegral(Class<?> dbType) {
+        return dbType == Integer.class
+            || dbType == Long.class
+            || dbType == Short.class
+            || dbType == Byte.class
+            || dbType == BigInteger.class;
+    }
+
     private String lessOrEqualString(String cn) {
         return compare(cn, "<= ?", binaryCollationName);
     }
@@ -41,7 +41,11 @@ import static java.util.stream.Collectors.toSet;
  */
 public final class PostgresDbmsType extends AbstractDbmsType {
 
-    private final static FieldPredicateView PREDICATE_VIEW = new PostgresSpeedmentPredicateView();
+    // 40P01 is deadlock_detected
+    private final static Set<String> RETRYABLE_SQL_STATES = Stream.concat(
+        DEFAULT_RETRYABLE_SQL_STATES.stream(),
+        Stream.of("40P01")
+    ).collect(collectingAndThen(toSet(), Collections::unmodifiableSet));
 
     private final PostgresNamingConvention namingConvention;
     private final PostgresConnectionUrlGenerator connectionUrlGenerator;
@@ -50,6 +54,8 @@ public final class PostgresDbmsType extends AbstractDbmsType {
     PostgresDbmsMetadataHandler metadataHandler;
     private @Inject
     PostgresDbmsOperationHandler operationHandler;
+    private @Inject
+    PostgresSpeedmentPredicateView fieldPredicateView;
 
     private PostgresDbmsType() {
         namingConvention = new PostgresNamingConvention();
@@ -108,7 +114,7 @@ public final class PostgresDbmsType extends AbstractDbmsType {
 
     @Override
     public FieldPredicateView getFieldPredicateView() {
-        return PREDICATE_VIEW;
+        return fieldPredicateView;
     }
 
     @Override
@@ -165,6 +171,11 @@ public final class PostgresDbmsType extends AbstractDbmsType {
         return SortByNullOrderInsertion.POST;
     }
 
+    @Override
+    public Set<String> getRetryableSqlStates() {
+        return RETRYABLE_SQL_STATES;
+    }
+
     private final static class PostgresConnectionUrlGenerator implements ConnectionUrlGenerator {
 
         @Override
@@ -16,11 +16,19 @@
  */
 package com.speedment.runtime.connector.postgres.internal;
 
+import com.speedment.common.injector.annotation.Config;
 import com.speedment.runtime.core.db.FieldPredicateView;
+import com.speedment.runtime.core.db.SqlArrayParameter;
 import com.speedment.runtime.core.db.SqlPredicateFragment;
 import com.speedment.runtime.core.internal.manager.sql.AbstractFieldPredicateView;
 import com.speedment.runtime.field.predicate.FieldPredicate;
 import com.speedment.runtime.field.predicate.Inclusion;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
 import static com.speedment.runtime.field.util.PredicateOperandUtil.getFirstOperandAsRaw;
 import static com.speedment.runtime.field.util.PredicateOperandUtil.getInclusionOperand;
 import static com.speedment.runtime.field.util.PredicateOperandUtil.getSecondOperand;
@@ -35,6 +43,24 @@ public class PostgresSpeedmentPredicateView extends AbstractFieldPredicateView i
 
     private static final String BYTEA_CAST = "::bytea";
 
+    // The PostgreSQL element type names of the arrays used for large IN lists
+    private static final Map<Class<?>, String> ARRAY_TYPE_NAMES;
+
+    static {
+        final Map<Class<?>, String> typeNames = new HashMap<>();
+        typeNames.put(Short.class, "int2");
+        typeNames.put(Integer.class, "int4");
+        typeNames.put(Long.class, "int8");
+        typeNames.put(Float.class, "float4");
+        typeNames.put(Double.class, "float8");
+        typeNames.put(String.class, "text");
+        ARRAY_TYPE_NAMES = Collections.unmodifiableMap(typeNames);
+    }
+
+    // Larger sets are bound as a single array parameter
+    @Config(name = "db.postgres.inListThreshold", value = "100")
+    private int inListThreshold;
+
     // Info from:
     // http://stackoverflow.com/questions/23320945/postgresql-select-if-string-contains
     // We cannot use collation for PostgreSQL. See https://github.com/speedment/speedment/issues/401    
@@ -152,6 +178,32 @@ public class PostgresSpeedmentPredicateView extends AbstractFieldPredicateView i
             return super.notBetween(cn, dbType, model);
         }
     }
+
+    @Override
+    protected int inListThreshold() {
+        return inListThreshold;
+    }
+
+    @Override
+    protected SqlPredicateFragment largeInHelper(
+        final String cn,
+        final Class<?> dbType,
+        final FieldPredicate<?> model,
+        final Set<?> set,
+        final boolean negated
+    ) {
+        // The array is passed to the database as it is, so the elements must
+        // already have the database type of the column
+        final String typeName = ARRAY_TYPE_NAMES.get(dbType);
+        if (typeName != null
+            && isIdentityMapped(model)
+            && set.stream().allMatch(dbType::isInstance)) {
+            return of("(" + cn + " = ANY(?))", negated)
+                .add(SqlArrayParameter.of(typeName, set.toArray()));
+        } else {
+            return super.largeInHelper(cn, dbType, model, set, negated);
+        }
+    }
 //
 //    // TODO: Maybe override "equal", "between" and "in" as well?
 //    ////////////////////////////////////////////////////////////////////////////
@@ -18,6 +18,7 @@ package com.speedment.runtime.core.component;
 
 import com.speedment.common.injector.annotation.InjectKey;
 import com.speedment.runtime.config.identifier.TableIdentifier;
+import com.speedment.runtime.core.db.FetchHints;
 import com.speedment.runtime.core.stream.parallel.ParallelStrategy;
 import com.speedment.runtime.field.trait.HasComparableOperators;
 
@@ -59,6 +60,27 @@ public interface StreamSupplierComponent {
      */
     <ENTITY> Stream<ENTITY> stream(TableIdentifier<ENTITY> tableIdentifier, ParallelStrategy strategy);
 
+    /**
+     * Basic stream over all entities where rows are fetched according to the
+     * given {@link FetchHints}. Stream suppliers that do not read from a
+     * database may ignore the hints.
+     *
+     * @param <ENTITY>        entity type
+     * @param tableIdentifier the identifier to use
+     * @param strategy        decorates the stream before building it
+     * @param fetchHints      hints on how rows shall be fetched
+     * @return                a stream for the given entity class
+     *
+     * @since 3.1.6
+     */
+    default <ENTITY> Stream<ENTITY> stream(
+            TableIdentifier<ENTITY> tableIdentifier,
+            ParallelStrategy strategy,
+            FetchHints fetchHints) {
+
+        return stream(tableIdentifier, strategy);
+    }
+
     /**
      * Finds a particular entity in the source where the specified field has 
      * the specified value. This is a form of key-value lookup than can 
@@ -0,0 +1,139 @@
+/**
+ *
+ * Copyright (c) 2006-2018, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.component.cache;
+
+import com.speedment.runtime.config.identifier.TableIdentifier;
+import com.speedment.runtime.field.Field;
+
+import java.util.Optional;
+
+/**
+ * A size-bounded cache of the entities of a single table keyed by the value
+ * of the primary key of the table. Instances are created using
+ * {@link EntityCacheComponent#enable(TableIdentifier, EntityCacheSettings)}.
+ * <p>
+ * All methods are thread safe.
+ *
+ * @param <ENTITY> entity type
+ *
+ * @author Per Minborg
+ * @since 3.1.6
+ */
+public interface EntityCache<ENTITY> {
+
+    /**
+     * Returns the table that entities are cached from.
+     *
+     * @return the table that entities are cached from
+     */
+    TableIdentifier<ENTITY> getTableIdentifier();
+
+    /**
+     * Returns the primary key field that entities are keyed by.
+     *
+     * @return the primary key field
+     */
+    Field<ENTITY> getKeyField();
+
+    /**
+     * Returns the settings of this cache.
+     *
+     * @return the settings of this cache
+     */
+    EntityCacheSettings getSettings();
+
+    /**
+     * Returns the cached entity with the given key or
+     * {@code Optional.empty()} if no such entity is cached or if it has
+     * expired. The key is the Java value of the {@link #getKeyField() key
+     * field}.
+     *
+     * @param key  the primary key value
+     * @return     the cached entity with the given key
+     */
+    Optional<ENTITY> get(Object key);
+
+    /**
+     * Stores the given entity in the cache, replacing any entity with the
+     * same key. If the cache is full, an entity is evicted according to the
+     * {@link EvictionPolicy} of the cache.
+     *
+     * @param entity  the entity to store
+     */
+    void put(ENTITY entity);
+
+    /**
+     * Returns the current invalidation generation of the given key. The
+     * generation changes every time the key is invalidated, but may also
+     * change when other keys are invalidated. It can be passed to
+     * {@link #putIfNotInvalidated(Object, long)} to store an entity that was
+     * read from the database only if the key has not been invalidated while
+     * the entity was read.
+     *
+     * @param key  the primary key value
+     * @return     the current invalidation generation of the key
+     */
+    long generation(Object key);
+
+    /**
+     * Stores the given entity in the cache like {@link #put(Object)}, but
+     * only if its key has not been invalidated since the given generation was
+     * obtained using {@link #generation(Object)}. This prevents an entity that
+     * was read before a concurrent update or removal from being cached after
+     * the update or removal has invalidated the key.
+     *
+     * @param entity      the entity to store
+     * @param generation  the generation of the key before the entity was read
+     * @return            {@code true} if the entity was stored
+     */
+    boolean putIfNotInvalidated(ENTITY entity, long generation);
+
+    /**
+     * Removes the entity with the same key as the given entity, if any.
+     *
+     * @param entity  the entity to invalidate
+     */
+    void invalidate(ENTITY entity);
+
+    /**
+     * Removes the entity with the given key, if any.
+     *
+     * @param key  the primary key value
+     */
+    void invalidateKey(Object key);
+
+    /**
+     * Removes all entities from the cache.
+     */
+    void invalidateAll();
+
+    /**
+     * Returns the number of entities currently in the cache, including
+     * entities that have expired but not yet been removed.
+     *
+     * @return the number of entities in the cache
+     */
+    int size();
+
+    /**
+     * Returns the metrics of this cache.
+     *
+     * @return the metrics of this cache
+     */
+    EntityCacheMetrics metrics();
+
+}
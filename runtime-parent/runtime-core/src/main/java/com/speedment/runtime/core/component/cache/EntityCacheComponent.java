@@ -0,0 +1,84 @@
+/**
+ *
+ * Copyright (c) 2006-2018, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.component.cache;
+
+import com.speedment.common.injector.annotation.InjectKey;
+import com.speedment.runtime.config.identifier.TableIdentifier;
+
+import java.util.Optional;
+
+/**
+ * Component that holds the read-through {@link EntityCache entity caches} of
+ * the tables for which caching has been enabled. Caching is disabled for all
+ * tables by default.
+ * <p>
+ * If caching is enabled for a table, streams that filter on an equality on
+ * the primary key as their first operation, for example
+ * {@code films.stream().filter(Film.ID.equal(42)).findAny()}, are answered
+ * from the cache if the entity is present there. Otherwise the entity is read
+ * from the database and then stored in the cache. Persisting, updating or
+ * removing an entity through the managers of this node invalidates the cached
+ * entity with the same primary key. Changes made by other nodes or directly
+ * in the database are only seen once a cached entity has expired or has been
+ * evicted.
+ * <p>
+ * Streams that are part of a transaction neither read from nor populate the
+ * cache.
+ * <p>
+ * Cached entities are shared between all readers and must not be modified.
+ * An entity that is modified and then updated is invalidated in the cache.
+ *
+ * @author Per Minborg
+ * @since 3.1.6
+ */
+@InjectKey(EntityCacheComponent.class)
+public interface EntityCacheComponent {
+
+    /**
+     * Enables caching of the entities of the given table using the given
+     * settings. If caching is already enabled for the table, the previous
+     * cache is discarded.
+     *
+     * @param <ENTITY>  entity type
+     * @param tableId   the table to cache entities from
+     * @param settings  the settings of the cache
+     * @return          the new cache
+     * @throws IllegalArgumentException if there is no manager for the table
+     *         or if the table does not have exactly one primary key column
+     */
+    <ENTITY> EntityCache<ENTITY> enable(TableIdentifier<ENTITY> tableId, EntityCacheSettings settings);
+
+    /**
+     * Disables caching of the entities of the given table and discards any
+     * cached entities. If caching is not enabled for the table, this method
+     * has no effect.
+     *
+     * @param tableId  the table to stop caching entities from
+     */
+    void disable(TableIdentifier<?> tableId);
+
+    /**
+     * Returns the cache of the given table or {@code Optional.empty()} if
+     * caching is not enabled for the table.
+     *
+     * @param <ENTITY>  entity type
+     * @param tableId   the table
+     * @return          the cache of the given table
+     */
+    <ENTITY> Optional<EntityCache<ENTITY>> get(TableIdentifier<ENTITY> tableId);
+
+}
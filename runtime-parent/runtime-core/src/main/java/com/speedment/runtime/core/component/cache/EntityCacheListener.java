@@ -0,0 +1,60 @@
+/**
+ *
+ * Copyright (c) 2006-2018, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.component.cache;
+
+import com.speedment.runtime.config.identifier.TableIdentifier;
+
+/**
+ * Listener that is notified of the events of an {@link EntityCache}, for
+ * example to forward them to an external metrics system. Listeners are
+ * invoked by the thread that caused the event while the cache is locked and
+ * must therefore be fast and must not access the cache.
+ *
+ * @author Per Minborg
+ * @since 3.1.6
+ */
+public interface EntityCacheListener {
+
+    /**
+     * Called when a lookup was answered from the cache.
+     *
+     * @param tableId  the table of the cache
+     */
+    default void onHit(TableIdentifier<?> tableId) {}
+
+    /**
+     * Called when a lookup could not be answered from the cache.
+     *
+     * @param tableId  the table of the cache
+     */
+    default void onMiss(TableIdentifier<?> tableId) {}
+
+    /**
+     * Called when an entity was evicted because the cache was full.
+     *
+     * @param tableId  the table of the cache
+     */
+    default void onEviction(TableIdentifier<?> tableId) {}
+
+    /**
+     * Called when an entity was removed because its time to live had elapsed.
+     *
+     * @param tableId  the table of the cache
+     */
+    default void onExpiration(TableIdentifier<?> tableId) {}
+
+}
@@ -0,0 +1,73 @@
+/**
+ *
+ * Copyright (c) 2006-2018, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.component.cache;
+
+/**
+ * Runtime metrics of an {@link EntityCache}. All counters are accumulated
+ * from the time the cache was created and are safe to read from any thread.
+ * Values read from different methods are not guaranteed to be consistent with
+ * each other.
+ *
+ * @author Per Minborg
+ * @since 3.1.6
+ */
+public interface EntityCacheMetrics {
+
+    /**
+     * Returns the total number of lookups that were answered from the cache.
+     *
+     * @return the total number of hits
+     */
+    long hitCount();
+
+    /**
+     * Returns the total number of lookups that could not be answered from the
+     * cache, including lookups of expired entities.
+     *
+     * @return the total number of misses
+     */
+    long missCount();
+
+    /**
+     * Returns the total number of entities that have been evicted because the
+     * cache was full.
+     *
+     * @return the total number of evictions
+     */
+    long evictionCount();
+
+    /**
+     * Returns the total number of entities that have been removed because
+     * their time to live had elapsed.
+     *
+     * @return the total number of expirations
+     */
+    long expirationCount();
+
+    /**
+     * Returns the ratio of lookups that were answered from the cache, or
+     * {@code 0} if no lookups have been made.
+     *
+     * @return the hit ratio between {@code 0} and {@code 1}
+     */
+    default double hitRatio() {
+        final long hits = hitCount();
+        final long total = hits + missCount();
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+}
@@ -0,0 +1,112 @@
+/**
+ *
+ * Copyright (c) 2006-2018, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.component.cache;
+
+import com.speedment.runtime.core.internal.component.cache.EntityCacheSettingsImpl;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Immutable settings of an {@link EntityCache}.
+ * <p>
+ * Example:
+ * <pre>{@code
+ *     app.getOrThrow(EntityCacheComponent.class).enable(
+ *         CountryManager.IDENTIFIER,
+ *         EntityCacheSettings.of(10_000)
+ *             .withTimeToLive(Duration.ofMinutes(5))
+ *             .withEvictionPolicy(EvictionPolicy.LEAST_FREQUENTLY_USED)
+ *     );
+ * }</pre>
+ *
+ * @author Per Minborg
+ * @since 3.1.6
+ */
+public interface EntityCacheSettings {
+
+    /**
+     * Returns settings for a cache that holds at most the given number of
+     * entities, evicts the least recently used entity when full and where
+     * entities never expire.
+     *
+     * @param maxSize  the maximum number of entities
+     * @return         new settings
+     * @throws IllegalArgumentException if {@code maxSize} is not positive
+     */
+    static EntityCacheSettings of(int maxSize) {
+        return EntityCacheSettingsImpl.of(maxSize);
+    }
+
+    /**
+     * Returns the maximum number of entities in the cache.
+     *
+     * @return the maximum number of entities
+     */
+    int getMaxSize();
+
+    /**
+     * Returns the time an entity may stay in the cache after it was stored or
+     * {@code Optional.empty()} if entities never expire.
+     *
+     * @return the time to live of entities
+     */
+    Optional<Duration> getTimeToLive();
+
+    /**
+     * Returns the policy used to select the entity to evict when the cache
+     * is full.
+     *
+     * @return the eviction policy
+     */
+    EvictionPolicy getEvictionPolicy();
+
+    /**
+     * Returns the listener that is notified of cache events.
+     *
+     * @return the listener
+     */
+    EntityCacheListener getListener();
+
+    /**
+     * Returns new settings that are equal to these except that entities
+     * expire the given time after they were stored.
+     *
+     * @param timeToLive  the time to live of entities
+     * @return            new settings
+     * @throws IllegalArgumentException if {@code timeToLive} is not positive
+     */
+    EntityCacheSettings withTimeToLive(Duration timeToLive);
+
+    /**
+     * Returns new settings that are equal to these except for the eviction
+     * policy.
+     *
+     * @param evictionPolicy  the eviction policy
+     * @return                new settings
+     */
+    EntityCacheSettings withEvictionPolicy(EvictionPolicy evictionPolicy);
+
+    /**
+     * Returns new settings that are equal to these except for the listener.
+     *
+     * @param listener  the listener to notify of cache events
+     * @return          new settings
+     */
+    EntityCacheSettings withListener(EntityCacheListener listener);
+
+}
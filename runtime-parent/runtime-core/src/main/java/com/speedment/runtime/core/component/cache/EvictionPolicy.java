@@ -0,0 +1,39 @@
+/**
+ *
+ * Copyright (c) 2006-2018, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.component.cache;
+
+/**
+ * The policy used to select the entity to evict when an {@link EntityCache}
+ * is full.
+ *
+ * @author Per Minborg
+ * @since 3.1.6
+ */
+public enum EvictionPolicy {
+
+    /**
+     * Evicts the entity that was least recently read or stored.
+     */
+    LEAST_RECENTLY_USED,
+
+    /**
+     * Evicts the entity that has been read the least number of times since it
+     * was stored. Ties are broken by evicting the least recently used entity.
+     */
+    LEAST_FREQUENTLY_USED
+
+}
@@ -0,0 +1,9 @@
+/**
+ * Classes related to the read-through entity cache, such as
+ * {@link EntityCacheComponent} and {@link EntityCache} are located in this
+ * package.
+ * <p>
+ * This package is part of the API. Modifications to classes here should only
+ * (if ever) be done in major releases.
+ */
+package com.speedment.runtime.core.component.cache;
@@ -118,5 +118,59 @@ public interface ConnectionPoolComponent {
      */
     long getMaxAge();
 
+    /**
+     * Returns the maximum number of physical connections, leased or idle, that
+     * this pool will hold for each distinct connection URI, user and
+     * password. If the limit is reached, threads asking for a connection will
+     * wait in FIFO order until a connection is returned or the
+     * {@link #getAcquireTimeout() acquire timeout} elapses. A value of zero or
+     * less means that the pool is unbounded.
+     *
+     * @return the maximum number of connections per pool, or zero if unbounded
+     * @since 3.1.6
+     */
+    int getMaxSize();
+
+    /**
+     * Returns the maximum time in milliseconds that a thread will wait for a
+     * connection from a bounded pool before a
+     * {@link com.speedment.runtime.core.exception.SpeedmentException} is
+     * thrown.
+     *
+     * @return the acquire timeout in milliseconds
+     * @since 3.1.6
+     */
+    long getAcquireTimeout();
+
+    /**
+     * Returns the maximum time in milliseconds that a connection may be leased
+     * before it is reported as a potential leak together with the stack trace
+     * of the thread that leased it. A value of zero or less means that leak
+     * detection is disabled.
+     *
+     * @return the leak detection threshold in milliseconds, or zero if
+     * disabled
+     * @since 3.1.6
+     */
+    long getLeakDetectionThreshold();
+
+    /**
+     * Returns the maximum number of prepared statements that each pooled
+     * connection keeps in its statement cache. Closing a prepared statement
+     * that was obtained from a pooled connection returns it to the cache. A
+     * value of zero or less means that statements are not cached.
+     *
+     * @return the statement cache size per connection, or zero if disabled
+     * @since 3.1.6
+     */
+    int getStatementCacheSize();
+
+    /**
+     * Returns the {@link ConnectionPoolMetrics} for this pool.
+     *
+     * @return the metrics for this pool
+     * @since 3.1.6
+     */
+    ConnectionPoolMetrics metrics();
 
 }
@@ -0,0 +1,135 @@
+/**
+ *
+ * Copyright (c) 2006-2018, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.component.connectionpool;
+
+/**
+ * Runtime metrics of a {@link ConnectionPoolComponent}. All counters are
+ * accumulated from the time the pool was created and are safe to read from
+ * any thread. Values read from different methods are not guaranteed to be
+ * consistent with each other.
+ *
+ * @author Per Minborg
+ * @since 3.1.6
+ */
+public interface ConnectionPoolMetrics {
+
+    /**
+     * Returns the total number of connections that have been successfully
+     * leased from the pool.
+     *
+     * @return the total number of connections that have been leased
+     */
+    long acquireCount();
+
+    /**
+     * Returns the total number of lease attempts that failed because no
+     * connection became available within the configured acquire timeout.
+     *
+     * @return the total number of acquire timeouts
+     */
+    long timeoutCount();
+
+    /**
+     * Returns the accumulated time in nanoseconds that threads have spent
+     * waiting for a connection to become available in a bounded pool.
+     *
+     * @return the accumulated wait time in nanoseconds
+     */
+    long totalWaitTimeNanos();
+
+    /**
+     * Returns the longest time in nanoseconds that a single thread has spent
+     * waiting for a connection to become available in a bounded pool.
+     *
+     * @return the longest wait time in nanoseconds
+     */
+    long maxWaitTimeNanos();
+
+    /**
+     * Returns the inclusive upper limits in nanoseconds of the buckets in the
+     * {@link #acquireLatencyHistogram() acquire latency histogram}. The last
+     * bucket of the histogram has no upper limit and therefore the returned
+     * array has one element less than the histogram.
+     *
+     * @return the upper limits of the histogram buckets in nanoseconds
+     */
+    long[] acquireLatencyBucketLimitsNanos();
+
+    /**
+     * Returns a snapshot of the acquire latency histogram. Element {@code i}
+     * holds the number of leases that took at most
+     * {@code acquireLatencyBucketLimitsNanos()[i]} nanoseconds (and more than
+     * the previous limit) to complete. The last element holds the number of
+     * leases that took longer than the last limit.
+     *
+     * @return a snapshot of the acquire latency histogram
+     */
+    long[] acquireLatencyHistogram();
+
+    /**
+     * Returns the total number of physical connections that have been created
+     * by the pool.
+     *
+     * @return the total number of connections created
+     */
+    long createdCount();
+
+    /**
+     * Returns the total number of physical connections that have been closed
+     * by the pool, either because they were expired, invalid, idle for too
+     * long or because the pool was full when they were returned.
+     *
+     * @return the total number of connections discarded
+     */
+    long discardedCount();
+
+    /**
+     * Returns the total number of connections that have been reported as
+     * potentially leaked because they were leased for longer than the leak
+     * detection threshold.
+     *
+     * @return the total number of potential leaks reported
+     */
+    long leakCount();
+
+    /**
+     * Returns the total number of prepared statements that were reused from
+     * the statement cache of a pooled connection.
+     *
+     * @return the total number of statement cache hits
+     */
+    long statementCacheHitCount();
+
+    /**
+     * Returns the total number of prepared statements that had to be created
+     * because no matching statement was found in the statement cache of a
+     * pooled connection. Statements prepared while the cache is disabled are
+     * not counted.
+     *
+     * @return the total number of statement cache misses
+     */
+    long statementCacheMissCount();
+
+    /**
+     * Returns the total number of prepared statements that have been closed
+     * because the statement cache of a pooled connection was full.
+     *
+     * @return the total number of statement cache evictions
+     */
+    long statementCacheEvictionCount();
+
+}
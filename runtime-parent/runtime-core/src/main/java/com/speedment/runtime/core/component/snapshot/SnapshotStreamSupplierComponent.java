@@ -0,0 +1,103 @@
+/**
+ *
+ * Copyright (c) 2006-2018, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.component.snapshot;
+
+import com.speedment.runtime.config.identifier.TableIdentifier;
+import com.speedment.runtime.core.component.StreamSupplierComponent;
+
+/**
+ * A {@link StreamSupplierComponent} that serves streams of selected,
+ * read-mostly tables from a column oriented snapshot that is held in the JVM.
+ * Streams over other tables are delegated to the
+ * {@link com.speedment.runtime.core.component.sql.SqlStreamSupplierComponent}.
+ * <p>
+ * Leading {@code filter()}, {@code sorted()}, {@code skip()} and
+ * {@code limit()} operations that are expressed using fields (for example
+ * {@code films.stream().filter(Film.RATING.equal("G")).sorted(Film.LENGTH)})
+ * are evaluated directly on the columns of the snapshot, so entities are only
+ * created for the rows that are actually streamed. Every streamed entity is a
+ * new instance that can be modified freely.
+ * <p>
+ * For every enabled {@link com.speedment.runtime.config.Index} of a table in
+ * the config model, a sorted index over the leading column of the index is
+ * built when the snapshot is loaded, provided that the column is of type
+ * {@code int}, {@code long}, {@code double} or {@code String}. Equality,
+ * range, {@code in} and {@code startsWith} predicates on such columns are
+ * then resolved using binary search rather than a full scan, and
+ * {@code sorted()} operations on them read the rows in index order. The build
+ * time and memory usage of each index is logged.
+ * <p>
+ * A snapshot reflects the state of the table at the time it was loaded. It is
+ * replaced atomically when it is reloaded, either on demand using
+ * {@link #load(TableIdentifier)} or {@link #refresh()} or periodically as
+ * configured by the {@code snapshot.refreshInterval} parameter (in
+ * milliseconds, {@code 0} disables periodic refresh). Streams that are
+ * already running continue to use the snapshot they started with. Tables
+ * that are listed in the {@code snapshot.tables} parameter (as a comma
+ * separated list of {@code dbms.schema.table} names) are loaded the first
+ * time they are streamed.
+ * <p>
+ * Streams created by a thread that takes part in a transaction are always
+ * delegated to the database so that the changes of the transaction are
+ * visible.
+ * <p>
+ * This component is not installed by default. Install it using
+ * {@code ApplicationBuilder.withBundle(SnapshotBundle.class)}.
+ *
+ * @author Per Minborg
+ * @since 3.1.6
+ */
+public interface SnapshotStreamSupplierComponent extends StreamSupplierComponent {
+
+    /**
+     * Loads a snapshot of the given table, replacing any previously loaded
+     * snapshot of the table.
+     *
+     * @param <ENTITY>        entity type
+     * @param tableIdentifier of the table to load
+     * @throws com.speedment.runtime.core.exception.SpeedmentException if the
+     * table can not be read or there is no manager for the table
+     */
+    <ENTITY> void load(TableIdentifier<ENTITY> tableIdentifier);
+
+    /**
+     * Discards the snapshot of the given table, if any. Subsequent streams
+     * over the table are read from the database, unless the table is listed
+     * in the {@code snapshot.tables} parameter in which case it is loaded
+     * again when it is streamed.
+     *
+     * @param tableIdentifier of the table to unload
+     */
+    void unload(TableIdentifier<?> tableIdentifier);
+
+    /**
+     * Reloads all tables that currently have a snapshot.
+     *
+     * @throws com.speedment.runtime.core.exception.SpeedmentException if a
+     * table can not be read
+     */
+    void refresh();
+
+    /**
+     * Returns if there is a snapshot of the given table.
+     *
+     * @param tableIdentifier of the table
+     * @return if there is a snapshot of the given table
+     */
+    boolean isLoaded(TableIdentifier<?> tableIdentifier);
+
+}
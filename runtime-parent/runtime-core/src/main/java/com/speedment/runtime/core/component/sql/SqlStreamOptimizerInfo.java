@@ -22,12 +22,15 @@
 package com.speedment.runtime.core.component.sql;
 
 import com.speedment.runtime.core.db.DbmsType;
+import com.speedment.runtime.core.db.SqlFunction;
 import com.speedment.runtime.core.internal.component.sql.SqlStreamOptimizerInfoImpl;
 import com.speedment.runtime.field.Field;
+import java.sql.ResultSet;
 import java.util.List;
 import java.util.function.BiFunction;
 import java.util.function.Function;
 import java.util.function.ToLongBiFunction;
+import java.util.stream.Stream;
 
 /**
  *
@@ -87,6 +90,39 @@ public interface SqlStreamOptimizerInfo<ENTITY> {
      */
     Function<Field<ENTITY>, Class<?>> getSqlDatabaseTypeFunction();
 
+    /**
+     * Returns a QueryExecutor that will run an arbitrary query against the
+     * database and map its rows to a type of its own.
+     * <p>
+     * E.g. getQueryExecutor().executeQuery("select sum(age) from user",
+     * emptyList(), rs -&gt; rs.getLong(1))
+     *
+     * @return a QueryExecutor that will run a query against the database
+     *
+     * @since 3.1.6
+     */
+    QueryExecutor getQueryExecutor();
+
+    /**
+     * Executes an SQL query and maps each row of the result.
+     *
+     * @since 3.1.6
+     */
+    interface QueryExecutor {
+
+        /**
+         * Executes the given query and returns a Stream of the mapped rows.
+         * The Stream must be closed after use.
+         *
+         * @param <T>       the type of the mapped rows
+         * @param sql       the query to execute
+         * @param values    the parameters of the query
+         * @param rsMapper  the mapper of each row
+         * @return a Stream of the mapped rows
+         */
+        <T> Stream<T> executeQuery(String sql, List<Object> values, SqlFunction<ResultSet, T> rsMapper);
+    }
+
     static <ENTITY> SqlStreamOptimizerInfo<ENTITY> of(
         final DbmsType dbmsType,
         final String sqlSelect,
@@ -94,6 +130,26 @@ public interface SqlStreamOptimizerInfo<ENTITY> {
         final ToLongBiFunction<String, List<Object>> counter,
         final Function<Field<ENTITY>, String> sqlColumnNamer,
         final Function<Field<ENTITY>, Class<?>> sqlDatabaseTypeFunction
+    ) {
+        return of(
+            dbmsType,
+            sqlSelect,
+            sqlSelectCount,
+            counter,
+            sqlColumnNamer,
+            sqlDatabaseTypeFunction,
+            SqlStreamOptimizerInfoImpl.NO_QUERY_EXECUTOR
+        );
+    }
+
+    static <ENTITY> SqlStreamOptimizerInfo<ENTITY> of(
+        final DbmsType dbmsType,
+        final String sqlSelect,
+        final String sqlSelectCount,
+        final ToLongBiFunction<String, List<Object>> counter,
+        final Function<Field<ENTITY>, String> sqlColumnNamer,
+        final Function<Field<ENTITY>, Class<?>> sqlDatabaseTypeFunction,
+        final QueryExecutor queryExecutor
     ) {
         return new SqlStreamOptimizerInfoImpl<>(
             dbmsType,
@@ -101,7 +157,8 @@ public interface SqlStreamOptimizerInfo<ENTITY> {
             sqlSelectCount,
             counter,
             sqlColumnNamer,
-            sqlDatabaseTypeFunction
+            sqlDatabaseTypeFunction,
+            queryExecutor
         );
     }
 
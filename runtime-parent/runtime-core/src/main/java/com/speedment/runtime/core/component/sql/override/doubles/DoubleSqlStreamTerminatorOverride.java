@@ -30,4 +30,24 @@ public interface DoubleSqlStreamTerminatorOverride {
 
     <ENTITY> void setDoubleCountTerminator(DoubleCountTerminator<ENTITY> count);
 
+    <ENTITY> DoubleSumTerminator<ENTITY> getDoubleSumTerminator();
+
+    <ENTITY> void setDoubleSumTerminator(DoubleSumTerminator<ENTITY> sum);
+
+    <ENTITY> DoubleMinTerminator<ENTITY> getDoubleMinTerminator();
+
+    <ENTITY> void setDoubleMinTerminator(DoubleMinTerminator<ENTITY> min);
+
+    <ENTITY> DoubleMaxTerminator<ENTITY> getDoubleMaxTerminator();
+
+    <ENTITY> void setDoubleMaxTerminator(DoubleMaxTerminator<ENTITY> max);
+
+    <ENTITY> DoubleAverageTerminator<ENTITY> getDoubleAverageTerminator();
+
+    <ENTITY> void setDoubleAverageTerminator(DoubleAverageTerminator<ENTITY> average);
+
+    <ENTITY> DoubleSummaryStatisticsTerminator<ENTITY> getDoubleSummaryStatisticsTerminator();
+
+    <ENTITY> void setDoubleSummaryStatisticsTerminator(DoubleSummaryStatisticsTerminator<ENTITY> summaryStatistics);
+
 }
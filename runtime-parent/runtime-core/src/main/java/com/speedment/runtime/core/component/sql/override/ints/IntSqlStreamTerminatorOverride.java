@@ -30,4 +30,24 @@ public interface IntSqlStreamTerminatorOverride {
 
     <ENTITY> void setIntCountTerminator(IntCountTerminator<ENTITY> count);
 
+    <ENTITY> IntSumTerminator<ENTITY> getIntSumTerminator();
+
+    <ENTITY> void setIntSumTerminator(IntSumTerminator<ENTITY> sum);
+
+    <ENTITY> IntMinTerminator<ENTITY> getIntMinTerminator();
+
+    <ENTITY> void setIntMinTerminator(IntMinTerminator<ENTITY> min);
+
+    <ENTITY> IntMaxTerminator<ENTITY> getIntMaxTerminator();
+
+    <ENTITY> void setIntMaxTerminator(IntMaxTerminator<ENTITY> max);
+
+    <ENTITY> IntAverageTerminator<ENTITY> getIntAverageTerminator();
+
+    <ENTITY> void setIntAverageTerminator(IntAverageTerminator<ENTITY> average);
+
+    <ENTITY> IntSummaryStatisticsTerminator<ENTITY> getIntSummaryStatisticsTerminator();
+
+    <ENTITY> void setIntSummaryStatisticsTerminator(IntSummaryStatisticsTerminator<ENTITY> summaryStatistics);
+
 }
@@ -30,4 +30,24 @@ public interface LongSqlStreamTerminatorOverride {
 
     <ENTITY> void setLongCountTerminator(LongCountTerminator<ENTITY> count);
 
+    <ENTITY> LongSumTerminator<ENTITY> getLongSumTerminator();
+
+    <ENTITY> void setLongSumTerminator(LongSumTerminator<ENTITY> sum);
+
+    <ENTITY> LongMinTerminator<ENTITY> getLongMinTerminator();
+
+    <ENTITY> void setLongMinTerminator(LongMinTerminator<ENTITY> min);
+
+    <ENTITY> LongMaxTerminator<ENTITY> getLongMaxTerminator();
+
+    <ENTITY> void setLongMaxTerminator(LongMaxTerminator<ENTITY> max);
+
+    <ENTITY> LongAverageTerminator<ENTITY> getLongAverageTerminator();
+
+    <ENTITY> void setLongAverageTerminator(LongAverageTerminator<ENTITY> average);
+
+    <ENTITY> LongSummaryStatisticsTerminator<ENTITY> getLongSummaryStatisticsTerminator();
+
+    <ENTITY> void setLongSummaryStatisticsTerminator(LongSummaryStatisticsTerminator<ENTITY> summaryStatistics);
+
 }
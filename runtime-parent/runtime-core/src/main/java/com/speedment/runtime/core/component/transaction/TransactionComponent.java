@@ -17,7 +17,11 @@
 package com.speedment.runtime.core.component.transaction;
 
 import com.speedment.common.injector.annotation.InjectKey;
+import com.speedment.runtime.core.internal.component.transaction.TransactionPropagationUtil;
 import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
 import java.util.stream.Stream;
 
 /**
@@ -118,4 +122,93 @@ public interface TransactionComponent {
      */
     Stream<Thread> threads(Object txObject);
 
+    /**
+     * Returns a task that runs the given task with the transaction aware
+     * object that is associated with the current thread (if any) associated
+     * with the thread that runs the task. The association is removed when the
+     * task completes. If the current thread is not associated with a
+     * transaction aware object, the given task is returned as is.
+     * <p>
+     * This makes it possible to hand off work that is part of a transaction
+     * to another thread. Transaction aware objects such as JDBC connections
+     * are generally not thread safe, so the caller must make sure that the
+     * transaction is not used by several threads at the same time.
+     * <p>
+     * Example:
+     * <pre>
+     * {@code
+     *    txHandler.createAndAccept(tx -> {
+     *        executor.submit(txComponent.propagate(() -> films.persist(film))).get();
+     *        tx.commit();
+     *    });
+     * }
+     * </pre>
+     *
+     * @param task to run
+     * @return a task that runs the given task within the transaction of the
+     * current thread
+     * @throws NullPointerException if the task is null
+     * @throws IllegalStateException (when the returned task is run) if the
+     * thread that runs it is already associated with another transaction aware
+     * object
+     * @since 3.1.6
+     */
+    default Runnable propagate(Runnable task) {
+        return TransactionPropagationUtil.propagate(this, task);
+    }
+
+    /**
+     * Returns a task that calls the given task with the transaction aware
+     * object of the current thread (if any) associated with the thread that
+     * calls the task.
+     *
+     * @param <T>  the result type
+     * @param task to call
+     * @return a task that calls the given task within the transaction of the
+     * current thread
+     * @throws NullPointerException if the task is null
+     * @see #propagate(Runnable)
+     * @since 3.1.6
+     */
+    default <T> Callable<T> propagate(Callable<T> task) {
+        return TransactionPropagationUtil.propagate(this, task);
+    }
+
+    /**
+     * Returns a supplier that invokes the given supplier with the transaction
+     * aware object of the current thread (if any) associated with the thread
+     * that invokes the supplier. This is useful together with
+     * {@link java.util.concurrent.CompletableFuture#supplyAsync(Supplier)}.
+     *
+     * @param <T>  the result type
+     * @param supplier to invoke
+     * @return a supplier that invokes the given supplier within the
+     * transaction of the current thread
+     * @throws NullPointerException if the supplier is null
+     * @see #propagate(Runnable)
+     * @since 3.1.6
+     */
+    default <T> Supplier<T> propagateSupplier(Supplier<T> supplier) {
+        return TransactionPropagationUtil.propagateSupplier(this, supplier);
+    }
+
+    /**
+     * Returns an executor that propagates the transaction aware object of the
+     * thread that submits a task (if any) to the thread of the given executor
+     * that runs the task. Since the transaction is looked up when a task is
+     * submitted, stages of a
+     * {@link java.util.concurrent.CompletableFuture} that use the returned
+     * executor run within the transaction as long as they are submitted from
+     * a thread that is part of it.
+     *
+     * @param executor to run tasks
+     * @return an executor that propagates transactions to the given executor
+     * @throws NullPointerException if the executor is null
+     * @see #propagate(Runnable)
+     * @since 3.1.6
+     */
+    default Executor propagating(Executor executor) {
+        return TransactionPropagationUtil.propagating(this, executor);
+    }
+
 }
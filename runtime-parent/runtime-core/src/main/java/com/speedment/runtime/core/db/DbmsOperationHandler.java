@@ -17,6 +17,8 @@
 package com.speedment.runtime.core.db;
 
 import com.speedment.runtime.config.Dbms;
+import com.speedment.runtime.core.exception.SpeedmentException;
+import com.speedment.runtime.core.internal.db.RetryMetricsImpl;
 import com.speedment.runtime.core.internal.manager.sql.SqlInsertStatement;
 import com.speedment.runtime.core.stream.parallel.ParallelStrategy;
 import com.speedment.runtime.field.Field;
@@ -38,18 +40,20 @@ import java.util.stream.Stream;
 public interface DbmsOperationHandler {
 
     /**
-     * Eagerly executes a SQL query and subsequently maps each row in the
-     * ResultSet using a provided mapper and return a Stream of the mapped
-     * objects. The ResultSet is eagerly consumed so that all elements in the
-     * ResultSet are read before the Stream produces any objects. If no objects
-     * are present or if an SQLException is thrown internally, an {@code empty}
-     * stream is returned.
+     * Executes a SQL query and returns a Stream that maps each row in the
+     * ResultSet using a provided mapper as the stream is consumed. The
+     * underlying ResultSet and connection are released when the ResultSet has
+     * been exhausted or when the returned stream is closed. Thus, the stream
+     * should be closed (for example using a try-with-resources statement) if
+     * it is not consumed completely. If no objects are present, an
+     * {@code empty} stream is returned.
      *
      * @param <T> the type of the objects in the stream to return
      * @param dbms the dbms to send it to
      * @param sql the SQL command to execute
      * @param rsMapper the mapper to use when iterating over the ResultSet
      * @return a stream of the mapped objects
+     * @throws SpeedmentException if the query could not be executed
      */
     default <T> Stream<T> executeQuery(
         Dbms dbms,
@@ -60,11 +64,13 @@ public interface DbmsOperationHandler {
     }
 
     /**
-     * Eagerly executes a SQL query and subsequently maps each row in the
-     * {@link ResultSet} using a provided mapper and return a stream of the
-     * mapped objects. The {@code ResultSet} is eagerly consumed. If no objects
-     * are present or if an {@link SQLException} is thrown internally, an
-     * {@code empty} stream is returned.
+     * Executes a SQL query and returns a stream that maps each row in the
+     * {@link ResultSet} using a provided mapper as the stream is consumed.
+     * The underlying {@code ResultSet} and connection are released when the
+     * {@code ResultSet} has been exhausted or when the returned stream is
+     * closed. Thus, the stream should be closed (for example using a
+     * try-with-resources statement) if it is not consumed completely. If no
+     * objects are present, an {@code empty} stream is returned.
      *
      * @param <T> the type of the objects in the stream to return
      * @param dbms the dbms to send it to
@@ -74,6 +80,7 @@ public interface DbmsOperationHandler {
      * @param rsMapper the non-null mapper to use when iterating over the
      * {@link ResultSet}
      * @return a stream of the mapped objects
+     * @throws SpeedmentException if the query could not be executed
      */
     <T> Stream<T> executeQuery(
         Dbms dbms,
@@ -82,6 +89,45 @@ public interface DbmsOperationHandler {
         SqlFunction<ResultSet, T> rsMapper
     );
 
+    /**
+     * Executes a SQL query, reads up to {@code prefetchSize} rows directly and
+     * returns a stream that maps each row in the {@link ResultSet} using a
+     * provided mapper. If the whole result fits within the prefetched rows,
+     * the underlying {@code ResultSet} and connection are released before
+     * this method returns. Otherwise, the remaining rows are read as the
+     * stream is consumed as described in
+     * {@link #executeQuery(Dbms, String, List, SqlFunction)}.
+     * <p>
+     * A small {@code prefetchSize} is useful for queries that are known to
+     * return few rows (like {@code SELECT COUNT(*)} queries) since the
+     * connection is then returned to the pool directly.
+     *
+     * @param <T> the type of the objects in the stream to return
+     * @param dbms the dbms to send it to
+     * @param sql the non-null SQL command to execute
+     * @param values non-null values to use for "?" parameters in the sql
+     * command
+     * @param rsMapper the non-null mapper to use when iterating over the
+     * {@link ResultSet}
+     * @param prefetchSize the maximum number of rows to read directly
+     * @return a stream of the mapped objects
+     * @throws IllegalArgumentException if {@code prefetchSize} is negative
+     * @throws SpeedmentException if the query could not be executed
+     * @since 3.1.6
+     */
+    default <T> Stream<T> executeQuery(
+        Dbms dbms,
+        String sql,
+        List<?> values,
+        SqlFunction<ResultSet, T> rsMapper,
+        int prefetchSize
+    ) {
+        if (prefetchSize < 0) {
+            throw new IllegalArgumentException("Negative prefetchSize " + prefetchSize);
+        }
+        return executeQuery(dbms, sql, values, rsMapper);
+    }
+
     /**
      * Lazily Executes a SQL query and subsequently maps each row in the
      * {@link ResultSet} using a provided mapper and return a stream of the
@@ -107,6 +153,36 @@ public interface DbmsOperationHandler {
         ParallelStrategy parallelStrategy
     );
 
+    /**
+     * Lazily Executes a SQL query as described in
+     * {@link #executeQueryAsync(Dbms, String, List, SqlFunction, ParallelStrategy)}
+     * using the provided {@link FetchHints} when reading the
+     * {@link ResultSet}. Implementations that do not support fetch hints may
+     * ignore them.
+     *
+     * @param <T> the type of the objects in the Stream to return
+     * @param dbms the dbms to send it to
+     * @param sql the non-null SQL command to execute
+     * @param values non-null List of objects to use for "?" parameters in the
+     * SQL command
+     * @param rsMapper the non-null mapper to use when iterating over the
+     * {@link ResultSet}
+     * @param parallelStrategy strategy to use if constructing a parallel stream
+     * @param fetchHints hints on how rows shall be fetched
+     * @return a stream of the mapped objects
+     * @since 3.1.6
+     */
+    default <T> AsynchronousQueryResult<T> executeQueryAsync(
+        Dbms dbms,
+        String sql,
+        List<?> values,
+        SqlFunction<ResultSet, T> rsMapper,
+        ParallelStrategy parallelStrategy,
+        FetchHints fetchHints
+    ) {
+        return executeQueryAsync(dbms, sql, values, rsMapper, parallelStrategy);
+    }
+
     /**
      * Executes an SQL update command. Generated key(s) following an insert
      * command (if any) will be feed to the provided Consumer.
@@ -302,7 +378,56 @@ public interface DbmsOperationHandler {
     default void configureSelect(ResultSet resultSet) throws SQLException {
         // Do nothing by default
     }
+
+    /**
+     * Configures a PreparedStatement for optimum read performance using the
+     * given {@link FetchHints}. By default, the statement is first configured
+     * using {@link #configureSelect(PreparedStatement)} whereafter the fetch
+     * size of the hints, if any, is applied.
+     *
+     * @param statement to configure
+     * @param fetchHints to apply
+     * @throws java.sql.SQLException if the configuration fails
+     * @since 3.1.6
+     */
+    default void configureSelect(PreparedStatement statement, FetchHints fetchHints) throws SQLException {
+        configureSelect(statement);
+        if (fetchHints.getFetchSize().isPresent()) {
+            statement.setFetchSize(fetchHints.getFetchSize().getAsInt());
+        }
+    }
+
+    /**
+     * Configures a ResultSet for optimum read performance using the given
+     * {@link FetchHints}. By default, the result set is first configured
+     * using {@link #configureSelect(ResultSet)} whereafter the fetch size of
+     * the hints, if any, is applied.
+     *
+     * @param resultSet to configure
+     * @param fetchHints to apply
+     * @throws java.sql.SQLException if the configuration fails
+     * @since 3.1.6
+     */
+    default void configureSelect(ResultSet resultSet, FetchHints fetchHints) throws SQLException {
+        configureSelect(resultSet);
+        if (fetchHints.getFetchSize().isPresent()) {
+            resultSet.setFetchSize(fetchHints.getFetchSize().getAsInt());
+        }
+    }
        
     <ENTITY> void handleGeneratedKeys(PreparedStatement ps, SqlInsertStatement sqlStatement) throws SQLException;
 
+    /**
+     * Returns the metrics of the retries made by this handler when write
+     * operations fail with a retryable SQL state. Handlers that never retry
+     * return metrics where all counters are zero.
+     *
+     * @return the retry metrics of this handler
+     * @see RetryPolicy
+     * @since 3.1.6
+     */
+    default RetryMetrics retryMetrics() {
+        return RetryMetricsImpl.NONE;
+    }
+
 }
@@ -21,11 +21,14 @@ import com.speedment.runtime.config.Dbms;
 import com.speedment.runtime.config.Schema;
 
 import java.util.Comparator;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 
 import static com.speedment.common.mapstream.MapStream.comparing;
+import static java.util.Arrays.asList;
+import static java.util.Collections.unmodifiableSet;
 
 /**
  * The {@code DbmsType} interface defines unique properties for different Dbms
@@ -40,6 +43,14 @@ public interface DbmsType {
 
     Comparator<DbmsType> COMPARATOR = comparing(DbmsType::getName);
 
+    /**
+     * The default retryable SQL states.
+     *
+     * @see #getRetryableSqlStates()
+     * @since 3.1.6
+     */
+    Set<String> DEFAULT_RETRYABLE_SQL_STATES = unmodifiableSet(new HashSet<>(asList("08S01", "40001")));
+
     /**
      * Returns the non-null name for this {@code DbmsType}. For example MySQL or
      * Oracle
@@ -202,6 +213,20 @@ public interface DbmsType {
      */
     FieldPredicateView getFieldPredicateView();
 
+    /**
+     * Returns the ExpressionView for this database. An ExpressionView can
+     * render compute expressions as SQL so that they can be sorted on or
+     * aggregated by the database.
+     * <p>
+     * The default implementation returns {@link ExpressionView#standard()}.
+     *
+     * @return the ExpressionView for this database
+     * @since 3.1.6
+     */
+    default ExpressionView getExpressionView() {
+        return ExpressionView.standard();
+    }
+
     /**
      * Returns a pre-defined Set for the TypeInfoMetaData for this database
      * type. Some databases meta data retrieval functions (like PostgreSQL) ate
@@ -294,4 +319,21 @@ public interface DbmsType {
      */
     SortByNullOrderInsertion getSortByNullOrderInsertion();
 
+    /**
+     * Returns the SQL states that indicate that a failed write operation may
+     * succeed if it is attempted again, for example because of a
+     * serialization failure, a deadlock or a lost connection. Write
+     * operations that are executed outside of a transaction and fail with one
+     * of these states are retried according to the {@link RetryPolicy}.
+     * <p>
+     * The default implementation returns {@code 08S01} (communication link
+     * failure) and {@code 40001} (serialization failure).
+     *
+     * @return the retryable SQL states
+     * @since 3.1.6
+     */
+    default Set<String> getRetryableSqlStates() {
+        return DEFAULT_RETRYABLE_SQL_STATES;
+    }
+
 }
@@ -0,0 +1,69 @@
+/**
+ *
+ * Copyright (c) 2006-2018, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.db;
+
+import com.speedment.runtime.compute.expression.Expression;
+import com.speedment.runtime.core.internal.manager.sql.ExpressionViewImpl;
+import com.speedment.runtime.field.Field;
+
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Renders {@link Expression Expressions} as SQL so that operations like
+ * {@code sorted(expression)} or {@code mapToDouble(expression).sum()} can be
+ * evaluated by the database. Only expressions that are built from fields and
+ * the standard expression operators can be rendered. The rendered SQL yields
+ * the same value as {@link Expression} applied in the JVM except for integer
+ * overflow, which is not emulated.
+ *
+ * @author  Per Minborg
+ * @since   3.1.6
+ */
+@FunctionalInterface
+public interface ExpressionView {
+
+    /**
+     * Renders the given expression as SQL or returns
+     * {@code Optional.empty()} if the expression can not be rendered in a way
+     * that yields the same values as in the JVM.
+     *
+     * @param <ENTITY>              the entity type
+     * @param columnNamer           function that returns the enclosed column
+     *                              name of a field or {@code null} if the
+     *                              field is not in the streamed table
+     * @param columnDbTypeFunction  function that returns the database type of
+     *                              a field
+     * @param expression            to render
+     * @return the rendered SQL or {@code Optional.empty()}
+     */
+    <ENTITY> Optional<String> render(
+        Function<Field<ENTITY>, String> columnNamer,
+        Function<Field<ENTITY>, Class<?>> columnDbTypeFunction,
+        Expression<ENTITY> expression
+    );
+
+    /**
+     * Returns an ExpressionView that renders expressions using standard SQL.
+     *
+     * @return an ExpressionView that renders expressions using standard SQL
+     */
+    static ExpressionView standard() {
+        return ExpressionViewImpl.STANDARD;
+    }
+
+}
@@ -0,0 +1,145 @@
+/**
+ *
+ * Copyright (c) 2006-2018, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.db;
+
+import com.speedment.runtime.core.internal.db.FetchHintsImpl;
+
+import java.util.OptionalInt;
+
+/**
+ * Immutable hints on how the rows of a query shall be fetched from the
+ * database. Hints can be given for an individual stream using
+ * {@link com.speedment.runtime.core.component.StreamSupplierComponent} or for
+ * all streams of a manager using
+ * {@link com.speedment.runtime.core.manager.ManagerConfigurator}.
+ * <p>
+ * The <em>fetch size</em> is the number of rows the JDBC driver reads from
+ * the database in each round trip. If no fetch size is given, the default of
+ * the {@link DbmsOperationHandler} is used. For MySQL, a positive fetch size
+ * reads the result using a server side cursor in batches of the given size
+ * rather than streaming it row by row, provided that the configuration
+ * parameter {@code db.mysql.useCursorFetch} is set to {@code true}.
+ * Otherwise, MySQL results are always streamed row by row.
+ * <p>
+ * If <em>read-ahead</em> is enabled, rows are read and mapped by a
+ * background thread in blocks of the given size and handed over to the
+ * consumer of the stream through a bounded buffer. This allows the next block
+ * to be read while the consumer processes the current one. Read-ahead is not
+ * used for streams that are part of a transaction.
+ *
+ * @author Per Minborg
+ * @since 3.1.6
+ */
+public interface FetchHints {
+
+    /**
+     * Returns hints that use the defaults of the {@link DbmsOperationHandler}
+     * and do not read ahead.
+     *
+     * @return hints that use the defaults
+     */
+    static FetchHints defaults() {
+        return FetchHintsImpl.DEFAULTS;
+    }
+
+    /**
+     * Returns the number of rows to fetch from the database in each round
+     * trip or {@code OptionalInt.empty()} if the default of the
+     * {@link DbmsOperationHandler} shall be used.
+     *
+     * @return the fetch size
+     */
+    OptionalInt getFetchSize();
+
+    /**
+     * Returns the number of rows in each block that is read ahead by a
+     * background thread or {@code 0} if read-ahead is disabled.
+     *
+     * @return the number of rows in each read-ahead block
+     */
+    int getReadAheadBlockSize();
+
+    /**
+     * Returns the maximum number of blocks that are read ahead before the
+     * background thread waits for the consumer.
+     *
+     * @return the maximum number of blocks read ahead
+     */
+    int getReadAheadBlocks();
+
+    /**
+     * Returns if rows shall be read ahead by a background thread.
+     *
+     * @return if rows shall be read ahead by a background thread
+     */
+    default boolean isReadAhead() {
+        return getReadAheadBlockSize() > 0;
+    }
+
+    /**
+     * Returns new hints that are equal to these except that the given number
+     * of rows is fetched from the database in each round trip.
+     *
+     * @param fetchSize the number of rows to fetch in each round trip
+     * @return new hints with the given fetch size
+     * @throws IllegalArgumentException if {@code fetchSize} is not positive
+     */
+    FetchHints withFetchSize(int fetchSize);
+
+    /**
+     * Returns new hints that are equal to these except that the default fetch
+     * size of the {@link DbmsOperationHandler} is used.
+     *
+     * @return new hints with the default fetch size
+     */
+    FetchHints withDefaultFetchSize();
+
+    /**
+     * Returns new hints that are equal to these except that rows are read
+     * ahead by a background thread in blocks of the given size, buffering at
+     * most two blocks.
+     *
+     * @param blockSize the number of rows in each block
+     * @return new hints with read-ahead enabled
+     * @throws IllegalArgumentException if {@code blockSize} is not positive
+     */
+    default FetchHints withReadAhead(int blockSize) {
+        return withReadAhead(blockSize, 2);
+    }
+
+    /**
+     * Returns new hints that are equal to these except that rows are read
+     * ahead by a background thread in blocks of the given size, buffering at
+     * most the given number of blocks.
+     *
+     * @param blockSize the number of rows in each block
+     * @param blocks the maximum number of blocks to buffer
+     * @return new hints with read-ahead enabled
+     * @throws IllegalArgumentException if {@code blockSize} or
+     *         {@code blocks} is not positive
+     */
+    FetchHints withReadAhead(int blockSize, int blocks);
+
+    /**
+     * Returns new hints that are equal to these except that rows are not read
+     * ahead.
+     *
+     * @return new hints with read-ahead disabled
+     */
+    FetchHints withoutReadAhead();
+
+}
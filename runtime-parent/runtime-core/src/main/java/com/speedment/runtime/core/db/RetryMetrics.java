@@ -0,0 +1,54 @@
+/**
+ *
+ * Copyright (c) 2006-2018, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.db;
+
+/**
+ * Runtime metrics of the retries made by a {@link DbmsOperationHandler}. All
+ * counters are accumulated from the time the handler was created and are safe
+ * to read from any thread. Values read from different methods are not
+ * guaranteed to be consistent with each other.
+ *
+ * @author Per Minborg
+ * @since 3.1.6
+ * @see RetryPolicy
+ */
+public interface RetryMetrics {
+
+    /**
+     * Returns the total number of retries that have been made.
+     *
+     * @return the total number of retries
+     */
+    long retryCount();
+
+    /**
+     * Returns the total number of operations that succeeded after having
+     * been retried at least once.
+     *
+     * @return the total number of recovered operations
+     */
+    long recoveredCount();
+
+    /**
+     * Returns the total number of operations that failed with a retryable
+     * SQL state on their last allowed attempt.
+     *
+     * @return the total number of operations that exhausted their attempts
+     */
+    long exhaustedCount();
+
+}
@@ -0,0 +1,90 @@
+/**
+ *
+ * Copyright (c) 2006-2018, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.db;
+
+import com.speedment.common.injector.annotation.InjectKey;
+import com.speedment.runtime.core.internal.db.ExponentialBackoffRetryPolicy;
+
+import java.time.Duration;
+
+/**
+ * Policy that decides how many times, and with what delays, a write
+ * operation that is executed outside of a transaction is attempted if it
+ * fails with a retryable SQL state. What SQL states that are retryable is
+ * determined by {@link DbmsType#getRetryableSqlStates()}. Each attempt is
+ * made using a fresh connection from the connection pool.
+ * <p>
+ * By default, the policy is created from the configuration parameters
+ * {@code db.retry.maxAttempts}, {@code db.retry.initialDelayMillis} and
+ * {@code db.retry.maxDelayMillis} using
+ * {@link #exponentialBackoff(int, Duration, Duration)}. A custom policy can
+ * be installed by adding a component that implements this interface to the
+ * application builder.
+ *
+ * @author Per Minborg
+ * @since 3.1.6
+ */
+@InjectKey(RetryPolicy.class)
+public interface RetryPolicy {
+
+    /**
+     * Returns the maximum number of times an operation is attempted,
+     * including the first attempt. A value of {@code 1} means that operations
+     * are never retried.
+     *
+     * @return the maximum number of attempts, always positive
+     */
+    int getMaxAttempts();
+
+    /**
+     * Returns the time to wait before the given retry is made.
+     *
+     * @param retry  the retry to be made, where {@code 1} is the first retry
+     *               (i.e. the second attempt)
+     * @return       the time to wait before the retry
+     */
+    Duration getDelay(int retry);
+
+    /**
+     * Returns a policy that never retries operations.
+     *
+     * @return a policy that never retries operations
+     */
+    static RetryPolicy none() {
+        return ExponentialBackoffRetryPolicy.NONE;
+    }
+
+    /**
+     * Returns a policy that makes at most {@code maxAttempts} attempts. The
+     * delay before retry {@code n} is a random duration between zero and
+     * {@code min(maxDelay, initialDelay * 2^(n-1))} (exponential backoff with
+     * full jitter), so that competing clients that failed at the same time do
+     * not retry at the same time.
+     *
+     * @param maxAttempts   the maximum number of attempts
+     * @param initialDelay  the upper bound of the delay before the first retry
+     * @param maxDelay      the upper bound of any delay
+     * @return              a new policy
+     * @throws IllegalArgumentException if {@code maxAttempts} is not positive,
+     *         if a delay is negative or if {@code maxDelay} is less than
+     *         {@code initialDelay}
+     */
+    static RetryPolicy exponentialBackoff(int maxAttempts, Duration initialDelay, Duration maxDelay) {
+        return new ExponentialBackoffRetryPolicy(maxAttempts, initialDelay, maxDelay);
+    }
+
+}
@@ -0,0 +1,87 @@
+/**
+ *
+ * Copyright (c) 2006-2018, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.db;
+
+import com.speedment.runtime.core.internal.db.SqlArrayParameterImpl;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+/**
+ * A parameter value that is bound as a {@code java.sql.Array}. Since an
+ * {@code Array} can only be created using a {@link Connection}, a predicate
+ * that is rendered before a connection is available can add an instance of
+ * this interface to its values. The actual {@code Array} is then created
+ * using {@link Connection#createArrayOf(String, Object[])} on the connection
+ * of the statement once the values are bound using
+ * {@link #bind(PreparedStatement, int, Object)}.
+ *
+ * @author Per Minborg
+ * @since 3.1.6
+ */
+public interface SqlArrayParameter {
+
+    /**
+     * Returns the SQL name of the type of the elements of the array.
+     *
+     * @return the SQL type name of the elements
+     */
+    String getTypeName();
+
+    /**
+     * Returns a copy of the elements of the array.
+     *
+     * @return the elements
+     */
+    Object[] getElements();
+
+    /**
+     * Creates a new array parameter with the specified elements.
+     *
+     * @param typeName the SQL name of the type of the elements, for example
+     *                 {@code "int8"} or {@code "text"}
+     * @param elements the elements of the array
+     * @return a new array parameter
+     */
+    static SqlArrayParameter of(String typeName, Object[] elements) {
+        return new SqlArrayParameterImpl(typeName, elements);
+    }
+
+    /**
+     * Binds the specified value to the parameter with the specified index.
+     * Instances of {@code SqlArrayParameter} are bound as a
+     * {@code java.sql.Array} created on the connection of the statement. All
+     * other values are bound using
+     * {@link PreparedStatement#setObject(int, Object)}.
+     *
+     * @param ps             the statement
+     * @param parameterIndex the index of the parameter, starting at 1
+     * @param value          the value to bind
+     * @throws SQLException  if the value could not be bound
+     */
+    static void bind(PreparedStatement ps, int parameterIndex, Object value) throws SQLException {
+        if (value instanceof SqlArrayParameter) {
+            final SqlArrayParameter array = (SqlArrayParameter) value;
+            ps.setArray(parameterIndex, ps.getConnection()
+                .createArrayOf(array.getTypeName(), array.getElements())
+            );
+        } else {
+            ps.setObject(parameterIndex, value);
+        }
+    }
+}
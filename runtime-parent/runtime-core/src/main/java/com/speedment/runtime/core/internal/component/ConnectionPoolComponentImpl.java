@@ -17,37 +17,89 @@
 package com.speedment.runtime.core.internal.component;
 
 import com.speedment.common.injector.annotation.Config;
+import com.speedment.common.injector.annotation.ExecuteBefore;
 import com.speedment.common.injector.annotation.Inject;
+import com.speedment.common.injector.annotation.WithState;
 import com.speedment.common.logger.Logger;
 import com.speedment.common.logger.LoggerManager;
 import com.speedment.runtime.config.Dbms;
 import com.speedment.runtime.core.ApplicationBuilder;
 import com.speedment.runtime.core.component.DbmsHandlerComponent;
 import com.speedment.runtime.core.component.PasswordComponent;
+import com.speedment.runtime.core.component.ProjectComponent;
 import com.speedment.runtime.core.component.connectionpool.ConnectionPoolComponent;
+import com.speedment.runtime.core.component.connectionpool.ConnectionPoolMetrics;
 import com.speedment.runtime.core.component.connectionpool.PoolableConnection;
 import com.speedment.runtime.core.exception.SpeedmentException;
+import com.speedment.runtime.core.internal.pool.ConnectionPoolMetricsImpl;
 import com.speedment.runtime.core.internal.pool.PoolableConnectionImpl;
 import com.speedment.runtime.core.util.DatabaseUtil;
 import static com.speedment.runtime.core.util.OptionalUtil.unwrap;
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.SQLException;
-import java.util.Collection;
+import java.util.ArrayList;
 import java.util.Deque;
 import java.util.Map;
 import java.util.Objects;
 import static java.util.Objects.requireNonNull;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import static com.speedment.common.injector.State.RESOLVED;
+import static com.speedment.common.injector.State.STARTED;
+import static com.speedment.common.injector.State.STOPPED;
 
 /**
  * A fully concurrent implementation of a connection pool.
+ * <p>
+ * By default, the pool is unbounded and a new connection is created whenever
+ * there is no idle connection to reuse. If {@code connectionpool.maxSize} is
+ * set to a positive value, the number of physical connections per pool is
+ * limited and threads that ask for a connection when the limit is reached are
+ * queued in FIFO order until a connection is returned or the
+ * {@code connectionpool.acquireTimeout} elapses.
+ * <p>
+ * If {@code connectionpool.maintenanceInterval} is positive, a background
+ * thread periodically validates idle connections, evicts connections that have
+ * been idle for longer than {@code connectionpool.maxIdleTime} and reports
+ * connections that have been leased for longer than
+ * {@code connectionpool.leakDetectionThreshold}. If the interval is left at
+ * zero, maintenance is only performed in bounded mode (every
+ * {@value #DEFAULT_BOUNDED_MAINTENANCE_INTERVAL} ms) and the legacy unbounded
+ * pool does not start any background thread. A negative interval disables
+ * maintenance altogether.
+ * <p>
+ * Idle connections are validated against the database by the maintenance
+ * thread so that leasing a connection does not require a round trip. If no
+ * maintenance is performed, an idle connection is checked to not be closed
+ * before it is handed out. If {@code connectionpool.validateOnBorrow} is
+ * enabled, an idle connection is also checked to not be closed and, if it has
+ * been idle for longer than {@code connectionpool.validationBypassWindow},
+ * validated against the database every time it is handed out. A connection
+ * that fails a check is discarded and replaced.
+ * <p>
+ * If {@code connectionpool.statementCacheSize} is positive, every pooled
+ * connection keeps a least recently used cache of up to that many prepared
+ * statements. Closing a statement returns it to the cache of its connection
+ * so that preparing the same SQL again does not require a new round trip to
+ * the database.
+ * <p>
+ * The connection parameters of every {@link Dbms} in the project are resolved
+ * once when the component is started. Leasing a connection for one of those
+ * documents using {@link #getConnection(Dbms)} is therefore only a lookup by
+ * identity and does not compute the connection URL or build any pool key.
  *
  * @author Per Minborg
  */
 public class ConnectionPoolComponentImpl implements ConnectionPoolComponent {
 
+    static final long DEFAULT_BOUNDED_MAINTENANCE_INTERVAL = 5000;
+
     protected static final Logger LOGGER_CONNECTION = LoggerManager.getLogger(
         ApplicationBuilder.LogType.CONNECTION.getLoggerName()
     );
@@ -56,9 +108,30 @@ public class ConnectionPoolComponentImpl implements ConnectionPoolComponent {
     private long maxAge;
     @Config(name = "connectionpool.maxRetainSize", value = "32")
     private int maxRetainSize;
+    @Config(name = "connectionpool.maxSize", value = "0")
+    private int maxSize;
+    @Config(name = "connectionpool.acquireTimeout", value = "30000")
+    private long acquireTimeout;
+    @Config(name = "connectionpool.maxIdleTime", value = "10000")
+    private long maxIdleTime;
+    @Config(name = "connectionpool.validationTimeout", value = "5000")
+    private long validationTimeout;
+    @Config(name = "connectionpool.validateOnBorrow", value = "false")
+    private boolean validateOnBorrow;
+    @Config(name = "connectionpool.validationBypassWindow", value = "500")
+    private long validationBypassWindow;
+    @Config(name = "connectionpool.maintenanceInterval", value = "0")
+    private long maintenanceInterval;
+    @Config(name = "connectionpool.leakDetectionThreshold", value = "0")
+    private long leakDetectionThreshold;
+    @Config(name = "connectionpool.statementCacheSize", value = "0")
+    private int statementCacheSize;
 
-    private final Map<Long, PoolableConnection> leasedConnections;
-    private final Map<String, Deque<PoolableConnection>> pools;
+    private final Map<Long, Lease> leasedConnections;
+    private final Map<String, Pool> pools;
+    private final Map<Dbms, Pool> dbmsPools;
+    private final ConnectionPoolMetricsImpl metrics;
+    private volatile ScheduledExecutorService maintenanceScheduler; // null if no maintenance is performed
 
     @Inject
     private DbmsHandlerComponent dbmsHandlerComponent;
@@ -67,11 +140,78 @@ public class ConnectionPoolComponentImpl implements ConnectionPoolComponent {
 
     public ConnectionPoolComponentImpl() {
         pools = new ConcurrentHashMap<>();
+        dbmsPools = new ConcurrentHashMap<>();
         leasedConnections = new ConcurrentHashMap<>();
+        metrics = new ConnectionPoolMetricsImpl();
+    }
+
+    @ExecuteBefore(STARTED)
+    void resolveDbmsPools(
+        @WithState(RESOLVED) ProjectComponent projectComponent,
+        @WithState(STARTED) PasswordComponent passwordComponent // Passwords are set before the PasswordComponent is started
+    ) {
+        projectComponent.getProject().dbmses().forEach(this::resolveDbmsPool);
+    }
+
+    void resolveDbmsPool(Dbms dbms) {
+        requireNonNull(dbms);
+        final String uri = DatabaseUtil.findConnectionUrl(dbmsHandlerComponent, dbms);
+        final String username = unwrap(dbms.getUsername());
+        final char[] password = unwrap(passwordComponent.get(dbms));
+
+        dbmsPools.put(dbms, acquirePool(uri, username, password));
+    }
+
+    @ExecuteBefore(STARTED)
+    void startMaintenance() {
+        final long interval = effectiveMaintenanceInterval();
+        if (interval > 0) {
+            maintenanceScheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+                final Thread t = new Thread(r, "speedment-connectionpool-maintenance");
+                t.setDaemon(true);
+                return t;
+            });
+            maintenanceScheduler.scheduleWithFixedDelay(
+                this::maintain,
+                interval,
+                interval,
+                TimeUnit.MILLISECONDS
+            );
+        }
+    }
+
+    long effectiveMaintenanceInterval() {
+        if (maintenanceInterval == 0) {
+            return maxSize > 0 ? DEFAULT_BOUNDED_MAINTENANCE_INTERVAL : 0;
+        }
+        return Math.max(0, maintenanceInterval);
+    }
+
+    boolean isMaintenanceRunning() {
+        return maintenanceScheduler != null;
+    }
+
+    @ExecuteBefore(STOPPED)
+    void stopMaintenance() {
+        if (maintenanceScheduler != null) {
+            maintenanceScheduler.shutdownNow();
+            maintenanceScheduler = null;
+        }
+        pools.values().forEach(pool -> {
+            IdleConnection idle;
+            while ((idle = pool.idle.pollLast()) != null) {
+                discard(idle.connection);
+            }
+        });
     }
 
     @Override
     public PoolableConnection getConnection(Dbms dbms) {
+        final Pool resolved = dbmsPools.get(dbms);
+        if (resolved != null) {
+            return getConnection(resolved);
+        }
+
         final String uri = DatabaseUtil.findConnectionUrl(dbmsHandlerComponent, dbms);
         final String username = unwrap(dbms.getUsername());
         final char[] password = unwrap(passwordComponent.get(dbms));
@@ -88,19 +228,33 @@ public class ConnectionPoolComponentImpl implements ConnectionPoolComponent {
         requireNonNull(uri);
         // user nullable
         // password nullable
-        LOGGER_CONNECTION.debug("getConnection(%s, %s, *****)", uri, user);
-        final String key = makeKey(uri, user, password);
-        final Deque<PoolableConnection> q = acquireDeque(key);
-        final PoolableConnection reusedConnection = pollValidOrNull(q);
-        if (reusedConnection != null) {
-            LOGGER_CONNECTION.debug("Reuse Connection: %s", reusedConnection);
-            return lease(reusedConnection);
-        } else {
-            final Connection newRawConnection = newConnection(uri, user, password);
-            final PoolableConnection newConnection = new PoolableConnectionImpl(uri, user, password, newRawConnection, System.currentTimeMillis() + getMaxAge());
-            newConnection.setOnClose(() -> returnConnection(newConnection));
-            LOGGER_CONNECTION.debug("New Connection: %s", newConnection);
-            return lease(newConnection);
+        return getConnection(acquirePool(uri, user, password));
+    }
+
+    private PoolableConnection getConnection(Pool pool) {
+        LOGGER_CONNECTION.debug("getConnection(%s, %s, *****)", pool.uri, pool.user);
+        final long start = System.nanoTime();
+        acquirePermit(pool);
+        try {
+            final PoolableConnection reusedConnection = pollValidOrNull(pool.idle);
+            final PoolableConnection connection;
+            if (reusedConnection != null) {
+                LOGGER_CONNECTION.debug("Reuse Connection: %s", reusedConnection);
+                connection = reusedConnection;
+            } else {
+                final Connection newRawConnection = newConnection(pool.uri, pool.user, pool.password);
+                final PoolableConnection newConnection = new PoolableConnectionImpl(pool.uri, pool.user, pool.password, newRawConnection, System.currentTimeMillis() + getMaxAge(), getStatementCacheSize(), metrics);
+                newConnection.setOnClose(() -> returnConnection(pool, newConnection));
+                metrics.recordCreated();
+                LOGGER_CONNECTION.debug("New Connection: %s", newConnection);
+                connection = newConnection;
+            }
+            lease(connection);
+            metrics.recordAcquire(System.nanoTime() - start);
+            return connection;
+        } catch (final RuntimeException ex) {
+            releasePermit(pool);
+            throw ex;
         }
     }
 
@@ -136,18 +290,28 @@ public class ConnectionPoolComponentImpl implements ConnectionPoolComponent {
     @Override
     public void returnConnection(PoolableConnection connection) {
         requireNonNull(connection);
-        leaseReturn(connection);
-        if (!isValidOrNull(connection)) {
-            discard(connection);
-        } else {
-            final String key = makeKey(connection);
-            final Deque<PoolableConnection> q = acquireDeque(key);
-            if (q.size() >= getMaxRetainSize()) {
+        returnConnection(acquirePool(connection.getUri(), connection.getUser(), connection.getPassword()), connection);
+    }
+
+    private void returnConnection(Pool pool, PoolableConnection connection) {
+        requireNonNull(connection);
+        if (leaseReturn(connection) == null) {
+            LOGGER_CONNECTION.debug("Returned twice or never leased: %s", connection);
+            return;
+        }
+        try {
+            if (!isValidOrNull(connection)) {
+                discard(connection);
+            } else if (pool.idle.size() >= getMaxRetainSize()) {
                 discard(connection);
             } else {
                 LOGGER_CONNECTION.debug("Recycled: %s", connection);
-                q.addFirst(connection);
+                pool.idle.addFirst(new IdleConnection(connection, System.currentTimeMillis()));
             }
+        } finally {
+            // The permit must be released after the connection is made
+            // available so that a woken waiter will find it
+            releasePermit(pool);
         }
     }
 
@@ -158,6 +322,7 @@ public class ConnectionPoolComponentImpl implements ConnectionPoolComponent {
     private void discard(PoolableConnection connection) {
         requireNonNull(connection);
         LOGGER_CONNECTION.debug("Discard: %s", connection);
+        metrics.recordDiscarded();
         try {
             connection.rawClose();
         } catch (SQLException sqle) {
@@ -165,39 +330,151 @@ public class ConnectionPoolComponentImpl implements ConnectionPoolComponent {
         }
     }
 
-    private PoolableConnection lease(PoolableConnection poolableConnection) {
-        leasedConnections.put(poolableConnection.getId(), poolableConnection);
-        return poolableConnection;
+    private void acquirePermit(Pool pool) {
+        if (pool.permits == null) {
+            return;
+        }
+        final long waitStart = System.nanoTime();
+        final boolean acquired;
+        try {
+            // The timed version honors the fairness setting of the semaphore
+            acquired = pool.permits.tryAcquire(getAcquireTimeout(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            throw new SpeedmentException("Interrupted while waiting for a connection to \"" + pool.uri + "\".", ie);
+        } finally {
+            metrics.recordWait(System.nanoTime() - waitStart);
+        }
+        if (!acquired) {
+            metrics.recordTimeout();
+            final String msg = "Unable to acquire a connection to \"" + pool.uri
+                + "\" within " + getAcquireTimeout() + " ms. All "
+                + pool.maxSize + " connections in the pool are leased.";
+            LOGGER_CONNECTION.error(msg);
+            throw new SpeedmentException(msg);
+        }
+    }
+
+    private void releasePermit(Pool pool) {
+        if (pool.permits != null) {
+            pool.permits.release();
+        }
+    }
+
+    private void lease(PoolableConnection poolableConnection) {
+        final Throwable origin = leakDetectionThreshold > 0
+            ? new Throwable("Connection leased by thread " + Thread.currentThread().getName())
+            : null;
+        leasedConnections.put(
+            poolableConnection.getId(),
+            new Lease(poolableConnection, System.currentTimeMillis(), origin)
+        );
     }
 
-    private PoolableConnection leaseReturn(PoolableConnection poolableConnection) {
-        leasedConnections.remove(poolableConnection.getId());
-        return poolableConnection;
+    private Lease leaseReturn(PoolableConnection poolableConnection) {
+        return leasedConnections.remove(poolableConnection.getId());
     }
 
     private boolean isValidOrNull(PoolableConnection connection) {
         // connection nullable
+        if (connection == null) {
+            return true;
+        }
+        if (connection.getExpires() <= System.currentTimeMillis()) {
+            return false;
+        }
         try {
-            return connection == null || (connection.getExpires() > System.currentTimeMillis() && !connection.isClosed());
+            return !connection.isClosed();
         } catch (SQLException sqle) {
             LOGGER_CONNECTION.error(sqle, "Error while checking if a connection is closed.");
             return false;
         }
     }
 
-    private PoolableConnection pollValidOrNull(Deque<PoolableConnection> q) {
+    private PoolableConnection pollValidOrNull(Deque<IdleConnection> q) {
         requireNonNull(q);
-        PoolableConnection pc = q.pollLast();
-        while (!isValidOrNull(pc)) {
-            discard(pc); // If we discover an old connection, we discard it from the queue. Otherwise it will not be closed
-            pc = q.pollLast();
+        IdleConnection idle;
+        while ((idle = q.pollLast()) != null) {
+            if (isUsable(idle)) {
+                return idle.connection;
+            }
+            discard(idle.connection); // If we discover an old connection, we discard it from the queue. Otherwise it will not be closed
         }
-        return pc;
+        return null;
     }
 
-    private String makeKey(PoolableConnection connection) {
-        requireNonNull(connection);
-        return makeKey(connection.getUri(), connection.getUser(), connection.getPassword());
+    private boolean isUsable(IdleConnection idle) {
+        final long now = System.currentTimeMillis();
+        if (idle.connection.getExpires() <= now) {
+            return false;
+        }
+        if (validateOnBorrow) {
+            return isValidOrNull(idle.connection)
+                && (now - idle.since <= validationBypassWindow || isAlive(idle.connection));
+        }
+        // Idle connections are validated in the background if maintenance
+        // is performed
+        return maintenanceScheduler != null || isValidOrNull(idle.connection);
+    }
+
+    /**
+     * Validates and evicts idle connections and reports connections that have
+     * been leased for longer than the leak detection threshold. This method is
+     * invoked periodically by the maintenance thread.
+     */
+    void maintain() {
+        try {
+            final long now = System.currentTimeMillis();
+            pools.values().forEach(pool -> maintain(pool, now));
+            if (leakDetectionThreshold > 0) {
+                leasedConnections.values().forEach(lease -> detectLeak(lease, now));
+            }
+        } catch (final RuntimeException ex) {
+            // Never let an exception cancel the scheduled maintenance
+            LOGGER_CONNECTION.error(ex, "Error while maintaining the connection pool.");
+        }
+    }
+
+    private void maintain(Pool pool, long now) {
+        // Iterate over a snapshot since validated connections are re-added
+        for (final IdleConnection idle : new ArrayList<>(pool.idle)) {
+            // Only touch connections that have not been leased concurrently
+            if (!pool.idle.removeFirstOccurrence(idle)) {
+                continue;
+            }
+            if (idle.connection.getExpires() <= now
+                || (maxIdleTime > 0 && now - idle.since > maxIdleTime)
+                || !isAlive(idle.connection)) {
+                discard(idle.connection);
+            } else {
+                pool.idle.addLast(idle);
+            }
+        }
+    }
+
+    private boolean isAlive(PoolableConnection connection) {
+        try {
+            final int timeoutSeconds = (int) Math.max(1, TimeUnit.MILLISECONDS.toSeconds(validationTimeout));
+            return connection.isValid(timeoutSeconds);
+        } catch (SQLException | RuntimeException ex) {
+            LOGGER_CONNECTION.debug(ex, "Validation failed for %s", connection);
+            return false;
+        }
+    }
+
+    private void detectLeak(Lease lease, long now) {
+        final long leasedFor = now - lease.leasedAt;
+        if (!lease.reported && leasedFor > leakDetectionThreshold) {
+            lease.reported = true;
+            metrics.recordLeak();
+            LOGGER_CONNECTION.warn(
+                lease.origin == null ? new Throwable("Connection leased before leak detection was enabled") : lease.origin,
+                "Connection %s has been leased for %d ms which exceeds the leak detection threshold of %d ms. Possible connection leak.",
+                lease.connection,
+                leasedFor,
+                leakDetectionThreshold
+            );
+        }
     }
 
     private String makeKey(String uri, String user, char[] password) {
@@ -207,9 +484,11 @@ public class ConnectionPoolComponentImpl implements ConnectionPoolComponent {
         return uri + Objects.toString(user) + ((password == null) ? "null" : new String(password));
     }
 
-    private Deque<PoolableConnection> acquireDeque(String key) {
-        requireNonNull(key);
-        return pools.computeIfAbsent(key, $ -> new ConcurrentLinkedDeque<>());
+    private Pool acquirePool(String uri, String user, char[] password) {
+        return pools.computeIfAbsent(
+            makeKey(uri, user, password),
+            $ -> new Pool(uri, user, password, getMaxSize())
+        );
     }
 
     @Override
@@ -217,7 +496,7 @@ public class ConnectionPoolComponentImpl implements ConnectionPoolComponent {
         return pools
             .values()
             .stream()
-            .mapToInt(Collection::size)
+            .mapToInt(p -> p.idle.size())
             .sum();
     }
 
@@ -241,9 +520,118 @@ public class ConnectionPoolComponentImpl implements ConnectionPoolComponent {
         return maxRetainSize;
     }
 
-    
+
     void setMaxRetainSize(int maxRetainSize) {
         LOGGER_CONNECTION.warn("Unsafe method called. Use configuration parameters to set this value instead");
         this.maxRetainSize = maxRetainSize;
     }
+
+    @Override
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    void setMaxSize(int maxSize) {
+        LOGGER_CONNECTION.warn("Unsafe method called. Use configuration parameters to set this value instead");
+        this.maxSize = maxSize;
+    }
+
+    @Override
+    public long getAcquireTimeout() {
+        return acquireTimeout;
+    }
+
+    void setAcquireTimeout(long acquireTimeout) {
+        LOGGER_CONNECTION.warn("Unsafe method called. Use configuration parameters to set this value instead");
+        this.acquireTimeout = acquireTimeout;
+    }
+
+    @Override
+    public long getLeakDetectionThreshold() {
+        return leakDetectionThreshold;
+    }
+
+    void setLeakDetectionThreshold(long leakDetectionThreshold) {
+        LOGGER_CONNECTION.warn("Unsafe method called. Use configuration parameters to set this value instead");
+        this.leakDetectionThreshold = leakDetectionThreshold;
+    }
+
+    void setMaintenanceInterval(long maintenanceInterval) {
+        LOGGER_CONNECTION.warn("Unsafe method called. Use configuration parameters to set this value instead");
+        this.maintenanceInterval = maintenanceInterval;
+    }
+
+    void setValidateOnBorrow(boolean validateOnBorrow) {
+        LOGGER_CONNECTION.warn("Unsafe method called. Use configuration parameters to set this value instead");
+        this.validateOnBorrow = validateOnBorrow;
+    }
+
+    void setValidationBypassWindow(long validationBypassWindow) {
+        LOGGER_CONNECTION.warn("Unsafe method called. Use configuration parameters to set this value instead");
+        this.validationBypassWindow = validationBypassWindow;
+    }
+
+    void setMaxIdleTime(long maxIdleTime) {
+        LOGGER_CONNECTION.warn("Unsafe method called. Use configuration parameters to set this value instead");
+        this.maxIdleTime = maxIdleTime;
+    }
+
+    @Override
+    public int getStatementCacheSize() {
+        return statementCacheSize;
+    }
+
+    void setStatementCacheSize(int statementCacheSize) {
+        LOGGER_CONNECTION.warn("Unsafe method called. Use configuration parameters to set this value instead");
+        this.statementCacheSize = statementCacheSize;
+    }
+
+    @Override
+    public ConnectionPoolMetrics metrics() {
+        return metrics;
+    }
+
+    private static final class Pool {
+
+        private final String uri;
+        private final String user;      // nullable
+        private final char[] password;  // nullable
+        private final Deque<IdleConnection> idle;
+        private final int maxSize;
+        private final Semaphore permits; // null if the pool is unbounded
+
+        private Pool(String uri, String user, char[] password, int maxSize) {
+            this.uri = requireNonNull(uri);
+            this.user = user;
+            this.password = password;
+            this.idle = new ConcurrentLinkedDeque<>();
+            this.maxSize = maxSize;
+            this.permits = maxSize > 0 ? new Semaphore(maxSize, true) : null;
+        }
+    }
+
+    private static final class IdleConnection {
+
+        private final PoolableConnection connection;
+        private final long since;
+
+        private IdleConnection(PoolableConnection connection, long since) {
+            this.connection = requireNonNull(connection);
+            this.since = since;
+        }
+    }
+
+    private static final class Lease {
+
+        private final PoolableConnection connection;
+        private final long leasedAt;
+        private final Throwable origin; // null if leak detection is disabled
+        private volatile boolean reported;
+
+        private Lease(PoolableConnection connection, long leasedAt, Throwable origin) {
+            this.connection = requireNonNull(connection);
+            this.leasedAt = leasedAt;
+            this.origin = origin;
+        }
+    }
 }
@@ -0,0 +1,96 @@
+/**
+ *
+ * Copyright (c) 2006-2018, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.internal.component.cache;
+
+import com.speedment.common.injector.annotation.Inject;
+import com.speedment.runtime.config.identifier.TableIdentifier;
+import com.speedment.runtime.core.component.ManagerComponent;
+import com.speedment.runtime.core.component.cache.EntityCache;
+import com.speedment.runtime.core.component.cache.EntityCacheComponent;
+import com.speedment.runtime.core.component.cache.EntityCacheSettings;
+import com.speedment.runtime.core.manager.Manager;
+import com.speedment.runtime.field.Field;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static java.util.Objects.requireNonNull;
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Default implementation of the {@link EntityCacheComponent} interface.
+ *
+ * @author Per Minborg
+ * @since 3.1.6
+ */
+public final class EntityCacheComponentImpl implements EntityCacheComponent {
+
+    private final Map<TableIdentifier<?>, EntityCache<?>> caches;
+
+    private @Inject ManagerComponent managerComponent;
+
+    public EntityCacheComponentImpl() {
+        this.caches = new ConcurrentHashMap<>();
+    }
+
+    @Override
+    public <ENTITY> EntityCache<ENTITY> enable(TableIdentifier<ENTITY> tableId, EntityCacheSettings settings) {
+        requireNonNull(tableId);
+        requireNonNull(settings);
+        final Manager<ENTITY> manager = managerOf(tableId);
+        final List<Field<ENTITY>> keyFields = manager.primaryKeyFields().collect(toList());
+        if (keyFields.size() != 1) {
+            throw new IllegalArgumentException(
+                "Entity caching requires exactly one primary key column but the table "
+                    + tableId + " has " + keyFields.size() + "."
+            );
+        }
+        final EntityCache<ENTITY> cache = new EntityCacheImpl<>(tableId, keyFields.get(0), settings);
+        caches.put(tableId, cache);
+        return cache;
+    }
+
+    @Override
+    public void disable(TableIdentifier<?> tableId) {
+        requireNonNull(tableId);
+        final EntityCache<?> cache = caches.remove(tableId);
+        if (cache != null) {
+            cache.invalidateAll();
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <ENTITY> Optional<EntityCache<ENTITY>> get(TableIdentifier<ENTITY> tableId) {
+        requireNonNull(tableId);
+        return Optional.ofNullable((EntityCache<ENTITY>) caches.get(tableId));
+    }
+
+    @SuppressWarnings("unchecked")
+    private <ENTITY> Manager<ENTITY> managerOf(TableIdentifier<ENTITY> tableId) {
+        return managerComponent.stream()
+            .filter(m -> tableId.equals(m.getTableIdentifier()))
+            .map(m -> (Manager<ENTITY>) m)
+            .findAny()
+            .orElseThrow(() -> new IllegalArgumentException(
+                "There is no manager for the table " + tableId + "."
+            ));
+    }
+
+}
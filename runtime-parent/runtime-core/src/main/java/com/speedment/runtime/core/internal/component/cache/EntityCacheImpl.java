@@ -0,0 +1,331 @@
+/**
+ *
+ * Copyright (c) 2006-2018, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.internal.component.cache;
+
+import com.speedment.runtime.config.identifier.TableIdentifier;
+import com.speedment.runtime.core.component.cache.EntityCache;
+import com.speedment.runtime.core.component.cache.EntityCacheListener;
+import com.speedment.runtime.core.component.cache.EntityCacheMetrics;
+import com.speedment.runtime.core.component.cache.EntityCacheSettings;
+import com.speedment.runtime.core.component.cache.EvictionPolicy;
+import com.speedment.runtime.field.Field;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Default implementation of the {@link EntityCache} interface.
+ * <p>
+ * For the {@link EvictionPolicy#LEAST_RECENTLY_USED} policy, entries are kept
+ * in an access ordered {@code LinkedHashMap}. For the
+ * {@link EvictionPolicy#LEAST_FREQUENTLY_USED} policy, the keys are also kept
+ * in one insertion ordered bucket per access count so that the entry to evict
+ * can be found in constant time. All operations are guarded by the monitor of
+ * the cache.
+ * <p>
+ * Invalidation generations are kept in a fixed number of stripes that keys
+ * are hashed to, so that no state needs to be kept for keys that are not
+ * cached. Invalidating a key therefore also changes the generation of other
+ * keys in the same stripe, which at worst prevents an entity from being
+ * cached.
+ *
+ * @param <ENTITY> entity type
+ *
+ * @author Per Minborg
+ * @since 3.1.6
+ */
+public final class EntityCacheImpl<ENTITY> implements EntityCache<ENTITY>, EntityCacheMetrics {
+
+    private static final long NEVER = Long.MAX_VALUE;
+    private static final int GENERATION_STRIPES = 64; // Must be a power of two
+
+    private final TableIdentifier<ENTITY> tableId;
+    private final Field<ENTITY> keyField;
+    private final EntityCacheSettings settings;
+    private final EntityCacheListener listener;
+    private final LongSupplier nanoClock;
+    private final long timeToLiveNanos;
+    private final boolean lfu;
+
+    private final Map<Object, Entry<ENTITY>> entries;
+    private final Map<Integer, LinkedHashSet<Object>> frequencies; // Only used by LFU
+    private int minFrequency;
+    private final long[] generations = new long[GENERATION_STRIPES];
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+
+    public EntityCacheImpl(
+        final TableIdentifier<ENTITY> tableId,
+        final Field<ENTITY> keyField,
+        final EntityCacheSettings settings
+    ) {
+        this(tableId, keyField, settings, System::nanoTime);
+    }
+
+    EntityCacheImpl(
+        final TableIdentifier<ENTITY> tableId,
+        final Field<ENTITY> keyField,
+        final EntityCacheSettings settings,
+        final LongSupplier nanoClock
+    ) {
+        this.tableId   = requireNonNull(tableId);
+        this.keyField  = requireNonNull(keyField);
+        this.settings  = requireNonNull(settings);
+        this.listener  = settings.getListener();
+        this.nanoClock = requireNonNull(nanoClock);
+        this.timeToLiveNanos = settings.getTimeToLive()
+            .map(ttl -> ttl.toNanos())
+            .orElse(NEVER);
+        this.lfu = settings.getEvictionPolicy() == EvictionPolicy.LEAST_FREQUENTLY_USED;
+        this.entries = lfu ? new HashMap<>() : new LinkedHashMap<>(16, 0.75f, true);
+        this.frequencies = lfu ? new HashMap<>() : null;
+    }
+
+    @Override
+    public TableIdentifier<ENTITY> getTableIdentifier() {
+        return tableId;
+    }
+
+    @Override
+    public Field<ENTITY> getKeyField() {
+        return keyField;
+    }
+
+    @Override
+    public EntityCacheSettings getSettings() {
+        return settings;
+    }
+
+    @Override
+    public synchronized Optional<ENTITY> get(Object key) {
+        final Entry<ENTITY> entry = key == null ? null : entries.get(key);
+        if (entry == null) {
+            miss();
+            return Optional.empty();
+        }
+        if (entry.expiresAt != NEVER && nanoClock.getAsLong() - entry.expiresAt >= 0) {
+            remove(key);
+            expirations.increment();
+            listener.onExpiration(tableId);
+            miss();
+            return Optional.empty();
+        }
+        if (lfu) {
+            touch(key, entry);
+        }
+        hits.increment();
+        listener.onHit(tableId);
+        return Optional.of(entry.entity);
+    }
+
+    @Override
+    public synchronized void put(ENTITY entity) {
+        requireNonNull(entity);
+        final Object key = keyOf(entity);
+        if (key == null) {
+            return; // The entity has not been assigned a key yet
+        }
+        final long expiresAt = timeToLiveNanos == NEVER
+            ? NEVER
+            : nanoClock.getAsLong() + timeToLiveNanos;
+
+        final Entry<ENTITY> existing = entries.get(key);
+        if (existing != null) {
+            existing.entity = entity;
+            existing.expiresAt = expiresAt;
+            return;
+        }
+        if (entries.size() >= settings.getMaxSize()) {
+            evict();
+        }
+        entries.put(key, new Entry<>(entity, expiresAt));
+        if (lfu) {
+            bucket(1).add(key);
+            minFrequency = 1;
+        }
+    }
+
+    @Override
+    public synchronized long generation(Object key) {
+        return key == null ? 0 : generations[stripe(key)];
+    }
+
+    @Override
+    public synchronized boolean putIfNotInvalidated(ENTITY entity, long generation) {
+        requireNonNull(entity);
+        final Object key = keyOf(entity);
+        if (key == null || generations[stripe(key)] != generation) {
+            return false;
+        }
+        put(entity);
+        return true;
+    }
+
+    @Override
+    public void invalidate(ENTITY entity) {
+        requireNonNull(entity);
+        invalidateKey(keyOf(entity));
+    }
+
+    @Override
+    public synchronized void invalidateKey(Object key) {
+        if (key != null) {
+            generations[stripe(key)]++;
+            remove(key);
+        }
+    }
+
+    @Override
+    public synchronized void invalidateAll() {
+        for (int i = 0; i < generations.length; i++) {
+            generations[i]++;
+        }
+        entries.clear();
+        if (lfu) {
+            frequencies.clear();
+            minFrequency = 0;
+        }
+    }
+
+    @Override
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    @Override
+    public EntityCacheMetrics metrics() {
+        return this;
+    }
+
+    @Override
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    @Override
+    public long missCount() {
+        return misses.sum();
+    }
+
+    @Override
+    public long evictionCount() {
+        return evictions.sum();
+    }
+
+    @Override
+    public long expirationCount() {
+        return expirations.sum();
+    }
+
+    @Override
+    public String toString() {
+        return "EntityCache{" +
+            "table=" + tableId +
+            ", size=" + size() +
+            ", settings=" + settings +
+            '}';
+    }
+
+    private Object keyOf(ENTITY entity) {
+        return keyField.getter().apply(entity);
+    }
+
+    private static int stripe(Object key) {
+        final int h = key.hashCode();
+        return (h ^ (h >>> 16)) & (GENERATION_STRIPES - 1);
+    }
+
+    private void miss() {
+        misses.increment();
+        listener.onMiss(tableId);
+    }
+
+    private void evict() {
+        final Object victim;
+        if (lfu) {
+            LinkedHashSet<Object> bucket = frequencies.get(minFrequency);
+            if (bucket == null) {
+                // The least frequent entry has been invalidated since
+                minFrequency = frequencies.keySet().stream()
+                    .mapToInt(Integer::intValue)
+                    .min()
+                    .getAsInt();
+                bucket = frequencies.get(minFrequency);
+            }
+            victim = bucket.iterator().next();
+        } else {
+            victim = entries.keySet().iterator().next();
+        }
+        remove(victim);
+        evictions.increment();
+        listener.onEviction(tableId);
+    }
+
+    private void remove(Object key) {
+        final Entry<ENTITY> entry = entries.remove(key);
+        if (entry != null && lfu) {
+            final LinkedHashSet<Object> bucket = frequencies.get(entry.frequency);
+            bucket.remove(key);
+            if (bucket.isEmpty()) {
+                frequencies.remove(entry.frequency);
+            }
+        }
+    }
+
+    private void touch(Object key, Entry<ENTITY> entry) {
+        if (entry.frequency == Integer.MAX_VALUE) {
+            return;
+        }
+        final LinkedHashSet<Object> bucket = frequencies.get(entry.frequency);
+        bucket.remove(key);
+        if (bucket.isEmpty()) {
+            frequencies.remove(entry.frequency);
+            if (minFrequency == entry.frequency) {
+                minFrequency++;
+            }
+        }
+        entry.frequency++;
+        bucket(entry.frequency).add(key);
+    }
+
+    private LinkedHashSet<Object> bucket(int frequency) {
+        return frequencies.computeIfAbsent(frequency, f -> new LinkedHashSet<>());
+    }
+
+    private static final class Entry<ENTITY> {
+
+        private ENTITY entity;
+        private long expiresAt;
+        private int frequency = 1;
+
+        private Entry(ENTITY entity, long expiresAt) {
+            this.entity = entity;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+}
@@ -0,0 +1,112 @@
+/**
+ *
+ * Copyright (c) 2006-2018, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.internal.component.cache;
+
+import com.speedment.runtime.core.component.cache.EntityCacheListener;
+import com.speedment.runtime.core.component.cache.EntityCacheSettings;
+import com.speedment.runtime.core.component.cache.EvictionPolicy;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Default implementation of the {@link EntityCacheSettings} interface.
+ *
+ * @author Per Minborg
+ * @since 3.1.6
+ */
+public final class EntityCacheSettingsImpl implements EntityCacheSettings {
+
+    private static final EntityCacheListener NO_LISTENER = new EntityCacheListener() {};
+
+    private final int maxSize;
+    private final Duration timeToLive; // null means never expire
+    private final EvictionPolicy evictionPolicy;
+    private final EntityCacheListener listener;
+
+    public static EntityCacheSettings of(int maxSize) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("maxSize must be positive: " + maxSize);
+        }
+        return new EntityCacheSettingsImpl(maxSize, null, EvictionPolicy.LEAST_RECENTLY_USED, NO_LISTENER);
+    }
+
+    private EntityCacheSettingsImpl(
+        final int maxSize,
+        final Duration timeToLive,
+        final EvictionPolicy evictionPolicy,
+        final EntityCacheListener listener
+    ) {
+        this.maxSize = maxSize;
+        this.timeToLive = timeToLive;
+        this.evictionPolicy = evictionPolicy;
+        this.listener = listener;
+    }
+
+    @Override
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    @Override
+    public Optional<Duration> getTimeToLive() {
+        return Optional.ofNullable(timeToLive);
+    }
+
+    @Override
+    public EvictionPolicy getEvictionPolicy() {
+        return evictionPolicy;
+    }
+
+    @Override
+    public EntityCacheListener getListener() {
+        return listener;
+    }
+
+    @Override
+    public EntityCacheSettings withTimeToLive(Duration timeToLive) {
+        requireNonNull(timeToLive);
+        if (timeToLive.isNegative() || timeToLive.isZero()) {
+            throw new IllegalArgumentException("timeToLive must be positive: " + timeToLive);
+        }
+        return new EntityCacheSettingsImpl(maxSize, timeToLive, evictionPolicy, listener);
+    }
+
+    @Override
+    public EntityCacheSettings withEvictionPolicy(EvictionPolicy evictionPolicy) {
+        requireNonNull(evictionPolicy);
+        return new EntityCacheSettingsImpl(maxSize, timeToLive, evictionPolicy, listener);
+    }
+
+    @Override
+    public EntityCacheSettings withListener(EntityCacheListener listener) {
+        requireNonNull(listener);
+        return new EntityCacheSettingsImpl(maxSize, timeToLive, evictionPolicy, listener);
+    }
+
+    @Override
+    public String toString() {
+        return "EntityCacheSettings{" +
+            "maxSize=" + maxSize +
+            ", timeToLive=" + (timeToLive == null ? "forever" : timeToLive.toString()) +
+            ", evictionPolicy=" + evictionPolicy +
+            '}';
+    }
+
+}
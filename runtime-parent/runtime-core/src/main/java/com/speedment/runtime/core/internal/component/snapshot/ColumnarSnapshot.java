@@ -0,0 +1,405 @@
+/**
+ *
+ * Copyright (c) 2006-2018, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.internal.component.snapshot;
+
+import com.speedment.runtime.config.identifier.ColumnIdentifier;
+import com.speedment.runtime.field.Field;
+import com.speedment.runtime.field.comparator.CombinedComparator;
+import com.speedment.runtime.field.comparator.FieldComparator;
+import com.speedment.runtime.field.predicate.CombinedPredicate;
+import com.speedment.runtime.field.predicate.FieldPredicate;
+
+import java.util.*;
+import java.util.function.IntBinaryOperator;
+import java.util.function.IntPredicate;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static java.util.Collections.emptySet;
+import static java.util.Objects.requireNonNull;
+import static java.util.stream.Collectors.toList;
+
+/**
+ * An immutable, column oriented copy of all rows of a table. Filters and
+ * sort orders that are expressed using fields are evaluated directly on the
+ * columns. Entities are only created for the rows that are actually
+ * streamed, and every streamed entity is a new instance so that modifications
+ * made by the application does not affect the snapshot.
+ * <p>
+ * Sorted indexes can be created for selected columns. The first filter of a
+ * stream is resolved using an index if it is an equality, range, {@code in}
+ * or {@code startsWith} predicate on an indexed column (or a combination of
+ * such predicates), and sorting on an indexed column reads the rows in index
+ * order.
+ *
+ * @author Per Minborg
+ * @param <ENTITY> entity type
+ * @since 3.1.6
+ */
+public final class ColumnarSnapshot<ENTITY> {
+
+    private final Supplier<ENTITY> entityFactory;
+    private final Map<ColumnIdentifier<ENTITY>, SnapshotColumn<ENTITY>> columns;
+    private final Map<ColumnIdentifier<ENTITY>, SnapshotIndex<ENTITY>> indexes;
+    private final int size;
+    private final long loadedAt;
+
+    /**
+     * Creates a new snapshot holding the values of the given fields of the
+     * given entities.
+     *
+     * @param fields        to hold
+     * @param entities      to copy
+     * @param entityFactory that creates new empty entities
+     */
+    public ColumnarSnapshot(
+        final Stream<Field<ENTITY>> fields,
+        final List<ENTITY> entities,
+        final Supplier<ENTITY> entityFactory
+    ) {
+        this(fields, entities, entityFactory, emptySet());
+    }
+
+    /**
+     * Creates a new snapshot holding the values of the given fields of the
+     * given entities with sorted indexes over the given columns.
+     * Indexes are only created for columns of type {@code int}, {@code long},
+     * {@code double} and {@code String}. Other columns are ignored.
+     *
+     * @param fields         to hold
+     * @param entities       to copy
+     * @param entityFactory  that creates new empty entities
+     * @param indexedColumns columns to create indexes over
+     */
+    public ColumnarSnapshot(
+        final Stream<Field<ENTITY>> fields,
+        final List<ENTITY> entities,
+        final Supplier<ENTITY> entityFactory,
+        final Set<ColumnIdentifier<ENTITY>> indexedColumns
+    ) {
+        requireNonNull(fields);
+        requireNonNull(entities);
+        requireNonNull(indexedColumns);
+        this.entityFactory = requireNonNull(entityFactory);
+        this.columns = new LinkedHashMap<>();
+        fields.forEachOrdered(f -> columns.put(f.identifier(), SnapshotColumn.of(f, entities)));
+        this.indexes = new LinkedHashMap<>();
+        columns.forEach((id, column) -> {
+            if (indexedColumns.contains(id)) {
+                column.createIndex().ifPresent(index -> indexes.put(id, index));
+            }
+        });
+        this.size = entities.size();
+        this.loadedAt = System.currentTimeMillis();
+    }
+
+    /**
+     * Returns the number of rows in this snapshot.
+     *
+     * @return the number of rows in this snapshot
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the time this snapshot was loaded in milliseconds since the
+     * epoch.
+     *
+     * @return the time this snapshot was loaded
+     */
+    public long loadedAt() {
+        return loadedAt;
+    }
+
+    /**
+     * Creates and returns a new entity holding the values of the given row.
+     *
+     * @param row to read
+     * @return a new entity
+     */
+    public ENTITY materialize(int row) {
+        final ENTITY entity = entityFactory.get();
+        for (final SnapshotColumn<ENTITY> column : columns.values()) {
+            column.copyTo(entity, row);
+        }
+        return entity;
+    }
+
+    /**
+     * Returns a stream of new entities for the given rows.
+     *
+     * @param rows to stream or {@code null} for all rows
+     * @return a stream of new entities
+     */
+    public Stream<ENTITY> stream(int[] rows) {
+        final IntStream rowStream = rows == null ? IntStream.range(0, size) : Arrays.stream(rows);
+        return rowStream.mapToObj(this::materialize);
+    }
+
+    /**
+     * Returns the rows of the given rows that matches the given predicate or
+     * {@code Optional.empty()} if the predicate can not be evaluated on the
+     * columns of this snapshot. Predicates that can be evaluated are
+     * {@link FieldPredicate}s on fields of the table and
+     * {@link CombinedPredicate}s of such predicates.
+     *
+     * @param rows      to filter or {@code null} for all rows
+     * @param predicate to evaluate
+     * @return the matching rows in the same order
+     */
+    public Optional<int[]> filter(int[] rows, Predicate<?> predicate) {
+        requireNonNull(predicate);
+        final Optional<IntPredicate> matcher = matcher(predicate);
+        if (!matcher.isPresent()) {
+            return Optional.empty();
+        }
+        final int[] candidates;
+        if (rows == null) {
+            // An index is only used for the first filter. Subsequent filters
+            // scan the (often much smaller) result of the previous operations
+            final Optional<int[]> indexed = lookup(predicate);
+            if (indexed.isPresent()) {
+                candidates = indexed.get();
+                Arrays.sort(candidates); // Restore the row order
+                if (predicate instanceof FieldPredicate) {
+                    return Optional.of(candidates); // Exact
+                }
+            } else {
+                candidates = null;
+            }
+        } else {
+            candidates = rows;
+        }
+        return matcher.map(m -> {
+            final int length = candidates == null ? size : candidates.length;
+            final int[] result = new int[length];
+            int count = 0;
+            for (int i = 0; i < length; i++) {
+                final int row = candidates == null ? i : candidates[i];
+                if (m.test(row)) {
+                    result[count++] = row;
+                }
+            }
+            return Arrays.copyOf(result, count);
+        });
+    }
+
+    /**
+     * Returns the given rows sorted according to the given comparator or
+     * {@code Optional.empty()} if the comparator can not be evaluated on the
+     * columns of this snapshot. Comparators that can be evaluated are
+     * {@link FieldComparator}s on fields of the table and
+     * {@link CombinedComparator}s of such comparators. The sort is stable, so
+     * several consecutive sorts yield the same order as the corresponding
+     * {@code sorted()} operations on a sequential stream.
+     *
+     * @param rows       to sort or {@code null} for all rows
+     * @param comparator to sort by
+     * @return the sorted rows
+     */
+    public Optional<int[]> sort(int[] rows, Comparator<?> comparator) {
+        requireNonNull(comparator);
+        final Optional<int[]> indexed = sortUsingIndex(rows, comparator);
+        if (indexed.isPresent()) {
+            return indexed;
+        }
+        return rowComparator(comparator).map(rowComparator -> {
+            final int[] result = rows == null ? IntStream.range(0, size).toArray() : rows.clone();
+            mergeSort(result, rowComparator);
+            return result;
+        });
+    }
+
+    /**
+     * Returns the rows of the given predicate in any order if they can be
+     * looked up using an index, or if the predicate is a
+     * {@link CombinedPredicate} where all rows that match it can be looked up
+     * using an index. In the latter case, the rows must be filtered using the
+     * complete predicate.
+     */
+    private Optional<int[]> lookup(Predicate<?> predicate) {
+        if (predicate instanceof FieldPredicate) {
+            @SuppressWarnings("unchecked")
+            final FieldPredicate<ENTITY> fieldPredicate = (FieldPredicate<ENTITY>) predicate;
+            return index(fieldPredicate.getField()).flatMap(index -> index.lookup(fieldPredicate));
+        } else if (predicate instanceof CombinedPredicate) {
+            final CombinedPredicate<?> combined = (CombinedPredicate<?>) predicate;
+            if (combined.getType() == CombinedPredicate.Type.AND) {
+                // Any indexed term narrows down the candidates
+                return combined.stream()
+                    .map(this::lookup)
+                    .filter(Optional::isPresent)
+                    .map(Optional::get)
+                    .min(Comparator.comparingInt(candidates -> candidates.length));
+            } else {
+                // All terms must be indexed
+                final List<Optional<int[]>> lookups = combined.stream()
+                    .map(this::lookup)
+                    .collect(toList());
+                if (!lookups.stream().allMatch(Optional::isPresent)) {
+                    return Optional.empty();
+                }
+                return Optional.of(lookups.stream()
+                    .map(Optional::get)
+                    .flatMapToInt(Arrays::stream)
+                    .distinct()
+                    .toArray()
+                );
+            }
+        }
+        return Optional.empty();
+    }
+
+    private Optional<int[]> sortUsingIndex(int[] rows, Comparator<?> comparator) {
+        if (!(comparator instanceof FieldComparator)) {
+            return Optional.empty();
+        }
+        @SuppressWarnings("unchecked")
+        final FieldComparator<ENTITY> fieldComparator = (FieldComparator<ENTITY>) comparator;
+        final Optional<SnapshotIndex<ENTITY>> index = index(fieldComparator.getField());
+        if (!index.isPresent()) {
+            return Optional.empty();
+        }
+        if (rows == null) {
+            return index.get().sorted(fieldComparator);
+        }
+        // Reading all rows in index order only pays off if the given rows are
+        // many. It also requires them to be in row order since ties shall
+        // retain their relative order.
+        if ((long) rows.length * (32 - Integer.numberOfLeadingZeros(rows.length)) < size || !isAscending(rows)) {
+            return Optional.empty();
+        }
+        return index.get().sorted(fieldComparator).map(all -> {
+            final BitSet selected = new BitSet(size);
+            Arrays.stream(rows).forEach(selected::set);
+            return Arrays.stream(all).filter(selected::get).toArray();
+        });
+    }
+
+    private static boolean isAscending(int[] rows) {
+        for (int i = 1; i < rows.length; i++) {
+            if (rows[i - 1] > rows[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the indexes of this snapshot.
+     *
+     * @return the indexes of this snapshot
+     */
+    Stream<SnapshotIndex<ENTITY>> indexes() {
+        return indexes.values().stream();
+    }
+
+    private Optional<IntPredicate> matcher(Predicate<?> predicate) {
+        if (predicate instanceof FieldPredicate) {
+            @SuppressWarnings("unchecked")
+            final FieldPredicate<ENTITY> fieldPredicate = (FieldPredicate<ENTITY>) predicate;
+            return column(fieldPredicate.getField())
+                .map(c -> c.matcher(fieldPredicate, entityFactory));
+        } else if (predicate instanceof CombinedPredicate) {
+            final CombinedPredicate<?> combined = (CombinedPredicate<?>) predicate;
+            final List<Optional<IntPredicate>> matchers = combined.stream()
+                .map(this::matcher)
+                .collect(toList());
+            if (!matchers.stream().allMatch(Optional::isPresent)) {
+                return Optional.empty();
+            }
+            return matchers.stream()
+                .map(Optional::get)
+                .reduce(combined.getType() == CombinedPredicate.Type.AND
+                    ? IntPredicate::and
+                    : IntPredicate::or
+                );
+        }
+        return Optional.empty();
+    }
+
+    private Optional<IntBinaryOperator> rowComparator(Comparator<?> comparator) {
+        if (comparator instanceof FieldComparator) {
+            @SuppressWarnings("unchecked")
+            final FieldComparator<ENTITY> fieldComparator = (FieldComparator<ENTITY>) comparator;
+            return column(fieldComparator.getField())
+                .map(c -> c.comparator(fieldComparator, entityFactory));
+        } else if (comparator instanceof CombinedComparator) {
+            final List<Optional<IntBinaryOperator>> comparators = ((CombinedComparator<?>) comparator).stream()
+                .map(this::rowComparator)
+                .collect(toList());
+            if (comparators.isEmpty() || !comparators.stream().allMatch(Optional::isPresent)) {
+                return Optional.empty();
+            }
+            return comparators.stream()
+                .map(Optional::get)
+                .reduce((first, second) -> (a, b) -> {
+                    final int c = first.applyAsInt(a, b);
+                    return c == 0 ? second.applyAsInt(a, b) : c;
+                });
+        }
+        return Optional.empty();
+    }
+
+    private Optional<SnapshotColumn<ENTITY>> column(Field<ENTITY> field) {
+        return Optional.ofNullable(columns.get(field.identifier()));
+    }
+
+    private Optional<SnapshotIndex<ENTITY>> index(Field<ENTITY> field) {
+        return Optional.ofNullable(indexes.get(field.identifier()));
+    }
+
+    /**
+     * Stable sort of the given rows using the given comparator.
+     *
+     * @param rows       to sort
+     * @param comparator of rows
+     */
+    static void mergeSort(int[] rows, IntBinaryOperator comparator) {
+        mergeSort(rows, new int[rows.length], 0, rows.length, comparator);
+    }
+
+    /**
+     * Stable merge sort of {@code rows[from, to)} using {@code buffer} as
+     * temporary storage.
+     */
+    private static void mergeSort(int[] rows, int[] buffer, int from, int to, IntBinaryOperator comparator) {
+        if (to - from < 2) {
+            return;
+        }
+        final int middle = (from + to) >>> 1;
+        mergeSort(rows, buffer, from, middle, comparator);
+        mergeSort(rows, buffer, middle, to, comparator);
+        if (comparator.applyAsInt(rows[middle - 1], rows[middle]) <= 0) {
+            return; // Already in order
+        }
+        System.arraycopy(rows, from, buffer, from, to - from);
+        int left = from;
+        int right = middle;
+        for (int i = from; i < to; i++) {
+            if (right >= to || (left < middle && comparator.applyAsInt(buffer[left], buffer[right]) <= 0)) {
+                rows[i] = buffer[left++];
+            } else {
+                rows[i] = buffer[right++];
+            }
+        }
+    }
+
+}
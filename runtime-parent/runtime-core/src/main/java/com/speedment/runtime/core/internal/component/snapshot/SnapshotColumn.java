@@ -0,0 +1,332 @@
+/**
+ *
+ * Copyright (c) 2006-2018, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.internal.component.snapshot;
+
+import com.speedment.common.tuple.Tuple1;
+import com.speedment.runtime.field.Field;
+import com.speedment.runtime.field.comparator.FieldComparator;
+import com.speedment.runtime.field.predicate.FieldPredicate;
+import com.speedment.runtime.field.trait.HasDoubleValue;
+import com.speedment.runtime.field.trait.HasIntValue;
+import com.speedment.runtime.field.trait.HasLongValue;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.function.IntBinaryOperator;
+import java.util.function.IntPredicate;
+import java.util.function.Supplier;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * The values of a single field for all rows of a {@link ColumnarSnapshot}.
+ * Fields of type {@code int}, {@code long} and {@code double} are stored in
+ * primitive arrays. All other fields are stored in an {@code Object} array.
+ *
+ * @author Per Minborg
+ * @param <ENTITY> entity type
+ * @since 3.1.6
+ */
+abstract class SnapshotColumn<ENTITY> {
+
+    private final Field<ENTITY> field;
+
+    private SnapshotColumn(Field<ENTITY> field) {
+        this.field = requireNonNull(field);
+    }
+
+    /**
+     * Creates and returns a new column holding the values of the given field
+     * of the given entities.
+     *
+     * @param <ENTITY> entity type
+     * @param field    to read
+     * @param entities to read from
+     * @return a new column
+     */
+    @SuppressWarnings("unchecked")
+    static <ENTITY> SnapshotColumn<ENTITY> of(Field<ENTITY> field, List<ENTITY> entities) {
+        if (field instanceof HasIntValue) {
+            return new IntColumn<>((HasIntValue<ENTITY, ?>) field, entities);
+        } else if (field instanceof HasLongValue) {
+            return new LongColumn<>((HasLongValue<ENTITY, ?>) field, entities);
+        } else if (field instanceof HasDoubleValue) {
+            return new DoubleColumn<>((HasDoubleValue<ENTITY, ?>) field, entities);
+        } else {
+            return new ReferenceColumn<>(field, entities);
+        }
+    }
+
+    Field<ENTITY> field() {
+        return field;
+    }
+
+    /**
+     * Sets the value of the given row in the given entity.
+     *
+     * @param entity to set the value in
+     * @param row    to read
+     */
+    abstract void copyTo(ENTITY entity, int row);
+
+    /**
+     * Creates and returns a new sorted index over this column or
+     * {@code Optional.empty()} if columns of this type can not be indexed.
+     *
+     * @return a new index or {@code Optional.empty()}
+     */
+    abstract Optional<SnapshotIndex<ENTITY>> createIndex();
+
+    /**
+     * Returns a matcher that tests rows against the given predicate. The
+     * predicate must be a predicate on the field of this column.
+     * <p>
+     * Predicates that can not be evaluated directly on the column are tested
+     * against a scratch entity in which only the value of this column is
+     * set, so the returned matcher must not be used by several threads at the
+     * same time.
+     *
+     * @param predicate to test
+     * @param factory   that creates scratch entities
+     * @return a matcher
+     */
+    IntPredicate matcher(FieldPredicate<ENTITY> predicate, Supplier<ENTITY> factory) {
+        final ENTITY scratch = factory.get();
+        return row -> {
+            copyTo(scratch, row);
+            return predicate.test(scratch);
+        };
+    }
+
+    /**
+     * Returns a comparator of rows that orders them the same way as the given
+     * comparator orders entities. The comparator must be a comparator on the
+     * field of this column. The returned comparator must not be used by
+     * several threads at the same time.
+     *
+     * @param comparator to emulate
+     * @param factory    that creates scratch entities
+     * @return a comparator of rows
+     */
+    IntBinaryOperator comparator(FieldComparator<ENTITY> comparator, Supplier<ENTITY> factory) {
+        final ENTITY first = factory.get();
+        final ENTITY second = factory.get();
+        return (a, b) -> {
+            copyTo(first, a);
+            copyTo(second, b);
+            return comparator.compare(first, second);
+        };
+    }
+
+    /**
+     * Returns the operand of the given predicate if it is a simple comparison
+     * with a number (such as {@code ID.greaterThan(10)}).
+     */
+    private static Optional<Number> comparisonOperand(FieldPredicate<?> predicate) {
+        switch (predicate.getPredicateType()) {
+            case EQUAL:
+            case NOT_EQUAL:
+            case GREATER_THAN:
+            case GREATER_OR_EQUAL:
+            case LESS_THAN:
+            case LESS_OR_EQUAL: {
+                if (predicate instanceof Tuple1) {
+                    final Object operand = ((Tuple1<?>) predicate).get0();
+                    if (operand instanceof Number) {
+                        return Optional.of((Number) operand);
+                    }
+                }
+                return Optional.empty();
+            }
+            default: return Optional.empty();
+        }
+    }
+
+    private static final class IntColumn<ENTITY> extends SnapshotColumn<ENTITY> {
+
+        private final HasIntValue<ENTITY, ?> field;
+        private final int[] values;
+
+        private IntColumn(HasIntValue<ENTITY, ?> field, List<ENTITY> entities) {
+            super(field);
+            this.field = field;
+            this.values = new int[entities.size()];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = field.getAsInt(entities.get(i));
+            }
+        }
+
+        @Override
+        void copyTo(ENTITY entity, int row) {
+            field.setter().setAsInt(entity, values[row]);
+        }
+
+        @Override
+        Optional<SnapshotIndex<ENTITY>> createIndex() {
+            return Optional.of(SnapshotIndex.ofInts(field, values));
+        }
+
+        @Override
+        IntPredicate matcher(FieldPredicate<ENTITY> predicate, Supplier<ENTITY> factory) {
+            final Optional<Number> operand = comparisonOperand(predicate);
+            if (!operand.isPresent()) {
+                return super.matcher(predicate, factory);
+            }
+            final int value = operand.get().intValue();
+            switch (predicate.getPredicateType()) {
+                case EQUAL:            return row -> values[row] == value;
+                case NOT_EQUAL:        return row -> values[row] != value;
+                case GREATER_THAN:     return row -> values[row] > value;
+                case GREATER_OR_EQUAL: return row -> values[row] >= value;
+                case LESS_THAN:        return row -> values[row] < value;
+                case LESS_OR_EQUAL:    return row -> values[row] <= value;
+                default: throw new IllegalStateException(predicate.getPredicateType().name());
+            }
+        }
+
+        @Override
+        IntBinaryOperator comparator(FieldComparator<ENTITY> comparator, Supplier<ENTITY> factory) {
+            return comparator.isReversed()
+                ? (a, b) -> Integer.compare(values[b], values[a])
+                : (a, b) -> Integer.compare(values[a], values[b]);
+        }
+    }
+
+    private static final class LongColumn<ENTITY> extends SnapshotColumn<ENTITY> {
+
+        private final HasLongValue<ENTITY, ?> field;
+        private final long[] values;
+
+        private LongColumn(HasLongValue<ENTITY, ?> field, List<ENTITY> entities) {
+            super(field);
+            this.field = field;
+            this.values = new long[entities.size()];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = field.getAsLong(entities.get(i));
+            }
+        }
+
+        @Override
+        void copyTo(ENTITY entity, int row) {
+            field.setter().setAsLong(entity, values[row]);
+        }
+
+        @Override
+        Optional<SnapshotIndex<ENTITY>> createIndex() {
+            return Optional.of(SnapshotIndex.ofLongs(field, values));
+        }
+
+        @Override
+        IntPredicate matcher(FieldPredicate<ENTITY> predicate, Supplier<ENTITY> factory) {
+            final Optional<Number> operand = comparisonOperand(predicate);
+            if (!operand.isPresent()) {
+                return super.matcher(predicate, factory);
+            }
+            final long value = operand.get().longValue();
+            switch (predicate.getPredicateType()) {
+                case EQUAL:            return row -> values[row] == value;
+                case NOT_EQUAL:        return row -> values[row] != value;
+                case GREATER_THAN:     return row -> values[row] > value;
+                case GREATER_OR_EQUAL: return row -> values[row] >= value;
+                case LESS_THAN:        return row -> values[row] < value;
+                case LESS_OR_EQUAL:    return row -> values[row] <= value;
+                default: throw new IllegalStateException(predicate.getPredicateType().name());
+            }
+        }
+
+        @Override
+        IntBinaryOperator comparator(FieldComparator<ENTITY> comparator, Supplier<ENTITY> factory) {
+            return comparator.isReversed()
+                ? (a, b) -> Long.compare(values[b], values[a])
+                : (a, b) -> Long.compare(values[a], values[b]);
+        }
+    }
+
+    private static final class DoubleColumn<ENTITY> extends SnapshotColumn<ENTITY> {
+
+        private final HasDoubleValue<ENTITY, ?> field;
+        private final double[] values;
+
+        private DoubleColumn(HasDoubleValue<ENTITY, ?> field, List<ENTITY> entities) {
+            super(field);
+            this.field = field;
+            this.values = new double[entities.size()];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = field.getAsDouble(entities.get(i));
+            }
+        }
+
+        @Override
+        void copyTo(ENTITY entity, int row) {
+            field.setter().setAsDouble(entity, values[row]);
+        }
+
+        @Override
+        Optional<SnapshotIndex<ENTITY>> createIndex() {
+            return Optional.of(SnapshotIndex.ofDoubles(field, values));
+        }
+
+        @Override
+        IntPredicate matcher(FieldPredicate<ENTITY> predicate, Supplier<ENTITY> factory) {
+            final Optional<Number> operand = comparisonOperand(predicate);
+            if (!operand.isPresent()) {
+                return super.matcher(predicate, factory);
+            }
+            final double value = operand.get().doubleValue();
+            switch (predicate.getPredicateType()) {
+                case EQUAL:            return row -> values[row] == value;
+                case NOT_EQUAL:        return row -> values[row] != value;
+                case GREATER_THAN:     return row -> values[row] > value;
+                case GREATER_OR_EQUAL: return row -> values[row] >= value;
+                case LESS_THAN:        return row -> values[row] < value;
+                case LESS_OR_EQUAL:    return row -> values[row] <= value;
+                default: throw new IllegalStateException(predicate.getPredicateType().name());
+            }
+        }
+
+        @Override
+        IntBinaryOperator comparator(FieldComparator<ENTITY> comparator, Supplier<ENTITY> factory) {
+            return comparator.isReversed()
+                ? (a, b) -> Double.compare(values[b], values[a])
+                : (a, b) -> Double.compare(values[a], values[b]);
+        }
+    }
+
+    private static final class ReferenceColumn<ENTITY> extends SnapshotColumn<ENTITY> {
+
+        private final Object[] values;
+
+        private ReferenceColumn(Field<ENTITY> field, List<ENTITY> entities) {
+            super(field);
+            this.values = new Object[entities.size()];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = field.getter().apply(entities.get(i));
+            }
+        }
+
+        @Override
+        void copyTo(ENTITY entity, int row) {
+            field().setter().set(entity, values[row]);
+        }
+
+        @Override
+        Optional<SnapshotIndex<ENTITY>> createIndex() {
+            return SnapshotIndex.ofStrings(field(), values);
+        }
+    }
+
+}
@@ -0,0 +1,520 @@
+/**
+ *
+ * Copyright (c) 2006-2018, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.internal.component.snapshot;
+
+import com.speedment.common.tuple.Tuple1;
+import com.speedment.common.tuple.Tuple2;
+import com.speedment.runtime.field.Field;
+import com.speedment.runtime.field.comparator.FieldComparator;
+import com.speedment.runtime.field.internal.predicate.BetweenPredicate;
+import com.speedment.runtime.field.predicate.FieldPredicate;
+import com.speedment.runtime.field.predicate.Inclusion;
+
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.IntBinaryOperator;
+import java.util.function.IntPredicate;
+import java.util.function.Supplier;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A sorted secondary index over a single column of a
+ * {@link ColumnarSnapshot}. The index holds the rows of the snapshot ordered
+ * by their key (with ties in row order) together with a copy of the keys in
+ * that order, so that equality, range, {@code in} and {@code startsWith}
+ * predicates can be resolved using binary search and {@code sorted()}
+ * operations can be resolved by reading the rows in index order.
+ * <p>
+ * Indexes are supported for columns of type {@code int}, {@code long},
+ * {@code double} and {@code String}.
+ *
+ * @author Per Minborg
+ * @param <ENTITY> entity type
+ * @since 3.1.6
+ */
+abstract class SnapshotIndex<ENTITY> {
+
+    private final Field<ENTITY> field;
+    /**
+     * The rows of the snapshot ordered by key.
+     */
+    final int[] order;
+    private long buildNanos;
+
+    private SnapshotIndex(Field<ENTITY> field, int[] order) {
+        this.field = requireNonNull(field);
+        this.order = requireNonNull(order);
+    }
+
+    static <ENTITY> SnapshotIndex<ENTITY> ofInts(Field<ENTITY> field, int[] values) {
+        return timed(() -> new IntIndex<>(field, values));
+    }
+
+    static <ENTITY> SnapshotIndex<ENTITY> ofLongs(Field<ENTITY> field, long[] values) {
+        return timed(() -> new LongIndex<>(field, values));
+    }
+
+    static <ENTITY> SnapshotIndex<ENTITY> ofDoubles(Field<ENTITY> field, double[] values) {
+        return timed(() -> new DoubleIndex<>(field, values));
+    }
+
+    /**
+     * Creates and returns a new index over the given values or
+     * {@code Optional.empty()} if any of the non-null values is not a
+     * {@code String}.
+     *
+     * @param <ENTITY> entity type
+     * @param field    that is indexed
+     * @param values   to index
+     * @return a new index or {@code Optional.empty()}
+     */
+    static <ENTITY> Optional<SnapshotIndex<ENTITY>> ofStrings(Field<ENTITY> field, Object[] values) {
+        if (!Arrays.stream(values).allMatch(v -> v == null || v instanceof String)) {
+            return Optional.empty();
+        }
+        return Optional.of(timed(() -> new StringIndex<>(field, values)));
+    }
+
+    private static <ENTITY> SnapshotIndex<ENTITY> timed(Supplier<SnapshotIndex<ENTITY>> constructor) {
+        final long start = System.nanoTime();
+        final SnapshotIndex<ENTITY> index = constructor.get();
+        index.buildNanos = System.nanoTime() - start;
+        return index;
+    }
+
+    Field<ENTITY> field() {
+        return field;
+    }
+
+    /**
+     * Returns the time it took to build this index in nanoseconds.
+     *
+     * @return the time it took to build this index
+     */
+    long buildNanos() {
+        return buildNanos;
+    }
+
+    /**
+     * Returns the approximate number of bytes used by the arrays of this
+     * index, not counting objects that are shared with the snapshot.
+     *
+     * @return the approximate number of bytes used by this index
+     */
+    abstract long memoryUsage();
+
+    /**
+     * Returns the rows that match the given predicate, in index order, or
+     * {@code Optional.empty()} if the predicate can not be resolved using
+     * this index. The predicate must be a predicate on the field of this
+     * index.
+     *
+     * @param predicate to resolve
+     * @return the matching rows in index order or {@code Optional.empty()}
+     */
+    Optional<int[]> lookup(FieldPredicate<ENTITY> predicate) {
+        switch (predicate.getPredicateType()) {
+            case EQUAL:
+            case GREATER_THAN:
+            case GREATER_OR_EQUAL:
+            case LESS_THAN:
+            case LESS_OR_EQUAL:
+            case STARTS_WITH: {
+                if (!(predicate instanceof Tuple1)) {
+                    return Optional.empty();
+                }
+                final Object operand = ((Tuple1<?>) predicate).get0();
+                if (!isSupportedOperand(operand)) {
+                    return Optional.empty();
+                }
+                switch (predicate.getPredicateType()) {
+                    case EQUAL:            return Optional.of(rows(lowerBound(operand), upperBound(operand)));
+                    case GREATER_THAN:     return Optional.of(rows(upperBound(operand), end()));
+                    case GREATER_OR_EQUAL: return Optional.of(rows(lowerBound(operand), end()));
+                    case LESS_THAN:        return Optional.of(rows(0, lowerBound(operand)));
+                    case LESS_OR_EQUAL:    return Optional.of(rows(0, upperBound(operand)));
+                    case STARTS_WITH:      return startsWith(operand);
+                    default: throw new IllegalStateException(predicate.getPredicateType().name());
+                }
+            }
+            case BETWEEN: {
+                if (!(predicate instanceof Tuple2 && predicate instanceof BetweenPredicate)) {
+                    return Optional.empty();
+                }
+                final Object from = ((Tuple2<?, ?>) predicate).get0();
+                final Object to = ((Tuple2<?, ?>) predicate).get1();
+                if (!isSupportedOperand(from) || !isSupportedOperand(to)) {
+                    return Optional.empty();
+                }
+                final Inclusion inclusion = ((BetweenPredicate) predicate).getInclusion();
+                final int start = inclusion.isStartInclusive() ? lowerBound(from) : upperBound(from);
+                final int end = inclusion.isEndInclusive() ? upperBound(to) : lowerBound(to);
+                return Optional.of(rows(start, Math.max(start, end)));
+            }
+            case IN: {
+                if (!(predicate instanceof Tuple1) || !(((Tuple1<?>) predicate).get0() instanceof Set)) {
+                    return Optional.empty();
+                }
+                final Set<?> operands = (Set<?>) ((Tuple1<?>) predicate).get0();
+                if (!operands.stream().allMatch(this::isSupportedOperand)) {
+                    return Optional.empty();
+                }
+                return Optional.of(operands.stream()
+                    .map(o -> rows(lowerBound(o), upperBound(o)))
+                    .flatMapToInt(Arrays::stream)
+                    .toArray()
+                );
+            }
+            default: return Optional.empty();
+        }
+    }
+
+    /**
+     * Returns all rows ordered the same way as a stable sort with the given
+     * comparator would order them or {@code Optional.empty()} if the
+     * comparator can not be resolved using this index. The comparator must
+     * be a comparator on the field of this index.
+     *
+     * @param comparator to resolve
+     * @return all rows in comparator order or {@code Optional.empty()}
+     */
+    Optional<int[]> sorted(FieldComparator<ENTITY> comparator) {
+        if (end() != order.length && !isTotallyOrdered()) {
+            return Optional.empty();
+        }
+        if (!comparator.isReversed()) {
+            return Optional.of(order.clone());
+        }
+        // Equal keys shall retain their relative order
+        final int[] result = new int[order.length];
+        int pos = 0;
+        int groupEnd = order.length;
+        while (groupEnd > 0) {
+            int groupStart = groupEnd - 1;
+            while (groupStart > 0 && compareKeys(groupStart - 1, groupEnd - 1) == 0) {
+                groupStart--;
+            }
+            System.arraycopy(order, groupStart, result, pos, groupEnd - groupStart);
+            pos += groupEnd - groupStart;
+            groupEnd = groupStart;
+        }
+        return Optional.of(result);
+    }
+
+    /**
+     * Returns the index positions {@code [0, end())} that predicates can
+     * match. Positions after that hold keys that no comparison matches (such
+     * as {@code null} or {@code NaN}).
+     */
+    abstract int end();
+
+    /**
+     * Returns if the positions after {@link #end()} are ordered the way the
+     * comparators of the field orders them.
+     */
+    abstract boolean isTotallyOrdered();
+
+    abstract boolean isSupportedOperand(Object operand);
+
+    /**
+     * Returns the first position in {@code [0, end())} with a key greater
+     * than or equal to the given operand.
+     */
+    abstract int lowerBound(Object operand);
+
+    /**
+     * Returns the first position in {@code [0, end())} with a key greater
+     * than the given operand.
+     */
+    abstract int upperBound(Object operand);
+
+    /**
+     * Compares the keys at the given positions the same way the comparators
+     * of the field does.
+     */
+    abstract int compareKeys(int position1, int position2);
+
+    Optional<int[]> startsWith(Object prefix) {
+        return Optional.empty();
+    }
+
+    final int[] rows(int from, int to) {
+        return Arrays.copyOfRange(order, from, to);
+    }
+
+    /**
+     * Returns the rows from 0 to {@code rowCount} sorted by the given
+     * comparator, with ties in row order.
+     */
+    private static int[] sortedRows(int rowCount, IntBinaryOperator comparator) {
+        final int[] rows = new int[rowCount];
+        Arrays.setAll(rows, i -> i);
+        ColumnarSnapshot.mergeSort(rows, comparator);
+        return rows;
+    }
+
+    /**
+     * Binary search for the first position in {@code [0, end)} for which the
+     * given monotonic condition holds.
+     */
+    private static int firstMatching(int end, IntPredicate condition) {
+        int low = 0;
+        int high = end;
+        while (low < high) {
+            final int middle = (low + high) >>> 1;
+            if (condition.test(middle)) {
+                high = middle;
+            } else {
+                low = middle + 1;
+            }
+        }
+        return low;
+    }
+
+    private static final class IntIndex<ENTITY> extends SnapshotIndex<ENTITY> {
+
+        private final int[] keys;
+
+        private IntIndex(Field<ENTITY> field, int[] values) {
+            super(field, sortedInts(values));
+            this.keys = Arrays.stream(order).map(row -> values[row]).toArray();
+        }
+
+        /**
+         * Sorts by packing the key and the row into a long so that a
+         * primitive sort can be used.
+         */
+        private static int[] sortedInts(int[] values) {
+            final long[] packed = new long[values.length];
+            for (int row = 0; row < values.length; row++) {
+                packed[row] = ((long) values[row] << 32) | row;
+            }
+            Arrays.sort(packed);
+            final int[] result = new int[values.length];
+            for (int i = 0; i < packed.length; i++) {
+                result[i] = (int) packed[i];
+            }
+            return result;
+        }
+
+        @Override
+        long memoryUsage() {
+            return 4L * order.length + 4L * keys.length;
+        }
+
+        @Override
+        int end() {
+            return keys.length;
+        }
+
+        @Override
+        boolean isTotallyOrdered() {
+            return true;
+        }
+
+        @Override
+        boolean isSupportedOperand(Object operand) {
+            return operand instanceof Integer;
+        }
+
+        @Override
+        int lowerBound(Object operand) {
+            final int value = (Integer) operand;
+            return firstMatching(keys.length, i -> keys[i] >= value);
+        }
+
+        @Override
+        int upperBound(Object operand) {
+            final int value = (Integer) operand;
+            return firstMatching(keys.length, i -> keys[i] > value);
+        }
+
+        @Override
+        int compareKeys(int position1, int position2) {
+            return Integer.compare(keys[position1], keys[position2]);
+        }
+    }
+
+    private static final class LongIndex<ENTITY> extends SnapshotIndex<ENTITY> {
+
+        private final long[] keys;
+
+        private LongIndex(Field<ENTITY> field, long[] values) {
+            super(field, sortedRows(values.length, (a, b) -> Long.compare(values[a], values[b])));
+            this.keys = Arrays.stream(order).mapToLong(row -> values[row]).toArray();
+        }
+
+        @Override
+        long memoryUsage() {
+            return 4L * order.length + 8L * keys.length;
+        }
+
+        @Override
+        int end() {
+            return keys.length;
+        }
+
+        @Override
+        boolean isTotallyOrdered() {
+            return true;
+        }
+
+        @Override
+        boolean isSupportedOperand(Object operand) {
+            return operand instanceof Long;
+        }
+
+        @Override
+        int lowerBound(Object operand) {
+            final long value = (Long) operand;
+            return firstMatching(keys.length, i -> keys[i] >= value);
+        }
+
+        @Override
+        int upperBound(Object operand) {
+            final long value = (Long) operand;
+            return firstMatching(keys.length, i -> keys[i] > value);
+        }
+
+        @Override
+        int compareKeys(int position1, int position2) {
+            return Long.compare(keys[position1], keys[position2]);
+        }
+    }
+
+    private static final class DoubleIndex<ENTITY> extends SnapshotIndex<ENTITY> {
+
+        private final double[] keys;
+        private final int end;
+
+        private DoubleIndex(Field<ENTITY> field, double[] values) {
+            super(field, sortedRows(values.length, (a, b) -> Double.compare(values[a], values[b])));
+            this.keys = Arrays.stream(order).mapToDouble(row -> values[row]).toArray();
+            // Double.compare orders NaN last. NaN is not matched by any comparison.
+            this.end = firstMatching(keys.length, i -> Double.isNaN(keys[i]));
+        }
+
+        @Override
+        long memoryUsage() {
+            return 4L * order.length + 8L * keys.length;
+        }
+
+        @Override
+        int end() {
+            return end;
+        }
+
+        @Override
+        boolean isTotallyOrdered() {
+            return true; // Double.compare is used both for the index and by the comparators
+        }
+
+        @Override
+        boolean isSupportedOperand(Object operand) {
+            return operand instanceof Double && !((Double) operand).isNaN();
+        }
+
+        @Override
+        int lowerBound(Object operand) {
+            final double value = (Double) operand;
+            return firstMatching(end, i -> keys[i] >= value);
+        }
+
+        @Override
+        int upperBound(Object operand) {
+            final double value = (Double) operand;
+            return firstMatching(end, i -> keys[i] > value);
+        }
+
+        @Override
+        int compareKeys(int position1, int position2) {
+            return Double.compare(keys[position1], keys[position2]);
+        }
+    }
+
+    private static final class StringIndex<ENTITY> extends SnapshotIndex<ENTITY> {
+
+        private final String[] keys;
+        private final int end;
+
+        private StringIndex(Field<ENTITY> field, Object[] values) {
+            super(field, sortedRows(values.length, (a, b) -> compareNullsLast((String) values[a], (String) values[b])));
+            this.keys = Arrays.stream(order).mapToObj(row -> (String) values[row]).toArray(String[]::new);
+            this.end = firstMatching(keys.length, i -> keys[i] == null);
+        }
+
+        private static int compareNullsLast(String a, String b) {
+            if (a == null) {
+                return b == null ? 0 : 1;
+            }
+            return b == null ? -1 : a.compareTo(b);
+        }
+
+        @Override
+        long memoryUsage() {
+            // The strings themselves are shared with the snapshot
+            return 4L * order.length + 8L * keys.length;
+        }
+
+        @Override
+        int end() {
+            return end;
+        }
+
+        @Override
+        boolean isTotallyOrdered() {
+            return false; // The comparators decide where null values go
+        }
+
+        @Override
+        boolean isSupportedOperand(Object operand) {
+            return operand instanceof String;
+        }
+
+        @Override
+        int lowerBound(Object operand) {
+            final String value = (String) operand;
+            return firstMatching(end, i -> keys[i].compareTo(value) >= 0);
+        }
+
+        @Override
+        int upperBound(Object operand) {
+            final String value = (String) operand;
+            return firstMatching(end, i -> keys[i].compareTo(value) > 0);
+        }
+
+        @Override
+        int compareKeys(int position1, int position2) {
+            return compareNullsLast(keys[position1], keys[position2]);
+        }
+
+        @Override
+        Optional<int[]> startsWith(Object prefix) {
+            final String value = (String) prefix;
+            // All strings that start with the prefix follow directly after it
+            final int start = lowerBound(value);
+            int to = start;
+            while (to < end && keys[to].startsWith(value)) {
+                to++;
+            }
+            return Optional.of(rows(start, to));
+        }
+    }
+
+}
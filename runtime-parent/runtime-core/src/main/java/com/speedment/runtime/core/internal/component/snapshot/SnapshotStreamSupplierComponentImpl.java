@@ -0,0 +1,326 @@
+/**
+ *
+ * Copyright (c) 2006-2018, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.internal.component.snapshot;
+
+import com.speedment.common.injector.Injector;
+import com.speedment.common.injector.annotation.Config;
+import com.speedment.common.injector.annotation.ExecuteBefore;
+import com.speedment.common.injector.annotation.Inject;
+import com.speedment.common.logger.Logger;
+import com.speedment.common.logger.LoggerManager;
+import com.speedment.runtime.config.Index;
+import com.speedment.runtime.config.IndexColumn;
+import com.speedment.runtime.config.identifier.ColumnIdentifier;
+import com.speedment.runtime.config.identifier.TableIdentifier;
+import com.speedment.runtime.config.trait.HasOrdinalPosition;
+import com.speedment.runtime.config.util.DocumentDbUtil;
+import com.speedment.runtime.core.component.ManagerComponent;
+import com.speedment.runtime.core.component.ProjectComponent;
+import com.speedment.runtime.core.component.snapshot.SnapshotStreamSupplierComponent;
+import com.speedment.runtime.core.component.sql.SqlStreamSupplierComponent;
+import com.speedment.runtime.core.component.transaction.TransactionComponent;
+import com.speedment.runtime.core.db.FetchHints;
+import com.speedment.runtime.core.exception.SpeedmentException;
+import com.speedment.runtime.core.internal.stream.builder.ReferenceStreamBuilder;
+import com.speedment.runtime.core.internal.stream.builder.pipeline.PipelineImpl;
+import com.speedment.runtime.core.manager.Manager;
+import com.speedment.runtime.core.stream.parallel.ParallelStrategy;
+import com.speedment.runtime.field.Field;
+
+import java.lang.reflect.Constructor;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import static com.speedment.common.injector.State.STARTED;
+import static com.speedment.common.injector.State.STOPPED;
+import static com.speedment.runtime.core.stream.parallel.ParallelStrategy.computeIntensityDefault;
+import static java.util.Collections.emptySet;
+import static java.util.Objects.requireNonNull;
+import static java.util.stream.Collectors.toList;
+import static java.util.stream.Collectors.toSet;
+
+/**
+ * Default implementation of the {@link SnapshotStreamSupplierComponent}
+ * interface.
+ *
+ * @author Per Minborg
+ * @since 3.1.6
+ */
+public final class SnapshotStreamSupplierComponentImpl implements SnapshotStreamSupplierComponent {
+
+    private static final Logger LOGGER = LoggerManager.getLogger(SnapshotStreamSupplierComponentImpl.class);
+
+    private final Map<TableIdentifier<?>, ColumnarSnapshot<?>> snapshots;
+    private final Object loadLock;
+
+    @Config(name = "snapshot.tables", value = "")
+    private String tables;
+    @Config(name = "snapshot.refreshInterval", value = "0")
+    private long refreshInterval;
+
+    private @Inject SqlStreamSupplierComponent sqlStreamSupplierComponent;
+    private @Inject ManagerComponent managerComponent;
+    private @Inject ProjectComponent projectComponent;
+    private TransactionComponent transactionComponent;
+    private Set<TableIdentifier<?>> configuredTables;
+    private ScheduledExecutorService refreshScheduler;
+
+    public SnapshotStreamSupplierComponentImpl() {
+        this.snapshots = new ConcurrentHashMap<>();
+        this.loadLock = new Object();
+    }
+
+    @ExecuteBefore(STARTED)
+    void startRefresh(Injector injector) {
+        transactionComponent = injector.get(TransactionComponent.class).orElse(null);
+        configuredTables = Stream.of(tables.split(","))
+            .map(String::trim)
+            .filter(s -> !s.isEmpty())
+            .map(SnapshotStreamSupplierComponentImpl::parseTableIdentifier)
+            .collect(toSet());
+
+        if (refreshInterval > 0) {
+            refreshScheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+                final Thread t = new Thread(r, "speedment-snapshot-refresh");
+                t.setDaemon(true);
+                return t;
+            });
+            refreshScheduler.scheduleWithFixedDelay(
+                this::refreshLogged,
+                refreshInterval,
+                refreshInterval,
+                TimeUnit.MILLISECONDS
+            );
+        }
+    }
+
+    @ExecuteBefore(STOPPED)
+    void stopRefresh() {
+        if (refreshScheduler != null) {
+            refreshScheduler.shutdownNow();
+            refreshScheduler = null;
+        }
+        snapshots.clear();
+    }
+
+    @Override
+    public <ENTITY> Stream<ENTITY> stream(TableIdentifier<ENTITY> tableIdentifier, ParallelStrategy strategy) {
+        requireNonNull(tableIdentifier);
+        requireNonNull(strategy);
+        final Optional<ColumnarSnapshot<ENTITY>> snapshot = snapshotOf(tableIdentifier);
+        if (snapshot.isPresent()) {
+            return stream(snapshot.get());
+        }
+        return sqlStreamSupplierComponent.stream(tableIdentifier, strategy);
+    }
+
+    @Override
+    public <ENTITY> Stream<ENTITY> stream(TableIdentifier<ENTITY> tableIdentifier, ParallelStrategy strategy, FetchHints fetchHints) {
+        requireNonNull(tableIdentifier);
+        requireNonNull(strategy);
+        requireNonNull(fetchHints);
+        final Optional<ColumnarSnapshot<ENTITY>> snapshot = snapshotOf(tableIdentifier);
+        if (snapshot.isPresent()) {
+            return stream(snapshot.get()); // Nothing is fetched so the hints do not apply
+        }
+        return sqlStreamSupplierComponent.stream(tableIdentifier, strategy, fetchHints);
+    }
+
+    @Override
+    public <ENTITY> void load(TableIdentifier<ENTITY> tableIdentifier) {
+        requireNonNull(tableIdentifier);
+        synchronized (loadLock) {
+            snapshots.put(tableIdentifier, read(tableIdentifier));
+        }
+    }
+
+    @Override
+    public void unload(TableIdentifier<?> tableIdentifier) {
+        requireNonNull(tableIdentifier);
+        snapshots.remove(tableIdentifier);
+    }
+
+    @Override
+    public void refresh() {
+        snapshots.keySet().forEach(this::load);
+    }
+
+    @Override
+    public boolean isLoaded(TableIdentifier<?> tableIdentifier) {
+        requireNonNull(tableIdentifier);
+        return snapshots.containsKey(tableIdentifier);
+    }
+
+    private <ENTITY> Stream<ENTITY> stream(ColumnarSnapshot<ENTITY> snapshot) {
+        return new ReferenceStreamBuilder<>(
+            new PipelineImpl<>(() -> snapshot.stream(null)),
+            new SnapshotStreamTerminator<>(snapshot)
+        );
+    }
+
+    private <ENTITY> Optional<ColumnarSnapshot<ENTITY>> snapshotOf(TableIdentifier<ENTITY> tableIdentifier) {
+        if (transactionComponent != null && transactionComponent.get(Thread.currentThread()).isPresent()) {
+            // The snapshot does not reflect the changes made in the transaction
+            return Optional.empty();
+        }
+        @SuppressWarnings("unchecked")
+        final ColumnarSnapshot<ENTITY> snapshot = (ColumnarSnapshot<ENTITY>) snapshots.get(tableIdentifier);
+        if (snapshot != null) {
+            return Optional.of(snapshot);
+        }
+        if (configuredTables == null || !configuredTables.contains(tableIdentifier)) {
+            return Optional.empty();
+        }
+        synchronized (loadLock) {
+            // Another thread might have loaded the table while we waited
+            @SuppressWarnings("unchecked")
+            final ColumnarSnapshot<ENTITY> loaded = (ColumnarSnapshot<ENTITY>) snapshots.get(tableIdentifier);
+            if (loaded != null) {
+                return Optional.of(loaded);
+            }
+            final ColumnarSnapshot<ENTITY> read = read(tableIdentifier);
+            snapshots.put(tableIdentifier, read);
+            return Optional.of(read);
+        }
+    }
+
+    private <ENTITY> ColumnarSnapshot<ENTITY> read(TableIdentifier<ENTITY> tableIdentifier) {
+        @SuppressWarnings("unchecked")
+        final Manager<ENTITY> manager = (Manager<ENTITY>) managerComponent.stream()
+            .filter(m -> tableIdentifier.equals(m.getTableIdentifier()))
+            .findAny()
+            .orElseThrow(() -> new SpeedmentException(
+                "Could not find any manager for table '" + tableIdentifier + "'."
+            ));
+
+        final long start = System.nanoTime();
+        final List<ENTITY> entities;
+        try (final Stream<ENTITY> stream = sqlStreamSupplierComponent.stream(tableIdentifier, computeIntensityDefault())) {
+            entities = stream.collect(toList());
+        }
+        final ColumnarSnapshot<ENTITY> snapshot = new ColumnarSnapshot<>(
+            manager.fields(),
+            entities,
+            entityFactory(tableIdentifier, entities),
+            indexedColumns(manager)
+        );
+        LOGGER.debug(
+            "Loaded a snapshot of %s with %d rows in %d ms",
+            tableIdentifier,
+            snapshot.size(),
+            TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)
+        );
+        snapshot.indexes().forEachOrdered(index ->
+            LOGGER.info(
+                "Built index on %s of the snapshot of %s in %.3f ms using %d bytes",
+                index.field().identifier().getColumnId(),
+                tableIdentifier,
+                index.buildNanos() / 1_000_000d,
+                index.memoryUsage()
+            )
+        );
+        return snapshot;
+    }
+
+    /**
+     * Returns the columns of the given manager that are the leading column of
+     * an index of the table in the config model.
+     */
+    private <ENTITY> Set<ColumnIdentifier<ENTITY>> indexedColumns(Manager<ENTITY> manager) {
+        final TableIdentifier<ENTITY> tableIdentifier = manager.getTableIdentifier();
+        final Set<String> columnIds = DocumentDbUtil.referencedTableIfPresent(
+                projectComponent.getProject(),
+                tableIdentifier.getDbmsId(),
+                tableIdentifier.getSchemaId(),
+                tableIdentifier.getTableId()
+            )
+            .map(table -> table.indexes()
+                .filter(Index::isEnabled)
+                .map(index -> index.indexColumns().min(HasOrdinalPosition.COMPARATOR))
+                .filter(Optional::isPresent)
+                .map(Optional::get)
+                .map(IndexColumn::findColumn)
+                .filter(Optional::isPresent)
+                .map(c -> c.get().getId())
+                .collect(toSet())
+            )
+            .orElse(emptySet());
+
+        return manager.fields()
+            .map(Field::identifier)
+            .filter(id -> columnIds.contains(id.getColumnId()))
+            .collect(toSet());
+    }
+
+    private void refreshLogged() {
+        try {
+            refresh();
+        } catch (final RuntimeException ex) {
+            LOGGER.error(ex, "Unable to refresh snapshots");
+        }
+    }
+
+    private static <ENTITY> Supplier<ENTITY> entityFactory(TableIdentifier<ENTITY> tableIdentifier, List<ENTITY> entities) {
+        if (entities.isEmpty()) {
+            return () -> null; // There are no rows to create entities for
+        }
+        @SuppressWarnings("unchecked")
+        final Class<ENTITY> entityClass = (Class<ENTITY>) entities.get(0).getClass();
+        final Constructor<ENTITY> constructor;
+        try {
+            constructor = entityClass.getDeclaredConstructor();
+            constructor.setAccessible(true);
+        } catch (final NoSuchMethodException ex) {
+            throw new SpeedmentException(
+                String.format(
+                    "Unable to load a snapshot of %s since the entity class %s has no default constructor",
+                    tableIdentifier,
+                    entityClass.getName()
+                ), ex
+            );
+        }
+        return () -> {
+            try {
+                return constructor.newInstance();
+            } catch (final ReflectiveOperationException ex) {
+                throw new SpeedmentException("Unable to create an entity of class " + entityClass.getName(), ex);
+            }
+        };
+    }
+
+    private static TableIdentifier<?> parseTableIdentifier(String name) {
+        final String[] parts = name.split("\\.");
+        if (parts.length != 3) {
+            throw new IllegalArgumentException(
+                String.format(
+                    "Illegal table name '%s' in snapshot.tables. Expected dbms.schema.table",
+                    name
+                )
+            );
+        }
+        return TableIdentifier.of(parts[0], parts[1], parts[2]);
+    }
+
+}
@@ -0,0 +1,116 @@
+/**
+ *
+ * Copyright (c) 2006-2018, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.internal.component.snapshot;
+
+import com.speedment.runtime.core.internal.stream.builder.action.reference.FilterAction;
+import com.speedment.runtime.core.internal.stream.builder.action.reference.LimitAction;
+import com.speedment.runtime.core.internal.stream.builder.action.reference.SkipAction;
+import com.speedment.runtime.core.internal.stream.builder.action.reference.SortedComparatorAction;
+import com.speedment.runtime.core.internal.stream.builder.pipeline.ReferencePipeline;
+import com.speedment.runtime.core.internal.stream.builder.streamterminator.StreamTerminator;
+import com.speedment.runtime.core.stream.Pipeline;
+import com.speedment.runtime.core.stream.action.Action;
+
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.stream.IntStream;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A {@link StreamTerminator} that streams entities from a
+ * {@link ColumnarSnapshot}. Leading {@code filter()}, {@code sorted()},
+ * {@code skip()} and {@code limit()} operations that are expressed using
+ * fields are evaluated directly on the columns of the snapshot, in the order
+ * they appear in the pipeline, so that entities are only created for the
+ * rows that remain. If no other operations remain, {@code count()} is
+ * computed without creating any entities at all.
+ *
+ * @author Per Minborg
+ * @param <ENTITY> entity type
+ * @since 3.1.6
+ */
+public final class SnapshotStreamTerminator<ENTITY> implements StreamTerminator {
+
+    private final ColumnarSnapshot<ENTITY> snapshot;
+
+    public SnapshotStreamTerminator(ColumnarSnapshot<ENTITY> snapshot) {
+        this.snapshot = requireNonNull(snapshot);
+    }
+
+    @Override
+    public <P extends Pipeline> P optimize(P initialPipeline) {
+        requireNonNull(initialPipeline);
+        select(initialPipeline);
+        return initialPipeline;
+    }
+
+    @Override
+    public <T> long count(ReferencePipeline<T> pipeline) {
+        requireNonNull(pipeline);
+        final int[] rows = select(pipeline);
+        if (pipeline.isEmpty()) {
+            return rows == null ? snapshot.size() : rows.length;
+        }
+        return pipeline.getAsReferenceStream().count();
+    }
+
+    /**
+     * Evaluates and removes the leading operations of the given pipeline that
+     * can be evaluated on the columns of the snapshot and makes the pipeline
+     * stream the remaining rows.
+     *
+     * @param pipeline to optimize
+     * @return the remaining rows or {@code null} if all rows remain
+     */
+    private int[] select(Pipeline pipeline) {
+        int[] rows = null;
+        while (!pipeline.isEmpty()) {
+            final Optional<int[]> selected = apply(rows, pipeline.getFirst());
+            if (!selected.isPresent()) {
+                break;
+            }
+            rows = selected.get();
+            pipeline.remove(0);
+        }
+        final int[] remaining = rows;
+        pipeline.setInitialSupplier(() -> snapshot.stream(remaining));
+        return remaining;
+    }
+
+    private Optional<int[]> apply(int[] rows, Action<?, ?> action) {
+        if (action instanceof FilterAction) {
+            return snapshot.filter(rows, ((FilterAction<?>) action).getPredicate());
+        } else if (action instanceof SortedComparatorAction) {
+            return snapshot.sort(rows, ((SortedComparatorAction<?>) action).getComparator());
+        } else if (action instanceof SkipAction) {
+            final int[] all = orAll(rows);
+            final long skip = Math.min(((SkipAction<?>) action).getSkip(), all.length);
+            return Optional.of(Arrays.copyOfRange(all, (int) skip, all.length));
+        } else if (action instanceof LimitAction) {
+            final int[] all = orAll(rows);
+            final long limit = Math.min(((LimitAction<?>) action).getLimit(), all.length);
+            return Optional.of(Arrays.copyOf(all, (int) limit));
+        }
+        return Optional.empty();
+    }
+
+    private int[] orAll(int[] rows) {
+        return rows == null ? IntStream.range(0, snapshot.size()).toArray() : rows;
+    }
+
+}
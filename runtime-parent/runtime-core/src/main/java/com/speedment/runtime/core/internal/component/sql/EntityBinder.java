@@ -0,0 +1,158 @@
+/**
+ *
+ * Copyright (c) 2006-2018, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.internal.component.sql;
+
+import com.speedment.runtime.field.BooleanField;
+import com.speedment.runtime.field.ByteField;
+import com.speedment.runtime.field.DoubleField;
+import com.speedment.runtime.field.Field;
+import com.speedment.runtime.field.FloatField;
+import com.speedment.runtime.field.IntField;
+import com.speedment.runtime.field.LongField;
+import com.speedment.runtime.field.ShortField;
+import com.speedment.runtime.field.StringField;
+import com.speedment.runtime.typemapper.TypeMapper;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Binds the values of a fixed sequence of fields of an entity to the
+ * parameters of a {@link PreparedStatement}. The sequence is resolved once so
+ * that no field filtering, column lookup or stream has to be evaluated for
+ * each row.
+ * <p>
+ * Fields that hold a primitive or a {@code String} value and that are not
+ * converted by their {@link TypeMapper} are written using the typed setters
+ * of the statement (like {@link PreparedStatement#setInt(int, int)}) so that
+ * the value is not boxed. All other fields are converted using their
+ * TypeMapper and written using {@link PreparedStatement#setObject(int, Object)}.
+ *
+ * @param <ENTITY> the entity type
+ *
+ * @author Per Minborg
+ * @since 3.1.6
+ */
+final class EntityBinder<ENTITY> {
+
+    /**
+     * Binds the value of a single field of an entity to a parameter.
+     *
+     * @param <ENTITY> the entity type
+     */
+    @FunctionalInterface
+    interface ParameterBinder<ENTITY> {
+
+        void bind(PreparedStatement ps, int parameterIndex, ENTITY entity) throws SQLException;
+    }
+
+    private static final Class<?> IDENTITY_MAPPER_CLASS = TypeMapper.identity().getClass();
+    private static final Class<?> PRIMITIVE_MAPPER_CLASS = TypeMapper.primitive().getClass();
+
+    private final Field<ENTITY>[] fields;
+    private final ParameterBinder<ENTITY>[] binders;
+
+    @SuppressWarnings("unchecked")
+    EntityBinder(List<Field<ENTITY>> fields) {
+        requireNonNull(fields);
+        this.fields = fields.toArray(new Field[0]);
+        this.binders = new ParameterBinder[this.fields.length];
+        for (int i = 0; i < this.fields.length; i++) {
+            binders[i] = binderOf(this.fields[i]);
+        }
+    }
+
+    /**
+     * Binds the values of the given entity to the parameters of the given
+     * statement, starting with parameter 1.
+     *
+     * @param ps      the statement to bind values to
+     * @param entity  the entity to read values from
+     * @throws SQLException if a value could not be set
+     */
+    void bind(PreparedStatement ps, ENTITY entity) throws SQLException {
+        for (int i = 0; i < binders.length; i++) {
+            binders[i].bind(ps, i + 1, entity);
+        }
+    }
+
+    /**
+     * Returns a new list with the database values of the given entity in the
+     * same order as they are bound by {@link #bind(PreparedStatement, Object)}.
+     *
+     * @param entity  the entity to read values from
+     * @return        the database values of the entity
+     */
+    List<Object> values(ENTITY entity) {
+        final List<Object> result = new ArrayList<>(fields.length);
+        for (final Field<ENTITY> field : fields) {
+            result.add(toDatabaseType(field, entity));
+        }
+        return result;
+    }
+
+    int size() {
+        return fields.length;
+    }
+
+    static <ENTITY> Object toDatabaseType(Field<ENTITY> field, ENTITY entity) {
+        final Object javaValue = field.getter().apply(entity);
+
+        @SuppressWarnings("unchecked")
+        final Object dbValue = ((TypeMapper<Object, Object>) field.typeMapper()).toDatabaseType(javaValue);
+
+        return dbValue;
+    }
+
+    static <ENTITY> ParameterBinder<ENTITY> binderOf(Field<ENTITY> field) {
+        requireNonNull(field);
+        final Class<?> mapperClass = field.typeMapper().getClass();
+        if (mapperClass == IDENTITY_MAPPER_CLASS || mapperClass == PRIMITIVE_MAPPER_CLASS) {
+            if (field instanceof IntField) {
+                final IntField<ENTITY, ?> f = (IntField<ENTITY, ?>) field;
+                return (ps, i, e) -> ps.setInt(i, f.getAsInt(e));
+            } else if (field instanceof LongField) {
+                final LongField<ENTITY, ?> f = (LongField<ENTITY, ?>) field;
+                return (ps, i, e) -> ps.setLong(i, f.getAsLong(e));
+            } else if (field instanceof DoubleField) {
+                final DoubleField<ENTITY, ?> f = (DoubleField<ENTITY, ?>) field;
+                return (ps, i, e) -> ps.setDouble(i, f.getAsDouble(e));
+            } else if (field instanceof FloatField) {
+                final FloatField<ENTITY, ?> f = (FloatField<ENTITY, ?>) field;
+                return (ps, i, e) -> ps.setFloat(i, f.getAsFloat(e));
+            } else if (field instanceof ShortField) {
+                final ShortField<ENTITY, ?> f = (ShortField<ENTITY, ?>) field;
+                return (ps, i, e) -> ps.setShort(i, f.getAsShort(e));
+            } else if (field instanceof ByteField) {
+                final ByteField<ENTITY, ?> f = (ByteField<ENTITY, ?>) field;
+                return (ps, i, e) -> ps.setByte(i, f.getAsByte(e));
+            } else if (field instanceof BooleanField) {
+                final BooleanField<ENTITY, ?> f = (BooleanField<ENTITY, ?>) field;
+                return (ps, i, e) -> ps.setBoolean(i, f.getAsBoolean(e));
+            } else if (field instanceof StringField) {
+                final StringField<ENTITY, ?> f = (StringField<ENTITY, ?>) field;
+                return (ps, i, e) -> ps.setString(i, f.get(e));
+            }
+        }
+        return (ps, i, e) -> ps.setObject(i, toDatabaseType(field, e));
+    }
+
+}
@@ -0,0 +1,246 @@
+/**
+ *
+ * Copyright (c) 2006-2018, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.internal.component.sql;
+
+import com.speedment.runtime.core.db.AsynchronousQueryResult;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A query that is split up in a number of partitions, each of which is read
+ * using a separate {@link AsynchronousQueryResult} and thus a separate
+ * connection. The partitions are exposed as a single {@link Spliterator} that
+ * hands out whole partitions when split so that each thread of a parallel
+ * stream reads its own partitions. A partition is not opened until an element
+ * is requested from it and it is closed as soon as it has been consumed.
+ * Partitions that are left unconsumed are closed by {@link #close()}.
+ *
+ * @param <T> the type of the elements
+ *
+ * @author Per Minborg
+ * @since 3.1.6
+ */
+final class PartitionedQueryResult<T> implements AutoCloseable {
+
+    private static final String SELECT = "SELECT ";
+    private static final String WHERE = " WHERE ";
+    private static final String[] UNPARTITIONABLE_CLAUSES = {
+        " ORDER BY ", " GROUP BY ", " LIMIT ", " OFFSET ", " FETCH ", " ROWNUM", " UNION "
+    };
+
+    private final List<AsynchronousQueryResult<T>> partitions;
+    private final Set<AsynchronousQueryResult<T>> unclosed;
+
+    PartitionedQueryResult(List<AsynchronousQueryResult<T>> partitions) {
+        this.partitions = new ArrayList<>(requireNonNull(partitions));
+        this.unclosed = Collections.newSetFromMap(new ConcurrentHashMap<>());
+        this.unclosed.addAll(this.partitions);
+    }
+
+    /**
+     * Creates and returns a new sequential stream over all the partitions.
+     * Calling {@code parallel()} on the stream will read the partitions in
+     * parallel.
+     *
+     * @return a stream over all the partitions
+     */
+    Stream<T> stream() {
+        return StreamSupport.stream(new PartitionSpliterator(0, partitions.size()), false);
+    }
+
+    int size() {
+        return partitions.size();
+    }
+
+    @Override
+    public void close() {
+        partitions.forEach(this::closePartition);
+    }
+
+    private void closePartition(AsynchronousQueryResult<T> partition) {
+        if (unclosed.remove(partition)) {
+            partition.close();
+        }
+    }
+
+    /**
+     * Returns the given {@code sql} with an additional condition appended to
+     * its where clause (or a new where clause if there is none) that limits
+     * the selected rows to the ones where the given column is in a closed
+     * range given by two parameters that shall be appended to the original
+     * parameters. If the query can not be partitioned without changing the
+     * result (for example because it is sorted or has a skip or limit),
+     * {@code Optional.empty()} is returned.
+     *
+     * @param sql        the original query
+     * @param fromClause the from clause of the table, including a leading
+     *                   space
+     * @param columnName the name of the column to partition over
+     * @return the partitioned sql or {@code Optional.empty()}
+     */
+    static Optional<String> rangeSql(String sql, String fromClause, String columnName) {
+        requireNonNull(sql);
+        requireNonNull(fromClause);
+        requireNonNull(columnName);
+        final int fromIndex = sql.indexOf(fromClause);
+        if (!sql.startsWith(SELECT) || fromIndex < 0) {
+            return Optional.empty();
+        }
+        final String selectList = sql.substring(SELECT.length(), fromIndex);
+        final String suffix = sql.substring(fromIndex + fromClause.length());
+        if (selectList.contains(" FROM ") || !(suffix.isEmpty() || suffix.startsWith(WHERE))) {
+            return Optional.empty();
+        }
+        for (final String clause : UNPARTITIONABLE_CLAUSES) {
+            if (suffix.contains(clause)) {
+                return Optional.empty();
+            }
+        }
+
+        final String range = "(" + columnName + " >= ? AND " + columnName + " <= ?)";
+        final StringBuilder result = new StringBuilder(sql.length() + range.length() + 16)
+            .append(sql, 0, fromIndex + fromClause.length())
+            .append(WHERE);
+        if (!suffix.isEmpty()) {
+            result.append('(').append(suffix.substring(WHERE.length())).append(") AND ");
+        }
+        return Optional.of(result.append(range).toString());
+    }
+
+    /**
+     * Splits the closed range {@code [min, max]} into at most the given
+     * number of adjacent, non-overlapping closed ranges of about equal size.
+     * Each range is returned as an array with two elements: the first and the
+     * last value of the range.
+     *
+     * @param min        the first value (inclusive)
+     * @param max        the last value (inclusive)
+     * @param partitions the maximum number of ranges
+     * @return the ranges in ascending order
+     */
+    static List<long[]> ranges(long min, long max, int partitions) {
+        if (min > max) {
+            throw new IllegalArgumentException("min " + min + " > max " + max);
+        }
+        if (partitions < 1) {
+            throw new IllegalArgumentException("partitions " + partitions + " < 1");
+        }
+        // The span may overflow a long, so compute it unsigned
+        final long span = max - min; // Unsigned
+        final long n = Long.compareUnsigned(span, partitions - 1) < 0 ? span + 1 : partitions;
+        final long width = Long.divideUnsigned(span, n);
+        final long remainder = Long.remainderUnsigned(span, n) + 1;
+
+        final List<long[]> result = new ArrayList<>((int) n);
+        long start = min;
+        for (long i = 0; i < n; i++) {
+            // The first 'remainder' ranges get one element extra
+            final long end = start + width - (i < remainder ? 0 : 1);
+            result.add(new long[]{start, end});
+            start = end + 1;
+        }
+        return result;
+    }
+
+    private final class PartitionSpliterator implements Spliterator<T> {
+
+        private static final int CHARACTERISTICS = Spliterator.IMMUTABLE + Spliterator.NONNULL;
+
+        private int index; // The next partition that is not started
+        private final int fence;
+        private AsynchronousQueryResult<T> current;
+        private Spliterator<T> currentSpliterator;
+
+        private PartitionSpliterator(int index, int fence) {
+            this.index = index;
+            this.fence = fence;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super T> action) {
+            requireNonNull(action);
+            while (currentSpliterator != null || index < fence) {
+                if (currentSpliterator == null) {
+                    open();
+                }
+                if (currentSpliterator.tryAdvance(action)) {
+                    return true;
+                }
+                finish();
+            }
+            return false;
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super T> action) {
+            requireNonNull(action);
+            while (currentSpliterator != null || index < fence) {
+                if (currentSpliterator == null) {
+                    open();
+                }
+                currentSpliterator.forEachRemaining(action);
+                finish();
+            }
+        }
+
+        @Override
+        public Spliterator<T> trySplit() {
+            final int remaining = fence - index;
+            // Hand out whole partitions as long as possible
+            final int split = currentSpliterator == null ? remaining / 2 : (remaining + 1) / 2;
+            if (split > 0) {
+                final PartitionSpliterator prefix = new PartitionSpliterator(index, index + split);
+                index += split;
+                return prefix;
+            }
+            return currentSpliterator == null ? null : currentSpliterator.trySplit();
+        }
+
+        @Override
+        public long estimateSize() {
+            return Long.MAX_VALUE;
+        }
+
+        @Override
+        public int characteristics() {
+            return CHARACTERISTICS;
+        }
+
+        private void open() {
+            current = partitions.get(index++);
+            currentSpliterator = current.stream().spliterator();
+        }
+
+        private void finish() {
+            closePartition(current);
+            current = null;
+            currentSpliterator = null;
+        }
+    }
+
+}
@@ -0,0 +1,260 @@
+/**
+ *
+ * Copyright (c) 2006-2018, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.internal.component.sql;
+
+import com.speedment.common.logger.Logger;
+import com.speedment.common.logger.LoggerManager;
+import com.speedment.runtime.core.ApplicationBuilder.LogType;
+import com.speedment.runtime.core.exception.SpeedmentException;
+import com.speedment.runtime.core.internal.db.ConnectionInfo;
+import com.speedment.runtime.core.manager.BatchedPersister;
+import com.speedment.runtime.core.manager.BatchedRemover;
+import com.speedment.runtime.core.manager.BatchedUpdater;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static com.speedment.common.invariant.IntRangeUtil.requirePositive;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A batch of entities that are sent to the database using a single prepared
+ * statement. The connection and the statement are acquired when the first
+ * entity is added and are held until the batch is closed. If the connection
+ * is not part of an ongoing transaction, every executed batch is committed.
+ * <p>
+ * Methods are synchronized so that a batch can be used as the terminal
+ * consumer of a parallel stream.
+ *
+ * @param <ENTITY> the entity type
+ *
+ * @author Per Minborg
+ * @since 3.1.6
+ */
+abstract class SqlBatch<ENTITY> {
+
+    private static final Logger LOGGER = LoggerManager.getLogger(SqlBatch.class);
+
+    /**
+     * Handles the result of an executed batch, for example by reading
+     * generated keys from the statement.
+     *
+     * @param <ENTITY> the entity type
+     */
+    @FunctionalInterface
+    interface BatchListener<ENTITY> {
+
+        void onExecuted(PreparedStatement ps, List<ENTITY> entities) throws SQLException;
+    }
+
+    /**
+     * Binds the values of an entity to the parameters of the batch statement.
+     *
+     * @param <ENTITY> the entity type
+     */
+    @FunctionalInterface
+    interface StatementBinder<ENTITY> {
+
+        void bind(PreparedStatement ps, ENTITY entity) throws SQLException;
+    }
+
+    private final Supplier<ConnectionInfo> connectionInfoSupplier;
+    private final String sql;
+    private final StatementBinder<ENTITY> binder;
+    private final BatchListener<ENTITY> listener;
+    private final boolean returnGeneratedKeys;
+    private final int batchSize;
+    private final Logger logger;
+    private final List<ENTITY> pending;
+
+    private ConnectionInfo connectionInfo;
+    private PreparedStatement ps;
+    private boolean closed;
+
+    SqlBatch(
+        final Supplier<ConnectionInfo> connectionInfoSupplier,
+        final String sql,
+        final StatementBinder<ENTITY> binder,
+        final BatchListener<ENTITY> listener,
+        final boolean returnGeneratedKeys,
+        final int batchSize,
+        final LogType logType
+    ) {
+        this.connectionInfoSupplier = requireNonNull(connectionInfoSupplier);
+        this.sql                    = requireNonNull(sql);
+        this.binder                 = requireNonNull(binder);
+        this.listener               = requireNonNull(listener);
+        this.returnGeneratedKeys    = returnGeneratedKeys;
+        this.batchSize              = requirePositive(batchSize);
+        this.logger                 = LoggerManager.getLogger(logType.getLoggerName());
+        this.pending                = new ArrayList<>(batchSize);
+    }
+
+    public synchronized ENTITY apply(ENTITY entity) {
+        requireNonNull(entity);
+        if (closed) {
+            throw new IllegalStateException("This batch has been closed.");
+        }
+        try {
+            if (ps == null) {
+                open();
+            }
+            binder.bind(ps, entity);
+            ps.addBatch();
+        } catch (final SQLException ex) {
+            throw failed(ex);
+        }
+        pending.add(entity);
+        if (pending.size() >= batchSize) {
+            flush();
+        }
+        return entity;
+    }
+
+    public synchronized void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        logger.debug("%s, batch of %d rows", sql, pending.size());
+        try {
+            ps.executeBatch();
+            listener.onExecuted(ps, pending);
+            connectionInfo.ifNotInTransaction(Connection::commit);
+        } catch (final SQLException ex) {
+            throw failed(ex);
+        } finally {
+            pending.clear();
+        }
+    }
+
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+        try {
+            flush();
+        } finally {
+            if (!closed) {
+                closed = true;
+                release();
+            }
+        }
+    }
+
+    private void open() throws SQLException {
+        connectionInfo = connectionInfoSupplier.get();
+        try {
+            connectionInfo.ifNotInTransaction(c -> c.setAutoCommit(false));
+            ps = returnGeneratedKeys
+                ? connectionInfo.connection().prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)
+                : connectionInfo.connection().prepareStatement(sql);
+        } catch (final SQLException ex) {
+            release();
+            throw ex;
+        }
+    }
+
+    private SpeedmentException failed(SQLException ex) {
+        LOGGER.error(ex, "Error executing batch " + sql);
+        pending.clear();
+        try {
+            if (connectionInfo != null) {
+                connectionInfo.ifNotInTransaction(Connection::rollback);
+            }
+        } catch (final SQLException rollbackEx) {
+            ex.addSuppressed(rollbackEx);
+        } finally {
+            // A failed batch can not be reused
+            closed = true;
+            release();
+        }
+        return new SpeedmentException(ex);
+    }
+
+    private void release() {
+        try {
+            if (ps != null) {
+                ps.close();
+            }
+        } catch (final SQLException ex) {
+            LOGGER.error(ex, "Unable to close statement " + sql);
+        } finally {
+            ps = null;
+            try {
+                if (connectionInfo != null) {
+                    connectionInfo.close();
+                }
+            } catch (final SQLException ex) {
+                LOGGER.error(ex, "Unable to close connection");
+            } finally {
+                connectionInfo = null;
+            }
+        }
+    }
+
+    static final class BatchedPersisterImpl<ENTITY>
+        extends SqlBatch<ENTITY> implements BatchedPersister<ENTITY> {
+
+        BatchedPersisterImpl(
+            final Supplier<ConnectionInfo> connectionInfoSupplier,
+            final String sql,
+            final StatementBinder<ENTITY> binder,
+            final BatchListener<ENTITY> listener,
+            final boolean returnGeneratedKeys,
+            final int batchSize
+        ) {
+            super(connectionInfoSupplier, sql, binder, listener,
+                returnGeneratedKeys, batchSize, LogType.PERSIST);
+        }
+    }
+
+    static final class BatchedUpdaterImpl<ENTITY>
+        extends SqlBatch<ENTITY> implements BatchedUpdater<ENTITY> {
+
+        BatchedUpdaterImpl(
+            final Supplier<ConnectionInfo> connectionInfoSupplier,
+            final String sql,
+            final StatementBinder<ENTITY> binder,
+            final BatchListener<ENTITY> listener,
+            final int batchSize
+        ) {
+            super(connectionInfoSupplier, sql, binder,
+                listener, false, batchSize, LogType.UPDATE);
+        }
+    }
+
+    static final class BatchedRemoverImpl<ENTITY>
+        extends SqlBatch<ENTITY> implements BatchedRemover<ENTITY> {
+
+        BatchedRemoverImpl(
+            final Supplier<ConnectionInfo> connectionInfoSupplier,
+            final String sql,
+            final StatementBinder<ENTITY> binder,
+            final BatchListener<ENTITY> listener,
+            final int batchSize
+        ) {
+            super(connectionInfoSupplier, sql, binder,
+                listener, false, batchSize, LogType.REMOVE);
+        }
+    }
+
+}
@@ -19,14 +19,21 @@ package com.speedment.runtime.core.internal.component.sql;
 import com.speedment.common.injector.Injector;
 import com.speedment.common.injector.annotation.ExecuteBefore;
 import com.speedment.common.injector.annotation.Inject;
+import com.speedment.common.lazy.LazyReference;
 import com.speedment.runtime.config.identifier.TableIdentifier;
 import com.speedment.runtime.core.component.DbmsHandlerComponent;
 import com.speedment.runtime.core.component.ManagerComponent;
 import com.speedment.runtime.core.component.ProjectComponent;
 import com.speedment.runtime.core.component.SqlAdapter;
+import com.speedment.runtime.core.component.cache.EntityCacheComponent;
+import com.speedment.runtime.core.component.connectionpool.ConnectionPoolComponent;
 import com.speedment.runtime.core.component.resultset.ResultSetMapperComponent;
 import com.speedment.runtime.core.component.sql.SqlPersistenceComponent;
+import com.speedment.runtime.core.component.transaction.TransactionComponent;
 import com.speedment.runtime.core.exception.SpeedmentException;
+import com.speedment.runtime.core.manager.BatchedPersister;
+import com.speedment.runtime.core.manager.BatchedRemover;
+import com.speedment.runtime.core.manager.BatchedUpdater;
 import com.speedment.runtime.core.manager.HasLabelSet;
 import com.speedment.runtime.core.manager.Persister;
 import com.speedment.runtime.core.manager.Remover;
@@ -34,6 +41,7 @@ import com.speedment.runtime.core.manager.Updater;
 
 import java.util.Map;
 import java.util.function.Function;
+import java.util.function.Supplier;
 
 import static com.speedment.common.injector.State.STARTED;
 import static java.util.Objects.requireNonNull;
@@ -56,6 +64,10 @@ public final class SqlPersistanceComponentImpl implements SqlPersistenceComponen
     private ManagerComponent managerComponent;
     @Inject
     private ResultSetMapperComponent resultSetMapperComponent;
+    @Inject
+    private ConnectionPoolComponent connectionPoolComponent;
+    @Inject
+    private TransactionComponent transactionComponent;
 
     @ExecuteBefore(STARTED)
     void startStreamSuppliers(final Injector injector) {
@@ -69,7 +81,10 @@ public final class SqlPersistanceComponentImpl implements SqlPersistenceComponen
                         projectComponent,
                         dbmsHandlerComponent,
                         managerComponent,
-                        resultSetMapperComponent
+                        resultSetMapperComponent,
+                        connectionPoolComponent,
+                        transactionComponent,
+                        injector.get(EntityCacheComponent.class).orElse(null)
                     )
                 )
             );
@@ -77,27 +92,27 @@ public final class SqlPersistanceComponentImpl implements SqlPersistenceComponen
 
     @Override
     public <ENTITY> Persister<ENTITY> persister(TableIdentifier<ENTITY> tableIdentifier) throws SpeedmentException {
-        return entity -> getPersistence(tableIdentifier).persist(entity);
+        return new SqlPersister<>(() -> getPersistence(tableIdentifier));
     }
 
     @Override
     public <ENTITY> Persister<ENTITY> persister(TableIdentifier<ENTITY> tableIdentifier, HasLabelSet<ENTITY> fields) throws SpeedmentException {
-        return entity -> getPersistence(tableIdentifier, fields).persist(entity);
+        return new SqlPersister<>(() -> getPersistence(tableIdentifier, fields));
     }
 
     @Override
     public <ENTITY> Updater<ENTITY> updater(TableIdentifier<ENTITY> tableIdentifier) throws SpeedmentException {
-        return entity -> getPersistence(tableIdentifier).update(entity);
+        return new SqlUpdater<>(() -> getPersistence(tableIdentifier));
     }
 
     @Override
     public <ENTITY> Updater<ENTITY> updater(TableIdentifier<ENTITY> tableIdentifier, HasLabelSet<ENTITY> fields) throws SpeedmentException {
-        return entity -> getPersistence(tableIdentifier, fields).update(entity);
+        return new SqlUpdater<>(() -> getPersistence(tableIdentifier, fields));
     }
 
     @Override
     public <ENTITY> Remover<ENTITY> remover(TableIdentifier<ENTITY> tableIdentifier) throws SpeedmentException {
-        return entity -> getPersistence(tableIdentifier).remove(entity);
+        return new SqlRemover<>(() -> getPersistence(tableIdentifier));
     }
 
     private <ENTITY> SqlPersistence<ENTITY> getPersistence(TableIdentifier<ENTITY> tableIdentifier) {
@@ -114,4 +129,86 @@ public final class SqlPersistanceComponentImpl implements SqlPersistenceComponen
         final SqlPersistenceImpl<ENTITY> sqlPersistence = (SqlPersistenceImpl<ENTITY>) supportMap.get(tableIdentifier);
         return sqlPersistence.withLimitedFields(fields);
     }
+
+    /*
+     * The persistence is looked up lazily since persisters, updaters and
+     * removers are created before this component is started. Once resolved,
+     * it is reused so that statements and parameter binders are only
+     * compiled once per persister, updater and remover.
+     */
+
+    private static final class SqlPersister<ENTITY> implements Persister<ENTITY> {
+
+        private final Supplier<SqlPersistence<ENTITY>> supplier;
+        private final LazyReference<SqlPersistence<ENTITY>> persistence;
+
+        private SqlPersister(Supplier<SqlPersistence<ENTITY>> supplier) {
+            this.supplier    = requireNonNull(supplier);
+            this.persistence = LazyReference.create();
+        }
+
+        private SqlPersistence<ENTITY> persistence() {
+            return persistence.getOrCompute(supplier);
+        }
+
+        @Override
+        public ENTITY apply(ENTITY entity) {
+            return persistence().persist(entity);
+        }
+
+        @Override
+        public BatchedPersister<ENTITY> batched(int batchSize) {
+            return persistence().batchedPersister(batchSize);
+        }
+    }
+
+    private static final class SqlUpdater<ENTITY> implements Updater<ENTITY> {
+
+        private final Supplier<SqlPersistence<ENTITY>> supplier;
+        private final LazyReference<SqlPersistence<ENTITY>> persistence;
+
+        private SqlUpdater(Supplier<SqlPersistence<ENTITY>> supplier) {
+            this.supplier    = requireNonNull(supplier);
+            this.persistence = LazyReference.create();
+        }
+
+        private SqlPersistence<ENTITY> persistence() {
+            return persistence.getOrCompute(supplier);
+        }
+
+        @Override
+        public ENTITY apply(ENTITY entity) {
+            return persistence().update(entity);
+        }
+
+        @Override
+        public BatchedUpdater<ENTITY> batched(int batchSize) {
+            return persistence().batchedUpdater(batchSize);
+        }
+    }
+
+    private static final class SqlRemover<ENTITY> implements Remover<ENTITY> {
+
+        private final Supplier<SqlPersistence<ENTITY>> supplier;
+        private final LazyReference<SqlPersistence<ENTITY>> persistence;
+
+        private SqlRemover(Supplier<SqlPersistence<ENTITY>> supplier) {
+            this.supplier    = requireNonNull(supplier);
+            this.persistence = LazyReference.create();
+        }
+
+        private SqlPersistence<ENTITY> persistence() {
+            return persistence.getOrCompute(supplier);
+        }
+
+        @Override
+        public ENTITY apply(ENTITY entity) {
+            return persistence().remove(entity);
+        }
+
+        @Override
+        public BatchedRemover<ENTITY> batched(int batchSize) {
+            return persistence().batchedRemover(batchSize);
+        }
+    }
 }
@@ -18,6 +18,9 @@ package com.speedment.runtime.core.internal.component.sql;
 
 import com.speedment.runtime.core.component.sql.SqlPersistenceComponent;
 import com.speedment.runtime.core.exception.SpeedmentException;
+import com.speedment.runtime.core.manager.BatchedPersister;
+import com.speedment.runtime.core.manager.BatchedRemover;
+import com.speedment.runtime.core.manager.BatchedUpdater;
 
 /**
  * The common interface for table specific persisting handlers that is managed 
@@ -60,6 +63,41 @@ interface SqlPersistence<ENTITY> {
      */
     ENTITY remove(ENTITY entity) throws SpeedmentException;
 
-
+    /**
+     * Creates a new batch that persists entities in the table managed by this
+     * handler using JDBC batches of at most {@code batchSize} rows.
+     * 
+     * @param batchSize  the maximum number of rows in a batch
+     * @return           a new batch
+     * 
+     * @since 3.1.6
+     */
+    BatchedPersister<ENTITY> batchedPersister(int batchSize);
+    
+    /**
+     * Creates a new batch that updates entities in the table managed by this
+     * handler using JDBC batches of at most {@code batchSize} rows.
+     * 
+     * @param batchSize  the maximum number of rows in a batch
+     * @return           a new batch
+     * 
+     * @throws SpeedmentException  if the table has no primary key
+     * 
+     * @since 3.1.6
+     */
+    BatchedUpdater<ENTITY> batchedUpdater(int batchSize);
+    
+    /**
+     * Creates a new batch that removes entities from the table managed by 
+     * this handler using JDBC batches of at most {@code batchSize} rows.
+     * 
+     * @param batchSize  the maximum number of rows in a batch
+     * @return           a new batch
+     * 
+     * @throws SpeedmentException  if the table has no primary key
+     * 
+     * @since 3.1.6
+     */
+    BatchedRemover<ENTITY> batchedRemover(int batchSize);
     
 }
\ No newline at end of file
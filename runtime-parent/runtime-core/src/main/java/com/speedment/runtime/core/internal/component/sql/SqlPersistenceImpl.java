@@ -24,32 +24,47 @@ import com.speedment.runtime.config.util.DocumentUtil;
 import com.speedment.runtime.core.component.DbmsHandlerComponent;
 import com.speedment.runtime.core.component.ManagerComponent;
 import com.speedment.runtime.core.component.ProjectComponent;
+import com.speedment.runtime.core.component.cache.EntityCacheComponent;
+import com.speedment.runtime.core.component.connectionpool.ConnectionPoolComponent;
 import com.speedment.runtime.core.component.resultset.ResultSetMapperComponent;
 import com.speedment.runtime.core.component.resultset.ResultSetMapping;
+import com.speedment.runtime.core.component.transaction.TransactionComponent;
 import com.speedment.runtime.core.db.DatabaseNamingConvention;
 import com.speedment.runtime.core.db.DbmsColumnHandler;
 import com.speedment.runtime.core.db.DbmsOperationHandler;
 import com.speedment.runtime.core.db.DbmsType;
 import com.speedment.runtime.core.exception.SpeedmentException;
+import com.speedment.runtime.core.internal.db.ConnectionInfo;
+import com.speedment.runtime.core.internal.manager.sql.SqlInsertStatement;
+import com.speedment.runtime.core.manager.BatchedPersister;
+import com.speedment.runtime.core.manager.BatchedRemover;
+import com.speedment.runtime.core.manager.BatchedUpdater;
+import com.speedment.runtime.core.manager.HasDirtyFields;
 import com.speedment.runtime.core.manager.HasLabelSet;
 import com.speedment.runtime.core.manager.Manager;
 import com.speedment.runtime.core.util.DatabaseUtil;
 import com.speedment.runtime.field.Field;
 import com.speedment.runtime.typemapper.TypeMapper;
 
+import java.sql.PreparedStatement;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.function.Supplier;
-import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import static com.speedment.common.invariant.NullUtil.requireNonNulls;
 import static com.speedment.runtime.config.util.DocumentUtil.Name.DATABASE_NAME;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
 import static java.util.Comparator.comparing;
 import static java.util.Objects.requireNonNull;
 import static java.util.function.Function.identity;
@@ -66,6 +81,8 @@ import static java.util.stream.Collectors.toList;
  */
 final class SqlPersistenceImpl<ENTITY> implements SqlPersistence<ENTITY> {
 
+    private static final int MAX_CACHED_STATEMENTS = 256;
+
     private final Supplier<Stream<Field<ENTITY>>> primaryKeyFields;
     private final Supplier<Stream<Field<ENTITY>>> fields;
     
@@ -78,6 +95,9 @@ final class SqlPersistenceImpl<ENTITY> implements SqlPersistence<ENTITY> {
     private final DbmsOperationHandler operationHandler;
     private final DbmsColumnHandler columnHandler;
     private final Class<ENTITY> entityClass;
+    private final Supplier<ConnectionInfo> connectionInfoSupplier;
+    private final Consumer<ENTITY> cacheInvalidator;
+    private final BooleanSupplier inTransaction;
     
     private final String insertStatement;
     private final String updateStatement;
@@ -88,20 +108,54 @@ final class SqlPersistenceImpl<ENTITY> implements SqlPersistence<ENTITY> {
     private final Map<Field<ENTITY>, Column> columnsByFields;
     private final Predicate<Column> insertColumnFilter;
     private final Predicate<Column> updateColumnFilter;
+    
+    private final EntityBinder<ENTITY> insertBinder;
+    private final EntityBinder<ENTITY> updateBinder;
+    private final EntityBinder<ENTITY> removeBinder;
+
+    // Dirty field tracking. fieldsByBit is null if the table has too many columns
+    private final Field<ENTITY>[] fieldsByBit;
+    private final long updateMask;
+    private final Map<Long, PartialUpdate<ENTITY>> partialUpdates;
+    private final Map<Long, SqlPersistenceImpl<ENTITY>> limitedPersistences;
+
 
+    public SqlPersistenceImpl(
+            TableIdentifier<ENTITY> tableId,
+            ProjectComponent projectComponent,
+            DbmsHandlerComponent dbmsHandlerComponent,
+            ManagerComponent managerComponent,
+            ResultSetMapperComponent resultSetMapperComponent,
+            ConnectionPoolComponent connectionPoolComponent,
+            TransactionComponent transactionComponent) {
+        this(tableId,
+            projectComponent,
+            dbmsHandlerComponent,
+            managerComponent,
+            resultSetMapperComponent,
+            connectionPoolComponent,
+            transactionComponent,
+            null
+        );
+    }
 
     public SqlPersistenceImpl(
             TableIdentifier<ENTITY> tableId,
             ProjectComponent projectComponent,
             DbmsHandlerComponent dbmsHandlerComponent,
             ManagerComponent managerComponent,
-            ResultSetMapperComponent resultSetMapperComponent) {
+            ResultSetMapperComponent resultSetMapperComponent,
+            ConnectionPoolComponent connectionPoolComponent,
+            TransactionComponent transactionComponent,
+            EntityCacheComponent entityCacheComponent) { // Nullable
         
         requireNonNulls(tableId, 
             projectComponent, 
             dbmsHandlerComponent, 
             managerComponent, 
-            resultSetMapperComponent
+            resultSetMapperComponent,
+            connectionPoolComponent,
+            transactionComponent
         );
 
         final Project project = projectComponent.getProject();
@@ -112,6 +166,12 @@ final class SqlPersistenceImpl<ENTITY> implements SqlPersistence<ENTITY> {
         this.naming           = dbmsType.getDatabaseNamingConvention();
         this.operationHandler = dbmsType.getOperationHandler();
         this.columnHandler    = dbmsType.getColumnHandler();
+        this.connectionInfoSupplier = () -> 
+            new ConnectionInfo(dbms, connectionPoolComponent, transactionComponent);
+        this.cacheInvalidator = entityCacheComponent == null
+            ? entity -> {}
+            : entity -> entityCacheComponent.get(tableId).ifPresent(cache -> cache.invalidate(entity));
+        this.inTransaction = () -> transactionComponent.get(Thread.currentThread()).isPresent();
         
         @SuppressWarnings("unchecked")
         final Manager<ENTITY> manager = (Manager<ENTITY>) managerComponent.stream()
@@ -127,6 +187,10 @@ final class SqlPersistenceImpl<ENTITY> implements SqlPersistence<ENTITY> {
         this.sqlTableReference = naming.fullNameOf(table);
         this.hasPrimaryKeyColumns = manager.primaryKeyFields().anyMatch(m -> true);
 
+        this.columnsByFields = MapStream.fromKeys(fields.get(), f ->
+            DocumentDbUtil.referencedColumn(project, f.identifier())
+        ).toMap();
+
         this.insertColumnFilter = columnHandler.excludedInInsertStatement().negate();
         this.insertStatement = getInsertStatement(insertColumnFilter);
 
@@ -135,9 +199,9 @@ final class SqlPersistenceImpl<ENTITY> implements SqlPersistence<ENTITY> {
         this.deleteStatement = "DELETE FROM " + sqlTableReference + " WHERE " +
             sqlPrimaryKeyColumnList(pk -> pk + " = ?");
 
-        this.columnsByFields = MapStream.fromKeys(fields.get(), f ->
-            DocumentDbUtil.referencedColumn(project, f.identifier())
-        ).toMap();
+        this.insertBinder = newInsertBinder();
+        this.updateBinder = newUpdateBinder();
+        this.removeBinder = new EntityBinder<>(primaryKeyFields.get().collect(toList()));
 
         this.generatedFieldSupports = columnsByFields.entrySet().stream().filter(e -> e.getValue().isAutoIncrement())
         .map(e -> new GeneratedFieldSupport<>(
@@ -147,6 +211,65 @@ final class SqlPersistenceImpl<ENTITY> implements SqlPersistence<ENTITY> {
         
         this.generatedFields = generatedFieldSupports.stream()
             .map(GeneratedFieldSupport::getField).collect(toList());
+
+        this.fieldsByBit = newFieldsByBit();
+        this.updateMask = maskOf(updateColumnFilter);
+        this.partialUpdates = new ConcurrentHashMap<>();
+        this.limitedPersistences = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Returns an array with the field of each bit used by
+     * {@link HasDirtyFields} or {@code null} if the table has too many
+     * columns for dirty field tracking.
+     */
+    @SuppressWarnings("unchecked")
+    private Field<ENTITY>[] newFieldsByBit() {
+        final List<Column> columns = table.columns()
+            .filter(Column::isEnabled)
+            .sorted(comparing(Column::getOrdinalPosition))
+            .collect(toList());
+        if (columns.size() > HasDirtyFields.MAX_FIELDS) {
+            return null;
+        }
+        final Map<String, Integer> bitByColumnId = new HashMap<>();
+        for (int bit = 0; bit < columns.size(); bit++) {
+            bitByColumnId.put(columns.get(bit).getId(), bit);
+        }
+        final Field<ENTITY>[] result = new Field[columns.size()];
+        columnsByFields.forEach((field, column) -> {
+            final Integer bit = bitByColumnId.get(column.getId());
+            if (bit != null) {
+                result[bit] = field;
+            }
+        });
+        return result;
+    }
+
+    private long maskOf(Predicate<Column> filter) {
+        long mask = 0;
+        if (fieldsByBit != null) {
+            for (int bit = 0; bit < fieldsByBit.length; bit++) {
+                if (fieldsByBit[bit] != null && filter.test(columnsByFields.get(fieldsByBit[bit]))) {
+                    mask |= 1L << bit;
+                }
+            }
+        }
+        return mask;
+    }
+
+    private EntityBinder<ENTITY> newInsertBinder() {
+        return new EntityBinder<>(fields.get()
+            .filter(f -> insertColumnFilter.test(columnsByFields.get(f)))
+            .collect(toList())
+        );
+    }
+
+    private EntityBinder<ENTITY> newUpdateBinder() {
+        return new EntityBinder<>(Stream.concat(
+            fields.get().filter(f -> updateColumnFilter.test(columnsByFields.get(f))),
+            primaryKeyFields.get()
+        ).collect(toList()));
     }
 
     private String getUpdateStatement(Predicate<Column> includedInUpdate) {
@@ -173,6 +296,10 @@ final class SqlPersistenceImpl<ENTITY> implements SqlPersistence<ENTITY> {
         operationHandler = template.operationHandler;
         columnHandler = template.columnHandler;
         entityClass = template.entityClass;
+        connectionInfoSupplier = template.connectionInfoSupplier;
+        cacheInvalidator = template.cacheInvalidator;
+        inTransaction = template.inTransaction;
+        columnsByFields = template.columnsByFields;
 
         this.insertColumnFilter = columnHandler.excludedInInsertStatement().negate().and(c -> includedFields.test(c.getId()));
         this.insertStatement = getInsertStatement(insertColumnFilter);
@@ -184,23 +311,38 @@ final class SqlPersistenceImpl<ENTITY> implements SqlPersistence<ENTITY> {
 
         generatedFieldSupports = template.generatedFieldSupports;
         generatedFields = template.generatedFields;
-        columnsByFields = template.columnsByFields;
-    }
 
+        insertBinder = newInsertBinder();
+        updateBinder = newUpdateBinder();
+        removeBinder = template.removeBinder;
 
-    SqlPersistenceImpl<ENTITY>  withLimitedFields(HasLabelSet<ENTITY> fields) {
-        return new SqlPersistenceImpl<>(this, fields);
+        fieldsByBit = template.fieldsByBit;
+        updateMask = maskOf(updateColumnFilter);
+        partialUpdates = new ConcurrentHashMap<>();
+        limitedPersistences = template.limitedPersistences;
+    }
+
+    SqlPersistenceImpl<ENTITY> withLimitedFields(HasLabelSet<ENTITY> fields) {
+        if (fieldsByBit == null) {
+            return new SqlPersistenceImpl<>(this, fields);
+        }
+        // The statements only depend on which of the fields that are included
+        final long mask = maskOf(c -> fields.test(c.getId()));
+        if (limitedPersistences.size() < MAX_CACHED_STATEMENTS) {
+            return limitedPersistences.computeIfAbsent(mask, m -> new SqlPersistenceImpl<>(this, fields));
+        }
+        final SqlPersistenceImpl<ENTITY> cached = limitedPersistences.get(mask);
+        return cached == null ? new SqlPersistenceImpl<>(this, fields) : cached;
     }
 
     @Override
     public ENTITY persist(ENTITY entity) throws SpeedmentException {
-        final List<Object> values = fields.get()
-            .filter(f -> insertColumnFilter.test(columnsByFields.get(f)))
-            .map(f -> toDatabaseType(f, entity))
-            .collect(toList());
+        final List<Object> values = insertBinder.values(entity);
 
         try {
             operationHandler.executeInsert(dbms, insertStatement, values, generatedFields, newGeneratedKeyConsumer(entity));
+            clearDirtyFieldsIfCommitted(entity);
+            cacheInvalidator.accept(entity);
             return entity;
         } catch (final SQLException ex) {
             throw new SpeedmentException(ex);
@@ -211,37 +353,157 @@ final class SqlPersistenceImpl<ENTITY> implements SqlPersistence<ENTITY> {
     public ENTITY update(ENTITY entity) throws SpeedmentException {
         assertHasPrimaryKeyColumns();
 
-        final List<Object> values = Stream.concat(
-            fields.get().filter(f -> updateColumnFilter.test(columnsByFields.get(f))),
-            primaryKeyFields.get()
-        )
-            .map(f -> toDatabaseType(f, entity))
-            .collect(Collectors.toList());
+        if (fieldsByBit != null && entity instanceof HasDirtyFields) {
+            return updateDirtyFields(entity, ((HasDirtyFields) entity).dirtyFields() & updateMask);
+        }
+
+        final List<Object> values = updateBinder.values(entity);
 
         try {
             operationHandler.executeUpdate(dbms, updateStatement, values);
+            cacheInvalidator.accept(entity);
+            return entity;
+        } catch (final SQLException ex) {
+            throw new SpeedmentException(ex);
+        }
+    }
+
+    private ENTITY updateDirtyFields(ENTITY entity, long dirtyMask) {
+        if (dirtyMask == 0) {
+            // Nothing has changed so there is no need to visit the database
+            return entity;
+        }
+
+        final PartialUpdate<ENTITY> partialUpdate = partialUpdate(dirtyMask);
+        final List<Object> values = partialUpdate.binder.values(entity);
+
+        try {
+            operationHandler.executeUpdate(dbms, partialUpdate.sql, values);
+            clearDirtyFieldsIfCommitted(entity);
+            cacheInvalidator.accept(entity);
             return entity;
         } catch (final SQLException ex) {
             throw new SpeedmentException(ex);
         }
     }
 
+    PartialUpdate<ENTITY> partialUpdate(long dirtyMask) {
+        if (partialUpdates.size() < MAX_CACHED_STATEMENTS) {
+            return partialUpdates.computeIfAbsent(dirtyMask, this::newPartialUpdate);
+        }
+        final PartialUpdate<ENTITY> cached = partialUpdates.get(dirtyMask);
+        return cached == null ? newPartialUpdate(dirtyMask) : cached;
+    }
+
+    private PartialUpdate<ENTITY> newPartialUpdate(long dirtyMask) {
+        final List<Field<ENTITY>> setFields = new ArrayList<>(Long.bitCount(dirtyMask));
+        for (int bit = 0; bit < fieldsByBit.length; bit++) {
+            if ((dirtyMask & (1L << bit)) != 0) {
+                setFields.add(fieldsByBit[bit]);
+            }
+        }
+        final String sql = "UPDATE " + sqlTableReference + " SET " +
+            setFields.stream()
+                .map(columnsByFields::get)
+                .map(Column::getName)
+                .map(naming::encloseField)
+                .map(n -> n + " = ?")
+                .collect(joining(",")) +
+            " WHERE " + sqlPrimaryKeyColumnList(pk -> pk + " = ?");
+        final EntityBinder<ENTITY> binder = new EntityBinder<>(
+            Stream.concat(setFields.stream(), primaryKeyFields.get()).collect(toList())
+        );
+        return new PartialUpdate<>(sql, binder);
+    }
+
+    private void clearDirtyFieldsIfCommitted(ENTITY entity) {
+        // A write within a transaction may still be rolled back, in which
+        // case the fields must be written again by the next update
+        if (entity instanceof HasDirtyFields && !inTransaction.getAsBoolean()) {
+            ((HasDirtyFields) entity).clearDirtyFields();
+        }
+    }
+
     @Override
     public ENTITY remove(ENTITY entity) throws SpeedmentException {
         assertHasPrimaryKeyColumns();
         
-        final List<Object> values = primaryKeyFields.get()
-            .map(f -> toDatabaseType(f, entity))
-            .collect(toList());
+        final List<Object> values = removeBinder.values(entity);
 
         try {
             operationHandler.executeDelete(dbms, deleteStatement, values);
+            cacheInvalidator.accept(entity);
             return entity;
         } catch (final SQLException ex) {
             throw new SpeedmentException(ex);
         }
     }
     
+    @Override
+    public BatchedPersister<ENTITY> batchedPersister(int batchSize) {
+        return new SqlBatch.BatchedPersisterImpl<>(
+            connectionInfoSupplier,
+            insertStatement,
+            insertBinder::bind,
+            (ps, entities) -> {
+                handleGeneratedKeys(ps, entities);
+                entities.forEach(cacheInvalidator);
+            },
+            generatedFieldSupports.size() == 1,
+            batchSize
+        );
+    }
+
+    @Override
+    public BatchedUpdater<ENTITY> batchedUpdater(int batchSize) {
+        assertHasPrimaryKeyColumns();
+        // All rows of a batch share a single statement so every updatable
+        // column is written regardless of the dirty fields of the entities
+        return new SqlBatch.BatchedUpdaterImpl<>(
+            connectionInfoSupplier,
+            updateStatement,
+            updateBinder::bind,
+            (ps, entities) -> entities.forEach(cacheInvalidator),
+            batchSize
+        );
+    }
+
+    @Override
+    public BatchedRemover<ENTITY> batchedRemover(int batchSize) {
+        assertHasPrimaryKeyColumns();
+        return new SqlBatch.BatchedRemoverImpl<>(
+            connectionInfoSupplier,
+            deleteStatement,
+            removeBinder::bind,
+            (ps, entities) -> entities.forEach(cacheInvalidator),
+            batchSize
+        );
+    }
+
+    private void handleGeneratedKeys(PreparedStatement ps, List<ENTITY> entities) throws SQLException {
+        // Drivers return a single generated key per inserted row so the keys
+        // can only be aligned with the entities if there is one generated column
+        if (generatedFieldSupports.size() != 1) {
+            return;
+        }
+        
+        final SqlInsertStatement statement = new SqlInsertStatement(
+            insertStatement, 
+            emptyList(), 
+            new ArrayList<>(generatedFields), 
+            keys -> {
+                // The keys of all rows in the batch are returned in order
+                for (int i = 0; i < entities.size() && i < keys.size(); i++) {
+                    newGeneratedKeyConsumer(entities.get(i))
+                        .accept(singletonList(keys.get(i)));
+                }
+            }
+        );
+        
+        operationHandler.handleGeneratedKeys(ps, statement);
+        statement.notifyGeneratedKeyListener();
+    }
+    
     private Consumer<List<Long>> newGeneratedKeyConsumer(ENTITY entity) {
         return l -> {
             if (!l.isEmpty()) {
@@ -265,15 +527,6 @@ final class SqlPersistenceImpl<ENTITY> implements SqlPersistence<ENTITY> {
         };
     }
     
-    private <F extends Field<ENTITY>> Object toDatabaseType(F field, ENTITY entity) {
-        final Object javaValue = field.getter().apply(entity);
-        
-        @SuppressWarnings("unchecked")
-        final Object dbValue = ((TypeMapper<Object, Object>) field.typeMapper()).toDatabaseType(javaValue);
-        
-        return dbValue;
-    }
-    
     private String sqlPrimaryKeyColumnList(Function<String, String> postMapper) {
         requireNonNull(postMapper);
         return table.primaryKeyColumns()
@@ -314,6 +567,21 @@ final class SqlPersistenceImpl<ENTITY> implements SqlPersistence<ENTITY> {
         }
     }
 
+    /**
+     * An update statement that only sets some of the columns together with
+     * the binder of its parameters.
+     */
+    static final class PartialUpdate<ENTITY> {
+
+        final String sql;
+        final EntityBinder<ENTITY> binder;
+
+        private PartialUpdate(String sql, EntityBinder<ENTITY> binder) {
+            this.sql = requireNonNull(sql);
+            this.binder = requireNonNull(binder);
+        }
+    }
+
     private final static class GeneratedFieldSupport<ENTITY, T> {
 
         private final Field<ENTITY> field;
@@ -18,11 +18,14 @@ package com.speedment.runtime.core.internal.component.sql;
 
 import com.speedment.runtime.core.component.sql.SqlStreamOptimizerInfo;
 import com.speedment.runtime.core.db.DbmsType;
+import com.speedment.runtime.core.db.SqlFunction;
 import com.speedment.runtime.field.Field;
+import java.sql.ResultSet;
 import java.util.List;
 import static java.util.Objects.requireNonNull;
 import java.util.function.Function;
 import java.util.function.ToLongBiFunction;
+import java.util.stream.Stream;
 
 /**
  *
@@ -30,12 +33,20 @@ import java.util.function.ToLongBiFunction;
  */
 public final class SqlStreamOptimizerInfoImpl<ENTITY> implements SqlStreamOptimizerInfo<ENTITY> {
 
+    public static final QueryExecutor NO_QUERY_EXECUTOR = new QueryExecutor() {
+        @Override
+        public <T> Stream<T> executeQuery(String sql, List<Object> values, SqlFunction<ResultSet, T> rsMapper) {
+            throw new UnsupportedOperationException("This " + SqlStreamOptimizerInfo.class.getSimpleName() + " can not execute queries.");
+        }
+    };
+
     private final DbmsType dbmsType;
     private final String sqlSelect;
     private final String sqlSelectCount;
     private final ToLongBiFunction<String, List<Object>> counter;
     private final Function<Field<ENTITY>, String> sqlColumnNamer;
     private final Function<Field<ENTITY>, Class<?>> sqlDatabaseTypeFunction;
+    private final QueryExecutor queryExecutor;
 
     public SqlStreamOptimizerInfoImpl(
         final DbmsType dbmsType,
@@ -43,7 +54,8 @@ public final class SqlStreamOptimizerInfoImpl<ENTITY> implements SqlStreamOptimi
         final String sqlSelectCount,
         final ToLongBiFunction<String, List<Object>> counter,
         final Function<Field<ENTITY>, String> sqlColumnNamer,
-        final Function<Field<ENTITY>, Class<?>> sqlDatabaseTypeFunction
+        final Function<Field<ENTITY>, Class<?>> sqlDatabaseTypeFunction,
+        final QueryExecutor queryExecutor
     ) {
         this.dbmsType = requireNonNull(dbmsType);
         this.sqlSelect = requireNonNull(sqlSelect);
@@ -51,6 +63,7 @@ public final class SqlStreamOptimizerInfoImpl<ENTITY> implements SqlStreamOptimi
         this.counter = requireNonNull(counter);
         this.sqlColumnNamer = requireNonNull(sqlColumnNamer);
         this.sqlDatabaseTypeFunction = requireNonNull(sqlDatabaseTypeFunction);
+        this.queryExecutor = requireNonNull(queryExecutor);
     }
 
     @Override
@@ -83,4 +96,9 @@ public final class SqlStreamOptimizerInfoImpl<ENTITY> implements SqlStreamOptimi
         return sqlDatabaseTypeFunction;
     }
 
+    @Override
+    public QueryExecutor getQueryExecutor() {
+        return queryExecutor;
+    }
+
 }
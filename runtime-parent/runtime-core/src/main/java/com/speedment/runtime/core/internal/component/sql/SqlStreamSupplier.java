@@ -17,6 +17,7 @@
 package com.speedment.runtime.core.internal.component.sql;
 
 import com.speedment.runtime.core.component.sql.SqlStreamSupplierComponent;
+import com.speedment.runtime.core.db.FetchHints;
 import com.speedment.runtime.core.stream.parallel.ParallelStrategy;
 import com.speedment.runtime.field.trait.HasComparableOperators;
 
@@ -42,6 +43,18 @@ interface SqlStreamSupplier<ENTITY> {
      * @return                  the entity stream
      */
     Stream<ENTITY> stream(ParallelStrategy parallelStrategy);
+
+    /**
+     * Produces a stream over the entities in the managed table as described
+     * in {@link #stream(ParallelStrategy)} where rows are fetched according
+     * to the given hints.
+     *
+     * @param parallelStrategy  the parallel strategy to use
+     * @param fetchHints        hints on how rows shall be fetched
+     * @return                  the entity stream
+     * @since 3.1.6
+     */
+    Stream<ENTITY> stream(ParallelStrategy parallelStrategy, FetchHints fetchHints);
     
     /**
      * Finds a particular entity based on an ordinary key-value search. This is
@@ -25,9 +25,13 @@ import com.speedment.runtime.core.component.DbmsHandlerComponent;
 import com.speedment.runtime.core.component.ManagerComponent;
 import com.speedment.runtime.core.component.ProjectComponent;
 import com.speedment.runtime.core.component.SqlAdapter;
+import com.speedment.runtime.core.component.cache.EntityCacheComponent;
+import com.speedment.runtime.core.component.resultset.ResultSetMapperComponent;
 import com.speedment.runtime.core.component.sql.SqlStreamOptimizerComponent;
 import com.speedment.runtime.core.component.sql.SqlStreamSupplierComponent;
 import com.speedment.runtime.core.component.sql.override.SqlStreamTerminatorComponent;
+import com.speedment.runtime.core.component.transaction.TransactionComponent;
+import com.speedment.runtime.core.db.FetchHints;
 import com.speedment.runtime.core.db.SqlFunction;
 import com.speedment.runtime.core.stream.parallel.ParallelStrategy;
 import java.sql.ResultSet;
@@ -48,6 +52,8 @@ public final class SqlStreamSupplierComponentImpl implements SqlStreamSupplierCo
     private final Map<TableIdentifier<?>, SqlStreamSupplier<?>> supportMap;
     @Config(name = "allowStreamIteratorAndSpliterator", value = "false")
     private boolean allowStreamIteratorAndSpliterator;
+    @Config(name = "allowStreamColumnProjection", value = "true")
+    private boolean allowStreamColumnProjection;
 
     public SqlStreamSupplierComponentImpl() {
         this.supportMap = new ConcurrentHashMap<>();
@@ -61,7 +67,8 @@ public final class SqlStreamSupplierComponentImpl implements SqlStreamSupplierCo
         final DbmsHandlerComponent dbmsHandlerComponent,
         final ManagerComponent managerComponent,
         final SqlStreamOptimizerComponent sqlStreamOptimizerComponent,
-        final SqlStreamTerminatorComponent sqlStreamTerminatorComponent
+        final SqlStreamTerminatorComponent sqlStreamTerminatorComponent,
+        final ResultSetMapperComponent resultSetMapperComponent
     ) {
 
         injector.stream(SqlAdapter.class)
@@ -74,7 +81,11 @@ public final class SqlStreamSupplierComponentImpl implements SqlStreamSupplierCo
                     managerComponent,
                     sqlStreamOptimizerComponent,
                     sqlStreamTerminatorComponent,
-                    allowStreamIteratorAndSpliterator
+                    resultSetMapperComponent,
+                    injector.get(TransactionComponent.class).orElse(null),
+                    injector.get(EntityCacheComponent.class).orElse(null),
+                    allowStreamIteratorAndSpliterator,
+                    allowStreamColumnProjection
                 );
                 supportMap.put(sa.identifier(), supplier);
             });
@@ -86,6 +97,12 @@ public final class SqlStreamSupplierComponentImpl implements SqlStreamSupplierCo
         return supplier.stream(parallelStrategy);
     }
 
+    @Override
+    public <ENTITY> Stream<ENTITY> stream(TableIdentifier<ENTITY> tableIdentifier, ParallelStrategy parallelStrategy, FetchHints fetchHints) {
+        final SqlStreamSupplier<ENTITY> supplier = getStreamSupplier(tableIdentifier);
+        return supplier.stream(parallelStrategy, fetchHints);
+    }
+
     private <ENTITY> SqlStreamSupplier<ENTITY> getStreamSupplier(TableIdentifier<ENTITY> tableIdentifier) {
         @SuppressWarnings("unchecked")
         final SqlStreamSupplier<ENTITY> streamSupplier = (SqlStreamSupplier<ENTITY>) supportMap.get(tableIdentifier);
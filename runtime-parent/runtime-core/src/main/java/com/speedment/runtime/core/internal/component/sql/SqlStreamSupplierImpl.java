@@ -30,22 +30,34 @@ import com.speedment.runtime.core.ApplicationBuilder;
 import com.speedment.runtime.core.component.DbmsHandlerComponent;
 import com.speedment.runtime.core.component.ManagerComponent;
 import com.speedment.runtime.core.component.ProjectComponent;
+import com.speedment.runtime.core.component.cache.EntityCacheComponent;
+import com.speedment.runtime.core.component.resultset.ResultSetMapperComponent;
+import com.speedment.runtime.core.component.resultset.ResultSetMapping;
 import com.speedment.runtime.core.component.sql.SqlStreamOptimizerComponent;
 import com.speedment.runtime.core.component.sql.SqlStreamOptimizerInfo;
 import com.speedment.runtime.core.component.sql.override.SqlStreamTerminatorComponent;
+import com.speedment.runtime.core.component.transaction.TransactionComponent;
 import com.speedment.runtime.core.db.AsynchronousQueryResult;
 import com.speedment.runtime.core.db.DatabaseNamingConvention;
 import com.speedment.runtime.core.db.DbmsType;
+import com.speedment.runtime.core.db.FetchHints;
 import com.speedment.runtime.core.db.SqlFunction;
 import com.speedment.runtime.core.exception.SpeedmentException;
+import com.speedment.runtime.core.internal.component.sql.optimizer.ColumnProjectionOptimizer;
+import com.speedment.runtime.core.internal.component.sql.optimizer.EntityCacheOptimizer;
+import com.speedment.runtime.core.internal.component.sql.optimizer.EntityCopier;
 import com.speedment.runtime.core.internal.manager.sql.SqlStreamTerminator;
 import com.speedment.runtime.core.internal.stream.builder.ReferenceStreamBuilder;
 import com.speedment.runtime.core.internal.stream.builder.pipeline.PipelineImpl;
+import com.speedment.runtime.core.internal.util.sql.ResultSetUtil;
+import com.speedment.runtime.core.manager.HasDirtyFields;
 import com.speedment.runtime.core.manager.Manager;
 import com.speedment.runtime.core.stream.parallel.ParallelStrategy;
+import com.speedment.runtime.core.stream.parallel.PartitionedParallelStrategy;
 import com.speedment.runtime.core.util.DatabaseUtil;
 import com.speedment.runtime.field.Field;
 import com.speedment.runtime.field.trait.HasComparableOperators;
+import com.speedment.runtime.typemapper.TypeMapper;
 
 import java.sql.ResultSet;
 import java.util.*;
@@ -58,7 +70,9 @@ import static java.lang.String.format;
 import static java.util.Objects.requireNonNull;
 import static java.util.function.Function.identity;
 import static java.util.stream.Collectors.joining;
+import static java.util.stream.Collectors.toList;
 import static java.util.stream.Collectors.toMap;
+import static java.util.stream.Collectors.toSet;
 
 /**
  * Default implementation of the {@link SqlStreamSupplier}-interface.
@@ -75,12 +89,18 @@ final class SqlStreamSupplierImpl<ENTITY> implements SqlStreamSupplier<ENTITY> {
     private final DbmsType dbmsType;
     private final Map<ColumnIdentifier<ENTITY>, String> columnNameMap;
     private final Map<ColumnIdentifier<ENTITY>, Class<?>> columnDatabaseTypeMap;
+    private final Set<ColumnIdentifier<ENTITY>> nullableColumns;
     private final String sqlSelect;
     private final String sqlSelectCount;
     private final String sqlTableReference;
     private final SqlStreamOptimizerComponent sqlStreamOptimizerComponent;
     private final SqlStreamTerminatorComponent sqlStreamTerminatorComponent;
     private final boolean allowIteratorAndSpliterator;
+    private final Map<ColumnIdentifier<ENTITY>, SqlFunction<ResultSet, Object>> columnReaderMap;
+    private final ColumnProjectionOptimizer<ENTITY> columnProjectionOptimizer;
+    private final Field<ENTITY> primaryKeyField; // Nullable
+    private final TransactionComponent transactionComponent; // Nullable
+    private final EntityCacheOptimizer<ENTITY> entityCacheOptimizer;
 
     SqlStreamSupplierImpl(
         final TableIdentifier<ENTITY> tableId,
@@ -90,16 +110,22 @@ final class SqlStreamSupplierImpl<ENTITY> implements SqlStreamSupplier<ENTITY> {
         final ManagerComponent managerComponent,
         final SqlStreamOptimizerComponent sqlStreamOptimizerComponent,
         final SqlStreamTerminatorComponent sqlStreamTerminatorComponent,
-        final boolean allowIteratorAndSpliterator
+        final ResultSetMapperComponent resultSetMapperComponent,
+        final TransactionComponent transactionComponent,
+        final EntityCacheComponent entityCacheComponent,
+        final boolean allowIteratorAndSpliterator,
+        final boolean allowColumnProjection
     ) {
         requireNonNull(tableId);
         requireNonNull(projectComponent);
         requireNonNull(dbmsHandlerComponent);
         requireNonNull(managerComponent);
+        requireNonNull(resultSetMapperComponent);
 
-        this.entityMapper = requireNonNull(entityMapper);
+        this.entityMapper = withoutDirtyFields(requireNonNull(entityMapper));
         this.sqlStreamOptimizerComponent = requireNonNull(sqlStreamOptimizerComponent);
         this.sqlStreamTerminatorComponent = requireNonNull(sqlStreamTerminatorComponent);
+        this.transactionComponent = transactionComponent;
         this.allowIteratorAndSpliterator = allowIteratorAndSpliterator;
 
         final Project project = projectComponent.getProject();
@@ -150,17 +176,59 @@ final class SqlStreamSupplierImpl<ENTITY> implements SqlStreamSupplier<ENTITY> {
                 ).findDatabaseType();
                 columnDatabaseTypeMap.put(f.identifier(), javaClass);
             });
+
+        this.nullableColumns = manager.fields()
+            .filter(f -> f.findColumn(project).map(Column::isNullable).orElse(true))
+            .map(Field::identifier)
+            .collect(toSet());
+
+        this.columnReaderMap = new HashMap<>();
+        if (allowColumnProjection) {
+            manager.fields()
+                .filter(f -> columnNameMap.containsKey(f.identifier()))
+                .forEach(f -> {
+                    final Column column = f.findColumn(project).get();
+                    final ResultSetMapping<?> mapping = resultSetMapperComponent
+                        .apply(dbmsType, column.findDatabaseType());
+                    columnReader(f, column, mapping.getResultSetMethodName(dbms), manager.getEntityClass())
+                        .ifPresent(reader -> columnReaderMap.put(f.identifier(), reader));
+                });
+        }
+        this.columnProjectionOptimizer = columnReaderMap.isEmpty()
+            ? ColumnProjectionOptimizer.none()
+            : new ColumnProjectionOptimizer<>(f -> Optional.ofNullable(columnReaderMap.get(f.identifier())));
+
+        final List<Field<ENTITY>> primaryKeyFields = manager.primaryKeyFields().collect(toList());
+        this.primaryKeyField = primaryKeyFields.size() == 1
+            && isPartitionable(primaryKeyFields.get(0))
+            ? primaryKeyFields.get(0)
+            : null;
+
+        this.entityCacheOptimizer = entityCacheComponent == null || primaryKeyFields.size() != 1
+            ? EntityCacheOptimizer.none()
+            : new EntityCacheOptimizer<>(
+                () -> entityCacheComponent.get(tableId),
+                this::isInTransaction,
+                new EntityCopier<>(manager.fields().collect(toList()))
+            );
     }
 
     @Override
     public Stream<ENTITY> stream(ParallelStrategy parallelStrategy) {
+        return stream(parallelStrategy, FetchHints.defaults());
+    }
+
+    @Override
+    public Stream<ENTITY> stream(ParallelStrategy parallelStrategy, FetchHints fetchHints) {
+        requireNonNull(fetchHints);
         final AsynchronousQueryResult<ENTITY> asynchronousQueryResult
             = dbmsType.getOperationHandler().executeQueryAsync(
                 dbms,
                 sqlSelect,
                 Collections.emptyList(),
                 entityMapper,
-                parallelStrategy
+                parallelStrategy,
+                fetchHints
             );
 
         final SqlStreamOptimizerInfo<ENTITY> info = SqlStreamOptimizerInfo.of(
@@ -169,7 +237,8 @@ final class SqlStreamSupplierImpl<ENTITY> implements SqlStreamSupplier<ENTITY> {
             sqlSelectCount,
             this::executeAndGetLong,
             this::sqlColumnNamer,
-            this::sqlDatabaseTypeFunction
+            this::sqlDatabaseTypeFunction,
+            this::executeQuery
         );
 
         final SqlStreamTerminator<ENTITY> terminator = new SqlStreamTerminator<>(
@@ -177,16 +246,31 @@ final class SqlStreamSupplierImpl<ENTITY> implements SqlStreamSupplier<ENTITY> {
             asynchronousQueryResult,
             sqlStreamOptimizerComponent,
             sqlStreamTerminatorComponent,
-            allowIteratorAndSpliterator
+            allowIteratorAndSpliterator,
+            columnProjectionOptimizer,
+            entityCacheOptimizer
         );
 
-        final Supplier<BaseStream<?, ?>> initialSupplier
-            = () -> asynchronousQueryResult.stream();
-
-        final Stream<ENTITY> result = new ReferenceStreamBuilder<>(
-            new PipelineImpl<>(initialSupplier),
-            terminator
-        );
+        final Supplier<BaseStream<?, ?>> initialSupplier;
+        final Stream<ENTITY> result;
+        if (parallelStrategy instanceof PartitionedParallelStrategy) {
+            final PartitionedParallelStrategy partitionedStrategy = (PartitionedParallelStrategy) parallelStrategy;
+            final List<PartitionedQueryResult<ENTITY>> partitioned = new ArrayList<>(1);
+            initialSupplier = () -> {
+                final Optional<PartitionedQueryResult<ENTITY>> partitions
+                    = partition(asynchronousQueryResult, partitionedStrategy, fetchHints);
+                if (partitions.isPresent()) {
+                    partitioned.add(partitions.get());
+                    return partitions.get().stream();
+                }
+                return asynchronousQueryResult.stream();
+            };
+            result = new ReferenceStreamBuilder<>(new PipelineImpl<>(initialSupplier), terminator);
+            result.onClose(() -> partitioned.forEach(PartitionedQueryResult::close));
+        } else {
+            initialSupplier = () -> asynchronousQueryResult.stream();
+            result = new ReferenceStreamBuilder<>(new PipelineImpl<>(initialSupplier), terminator);
+        }
 
         // Make sure we are closing the ResultSet, Statement and Connection later
         result.onClose(asynchronousQueryResult::close);
@@ -194,6 +278,110 @@ final class SqlStreamSupplierImpl<ENTITY> implements SqlStreamSupplier<ENTITY> {
         return result;
     }
 
+    /**
+     * Splits the (possibly optimized) query into ranges of the partition
+     * field of the given strategy. Each range is read by a query of its own.
+     * Returns {@code Optional.empty()} if the query can not or shall not be
+     * partitioned, in which case it shall be read as usual.
+     */
+    private Optional<PartitionedQueryResult<ENTITY>> partition(
+        final AsynchronousQueryResult<ENTITY> query,
+        final PartitionedParallelStrategy strategy,
+        final FetchHints fetchHints
+    ) {
+        if (isInTransaction()) {
+            // A transaction is bound to a single connection
+            return Optional.empty();
+        }
+
+        final Optional<String> columnName = partitionField(strategy).map(this::sqlColumnNamer);
+        if (!columnName.isPresent()) {
+            return Optional.empty();
+        }
+
+        final String fromClause = " FROM " + sqlTableReference;
+        final String sql = query.getSql();
+        final Optional<String> rangeSql = PartitionedQueryResult.rangeSql(sql, fromClause, columnName.get());
+        if (strategy.getPartitions() < 2 || !rangeSql.isPresent()) {
+            return Optional.empty();
+        }
+
+        final int fromIndex = sql.indexOf(fromClause);
+        final String minMaxSql = "SELECT MIN(" + columnName.get() + "), MAX(" + columnName.get() + ")"
+            + sql.substring(fromIndex);
+        final List<Object> values = new ArrayList<>(query.getValues());
+        LOGGER_SELECT.debug("%s, values:%s", minMaxSql, values);
+        final Optional<long[]> minMax;
+        try (Stream<long[]> rows = dbmsType.getOperationHandler().executeQuery(dbms,
+            minMaxSql,
+            values,
+            rs -> {
+                final long min = rs.getLong(1);
+                final long max = rs.getLong(2);
+                return rs.wasNull() ? null : new long[]{min, max};
+            },
+            1
+        )) {
+            minMax = rows.filter(Objects::nonNull).findAny();
+        }
+        if (!minMax.isPresent()) {
+            // There are no rows to partition
+            return Optional.empty();
+        }
+
+        final List<AsynchronousQueryResult<ENTITY>> partitions = PartitionedQueryResult
+            .ranges(minMax.get()[0], minMax.get()[1], strategy.getPartitions())
+            .stream()
+            .map(range -> {
+                final List<Object> rangeValues = new ArrayList<>(values);
+                rangeValues.add(range[0]);
+                rangeValues.add(range[1]);
+                return dbmsType.getOperationHandler().executeQueryAsync(
+                    dbms,
+                    rangeSql.get(),
+                    rangeValues,
+                    query.getRsMapper(),
+                    strategy.getFallbackStrategy(),
+                    fetchHints
+                );
+            })
+            .collect(toList());
+
+        return Optional.of(new PartitionedQueryResult<>(partitions));
+    }
+
+    private boolean isInTransaction() {
+        return transactionComponent != null
+            && transactionComponent.get(Thread.currentThread()).isPresent();
+    }
+
+    private Optional<Field<ENTITY>> partitionField(PartitionedParallelStrategy strategy) {
+        final Optional<Field<?>> requested = strategy.getPartitionField();
+        if (requested.isPresent()) {
+            @SuppressWarnings("unchecked")
+            final Field<ENTITY> field = (Field<ENTITY>) requested.get();
+            if (sqlColumnNamer(field) == null || !isPartitionable(field)) {
+                throw new SpeedmentException(
+                    "The field " + field.identifier() + " can not be used to partition "
+                    + sqlTableReference + ". It must map to a non-nullable integral column of the table."
+                );
+            }
+            return Optional.of(field);
+        }
+        return Optional.ofNullable(primaryKeyField);
+    }
+
+    private boolean isPartitionable(Field<ENTITY> field) {
+        final Class<?> databaseType = sqlDatabaseTypeFunction(field);
+        // Rows where the column is null would not be part of any range
+        return columnNameMap.containsKey(field.identifier())
+            && !nullableColumns.contains(field.identifier())
+            && (databaseType == Long.class
+            || databaseType == Integer.class
+            || databaseType == Short.class
+            || databaseType == Byte.class);
+    }
+
     @Override
     public <V extends Comparable<? super V>> Optional<ENTITY> findAny(HasComparableOperators<ENTITY, V> field, V value) {
         return stream(ParallelStrategy.computeIntensityDefault())
@@ -207,11 +395,34 @@ final class SqlStreamSupplierImpl<ENTITY> implements SqlStreamSupplier<ENTITY> {
 
     public long executeAndGetLong(String sql, List<Object> values) {
         LOGGER_SELECT.debug("%s, values:%s", sql, values);
-        return dbmsType.getOperationHandler().executeQuery(dbms,
+        try (Stream<Long> rows = dbmsType.getOperationHandler().executeQuery(dbms,
             sql,
             values,
-            rs -> rs.getLong(1)
-        ).findAny().get();
+            rs -> rs.getLong(1),
+            1
+        )) {
+            return rows.findAny().get();
+        }
+    }
+
+    private <T> Stream<T> executeQuery(String sql, List<Object> values, SqlFunction<ResultSet, T> rsMapper) {
+        LOGGER_SELECT.debug("%s, values:%s", sql, values);
+        return dbmsType.getOperationHandler().executeQuery(dbms, sql, values, rsMapper);
+    }
+
+    /**
+     * Returns a mapper that marks the fields of the entities that are read
+     * from the database as unchanged since they have been set by the
+     * original mapper.
+     */
+    private static <ENTITY> SqlFunction<ResultSet, ENTITY> withoutDirtyFields(SqlFunction<ResultSet, ENTITY> entityMapper) {
+        return rs -> {
+            final ENTITY entity = entityMapper.apply(rs);
+            if (entity instanceof HasDirtyFields) {
+                ((HasDirtyFields) entity).clearDirtyFields();
+            }
+            return entity;
+        };
     }
 
     private String sqlColumnNamer(Field<ENTITY> field) {
@@ -221,4 +432,54 @@ final class SqlStreamSupplierImpl<ENTITY> implements SqlStreamSupplier<ENTITY> {
     private Class<?> sqlDatabaseTypeFunction(Field<ENTITY> field) {
         return columnDatabaseTypeMap.get(field.identifier());
     }
+
+    /**
+     * Returns a reader that reads the Java value of the given field from the
+     * first column of a ResultSet in the same way as the generated entity
+     * mapper does, or {@code Optional.empty()} if the database type is not
+     * supported.
+     */
+    private static <ENTITY> Optional<SqlFunction<ResultSet, Object>> columnReader(
+        final Field<ENTITY> field,
+        final Column column,
+        final String resultSetMethodName,
+        final Class<ENTITY> entityClass
+    ) {
+        final SqlFunction<ResultSet, Object> dbReader
+            = databaseReader(resultSetMethodName, column.isNullable());
+        if (dbReader == null) {
+            return Optional.empty();
+        }
+
+        @SuppressWarnings("unchecked")
+        final TypeMapper<Object, Object> typeMapper = (TypeMapper<Object, Object>) field.typeMapper();
+        final Class<?> typeMapperClass = typeMapper.getClass();
+        if (typeMapperClass == TypeMapper.identity().getClass()
+            || typeMapperClass == TypeMapper.primitive().getClass()) {
+            return Optional.of(dbReader);
+        }
+        return Optional.of(rs -> typeMapper.toJavaType(column, entityClass, dbReader.apply(rs)));
+    }
+
+    private static SqlFunction<ResultSet, Object> databaseReader(String methodName, boolean nullable) {
+        switch (methodName) {
+            case "Int":        return nullable ? rs -> ResultSetUtil.getInt(rs, 1) : rs -> rs.getInt(1);
+            case "Long":       return nullable ? rs -> ResultSetUtil.getLong(rs, 1) : rs -> rs.getLong(1);
+            case "Short":      return nullable ? rs -> ResultSetUtil.getShort(rs, 1) : rs -> rs.getShort(1);
+            case "Byte":       return nullable ? rs -> ResultSetUtil.getByte(rs, 1) : rs -> rs.getByte(1);
+            case "Float":      return nullable ? rs -> ResultSetUtil.getFloat(rs, 1) : rs -> rs.getFloat(1);
+            case "Double":     return nullable ? rs -> ResultSetUtil.getDouble(rs, 1) : rs -> rs.getDouble(1);
+            case "Boolean":    return nullable ? rs -> ResultSetUtil.getBoolean(rs, 1) : rs -> rs.getBoolean(1);
+            // The getters below return null for null values
+            case "String":     return rs -> rs.getString(1);
+            case "BigDecimal": return rs -> rs.getBigDecimal(1);
+            case "Date":       return rs -> rs.getDate(1);
+            case "Time":       return rs -> rs.getTime(1);
+            case "Timestamp":  return rs -> rs.getTimestamp(1);
+            case "Blob":       return rs -> rs.getBlob(1);
+            case "Clob":       return rs -> rs.getClob(1);
+            case "Object":     return rs -> rs.getObject(1);
+            default:           return null;
+        }
+    }
 }
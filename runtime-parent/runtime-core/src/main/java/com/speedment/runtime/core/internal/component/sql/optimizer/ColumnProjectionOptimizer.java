@@ -0,0 +1,207 @@
+/**
+ *
+ * Copyright (c) 2006-2018, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.internal.component.sql.optimizer;
+
+import com.speedment.runtime.core.component.sql.SqlStreamOptimizerInfo;
+import com.speedment.runtime.core.db.AsynchronousQueryResult;
+import com.speedment.runtime.core.db.SqlFunction;
+import com.speedment.runtime.core.internal.stream.builder.action.reference.LimitAction;
+import com.speedment.runtime.core.internal.stream.builder.action.reference.MapAction;
+import com.speedment.runtime.core.internal.stream.builder.action.reference.MapToDoubleAction;
+import com.speedment.runtime.core.internal.stream.builder.action.reference.MapToIntAction;
+import com.speedment.runtime.core.internal.stream.builder.action.reference.MapToLongAction;
+import com.speedment.runtime.core.internal.stream.builder.action.reference.SkipAction;
+import com.speedment.runtime.core.internal.stream.builder.action.trait.HasMapper;
+import com.speedment.runtime.core.stream.Pipeline;
+import com.speedment.runtime.core.stream.action.Action;
+import com.speedment.runtime.field.Field;
+
+import java.sql.ResultSet;
+import java.util.Optional;
+import java.util.function.Function;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Optimization stage that is applied after the selected
+ * {@link com.speedment.runtime.core.component.sql.SqlStreamOptimizer} has
+ * pushed down what it can. If the first remaining operation (disregarding
+ * any skip() and limit() operations) is a {@code map()}, {@code mapToInt()},
+ * {@code mapToLong()} or {@code mapToDouble()} operation that uses a field of
+ * the streamed table as mapper, the query is rewritten to only select the
+ * column of that field and the rows are read using a column reader rather than
+ * the entity mapper.
+ * <p>
+ * For example, {@code films.stream().filter(Film.RATING.equal("G")).map(Film.TITLE)}
+ * will only select the {@code title} column.
+ *
+ * @author Per Minborg
+ * @param <ENTITY> entity type
+ * @since 3.1.6
+ */
+public final class ColumnProjectionOptimizer<ENTITY> {
+
+    private static final String SELECT = "SELECT ";
+    private static final String SELECT_COUNT = "SELECT COUNT(*)";
+
+    private static final ColumnProjectionOptimizer<?> NONE
+        = new ColumnProjectionOptimizer<>(f -> Optional.empty());
+
+    private final Function<Field<ENTITY>, Optional<SqlFunction<ResultSet, Object>>> columnReader;
+
+    /**
+     * Creates a new ColumnProjectionOptimizer.
+     *
+     * @param columnReader function that, for a given field, returns a reader
+     *                     that reads the Java value of the field from the
+     *                     first column of a ResultSet or
+     *                     {@code Optional.empty()} if the field can not be
+     *                     projected
+     */
+    public ColumnProjectionOptimizer(
+        final Function<Field<ENTITY>, Optional<SqlFunction<ResultSet, Object>>> columnReader
+    ) {
+        this.columnReader = requireNonNull(columnReader);
+    }
+
+    /**
+     * Returns a ColumnProjectionOptimizer that never projects any columns.
+     *
+     * @param <ENTITY> entity type
+     * @return a ColumnProjectionOptimizer that never projects any columns
+     */
+    @SuppressWarnings("unchecked")
+    public static <ENTITY> ColumnProjectionOptimizer<ENTITY> none() {
+        return (ColumnProjectionOptimizer<ENTITY>) NONE;
+    }
+
+    /**
+     * Rewrites the provided {@code query} to only select the column that is
+     * mapped to by the provided pipeline, if possible, and replaces the
+     * mapping operation in the pipeline.
+     *
+     * @param <P> Pipeline type
+     * @param pipeline to optimize
+     * @param info about the SQL
+     * @param query to optimize
+     * @return the optimized pipeline
+     */
+    public <P extends Pipeline> P optimize(
+        final P pipeline,
+        final SqlStreamOptimizerInfo<ENTITY> info,
+        final AsynchronousQueryResult<ENTITY> query
+    ) {
+        requireNonNull(pipeline);
+        requireNonNull(info);
+        requireNonNull(query);
+
+        // Skip and limit are applied in the same way regardless of the element type
+        int index = 0;
+        while (index < pipeline.size()
+            && (pipeline.get(index) instanceof SkipAction || pipeline.get(index) instanceof LimitAction)) {
+            index++;
+        }
+        if (index == pipeline.size()) {
+            return pipeline;
+        }
+
+        final Action<?, ?> action = pipeline.get(index);
+        if (!(action instanceof HasMapper)) {
+            return pipeline;
+        }
+        final Object mapper = ((HasMapper<?>) action).getMapper();
+        if (!(mapper instanceof Field)) {
+            return pipeline;
+        }
+        @SuppressWarnings("unchecked")
+        final Field<ENTITY> field = (Field<ENTITY>) mapper;
+
+        final Action<?, ?> replacement;
+        if (action instanceof MapAction) {
+            replacement = null; // The projected column already holds the mapped value
+        } else if (action instanceof MapToIntAction) {
+            replacement = new MapToIntAction<Integer>(Integer::intValue);
+        } else if (action instanceof MapToLongAction) {
+            replacement = new MapToLongAction<Long>(Long::longValue);
+        } else if (action instanceof MapToDoubleAction) {
+            replacement = new MapToDoubleAction<Double>(Double::doubleValue);
+        } else {
+            return pipeline;
+        }
+
+        final String columnName = info.getSqlColumnNamer().apply(field);
+        if (columnName == null) {
+            // The field does not belong to the streamed table
+            return pipeline;
+        }
+
+        final Optional<SqlFunction<ResultSet, Object>> reader = columnReader.apply(field);
+        if (!reader.isPresent()) {
+            return pipeline;
+        }
+
+        final Optional<String> sql = replaceSelectList(info, query.getSql(), columnName);
+        if (!sql.isPresent()) {
+            return pipeline;
+        }
+
+        query.setSql(sql.get());
+
+        @SuppressWarnings("unchecked")
+        final SqlFunction<ResultSet, ENTITY> rsMapper = (SqlFunction<ResultSet, ENTITY>) (SqlFunction<ResultSet, ?>) reader.get();
+        query.setRsMapper(rsMapper);
+
+        pipeline.remove(index);
+        if (replacement != null) {
+            pipeline.add(index, replacement);
+        }
+
+        return pipeline;
+    }
+
+    /**
+     * Returns the provided {@code sql} with its select list replaced by the
+     * provided {@code selectList} or {@code Optional.empty()} if the
+     * {@code sql} does not start with the original select statement of the
+     * table (for example because it has been wrapped in a sub-select).
+     *
+     * @param info about the SQL
+     * @param sql to rewrite
+     * @param selectList to use instead of the original column list
+     * @return the rewritten sql or {@code Optional.empty()}
+     */
+    public static Optional<String> replaceSelectList(
+        final SqlStreamOptimizerInfo<?> info,
+        final String sql,
+        final String selectList
+    ) {
+        requireNonNull(info);
+        requireNonNull(sql);
+        requireNonNull(selectList);
+        final String sqlSelect = info.getSqlSelect();
+        final String sqlSelectCount = info.getSqlSelectCount();
+        if (!sql.startsWith(sqlSelect) || !sqlSelectCount.startsWith(SELECT_COUNT)) {
+            return Optional.empty();
+        }
+        final String fromClause = sqlSelectCount.substring(SELECT_COUNT.length());
+        if (!sqlSelect.endsWith(fromClause)) {
+            return Optional.empty();
+        }
+        return Optional.of(SELECT + selectList + fromClause + sql.substring(sqlSelect.length()));
+    }
+
+}
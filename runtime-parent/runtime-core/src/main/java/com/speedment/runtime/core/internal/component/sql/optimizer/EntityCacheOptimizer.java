@@ -0,0 +1,195 @@
+/**
+ *
+ * Copyright (c) 2006-2018, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.internal.component.sql.optimizer;
+
+import com.speedment.runtime.core.component.cache.EntityCache;
+import com.speedment.runtime.core.db.AsynchronousQueryResult;
+import com.speedment.runtime.core.db.SqlFunction;
+import com.speedment.runtime.core.exception.SpeedmentException;
+import com.speedment.runtime.core.internal.stream.builder.action.reference.FilterAction;
+import com.speedment.runtime.core.stream.Pipeline;
+import com.speedment.runtime.core.stream.action.Action;
+import com.speedment.runtime.field.predicate.FieldPredicate;
+import com.speedment.runtime.field.predicate.PredicateType;
+
+import java.sql.ResultSet;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.BooleanSupplier;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+import java.util.stream.Stream;
+
+import static com.speedment.runtime.field.util.PredicateOperandUtil.getFirstOperandAsRaw;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Optimization stage that answers primary key lookups from an
+ * {@link EntityCache}. If the first operation of a pipeline is a
+ * {@code filter()} with an equality predicate on the key field of the cache,
+ * for example {@code films.stream().filter(Film.ID.equal(42))}, and the entity
+ * with that key is cached, the stream is sourced from the cached entity and no
+ * query is sent to the database. The filter is kept in the pipeline and is
+ * applied in memory.
+ * <p>
+ * If the entity is not cached, the pipeline is optimized as usual and the
+ * entity is stored in the cache when it is read from the database, unless the
+ * key is invalidated by a concurrent update or removal in the meantime.
+ * <p>
+ * Since entities are mutable, the cache only holds copies that are never
+ * handed out. Every stream that is sourced from the cache gets a new copy of
+ * the cached entity, so that an entity that is modified by the stream, for
+ * example before it is passed to {@code manager.updater()}, never affects the
+ * cache. Entities that can not be copied are not cached.
+ *
+ * @author Per Minborg
+ * @param <ENTITY> entity type
+ * @since 3.1.6
+ */
+public final class EntityCacheOptimizer<ENTITY> {
+
+    private static final EntityCacheOptimizer<?> NONE
+        = new EntityCacheOptimizer<Object>(Optional::empty, () -> true, UnaryOperator.identity());
+
+    private final Supplier<Optional<EntityCache<ENTITY>>> cacheSupplier;
+    private final BooleanSupplier bypass;
+    private final UnaryOperator<ENTITY> copier;
+
+    /**
+     * Creates a new EntityCacheOptimizer.
+     *
+     * @param cacheSupplier supplier of the cache to use or
+     *                      {@code Optional.empty()} if caching is currently
+     *                      disabled for the table
+     * @param bypass        returns {@code true} if the cache shall neither be
+     *                      read from nor be populated by the current thread,
+     *                      for example because it is part of a transaction
+     * @param copier        creates a copy of an entity, for example an
+     *                      {@link EntityCopier}
+     */
+    public EntityCacheOptimizer(
+        final Supplier<Optional<EntityCache<ENTITY>>> cacheSupplier,
+        final BooleanSupplier bypass,
+        final UnaryOperator<ENTITY> copier
+    ) {
+        this.cacheSupplier = requireNonNull(cacheSupplier);
+        this.bypass = requireNonNull(bypass);
+        this.copier = requireNonNull(copier);
+    }
+
+    /**
+     * Returns an EntityCacheOptimizer that never uses a cache.
+     *
+     * @param <ENTITY> entity type
+     * @return an EntityCacheOptimizer that never uses a cache
+     */
+    @SuppressWarnings("unchecked")
+    public static <ENTITY> EntityCacheOptimizer<ENTITY> none() {
+        return (EntityCacheOptimizer<ENTITY>) NONE;
+    }
+
+    /**
+     * Sources the provided pipeline from the cache if it is a primary key
+     * lookup of a cached entity. Otherwise, the provided {@code sqlOptimizer}
+     * is applied and the provided {@code query} is set up to populate the
+     * cache.
+     *
+     * @param <P> Pipeline type
+     * @param pipeline to optimize
+     * @param query that is used if the entity is not cached
+     * @param sqlOptimizer that rewrites the query and pipeline if the
+     *                     entity is not cached
+     * @return the optimized pipeline
+     */
+    public <P extends Pipeline> P optimize(
+        final P pipeline,
+        final AsynchronousQueryResult<ENTITY> query,
+        final UnaryOperator<P> sqlOptimizer
+    ) {
+        requireNonNull(pipeline);
+        requireNonNull(query);
+        requireNonNull(sqlOptimizer);
+
+        final Optional<EntityCache<ENTITY>> cache = cacheSupplier.get();
+        if (!cache.isPresent() || pipeline.isEmpty() || bypass.getAsBoolean()) {
+            return sqlOptimizer.apply(pipeline);
+        }
+
+        final Optional<Object> key = lookupKey(pipeline.getFirst(), cache.get());
+        if (!key.isPresent()) {
+            return sqlOptimizer.apply(pipeline);
+        }
+
+        final Optional<ENTITY> cached = cache.get().get(key.get());
+        if (cached.isPresent()) {
+            final ENTITY entity = cached.get();
+            pipeline.setInitialSupplier(() -> Stream.of(copier.apply(entity)));
+            return pipeline;
+        }
+
+        // Obtained before the query is executed so that entities read before
+        // a concurrent invalidation of the key are not cached
+        final long generation = cache.get().generation(key.get());
+        final SqlFunction<ResultSet, ENTITY> rsMapper = query.getRsMapper();
+        final P result = sqlOptimizer.apply(pipeline);
+        if (query.getRsMapper() == rsMapper) {
+            // Only entities, and not projected columns, can be cached
+            query.setRsMapper(populating(rsMapper, cache.get(), key.get(), generation));
+        }
+        return result;
+    }
+
+    private Optional<Object> lookupKey(Action<?, ?> action, EntityCache<ENTITY> cache) {
+        if (!(action instanceof FilterAction)) {
+            return Optional.empty();
+        }
+        final Predicate<?> predicate = ((FilterAction<?>) action).getPredicate();
+        if (!(predicate instanceof FieldPredicate)) {
+            return Optional.empty();
+        }
+        final FieldPredicate<?> fieldPredicate = (FieldPredicate<?>) predicate;
+        if (fieldPredicate.getPredicateType() != PredicateType.EQUAL
+            || !cache.getKeyField().identifier().equals(fieldPredicate.getField().identifier())) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(getFirstOperandAsRaw(fieldPredicate));
+    }
+
+    private SqlFunction<ResultSet, ENTITY> populating(
+        final SqlFunction<ResultSet, ENTITY> rsMapper,
+        final EntityCache<ENTITY> cache,
+        final Object key,
+        final long generation
+    ) {
+        return rs -> {
+            final ENTITY entity = rsMapper.apply(rs);
+            // Guard against caching other rows if the filter was not pushed down
+            if (entity != null && Objects.equals(key, cache.getKeyField().getter().apply(entity))) {
+                final ENTITY copy;
+                try {
+                    copy = copier.apply(entity);
+                } catch (final SpeedmentException ignored) {
+                    return entity; // Entities that can not be copied are not cached
+                }
+                cache.putIfNotInvalidated(copy, generation);
+            }
+            return entity;
+        };
+    }
+
+}
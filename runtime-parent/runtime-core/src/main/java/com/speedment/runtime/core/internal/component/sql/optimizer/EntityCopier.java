@@ -0,0 +1,90 @@
+/**
+ *
+ * Copyright (c) 2006-2018, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.internal.component.sql.optimizer;
+
+import com.speedment.runtime.core.exception.SpeedmentException;
+import com.speedment.runtime.core.manager.HasDirtyFields;
+import com.speedment.runtime.field.Field;
+
+import java.lang.reflect.Constructor;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.UnaryOperator;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Creates copies of entities by instantiating the class of the entity using
+ * its no-argument constructor and then copying the value of every field. This
+ * works for the generated entity implementations.
+ *
+ * @author Per Minborg
+ * @param <ENTITY> entity type
+ * @since 3.1.6
+ */
+public final class EntityCopier<ENTITY> implements UnaryOperator<ENTITY> {
+
+    private final List<Field<ENTITY>> fields;
+    private volatile Constructor<?> constructor; // Of the last copied class
+
+    /**
+     * Creates a new EntityCopier.
+     *
+     * @param fields all fields of the entity
+     */
+    public EntityCopier(List<Field<ENTITY>> fields) {
+        this.fields = new ArrayList<>(requireNonNull(fields));
+    }
+
+    /**
+     * Returns a copy of the given entity that has no dirty fields.
+     *
+     * @param entity to copy
+     * @return a copy of the given entity
+     * @throws SpeedmentException if the entity could not be instantiated
+     */
+    @Override
+    public ENTITY apply(ENTITY entity) {
+        requireNonNull(entity);
+        @SuppressWarnings("unchecked")
+        final ENTITY copy = (ENTITY) newInstance(entity.getClass());
+        for (final Field<ENTITY> field : fields) {
+            field.setter().set(copy, field.getter().apply(entity));
+        }
+        if (copy instanceof HasDirtyFields) {
+            ((HasDirtyFields) copy).clearDirtyFields();
+        }
+        return copy;
+    }
+
+    private Object newInstance(Class<?> entityClass) {
+        try {
+            Constructor<?> c = constructor;
+            if (c == null || c.getDeclaringClass() != entityClass) {
+                c = entityClass.getDeclaredConstructor();
+                c.setAccessible(true);
+                constructor = c;
+            }
+            return c.newInstance();
+        } catch (final ReflectiveOperationException | SecurityException ex) {
+            throw new SpeedmentException(
+                "Unable to create a copy of an entity of " + entityClass.getName(), ex
+            );
+        }
+    }
+
+}
@@ -16,12 +16,14 @@
  */
 package com.speedment.runtime.core.internal.component.sql.optimizer;
 
+import com.speedment.runtime.compute.expression.Expression;
 import com.speedment.runtime.config.identifier.ColumnIdentifier;
 import com.speedment.runtime.core.component.sql.Metrics;
 import com.speedment.runtime.core.component.sql.SqlStreamOptimizer;
 import com.speedment.runtime.core.component.sql.SqlStreamOptimizerInfo;
 import com.speedment.runtime.core.db.AsynchronousQueryResult;
 import com.speedment.runtime.core.db.DbmsType;
+import com.speedment.runtime.core.db.ExpressionView;
 import com.speedment.runtime.core.internal.stream.builder.action.reference.FilterAction;
 import com.speedment.runtime.core.internal.stream.builder.action.reference.LimitAction;
 import com.speedment.runtime.core.internal.stream.builder.action.reference.SkipAction;
@@ -30,6 +32,7 @@ import com.speedment.runtime.core.internal.stream.builder.streamterminator.Strea
 import com.speedment.runtime.core.internal.stream.builder.streamterminator.StreamTerminatorUtil.RenderResult;
 import com.speedment.runtime.core.stream.Pipeline;
 import com.speedment.runtime.core.stream.action.Action;
+import com.speedment.runtime.field.Field;
 import com.speedment.runtime.field.comparator.CombinedComparator;
 import com.speedment.runtime.field.comparator.FieldComparator;
 import com.speedment.runtime.field.comparator.NullOrder;
@@ -37,6 +40,7 @@ import com.speedment.runtime.field.comparator.NullOrder;
 import java.util.*;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.function.Predicate;
 
 import static com.speedment.runtime.core.db.DbmsType.SkipLimitSupport.NONE;
@@ -57,8 +61,9 @@ import static java.util.stream.Collectors.toList;
  *
  * <em>No other operations</em> must be in the sequence a-d or within the
  * individual items a-d. <em>All</em> parameters in a and b must be obtained via
- * fields. Failure to any of these rules will make the Optimizer reject
- * optimization. Steps a) and b) may swap places.
+ * fields or, for b), be expressions that can be rendered by the
+ * {@link ExpressionView} of the database type. Failure to any of these rules
+ * will make the Optimizer reject optimization. Steps a) and b) may swap places.
  *
  * Thus, this optimizer can handle a (FILTER*, SORTED*, SKIP*, LIMIT*) or
  * (SORTED*, LIMIT*, SKIP*, LIMIT*) pattern where all non-primitive parameters
@@ -99,7 +104,11 @@ public final class FilterSortedSkipOptimizer<ENTITY> implements SqlStreamOptimiz
         final AtomicInteger skipCounter = new AtomicInteger();
         final AtomicInteger limitCounter = new AtomicInteger();
 
+        // The columns are not known here so all fields are assumed to belong
+        // to the streamed table and to have the narrowest database type. The
+        // actual columns are checked by optimize().
         traverse(initialPipeline,
+            sortable(dbmsType, f -> "", f -> Byte.class),
             $ -> filterCounter.incrementAndGet(),
             $ -> orderCounter.incrementAndGet(),
             $ -> skipCounter.incrementAndGet(),
@@ -140,7 +149,11 @@ public final class FilterSortedSkipOptimizer<ENTITY> implements SqlStreamOptimiz
         final List<SkipAction<ENTITY>> skips = new ArrayList<>();
         final List<LimitAction<ENTITY>> limits = new ArrayList<>();
 
-        traverse(initialPipeline, filters::add, sorteds::add, skips::add, limits::add);
+        final ExpressionView expressionView = dbmsType.getExpressionView();
+        traverse(initialPipeline,
+            sortable(dbmsType, info.getSqlColumnNamer(), info.getSqlDatabaseTypeFunction()),
+            filters::add, sorteds::add, skips::add, limits::add
+        );
 
         final List<Object> values = new ArrayList<>();
         final StringBuilder sql = new StringBuilder();
@@ -170,7 +183,7 @@ public final class FilterSortedSkipOptimizer<ENTITY> implements SqlStreamOptimiz
 
         if (!sorteds.isEmpty()) {
 
-            final List<FieldComparator<ENTITY>> fieldComparators = new ArrayList<>();
+            final List<Comparator<ENTITY>> fieldComparators = new ArrayList<>();
             for (int i = sorteds.size() - 1; i >= 0; i--) {
                 final SortedComparatorAction<ENTITY> sortedAction = sorteds.get(i);
                 @SuppressWarnings("unchecked")
@@ -179,6 +192,10 @@ public final class FilterSortedSkipOptimizer<ENTITY> implements SqlStreamOptimiz
                     @SuppressWarnings("unchecked")
                     final FieldComparator<ENTITY> fieldComparator = (FieldComparator<ENTITY>) sortedAction.getComparator();
                     fieldComparators.add(fieldComparator);
+                } else if (comparator instanceof Expression) {
+                    @SuppressWarnings("unchecked")
+                    final Comparator<ENTITY> expressionComparator = (Comparator<ENTITY>) comparator;
+                    fieldComparators.add(expressionComparator);
                 }
                 if (comparator instanceof CombinedComparator) {
                     @SuppressWarnings("unchecked")
@@ -194,8 +211,26 @@ public final class FilterSortedSkipOptimizer<ENTITY> implements SqlStreamOptimiz
                 sql.append(" ORDER BY ");
                 // Iterate backwards
                 final Set<ColumnIdentifier<ENTITY>> columns = new HashSet<>();
+                final Set<String> expressions = new HashSet<>();
                 int cnt = 0;
-                for (FieldComparator<ENTITY> fieldComparator : fieldComparators) {
+                for (Comparator<ENTITY> comparator : fieldComparators) {
+                    if (!(comparator instanceof FieldComparator)) {
+                        @SuppressWarnings("unchecked")
+                        final Expression<ENTITY> expression = (Expression<ENTITY>) comparator;
+                        final String expressionSql = expressionView
+                            .render(info.getSqlColumnNamer(), info.getSqlDatabaseTypeFunction(), expression)
+                            .orElseThrow(() -> new IllegalStateException("Unable to render the expression " + expression));
+                        if (expressions.add(expressionSql)) {
+                            if (cnt++ != 0) {
+                                sql.append(", ");
+                            }
+                            // Expressions used as comparators are never null
+                            sql.append(expressionSql).append(" ASC");
+                        }
+                        continue;
+                    }
+
+                    final FieldComparator<ENTITY> fieldComparator = (FieldComparator<ENTITY>) comparator;
                     final ColumnIdentifier<ENTITY> columnIdentifier = fieldComparator.getField().identifier();
 
                     // Some databases (e.g. SQL Server) only allows distinct columns in ORDER BY 
@@ -257,6 +292,7 @@ public final class FilterSortedSkipOptimizer<ENTITY> implements SqlStreamOptimiz
     }
 
     private void traverse(Pipeline pipeline,
+        final Predicate<Action<?, ?>> sortable,
         final Consumer<? super FilterAction<ENTITY>> filterConsumer,
         final Consumer<? super SortedComparatorAction<ENTITY>> sortedConsumer,
         final Consumer<? super SkipAction<ENTITY>> skipConsumer,
@@ -266,7 +302,7 @@ public final class FilterSortedSkipOptimizer<ENTITY> implements SqlStreamOptimiz
             return;
         }
 
-        final Consumers<ENTITY> consumers = new Consumers<>(filterConsumer, sortedConsumer, skipConsumer, limitConsumer);
+        final Consumers<ENTITY> consumers = new Consumers<>(sortable, filterConsumer, sortedConsumer, skipConsumer, limitConsumer);
 
         final Action<?, ?> firstAction = pipeline.getFirst();
 
@@ -292,20 +328,20 @@ public final class FilterSortedSkipOptimizer<ENTITY> implements SqlStreamOptimiz
             // Are we on the first operation type in the path
             if (operation == path.get(0)) {
                 // Check if the current stream action is of the first operational type (e.g. SORTED)
-                if (operation.is(action)) {
+                if (operation.is(action, consumers)) {
                     // If so, consume the stream action (e.g. increase a counter or put it in a list)
                     operation.consume(action, consumers);
                     continue;
                 } else {
                     // Check if the current stream action is of the second operational type (e.g. FILTER)
-                    if (path.get(1).is(action)) {
+                    if (path.get(1).is(action, consumers)) {
                         // Move the operation state to the second operational type
                         operation = path.get(1);
                     } else {
-                        if (path.get(2).is(action)) {
+                        if (path.get(2).is(action, consumers)) {
                             operation = path.get(2);
                         } else {
-                            if (path.get(3).is(action)) {
+                            if (path.get(3).is(action, consumers)) {
                                 operation = path.get(3);
                             } else {
                                 return;
@@ -317,14 +353,14 @@ public final class FilterSortedSkipOptimizer<ENTITY> implements SqlStreamOptimiz
 
             // The same principle as above but starting at the second operation type in the path
             if (operation == path.get(1)) {
-                if (operation.is(action)) {
+                if (operation.is(action, consumers)) {
                     operation.consume(action, consumers);
                     continue;
                 } else {
-                    if (path.get(2).is(action)) {
+                    if (path.get(2).is(action, consumers)) {
                         operation = path.get(2);
                     } else {
-                        if (path.get(3).is(action)) {
+                        if (path.get(3).is(action, consumers)) {
                             operation = path.get(3);
                         } else {
                             return;
@@ -334,11 +370,11 @@ public final class FilterSortedSkipOptimizer<ENTITY> implements SqlStreamOptimiz
             }
 
             if (operation == path.get(2)) {
-                if (operation.is(action)) {
+                if (operation.is(action, consumers)) {
                     operation.consume(action, consumers);
                     continue;
                 } else {
-                    if (path.get(3).is(action)) {
+                    if (path.get(3).is(action, consumers)) {
                         operation = path.get(3);
                     } else {
                         return;
@@ -347,7 +383,7 @@ public final class FilterSortedSkipOptimizer<ENTITY> implements SqlStreamOptimiz
             }
 
             if (operation == path.get(3)) {
-                if (operation.is(action)) {
+                if (operation.is(action, consumers)) {
                     operation.consume(action, consumers);
                     continue;
                 } else {
@@ -357,6 +393,28 @@ public final class FilterSortedSkipOptimizer<ENTITY> implements SqlStreamOptimiz
         }
     }
 
+    private Predicate<Action<?, ?>> sortable(
+        final DbmsType dbmsType,
+        final Function<Field<ENTITY>, String> columnNamer,
+        final Function<Field<ENTITY>, Class<?>> columnDbTypeFunction
+    ) {
+        final ExpressionView expressionView = dbmsType.getExpressionView();
+        return action -> {
+            if (isSortedActionWithFieldPredicate(action)) {
+                return true;
+            }
+            if (action instanceof SortedComparatorAction) {
+                final Object comparator = ((SortedComparatorAction<?>) action).getComparator();
+                if (comparator instanceof Expression) {
+                    @SuppressWarnings("unchecked")
+                    final Expression<ENTITY> expression = (Expression<ENTITY>) comparator;
+                    return expressionView.render(columnNamer, columnDbTypeFunction, expression).isPresent();
+                }
+            }
+            return false;
+        };
+    }
+
     private boolean isFilterActionAndContainingOnlyFieldPredicate(Action<?, ?> action) {
         if (action instanceof FilterAction) {
             @SuppressWarnings("unchecked")
@@ -368,23 +426,30 @@ public final class FilterSortedSkipOptimizer<ENTITY> implements SqlStreamOptimiz
 
     private static class Consumers<ENTITY> {
 
+        private final Predicate<Action<?, ?>> sortable;
         private final Consumer<? super FilterAction<ENTITY>> filterConsumer;
         private final Consumer<? super SortedComparatorAction<ENTITY>> sortedConsumer;
         private final Consumer<? super SkipAction<ENTITY>> skipConsumer;
         private final Consumer<? super LimitAction<ENTITY>> limitConsumer;
 
         public Consumers(
+            final Predicate<Action<?, ?>> sortable,
             final Consumer<? super FilterAction<ENTITY>> filterConsumer,
             final Consumer<? super SortedComparatorAction<ENTITY>> sortedConsumer,
             final Consumer<? super SkipAction<ENTITY>> skipConsumer,
             final Consumer<? super LimitAction<ENTITY>> limitConsumer
         ) {
+            this.sortable = requireNonNull(sortable);
             this.filterConsumer = requireNonNull(filterConsumer);
             this.sortedConsumer = requireNonNull(sortedConsumer);;
             this.skipConsumer = requireNonNull(skipConsumer);
             this.limitConsumer = requireNonNull(limitConsumer);
         }
 
+        public boolean isSortable(Action<?, ?> action) {
+            return sortable.test(action);
+        }
+
         public Consumer<? super FilterAction<ENTITY>> getFilterConsumer() {
             return filterConsumer;
         }
@@ -405,7 +470,7 @@ public final class FilterSortedSkipOptimizer<ENTITY> implements SqlStreamOptimiz
 
     private interface Operation<ENTITY> {
 
-        boolean is(Action<?, ?> action);
+        boolean is(Action<?, ?> action, Consumers<ENTITY> consumers);
 
         void consume(Action<?, ?> action, Consumers<ENTITY> consumers);
 
@@ -414,7 +479,7 @@ public final class FilterSortedSkipOptimizer<ENTITY> implements SqlStreamOptimiz
     private class FilterOperation implements Operation<ENTITY> {
 
         @Override
-        public boolean is(Action<?, ?> action) {
+        public boolean is(Action<?, ?> action, Consumers<ENTITY> consumers) {
             return isFilterActionAndContainingOnlyFieldPredicate(action);
         }
 
@@ -430,8 +495,8 @@ public final class FilterSortedSkipOptimizer<ENTITY> implements SqlStreamOptimiz
     private class SortedOperation implements Operation<ENTITY> {
 
         @Override
-        public boolean is(Action<?, ?> action) {
-            return isSortedActionWithFieldPredicate(action);
+        public boolean is(Action<?, ?> action, Consumers<ENTITY> consumers) {
+            return consumers.isSortable(action);
         }
 
         @Override
@@ -446,7 +511,7 @@ public final class FilterSortedSkipOptimizer<ENTITY> implements SqlStreamOptimiz
     private class SkipOperation implements Operation<ENTITY> {
 
         @Override
-        public boolean is(Action<?, ?> action) {
+        public boolean is(Action<?, ?> action, Consumers<ENTITY> consumers) {
             return action instanceof SkipAction;
         }
 
@@ -462,7 +527,7 @@ public final class FilterSortedSkipOptimizer<ENTITY> implements SqlStreamOptimiz
     private class LimitOperation implements Operation<ENTITY> {
 
         @Override
-        public boolean is(Action<?, ?> action) {
+        public boolean is(Action<?, ?> action, Consumers<ENTITY> consumers) {
             return action instanceof LimitAction;
         }
 
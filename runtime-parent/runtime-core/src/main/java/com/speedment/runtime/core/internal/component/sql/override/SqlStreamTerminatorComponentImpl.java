@@ -17,9 +17,24 @@
 package com.speedment.runtime.core.internal.component.sql.override;
 
 import com.speedment.runtime.core.component.sql.override.SqlStreamTerminatorComponent;
+import com.speedment.runtime.core.component.sql.override.doubles.DoubleAverageTerminator;
 import com.speedment.runtime.core.component.sql.override.doubles.DoubleCountTerminator;
+import com.speedment.runtime.core.component.sql.override.doubles.DoubleMaxTerminator;
+import com.speedment.runtime.core.component.sql.override.doubles.DoubleMinTerminator;
+import com.speedment.runtime.core.component.sql.override.doubles.DoubleSumTerminator;
+import com.speedment.runtime.core.component.sql.override.doubles.DoubleSummaryStatisticsTerminator;
+import com.speedment.runtime.core.component.sql.override.ints.IntAverageTerminator;
 import com.speedment.runtime.core.component.sql.override.ints.IntCountTerminator;
+import com.speedment.runtime.core.component.sql.override.ints.IntMaxTerminator;
+import com.speedment.runtime.core.component.sql.override.ints.IntMinTerminator;
+import com.speedment.runtime.core.component.sql.override.ints.IntSumTerminator;
+import com.speedment.runtime.core.component.sql.override.ints.IntSummaryStatisticsTerminator;
+import com.speedment.runtime.core.component.sql.override.longs.LongAverageTerminator;
 import com.speedment.runtime.core.component.sql.override.longs.LongCountTerminator;
+import com.speedment.runtime.core.component.sql.override.longs.LongMaxTerminator;
+import com.speedment.runtime.core.component.sql.override.longs.LongMinTerminator;
+import com.speedment.runtime.core.component.sql.override.longs.LongSumTerminator;
+import com.speedment.runtime.core.component.sql.override.longs.LongSummaryStatisticsTerminator;
 import com.speedment.runtime.core.component.sql.override.reference.AllMatchTerminator;
 import com.speedment.runtime.core.component.sql.override.reference.AnyMatchTerminator;
 import com.speedment.runtime.core.component.sql.override.reference.CollectSupplierAccumulatorCombinerTerminator;
@@ -39,10 +54,27 @@ import com.speedment.runtime.core.component.sql.override.reference.ReduceTermina
 import com.speedment.runtime.core.component.sql.override.reference.SpliteratorTerminator;
 import com.speedment.runtime.core.component.sql.override.reference.ToArrayGeneratorTerminator;
 import com.speedment.runtime.core.component.sql.override.reference.ToArrayTerminator;
+import com.speedment.runtime.core.internal.component.sql.override.optimized.doubles.OptimizedDoubleAverageTerminator;
 import com.speedment.runtime.core.internal.component.sql.override.optimized.doubles.OptimizedDoubleCountTerminator;
+import com.speedment.runtime.core.internal.component.sql.override.optimized.doubles.OptimizedDoubleMaxTerminator;
+import com.speedment.runtime.core.internal.component.sql.override.optimized.doubles.OptimizedDoubleMinTerminator;
+import com.speedment.runtime.core.internal.component.sql.override.optimized.doubles.OptimizedDoubleSumTerminator;
+import com.speedment.runtime.core.internal.component.sql.override.optimized.doubles.OptimizedDoubleSummaryStatisticsTerminator;
+import com.speedment.runtime.core.internal.component.sql.override.optimized.ints.OptimizedIntAverageTerminator;
 import com.speedment.runtime.core.internal.component.sql.override.optimized.ints.OptimizedIntCountTerminator;
+import com.speedment.runtime.core.internal.component.sql.override.optimized.ints.OptimizedIntMaxTerminator;
+import com.speedment.runtime.core.internal.component.sql.override.optimized.ints.OptimizedIntMinTerminator;
+import com.speedment.runtime.core.internal.component.sql.override.optimized.ints.OptimizedIntSumTerminator;
+import com.speedment.runtime.core.internal.component.sql.override.optimized.ints.OptimizedIntSummaryStatisticsTerminator;
+import com.speedment.runtime.core.internal.component.sql.override.optimized.longs.OptimizedLongAverageTerminator;
 import com.speedment.runtime.core.internal.component.sql.override.optimized.longs.OptimizedLongCountTerminator;
+import com.speedment.runtime.core.internal.component.sql.override.optimized.longs.OptimizedLongMaxTerminator;
+import com.speedment.runtime.core.internal.component.sql.override.optimized.longs.OptimizedLongMinTerminator;
+import com.speedment.runtime.core.internal.component.sql.override.optimized.longs.OptimizedLongSumTerminator;
+import com.speedment.runtime.core.internal.component.sql.override.optimized.longs.OptimizedLongSummaryStatisticsTerminator;
 import com.speedment.runtime.core.internal.component.sql.override.optimized.reference.OptimizedCountTerminator;
+import com.speedment.runtime.core.internal.component.sql.override.optimized.reference.OptimizedMaxTerminator;
+import com.speedment.runtime.core.internal.component.sql.override.optimized.reference.OptimizedMinTerminator;
 import static java.util.Objects.requireNonNull;
 
 /**
@@ -61,8 +93,8 @@ public class SqlStreamTerminatorComponentImpl implements SqlStreamTerminatorComp
     private ReduceIdentityCombinerTerminator<?> reduceIdentityCombinerTerminator = ReduceIdentityCombinerTerminator.defaultTerminator();
     private CollectTerminator<?> collectTerminator = CollectTerminator.defaultTerminator();
     private CollectSupplierAccumulatorCombinerTerminator<?> collectSupplierAccumulatorCombinerTerminator = CollectSupplierAccumulatorCombinerTerminator.defaultTerminator();
-    private MinTerminator<?> minTerminator = MinTerminator.defaultTerminator();
-    private MaxTerminator<?> maxTerminator = MaxTerminator.defaultTerminator();
+    private MinTerminator<?> minTerminator = OptimizedMinTerminator.create();
+    private MaxTerminator<?> maxTerminator = OptimizedMaxTerminator.create();
     private AnyMatchTerminator<?> anyMatchTerminator = AnyMatchTerminator.defaultTerminator();
     private AllMatchTerminator<?> allMatchTerminator = AllMatchTerminator.defaultTerminator();
     private NoneMatchTerminator<?> noneMatchTerminator = NoneMatchTerminator.defaultTerminator();
@@ -73,10 +105,25 @@ public class SqlStreamTerminatorComponentImpl implements SqlStreamTerminatorComp
     private IteratorTerminator<?> iteratorTerminator = IteratorTerminator.defaultTerminator();
     // double
     private DoubleCountTerminator<?> doubleCountTerminator = OptimizedDoubleCountTerminator.create();
+    private DoubleSumTerminator<?> doubleSumTerminator = OptimizedDoubleSumTerminator.create();
+    private DoubleMinTerminator<?> doubleMinTerminator = OptimizedDoubleMinTerminator.create();
+    private DoubleMaxTerminator<?> doubleMaxTerminator = OptimizedDoubleMaxTerminator.create();
+    private DoubleAverageTerminator<?> doubleAverageTerminator = OptimizedDoubleAverageTerminator.create();
+    private DoubleSummaryStatisticsTerminator<?> doubleSummaryStatisticsTerminator = OptimizedDoubleSummaryStatisticsTerminator.create();
     // int
     private IntCountTerminator<?> intCountTerminator = OptimizedIntCountTerminator.create();
+    private IntSumTerminator<?> intSumTerminator = OptimizedIntSumTerminator.create();
+    private IntMinTerminator<?> intMinTerminator = OptimizedIntMinTerminator.create();
+    private IntMaxTerminator<?> intMaxTerminator = OptimizedIntMaxTerminator.create();
+    private IntAverageTerminator<?> intAverageTerminator = OptimizedIntAverageTerminator.create();
+    private IntSummaryStatisticsTerminator<?> intSummaryStatisticsTerminator = OptimizedIntSummaryStatisticsTerminator.create();
     // long
     private LongCountTerminator<?> longCountTerminator = OptimizedLongCountTerminator.create();
+    private LongSumTerminator<?> longSumTerminator = OptimizedLongSumTerminator.create();
+    private LongMinTerminator<?> longMinTerminator = OptimizedLongMinTerminator.create();
+    private LongMaxTerminator<?> longMaxTerminator = OptimizedLongMaxTerminator.create();
+    private LongAverageTerminator<?> longAverageTerminator = OptimizedLongAverageTerminator.create();
+    private LongSummaryStatisticsTerminator<?> longSummaryStatisticsTerminator = OptimizedLongSummaryStatisticsTerminator.create();
 
     /// Reference    
     @Override
@@ -300,6 +347,61 @@ public class SqlStreamTerminatorComponentImpl implements SqlStreamTerminatorComp
         this.doubleCountTerminator = requireNonNull(count);
     }
 
+    @Override
+    @SuppressWarnings("unchecked")
+    public <ENTITY> DoubleSumTerminator<ENTITY> getDoubleSumTerminator() {
+        return (DoubleSumTerminator<ENTITY>) doubleSumTerminator;
+    }
+
+    @Override
+    public <ENTITY> void setDoubleSumTerminator(DoubleSumTerminator<ENTITY> sum) {
+        this.doubleSumTerminator = requireNonNull(sum);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <ENTITY> DoubleMinTerminator<ENTITY> getDoubleMinTerminator() {
+        return (DoubleMinTerminator<ENTITY>) doubleMinTerminator;
+    }
+
+    @Override
+    public <ENTITY> void setDoubleMinTerminator(DoubleMinTerminator<ENTITY> min) {
+        this.doubleMinTerminator = requireNonNull(min);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <ENTITY> DoubleMaxTerminator<ENTITY> getDoubleMaxTerminator() {
+        return (DoubleMaxTerminator<ENTITY>) doubleMaxTerminator;
+    }
+
+    @Override
+    public <ENTITY> void setDoubleMaxTerminator(DoubleMaxTerminator<ENTITY> max) {
+        this.doubleMaxTerminator = requireNonNull(max);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <ENTITY> DoubleAverageTerminator<ENTITY> getDoubleAverageTerminator() {
+        return (DoubleAverageTerminator<ENTITY>) doubleAverageTerminator;
+    }
+
+    @Override
+    public <ENTITY> void setDoubleAverageTerminator(DoubleAverageTerminator<ENTITY> average) {
+        this.doubleAverageTerminator = requireNonNull(average);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <ENTITY> DoubleSummaryStatisticsTerminator<ENTITY> getDoubleSummaryStatisticsTerminator() {
+        return (DoubleSummaryStatisticsTerminator<ENTITY>) doubleSummaryStatisticsTerminator;
+    }
+
+    @Override
+    public <ENTITY> void setDoubleSummaryStatisticsTerminator(DoubleSummaryStatisticsTerminator<ENTITY> summaryStatistics) {
+        this.doubleSummaryStatisticsTerminator = requireNonNull(summaryStatistics);
+    }
+
     // int
     @Override
     @SuppressWarnings("unchecked")
@@ -312,6 +414,61 @@ public class SqlStreamTerminatorComponentImpl implements SqlStreamTerminatorComp
         this.intCountTerminator = requireNonNull(count);
     }
 
+    @Override
+    @SuppressWarnings("unchecked")
+    public <ENTITY> IntSumTerminator<ENTITY> getIntSumTerminator() {
+        return (IntSumTerminator<ENTITY>) intSumTerminator;
+    }
+
+    @Override
+    public <ENTITY> void setIntSumTerminator(IntSumTerminator<ENTITY> sum) {
+        this.intSumTerminator = requireNonNull(sum);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <ENTITY> IntMinTerminator<ENTITY> getIntMinTerminator() {
+        return (IntMinTerminator<ENTITY>) intMinTerminator;
+    }
+
+    @Override
+    public <ENTITY> void setIntMinTerminator(IntMinTerminator<ENTITY> min) {
+        this.intMinTerminator = requireNonNull(min);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <ENTITY> IntMaxTerminator<ENTITY> getIntMaxTerminator() {
+        return (IntMaxTerminator<ENTITY>) intMaxTerminator;
+    }
+
+    @Override
+    public <ENTITY> void setIntMaxTerminator(IntMaxTerminator<ENTITY> max) {
+        this.intMaxTerminator = requireNonNull(max);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <ENTITY> IntAverageTerminator<ENTITY> getIntAverageTerminator() {
+        return (IntAverageTerminator<ENTITY>) intAverageTerminator;
+    }
+
+    @Override
+    public <ENTITY> void setIntAverageTerminator(IntAverageTerminator<ENTITY> average) {
+        this.intAverageTerminator = requireNonNull(average);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <ENTITY> IntSummaryStatisticsTerminator<ENTITY> getIntSummaryStatisticsTerminator() {
+        return (IntSummaryStatisticsTerminator<ENTITY>) intSummaryStatisticsTerminator;
+    }
+
+    @Override
+    public <ENTITY> void setIntSummaryStatisticsTerminator(IntSummaryStatisticsTerminator<ENTITY> summaryStatistics) {
+        this.intSummaryStatisticsTerminator = requireNonNull(summaryStatistics);
+    }
+
     // long
     @Override
     @SuppressWarnings("unchecked")
@@ -324,4 +481,59 @@ public class SqlStreamTerminatorComponentImpl implements SqlStreamTerminatorComp
         this.longCountTerminator = requireNonNull(count);
     }
 
+    @Override
+    @SuppressWarnings("unchecked")
+    public <ENTITY> LongSumTerminator<ENTITY> getLongSumTerminator() {
+        return (LongSumTerminator<ENTITY>) longSumTerminator;
+    }
+
+    @Override
+    public <ENTITY> void setLongSumTerminator(LongSumTerminator<ENTITY> sum) {
+        this.longSumTerminator = requireNonNull(sum);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <ENTITY> LongMinTerminator<ENTITY> getLongMinTerminator() {
+        return (LongMinTerminator<ENTITY>) longMinTerminator;
+    }
+
+    @Override
+    public <ENTITY> void setLongMinTerminator(LongMinTerminator<ENTITY> min) {
+        this.longMinTerminator = requireNonNull(min);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <ENTITY> LongMaxTerminator<ENTITY> getLongMaxTerminator() {
+        return (LongMaxTerminator<ENTITY>) longMaxTerminator;
+    }
+
+    @Override
+    public <ENTITY> void setLongMaxTerminator(LongMaxTerminator<ENTITY> max) {
+        this.longMaxTerminator = requireNonNull(max);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <ENTITY> LongAverageTerminator<ENTITY> getLongAverageTerminator() {
+        return (LongAverageTerminator<ENTITY>) longAverageTerminator;
+    }
+
+    @Override
+    public <ENTITY> void setLongAverageTerminator(LongAverageTerminator<ENTITY> average) {
+        this.longAverageTerminator = requireNonNull(average);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <ENTITY> LongSummaryStatisticsTerminator<ENTITY> getLongSummaryStatisticsTerminator() {
+        return (LongSummaryStatisticsTerminator<ENTITY>) longSummaryStatisticsTerminator;
+    }
+
+    @Override
+    public <ENTITY> void setLongSummaryStatisticsTerminator(LongSummaryStatisticsTerminator<ENTITY> summaryStatistics) {
+        this.longSummaryStatisticsTerminator = requireNonNull(summaryStatistics);
+    }
+
 }
@@ -0,0 +1,60 @@
+/**
+ *
+ * Copyright (c) 2006-2018, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.internal.component.sql.override.optimized.longs;
+
+import com.speedment.runtime.core.component.sql.SqlStreamOptimizerInfo;
+import com.speedment.runtime.core.component.sql.override.longs.LongSummaryStatisticsTerminator;
+import static com.speedment.runtime.core.internal.component.sql.override.optimized.util.AggregateUtil.longSummaryStatistics;
+import com.speedment.runtime.core.internal.manager.sql.SqlStreamTerminator;
+import com.speedment.runtime.core.internal.stream.builder.pipeline.LongPipeline;
+import java.util.LongSummaryStatistics;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Terminator that computes the summary statistics of a LongStream in the database, if
+ * possible.
+ *
+ * @author Per Minborg
+ * @param <ENTITY> the original stream entity source type 
+ * @since 3.1.6
+ */
+public final class OptimizedLongSummaryStatisticsTerminator<ENTITY> implements LongSummaryStatisticsTerminator<ENTITY> {
+
+    private OptimizedLongSummaryStatisticsTerminator() {
+    }
+
+    @Override
+    public <T> LongSummaryStatistics apply(
+        final SqlStreamOptimizerInfo<ENTITY> info,
+        final SqlStreamTerminator<ENTITY> sqlStreamTerminator,
+        final LongPipeline pipeline
+    ) {
+        requireNonNull(info);
+        requireNonNull(sqlStreamTerminator);
+        requireNonNull(pipeline);
+        return longSummaryStatistics(info, sqlStreamTerminator, pipeline)
+            .orElseGet(() -> LongSummaryStatisticsTerminator.<ENTITY>defaultTerminator().apply(info, sqlStreamTerminator, pipeline));
+    }
+
+    public static final LongSummaryStatisticsTerminator<?> INSTANCE = new OptimizedLongSummaryStatisticsTerminator<>();
+
+    @SuppressWarnings("unchecked")
+    public static <ENTITY> LongSummaryStatisticsTerminator<ENTITY> create() {
+        return (LongSummaryStatisticsTerminator<ENTITY>) INSTANCE;
+    }
+
+}
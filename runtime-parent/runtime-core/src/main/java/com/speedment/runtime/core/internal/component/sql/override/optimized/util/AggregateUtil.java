@@ -0,0 +1,698 @@
+/**
+ *
+ * Copyright (c) 2006-2018, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.internal.component.sql.override.optimized.util;
+
+import com.speedment.runtime.compute.expression.Expression;
+import com.speedment.runtime.core.component.sql.SqlStreamOptimizerInfo;
+import com.speedment.runtime.core.db.AsynchronousQueryResult;
+import com.speedment.runtime.core.db.DbmsType.SubSelectAlias;
+import com.speedment.runtime.core.db.SqlFunction;
+import com.speedment.runtime.core.exception.SpeedmentException;
+import com.speedment.runtime.core.internal.component.sql.optimizer.ColumnProjectionOptimizer;
+import com.speedment.runtime.core.internal.manager.sql.SqlStreamTerminator;
+import com.speedment.runtime.core.internal.stream.builder.action.doubles.DoubleDistinctAction;
+import com.speedment.runtime.core.internal.stream.builder.action.ints.IntDistinctAction;
+import com.speedment.runtime.core.internal.stream.builder.action.longs.LongDistinctAction;
+import com.speedment.runtime.core.internal.stream.builder.action.reference.DistinctAction;
+import com.speedment.runtime.core.internal.stream.builder.action.reference.FilterAction;
+import com.speedment.runtime.core.internal.stream.builder.action.reference.MapAction;
+import com.speedment.runtime.core.internal.stream.builder.action.reference.MapToDoubleAction;
+import com.speedment.runtime.core.internal.stream.builder.action.reference.MapToIntAction;
+import com.speedment.runtime.core.internal.stream.builder.action.reference.MapToLongAction;
+import com.speedment.runtime.core.internal.stream.builder.action.reference.SortedAction;
+import com.speedment.runtime.core.internal.stream.builder.action.reference.SortedComparatorAction;
+import com.speedment.runtime.core.internal.stream.builder.action.trait.HasMapper;
+import com.speedment.runtime.core.internal.stream.builder.pipeline.DoublePipeline;
+import com.speedment.runtime.core.internal.stream.builder.pipeline.IntPipeline;
+import com.speedment.runtime.core.internal.stream.builder.pipeline.LongPipeline;
+import com.speedment.runtime.core.stream.Pipeline;
+import com.speedment.runtime.core.stream.action.Action;
+import com.speedment.runtime.field.Field;
+import com.speedment.runtime.typemapper.TypeMapper;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.DoubleSummaryStatistics;
+import java.util.HashSet;
+import java.util.IntSummaryStatistics;
+import java.util.List;
+import java.util.LongSummaryStatistics;
+import java.util.Optional;
+import java.util.OptionalDouble;
+import java.util.OptionalInt;
+import java.util.OptionalLong;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Utility methods for pushing down aggregate terminal operations, like
+ * {@code sum()}, {@code max()} or {@code distinct().count()}, to the
+ * database.
+ * <p>
+ * An aggregate can be pushed down if the pipeline ends with a mapping to a
+ * field of the streamed table (optionally followed by a {@code distinct()}
+ * operation) and all preceding operations can be pushed down by the stream
+ * optimizer. Fields that use a TypeMapper that converts the database value
+ * are never pushed down, since the aggregate would then be computed over
+ * other values than the ones in the stream.
+ *
+ * @author Per Minborg
+ * @since 3.1.6
+ */
+public final class AggregateUtil {
+
+    // Summary statistics can only be created from known values as of Java 10
+    private static final MethodHandle INT_SUMMARY_STATISTICS_CONSTRUCTOR
+        = summaryStatisticsConstructor(IntSummaryStatistics.class, int.class, long.class);
+    private static final MethodHandle LONG_SUMMARY_STATISTICS_CONSTRUCTOR
+        = summaryStatisticsConstructor(LongSummaryStatistics.class, long.class, long.class);
+    private static final MethodHandle DOUBLE_SUMMARY_STATISTICS_CONSTRUCTOR
+        = summaryStatisticsConstructor(DoubleSummaryStatistics.class, double.class, double.class);
+
+    private static final Set<Class<?>> DISTINCT_DATABASE_TYPES = new HashSet<>(Arrays.asList(
+        // Other types are not compared the same way in the database as in
+        // Java (e.g. collations for strings, scale for decimals and signed
+        // zeros for floating point values)
+        Byte.class, Short.class, Integer.class, Long.class
+    ));
+
+    /**
+     * Tries to compute the sum of the elements of the provided pipeline
+     * in the database.
+     *
+     * @param <ENTITY> the entity type
+     * @param info about the stream optimizer
+     * @param sqlStreamTerminator that called us
+     * @param pipeline the pipeline
+     * @return the sum or {@code Optional.empty()} if it could not be
+     *         computed in the database
+     */
+    public static <ENTITY> Optional<Integer> intSum(
+        final SqlStreamOptimizerInfo<ENTITY> info,
+        final SqlStreamTerminator<ENTITY> sqlStreamTerminator,
+        final IntPipeline pipeline
+    ) {
+        return aggregate(info, sqlStreamTerminator, pipeline, MapToIntAction.class,
+            c -> "SUM(" + c + ")",
+            rs -> getBigDecimalOrZero(rs, 1).intValue()
+        );
+    }
+
+    /**
+     * Tries to compute the minimum of the elements of the provided pipeline
+     * in the database.
+     *
+     * @param <ENTITY> the entity type
+     * @param info about the stream optimizer
+     * @param sqlStreamTerminator that called us
+     * @param pipeline the pipeline
+     * @return the minimum or {@code Optional.empty()} if it could not be
+     *         computed in the database
+     */
+    public static <ENTITY> Optional<OptionalInt> intMin(
+        final SqlStreamOptimizerInfo<ENTITY> info,
+        final SqlStreamTerminator<ENTITY> sqlStreamTerminator,
+        final IntPipeline pipeline
+    ) {
+        return aggregate(info, sqlStreamTerminator, pipeline, MapToIntAction.class,
+            c -> "MIN(" + c + ")",
+            rs -> getOptionalInt(rs, 1)
+        );
+    }
+
+    /**
+     * Tries to compute the maximum of the elements of the provided pipeline
+     * in the database.
+     *
+     * @param <ENTITY> the entity type
+     * @param info about the stream optimizer
+     * @param sqlStreamTerminator that called us
+     * @param pipeline the pipeline
+     * @return the maximum or {@code Optional.empty()} if it could not be
+     *         computed in the database
+     */
+    public static <ENTITY> Optional<OptionalInt> intMax(
+        final SqlStreamOptimizerInfo<ENTITY> info,
+        final SqlStreamTerminator<ENTITY> sqlStreamTerminator,
+        final IntPipeline pipeline
+    ) {
+        return aggregate(info, sqlStreamTerminator, pipeline, MapToIntAction.class,
+            c -> "MAX(" + c + ")",
+            rs -> getOptionalInt(rs, 1)
+        );
+    }
+
+    /**
+     * Tries to compute the average of the elements of the provided pipeline
+     * in the database.
+     *
+     * @param <ENTITY> the entity type
+     * @param info about the stream optimizer
+     * @param sqlStreamTerminator that called us
+     * @param pipeline the pipeline
+     * @return the average or {@code Optional.empty()} if it could not be
+     *         computed in the database
+     */
+    public static <ENTITY> Optional<OptionalDouble> intAverage(
+        final SqlStreamOptimizerInfo<ENTITY> info,
+        final SqlStreamTerminator<ENTITY> sqlStreamTerminator,
+        final IntPipeline pipeline
+    ) {
+        return aggregate(info, sqlStreamTerminator, pipeline, MapToIntAction.class,
+            c -> "COUNT(*), SUM(" + c + ")",
+            rs -> average(rs.getLong(1), getBigDecimalOrZero(rs, 2).doubleValue())
+        );
+    }
+
+    /**
+     * Tries to compute the summary statistics of the elements of the provided
+     * pipeline in the database. This requires Java 10 or later.
+     *
+     * @param <ENTITY> the entity type
+     * @param info about the stream optimizer
+     * @param sqlStreamTerminator that called us
+     * @param pipeline the pipeline
+     * @return the summary statistics or {@code Optional.empty()} if they could
+     *         not be computed in the database
+     */
+    public static <ENTITY> Optional<IntSummaryStatistics> intSummaryStatistics(
+        final SqlStreamOptimizerInfo<ENTITY> info,
+        final SqlStreamTerminator<ENTITY> sqlStreamTerminator,
+        final IntPipeline pipeline
+    ) {
+        if (INT_SUMMARY_STATISTICS_CONSTRUCTOR == null) {
+            return Optional.empty();
+        }
+        return aggregate(info, sqlStreamTerminator, pipeline, MapToIntAction.class,
+            c -> "COUNT(*), SUM(" + c + "), MIN(" + c + "), MAX(" + c + ")",
+            rs -> newSummaryStatistics(INT_SUMMARY_STATISTICS_CONSTRUCTOR, rs.getLong(1), rs.getInt(3), rs.getInt(4), getBigDecimalOrZero(rs, 2).longValue())
+        );
+    }
+
+    /**
+     * Tries to compute the sum of the elements of the provided pipeline
+     * in the database.
+     *
+     * @param <ENTITY> the entity type
+     * @param info about the stream optimizer
+     * @param sqlStreamTerminator that called us
+     * @param pipeline the pipeline
+     * @return the sum or {@code Optional.empty()} if it could not be
+     *         computed in the database
+     */
+    public static <ENTITY> Optional<Long> longSum(
+        final SqlStreamOptimizerInfo<ENTITY> info,
+        final SqlStreamTerminator<ENTITY> sqlStreamTerminator,
+        final LongPipeline pipeline
+    ) {
+        return aggregate(info, sqlStreamTerminator, pipeline, MapToLongAction.class,
+            c -> "SUM(" + c + ")",
+            rs -> getBigDecimalOrZero(rs, 1).longValue()
+        );
+    }
+
+    /**
+     * Tries to compute the minimum of the elements of the provided pipeline
+     * in the database.
+     *
+     * @param <ENTITY> the entity type
+     * @param info about the stream optimizer
+     * @param sqlStreamTerminator that called us
+     * @param pipeline the pipeline
+     * @return the minimum or {@code Optional.empty()} if it could not be
+     *         computed in the database
+     */
+    public static <ENTITY> Optional<OptionalLong> longMin(
+        final SqlStreamOptimizerInfo<ENTITY> info,
+        final SqlStreamTerminator<ENTITY> sqlStreamTerminator,
+        final LongPipeline pipeline
+    ) {
+        return aggregate(info, sqlStreamTerminator, pipeline, MapToLongAction.class,
+            c -> "MIN(" + c + ")",
+            rs -> getOptionalLong(rs, 1)
+        );
+    }
+
+    /**
+     * Tries to compute the maximum of the elements of the provided pipeline
+     * in the database.
+     *
+     * @param <ENTITY> the entity type
+     * @param info about the stream optimizer
+     * @param sqlStreamTerminator that called us
+     * @param pipeline the pipeline
+     * @return the maximum or {@code Optional.empty()} if it could not be
+     *         computed in the database
+     */
+    public static <ENTITY> Optional<OptionalLong> longMax(
+        final SqlStreamOptimizerInfo<ENTITY> info,
+        final SqlStreamTerminator<ENTITY> sqlStreamTerminator,
+        final LongPipeline pipeline
+    ) {
+        return aggregate(info, sqlStreamTerminator, pipeline, MapToLongAction.class,
+            c -> "MAX(" + c + ")",
+            rs -> getOptionalLong(rs, 1)
+        );
+    }
+
+    /**
+     * Tries to compute the average of the elements of the provided pipeline
+     * in the database.
+     *
+     * @param <ENTITY> the entity type
+     * @param info about the stream optimizer
+     * @param sqlStreamTerminator that called us
+     * @param pipeline the pipeline
+     * @return the average or {@code Optional.empty()} if it could not be
+     *         computed in the database
+     */
+    public static <ENTITY> Optional<OptionalDouble> longAverage(
+        final SqlStreamOptimizerInfo<ENTITY> info,
+        final SqlStreamTerminator<ENTITY> sqlStreamTerminator,
+        final LongPipeline pipeline
+    ) {
+        return aggregate(info, sqlStreamTerminator, pipeline, MapToLongAction.class,
+            c -> "COUNT(*), SUM(" + c + ")",
+            rs -> average(rs.getLong(1), getBigDecimalOrZero(rs, 2).doubleValue())
+        );
+    }
+
+    /**
+     * Tries to compute the summary statistics of the elements of the provided
+     * pipeline in the database. This requires Java 10 or later.
+     *
+     * @param <ENTITY> the entity type
+     * @param info about the stream optimizer
+     * @param sqlStreamTerminator that called us
+     * @param pipeline the pipeline
+     * @return the summary statistics or {@code Optional.empty()} if they could
+     *         not be computed in the database
+     */
+    public static <ENTITY> Optional<LongSummaryStatistics> longSummaryStatistics(
+        final SqlStreamOptimizerInfo<ENTITY> info,
+        final SqlStreamTerminator<ENTITY> sqlStreamTerminator,
+        final LongPipeline pipeline
+    ) {
+        if (LONG_SUMMARY_STATISTICS_CONSTRUCTOR == null) {
+            return Optional.empty();
+        }
+        return aggregate(info, sqlStreamTerminator, pipeline, MapToLongAction.class,
+            c -> "COUNT(*), SUM(" + c + "), MIN(" + c + "), MAX(" + c + ")",
+            rs -> newSummaryStatistics(LONG_SUMMARY_STATISTICS_CONSTRUCTOR, rs.getLong(1), rs.getLong(3), rs.getLong(4), getBigDecimalOrZero(rs, 2).longValue())
+        );
+    }
+
+    /**
+     * Tries to compute the sum of the elements of the provided pipeline
+     * in the database.
+     *
+     * @param <ENTITY> the entity type
+     * @param info about the stream optimizer
+     * @param sqlStreamTerminator that called us
+     * @param pipeline the pipeline
+     * @return the sum or {@code Optional.empty()} if it could not be
+     *         computed in the database
+     */
+    public static <ENTITY> Optional<Double> doubleSum(
+        final SqlStreamOptimizerInfo<ENTITY> info,
+        final SqlStreamTerminator<ENTITY> sqlStreamTerminator,
+        final DoublePipeline pipeline
+    ) {
+        return aggregate(info, sqlStreamTerminator, pipeline, MapToDoubleAction.class,
+            c -> "SUM(" + c + ")",
+            rs -> rs.getDouble(1)
+        );
+    }
+
+    /**
+     * Tries to compute the minimum of the elements of the provided pipeline
+     * in the database.
+     *
+     * @param <ENTITY> the entity type
+     * @param info about the stream optimizer
+     * @param sqlStreamTerminator that called us
+     * @param pipeline the pipeline
+     * @return the minimum or {@code Optional.empty()} if it could not be
+     *         computed in the database
+     */
+    public static <ENTITY> Optional<OptionalDouble> doubleMin(
+        final SqlStreamOptimizerInfo<ENTITY> info,
+        final SqlStreamTerminator<ENTITY> sqlStreamTerminator,
+        final DoublePipeline pipeline
+    ) {
+        return aggregate(info, sqlStreamTerminator, pipeline, MapToDoubleAction.class,
+            c -> "MIN(" + c + ")",
+            rs -> getOptionalDouble(rs, 1)
+        );
+    }
+
+    /**
+     * Tries to compute the maximum of the elements of the provided pipeline
+     * in the database.
+     *
+     * @param <ENTITY> the entity type
+     * @param info about the stream optimizer
+     * @param sqlStreamTerminator that called us
+     * @param pipeline the pipeline
+     * @return the maximum or {@code Optional.empty()} if it could not be
+     *         computed in the database
+     */
+    public static <ENTITY> Optional<OptionalDouble> doubleMax(
+        final SqlStreamOptimizerInfo<ENTITY> info,
+        final SqlStreamTerminator<ENTITY> sqlStreamTerminator,
+        final DoublePipeline pipeline
+    ) {
+        return aggregate(info, sqlStreamTerminator, pipeline, MapToDoubleAction.class,
+            c -> "MAX(" + c + ")",
+            rs -> getOptionalDouble(rs, 1)
+        );
+    }
+
+    /**
+     * Tries to compute the average of the elements of the provided pipeline
+     * in the database.
+     *
+     * @param <ENTITY> the entity type
+     * @param info about the stream optimizer
+     * @param sqlStreamTerminator that called us
+     * @param pipeline the pipeline
+     * @return the average or {@code Optional.empty()} if it could not be
+     *         computed in the database
+     */
+    public static <ENTITY> Optional<OptionalDouble> doubleAverage(
+        final SqlStreamOptimizerInfo<ENTITY> info,
+        final SqlStreamTerminator<ENTITY> sqlStreamTerminator,
+        final DoublePipeline pipeline
+    ) {
+        return aggregate(info, sqlStreamTerminator, pipeline, MapToDoubleAction.class,
+            c -> "COUNT(*), SUM(" + c + ")",
+            rs -> average(rs.getLong(1), rs.getDouble(2))
+        );
+    }
+
+    /**
+     * Tries to compute the summary statistics of the elements of the provided
+     * pipeline in the database. This requires Java 10 or later.
+     *
+     * @param <ENTITY> the entity type
+     * @param info about the stream optimizer
+     * @param sqlStreamTerminator that called us
+     * @param pipeline the pipeline
+     * @return the summary statistics or {@code Optional.empty()} if they could
+     *         not be computed in the database
+     */
+    public static <ENTITY> Optional<DoubleSummaryStatistics> doubleSummaryStatistics(
+        final SqlStreamOptimizerInfo<ENTITY> info,
+        final SqlStreamTerminator<ENTITY> sqlStreamTerminator,
+        final DoublePipeline pipeline
+    ) {
+        if (DOUBLE_SUMMARY_STATISTICS_CONSTRUCTOR == null) {
+            return Optional.empty();
+        }
+        return aggregate(info, sqlStreamTerminator, pipeline, MapToDoubleAction.class,
+            c -> "COUNT(*), SUM(" + c + "), MIN(" + c + "), MAX(" + c + ")",
+            rs -> newSummaryStatistics(DOUBLE_SUMMARY_STATISTICS_CONSTRUCTOR, rs.getLong(1), rs.getDouble(3), rs.getDouble(4), rs.getDouble(2))
+        );
+    }
+
+    /**
+     * Tries to compute an aggregate over the column that the pipeline maps to
+     * in the database. The pipeline may also map to an expression that can be
+     * rendered by the {@link com.speedment.runtime.core.db.ExpressionView} of
+     * the database type. If the aggregate could not be pushed down, the
+     * pipeline is left in a state where it can be evaluated by a default
+     * terminator.
+     *
+     * @param <ENTITY> the entity type
+     * @param <R> the result type
+     * @param info about the stream optimizer
+     * @param sqlStreamTerminator that called us
+     * @param pipeline the pipeline
+     * @param mapActionClass the type of mapping action that must end the
+     *                       pipeline
+     * @param selectList function that, given an enclosed column name or a
+     *                   rendered expression, renders the aggregate select list
+     * @param resultMapper that maps the single result row to the result
+     * @return the result or {@code Optional.empty()} if the aggregate could
+     *         not be pushed down
+     */
+    static <ENTITY, R> Optional<R> aggregate(
+        final SqlStreamOptimizerInfo<ENTITY> info,
+        final SqlStreamTerminator<ENTITY> sqlStreamTerminator,
+        final Pipeline pipeline,
+        final Class<?> mapActionClass,
+        final Function<String, String> selectList,
+        final SqlFunction<ResultSet, R> resultMapper
+    ) {
+        requireNonNull(mapActionClass);
+        return aggregateHelper(
+            info, sqlStreamTerminator, pipeline,
+            mapActionClass, null, t -> true,
+            selectList, resultMapper
+        );
+    }
+
+    /**
+     * Tries to count the distinct values of the column that the pipeline maps
+     * to in the database. The pipeline must end with a field mapping followed
+     * by a {@code distinct()} operation.
+     *
+     * @param <ENTITY> the entity type
+     * @param info about the stream optimizer
+     * @param sqlStreamTerminator that called us
+     * @param pipeline the pipeline
+     * @return the number of distinct values or {@code OptionalLong.empty()}
+     *         if the count could not be pushed down
+     */
+    public static <ENTITY> OptionalLong distinctCount(
+        final SqlStreamOptimizerInfo<ENTITY> info,
+        final SqlStreamTerminator<ENTITY> sqlStreamTerminator,
+        final Pipeline pipeline
+    ) {
+        requireNonNull(pipeline);
+        if (pipeline.isEmpty()) {
+            return OptionalLong.empty();
+        }
+        final Action<?, ?> last = pipeline.getLast();
+        final Class<?> mapActionClass;
+        if (last instanceof DistinctAction) {
+            mapActionClass = MapAction.class;
+        } else if (last instanceof IntDistinctAction) {
+            mapActionClass = MapToIntAction.class;
+        } else if (last instanceof LongDistinctAction) {
+            mapActionClass = MapToLongAction.class;
+        } else if (last instanceof DoubleDistinctAction) {
+            mapActionClass = MapToDoubleAction.class;
+        } else {
+            return OptionalLong.empty();
+        }
+
+        // Java's distinct() regards null as a value whereas COUNT(DISTINCT)
+        // does not, so null is counted separately.
+        final Optional<Long> result = aggregateHelper(
+            info, sqlStreamTerminator, pipeline,
+            mapActionClass, last.getClass(), DISTINCT_DATABASE_TYPES::contains,
+            c -> "COUNT(DISTINCT " + c + ") + COUNT(DISTINCT CASE WHEN " + c + " IS NULL THEN 1 END)",
+            rs -> rs.getLong(1)
+        );
+        return result.map(OptionalLong::of).orElseGet(OptionalLong::empty);
+    }
+
+    /**
+     * Reads a possibly {@code null} decimal value, returning zero for
+     * {@code null}. This is the result of {@code SUM()} over an empty set.
+     *
+     * @param rs the result set
+     * @param index of the column
+     * @return the value or zero
+     * @throws SQLException if the value could not be read
+     */
+    static BigDecimal getBigDecimalOrZero(ResultSet rs, int index) throws SQLException {
+        final BigDecimal result = rs.getBigDecimal(index);
+        return result == null ? BigDecimal.ZERO : result;
+    }
+
+    static OptionalInt getOptionalInt(ResultSet rs, int index) throws SQLException {
+        final int result = rs.getInt(index);
+        return rs.wasNull() ? OptionalInt.empty() : OptionalInt.of(result);
+    }
+
+    static OptionalLong getOptionalLong(ResultSet rs, int index) throws SQLException {
+        final long result = rs.getLong(index);
+        return rs.wasNull() ? OptionalLong.empty() : OptionalLong.of(result);
+    }
+
+    static OptionalDouble getOptionalDouble(ResultSet rs, int index) throws SQLException {
+        final double result = rs.getDouble(index);
+        return rs.wasNull() ? OptionalDouble.empty() : OptionalDouble.of(result);
+    }
+
+    static OptionalDouble average(long count, double sum) {
+        return count == 0 ? OptionalDouble.empty() : OptionalDouble.of(sum / count);
+    }
+
+    private static <ENTITY, R> Optional<R> aggregateHelper(
+        final SqlStreamOptimizerInfo<ENTITY> info,
+        final SqlStreamTerminator<ENTITY> sqlStreamTerminator,
+        final Pipeline pipeline,
+        final Class<?> mapActionClass,
+        final Class<?> distinctActionClass,
+        final Predicate<Class<?>> databaseTypeFilter,
+        final Function<String, String> selectList,
+        final SqlFunction<ResultSet, R> resultMapper
+    ) {
+        requireNonNull(info);
+        requireNonNull(sqlStreamTerminator);
+        requireNonNull(pipeline);
+        requireNonNull(selectList);
+        requireNonNull(resultMapper);
+
+        final int trailing = distinctActionClass == null ? 1 : 2;
+        if (pipeline.size() < trailing) {
+            return Optional.empty();
+        }
+        if (distinctActionClass != null && !distinctActionClass.isInstance(pipeline.getLast())) {
+            return Optional.empty();
+        }
+
+        final Action<?, ?> mapAction = pipeline.get(pipeline.size() - trailing);
+        if (!mapActionClass.isInstance(mapAction) || !(mapAction instanceof HasMapper)) {
+            return Optional.empty();
+        }
+        final Object mapper = ((HasMapper<?>) mapAction).getMapper();
+        final String columnName;
+        if (mapper instanceof Field) {
+            @SuppressWarnings("unchecked")
+            final Field<ENTITY> field = (Field<ENTITY>) mapper;
+            if (!isIdentityMapped(field)) {
+                return Optional.empty();
+            }
+            columnName = info.getSqlColumnNamer().apply(field);
+            if (columnName == null || !databaseTypeFilter.test(info.getSqlDatabaseTypeFunction().apply(field))) {
+                return Optional.empty();
+            }
+        } else if (mapper instanceof Expression && distinctActionClass == null) {
+            // Distinct floating point values are not compared in the same
+            // way by Java and the database so only plain aggregates are
+            // computed over expressions
+            @SuppressWarnings("unchecked")
+            final Expression<ENTITY> expression = (Expression<ENTITY>) mapper;
+            final Optional<String> expressionSql = info.getDbmsType().getExpressionView()
+                .render(info.getSqlColumnNamer(), info.getSqlDatabaseTypeFunction(), expression);
+            if (!expressionSql.isPresent()) {
+                return Optional.empty();
+            }
+            columnName = expressionSql.get();
+        } else {
+            return Optional.empty();
+        }
+
+        // The order of the elements does not affect an aggregate so sorting
+        // can be dropped unless it is followed by skip() or limit().
+        final boolean onlyFiltersAndSorts = pipeline.stream()
+            .limit(pipeline.size() - trailing)
+            .allMatch(a -> a instanceof FilterAction || isSortedAction(a));
+
+        final List<Action<?, ?>> tail = new ArrayList<>(trailing);
+        for (int i = 0; i < trailing; i++) {
+            tail.add(0, pipeline.removeLast());
+        }
+        if (onlyFiltersAndSorts) {
+            pipeline.removeIf(AggregateUtil::isSortedAction);
+        }
+
+        sqlStreamTerminator.optimize(pipeline);
+        if (!pipeline.isEmpty()) {
+            // Some operations could not be pushed down so the aggregate has
+            // to be computed in the JVM.
+            tail.forEach(pipeline::addLast);
+            return Optional.empty();
+        }
+
+        final AsynchronousQueryResult<ENTITY> query = sqlStreamTerminator.getAsynchronousQueryResult();
+        final String aggregateSelectList = selectList.apply(columnName);
+        final String sql = (onlyFiltersAndSorts
+            ? ColumnProjectionOptimizer.replaceSelectList(info, query.getSql(), aggregateSelectList)
+            : Optional.<String>empty()
+        ).orElseGet(() -> subSelect(info, query.getSql(), aggregateSelectList));
+
+        // The aggregate is read by a query of its own since its rows are not
+        // of the entity type
+        final List<Object> values = new ArrayList<>(query.getValues());
+        try (final Stream<R> rows = info.getQueryExecutor().executeQuery(sql, values, resultMapper)) {
+            return Optional.of(rows.findFirst()
+                .orElseThrow(() -> new SpeedmentException("The aggregate query " + sql + " did not return any row.")));
+        }
+    }
+
+    private static String subSelect(SqlStreamOptimizerInfo<?> info, String sql, String selectList) {
+        final StringBuilder result = new StringBuilder()
+            .append("SELECT ").append(selectList)
+            .append(" FROM (").append(sql).append(")");
+        if (info.getDbmsType().getSubSelectAlias() == SubSelectAlias.REQUIRED) {
+            result.append(" AS A");
+        }
+        return result.toString();
+    }
+
+    private static boolean isSortedAction(Action<?, ?> action) {
+        return action instanceof SortedComparatorAction || action instanceof SortedAction;
+    }
+
+    private static boolean isIdentityMapped(Field<?> field) {
+        final Class<?> typeMapperClass = field.typeMapper().getClass();
+        return typeMapperClass == TypeMapper.identity().getClass()
+            || typeMapperClass == TypeMapper.primitive().getClass();
+    }
+
+    private static MethodHandle summaryStatisticsConstructor(Class<?> statisticsClass, Class<?> valueType, Class<?> sumType) {
+        try {
+            return MethodHandles.publicLookup().findConstructor(
+                statisticsClass,
+                MethodType.methodType(void.class, long.class, valueType, valueType, sumType)
+            );
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            // Java 8 and 9 can not create statistics from known values
+            return null;
+        }
+    }
+
+    private static <S> S newSummaryStatistics(MethodHandle constructor, long count, Object min, Object max, Object sum) {
+        try {
+            @SuppressWarnings("unchecked")
+            final S result = (S) constructor.invoke(count, min, max, sum);
+            return result;
+        } catch (Throwable t) {
+            throw new SpeedmentException("Unable to create summary statistics", t);
+        }
+    }
+
+    private AggregateUtil() {
+        throw new UnsupportedOperationException();
+    }
+
+}
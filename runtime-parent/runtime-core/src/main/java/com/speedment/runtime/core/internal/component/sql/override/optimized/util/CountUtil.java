@@ -26,6 +26,7 @@ import static com.speedment.runtime.core.stream.action.Property.SIZE;
 import static com.speedment.runtime.core.stream.action.Verb.PRESERVE;
 import static java.util.Collections.emptyList;
 import java.util.List;
+import java.util.OptionalLong;
 import static java.util.Objects.requireNonNull;
 import java.util.function.LongSupplier;
 import java.util.function.Predicate;
@@ -60,6 +61,12 @@ public final class CountUtil {
         requireNonNull(pipeline);
         requireNonNull(fallbackSupplier);
 
+        // Can we count the distinct values of a column directly?
+        final OptionalLong distinctCount = AggregateUtil.distinctCount(info, sqlStreamTerminator, pipeline);
+        if (distinctCount.isPresent()) {
+            return distinctCount.getAsLong();
+        }
+
         // Can we count it directly (with no sub-select query)?
         if (pipeline.stream().allMatch(PRESERVE_SIZE)) {
             return info.getCounter().applyAsLong(info.getSqlSelectCount(), emptyList());
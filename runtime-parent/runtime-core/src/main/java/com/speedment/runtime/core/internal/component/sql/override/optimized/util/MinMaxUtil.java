@@ -0,0 +1,111 @@
+/**
+ *
+ * Copyright (c) 2006-2018, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.internal.component.sql.override.optimized.util;
+
+import com.speedment.runtime.core.component.sql.SqlStreamOptimizerInfo;
+import com.speedment.runtime.core.db.DbmsType.SkipLimitSupport;
+import com.speedment.runtime.core.internal.manager.sql.SqlStreamTerminator;
+import com.speedment.runtime.core.internal.stream.builder.action.reference.FilterAction;
+import com.speedment.runtime.core.internal.stream.builder.action.reference.LimitAction;
+import com.speedment.runtime.core.internal.stream.builder.action.reference.SortedComparatorAction;
+import com.speedment.runtime.core.internal.stream.builder.pipeline.ReferencePipeline;
+import com.speedment.runtime.core.internal.stream.builder.streamterminator.StreamTerminatorUtil;
+import com.speedment.runtime.core.stream.action.Action;
+import com.speedment.runtime.field.comparator.FieldComparator;
+import java.util.Comparator;
+import static java.util.Objects.requireNonNull;
+import java.util.Optional;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Utility methods for computing {@code min(comparator)} and
+ * {@code max(comparator)} of entity streams in the database.
+ * <p>
+ * If the comparator is a {@link FieldComparator} on the streamed table and
+ * the pipeline only contains filters that can be expressed in SQL, the
+ * operation is rewritten as {@code sorted(comparator).limit(1).findFirst()}
+ * so that the database only has to return a single row.
+ *
+ * @author Per Minborg
+ * @since 3.1.6
+ */
+public final class MinMaxUtil {
+
+    /**
+     * Optimizer for min and max operations.
+     *
+     * @param <ENTITY> the entity type
+     * @param <T> the element type of the pipeline
+     * @param info about the stream optimizer
+     * @param sqlStreamTerminator that called us
+     * @param pipeline the pipeline
+     * @param comparator the comparator that was given to min (for max, the
+     *                   reversed comparator should be given)
+     * @param fallbackSupplier a fallback supplier should the operation not
+     *                         be possible to compute in the database
+     * @return the first element according to the comparator
+     */
+    public static <ENTITY, T> Optional<T> minHelper(
+        final SqlStreamOptimizerInfo<ENTITY> info,
+        final SqlStreamTerminator<ENTITY> sqlStreamTerminator,
+        final ReferencePipeline<T> pipeline,
+        final Comparator<? super T> comparator,
+        final Supplier<Optional<T>> fallbackSupplier
+    ) {
+        requireNonNull(info);
+        requireNonNull(sqlStreamTerminator);
+        requireNonNull(pipeline);
+        requireNonNull(comparator);
+        requireNonNull(fallbackSupplier);
+
+        final SortedComparatorAction<T> sortedAction = new SortedComparatorAction<>(comparator);
+        if (info.getDbmsType().getSkipLimitSupport() == SkipLimitSupport.NONE
+            || !(comparator instanceof FieldComparator)
+            || !isFieldOfTable(info, (FieldComparator<?>) comparator)
+            || !StreamTerminatorUtil.isSortedActionWithFieldPredicate(sortedAction)
+            || !pipeline.stream().allMatch(MinMaxUtil::isFilterActionWithFieldPredicate)) {
+            return fallbackSupplier.get();
+        }
+
+        pipeline.add(sortedAction);
+        pipeline.add(new LimitAction<>(1));
+        return sqlStreamTerminator.optimize(pipeline).getAsReferenceStream().findFirst();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <ENTITY> boolean isFieldOfTable(
+        final SqlStreamOptimizerInfo<ENTITY> info,
+        final FieldComparator<?> comparator
+    ) {
+        return info.getSqlColumnNamer().apply(((FieldComparator<ENTITY>) comparator).getField()) != null;
+    }
+
+    private static boolean isFilterActionWithFieldPredicate(Action<?, ?> action) {
+        if (action instanceof FilterAction) {
+            @SuppressWarnings("unchecked")
+            final FilterAction<Object> filterAction = (FilterAction<Object>) action;
+            return StreamTerminatorUtil.isContainingOnlyFieldPredicate(filterAction.getPredicate());
+        }
+        return false;
+    }
+
+    private MinMaxUtil() {
+        throw new UnsupportedOperationException();
+    }
+
+}
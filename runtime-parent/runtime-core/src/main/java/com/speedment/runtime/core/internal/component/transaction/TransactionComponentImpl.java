@@ -31,7 +31,6 @@ import com.speedment.runtime.core.component.transaction.TransactionComponent;
 import com.speedment.runtime.core.component.transaction.TransactionHandler;
 import com.speedment.runtime.core.exception.TransactionException;
 import java.sql.SQLException;
-import java.util.HashSet;
 import java.util.Map;
 import static java.util.Objects.requireNonNull;
 import java.util.Optional;
@@ -51,7 +50,11 @@ import java.util.stream.Stream;
 public class TransactionComponentImpl implements TransactionComponent {
 
     private final Map<Class<?>, DataSourceHandler<Object, Object>> dataSourceHandlers;
-    private final Map<Thread, Object> txObjects;
+    // The txObject of the current thread. This is what every query looks at
+    private final ThreadLocal<Object> currentTxObject;
+    // txObjects put() for other threads than the caller that the threads
+    // themselves have not yet looked up. Normally empty.
+    private final Map<Thread, Object> foreignTxObjects;
     private final Map<Object, Set<Thread>> threadSets;
     private Dbms singleDbms;
 
@@ -88,7 +91,8 @@ public class TransactionComponentImpl implements TransactionComponent {
 
     public TransactionComponentImpl() {
         this.dataSourceHandlers = new ConcurrentHashMap<>();
-        this.txObjects = new ConcurrentHashMap<>();
+        this.currentTxObject = new ThreadLocal<>();
+        this.foreignTxObjects = new ConcurrentHashMap<>();
         this.threadSets = new ConcurrentHashMap<>();
     }
 
@@ -113,32 +117,70 @@ public class TransactionComponentImpl implements TransactionComponent {
 
     @Override
     public void put(Thread thread, Object txObject) {
-        if (txObjects.putIfAbsent(thread, txObject) != null) {
+        requireNonNull(thread);
+        requireNonNull(txObject);
+        if (get(thread).isPresent()) {
+            throw new IllegalStateException(
+                String.format("There is already a txObject associated with thread %s ", thread)
+            );
+        }
+        threadSets.compute(txObject, (k, threadSet) -> {
+            final Set<Thread> result = threadSet == null ? ConcurrentHashMap.newKeySet() : threadSet;
+            result.add(thread);
+            return result;
+        });
+        if (thread == Thread.currentThread()) {
+            currentTxObject.set(txObject);
+        } else if (foreignTxObjects.putIfAbsent(thread, txObject) != null) {
+            removeFromThreadSet(txObject, thread);
             throw new IllegalStateException(
                 String.format("There is already a txObject associated with thread %s ", thread)
             );
         }
-        threadSets.computeIfAbsent(
-            txObject,
-            (Object k) -> new HashSet<>()
-        ).add(thread);
     }
 
     @Override
     public Optional<Object> get(Thread thread) {
-        return Optional.ofNullable(txObjects.get(requireNonNull(thread)));
+        requireNonNull(thread);
+        if (thread == Thread.currentThread()) {
+            final Object txObject = currentTxObject.get();
+            if (txObject != null) {
+                if (isAssociated(txObject, thread)) {
+                    return Optional.of(txObject);
+                }
+                // The association was removed by another thread
+                currentTxObject.remove();
+            }
+            if (!foreignTxObjects.isEmpty()) {
+                final Object foreign = foreignTxObjects.remove(thread);
+                if (foreign != null) {
+                    currentTxObject.set(foreign);
+                    return Optional.of(foreign);
+                }
+            }
+            return Optional.empty();
+        }
+        final Object foreign = foreignTxObjects.get(thread);
+        if (foreign != null) {
+            return Optional.of(foreign);
+        }
+        // The thread might have adopted its txObject already
+        return threadSets.entrySet().stream()
+            .filter(e -> e.getValue().contains(thread))
+            .map(Map.Entry::getKey)
+            .findAny();
     }
 
     @Override
     public void remove(Thread thread) {
-        final Object removedTxObject = txObjects.remove(requireNonNull(thread));
-        if (removedTxObject != null) {
-            final Set<Thread> threadSet = threadSets.get(removedTxObject);
-            threadSet.remove(thread);
-            if (threadSet.isEmpty()) {
-                // Clean up 
-                threadSets.remove(removedTxObject);
+        final Optional<Object> removedTxObject = get(requireNonNull(thread));
+        if (removedTxObject.isPresent()) {
+            if (thread == Thread.currentThread()) {
+                currentTxObject.remove();
+            } else {
+                foreignTxObjects.remove(thread);
             }
+            removeFromThreadSet(removedTxObject.get(), thread);
         }
     }
 
@@ -149,6 +191,18 @@ public class TransactionComponentImpl implements TransactionComponent {
             .orElse(Stream.empty());
     }
 
+    private boolean isAssociated(Object txObject, Thread thread) {
+        final Set<Thread> threadSet = threadSets.get(txObject);
+        return threadSet != null && threadSet.contains(thread);
+    }
+
+    private void removeFromThreadSet(Object txObject, Thread thread) {
+        threadSets.computeIfPresent(txObject, (k, threadSet) -> {
+            threadSet.remove(thread);
+            return threadSet.isEmpty() ? null : threadSet; // Clean up
+        });
+    }
+
     private DataSourceHandler<Object, Object> findMapping(Object dataSource) {
         final Class<?> originalClass = dataSource.getClass();
         {
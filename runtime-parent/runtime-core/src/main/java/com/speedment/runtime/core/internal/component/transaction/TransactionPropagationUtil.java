@@ -0,0 +1,125 @@
+/**
+ *
+ * Copyright (c) 2006-2018, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.internal.component.transaction;
+
+import com.speedment.runtime.core.component.transaction.TransactionComponent;
+
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Utility methods that implement the propagation methods of the
+ * {@link TransactionComponent} interface.
+ *
+ * @author Per Minborg
+ * @since 3.1.6
+ */
+public final class TransactionPropagationUtil {
+
+    public static Runnable propagate(TransactionComponent txComponent, Runnable task) {
+        requireNonNull(task);
+        final Optional<Object> txObject = txComponent.get(Thread.currentThread());
+        if (!txObject.isPresent()) {
+            return task;
+        }
+        return () -> {
+            final boolean attached = attach(txComponent, txObject.get());
+            try {
+                task.run();
+            } finally {
+                detach(txComponent, attached);
+            }
+        };
+    }
+
+    public static <T> Callable<T> propagate(TransactionComponent txComponent, Callable<T> task) {
+        requireNonNull(task);
+        final Optional<Object> txObject = txComponent.get(Thread.currentThread());
+        if (!txObject.isPresent()) {
+            return task;
+        }
+        return () -> {
+            final boolean attached = attach(txComponent, txObject.get());
+            try {
+                return task.call();
+            } finally {
+                detach(txComponent, attached);
+            }
+        };
+    }
+
+    public static <T> Supplier<T> propagateSupplier(TransactionComponent txComponent, Supplier<T> supplier) {
+        requireNonNull(supplier);
+        final Optional<Object> txObject = txComponent.get(Thread.currentThread());
+        if (!txObject.isPresent()) {
+            return supplier;
+        }
+        return () -> {
+            final boolean attached = attach(txComponent, txObject.get());
+            try {
+                return supplier.get();
+            } finally {
+                detach(txComponent, attached);
+            }
+        };
+    }
+
+    public static Executor propagating(TransactionComponent txComponent, Executor executor) {
+        requireNonNull(executor);
+        return task -> executor.execute(propagate(txComponent, task));
+    }
+
+    /**
+     * Associates the current thread with the given txObject. Returns
+     * {@code true} if the association was made and {@code false} if the
+     * thread already was associated with the txObject, for example because
+     * the task is run by the thread that submitted it.
+     */
+    private static boolean attach(TransactionComponent txComponent, Object txObject) {
+        final Thread thread = Thread.currentThread();
+        final Optional<Object> existing = txComponent.get(thread);
+        if (existing.isPresent()) {
+            if (existing.get() == txObject) {
+                return false;
+            }
+            throw new IllegalStateException(
+                String.format(
+                    "Unable to propagate transaction object %s to thread %s "
+                        + "because it is already associated with transaction object %s",
+                    txObject, thread, existing.get()
+                )
+            );
+        }
+        txComponent.put(thread, txObject);
+        return true;
+    }
+
+    private static void detach(TransactionComponent txComponent, boolean attached) {
+        if (attached) {
+            txComponent.remove(Thread.currentThread());
+        }
+    }
+
+    private TransactionPropagationUtil() {
+        throw new UnsupportedOperationException();
+    }
+
+}
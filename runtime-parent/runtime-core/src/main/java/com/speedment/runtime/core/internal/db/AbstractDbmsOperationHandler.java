@@ -16,6 +16,10 @@
  */
 package com.speedment.runtime.core.internal.db;
 
+import com.speedment.common.injector.Injector;
+import com.speedment.common.injector.State;
+import com.speedment.common.injector.annotation.Config;
+import com.speedment.common.injector.annotation.ExecuteBefore;
 import com.speedment.common.injector.annotation.Inject;
 import com.speedment.common.logger.Logger;
 import com.speedment.common.logger.LoggerManager;
@@ -26,6 +30,10 @@ import com.speedment.runtime.core.component.connectionpool.ConnectionPoolCompone
 import com.speedment.runtime.core.component.transaction.TransactionComponent;
 import com.speedment.runtime.core.db.AsynchronousQueryResult;
 import com.speedment.runtime.core.db.DbmsOperationHandler;
+import com.speedment.runtime.core.db.FetchHints;
+import com.speedment.runtime.core.db.RetryMetrics;
+import com.speedment.runtime.core.db.RetryPolicy;
+import com.speedment.runtime.core.db.SqlArrayParameter;
 import com.speedment.runtime.core.db.SqlFunction;
 import com.speedment.runtime.core.exception.SpeedmentException;
 import com.speedment.runtime.core.internal.manager.sql.SqlDeleteStatement;
@@ -36,10 +44,13 @@ import com.speedment.runtime.core.stream.parallel.ParallelStrategy;
 import com.speedment.runtime.field.Field;
 
 import java.sql.*;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
 import java.util.stream.Stream;
@@ -64,43 +75,60 @@ public abstract class AbstractDbmsOperationHandler implements DbmsOperationHandl
 
     public static final boolean SHOW_METADATA = false; // Warning: Enabling SHOW_METADATA will make some dbmses fail on metadata (notably Oracle) because all the columns must be read in order...
 
+    private static final RetryPolicy DEFAULT_RETRY_POLICY
+        = RetryPolicy.exponentialBackoff(5, Duration.ofMillis(10), Duration.ofSeconds(1));
+
     private @Inject ConnectionPoolComponent connectionPoolComponent;
     private @Inject DbmsHandlerComponent dbmsHandlerComponent;
     private @Inject TransactionComponent transactionComponent;
 
-    protected AbstractDbmsOperationHandler() {}
+    @Config(name = "db.retry.maxAttempts", value = "5")
+    private int retryMaxAttempts;
+    @Config(name = "db.retry.initialDelayMillis", value = "10")
+    private long retryInitialDelayMillis;
+    @Config(name = "db.retry.maxDelayMillis", value = "1000")
+    private long retryMaxDelayMillis;
+
+    private final RetryMetricsImpl retryMetrics;
+    private RetryPolicy retryPolicy;
+
+    protected AbstractDbmsOperationHandler() {
+        this.retryMetrics = new RetryMetricsImpl();
+        this.retryPolicy = DEFAULT_RETRY_POLICY;
+    }
+
+    @ExecuteBefore(State.STARTED)
+    void setupRetryPolicy(Injector injector) {
+        retryPolicy = injector.get(RetryPolicy.class).orElseGet(() ->
+            RetryPolicy.exponentialBackoff(
+                retryMaxAttempts,
+                Duration.ofMillis(retryInitialDelayMillis),
+                Duration.ofMillis(retryMaxDelayMillis)
+            )
+        );
+    }
 
     @Override
-    public <T> Stream<T> executeQuery(Dbms dbms, String sql, List<?> values, SqlFunction<ResultSet, T> rsMapper) {
-        requireNonNulls(sql, values, rsMapper);
+    public RetryMetrics retryMetrics() {
+        return retryMetrics;
+    }
 
-        try (
-            final ConnectionInfo connectionInfo = new ConnectionInfo(dbms, connectionPoolComponent, transactionComponent);
-            final PreparedStatement ps = connectionInfo.connection().prepareStatement(sql, java.sql.ResultSet.TYPE_FORWARD_ONLY, java.sql.ResultSet.CONCUR_READ_ONLY)) {
-            configureSelect(ps);
-            connectionInfo.ifNotInTransaction(c -> c.setAutoCommit(false));
-            try {
-                int i = 1;
-                for (final Object o : values) {
-                    ps.setObject(i++, o);
-                }
-                try (final ResultSet rs = ps.executeQuery()) {
-                    configureSelect(rs);
+    @Override
+    public <T> Stream<T> executeQuery(Dbms dbms, String sql, List<?> values, SqlFunction<ResultSet, T> rsMapper) {
+        return executeQuery(dbms, sql, values, rsMapper, 0);
+    }
 
-                    // Todo: Make a transparent stream with closeHandler added.
-                    final Stream.Builder<T> streamBuilder = Stream.builder();
-                    while (rs.next()) {
-                        streamBuilder.add(rsMapper.apply(rs));
-                    }
-                    return streamBuilder.build();
-                }
-            } finally {
-                connectionInfo.ifNotInTransaction(Connection::commit);
-            }
-        } catch (final SQLException sqle) {
-            LOGGER.error(sqle, "Error querying " + sql);
-            throw new SpeedmentException(sqle);
-        }
+    @Override
+    public <T> Stream<T> executeQuery(Dbms dbms, String sql, List<?> values, SqlFunction<ResultSet, T> rsMapper, int prefetchSize) {
+        requireNonNulls(sql, values, rsMapper);
+        return new LazyQueryResult<>(
+            sql,
+            values,
+            rsMapper,
+            () -> new ConnectionInfo(dbms, connectionPoolComponent, transactionComponent),
+            this::configureSelect,
+            this::configureSelect
+        ).stream(prefetchSize);
     }
 
     @Override
@@ -111,14 +139,28 @@ public abstract class AbstractDbmsOperationHandler implements DbmsOperationHandl
         final SqlFunction<ResultSet, T> rsMapper,
         final ParallelStrategy parallelStrategy
     ) {
+        return executeQueryAsync(dbms, sql, values, rsMapper, parallelStrategy, FetchHints.defaults());
+    }
+
+    @Override
+    public <T> AsynchronousQueryResult<T> executeQueryAsync(
+        final Dbms dbms,
+        final String sql,
+        final List<?> values,
+        final SqlFunction<ResultSet, T> rsMapper,
+        final ParallelStrategy parallelStrategy,
+        final FetchHints fetchHints
+    ) {
+        requireNonNull(fetchHints);
         return new AsynchronousQueryResultImpl<>(
             Objects.requireNonNull(sql),
             Objects.requireNonNull(values),
             Objects.requireNonNull(rsMapper),
             () -> new ConnectionInfo(dbms, connectionPoolComponent, transactionComponent), 
             parallelStrategy,
-            this::configureSelect,
-            this::configureSelect
+            ps -> configureSelect(ps, fetchHints),
+            rs -> configureSelect(rs, fetchHints),
+            fetchHints
         );
     }
 
@@ -158,65 +200,111 @@ public abstract class AbstractDbmsOperationHandler implements DbmsOperationHandl
 
     protected void executeNotInTransaction(
         final Dbms dbms,
-        Connection conn,
+        final Connection conn,
         final List<? extends SqlStatement> sqlStatementList
     ) throws SQLException {
         requireNonNull(dbms);
         requireNonNull(conn);
         requireNonNull(sqlStatementList);
 
-        int retryCount = 5;
-        boolean transactionCompleted = false;
-
-        do {
+        final RetryPolicy policy = retryPolicy;
+        Connection connection = conn;
+        int attempt = 1;
+        while (true) {
             final AtomicReference<SqlStatement> lastSqlStatement = new AtomicReference<>();
             try {
-                conn.setAutoCommit(false);
-                executeSqlStatementList(sqlStatementList, lastSqlStatement, dbms, conn);
-                conn.commit();
-                conn.close();
-                transactionCompleted = true;
-                conn = null;
+                connection.setAutoCommit(false);
+                executeSqlStatementList(sqlStatementList, lastSqlStatement, dbms, connection);
+                connection.commit();
+                break;
             } catch (SQLException sqlEx) {
-                LOGGER.error("SqlStatementList: " + sqlStatementList);
-                LOGGER.error("SQL: " + lastSqlStatement.get());
-                LOGGER.error(sqlEx, sqlEx.getMessage());
-                final String sqlState = sqlEx.getSQLState();
-
-                if ("08S01".equals(sqlState) || "40001".equals(sqlState)) {
-                    retryCount--;
-                } else {
-                    throw sqlEx; // Finally will be executed...
+                rollbackAndClose(connection, sqlEx);
+                final boolean retryable = isRetryable(dbms, sqlEx);
+                if (!retryable || attempt >= policy.getMaxAttempts()) {
+                    if (retryable) {
+                        retryMetrics.recordExhausted();
+                    }
+                    LOGGER.error("SqlStatementList: " + sqlStatementList);
+                    LOGGER.error("SQL: " + lastSqlStatement.get());
+                    LOGGER.error(sqlEx, sqlEx.getMessage());
+                    throw sqlEx;
                 }
+
+                final Duration delay = policy.getDelay(attempt);
+                LOGGER.warn("Attempt %d of %d failed with SQL state %s (%s). Retrying in %d ms.",
+                    attempt, policy.getMaxAttempts(), sqlEx.getSQLState(), sqlEx.getMessage(), delay.toMillis());
+                retryMetrics.recordRetry();
+                sleep(delay, sqlEx);
+                attempt++;
+
+                // The failed connection has been closed so use a new one
+                sqlStatementList.stream()
+                    .filter(SqlInsertStatement.class::isInstance)
+                    .map(SqlInsertStatement.class::cast)
+                    .forEach(SqlInsertStatement::clearGeneratedKeys);
+                connection = connectionPoolComponent.getConnection(dbms);
+            }
+        }
+
+        try {
+            connection.close();
+        } catch (SQLException sqlEx) {
+            // The work has been committed so there is nothing to retry
+            LOGGER.warn(sqlEx, "Unable to close connection after commit: " + sqlEx.getMessage());
+        }
+
+        if (attempt > 1) {
+            retryMetrics.recordRecovered();
+        }
+        postSuccessfulTransaction(sqlStatementList);
+    }
+
+    /**
+     * Rolls back and closes a connection on which a statement has failed.
+     * Errors are added as suppressed exceptions to the original error since
+     * the connection might be broken (which might also be why the statement
+     * failed).
+     */
+    private void rollbackAndClose(Connection connection, SQLException cause) {
+        try {
+            try {
+                connection.rollback();
             } finally {
+                connection.close();
+            }
+        } catch (SQLException rollbackEx) {
+            LOGGER.error(rollbackEx, "Rollback error! connection:" + rollbackEx.getMessage());
+            cause.addSuppressed(rollbackEx);
+        }
+    }
 
-                if (!transactionCompleted) {
-                    try {
-                        // If we got here, and conn is not null, the
-                        // transaction should be rolled back, as not
-                        // all work has been done
-                        if (conn != null) {
-                            try {
-                                conn.rollback();
-                            } finally {
-                                conn.close();
-                            }
-                        }
-                    } catch (SQLException sqlEx) {
-                        //
-                        // If we got an exception here, something
-                        // pretty serious is going on, so we better
-                        // pass it up the stack, rather than just
-                        // logging it. . .
-                        LOGGER.error(sqlEx, "Rollback error! connection:" + sqlEx.getMessage());
-                        throw sqlEx;
-                    }
-                }
+    /**
+     * Returns if the given exception, or any exception that caused it, has
+     * one of the retryable SQL states of the dbms type of the given dbms.
+     */
+    private boolean isRetryable(Dbms dbms, SQLException sqlEx) {
+        final Set<String> retryableSqlStates = dbmsTypeOf(dbmsHandlerComponent, dbms).getRetryableSqlStates();
+        for (Throwable t = sqlEx; t != null; t = t.getCause()) {
+            if (t instanceof SQLException && retryableSqlStates.contains(((SQLException) t).getSQLState())) {
+                return true;
             }
-        } while (!transactionCompleted && (retryCount > 0));
+            if (t.getCause() == t) {
+                break;
+            }
+        }
+        return false;
+    }
 
-        if (transactionCompleted) {
-            postSuccessfulTransaction(sqlStatementList);
+    private static void sleep(Duration delay, SQLException sqlEx) throws SQLException {
+        if (delay.isZero() || delay.isNegative()) {
+            return;
+        }
+        try {
+            TimeUnit.NANOSECONDS.sleep(delay.toNanos());
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            sqlEx.addSuppressed(ie);
+            throw sqlEx;
         }
     }
 
@@ -269,7 +357,7 @@ public abstract class AbstractDbmsOperationHandler implements DbmsOperationHandl
         try (final PreparedStatement ps = conn.prepareStatement(sqlStatement.getSql(), Statement.RETURN_GENERATED_KEYS)) {
             int i = 1;
             for (Object o : sqlStatement.getValues()) {
-                ps.setObject(i++, o);
+                SqlArrayParameter.bind(ps, i++, o);
             }
             ps.executeUpdate();
 
@@ -298,7 +386,7 @@ public abstract class AbstractDbmsOperationHandler implements DbmsOperationHandl
         try (final PreparedStatement ps = conn.prepareStatement(sqlStatement.getSql(), Statement.NO_GENERATED_KEYS)) {
             int i = 1;
             for (Object o : sqlStatement.getValues()) {
-                ps.setObject(i++, o);
+                SqlArrayParameter.bind(ps, i++, o);
             }
             ps.executeUpdate();
         }
@@ -20,6 +20,8 @@ import com.speedment.common.logger.Logger;
 import com.speedment.common.logger.LoggerManager;
 import com.speedment.runtime.core.ApplicationBuilder;
 import com.speedment.runtime.core.db.AsynchronousQueryResult;
+import com.speedment.runtime.core.db.FetchHints;
+import com.speedment.runtime.core.db.SqlArrayParameter;
 import com.speedment.runtime.core.db.SqlConsumer;
 import com.speedment.runtime.core.db.SqlFunction;
 import com.speedment.runtime.core.exception.SpeedmentException;
@@ -31,8 +33,10 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.List;
 import static java.util.Objects.requireNonNull;
+import java.util.Spliterator;
 import java.util.function.Supplier;
 import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  *
@@ -51,9 +55,11 @@ public final class AsynchronousQueryResultImpl<T> implements AsynchronousQueryRe
     private final ParallelStrategy parallelStrategy;
     private final SqlConsumer<PreparedStatement> statementConfigurator;
     private final SqlConsumer<ResultSet> resultSetConfigurator;
+    private final FetchHints fetchHints;
     private ConnectionInfo connectionInfo;  // null allowed if the stream() method is not run
     private PreparedStatement ps;
     private ResultSet rs;
+    private ReadAheadIterator<T> readAhead;
     private State state;
 
     public enum State {
@@ -68,6 +74,28 @@ public final class AsynchronousQueryResultImpl<T> implements AsynchronousQueryRe
         final ParallelStrategy parallelStrategy,
         final SqlConsumer<PreparedStatement> statementConfigurator,
         final SqlConsumer<ResultSet> resultSetConfigurator
+    ) {
+        this(
+            sql,
+            values,
+            rsMapper,
+            connectionSupplier,
+            parallelStrategy,
+            statementConfigurator,
+            resultSetConfigurator,
+            FetchHints.defaults()
+        );
+    }
+
+    public AsynchronousQueryResultImpl(
+        final String sql,
+        final List<?> values,
+        final SqlFunction<ResultSet, T> rsMapper,
+        final Supplier<ConnectionInfo> connectionSupplier,
+        final ParallelStrategy parallelStrategy,
+        final SqlConsumer<PreparedStatement> statementConfigurator,
+        final SqlConsumer<ResultSet> resultSetConfigurator,
+        final FetchHints fetchHints
     ) {
         setSql(sql); // requireNonNull in setter
         setValues(values); // requireNonNull in setter
@@ -77,6 +105,7 @@ public final class AsynchronousQueryResultImpl<T> implements AsynchronousQueryRe
         setState(State.INIT);
         this.statementConfigurator = requireNonNull(statementConfigurator);
         this.resultSetConfigurator = requireNonNull(resultSetConfigurator);
+        this.fetchHints = requireNonNull(fetchHints);
     }
 
     @Override
@@ -94,7 +123,7 @@ public final class AsynchronousQueryResultImpl<T> implements AsynchronousQueryRe
 
             int i = 1;
             for (final Object o : getValues()) {
-                ps.setObject(i++, o);
+                SqlArrayParameter.bind(ps, i++, o);
             }
             rs = ps.executeQuery();
             resultSetConfigurator.accept(rs);
@@ -106,11 +135,26 @@ public final class AsynchronousQueryResultImpl<T> implements AsynchronousQueryRe
             throw new SpeedmentException(sqle);
         }
         setState(State.OPEN);
+        if (fetchHints.isReadAhead() && !connectionInfo.isInTransaction()) {
+            // The connection of a transaction may be used by other statements
+            // of the consumer thread and can not be handed over to a reader
+            readAhead = new ReadAheadIterator<>(
+                rs,
+                getRsMapper(),
+                fetchHints.getReadAheadBlockSize(),
+                fetchHints.getReadAheadBlocks()
+            );
+            return StreamSupport.stream(
+                parallelStrategy.spliteratorUnknownSize(readAhead, Spliterator.IMMUTABLE + Spliterator.NONNULL),
+                false
+            );
+        }
         return StreamUtil.asStream(rs, getRsMapper(), parallelStrategy);
     }
 
     @Override
     public void close() {
+        closeSilently(readAhead); // The reader must be stopped before the ResultSet is closed
         closeSilently(rs);
         closeSilently(ps);
         commitSilently(connectionInfo);
@@ -0,0 +1,109 @@
+/**
+ *
+ * Copyright (c) 2006-2018, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.internal.db;
+
+import com.speedment.runtime.core.db.RetryPolicy;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.DoubleSupplier;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * {@link RetryPolicy} with exponential backoff and full jitter.
+ *
+ * @author Per Minborg
+ * @since 3.1.6
+ */
+public final class ExponentialBackoffRetryPolicy implements RetryPolicy {
+
+    public static final RetryPolicy NONE
+        = new ExponentialBackoffRetryPolicy(1, Duration.ZERO, Duration.ZERO);
+
+    private final int maxAttempts;
+    private final long initialDelayNanos;
+    private final long maxDelayNanos;
+    private final DoubleSupplier random;
+
+    public ExponentialBackoffRetryPolicy(int maxAttempts, Duration initialDelay, Duration maxDelay) {
+        this(maxAttempts, initialDelay, maxDelay, () -> ThreadLocalRandom.current().nextDouble());
+    }
+
+    ExponentialBackoffRetryPolicy(
+        final int maxAttempts,
+        final Duration initialDelay,
+        final Duration maxDelay,
+        final DoubleSupplier random
+    ) {
+        requireNonNull(initialDelay);
+        requireNonNull(maxDelay);
+        if (maxAttempts < 1) {
+            throw new IllegalArgumentException("maxAttempts must be positive: " + maxAttempts);
+        }
+        if (initialDelay.isNegative()) {
+            throw new IllegalArgumentException("initialDelay must not be negative: " + initialDelay);
+        }
+        if (maxDelay.compareTo(initialDelay) < 0) {
+            throw new IllegalArgumentException(
+                "maxDelay (" + maxDelay + ") must not be less than initialDelay (" + initialDelay + ")"
+            );
+        }
+        this.maxAttempts = maxAttempts;
+        this.initialDelayNanos = initialDelay.toNanos();
+        this.maxDelayNanos = maxDelay.toNanos();
+        this.random = requireNonNull(random);
+    }
+
+    @Override
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    @Override
+    public Duration getDelay(int retry) {
+        if (retry < 1) {
+            throw new IllegalArgumentException("retry must be positive: " + retry);
+        }
+        return Duration.ofNanos((long) (random.getAsDouble() * ceiling(retry)));
+    }
+
+    /**
+     * Returns {@code min(maxDelay, initialDelay * 2^(retry-1))} without
+     * overflowing.
+     */
+    long ceiling(int retry) {
+        final int shift = retry - 1;
+        if (initialDelayNanos == 0) {
+            return 0;
+        }
+        if (shift >= Long.numberOfLeadingZeros(initialDelayNanos) - 1) {
+            return maxDelayNanos;
+        }
+        return Math.min(maxDelayNanos, initialDelayNanos << shift);
+    }
+
+    @Override
+    public String toString() {
+        return "ExponentialBackoffRetryPolicy{" +
+            "maxAttempts=" + maxAttempts +
+            ", initialDelay=" + Duration.ofNanos(initialDelayNanos) +
+            ", maxDelay=" + Duration.ofNanos(maxDelayNanos) +
+            '}';
+    }
+
+}
@@ -0,0 +1,112 @@
+/**
+ *
+ * Copyright (c) 2006-2018, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.internal.db;
+
+import com.speedment.runtime.core.db.FetchHints;
+
+import java.util.Objects;
+import java.util.OptionalInt;
+
+/**
+ * Default implementation of the {@link FetchHints} interface.
+ *
+ * @author Per Minborg
+ * @since 3.1.6
+ */
+public final class FetchHintsImpl implements FetchHints {
+
+    public static final FetchHints DEFAULTS = new FetchHintsImpl(0, 0, 0);
+
+    private final int fetchSize; // 0 means default
+    private final int readAheadBlockSize; // 0 means disabled
+    private final int readAheadBlocks;
+
+    private FetchHintsImpl(int fetchSize, int readAheadBlockSize, int readAheadBlocks) {
+        this.fetchSize = fetchSize;
+        this.readAheadBlockSize = readAheadBlockSize;
+        this.readAheadBlocks = readAheadBlocks;
+    }
+
+    @Override
+    public OptionalInt getFetchSize() {
+        return fetchSize == 0 ? OptionalInt.empty() : OptionalInt.of(fetchSize);
+    }
+
+    @Override
+    public int getReadAheadBlockSize() {
+        return readAheadBlockSize;
+    }
+
+    @Override
+    public int getReadAheadBlocks() {
+        return readAheadBlocks;
+    }
+
+    @Override
+    public FetchHints withFetchSize(int fetchSize) {
+        requirePositive("fetchSize", fetchSize);
+        return new FetchHintsImpl(fetchSize, readAheadBlockSize, readAheadBlocks);
+    }
+
+    @Override
+    public FetchHints withDefaultFetchSize() {
+        return new FetchHintsImpl(0, readAheadBlockSize, readAheadBlocks);
+    }
+
+    @Override
+    public FetchHints withReadAhead(int blockSize, int blocks) {
+        requirePositive("blockSize", blockSize);
+        requirePositive("blocks", blocks);
+        return new FetchHintsImpl(fetchSize, blockSize, blocks);
+    }
+
+    @Override
+    public FetchHints withoutReadAhead() {
+        return new FetchHintsImpl(fetchSize, 0, 0);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof FetchHintsImpl)) return false;
+        final FetchHintsImpl that = (FetchHintsImpl) o;
+        return fetchSize == that.fetchSize
+            && readAheadBlockSize == that.readAheadBlockSize
+            && readAheadBlocks == that.readAheadBlocks;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(fetchSize, readAheadBlockSize, readAheadBlocks);
+    }
+
+    @Override
+    public String toString() {
+        return "FetchHints{" +
+            "fetchSize=" + (fetchSize == 0 ? "default" : Integer.toString(fetchSize)) +
+            ", readAheadBlockSize=" + readAheadBlockSize +
+            ", readAheadBlocks=" + readAheadBlocks +
+            '}';
+    }
+
+    private static void requirePositive(String name, int value) {
+        if (value < 1) {
+            throw new IllegalArgumentException(name + " must be positive: " + value);
+        }
+    }
+
+}
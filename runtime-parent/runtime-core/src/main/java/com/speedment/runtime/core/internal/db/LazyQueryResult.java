@@ -0,0 +1,221 @@
+/**
+ *
+ * Copyright (c) 2006-2018, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.internal.db;
+
+import com.speedment.common.logger.Logger;
+import com.speedment.common.logger.LoggerManager;
+import com.speedment.runtime.core.db.SqlArrayParameter;
+import com.speedment.runtime.core.db.SqlConsumer;
+import com.speedment.runtime.core.db.SqlFunction;
+import com.speedment.runtime.core.exception.SpeedmentException;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A query that is executed directly but whose {@link ResultSet} is consumed
+ * lazily as the elements of the returned stream are consumed. The
+ * {@code ResultSet}, the statement and the connection are released as soon as
+ * the {@code ResultSet} has been exhausted, if reading fails or when the
+ * stream is closed, whichever happens first.
+ * <p>
+ * Optionally, a bounded number of rows can be prefetched when the query is
+ * executed. If the whole result fits within the prefetched rows, the
+ * connection is released before the stream is returned.
+ *
+ * @param <T> the type that the ResultSet shall be mapped to
+ *
+ * @author Per Minborg
+ * @since 3.1.6
+ */
+final class LazyQueryResult<T> implements AutoCloseable {
+
+    private static final Logger LOGGER = LoggerManager.getLogger(LazyQueryResult.class);
+
+    private final String sql;
+    private final List<?> values;
+    private final SqlFunction<ResultSet, T> rsMapper;
+    private final Supplier<ConnectionInfo> connectionInfoSupplier;
+    private final SqlConsumer<PreparedStatement> statementConfigurator;
+    private final SqlConsumer<ResultSet> resultSetConfigurator;
+    private final AtomicBoolean closed;
+    private ConnectionInfo connectionInfo;  // null allowed if the stream() method is not run
+    private PreparedStatement ps;
+    private ResultSet rs;
+
+    LazyQueryResult(
+        final String sql,
+        final List<?> values,
+        final SqlFunction<ResultSet, T> rsMapper,
+        final Supplier<ConnectionInfo> connectionInfoSupplier,
+        final SqlConsumer<PreparedStatement> statementConfigurator,
+        final SqlConsumer<ResultSet> resultSetConfigurator
+    ) {
+        this.sql = requireNonNull(sql);
+        this.values = requireNonNull(values);
+        this.rsMapper = requireNonNull(rsMapper);
+        this.connectionInfoSupplier = requireNonNull(connectionInfoSupplier);
+        this.statementConfigurator = requireNonNull(statementConfigurator);
+        this.resultSetConfigurator = requireNonNull(resultSetConfigurator);
+        this.closed = new AtomicBoolean();
+    }
+
+    /**
+     * Executes the query and returns a stream over the mapped rows. Up to
+     * {@code prefetchSize} rows are read before this method returns. The
+     * returned stream should be closed after use unless it is consumed
+     * completely.
+     *
+     * @param prefetchSize the maximum number of rows to read directly
+     * @return a stream over the mapped rows
+     * @throws SpeedmentException if the query could not be executed
+     */
+    Stream<T> stream(int prefetchSize) {
+        if (prefetchSize < 0) {
+            throw new IllegalArgumentException("Negative prefetchSize " + prefetchSize);
+        }
+        final RowIterator iterator = new RowIterator();
+        try {
+            connectionInfo = connectionInfoSupplier.get();
+            ps = connectionInfo.connection().prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statementConfigurator.accept(ps);
+            connectionInfo.ifNotInTransaction(c -> c.setAutoCommit(false));
+            int i = 1;
+            for (final Object o : values) {
+                SqlArrayParameter.bind(ps, i++, o);
+            }
+            rs = ps.executeQuery();
+            resultSetConfigurator.accept(rs);
+
+            final List<T> prefetched = new ArrayList<>(Math.min(prefetchSize, 1024));
+            while (prefetched.size() < prefetchSize && iterator.hasNext()) {
+                prefetched.add(iterator.next());
+            }
+            if (prefetchSize > 0 && !iterator.hasNext()) {
+                // The ResultSet is exhausted and the resources are released
+                return prefetched.stream();
+            }
+            final Stream<T> remaining = StreamSupport.stream(
+                Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED), false
+            );
+            final Stream<T> result = prefetched.isEmpty()
+                ? remaining
+                : Stream.concat(prefetched.stream(), remaining);
+            return result.onClose(this::close);
+        } catch (final SQLException | RuntimeException ex) {
+            close();
+            if (ex instanceof SQLException) {
+                LOGGER.error(ex, "Error querying " + sql);
+                throw new SpeedmentException(ex);
+            }
+            throw (RuntimeException) ex;
+        }
+    }
+
+    @Override
+    public void close() {
+        if (closed.compareAndSet(false, true)) {
+            closeSilently(rs);
+            closeSilently(ps);
+            commitSilently(connectionInfo);
+            closeSilently(connectionInfo);
+        }
+    }
+
+    private void commitSilently(ConnectionInfo connectionInfo) {
+        try {
+            if (connectionInfo != null) {
+                connectionInfo.ifNotInTransaction(Connection::commit);
+            }
+        } catch (SQLException e) {
+            LOGGER.error(e, "Failed to commit connection upon close");
+        }
+    }
+
+    private void closeSilently(final AutoCloseable closeable) {
+        try {
+            if (closeable != null) {
+                closeable.close();
+            }
+        } catch (Exception e) {
+            LOGGER.error(e, "Error closing " + closeable);
+            // Just log the error. No re-throw
+        }
+    }
+
+    /**
+     * Iterator over the mapped rows of the ResultSet that releases all
+     * resources once the ResultSet is exhausted or reading fails. This
+     * implementation is not thread safe.
+     */
+    private final class RowIterator implements Iterator<T> {
+
+        private boolean hasNext;
+        private boolean advanced;
+
+        @Override
+        public boolean hasNext() {
+            if (!advanced) {
+                if (closed.get()) {
+                    return false;
+                }
+                try {
+                    hasNext = rs.next();
+                } catch (final SQLException sqle) {
+                    close();
+                    LOGGER.error(sqle, "Error reading result of " + sql);
+                    throw new SpeedmentException(sqle);
+                }
+                advanced = true;
+                if (!hasNext) {
+                    close();
+                }
+            }
+            return hasNext;
+        }
+
+        @Override
+        public T next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            advanced = false;
+            try {
+                return rsMapper.apply(rs);
+            } catch (final SQLException sqle) {
+                close();
+                LOGGER.error(sqle, "Error reading result of " + sql);
+                throw new SpeedmentException(sqle);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,190 @@
+/**
+ *
+ * Copyright (c) 2006-2018, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.internal.db;
+
+import com.speedment.runtime.core.db.SqlFunction;
+import com.speedment.runtime.core.exception.SpeedmentException;
+
+import java.sql.ResultSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * {@link Iterator} that reads and maps the rows of a {@link ResultSet} in a
+ * background thread. Rows are handed over to the consumer in blocks through a
+ * bounded buffer so that the next block can be read from the database while
+ * the consumer processes the current one.
+ * <p>
+ * The {@code ResultSet} is only accessed by the background thread. Thus,
+ * {@link #close()} must be called before the {@code ResultSet} is closed.
+ * This implementation is not thread safe.
+ *
+ * @param <T> the type of the mapped rows
+ *
+ * @author Per Minborg
+ * @since 3.1.6
+ */
+final class ReadAheadIterator<T> implements Iterator<T>, AutoCloseable {
+
+    private static final Object[] END = new Object[0];
+    private static final long OFFER_TIMEOUT_MS = 10;
+    private static final AtomicInteger THREAD_COUNTER = new AtomicInteger();
+
+    private final ResultSet resultSet;
+    private final SqlFunction<ResultSet, T> mapper;
+    private final int blockSize;
+    private final BlockingQueue<Object[]> buffer;
+    private final Thread reader;
+
+    private volatile boolean closed;
+    private volatile Throwable failure;
+
+    private Object[] block;
+    private int index;
+    private boolean done;
+
+    ReadAheadIterator(
+        final ResultSet resultSet,
+        final SqlFunction<ResultSet, T> mapper,
+        final int blockSize,
+        final int blocks
+    ) {
+        if (blockSize < 1 || blocks < 1) {
+            throw new IllegalArgumentException(
+                "blockSize and blocks must be positive: " + blockSize + ", " + blocks
+            );
+        }
+        this.resultSet = requireNonNull(resultSet);
+        this.mapper = requireNonNull(mapper);
+        this.blockSize = blockSize;
+        this.buffer = new ArrayBlockingQueue<>(blocks);
+        this.reader = new Thread(this::read, "speedment-read-ahead-" + THREAD_COUNTER.incrementAndGet());
+        this.reader.setDaemon(true);
+        this.reader.start();
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (block == null || index == block.length) {
+            if (done) {
+                return false;
+            }
+            final Object[] next = take();
+            if (next == END) {
+                done = true;
+                block = null;
+                final Throwable t = failure;
+                if (t != null) {
+                    throw t instanceof SpeedmentException
+                        ? (SpeedmentException) t
+                        : new SpeedmentException("Error reading ahead", t);
+                }
+                return false;
+            }
+            block = next;
+            index = 0;
+        }
+        return true;
+    }
+
+    @Override
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException(
+                "Next was called even though hasNext() returned false."
+            );
+        }
+        @SuppressWarnings("unchecked")
+        final T result = (T) block[index];
+        block[index++] = null; // Let the row be collected as soon as possible
+        return result;
+    }
+
+    /**
+     * Stops the background thread and waits for it to finish. After this
+     * method returns, the {@code ResultSet} is no longer accessed.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        done = true;
+        block = null;
+        buffer.clear();
+        boolean interrupted = false;
+        while (reader.isAlive()) {
+            try {
+                reader.join();
+            } catch (InterruptedException ie) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private Object[] take() {
+        try {
+            return buffer.take();
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            throw new SpeedmentException("Interrupted while waiting for rows", ie);
+        }
+    }
+
+    private void read() {
+        try {
+            while (!closed) {
+                final Object[] rows = new Object[blockSize];
+                int size = 0;
+                while (size < blockSize && resultSet.next()) {
+                    rows[size++] = mapper.apply(resultSet);
+                }
+                if (size > 0) {
+                    offer(size == blockSize ? rows : Arrays.copyOf(rows, size));
+                }
+                if (size < blockSize) {
+                    break;
+                }
+            }
+        } catch (Throwable t) {
+            failure = t;
+        } finally {
+            offer(END);
+        }
+    }
+
+    private void offer(Object[] rows) {
+        try {
+            while (!closed) {
+                if (buffer.offer(rows, OFFER_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+                    return;
+                }
+            }
+        } catch (InterruptedException ie) {
+            closed = true;
+        }
+    }
+
+}
@@ -0,0 +1,76 @@
+/**
+ *
+ * Copyright (c) 2006-2018, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.internal.db;
+
+import com.speedment.runtime.core.db.RetryMetrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free implementation of {@link RetryMetrics}.
+ *
+ * @author Per Minborg
+ * @since 3.1.6
+ */
+public final class RetryMetricsImpl implements RetryMetrics {
+
+    /**
+     * Metrics that are never recorded to.
+     */
+    public static final RetryMetrics NONE = new RetryMetricsImpl();
+
+    private final LongAdder retries = new LongAdder();
+    private final LongAdder recovered = new LongAdder();
+    private final LongAdder exhausted = new LongAdder();
+
+    public void recordRetry() {
+        retries.increment();
+    }
+
+    public void recordRecovered() {
+        recovered.increment();
+    }
+
+    public void recordExhausted() {
+        exhausted.increment();
+    }
+
+    @Override
+    public long retryCount() {
+        return retries.sum();
+    }
+
+    @Override
+    public long recoveredCount() {
+        return recovered.sum();
+    }
+
+    @Override
+    public long exhaustedCount() {
+        return exhausted.sum();
+    }
+
+    @Override
+    public String toString() {
+        return "RetryMetrics{" +
+            "retryCount=" + retryCount() +
+            ", recoveredCount=" + recoveredCount() +
+            ", exhaustedCount=" + exhaustedCount() +
+            '}';
+    }
+
+}
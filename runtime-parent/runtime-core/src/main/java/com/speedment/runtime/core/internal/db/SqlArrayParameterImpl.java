@@ -0,0 +1,55 @@
+/**
+ *
+ * Copyright (c) 2006-2018, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.internal.db;
+
+import com.speedment.runtime.core.db.SqlArrayParameter;
+
+import java.util.Arrays;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Default implementation of the {@link SqlArrayParameter} interface.
+ *
+ * @author Per Minborg
+ * @since 3.1.6
+ */
+public final class SqlArrayParameterImpl implements SqlArrayParameter {
+
+    private final String typeName;
+    private final Object[] elements;
+
+    public SqlArrayParameterImpl(String typeName, Object[] elements) {
+        this.typeName = requireNonNull(typeName);
+        this.elements = elements.clone();
+    }
+
+    @Override
+    public String getTypeName() {
+        return typeName;
+    }
+
+    @Override
+    public Object[] getElements() {
+        return elements.clone();
+    }
+
+    @Override
+    public String toString() {
+        return typeName + Arrays.toString(elements);
+    }
+}
@@ -18,6 +18,7 @@ package com.speedment.runtime.core.internal.manager;
 
 import com.speedment.runtime.config.identifier.TableIdentifier;
 import com.speedment.runtime.core.component.StreamSupplierComponent;
+import com.speedment.runtime.core.db.FetchHints;
 import com.speedment.runtime.core.manager.*;
 import com.speedment.runtime.core.stream.parallel.ParallelStrategy;
 import com.speedment.runtime.field.Field;
@@ -27,8 +28,8 @@ import java.util.stream.Stream;
 import static java.util.Objects.requireNonNull;
 
 /**
- * {@link Manager} delegator that overwrites the {@link ParallelStrategy} used
- * when {@link #stream()} is called.
+ * {@link Manager} delegator that overwrites the {@link ParallelStrategy} and
+ * the {@link FetchHints} used when {@link #stream()} is called.
  *
  * @param <ENTITY> entity type
  *
@@ -40,14 +41,17 @@ public final class ConfiguredManager<ENTITY> implements Manager<ENTITY> {
     private final StreamSupplierComponent streamSupplierComponent;
     private final Manager<ENTITY> manager;
     private final ParallelStrategy parallelStrategy;
+    private final FetchHints fetchHints;
 
     ConfiguredManager(StreamSupplierComponent streamSupplierComponent,
                       Manager<ENTITY> manager,
-                      ParallelStrategy parallelStrategy) {
+                      ParallelStrategy parallelStrategy,
+                      FetchHints fetchHints) {
 
         this.streamSupplierComponent = requireNonNull(streamSupplierComponent);
         this.manager                 = requireNonNull(manager);
         this.parallelStrategy        = requireNonNull(parallelStrategy);
+        this.fetchHints              = requireNonNull(fetchHints);
     }
 
     @Override
@@ -74,7 +78,8 @@ public final class ConfiguredManager<ENTITY> implements Manager<ENTITY> {
     public Stream<ENTITY> stream() {
         return streamSupplierComponent.stream(
             getTableIdentifier(),
-            parallelStrategy
+            parallelStrategy,
+            fetchHints
         );
     }
 
@@ -108,6 +113,7 @@ public final class ConfiguredManager<ENTITY> implements Manager<ENTITY> {
         return "ConfiguredManager{" +
             "manager=" + manager +
             ", parallelStrategy=" + parallelStrategy +
+            ", fetchHints=" + fetchHints +
             '}';
     }
 }
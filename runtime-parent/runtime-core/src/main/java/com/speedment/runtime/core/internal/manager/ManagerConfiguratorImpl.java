@@ -17,6 +17,7 @@
 package com.speedment.runtime.core.internal.manager;
 
 import com.speedment.runtime.core.component.StreamSupplierComponent;
+import com.speedment.runtime.core.db.FetchHints;
 import com.speedment.runtime.core.manager.Manager;
 import com.speedment.runtime.core.manager.ManagerConfigurator;
 import com.speedment.runtime.core.stream.parallel.ParallelStrategy;
@@ -40,6 +41,7 @@ implements ManagerConfigurator<ENTITY> {
     private final Manager<ENTITY> manager;
 
     private ParallelStrategy strategy;
+    private FetchHints fetchHints;
 
     public ManagerConfiguratorImpl(StreamSupplierComponent streams,
                                    Manager<ENTITY> manager) {
@@ -47,6 +49,7 @@ implements ManagerConfigurator<ENTITY> {
         this.streams  = requireNonNull(streams);
         this.manager  = requireNonNull(manager);
         this.strategy = computeIntensityDefault();
+        this.fetchHints = FetchHints.defaults();
     }
 
     @Override
@@ -56,12 +59,18 @@ implements ManagerConfigurator<ENTITY> {
         return this;
     }
 
+    @Override
+    public ManagerConfigurator<ENTITY> withFetchHints(FetchHints fetchHints) {
+        this.fetchHints = requireNonNull(fetchHints);
+        return this;
+    }
+
     @Override
     public Manager<ENTITY> build() {
         requireNonNull(strategy, getClass().getSimpleName() +
             ".withParallelStrategy(...) has not been called!"
         );
 
-        return new ConfiguredManager<>(streams, manager, strategy);
+        return new ConfiguredManager<>(streams, manager, strategy, fetchHints);
     }
 }
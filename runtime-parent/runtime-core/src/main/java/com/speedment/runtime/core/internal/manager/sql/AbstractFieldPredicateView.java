@@ -22,6 +22,7 @@ import com.speedment.runtime.field.Field;
 import com.speedment.runtime.field.predicate.FieldPredicate;
 import com.speedment.runtime.field.predicate.Inclusion;
 import com.speedment.runtime.field.predicate.PredicateType;
+import com.speedment.runtime.typemapper.TypeMapper;
 
 import java.util.Collection;
 import java.util.Set;
@@ -122,6 +123,20 @@ public abstract class AbstractFieldPredicateView implements FieldPredicateView {
         }
     }
 
+    /**
+     * Returns the maximum number of elements that IN and NOT IN predicates
+     * are rendered to a plain list of parameters for. Larger sets are rendered
+     * using {@link #largeInHelper(String, Class, FieldPredicate, Set, boolean)}.
+     * <p>
+     * By default, there is no limit.
+     *
+     * @return the maximum number of elements in a plain IN list
+     * @since 3.1.6
+     */
+    protected int inListThreshold() {
+        return Integer.MAX_VALUE;
+    }
+
     protected SqlPredicateFragment alwaysTrue() {
         return of("(TRUE)");
     }
@@ -180,12 +195,12 @@ public abstract class AbstractFieldPredicateView implements FieldPredicateView {
 
     protected SqlPredicateFragment
     in(String cn, Class<?> dbClass, FieldPredicate<?> model) {
-        return inHelper(cn, model, false);
+        return inHelper(cn, dbClass, model, false);
     }
 
     protected SqlPredicateFragment
     notIn(String cn, Class<?> dbClass, FieldPredicate<?> model) {
-        return inHelper(cn, model, true);
+        return inHelper(cn, dbClass, model, true);
     }
 
     ////////////////////////////////////////////////////////////////////////////
@@ -296,6 +311,94 @@ public abstract class AbstractFieldPredicateView implements FieldPredicateView {
         }
     }
 
+    ////////////////////////////////////////////////////////////////////////////
+    //                          Large IN Predicates                           //
+    ////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Renders an IN or NOT IN predicate for a set with more elements than
+     * {@link #inListThreshold()}. By default, the set is split into chunks of
+     * at most {@link #inListThreshold()} elements where each chunk is rendered
+     * as a separate IN list.
+     *
+     * <p>
+     * The elements are still in their Java representation and are converted
+     * by the {@code TypeMapper} of the field once the predicate is rendered.
+     * Implementations that render the elements in any other way than as
+     * individual parameters must therefore first make sure that the field is
+     * {@link #isIdentityMapped(FieldPredicate) identity mapped}.
+     *
+     * @param cn       the column name
+     * @param dbClass  the database type of the column
+     * @param model    the predicate that is rendered
+     * @param set      the elements
+     * @param negated  if the predicate is a NOT IN predicate
+     * @return         the rendered predicate
+     * @since 3.1.6
+     */
+    protected SqlPredicateFragment largeInHelper(
+            String cn,
+            Class<?> dbClass,
+            FieldPredicate<?> model,
+            Set<?> set,
+            boolean negated) {
+        return chunkedInHelper(cn, set, inListThreshold(), "", negated);
+    }
+
+    /**
+     * Returns if the field of the specified predicate uses a type mapper that
+     * passes values to the database as they are, so that the operands of the
+     * predicate already have the database type of the column.
+     *
+     * @param model  the predicate
+     * @return       if the field is identity mapped
+     * @since 3.1.6
+     */
+    protected static boolean isIdentityMapped(FieldPredicate<?> model) {
+        final Class<?> typeMapperClass = model.getField().typeMapper().getClass();
+        return typeMapperClass == TypeMapper.identity().getClass()
+            || typeMapperClass == TypeMapper.primitive().getClass();
+    }
+
+    /**
+     * Renders an IN or NOT IN predicate where the elements are split into
+     * chunks of at most {@code chunkSize} elements that are rendered as
+     * separate IN lists combined using OR. The provided {@code listSuffix} is
+     * appended after the parameters of each list.
+     *
+     * @param cn          the column name
+     * @param values      the elements
+     * @param chunkSize   the maximum number of elements per IN list
+     * @param listSuffix  appended after the parameters of each list
+     * @param negated     if the predicate is a NOT IN predicate
+     * @return            the rendered predicate
+     * @since 3.1.6
+     */
+    protected static SqlPredicateFragment chunkedInHelper(
+            String cn,
+            Collection<?> values,
+            int chunkSize,
+            String listSuffix,
+            boolean negated) {
+
+        final StringBuilder sql = new StringBuilder("(");
+        int count = 0;
+        for (int i = 0; i < values.size(); i++) {
+            if (count == chunkSize) {
+                sql.append(listSuffix).append(") OR ");
+                count = 0;
+            }
+            if (count == 0) {
+                sql.append(cn).append(" IN (?");
+            } else {
+                sql.append(",?");
+            }
+            count++;
+        }
+        sql.append(listSuffix).append("))");
+        return of(sql.toString(), negated).addAll(values);
+    }
+
     ////////////////////////////////////////////////////////////////////////////
     //                        Private Helper Methods                          //
     ////////////////////////////////////////////////////////////////////////////
@@ -340,6 +443,7 @@ public abstract class AbstractFieldPredicateView implements FieldPredicateView {
     }
 
     private SqlPredicateFragment inHelper(String cn,
+                                          Class<?> dbClass,
                                           FieldPredicate<?> model,
                                           boolean negated) {
 
@@ -351,6 +455,8 @@ public abstract class AbstractFieldPredicateView implements FieldPredicateView {
             return negated
                 ? notEqualHelper(cn, arg)
                 : equalHelper(cn, arg);
+        } else if (set.size() > inListThreshold()) {
+            return largeInHelper(cn, dbClass, model, set, negated);
         } else {
             return of("(" + cn + " IN (" +
                 set.stream().map($ -> "?").collect(joining(",")) +
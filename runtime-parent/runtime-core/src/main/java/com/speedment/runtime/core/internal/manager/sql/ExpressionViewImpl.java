@@ -0,0 +1,412 @@
+/**
+ *
+ * Copyright (c) 2006-2018, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.internal.manager.sql;
+
+import com.speedment.runtime.compute.expression.BinaryExpression;
+import com.speedment.runtime.compute.expression.BinaryObjExpression;
+import com.speedment.runtime.compute.expression.ConstantExpression;
+import com.speedment.runtime.compute.expression.Expression;
+import com.speedment.runtime.compute.expression.ExpressionType;
+import com.speedment.runtime.compute.expression.NonNullableExpression;
+import com.speedment.runtime.compute.expression.UnaryExpression;
+import com.speedment.runtime.compute.expression.orelse.ToByteOrElse;
+import com.speedment.runtime.compute.expression.orelse.ToDoubleOrElse;
+import com.speedment.runtime.compute.expression.orelse.ToFloatOrElse;
+import com.speedment.runtime.compute.expression.orelse.ToIntOrElse;
+import com.speedment.runtime.compute.expression.orelse.ToLongOrElse;
+import com.speedment.runtime.compute.expression.orelse.ToShortOrElse;
+import com.speedment.runtime.core.db.ExpressionView;
+import com.speedment.runtime.field.Field;
+import com.speedment.runtime.field.expression.FieldMapper;
+import com.speedment.runtime.field.internal.expression.NumberCastMapper;
+import com.speedment.runtime.typemapper.TypeMapper;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Default implementation of {@link ExpressionView} that renders expressions
+ * using standard SQL. Database types that do not support a construct used
+ * here can override the corresponding protected method.
+ * <p>
+ * An expression can be rendered if it only consists of
+ * <ul>
+ *   <li>identity mapped numeric fields of the streamed table,
+ *   <li>{@code asX()} casts of nullable numeric fields that do not narrow
+ *       the database value, followed by {@code orElse(value)},
+ *   <li>numeric constants and
+ *   <li>the {@code abs}, {@code negate}, {@code sign}, {@code sqrt},
+ *       widening cast, {@code plus}, {@code minus}, {@code multiply},
+ *       {@code divide} and (floating point) {@code pow} operators.
+ * </ul>
+ * Operators that are not defined for every operand are only rendered if
+ * the operand is known to be valid, since the JVM would produce
+ * {@code NaN} or infinity where the database would produce {@code NULL} or
+ * an error. This means that {@code divide} is only rendered for a non-zero
+ * constant divisor, {@code sqrt} only for operands that can not be negative
+ * and {@code pow} only for a non-negative constant exponent that is either
+ * a whole number or applied to an operand that can not be negative.
+ *
+ * @author Per Minborg
+ * @since 3.1.6
+ */
+public class ExpressionViewImpl implements ExpressionView {
+
+    public static final ExpressionView STANDARD = new ExpressionViewImpl();
+
+    /**
+     * The widening order of the supported numeric types. A value can be
+     * converted to a type with a higher rank without being narrowed.
+     */
+    private static final Map<Class<?>, Integer> DATABASE_TYPE_RANKS = new HashMap<>();
+
+    static {
+        DATABASE_TYPE_RANKS.put(Byte.class, 0);
+        DATABASE_TYPE_RANKS.put(Short.class, 1);
+        DATABASE_TYPE_RANKS.put(Integer.class, 2);
+        DATABASE_TYPE_RANKS.put(Long.class, 3);
+        DATABASE_TYPE_RANKS.put(Float.class, 4);
+        DATABASE_TYPE_RANKS.put(Double.class, 5);
+    }
+
+    private static final int LAST_INTEGRAL_RANK = 3;
+    private static final int DOUBLE_RANK = 5;
+
+    protected ExpressionViewImpl() {}
+
+    @Override
+    public <ENTITY> Optional<String> render(
+            final Function<Field<ENTITY>, String> columnNamer,
+            final Function<Field<ENTITY>, Class<?>> columnDbTypeFunction,
+            final Expression<ENTITY> expression) {
+        requireNonNull(columnNamer);
+        requireNonNull(columnDbTypeFunction);
+        requireNonNull(expression);
+        if (expression.expressionType().isNullable()) {
+            return Optional.empty();
+        }
+        return renderExpression(columnNamer, columnDbTypeFunction, expression);
+    }
+
+    /**
+     * Renders the given SQL expression converted to a double precision
+     * floating point value.
+     *
+     * @param sql  the SQL expression
+     * @return the converted SQL expression
+     */
+    protected String castToDouble(String sql) {
+        return "CAST(" + sql + " AS DOUBLE PRECISION)";
+    }
+
+    /**
+     * Renders the square root of the given SQL expression. The expression is
+     * known not to be negative.
+     *
+     * @param sql  the SQL expression
+     * @return the rendered square root
+     */
+    protected String sqrt(String sql) {
+        return "SQRT(" + sql + ")";
+    }
+
+    /**
+     * Renders the given SQL expression raised to the given power as a double
+     * precision floating point value.
+     *
+     * @param sql    the SQL expression
+     * @param power  the SQL expression of the power
+     * @return the rendered power
+     */
+    protected String power(String sql, String power) {
+        return "POWER(" + sql + ", " + power + ")";
+    }
+
+    private <ENTITY> Optional<String> renderExpression(
+            final Function<Field<ENTITY>, String> columnNamer,
+            final Function<Field<ENTITY>, Class<?>> columnDbTypeFunction,
+            final Expression<ENTITY> expression) {
+
+        if (rank(expression.expressionType()) < 0) {
+            return Optional.empty();
+        }
+
+        if (expression instanceof Field) {
+            @SuppressWarnings("unchecked")
+            final Field<ENTITY> field = (Field<ENTITY>) expression;
+            return renderField(columnNamer, columnDbTypeFunction, field, rank(expression.expressionType()));
+        }
+
+        if (expression instanceof FieldMapper) {
+            final FieldMapper<ENTITY, ?, ?, ?, ?> fieldMapper = (FieldMapper<ENTITY, ?, ?, ?, ?>) expression;
+            if (!(fieldMapper.getMapper() instanceof NumberCastMapper)) {
+                return Optional.empty();
+            }
+            @SuppressWarnings("unchecked")
+            final Field<ENTITY> field = (Field<ENTITY>) fieldMapper.getField();
+            return renderField(columnNamer, columnDbTypeFunction, field, rank(expression.expressionType()));
+        }
+
+        if (expression instanceof ConstantExpression) {
+            final Object value = ((ConstantExpression<?, ?>) expression).value();
+            return literal(value);
+        }
+
+        if (!expression.expressionType().isNullable() && !isNonNullable(expression)) {
+            return Optional.empty();
+        }
+
+        if (expression instanceof NonNullableExpression) {
+            return renderOrElse(columnNamer, columnDbTypeFunction, expression);
+        }
+
+        if (expression instanceof UnaryExpression) {
+            final UnaryExpression<ENTITY, ?> unary = (UnaryExpression<ENTITY, ?>) expression;
+            final int innerRank = rank(unary.inner().expressionType());
+            if (unary.operator() == UnaryExpression.Operator.SQRT && !isNonNegative(unary.inner())) {
+                // The square root of a negative value is NaN in the JVM
+                return Optional.empty();
+            }
+            return renderExpression(columnNamer, columnDbTypeFunction, unary.inner())
+                .flatMap(inner -> {
+                    switch (unary.operator()) {
+                        case ABS    : return Optional.of("ABS(" + inner + ")");
+                        case NEGATE : return Optional.of("(-" + inner + ")");
+                        case SIGN   : return Optional.of("CASE WHEN " + inner + " > 0 THEN 1 WHEN " + inner + " < 0 THEN -1 ELSE 0 END");
+                        case SQRT   : return Optional.of(sqrt(inner));
+                        case CAST   : return cast(inner, innerRank, rank(expression.expressionType()));
+                        default     : return Optional.empty();
+                    }
+                });
+        }
+
+        if (expression instanceof BinaryExpression) {
+            final BinaryExpression<ENTITY, ?, ?> binary = (BinaryExpression<ENTITY, ?, ?>) expression;
+            final int firstRank = rank(binary.first().expressionType());
+            final int secondRank = rank(binary.second().expressionType());
+            if (binary.operator() == BinaryExpression.Operator.POW
+                && firstRank <= LAST_INTEGRAL_RANK && secondRank <= LAST_INTEGRAL_RANK) {
+                // Small integral powers are computed using integer arithmetic
+                return Optional.empty();
+            }
+            if ((binary.operator() == BinaryExpression.Operator.DIVIDE
+                    || binary.operator() == BinaryExpression.Operator.POW)
+                && !(binary.second() instanceof ConstantExpression
+                    && isDefined(binary.operator().name(), binary.first(),
+                        ((ConstantExpression<?, ?>) binary.second()).value()))) {
+                return Optional.empty();
+            }
+            return renderExpression(columnNamer, columnDbTypeFunction, binary.first())
+                .flatMap(first -> renderExpression(columnNamer, columnDbTypeFunction, binary.second())
+                    .flatMap(second -> binary(binary.operator().name(), first, firstRank, second))
+                );
+        }
+
+        if (expression instanceof BinaryObjExpression) {
+            final BinaryObjExpression<ENTITY, ?, ?> binary = (BinaryObjExpression<ENTITY, ?, ?>) expression;
+            final int firstRank = rank(binary.first().expressionType());
+            final Object second = binary.second();
+            if (!isDefined(binary.operator().name(), binary.first(), second)) {
+                return Optional.empty();
+            }
+            return renderExpression(columnNamer, columnDbTypeFunction, binary.first())
+                .flatMap(first -> literal(second)
+                    .flatMap(sql -> binary(binary.operator().name(), first, firstRank, sql))
+                );
+        }
+
+        return Optional.empty();
+    }
+
+    private <ENTITY> Optional<String> renderField(
+            final Function<Field<ENTITY>, String> columnNamer,
+            final Function<Field<ENTITY>, Class<?>> columnDbTypeFunction,
+            final Field<ENTITY> field,
+            final int expressionRank) {
+        if (!isIdentityMapped(field)) {
+            return Optional.empty();
+        }
+        final String columnName = columnNamer.apply(field);
+        if (columnName == null) {
+            // The field does not belong to the streamed table
+            return Optional.empty();
+        }
+        final Integer databaseRank = DATABASE_TYPE_RANKS.get(columnDbTypeFunction.apply(field));
+        if (databaseRank == null || databaseRank > expressionRank) {
+            return Optional.empty();
+        }
+        return Optional.of(columnName);
+    }
+
+    private <ENTITY> Optional<String> renderOrElse(
+            final Function<Field<ENTITY>, String> columnNamer,
+            final Function<Field<ENTITY>, Class<?>> columnDbTypeFunction,
+            final Expression<ENTITY> expression) {
+        final NonNullableExpression<ENTITY, ?> orElse = (NonNullableExpression<ENTITY, ?>) expression;
+        if (orElse.nullStrategy() != NonNullableExpression.NullStrategy.USE_DEFAULT_VALUE) {
+            return Optional.empty();
+        }
+        final Number defaultValue;
+        if (expression instanceof ToByteOrElse) {
+            defaultValue = ((ToByteOrElse<?>) expression).defaultValue();
+        } else if (expression instanceof ToShortOrElse) {
+            defaultValue = ((ToShortOrElse<?>) expression).defaultValue();
+        } else if (expression instanceof ToIntOrElse) {
+            defaultValue = ((ToIntOrElse<?>) expression).defaultValue();
+        } else if (expression instanceof ToLongOrElse) {
+            defaultValue = ((ToLongOrElse<?>) expression).defaultValue();
+        } else if (expression instanceof ToFloatOrElse) {
+            defaultValue = ((ToFloatOrElse<?>) expression).defaultValue();
+        } else if (expression instanceof ToDoubleOrElse) {
+            defaultValue = ((ToDoubleOrElse<?>) expression).defaultValue();
+        } else {
+            return Optional.empty();
+        }
+        @SuppressWarnings("unchecked")
+        final Expression<ENTITY> inner = (Expression<ENTITY>) orElse.innerNullable();
+        return renderExpression(columnNamer, columnDbTypeFunction, inner)
+            .flatMap(sql -> literal(defaultValue)
+                .map(value -> "COALESCE(" + sql + ", " + value + ")")
+            );
+    }
+
+    private Optional<String> cast(String inner, int fromRank, int toRank) {
+        if (fromRank > toRank) {
+            // Narrowing casts truncate or wrap around in the JVM
+            return Optional.empty();
+        }
+        return Optional.of(toDouble(inner, fromRank, toRank));
+    }
+
+    private Optional<String> binary(String operator, String first, int firstRank, String second) {
+        switch (operator) {
+            case "PLUS"     : return Optional.of("(" + first + " + " + second + ")");
+            case "MINUS"    : return Optional.of("(" + first + " - " + second + ")");
+            case "MULTIPLY" : return Optional.of("(" + first + " * " + second + ")");
+            case "DIVIDE"   : return Optional.of("(" + toDouble(first, firstRank, DOUBLE_RANK) + " / " + second + ")");
+            case "POW"      : return Optional.of(power(toDouble(first, firstRank, DOUBLE_RANK), second));
+            default         : return Optional.empty();
+        }
+    }
+
+    private String toDouble(String sql, int fromRank, int toRank) {
+        if (fromRank <= LAST_INTEGRAL_RANK && toRank > LAST_INTEGRAL_RANK) {
+            return castToDouble(sql);
+        }
+        return sql;
+    }
+
+    private Optional<String> literal(Object value) {
+        if (value instanceof Float || value instanceof Double) {
+            final double d = ((Number) value).doubleValue();
+            if (Double.isNaN(d) || Double.isInfinite(d)) {
+                return Optional.empty();
+            }
+            final String literal = value.toString();
+            return Optional.of(castToDouble(d < 0 ? "(" + literal + ")" : literal));
+        }
+        if (value instanceof Byte || value instanceof Short
+            || value instanceof Integer || value instanceof Long) {
+            final long l = ((Number) value).longValue();
+            return Optional.of(l < 0 ? "(" + l + ")" : Long.toString(l));
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Returns if the given operator is defined for every value of the first
+     * operand when the second operand is the given constant.
+     */
+    private static boolean isDefined(String operator, Expression<?> first, Object second) {
+        switch (operator) {
+            case "DIVIDE" : {
+                return second instanceof Number && ((Number) second).doubleValue() != 0;
+            }
+            case "POW" : {
+                if (!(second instanceof Number)) {
+                    return false;
+                }
+                final double power = ((Number) second).doubleValue();
+                if (power < 0) {
+                    // Zero raised to a negative power is infinite and
+                    // negative integral powers use integer division
+                    return false;
+                }
+                // A fractional power of a negative value is NaN
+                return power == Math.rint(power) || isNonNegative(first);
+            }
+            default : return true;
+        }
+    }
+
+    private static boolean isNonNegative(Expression<?> expression) {
+        if (expression instanceof ConstantExpression) {
+            final Object value = ((ConstantExpression<?, ?>) expression).value();
+            return value instanceof Number && ((Number) value).doubleValue() >= 0;
+        }
+        if (expression instanceof UnaryExpression) {
+            final UnaryExpression<?, ?> unary = (UnaryExpression<?, ?>) expression;
+            switch (unary.operator()) {
+                case SQRT : return true;
+                // The absolute value of the smallest integral value is negative
+                case ABS  : return rank(unary.inner().expressionType()) > LAST_INTEGRAL_RANK;
+                default   : return false;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isNonNullable(Expression<?> expression) {
+        // A non-nullable expression may only get null values from its
+        // operands if it explicitly handles them
+        if (expression instanceof UnaryExpression) {
+            return !((UnaryExpression<?, ?>) expression).inner().expressionType().isNullable();
+        }
+        if (expression instanceof BinaryExpression) {
+            final BinaryExpression<?, ?, ?> binary = (BinaryExpression<?, ?, ?>) expression;
+            return !binary.first().expressionType().isNullable()
+                && !binary.second().expressionType().isNullable();
+        }
+        if (expression instanceof BinaryObjExpression) {
+            return !((BinaryObjExpression<?, ?, ?>) expression).first().expressionType().isNullable();
+        }
+        return true;
+    }
+
+    private static int rank(ExpressionType type) {
+        switch (type) {
+            case BYTE   : case BYTE_NULLABLE   : return 0;
+            case SHORT  : case SHORT_NULLABLE  : return 1;
+            case INT    : case INT_NULLABLE    : return 2;
+            case LONG   : case LONG_NULLABLE   : return 3;
+            case FLOAT  : case FLOAT_NULLABLE  : return 4;
+            case DOUBLE : case DOUBLE_NULLABLE : return 5;
+            default : return -1;
+        }
+    }
+
+    private static boolean isIdentityMapped(Field<?> field) {
+        final Class<?> typeMapperClass = field.typeMapper().getClass();
+        return typeMapperClass == TypeMapper.identity().getClass()
+            || typeMapperClass == TypeMapper.primitive().getClass();
+    }
+
+}
@@ -59,6 +59,14 @@ implements HasGeneratedKeys {
         generatedKeys.add(generatedKey);
     }
 
+    /**
+     * Discards the keys that have been added so far, for example because
+     * the statement is about to be executed again after a rollback.
+     */
+    public void clearGeneratedKeys() {
+        generatedKeys.clear();
+    }
+
     @Override
     public void notifyGeneratedKeyListener() {
         generatedKeysConsumer.accept(generatedKeys);
@@ -21,6 +21,8 @@ import com.speedment.runtime.core.component.sql.SqlStreamOptimizerComponent;
 import com.speedment.runtime.core.component.sql.SqlStreamOptimizerInfo;
 import com.speedment.runtime.core.component.sql.override.SqlStreamTerminatorComponent;
 import com.speedment.runtime.core.db.AsynchronousQueryResult;
+import com.speedment.runtime.core.internal.component.sql.optimizer.ColumnProjectionOptimizer;
+import com.speedment.runtime.core.internal.component.sql.optimizer.EntityCacheOptimizer;
 import com.speedment.runtime.core.internal.stream.builder.pipeline.DoublePipeline;
 import com.speedment.runtime.core.internal.stream.builder.pipeline.IntPipeline;
 import com.speedment.runtime.core.internal.stream.builder.pipeline.LongPipeline;
@@ -29,9 +31,15 @@ import com.speedment.runtime.core.internal.stream.builder.streamterminator.Strea
 import com.speedment.runtime.core.stream.Pipeline;
 import com.speedment.runtime.core.util.StreamComposition;
 import java.util.Comparator;
+import java.util.DoubleSummaryStatistics;
+import java.util.IntSummaryStatistics;
 import java.util.Iterator;
+import java.util.LongSummaryStatistics;
 import static java.util.Objects.requireNonNull;
 import java.util.Optional;
+import java.util.OptionalDouble;
+import java.util.OptionalInt;
+import java.util.OptionalLong;
 import java.util.PrimitiveIterator;
 import java.util.Spliterator;
 import java.util.function.BiConsumer;
@@ -69,6 +77,9 @@ public final class SqlStreamTerminator<ENTITY> implements StreamTerminator {
     private final SqlStreamOptimizerInfo<ENTITY> info;
     private final AsynchronousQueryResult<ENTITY> asynchronousQueryResult;
     private final boolean allowIteratorAndSpliterator;
+    private final ColumnProjectionOptimizer<ENTITY> columnProjectionOptimizer;
+    private final EntityCacheOptimizer<ENTITY> entityCacheOptimizer;
+    private boolean optimized;
 
     public SqlStreamTerminator(
         final SqlStreamOptimizerInfo<ENTITY> info,
@@ -76,12 +87,52 @@ public final class SqlStreamTerminator<ENTITY> implements StreamTerminator {
         final SqlStreamOptimizerComponent sqlStreamOptimizerComponent,
         final SqlStreamTerminatorComponent sqlStreamTerminatorComponent,
         final boolean allowIteratorAndSpliterator
+    ) {
+        this(
+            info,
+            asynchronousQueryResult,
+            sqlStreamOptimizerComponent,
+            sqlStreamTerminatorComponent,
+            allowIteratorAndSpliterator,
+            ColumnProjectionOptimizer.none()
+        );
+    }
+
+    public SqlStreamTerminator(
+        final SqlStreamOptimizerInfo<ENTITY> info,
+        final AsynchronousQueryResult<ENTITY> asynchronousQueryResult,
+        final SqlStreamOptimizerComponent sqlStreamOptimizerComponent,
+        final SqlStreamTerminatorComponent sqlStreamTerminatorComponent,
+        final boolean allowIteratorAndSpliterator,
+        final ColumnProjectionOptimizer<ENTITY> columnProjectionOptimizer
+    ) {
+        this(
+            info,
+            asynchronousQueryResult,
+            sqlStreamOptimizerComponent,
+            sqlStreamTerminatorComponent,
+            allowIteratorAndSpliterator,
+            columnProjectionOptimizer,
+            EntityCacheOptimizer.none()
+        );
+    }
+
+    public SqlStreamTerminator(
+        final SqlStreamOptimizerInfo<ENTITY> info,
+        final AsynchronousQueryResult<ENTITY> asynchronousQueryResult,
+        final SqlStreamOptimizerComponent sqlStreamOptimizerComponent,
+        final SqlStreamTerminatorComponent sqlStreamTerminatorComponent,
+        final boolean allowIteratorAndSpliterator,
+        final ColumnProjectionOptimizer<ENTITY> columnProjectionOptimizer,
+        final EntityCacheOptimizer<ENTITY> entityCacheOptimizer
     ) {
         this.info = requireNonNull(info);
         this.asynchronousQueryResult = requireNonNull(asynchronousQueryResult);
         this.sqlStreamOptimizerComponent = requireNonNull(sqlStreamOptimizerComponent);
         this.sqlStreamTerminatorComponent = requireNonNull(sqlStreamTerminatorComponent);
         this.allowIteratorAndSpliterator = allowIteratorAndSpliterator;
+        this.columnProjectionOptimizer = requireNonNull(columnProjectionOptimizer);
+        this.entityCacheOptimizer = requireNonNull(entityCacheOptimizer);
     }
 
     //Todo: Remove this and split up responsibility
@@ -92,8 +143,18 @@ public final class SqlStreamTerminator<ENTITY> implements StreamTerminator {
     @Override
     public <P extends Pipeline> P optimize(final P initialPipeline) {
         requireNonNull(initialPipeline);
-        final SqlStreamOptimizer<ENTITY> optimizer = sqlStreamOptimizerComponent.get(initialPipeline, info.getDbmsType());
-        return optimizer.optimize(initialPipeline, info, asynchronousQueryResult);
+        if (optimized) {
+            // The query has already been rewritten for this pipeline (e.g. by
+            // a count terminator that then fell back to iteration). Optimizing
+            // again could replace a query that the pipeline now depends on.
+            return initialPipeline;
+        }
+        optimized = true;
+        return entityCacheOptimizer.optimize(initialPipeline, asynchronousQueryResult, pipeline -> {
+            final SqlStreamOptimizer<ENTITY> optimizer = sqlStreamOptimizerComponent.get(pipeline, info.getDbmsType());
+            final P optimizedPipeline = optimizer.optimize(pipeline, info, asynchronousQueryResult);
+            return columnProjectionOptimizer.optimize(optimizedPipeline, info, asynchronousQueryResult);
+        });
     }
 
     @Override
@@ -204,6 +265,31 @@ public final class SqlStreamTerminator<ENTITY> implements StreamTerminator {
         return sqlStreamTerminatorComponent.<ENTITY>getDoubleCountTerminator().apply(info, this, pipeline);
     }
 
+    @Override
+    public double sum(DoublePipeline pipeline) {
+        return sqlStreamTerminatorComponent.<ENTITY>getDoubleSumTerminator().apply(info, this, pipeline);
+    }
+
+    @Override
+    public OptionalDouble min(DoublePipeline pipeline) {
+        return sqlStreamTerminatorComponent.<ENTITY>getDoubleMinTerminator().apply(info, this, pipeline);
+    }
+
+    @Override
+    public OptionalDouble max(DoublePipeline pipeline) {
+        return sqlStreamTerminatorComponent.<ENTITY>getDoubleMaxTerminator().apply(info, this, pipeline);
+    }
+
+    @Override
+    public OptionalDouble average(DoublePipeline pipeline) {
+        return sqlStreamTerminatorComponent.<ENTITY>getDoubleAverageTerminator().apply(info, this, pipeline);
+    }
+
+    @Override
+    public DoubleSummaryStatistics summaryStatistics(DoublePipeline pipeline) {
+        return sqlStreamTerminatorComponent.<ENTITY>getDoubleSummaryStatisticsTerminator().apply(info, this, pipeline);
+    }
+
     // Todo: Introduce delegator
     @Override
     public PrimitiveIterator.OfDouble iterator(DoublePipeline pipeline) {
@@ -228,6 +314,31 @@ public final class SqlStreamTerminator<ENTITY> implements StreamTerminator {
         return sqlStreamTerminatorComponent.<ENTITY>getIntCountTerminator().apply(info, this, pipeline);
     }
 
+    @Override
+    public int sum(IntPipeline pipeline) {
+        return sqlStreamTerminatorComponent.<ENTITY>getIntSumTerminator().apply(info, this, pipeline);
+    }
+
+    @Override
+    public OptionalInt min(IntPipeline pipeline) {
+        return sqlStreamTerminatorComponent.<ENTITY>getIntMinTerminator().apply(info, this, pipeline);
+    }
+
+    @Override
+    public OptionalInt max(IntPipeline pipeline) {
+        return sqlStreamTerminatorComponent.<ENTITY>getIntMaxTerminator().apply(info, this, pipeline);
+    }
+
+    @Override
+    public OptionalDouble average(IntPipeline pipeline) {
+        return sqlStreamTerminatorComponent.<ENTITY>getIntAverageTerminator().apply(info, this, pipeline);
+    }
+
+    @Override
+    public IntSummaryStatistics summaryStatistics(IntPipeline pipeline) {
+        return sqlStreamTerminatorComponent.<ENTITY>getIntSummaryStatisticsTerminator().apply(info, this, pipeline);
+    }
+
     // Todo: Introduce delegator
     @Override
     public PrimitiveIterator.OfInt iterator(IntPipeline pipeline) {
@@ -252,6 +363,31 @@ public final class SqlStreamTerminator<ENTITY> implements StreamTerminator {
         return sqlStreamTerminatorComponent.<ENTITY>getLongCountTerminator().apply(info, this, pipeline);
     }
 
+    @Override
+    public long sum(LongPipeline pipeline) {
+        return sqlStreamTerminatorComponent.<ENTITY>getLongSumTerminator().apply(info, this, pipeline);
+    }
+
+    @Override
+    public OptionalLong min(LongPipeline pipeline) {
+        return sqlStreamTerminatorComponent.<ENTITY>getLongMinTerminator().apply(info, this, pipeline);
+    }
+
+    @Override
+    public OptionalLong max(LongPipeline pipeline) {
+        return sqlStreamTerminatorComponent.<ENTITY>getLongMaxTerminator().apply(info, this, pipeline);
+    }
+
+    @Override
+    public OptionalDouble average(LongPipeline pipeline) {
+        return sqlStreamTerminatorComponent.<ENTITY>getLongAverageTerminator().apply(info, this, pipeline);
+    }
+
+    @Override
+    public LongSummaryStatistics summaryStatistics(LongPipeline pipeline) {
+        return sqlStreamTerminatorComponent.<ENTITY>getLongSummaryStatisticsTerminator().apply(info, this, pipeline);
+    }
+
     // Todo: Introduce delegator
     @Override
     public PrimitiveIterator.OfLong iterator(LongPipeline pipeline) {
@@ -0,0 +1,206 @@
+/**
+ *
+ * Copyright (c) 2006-2018, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.internal.pool;
+
+import com.speedment.runtime.core.component.connectionpool.ConnectionPoolMetrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free implementation of {@link ConnectionPoolMetrics}. Counters are
+ * striped using {@link LongAdder} so that recording a lease does not contend
+ * with other threads.
+ *
+ * @author Per Minborg
+ */
+public final class ConnectionPoolMetricsImpl implements ConnectionPoolMetrics {
+
+    // 1 us, 10 us, 100 us, 1 ms, 10 ms, 100 ms, 1 s, 10 s
+    private static final long[] BUCKET_LIMITS_NANOS = {
+        1_000L,
+        10_000L,
+        100_000L,
+        1_000_000L,
+        10_000_000L,
+        100_000_000L,
+        1_000_000_000L,
+        10_000_000_000L
+    };
+
+    private final LongAdder acquireCount;
+    private final LongAdder timeoutCount;
+    private final LongAdder totalWaitTimeNanos;
+    private final AtomicLong maxWaitTimeNanos;
+    private final LongAdder[] histogram;
+    private final LongAdder createdCount;
+    private final LongAdder discardedCount;
+    private final LongAdder leakCount;
+    private final LongAdder statementCacheHitCount;
+    private final LongAdder statementCacheMissCount;
+    private final LongAdder statementCacheEvictionCount;
+
+    public ConnectionPoolMetricsImpl() {
+        this.acquireCount       = new LongAdder();
+        this.timeoutCount       = new LongAdder();
+        this.totalWaitTimeNanos = new LongAdder();
+        this.maxWaitTimeNanos   = new AtomicLong();
+        this.histogram          = new LongAdder[BUCKET_LIMITS_NANOS.length + 1];
+        for (int i = 0; i < histogram.length; i++) {
+            histogram[i] = new LongAdder();
+        }
+        this.createdCount       = new LongAdder();
+        this.discardedCount     = new LongAdder();
+        this.leakCount          = new LongAdder();
+        this.statementCacheHitCount      = new LongAdder();
+        this.statementCacheMissCount     = new LongAdder();
+        this.statementCacheEvictionCount = new LongAdder();
+    }
+
+    public void recordAcquire(long latencyNanos) {
+        acquireCount.increment();
+        histogram[bucketOf(latencyNanos)].increment();
+    }
+
+    public void recordWait(long waitNanos) {
+        totalWaitTimeNanos.add(waitNanos);
+        long max;
+        while (waitNanos > (max = maxWaitTimeNanos.get())) {
+            if (maxWaitTimeNanos.compareAndSet(max, waitNanos)) {
+                break;
+            }
+        }
+    }
+
+    public void recordTimeout() {
+        timeoutCount.increment();
+    }
+
+    public void recordCreated() {
+        createdCount.increment();
+    }
+
+    public void recordDiscarded() {
+        discardedCount.increment();
+    }
+
+    public void recordLeak() {
+        leakCount.increment();
+    }
+
+    public void recordStatementCacheHit() {
+        statementCacheHitCount.increment();
+    }
+
+    public void recordStatementCacheMiss() {
+        statementCacheMissCount.increment();
+    }
+
+    public void recordStatementCacheEviction() {
+        statementCacheEvictionCount.increment();
+    }
+
+    @Override
+    public long acquireCount() {
+        return acquireCount.sum();
+    }
+
+    @Override
+    public long timeoutCount() {
+        return timeoutCount.sum();
+    }
+
+    @Override
+    public long totalWaitTimeNanos() {
+        return totalWaitTimeNanos.sum();
+    }
+
+    @Override
+    public long maxWaitTimeNanos() {
+        return maxWaitTimeNanos.get();
+    }
+
+    @Override
+    public long[] acquireLatencyBucketLimitsNanos() {
+        return BUCKET_LIMITS_NANOS.clone();
+    }
+
+    @Override
+    public long[] acquireLatencyHistogram() {
+        final long[] result = new long[histogram.length];
+        for (int i = 0; i < histogram.length; i++) {
+            result[i] = histogram[i].sum();
+        }
+        return result;
+    }
+
+    @Override
+    public long createdCount() {
+        return createdCount.sum();
+    }
+
+    @Override
+    public long discardedCount() {
+        return discardedCount.sum();
+    }
+
+    @Override
+    public long leakCount() {
+        return leakCount.sum();
+    }
+
+    @Override
+    public long statementCacheHitCount() {
+        return statementCacheHitCount.sum();
+    }
+
+    @Override
+    public long statementCacheMissCount() {
+        return statementCacheMissCount.sum();
+    }
+
+    @Override
+    public long statementCacheEvictionCount() {
+        return statementCacheEvictionCount.sum();
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "{"
+            + "acquireCount=" + acquireCount()
+            + ", timeoutCount=" + timeoutCount()
+            + ", totalWaitTimeNanos=" + totalWaitTimeNanos()
+            + ", maxWaitTimeNanos=" + maxWaitTimeNanos()
+            + ", createdCount=" + createdCount()
+            + ", discardedCount=" + discardedCount()
+            + ", leakCount=" + leakCount()
+            + ", statementCacheHitCount=" + statementCacheHitCount()
+            + ", statementCacheMissCount=" + statementCacheMissCount()
+            + ", statementCacheEvictionCount=" + statementCacheEvictionCount()
+            + "}";
+    }
+
+    private static int bucketOf(long nanos) {
+        for (int i = 0; i < BUCKET_LIMITS_NANOS.length; i++) {
+            if (nanos <= BUCKET_LIMITS_NANOS[i]) {
+                return i;
+            }
+        }
+        return BUCKET_LIMITS_NANOS.length;
+    }
+
+}
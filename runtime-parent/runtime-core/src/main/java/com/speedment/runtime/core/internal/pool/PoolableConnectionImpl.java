@@ -22,9 +22,11 @@ import com.speedment.runtime.core.ApplicationBuilder;
 import com.speedment.runtime.core.component.connectionpool.PoolableConnection;
 
 import java.sql.Connection;
+import java.sql.PreparedStatement;
 import java.sql.SQLException;
 import java.util.concurrent.atomic.AtomicLong;
 
+import static com.speedment.runtime.core.internal.pool.PreparedStatementCache.NOT_SET;
 import static java.util.Objects.requireNonNull;
 
 /**
@@ -44,9 +46,39 @@ public final class PoolableConnectionImpl extends PoolableConnectionDelegator im
     private final String uri;
     private final long created;
     private final long expires;
+    private final PreparedStatementCache statementCache; // null if statements are not cached
     private Runnable onClose;
 
     public PoolableConnectionImpl(String uri, String username, char[] password, Connection connection, long expires) {
+        this(uri, username, password, connection, expires, 0, null);
+    }
+
+    /**
+     * Creates a new PoolableConnectionImpl that caches up to
+     * {@code statementCacheSize} prepared statements. Cached statements
+     * survive the connection being returned to the pool and are closed when
+     * the connection is {@link #rawClose() closed for real}.
+     *
+     * @param uri                 the connection URI
+     * @param username            the user (nullable)
+     * @param password            the password (nullable)
+     * @param connection          the physical connection
+     * @param expires             the time when the connection expires
+     * @param statementCacheSize  the maximum number of cached statements or
+     *                            zero if statements shall not be cached
+     * @param metrics             where statement cache hits and misses are
+     *                            recorded (nullable if the cache is disabled)
+     * @since 3.1.6
+     */
+    public PoolableConnectionImpl(
+        final String uri,
+        final String username,
+        final char[] password,
+        final Connection connection,
+        final long expires,
+        final int statementCacheSize,
+        final ConnectionPoolMetricsImpl metrics
+    ) {
         super(connection);
         this.id = ID_GENERATOR.getAndIncrement();
         this.uri = requireNonNull(uri);
@@ -54,6 +86,9 @@ public final class PoolableConnectionImpl extends PoolableConnectionDelegator im
         this.password = password; //nullable
         this.created = System.currentTimeMillis();
         this.expires = expires;
+        this.statementCache = statementCacheSize > 0
+            ? new PreparedStatementCache(statementCacheSize, requireNonNull(metrics))
+            : null;
     }
 
     @Override
@@ -69,9 +104,52 @@ public final class PoolableConnectionImpl extends PoolableConnectionDelegator im
     @Override
     public void rawClose() throws SQLException {
         LOGGER_CONNECTION.debug("Closed external connection: %s", connection);
+        if (statementCache != null) {
+            statementCache.closeAll();
+        }
         connection.close();
     }
 
+    @Override
+    public PreparedStatement prepareStatement(String sql) throws SQLException {
+        if (statementCache == null) {
+            return connection.prepareStatement(sql);
+        }
+        return statementCache.prepare(this, sql, NOT_SET, NOT_SET, NOT_SET, NOT_SET,
+            () -> connection.prepareStatement(sql)
+        );
+    }
+
+    @Override
+    public PreparedStatement prepareStatement(String sql, int autoGeneratedKeys) throws SQLException {
+        if (statementCache == null) {
+            return connection.prepareStatement(sql, autoGeneratedKeys);
+        }
+        return statementCache.prepare(this, sql, NOT_SET, NOT_SET, NOT_SET, autoGeneratedKeys,
+            () -> connection.prepareStatement(sql, autoGeneratedKeys)
+        );
+    }
+
+    @Override
+    public PreparedStatement prepareStatement(String sql, int resultSetType, int resultSetConcurrency) throws SQLException {
+        if (statementCache == null) {
+            return connection.prepareStatement(sql, resultSetType, resultSetConcurrency);
+        }
+        return statementCache.prepare(this, sql, resultSetType, resultSetConcurrency, NOT_SET, NOT_SET,
+            () -> connection.prepareStatement(sql, resultSetType, resultSetConcurrency)
+        );
+    }
+
+    @Override
+    public PreparedStatement prepareStatement(String sql, int resultSetType, int resultSetConcurrency, int resultSetHoldability) throws SQLException {
+        if (statementCache == null) {
+            return connection.prepareStatement(sql, resultSetType, resultSetConcurrency, resultSetHoldability);
+        }
+        return statementCache.prepare(this, sql, resultSetType, resultSetConcurrency, resultSetHoldability, NOT_SET,
+            () -> connection.prepareStatement(sql, resultSetType, resultSetConcurrency, resultSetHoldability)
+        );
+    }
+
     @Override
     public void setOnClose(Runnable onClose) {
         this.onClose = onClose;
@@ -0,0 +1,366 @@
+/**
+ *
+ * Copyright (c) 2006-2018, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.internal.pool;
+
+import com.speedment.common.logger.Logger;
+import com.speedment.common.logger.LoggerManager;
+import com.speedment.runtime.core.ApplicationBuilder;
+import com.speedment.runtime.core.db.SqlSupplier;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Objects;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A least recently used cache of {@link PreparedStatement PreparedStatements}
+ * that belong to a single physical connection. Statements are keyed by their
+ * SQL and the flags they were prepared with.
+ * <p>
+ * A statement obtained from the cache is leased exclusively by the caller.
+ * When the caller closes it, it is reset and returned to the cache rather
+ * than being closed. Resetting clears the parameters, the warnings and any
+ * batch that was not executed, and restores the fetch size, max rows, query
+ * timeout, fetch direction and max field size that the statement had when it
+ * was created. If the cache is full, the least recently used statement is
+ * closed. A statement that has thrown an exception, or that had a property
+ * changed that can not be restored, is never returned to the cache.
+ *
+ * @author Per Minborg
+ * @since 3.1.6
+ */
+final class PreparedStatementCache {
+
+    private static final Logger LOGGER_CONNECTION = LoggerManager.getLogger(
+        ApplicationBuilder.LogType.CONNECTION.getLoggerName()
+    );
+
+    /**
+     * Flag value used for flags that were not given when preparing.
+     */
+    static final int NOT_SET = Integer.MIN_VALUE;
+
+    private final int maxSize;
+    private final ConnectionPoolMetricsImpl metrics;
+    private final LinkedHashMap<Key, Entry> idle;
+    private boolean closed;
+
+    PreparedStatementCache(int maxSize, ConnectionPoolMetricsImpl metrics) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("maxSize must be positive: " + maxSize);
+        }
+        this.maxSize = maxSize;
+        this.metrics = requireNonNull(metrics);
+        this.idle = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    /**
+     * Returns a statement for the given SQL and flags. If an idle statement
+     * is cached, it is reused. Otherwise a new statement is created using the
+     * given supplier.
+     *
+     * @param owner              the connection to report as the owner
+     * @param sql                the SQL of the statement
+     * @param resultSetType      the result set type or {@code NOT_SET}
+     * @param concurrency        the result set concurrency or {@code NOT_SET}
+     * @param holdability        the result set holdability or {@code NOT_SET}
+     * @param autoGeneratedKeys  the auto generated keys flag or {@code NOT_SET}
+     * @param creator            creates a new physical statement
+     * @return a statement that is returned to the cache when closed
+     * @throws SQLException if a new statement could not be created
+     */
+    PreparedStatement prepare(
+        final Connection owner,
+        final String sql,
+        final int resultSetType,
+        final int concurrency,
+        final int holdability,
+        final int autoGeneratedKeys,
+        final SqlSupplier<PreparedStatement> creator
+    ) throws SQLException {
+        final Key key = new Key(sql, resultSetType, concurrency, holdability, autoGeneratedKeys);
+        Entry entry;
+        synchronized (this) {
+            entry = idle.remove(key);
+        }
+        if (entry == null) {
+            metrics.recordStatementCacheMiss();
+            final PreparedStatement statement = creator.get();
+            try {
+                entry = new Entry(statement);
+            } catch (SQLException sqle) {
+                closeSilently(statement);
+                throw sqle;
+            }
+        } else {
+            metrics.recordStatementCacheHit();
+        }
+        return (PreparedStatement) Proxy.newProxyInstance(
+            PreparedStatementCache.class.getClassLoader(),
+            new Class<?>[]{PreparedStatement.class},
+            new CachedStatement(owner, key, entry)
+        );
+    }
+
+    /**
+     * Returns the number of idle statements in the cache.
+     *
+     * @return the number of idle statements
+     */
+    synchronized int size() {
+        return idle.size();
+    }
+
+    /**
+     * Closes all idle statements. Statements that are leased when this method
+     * is called are closed when they are returned.
+     */
+    void closeAll() {
+        final List<PreparedStatement> statements;
+        synchronized (this) {
+            closed = true;
+            statements = new ArrayList<>(idle.size());
+            idle.values().forEach(e -> statements.add(e.statement));
+            idle.clear();
+        }
+        statements.forEach(PreparedStatementCache::closeSilently);
+    }
+
+    private void release(Key key, Entry entry, boolean batchPending, boolean propertiesChanged) {
+        try {
+            entry.reset(batchPending, propertiesChanged);
+        } catch (SQLException sqle) {
+            closeSilently(entry.statement);
+            return;
+        }
+
+        final List<PreparedStatement> toClose = new ArrayList<>(1);
+        synchronized (this) {
+            if (closed) {
+                toClose.add(entry.statement);
+            } else {
+                final Entry replaced = idle.put(key, entry);
+                if (replaced != null) {
+                    // The same SQL was leased twice; keep the latest one only
+                    toClose.add(replaced.statement);
+                }
+                final Iterator<Entry> it = idle.values().iterator();
+                while (idle.size() > maxSize) {
+                    toClose.add(it.next().statement);
+                    it.remove();
+                    metrics.recordStatementCacheEviction();
+                }
+            }
+        }
+        toClose.forEach(PreparedStatementCache::closeSilently);
+    }
+
+    private static void closeSilently(PreparedStatement statement) {
+        try {
+            statement.close();
+        } catch (SQLException sqle) {
+            LOGGER_CONNECTION.debug(sqle, "Error closing a cached statement.");
+        }
+    }
+
+    /**
+     * A physical statement together with the values of its mutable properties
+     * at the time it was created.
+     */
+    private static final class Entry {
+
+        private final PreparedStatement statement;
+        private final int fetchSize;
+        private final int maxRows;
+        private final int queryTimeout;
+        private final int fetchDirection;
+        private final int maxFieldSize;
+
+        private Entry(PreparedStatement statement) throws SQLException {
+            this.statement = requireNonNull(statement);
+            this.fetchSize = statement.getFetchSize();
+            this.maxRows = statement.getMaxRows();
+            this.queryTimeout = statement.getQueryTimeout();
+            this.fetchDirection = statement.getFetchDirection();
+            this.maxFieldSize = statement.getMaxFieldSize();
+        }
+
+        private void reset(boolean batchPending, boolean propertiesChanged) throws SQLException {
+            statement.clearParameters();
+            statement.clearWarnings();
+            if (batchPending) {
+                // Rows that were added but never executed must not be run by
+                // the next borrower
+                statement.clearBatch();
+            }
+            if (propertiesChanged) {
+                statement.setFetchSize(fetchSize);
+                statement.setMaxRows(maxRows);
+                statement.setQueryTimeout(queryTimeout);
+                statement.setFetchDirection(fetchDirection);
+                statement.setMaxFieldSize(maxFieldSize);
+            }
+        }
+    }
+
+    private final class CachedStatement implements InvocationHandler {
+
+        private final Connection owner;
+        private final Key key;
+        private final Entry entry;
+        private ResultSet resultSet;
+        private boolean closed;
+        private boolean broken;
+        private boolean batchPending;
+        private boolean propertiesChanged;
+
+        private CachedStatement(Connection owner, Key key, Entry entry) {
+            this.owner = requireNonNull(owner);
+            this.key = requireNonNull(key);
+            this.entry = requireNonNull(entry);
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close": {
+                    close();
+                    return null;
+                }
+                case "isClosed": return closed;
+                case "getConnection": return owner;
+                case "equals": return proxy == args[0];
+                case "hashCode": return System.identityHashCode(proxy);
+                case "toString": return "Cached" + entry.statement;
+            }
+            if (closed) {
+                throw new SQLException("The statement is closed.");
+            }
+            track(method.getName());
+            try {
+                final Object result = method.invoke(entry.statement, args);
+                if (result instanceof ResultSet && !"getGeneratedKeys".equals(method.getName())) {
+                    resultSet = (ResultSet) result;
+                }
+                return result;
+            } catch (InvocationTargetException ite) {
+                // The state of the statement is unknown after any failure
+                broken = true;
+                throw ite.getCause();
+            }
+        }
+
+        private void track(String methodName) {
+            switch (methodName) {
+                case "addBatch": {
+                    batchPending = true;
+                    break;
+                }
+                case "executeBatch":
+                case "executeLargeBatch":
+                case "clearBatch": {
+                    batchPending = false;
+                    break;
+                }
+                case "setFetchSize":
+                case "setMaxRows":
+                case "setLargeMaxRows":
+                case "setQueryTimeout":
+                case "setFetchDirection":
+                case "setMaxFieldSize": {
+                    propertiesChanged = true;
+                    break;
+                }
+                case "setCursorName":
+                case "setEscapeProcessing":
+                case "setPoolable":
+                case "closeOnCompletion": {
+                    // These properties can not be read back and restored
+                    broken = true;
+                    break;
+                }
+            }
+        }
+
+        private void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            if (resultSet != null) {
+                try {
+                    resultSet.close();
+                } catch (SQLException sqle) {
+                    broken = true;
+                }
+            }
+            if (broken) {
+                closeSilently(entry.statement);
+            } else {
+                release(key, entry, batchPending, propertiesChanged);
+            }
+        }
+    }
+
+    private static final class Key {
+
+        private final String sql;
+        private final int resultSetType;
+        private final int concurrency;
+        private final int holdability;
+        private final int autoGeneratedKeys;
+        private final int hashCode;
+
+        private Key(String sql, int resultSetType, int concurrency, int holdability, int autoGeneratedKeys) {
+            this.sql = requireNonNull(sql);
+            this.resultSetType = resultSetType;
+            this.concurrency = concurrency;
+            this.holdability = holdability;
+            this.autoGeneratedKeys = autoGeneratedKeys;
+            this.hashCode = Objects.hash(sql, resultSetType, concurrency, holdability, autoGeneratedKeys);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            final Key that = (Key) o;
+            return resultSetType == that.resultSetType
+                && concurrency == that.concurrency
+                && holdability == that.holdability
+                && autoGeneratedKeys == that.autoGeneratedKeys
+                && sql.equals(that.sql);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+
+}
@@ -0,0 +1,230 @@
+/**
+ *
+ * Copyright (c) 2006-2018, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.internal.stream;
+
+import com.speedment.runtime.core.stream.ForeignKeyResolver;
+import com.speedment.runtime.field.Field;
+import com.speedment.runtime.field.trait.HasComparableOperators;
+import com.speedment.runtime.field.trait.HasFinder;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.stream.Collector;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Default implementation of the {@link ForeignKeyResolver} interface.
+ *
+ * @param <ENTITY>    the type of the referencing entities
+ * @param <FK_ENTITY> the type of the referenced entities
+ *
+ * @author Per Minborg
+ * @since 3.1.6
+ */
+public final class ForeignKeyResolverImpl<ENTITY, FK_ENTITY> implements ForeignKeyResolver<ENTITY, FK_ENTITY> {
+
+    private static final Object ABSENT = new Object();
+
+    private final Field<ENTITY> foreignKey;
+    private final Field<FK_ENTITY> referencedField;
+    private final Supplier<Stream<FK_ENTITY>> streamSupplier;
+    private final int chunkSize;
+    private final int cacheSize;
+
+    public ForeignKeyResolverImpl(
+        final HasFinder<ENTITY, FK_ENTITY> foreignKey,
+        final Supplier<Stream<FK_ENTITY>> streamSupplier,
+        final int chunkSize,
+        final int cacheSize
+    ) {
+        this.foreignKey = requireNonNull(foreignKey);
+        this.referencedField = requireNonNull(foreignKey.getReferencedField());
+        this.streamSupplier = requireNonNull(streamSupplier);
+        if (!(referencedField instanceof HasComparableOperators)) {
+            throw new IllegalArgumentException(
+                "The referenced field " + referencedField.identifier()
+                + " does not support in() predicates."
+            );
+        }
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("The chunk size must be positive: " + chunkSize);
+        }
+        if (cacheSize < 0) {
+            throw new IllegalArgumentException("The cache size must not be negative: " + cacheSize);
+        }
+        this.chunkSize = chunkSize;
+        this.cacheSize = cacheSize;
+    }
+
+    @Override
+    public Stream<Map.Entry<ENTITY, FK_ENTITY>> pairs(Stream<? extends ENTITY> entities) {
+        requireNonNull(entities);
+        final Stream<Map.Entry<ENTITY, FK_ENTITY>> result
+            = StreamSupport.stream(new PairSpliterator(entities.iterator()), false);
+        return result.onClose(entities::close);
+    }
+
+    @Override
+    public Collector<ENTITY, ?, Map<ENTITY, FK_ENTITY>> toMap() {
+        return Collector.<ENTITY, List<ENTITY>, Map<ENTITY, FK_ENTITY>>of(
+            ArrayList::new,
+            List::add,
+            (a, b) -> {
+                a.addAll(b);
+                return a;
+            },
+            list -> {
+                final Resolution resolution = new Resolution();
+                final Map<ENTITY, FK_ENTITY> result = new LinkedHashMap<>();
+                for (int from = 0; from < list.size(); from += chunkSize) {
+                    final List<ENTITY> chunk = list.subList(from, Math.min(list.size(), from + chunkSize));
+                    final List<FK_ENTITY> resolved = resolution.resolve(chunk);
+                    for (int i = 0; i < chunk.size(); i++) {
+                        if (resolved.get(i) != null) {
+                            result.put(chunk.get(i), resolved.get(i));
+                        }
+                    }
+                }
+                return result;
+            }
+        );
+    }
+
+    // The value type of the referenced field is not known statically so the
+    // raw type must be used to create the predicate
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private Predicate<FK_ENTITY> in(Collection<Object> keys) {
+        return ((HasComparableOperators) referencedField).in(keys);
+    }
+
+    /**
+     * The state of a single resolve operation. Holds the cache of referenced
+     * entities that have already been read.
+     */
+    private final class Resolution {
+
+        private final Map<Object, Object> cache;
+
+        private Resolution() {
+            this.cache = new LinkedHashMap<Object, Object>(16, 0.75f, true) {
+
+                private static final long serialVersionUID = 1L;
+
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Object, Object> eldest) {
+                    return size() > cacheSize;
+                }
+            };
+        }
+
+        /**
+         * Returns a list with the referenced entity (or {@code null}) of each
+         * of the given entities in the same order, reading the referenced
+         * entities that are not cached using a single query.
+         */
+        private List<FK_ENTITY> resolve(List<? extends ENTITY> chunk) {
+            final Set<Object> missing = new LinkedHashSet<>();
+            for (final ENTITY entity : chunk) {
+                final Object key = foreignKey.getter().apply(entity);
+                if (key != null && !cache.containsKey(key)) {
+                    missing.add(key);
+                }
+            }
+
+            final Map<Object, FK_ENTITY> found = new HashMap<>();
+            if (!missing.isEmpty()) {
+                try (Stream<FK_ENTITY> stream = streamSupplier.get().filter(in(missing))) {
+                    stream.forEachOrdered(fk -> found.put(referencedField.getter().apply(fk), fk));
+                }
+            }
+
+            final List<FK_ENTITY> result = new ArrayList<>(chunk.size());
+            for (final ENTITY entity : chunk) {
+                final Object key = foreignKey.getter().apply(entity);
+                if (key == null) {
+                    result.add(null);
+                } else if (missing.contains(key)) {
+                    result.add(found.get(key));
+                } else {
+                    final Object cached = cache.get(key);
+                    @SuppressWarnings("unchecked")
+                    final FK_ENTITY fkEntity = cached == ABSENT ? null : (FK_ENTITY) cached;
+                    result.add(fkEntity);
+                }
+            }
+
+            if (cacheSize > 0) {
+                for (final Object key : missing) {
+                    final FK_ENTITY fkEntity = found.get(key);
+                    cache.put(key, fkEntity == null ? ABSENT : fkEntity);
+                }
+            }
+            return result;
+        }
+    }
+
+    private final class PairSpliterator extends Spliterators.AbstractSpliterator<Map.Entry<ENTITY, FK_ENTITY>> {
+
+        private final Iterator<? extends ENTITY> source;
+        private final Resolution resolution;
+        private List<ENTITY> chunk;
+        private List<FK_ENTITY> resolved;
+        private int index;
+
+        private PairSpliterator(Iterator<? extends ENTITY> source) {
+            super(Long.MAX_VALUE, Spliterator.ORDERED);
+            this.source = requireNonNull(source);
+            this.resolution = new Resolution();
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super Map.Entry<ENTITY, FK_ENTITY>> action) {
+            requireNonNull(action);
+            if (chunk == null || index == chunk.size()) {
+                if (!source.hasNext()) {
+                    return false;
+                }
+                chunk = new ArrayList<>(chunkSize);
+                while (chunk.size() < chunkSize && source.hasNext()) {
+                    chunk.add(source.next());
+                }
+                resolved = resolution.resolve(chunk);
+                index = 0;
+            }
+            action.accept(new AbstractMap.SimpleImmutableEntry<>(chunk.get(index), resolved.get(index)));
+            index++;
+            return true;
+        }
+    }
+
+}
@@ -0,0 +1,211 @@
+/**
+ *
+ * Copyright (c) 2006-2018, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.internal.stream;
+
+import com.speedment.runtime.core.stream.KeysetCursor;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+import static java.util.Collections.unmodifiableList;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Default implementation of the {@link KeysetCursor} interface.
+ * <p>
+ * A token is the URL-safe Base64 encoding of a version character followed by
+ * a sequence of values. Each value is written as a type tag, the length of
+ * its text, a colon and the text itself. Only a fixed set of value types is
+ * supported so that parsing a token never instantiates arbitrary classes.
+ *
+ * @author Per Minborg
+ * @since 3.1.6
+ */
+public final class KeysetCursorImpl implements KeysetCursor {
+
+    private static final char VERSION = '1';
+
+    private final List<Object> values;
+
+    public KeysetCursorImpl(List<?> values) {
+        requireNonNull(values);
+        final List<Object> copy = new ArrayList<>(values.size());
+        for (final Object value : values) {
+            copy.add(requireNonNull(value, "Keyset cursor values can not be null"));
+        }
+        this.values = unmodifiableList(copy);
+    }
+
+    @Override
+    public List<Object> values() {
+        return values;
+    }
+
+    @Override
+    public String toToken() {
+        final StringBuilder sb = new StringBuilder().append(VERSION);
+        for (final Object value : values) {
+            final String text = text(value);
+            sb.append(tag(value)).append(text.length()).append(':').append(text);
+        }
+        return Base64.getUrlEncoder().withoutPadding()
+            .encodeToString(sb.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static KeysetCursor parse(String token) {
+        requireNonNull(token);
+        final String decoded;
+        try {
+            decoded = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Malformed keyset cursor token: " + token, e);
+        }
+        if (decoded.isEmpty() || decoded.charAt(0) != VERSION) {
+            throw new IllegalArgumentException("Unsupported keyset cursor token: " + token);
+        }
+        final List<Object> values = new ArrayList<>();
+        int index = 1;
+        try {
+            while (index < decoded.length()) {
+                final char tag = decoded.charAt(index++);
+                final int colon = decoded.indexOf(':', index);
+                final int length = Integer.parseInt(decoded.substring(index, colon));
+                final int start = colon + 1;
+                values.add(value(tag, decoded.substring(start, start + length)));
+                index = start + length;
+            }
+        } catch (RuntimeException e) {
+            // E.g. NumberFormatException, DateTimeParseException and
+            // StringIndexOutOfBoundsException
+            throw new IllegalArgumentException("Malformed keyset cursor token: " + token, e);
+        }
+        return new KeysetCursorImpl(values);
+    }
+
+    private static char tag(Object value) {
+        final Class<?> c = value.getClass();
+        if (c == Boolean.class) return 'z';
+        if (c == Byte.class) return 'b';
+        if (c == Short.class) return 's';
+        if (c == Integer.class) return 'i';
+        if (c == Long.class) return 'l';
+        if (c == Float.class) return 'f';
+        if (c == Double.class) return 'd';
+        if (c == Character.class) return 'c';
+        if (c == String.class) return 'S';
+        if (c == BigInteger.class) return 'I';
+        if (c == BigDecimal.class) return 'D';
+        if (c == Date.class) return 'q';
+        if (c == Time.class) return 't';
+        if (c == Timestamp.class) return 'T';
+        if (c == LocalDate.class) return 'L';
+        if (c == LocalTime.class) return 'h';
+        if (c == LocalDateTime.class) return 'm';
+        if (c == Instant.class) return 'n';
+        throw new IllegalStateException(
+            "Values of type " + c.getName() + " can not be represented in a keyset cursor token"
+        );
+    }
+
+    private static String text(Object value) {
+        // Dates are stored as epoch milliseconds to be independent of the
+        // time zone of the JVM that parses the token
+        if (value instanceof Timestamp) {
+            final Timestamp timestamp = (Timestamp) value;
+            return timestamp.getTime() + "." + timestamp.getNanos();
+        } else if (value instanceof java.util.Date) {
+            return Long.toString(((java.util.Date) value).getTime());
+        }
+        return value.toString();
+    }
+
+    private static Object value(char tag, String text) {
+        switch (tag) {
+            case 'z': return parseBoolean(text);
+            case 'b': return Byte.valueOf(text);
+            case 's': return Short.valueOf(text);
+            case 'i': return Integer.valueOf(text);
+            case 'l': return Long.valueOf(text);
+            case 'f': return Float.valueOf(text);
+            case 'd': return Double.valueOf(text);
+            case 'c': return parseCharacter(text);
+            case 'S': return text;
+            case 'I': return new BigInteger(text);
+            case 'D': return new BigDecimal(text);
+            case 'q': return new Date(Long.parseLong(text));
+            case 't': return new Time(Long.parseLong(text));
+            case 'T': return parseTimestamp(text);
+            case 'L': return LocalDate.parse(text);
+            case 'h': return LocalTime.parse(text);
+            case 'm': return LocalDateTime.parse(text);
+            case 'n': return Instant.parse(text);
+            default: throw new IllegalArgumentException("Unknown type tag '" + tag + "'");
+        }
+    }
+
+    private static Boolean parseBoolean(String text) {
+        if ("true".equals(text)) {
+            return Boolean.TRUE;
+        } else if ("false".equals(text)) {
+            return Boolean.FALSE;
+        }
+        throw new IllegalArgumentException("Not a boolean: " + text);
+    }
+
+    private static Character parseCharacter(String text) {
+        if (text.length() != 1) {
+            throw new IllegalArgumentException("Not a character: " + text);
+        }
+        return text.charAt(0);
+    }
+
+    private static Timestamp parseTimestamp(String text) {
+        final int dot = text.indexOf('.');
+        final Timestamp result = new Timestamp(Long.parseLong(text.substring(0, dot)));
+        result.setNanos(Integer.parseInt(text.substring(dot + 1)));
+        return result;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof KeysetCursor)) return false;
+        return values.equals(((KeysetCursor) o).values());
+    }
+
+    @Override
+    public int hashCode() {
+        return values.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return "KeysetCursor" + values;
+    }
+
+}
@@ -0,0 +1,308 @@
+/**
+ *
+ * Copyright (c) 2006-2018, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.internal.stream;
+
+import com.speedment.runtime.core.stream.KeysetCursor;
+import com.speedment.runtime.core.stream.KeysetPagination;
+import com.speedment.runtime.field.Field;
+import com.speedment.runtime.field.comparator.CombinedComparator;
+import com.speedment.runtime.field.comparator.FieldComparator;
+import com.speedment.runtime.field.predicate.CombinedPredicate;
+import com.speedment.runtime.field.trait.HasBooleanValue;
+import com.speedment.runtime.field.trait.HasByteValue;
+import com.speedment.runtime.field.trait.HasCharValue;
+import com.speedment.runtime.field.trait.HasComparableOperators;
+import com.speedment.runtime.field.trait.HasDoubleValue;
+import com.speedment.runtime.field.trait.HasFloatValue;
+import com.speedment.runtime.field.trait.HasIntValue;
+import com.speedment.runtime.field.trait.HasLongValue;
+import com.speedment.runtime.field.trait.HasShortValue;
+import com.speedment.runtime.field.trait.HasStringOperators;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
+import static java.util.Objects.requireNonNull;
+import static java.util.stream.Collectors.toList;
+import static java.util.stream.Collectors.toSet;
+
+/**
+ * Default implementation of the {@link KeysetPagination} interface.
+ * <p>
+ * Null key values are not supported since Java and the various databases
+ * do not agree on where nulls are ordered. Cursor values are checked against
+ * the types of the key fields so that a tampered or stale token is rejected
+ * with an {@code IllegalArgumentException}.
+ *
+ * @param <ENTITY> the entity type
+ *
+ * @author Per Minborg
+ * @since 3.1.6
+ */
+public final class KeysetPaginationImpl<ENTITY> implements KeysetPagination<ENTITY> {
+
+    private final Comparator<ENTITY> comparator;
+    private final List<FieldComparator<? super ENTITY>> keys;
+
+    public KeysetPaginationImpl(Comparator<ENTITY> keyOrder) {
+        this(keyOrder, emptyList());
+    }
+
+    @SuppressWarnings("unchecked")
+    public KeysetPaginationImpl(Comparator<ENTITY> keyOrder, List<? extends Field<ENTITY>> uniqueKey) {
+        requireNonNull(keyOrder);
+        requireNonNull(uniqueKey);
+        if (keyOrder instanceof FieldComparator) {
+            this.keys = singletonList((FieldComparator<ENTITY>) keyOrder);
+        } else if (keyOrder instanceof CombinedComparator) {
+            this.keys = ((CombinedComparator<ENTITY>) keyOrder).stream().collect(toList());
+        } else {
+            throw new IllegalArgumentException(
+                "The key order must be a FieldComparator or a CombinedComparator but was " + keyOrder
+            );
+        }
+        for (final FieldComparator<? super ENTITY> key : keys) {
+            if (!(key.getField() instanceof HasComparableOperators)) {
+                throw new IllegalArgumentException(
+                    "The field " + columnId(key.getField()) + " can not be used in a keyset"
+                );
+            }
+        }
+        final Set<String> keyColumns = keys.stream()
+            .map(FieldComparator::getField)
+            .map(KeysetPaginationImpl::columnId)
+            .collect(toSet());
+        final boolean uniqueKeyCovered = !uniqueKey.isEmpty() && uniqueKey.stream()
+            .map(KeysetPaginationImpl::columnId)
+            .allMatch(keyColumns::contains);
+        if (!uniqueKeyCovered && keys.stream().map(FieldComparator::getField).noneMatch(Field::isUnique)) {
+            throw new IllegalArgumentException(
+                "The key order must contain a unique field or all the fields of a unique key "
+                + "(e.g. the primary key) to be used for keyset pagination"
+            );
+        }
+        this.comparator = keyOrder;
+    }
+
+    @Override
+    public Comparator<ENTITY> comparator() {
+        return comparator;
+    }
+
+    @Override
+    public KeysetCursor cursorOf(ENTITY entity) {
+        requireNonNull(entity);
+        final List<Object> values = new ArrayList<>(keys.size());
+        for (final FieldComparator<? super ENTITY> key : keys) {
+            final Object value = field(key).getter().apply(entity);
+            if (value == null) {
+                throw new NullPointerException(
+                    "The key field " + columnId(key.getField()) + " of " + entity
+                    + " is null. Null key values are not supported by keyset pagination."
+                );
+            }
+            values.add(value);
+        }
+        return KeysetCursor.of(values);
+    }
+
+    @Override
+    public Predicate<ENTITY> after(KeysetCursor cursor) {
+        requireNonNull(cursor);
+        final List<Object> values = cursor.values();
+        if (values.size() != keys.size()) {
+            throw new IllegalArgumentException(
+                "The cursor " + cursor + " has " + values.size() + " values but the key has " + keys.size() + " fields"
+            );
+        }
+        for (int i = 0; i < keys.size(); i++) {
+            requireValueOfField(keys.get(i).getField(), values.get(i));
+        }
+
+        // (k0 > v0) OR (k0 = v0 AND k1 > v1) OR (k0 = v0 AND k1 = v1 AND k2 > v2) ...
+        final List<Predicate<? super ENTITY>> alternatives = new ArrayList<>(keys.size());
+        for (int i = 0; i < keys.size(); i++) {
+            final List<Predicate<? super ENTITY>> terms = new ArrayList<>(i + 1);
+            for (int j = 0; j < i; j++) {
+                terms.add(equal(keys.get(j), values.get(j)));
+            }
+            final FieldComparator<? super ENTITY> key = keys.get(i);
+            terms.add(key.isReversed()
+                ? lessThan(key, values.get(i))
+                : greaterThan(key, values.get(i))
+            );
+            alternatives.add(terms.size() == 1 ? terms.get(0) : CombinedPredicate.and(terms));
+        }
+
+        if (alternatives.size() == 1) {
+            @SuppressWarnings("unchecked")
+            final Predicate<ENTITY> result = (Predicate<ENTITY>) alternatives.get(0);
+            return result;
+        }
+        return CombinedPredicate.or(alternatives);
+    }
+
+    @Override
+    public Stream<ENTITY> page(Stream<ENTITY> stream, long pageSize) {
+        requireNonNull(stream);
+        return stream.sorted(comparator).limit(pageSize);
+    }
+
+    @Override
+    public Stream<ENTITY> page(Stream<ENTITY> stream, KeysetCursor cursor, long pageSize) {
+        requireNonNull(stream);
+        requireNonNull(cursor);
+        return stream.filter(after(cursor)).sorted(comparator).limit(pageSize);
+    }
+
+    @Override
+    public Stream<ENTITY> stream(Supplier<Stream<ENTITY>> streamSupplier, int pageSize) {
+        requireNonNull(streamSupplier);
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException("The page size must be positive but was " + pageSize);
+        }
+        return StreamSupport.stream(new PageSpliterator(streamSupplier, pageSize), false);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Field<ENTITY> field(FieldComparator<? super ENTITY> key) {
+        return (Field<ENTITY>) key.getField();
+    }
+
+    /**
+     * Makes sure that a value of a cursor can be compared with the given
+     * field. Since cursors are often parsed from tokens supplied by clients,
+     * a value of the wrong type shall be reported as an illegal argument
+     * rather than as a {@code ClassCastException} later on.
+     */
+    private static void requireValueOfField(Field<?> field, Object value) {
+        final Class<?> expectedType = valueType(field);
+        if (!expectedType.isInstance(value)) {
+            throw new IllegalArgumentException(
+                "The cursor value " + value + " of type " + value.getClass().getName()
+                + " can not be compared with the field " + columnId(field)
+                + " of type " + expectedType.getName()
+            );
+        }
+    }
+
+    private static Class<?> valueType(Field<?> field) {
+        if (field instanceof HasIntValue) {
+            return Integer.class;
+        } else if (field instanceof HasLongValue) {
+            return Long.class;
+        } else if (field instanceof HasShortValue) {
+            return Short.class;
+        } else if (field instanceof HasByteValue) {
+            return Byte.class;
+        } else if (field instanceof HasDoubleValue) {
+            return Double.class;
+        } else if (field instanceof HasFloatValue) {
+            return Float.class;
+        } else if (field instanceof HasCharValue) {
+            return Character.class;
+        } else if (field instanceof HasBooleanValue) {
+            return Boolean.class;
+        } else if (field instanceof HasStringOperators) {
+            return String.class;
+        } else {
+            // The value type of other comparable fields is not known
+            return Comparable.class;
+        }
+    }
+
+    private static String columnId(Field<?> field) {
+        return field.identifier().getColumnId();
+    }
+
+    // The value types of the fields are not known statically so the raw
+    // operator type has to be used. The values are checked by
+    // requireValueOfField before any predicate is created.
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private Predicate<ENTITY> equal(FieldComparator<? super ENTITY> key, Object value) {
+        return ((HasComparableOperators) key.getField()).equal((Comparable) value);
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private Predicate<ENTITY> lessThan(FieldComparator<? super ENTITY> key, Object value) {
+        return ((HasComparableOperators) key.getField()).lessThan((Comparable) value);
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private Predicate<ENTITY> greaterThan(FieldComparator<? super ENTITY> key, Object value) {
+        return ((HasComparableOperators) key.getField()).greaterThan((Comparable) value);
+    }
+
+    /**
+     * Spliterator that reads one page at a time, using the last element of
+     * a page as the cursor for the next one.
+     */
+    private final class PageSpliterator extends Spliterators.AbstractSpliterator<ENTITY> {
+
+        private final Supplier<Stream<ENTITY>> streamSupplier;
+        private final int pageSize;
+        private Iterator<ENTITY> page;
+        private KeysetCursor cursor;
+        private boolean lastPage;
+
+        private PageSpliterator(Supplier<Stream<ENTITY>> streamSupplier, int pageSize) {
+            super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+            this.streamSupplier = streamSupplier;
+            this.pageSize = pageSize;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super ENTITY> action) {
+            requireNonNull(action);
+            while (page == null || !page.hasNext()) {
+                if (lastPage) {
+                    return false;
+                }
+                readPage();
+            }
+            action.accept(page.next());
+            return true;
+        }
+
+        private void readPage() {
+            final List<ENTITY> entities;
+            try (final Stream<ENTITY> stream = cursor == null
+                ? page(streamSupplier.get(), pageSize)
+                : page(streamSupplier.get(), cursor, pageSize)) {
+                entities = stream.collect(toList());
+            }
+            lastPage = entities.size() < pageSize;
+            if (!entities.isEmpty()) {
+                cursor = cursorOf(entities.get(entities.size() - 1));
+            }
+            page = entities.iterator();
+        }
+    }
+
+}
@@ -16,6 +16,7 @@
  */
 package com.speedment.runtime.core.internal.stream.builder.action.reference;
 
+import com.speedment.runtime.core.internal.stream.builder.action.trait.HasMapper;
 import com.speedment.runtime.core.stream.action.Action;
 
 import java.util.function.Function;
@@ -30,10 +31,18 @@ import static java.util.Objects.requireNonNull;
  * @param <T> the input type of the stream elements
  * @param <R> the output type of the stream elements
  */
-public final class MapAction<T, R> extends Action<Stream<T>, Stream<R>> {
+public final class MapAction<T, R> extends Action<Stream<T>, Stream<R>> implements HasMapper<Function<? super T, ? extends R>> {
+
+    private final Function<? super T, ? extends R> mapper;
 
     public MapAction(Function<? super T, ? extends R> mapper) {
         super(s -> s.map(requireNonNull(mapper)), Stream.class, MAP);
+        this.mapper = mapper;
+    }
+
+    @Override
+    public Function<? super T, ? extends R> getMapper() {
+        return mapper;
     }
 
 }
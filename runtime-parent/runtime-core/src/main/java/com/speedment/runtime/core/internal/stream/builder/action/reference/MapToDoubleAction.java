@@ -16,6 +16,7 @@
  */
 package com.speedment.runtime.core.internal.stream.builder.action.reference;
 
+import com.speedment.runtime.core.internal.stream.builder.action.trait.HasMapper;
 import com.speedment.runtime.core.stream.action.Action;
 
 import java.util.function.ToDoubleFunction;
@@ -30,10 +31,18 @@ import static java.util.Objects.requireNonNull;
  * @author pemi
  * @param <T> the input type of the stream elements
  */
-public final class MapToDoubleAction<T> extends Action<Stream<T>, DoubleStream> {
+public final class MapToDoubleAction<T> extends Action<Stream<T>, DoubleStream> implements HasMapper<ToDoubleFunction<? super T>> {
+
+    private final ToDoubleFunction<? super T> mapper;
 
     public MapToDoubleAction(ToDoubleFunction<? super T> mapper) {
         super(s -> s.mapToDouble(requireNonNull(mapper)), DoubleStream.class, MAP_TO);
+        this.mapper = mapper;
+    }
+
+    @Override
+    public ToDoubleFunction<? super T> getMapper() {
+        return mapper;
     }
 
 }
@@ -16,6 +16,7 @@
  */
 package com.speedment.runtime.core.internal.stream.builder.action.reference;
 
+import com.speedment.runtime.core.internal.stream.builder.action.trait.HasMapper;
 import com.speedment.runtime.core.stream.action.Action;
 
 import java.util.function.ToIntFunction;
@@ -30,10 +31,18 @@ import static java.util.Objects.requireNonNull;
  * @author pemi
  * @param <T> the input type of the stream elements
  */
-public final class MapToIntAction<T> extends Action<Stream<T>, IntStream> {
+public final class MapToIntAction<T> extends Action<Stream<T>, IntStream> implements HasMapper<ToIntFunction<? super T>> {
+
+    private final ToIntFunction<? super T> mapper;
 
     public MapToIntAction(ToIntFunction<? super T> mapper) {
         super(s -> s.mapToInt(requireNonNull(mapper)), IntStream.class, MAP_TO);
+        this.mapper = mapper;
+    }
+
+    @Override
+    public ToIntFunction<? super T> getMapper() {
+        return mapper;
     }
 
 }
@@ -0,0 +1,78 @@
+/**
+ *
+ * Copyright (c) 2006-2018, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.internal.stream.parallel;
+
+import com.speedment.runtime.core.stream.parallel.ParallelStrategy;
+import com.speedment.runtime.core.stream.parallel.PartitionedParallelStrategy;
+import com.speedment.runtime.field.Field;
+
+import java.util.Optional;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Default implementation of the {@link PartitionedParallelStrategy} interface.
+ *
+ * @author Per Minborg
+ * @since 3.1.6
+ */
+public final class PartitionedParallelStrategyImpl implements PartitionedParallelStrategy {
+
+    private final int partitions;
+    private final Field<?> partitionField; // Nullable
+    private final ParallelStrategy fallbackStrategy;
+
+    public PartitionedParallelStrategyImpl(
+        final int partitions,
+        final Field<?> partitionField,
+        final ParallelStrategy fallbackStrategy
+    ) {
+        if (partitions < 1) {
+            throw new IllegalArgumentException(
+                "The number of partitions must be positive: " + partitions
+            );
+        }
+        this.partitions = partitions;
+        this.partitionField = partitionField;
+        this.fallbackStrategy = requireNonNull(fallbackStrategy);
+    }
+
+    @Override
+    public int getPartitions() {
+        return partitions;
+    }
+
+    @Override
+    public Optional<Field<?>> getPartitionField() {
+        return Optional.ofNullable(partitionField);
+    }
+
+    @Override
+    public ParallelStrategy getFallbackStrategy() {
+        return fallbackStrategy;
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName()
+            + "{partitions=" + partitions
+            + ", partitionField=" + (partitionField == null ? "<primary key>" : partitionField.identifier())
+            + ", fallbackStrategy=" + fallbackStrategy
+            + "}";
+    }
+
+}
@@ -27,6 +27,7 @@ import com.speedment.runtime.core.exception.SpeedmentException;
 
 import java.util.Collections;
 import java.util.function.Function;
+import java.util.stream.Stream;
 
 import static com.speedment.common.invariant.NullUtil.requireNonNulls;
 import static com.speedment.runtime.core.util.StaticClassUtil.instanceNotAllowed;
@@ -150,11 +151,14 @@ public final class SqlUtil {
      * @return the number of elements in the table
      */
     public static long sqlCount(DbmsOperationHandler dbmsOperationHandler, DatabaseNamingConvention naming, Dbms dbms, Table table) {
-        return dbmsOperationHandler.executeQuery(dbms,
+        try (Stream<Long> rows = dbmsOperationHandler.executeQuery(dbms,
             "SELECT COUNT(*) FROM " + sqlTableReference(naming, table),
             Collections.emptyList(),
-            rs -> rs.getLong(1)
-        ).findAny().get();
+            rs -> rs.getLong(1),
+            1
+        )) {
+            return rows.findAny().get();
+        }
     }
 
     /**
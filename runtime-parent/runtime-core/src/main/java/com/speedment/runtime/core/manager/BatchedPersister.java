@@ -0,0 +1,70 @@
+/**
+ *
+ * Copyright (c) 2006-2018, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.manager;
+
+import com.speedment.runtime.core.exception.SpeedmentException;
+
+/**
+ * A {@link Persister} that collects entities and persists them in batches
+ * rather than one at a time. Entities are sent to the data store when the
+ * batch is full, when {@link #flush()} is called and when the Persister is
+ * closed. A BatchedPersister should therefore always be closed after use,
+ * for example using a try-with-resources statement:
+ * <pre>{@code
+ * try (BatchedPersister<User> batched = users.persister().batched(1_000)) {
+ *     stream.forEach(batched);
+ * }
+ * }</pre>
+ * Any data store resources held by the BatchedPersister are released when it
+ * is closed.
+ * <p>
+ * Auto-generated fields of the entities are set when the batch that holds
+ * the entity has been sent to the data store, not when the entity is passed
+ * to {@link #apply(Object)}. Since drivers only return one generated key per
+ * inserted row, this is only done for tables with a single auto-generated
+ * column.
+ *
+ * @param <ENTITY>  the entity type
+ *
+ * @author  Per Minborg
+ * @since   3.1.6
+ */
+@FunctionalInterface
+public interface BatchedPersister<ENTITY> extends Persister<ENTITY>, AutoCloseable {
+
+    /**
+     * Sends all collected entities to the data store.
+     * <p>
+     * The default implementation does nothing, which is suitable for
+     * implementations that do not collect entities.
+     *
+     * @throws SpeedmentException  if persisting any of the entities failed
+     */
+    default void flush() {}
+
+    /**
+     * Sends all collected entities to the data store and then releases any
+     * resources held by this BatchedPersister.
+     *
+     * @throws SpeedmentException  if persisting any of the entities failed
+     */
+    @Override
+    default void close() {
+        flush();
+    }
+
+}
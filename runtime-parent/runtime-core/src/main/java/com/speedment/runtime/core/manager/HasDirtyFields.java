@@ -0,0 +1,60 @@
+/**
+ *
+ * Copyright (c) 2006-2018, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.manager;
+
+/**
+ * Trait for entities that keep track of which of their fields have been set
+ * since the entity was last read from or written to the database. Generated
+ * entity implementations implement this interface so that
+ * {@link Manager#update(Object)} only needs to write the columns that have
+ * actually changed, or nothing at all if no column has changed.
+ * <p>
+ * Each field is represented by one bit in a {@code long}. Bit {@code n}
+ * (with the value {@code 1L << n}) corresponds to the {@code n}:th enabled
+ * column of the table in ordinal position order. Entities of tables with more
+ * than {@value #MAX_FIELDS} enabled columns do not track changes.
+ * <p>
+ * A write that is part of a transaction does not clear the dirty fields
+ * since the transaction may be rolled back. Batched updates always write
+ * every column and do not use or clear the dirty fields.
+ *
+ * @author Per Minborg
+ * @since 3.1.6
+ */
+public interface HasDirtyFields {
+
+    /**
+     * The maximum number of fields that can be tracked.
+     */
+    int MAX_FIELDS = Long.SIZE;
+
+    /**
+     * Returns a bit mask of the fields that have been set since the entity
+     * was last read from or written to the database.
+     *
+     * @return a bit mask of the fields that have been set
+     */
+    long dirtyFields();
+
+    /**
+     * Marks all fields as unchanged. This method is called by Speedment when
+     * the entity has been read from the database or written to it outside of
+     * a transaction.
+     */
+    void clearDirtyFields();
+
+}
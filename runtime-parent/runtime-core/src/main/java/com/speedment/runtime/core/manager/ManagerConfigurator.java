@@ -16,6 +16,7 @@
  */
 package com.speedment.runtime.core.manager;
 
+import com.speedment.runtime.core.db.FetchHints;
 import com.speedment.runtime.core.stream.parallel.ParallelStrategy;
 
 /**
@@ -37,6 +38,17 @@ public interface ManagerConfigurator<ENTITY> {
      */
     ManagerConfigurator<ENTITY> withParallelStrategy(ParallelStrategy parallelStrategy);
 
+    /**
+     * Set the hints on how rows shall be fetched from the database when
+     * streaming over the built manager.
+     * 
+     * @param fetchHints  the fetch hints
+     * @return            a reference to this instance
+     * 
+     * @since 3.1.6
+     */
+    ManagerConfigurator<ENTITY> withFetchHints(FetchHints fetchHints);
+
     /**
      * Builds a new manager that might delegate some methods to the pre-existing 
      * manager, but where the specified settings will be applied upon execution.
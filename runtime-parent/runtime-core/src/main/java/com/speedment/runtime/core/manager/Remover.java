@@ -21,6 +21,8 @@ import com.speedment.runtime.core.exception.SpeedmentException;
 import java.util.function.Consumer;
 import java.util.function.UnaryOperator;
 
+import static com.speedment.common.invariant.IntRangeUtil.requirePositive;
+
 /**
  * An action that takes an entity and removes it from a data store. This 
  * interface extends the standard {@code UnaryOperator}- and 
@@ -58,4 +60,27 @@ public interface Remover<ENTITY> extends UnaryOperator<ENTITY>, Consumer<ENTITY>
     default void accept(ENTITY entity) {
         apply(entity);
     }
+
+    /**
+     * Creates and returns a new {@link BatchedRemover} that collects entities
+     * and sends them to the data store in batches of at most the given
+     * {@code batchSize} entities. The returned BatchedRemover must be closed
+     * after use.
+     * <p>
+     * The default implementation does not collect entities but applies this
+     * Remover directly for every entity. Implementations that are backed by
+     * a data store that supports batches should override this method.
+     *
+     * @param batchSize  the maximum number of entities in a batch
+     * @return           a new BatchedRemover
+     *
+     * @throws IllegalArgumentException  if the provided {@code batchSize} is
+     *                                   not positive
+     *
+     * @since 3.1.6
+     */
+    default BatchedRemover<ENTITY> batched(int batchSize) {
+        requirePositive(batchSize);
+        return this::apply;
+    }
 }
\ No newline at end of file
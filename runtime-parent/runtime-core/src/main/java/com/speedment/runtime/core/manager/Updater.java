@@ -21,6 +21,8 @@ import com.speedment.runtime.core.exception.SpeedmentException;
 import java.util.function.Consumer;
 import java.util.function.UnaryOperator;
 
+import static com.speedment.common.invariant.IntRangeUtil.requirePositive;
+
 /**
  * An action that takes an entity and updates it in a data store. This 
  * interface extends the standard {@code UnaryOperator}- and 
@@ -59,4 +61,27 @@ public interface Updater<ENTITY> extends UnaryOperator<ENTITY>, Consumer<ENTITY>
         apply(entity);
     }
 
+    /**
+     * Creates and returns a new {@link BatchedUpdater} that collects entities
+     * and sends them to the data store in batches of at most the given
+     * {@code batchSize} entities. The returned BatchedUpdater must be closed
+     * after use.
+     * <p>
+     * The default implementation does not collect entities but applies this
+     * Updater directly for every entity. Implementations that are backed by
+     * a data store that supports batches should override this method.
+     *
+     * @param batchSize  the maximum number of entities in a batch
+     * @return           a new BatchedUpdater
+     *
+     * @throws IllegalArgumentException  if the provided {@code batchSize} is
+     *                                   not positive
+     *
+     * @since 3.1.6
+     */
+    default BatchedUpdater<ENTITY> batched(int batchSize) {
+        requirePositive(batchSize);
+        return this::apply;
+    }
+
 }
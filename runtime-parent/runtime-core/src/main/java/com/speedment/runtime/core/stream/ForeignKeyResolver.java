@@ -0,0 +1,156 @@
+/**
+ *
+ * Copyright (c) 2006-2018, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.stream;
+
+import com.speedment.runtime.core.internal.stream.ForeignKeyResolverImpl;
+import com.speedment.runtime.core.manager.Manager;
+import com.speedment.runtime.field.trait.HasFinder;
+
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.stream.Collector;
+import java.util.stream.Stream;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Resolves the entities referenced by a foreign key for many entities at
+ * once.
+ * <p>
+ * Calling a generated {@code findXxx()} method for each element of a stream
+ * issues one query per element. A ForeignKeyResolver instead reads the
+ * entities in chunks and issues one query with a
+ * {@code WHERE pk IN (...)} clause per chunk. Referenced entities are kept in
+ * a small cache for the duration of each {@link #pairs(Stream)} or
+ * {@link #toMap()} operation so that keys that are repeated in later chunks
+ * are not read again.
+ * <pre>{@code
+ *     ForeignKeyResolver<Film, Language> resolver =
+ *         ForeignKeyResolver.of(Film.LANGUAGE_ID, languages);
+ *
+ *     resolver.pairs(films.stream())
+ *         .forEach(e -> System.out.println(e.getKey().getTitle() + " " + e.getValue().getName()));
+ * }</pre>
+ * <p>
+ * The referenced entities are queried while the stream of referencing
+ * entities is still open. If that stream is read from the database, two
+ * queries are therefore active at the same time and a caller needs two
+ * connections from the connection pool. Within a transaction, both queries
+ * are executed on the same connection, which some databases (for example
+ * MySQL with a streaming result set) do not allow. In those cases, the
+ * referencing entities should first be collected into a list:
+ * <pre>{@code
+ *     List<Film> list = films.stream().collect(toList());
+ *     resolver.pairs(list.stream())
+ *         .forEach(...);
+ * }</pre>
+ *
+ * @param <ENTITY>    the type of the referencing entities
+ * @param <FK_ENTITY> the type of the referenced entities
+ *
+ * @author Per Minborg
+ * @since 3.1.6
+ */
+public interface ForeignKeyResolver<ENTITY, FK_ENTITY> {
+
+    /**
+     * The default number of entities to resolve using a single query.
+     */
+    int DEFAULT_CHUNK_SIZE = 512;
+
+    /**
+     * The default maximum number of referenced entities to keep in the cache.
+     */
+    int DEFAULT_CACHE_SIZE = 1024;
+
+    /**
+     * Returns a lazy stream that pairs each entity of the given stream with the
+     * entity it references. The pairs are given in the encounter order of the
+     * given stream. Entities with a {@code null} foreign key or a foreign key
+     * that does not reference an existing entity are paired with
+     * {@code null}.
+     * <p>
+     * Closing the returned stream closes the given stream. The given stream
+     * is still open while the referenced entities are queried (see the
+     * class documentation).
+     *
+     * @param entities to resolve the referenced entities for
+     * @return a stream of entity/referenced entity pairs
+     */
+    Stream<Map.Entry<ENTITY, FK_ENTITY>> pairs(Stream<? extends ENTITY> entities);
+
+    /**
+     * Returns a Collector that collects entities into a map from each entity
+     * to the entity it references. The map retains the encounter order.
+     * Entities with a {@code null} foreign key or a foreign key that does not
+     * reference an existing entity are not included in the map.
+     * <p>
+     * The referenced entities are queried when the collector finishes, which
+     * is before the collected stream is closed (see the class documentation).
+     *
+     * @return a Collector that resolves the referenced entities
+     */
+    Collector<ENTITY, ?, Map<ENTITY, FK_ENTITY>> toMap();
+
+    /**
+     * Creates and returns a new ForeignKeyResolver for the given foreign key
+     * field using the default chunk and cache sizes.
+     *
+     * @param <ENTITY>       the type of the referencing entities
+     * @param <FK_ENTITY>    the type of the referenced entities
+     * @param foreignKey     the foreign key field
+     * @param foreignManager the manager of the referenced entities
+     * @return a new ForeignKeyResolver
+     * @throws IllegalArgumentException if the referenced field does not
+     *                                  support {@code in()} predicates
+     */
+    static <ENTITY, FK_ENTITY> ForeignKeyResolver<ENTITY, FK_ENTITY> of(
+        final HasFinder<ENTITY, FK_ENTITY> foreignKey,
+        final Manager<FK_ENTITY> foreignManager
+    ) {
+        requireNonNull(foreignManager);
+        return of(foreignKey, foreignManager::stream, DEFAULT_CHUNK_SIZE, DEFAULT_CACHE_SIZE);
+    }
+
+    /**
+     * Creates and returns a new ForeignKeyResolver for the given foreign key
+     * field.
+     *
+     * @param <ENTITY>       the type of the referencing entities
+     * @param <FK_ENTITY>    the type of the referenced entities
+     * @param foreignKey     the foreign key field
+     * @param streamSupplier supplier of streams of the referenced entities
+     * @param chunkSize      the maximum number of entities to resolve using a
+     *                       single query
+     * @param cacheSize      the maximum number of referenced entities to
+     *                       cache within an operation, or 0 for no cache
+     * @return a new ForeignKeyResolver
+     * @throws IllegalArgumentException if the referenced field does not
+     *                                  support {@code in()} predicates, if
+     *                                  {@code chunkSize} is not positive or if
+     *                                  {@code cacheSize} is negative
+     */
+    static <ENTITY, FK_ENTITY> ForeignKeyResolver<ENTITY, FK_ENTITY> of(
+        final HasFinder<ENTITY, FK_ENTITY> foreignKey,
+        final Supplier<Stream<FK_ENTITY>> streamSupplier,
+        final int chunkSize,
+        final int cacheSize
+    ) {
+        return new ForeignKeyResolverImpl<>(foreignKey, streamSupplier, chunkSize, cacheSize);
+    }
+
+}
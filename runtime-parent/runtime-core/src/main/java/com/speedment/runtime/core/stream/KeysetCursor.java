@@ -0,0 +1,82 @@
+/**
+ *
+ * Copyright (c) 2006-2018, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.stream;
+
+import com.speedment.runtime.core.internal.stream.KeysetCursorImpl;
+
+import java.util.List;
+
+/**
+ * The position of an element in a stream that is ordered by a unique key, as
+ * used by {@link KeysetPagination}. A cursor holds the values of the key
+ * fields of the last element that was seen by the caller.
+ * <p>
+ * A cursor can be converted to and from an opaque, URL-safe token so that it
+ * can be handed out to clients (e.g. by a REST endpoint) and passed back to
+ * request the next page.
+ *
+ * @author Per Minborg
+ * @since 3.1.6
+ */
+public interface KeysetCursor {
+
+    /**
+     * Returns the values of the key fields, in the order of the key.
+     *
+     * @return the values of the key fields
+     */
+    List<Object> values();
+
+    /**
+     * Returns an opaque, URL-safe token that represents this cursor and that
+     * can be parsed using {@link #parse(String)}.
+     * <p>
+     * Only values of the types {@code Boolean}, {@code Byte}, {@code Short},
+     * {@code Integer}, {@code Long}, {@code Float}, {@code Double},
+     * {@code Character}, {@code String}, {@code BigInteger},
+     * {@code BigDecimal}, {@code java.sql.Date}, {@code java.sql.Time},
+     * {@code java.sql.Timestamp}, {@code LocalDate}, {@code LocalTime},
+     * {@code LocalDateTime} and {@code Instant} can be represented.
+     *
+     * @return a token that represents this cursor
+     * @throws IllegalStateException if a value can not be represented
+     */
+    String toToken();
+
+    /**
+     * Creates and returns a new cursor with the given key values.
+     *
+     * @param values the values of the key fields, in the order of the key
+     * @return a new cursor
+     * @throws NullPointerException if any of the values is {@code null}
+     */
+    static KeysetCursor of(List<?> values) {
+        return new KeysetCursorImpl(values);
+    }
+
+    /**
+     * Parses a token that was previously obtained using {@link #toToken()}.
+     *
+     * @param token to parse
+     * @return the cursor represented by the token
+     * @throws IllegalArgumentException if the token is malformed
+     */
+    static KeysetCursor parse(String token) {
+        return KeysetCursorImpl.parse(token);
+    }
+
+}
@@ -0,0 +1,175 @@
+/**
+ *
+ * Copyright (c) 2006-2018, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.stream;
+
+import com.speedment.runtime.core.internal.stream.KeysetPaginationImpl;
+import com.speedment.runtime.field.Field;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Keyset (or seek) pagination of streams that are ordered by a unique key.
+ * <p>
+ * Rather than skipping the elements of previous pages, which makes the
+ * database read and discard all those rows using {@code OFFSET}, a page is
+ * selected by a predicate on the key of the last element of the previous
+ * page. For example, for a key (a, b) the next page is selected using
+ * {@code WHERE (a > ?) OR (a = ? AND b > ?)} which can be served by an index
+ * on the key regardless of how deep the page is.
+ * <p>
+ * The key is given as a {@link com.speedment.runtime.field.comparator.FieldComparator}
+ * or a {@link com.speedment.runtime.field.comparator.CombinedComparator} and
+ * must contain at least one unique field, or all the fields of a composite
+ * unique key given to {@link #of(Comparator, List)} (e.g. the primary key as
+ * the last tie breaker), so that the order of the elements is total. Fields
+ * may be reversed.
+ * <p>
+ * Null key values are not supported. Databases differ in whether nulls are
+ * ordered first or last and a comparison with null is never true in SQL, so
+ * rows with a null key value would be skipped or repeated. Key fields should
+ * therefore map to {@code NOT NULL} columns, or the stream should be filtered
+ * using {@code isNotNull()} on the nullable key fields before it is paged.
+ * <pre>{@code
+ *     KeysetPagination<Film> pagination = KeysetPagination.of(
+ *         Film.LENGTH.comparator().thenComparing(Film.FILM_ID)
+ *     );
+ *     List<Film> page = pagination.page(films.stream(), cursor, 50).collect(toList());
+ *     String next = pagination.cursorOf(page.get(page.size() - 1)).toToken();
+ * }</pre>
+ *
+ * @param <ENTITY> the entity type
+ *
+ * @author Per Minborg
+ * @since 3.1.6
+ */
+public interface KeysetPagination<ENTITY> {
+
+    /**
+     * Returns the comparator that defines the key order.
+     *
+     * @return the comparator that defines the key order
+     */
+    Comparator<ENTITY> comparator();
+
+    /**
+     * Returns a cursor that points at the given entity.
+     *
+     * @param entity to point at
+     * @return a cursor that points at the given entity
+     * @throws NullPointerException if a key value of the entity is
+     *                              {@code null} since null key values are
+     *                              not supported
+     */
+    KeysetCursor cursorOf(ENTITY entity);
+
+    /**
+     * Returns a predicate that only accepts entities that come after the given
+     * cursor in the key order. The predicate is composed of field predicates
+     * so that it can be rendered as SQL.
+     *
+     * @param cursor to compare with
+     * @return a predicate that only accepts entities after the given cursor
+     * @throws IllegalArgumentException if the cursor does not match the key,
+     *                                  e.g. if it has the wrong number of
+     *                                  values or a value is of a type that
+     *                                  can not be compared with its field
+     */
+    Predicate<ENTITY> after(KeysetCursor cursor);
+
+    /**
+     * Returns a stream of the first page of the given stream.
+     *
+     * @param stream to read a page from
+     * @param pageSize the maximum number of elements on the page
+     * @return a stream of the first page of the given stream
+     */
+    Stream<ENTITY> page(Stream<ENTITY> stream, long pageSize);
+
+    /**
+     * Returns a stream of the page of the given stream that starts directly
+     * after the given cursor.
+     *
+     * @param stream to read a page from
+     * @param cursor of the last element of the previous page
+     * @param pageSize the maximum number of elements on the page
+     * @return a stream of the page after the cursor
+     */
+    Stream<ENTITY> page(Stream<ENTITY> stream, KeysetCursor cursor, long pageSize);
+
+    /**
+     * Returns a stream of all the elements of the streams provided by the
+     * given supplier, in key order. The elements are read one page at a time
+     * where each page is read by a separate, bounded query. Hence no database
+     * cursor is held open while the elements are consumed, which makes it
+     * suitable for traversing very large tables.
+     * <p>
+     * Each supplied stream is closed before the elements of its page are
+     * passed on.
+     *
+     * @param streamSupplier supplying a new stream for each page, e.g.
+     *                       {@code films::stream}
+     * @param pageSize the maximum number of elements on each page
+     * @return a stream of all elements in key order
+     */
+    Stream<ENTITY> stream(Supplier<Stream<ENTITY>> streamSupplier, int pageSize);
+
+    /**
+     * Creates and returns a new KeysetPagination for the given key order.
+     *
+     * @param <ENTITY> the entity type
+     * @param keyOrder the key order, given as a FieldComparator or a
+     *                 CombinedComparator
+     * @return a new KeysetPagination
+     * @throws IllegalArgumentException if the key order is not composed of
+     *                                  fields or does not contain a unique
+     *                                  field
+     */
+    static <ENTITY> KeysetPagination<ENTITY> of(Comparator<ENTITY> keyOrder) {
+        return new KeysetPaginationImpl<>(keyOrder);
+    }
+
+    /**
+     * Creates and returns a new KeysetPagination for the given key order,
+     * where the given fields form a unique key of the entities. This allows a
+     * composite primary key to be used as the tie breaker:
+     * <pre>{@code
+     *     KeysetPagination<FilmActor> pagination = KeysetPagination.of(
+     *         FilmActor.FILM_ID.comparator().thenComparing(FilmActor.ACTOR_ID),
+     *         filmActors.primaryKeyFields().collect(toList())
+     *     );
+     * }</pre>
+     *
+     * @param <ENTITY> the entity type
+     * @param keyOrder the key order, given as a FieldComparator or a
+     *                 CombinedComparator
+     * @param uniqueKey the fields of a unique key, all of which must be part
+     *                  of the key order
+     * @return a new KeysetPagination
+     * @throws IllegalArgumentException if the key order is not composed of
+     *                                  fields or does neither contain a
+     *                                  unique field nor all the fields of
+     *                                  the unique key
+     */
+    static <ENTITY> KeysetPagination<ENTITY> of(Comparator<ENTITY> keyOrder, List<? extends Field<ENTITY>> uniqueKey) {
+        return new KeysetPaginationImpl<>(keyOrder, uniqueKey);
+    }
+
+}
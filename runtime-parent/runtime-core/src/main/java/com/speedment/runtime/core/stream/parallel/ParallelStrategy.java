@@ -19,11 +19,15 @@ package com.speedment.runtime.core.stream.parallel;
 import com.speedment.runtime.core.internal.stream.parallel.ComputeIntensityExtremeParallelStrategy;
 import com.speedment.runtime.core.internal.stream.parallel.ComputeIntensityHighParallelStrategy;
 import com.speedment.runtime.core.internal.stream.parallel.ComputeIntensityMediumParallelStrategy;
+import com.speedment.runtime.core.internal.stream.parallel.PartitionedParallelStrategyImpl;
+import com.speedment.runtime.field.Field;
 
 import java.util.Iterator;
 import java.util.Spliterator;
 import java.util.Spliterators;
 
+import static java.util.Objects.requireNonNull;
+
 /**
  *
  * @author Per Minborg
@@ -73,6 +77,52 @@ public interface ParallelStrategy {
         return Hidden.COMPUTE_INTENSITY_EXTREME;
     }
 
+    /**
+     * A Parallel Strategy that splits table scans into as many primary key
+     * ranges as there are available processors. Each range is read using its
+     * own query and connection.
+     *
+     * @return a PartitionedParallelStrategy
+     * @see PartitionedParallelStrategy
+     * @since 3.1.6
+     */
+    static PartitionedParallelStrategy partitioned() {
+        return partitioned(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * A Parallel Strategy that splits table scans into at most the given
+     * number of primary key ranges. Each range is read using its own query
+     * and connection.
+     *
+     * @param partitions maximum number of partitions
+     * @return a PartitionedParallelStrategy
+     * @throws IllegalArgumentException if {@code partitions} is not positive
+     * @see PartitionedParallelStrategy
+     * @since 3.1.6
+     */
+    static PartitionedParallelStrategy partitioned(int partitions) {
+        return new PartitionedParallelStrategyImpl(partitions, null, computeIntensityDefault());
+    }
+
+    /**
+     * A Parallel Strategy that splits table scans into at most the given
+     * number of ranges of the given field. The field must map to a
+     * non-nullable integral column of the streamed table. Each range is read
+     * using its own query and connection.
+     *
+     * @param partitions maximum number of partitions
+     * @param partitionField field to form ranges over
+     * @return a PartitionedParallelStrategy
+     * @throws IllegalArgumentException if {@code partitions} is not positive
+     * @see PartitionedParallelStrategy
+     * @since 3.1.6
+     */
+    static PartitionedParallelStrategy partitioned(int partitions, Field<?> partitionField) {
+        requireNonNull(partitionField);
+        return new PartitionedParallelStrategyImpl(partitions, partitionField, computeIntensityDefault());
+    }
+
     <T> Spliterator<T> spliteratorUnknownSize(Iterator<? extends T> iterator, int characteristics);
 
     static ParallelStrategy of(final int... batchSizes) {
@@ -0,0 +1,75 @@
+/**
+ *
+ * Copyright (c) 2006-2018, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.stream.parallel;
+
+import com.speedment.runtime.field.Field;
+
+import java.util.Iterator;
+import java.util.Optional;
+import java.util.Spliterator;
+
+/**
+ * A {@link ParallelStrategy} that splits a table scan into a number of
+ * partitions, each covering a distinct range of a non-nullable integral
+ * key column. Every partition is read by a separate query on a separate
+ * connection so that parallel streams scale with both the number of cores
+ * and the number of database sessions.
+ * <p>
+ * Filters that are pushed down to the database apply to every partition. If
+ * the stream can not be partitioned (for example because the pushed down
+ * query is sorted or has a skip or limit, because no suitable key column
+ * exists or because the stream is part of a transaction), the stream is read
+ * using a single query and the {@link #getFallbackStrategy() fallback
+ * strategy}.
+ *
+ * @author Per Minborg
+ * @since 3.1.6
+ */
+public interface PartitionedParallelStrategy extends ParallelStrategy {
+
+    /**
+     * Returns the maximum number of partitions a scan is split into.
+     *
+     * @return the maximum number of partitions
+     */
+    int getPartitions();
+
+    /**
+     * Returns the field that partitions are formed over or
+     * {@code Optional.empty()} if the primary key of the table shall be used.
+     * The field must map to a non-nullable integral column of the streamed
+     * table since rows where the column is {@code null} would not be part of
+     * any partition.
+     *
+     * @return the field that partitions are formed over
+     */
+    Optional<Field<?>> getPartitionField();
+
+    /**
+     * Returns the strategy used to split each individual partition and to
+     * read streams that can not be partitioned.
+     *
+     * @return the fallback strategy
+     */
+    ParallelStrategy getFallbackStrategy();
+
+    @Override
+    default <T> Spliterator<T> spliteratorUnknownSize(Iterator<? extends T> iterator, int characteristics) {
+        return getFallbackStrategy().spliteratorUnknownSize(iterator, characteristics);
+    }
+
+}
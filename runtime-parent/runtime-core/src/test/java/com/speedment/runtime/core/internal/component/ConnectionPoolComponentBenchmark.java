@@ -0,0 +1,149 @@
+/**
+ *
+ * Copyright (c) 2006-2018, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.internal.component;
+
+import com.speedment.runtime.config.Dbms;
+import com.speedment.runtime.config.internal.DbmsImpl;
+import com.speedment.runtime.config.trait.HasId;
+import com.speedment.runtime.config.trait.HasName;
+import com.speedment.runtime.core.component.connectionpool.PoolableConnection;
+import com.speedment.runtime.core.util.DatabaseUtil;
+import com.speedment.runtime.test_support.MockDbmsType;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static com.speedment.runtime.core.util.OptionalUtil.unwrap;
+
+/**
+ * Compares leasing a connection using the connection parameters that are
+ * resolved for every call with leasing a connection using the pool handle
+ * that is resolved when the {@link ConnectionPoolComponentImpl} is started.
+ * <p>
+ * Run using the {@link #main(String[])} method from the test class path.
+ *
+ * @author Per Minborg
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(16)
+public class ConnectionPoolComponentBenchmark {
+
+    private DbmsHandlerComponentImpl dbmsHandlerComponent;
+    private PasswordComponentImpl passwordComponent;
+    private ConnectionPoolComponentImpl instance;
+    private Dbms dbms;
+
+    @Setup
+    public void setup() throws Exception {
+        dbmsHandlerComponent = new DbmsHandlerComponentImpl();
+        dbmsHandlerComponent.install(new MockDbmsType());
+        passwordComponent = new PasswordComponentImpl();
+
+        final Map<String, Object> data = new HashMap<>();
+        data.put(HasId.ID, "db0");
+        data.put(HasName.NAME, "db0");
+        data.put(Dbms.TYPE_NAME, "MockDb");
+        data.put(Dbms.IP_ADDRESS, "localhost");
+        data.put(Dbms.PORT, 42);
+        data.put(Dbms.USERNAME, "tryggve");
+        dbms = new DbmsImpl(null, data);
+        passwordComponent.put(dbms, "arne".toCharArray());
+
+        instance = new ConnectionPoolComponentImpl() {
+            @Override
+            public Connection newConnection(String uri, String user, char[] password) {
+                return dummyConnection();
+            }
+        };
+        inject(instance, "dbmsHandlerComponent", dbmsHandlerComponent);
+        inject(instance, "passwordComponent", passwordComponent);
+        instance.setMaxAge(Long.MAX_VALUE / 2);
+        instance.setMaxRetainSize(64);
+        instance.resolveDbmsPool(dbms);
+    }
+
+    /**
+     * Leases a connection the way {@code getConnection(Dbms)} did before the
+     * pool handles were introduced: the URL is computed, the password is
+     * unwrapped and a pool key is built for every call.
+     *
+     * @return the leased connection id
+     * @throws SQLException if the connection can not be returned
+     */
+    @Benchmark
+    public long resolvedPerCall() throws SQLException {
+        final String uri = DatabaseUtil.findConnectionUrl(dbmsHandlerComponent, dbms);
+        final String username = unwrap(dbms.getUsername());
+        final char[] password = unwrap(passwordComponent.get(dbms));
+        try (final PoolableConnection connection = instance.getConnection(uri, username, password)) {
+            return connection.getId();
+        }
+    }
+
+    @Benchmark
+    public long resolvedAtStart() throws SQLException {
+        try (final PoolableConnection connection = instance.getConnection(dbms)) {
+            return connection.getId();
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        final Options options = new OptionsBuilder()
+            .include(ConnectionPoolComponentBenchmark.class.getSimpleName())
+            .build();
+
+        new Runner(options).run();
+    }
+
+    private static Connection dummyConnection() {
+        return (Connection) Proxy.newProxyInstance(
+            ConnectionPoolComponentBenchmark.class.getClassLoader(),
+            new Class<?>[]{Connection.class},
+            (proxy, method, args) -> {
+                switch (method.getName()) {
+                    case "isClosed": return false;
+                    case "isValid": return true;
+                    case "hashCode": return System.identityHashCode(proxy);
+                    case "equals": return proxy == args[0];
+                    case "toString": return "DummyConnection";
+                    default: return null;
+                }
+            }
+        );
+    }
+
+    private static void inject(Object instance, String fieldName, Object value) throws ReflectiveOperationException {
+        final Field field = ConnectionPoolComponentImpl.class.getDeclaredField(fieldName);
+        field.setAccessible(true);
+        field.set(instance, value);
+    }
+}
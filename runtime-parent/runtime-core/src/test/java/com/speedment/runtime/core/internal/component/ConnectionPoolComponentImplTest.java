@@ -22,13 +22,22 @@
 package com.speedment.runtime.core.internal.component;
 
 
+import com.speedment.runtime.config.Dbms;
+import com.speedment.runtime.config.internal.DbmsImpl;
+import com.speedment.runtime.config.trait.HasId;
+import com.speedment.runtime.config.trait.HasName;
+import com.speedment.runtime.core.component.connectionpool.ConnectionPoolMetrics;
 import com.speedment.runtime.core.component.connectionpool.PoolableConnection;
+import com.speedment.runtime.core.exception.SpeedmentException;
 import com.speedment.runtime.core.internal.component.ConnectionPoolComponentImpl;
+import com.speedment.runtime.test_support.MockDbmsType;
 import org.junit.*;
 
 import java.sql.*;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.Assert.*;
 
@@ -39,6 +48,7 @@ import static org.junit.Assert.*;
 public class ConnectionPoolComponentImplTest {
 
     ConnectionPoolComponentImpl instance;
+    List<DummyConnectionImpl> created;
 
     public ConnectionPoolComponentImplTest() {
     }
@@ -53,10 +63,13 @@ public class ConnectionPoolComponentImplTest {
 
     @Before
     public void setUp() {
+        created = new ArrayList<>();
         instance = new ConnectionPoolComponentImpl() {
             @Override
             public Connection newConnection(String uri, String user, char[] password) {
-                return new DummyConnectionImpl(uri, user, password);
+                final DummyConnectionImpl connection = new DummyConnectionImpl(uri, user, password);
+                created.add(connection);
+                return connection;
             }
         };
     }
@@ -180,6 +193,254 @@ public class ConnectionPoolComponentImplTest {
         }
     }
 
+    @Test
+    public void testMaxSizeTimeout() throws Exception {
+        String uri = "thecooldatabase";
+        String user = "tryggve";
+        char[] password = "arne".toCharArray();
+        instance.setMaxAge(60 * 60_000);
+        instance.setMaxRetainSize(10);
+        instance.setMaxSize(2);
+        instance.setAcquireTimeout(50);
+        final PoolableConnection first = instance.getConnection(uri, user, password);
+        final PoolableConnection second = instance.getConnection(uri, user, password);
+        try {
+            instance.getConnection(uri, user, password);
+            fail("Expected a SpeedmentException when the pool is exhausted");
+        } catch (SpeedmentException expected) {
+            // Expected
+        }
+        assertEquals(2, instance.leaseSize());
+        assertEquals(1, instance.metrics().timeoutCount());
+        first.close();
+        second.close();
+        assertEquals(0, instance.leaseSize());
+        assertEquals(2, instance.poolSize());
+        assertEquals(2, instance.metrics().createdCount());
+    }
+
+    @Test
+    public void testMaxSizeWaiterGetsReturnedConnection() throws Exception {
+        String uri = "thecooldatabase";
+        String user = "tryggve";
+        char[] password = "arne".toCharArray();
+        instance.setMaxAge(60 * 60_000);
+        instance.setMaxRetainSize(10);
+        instance.setMaxSize(1);
+        instance.setAcquireTimeout(10_000);
+        final PoolableConnection first = instance.getConnection(uri, user, password);
+        final CompletableFuture<PoolableConnection> waiter = CompletableFuture.supplyAsync(
+            () -> instance.getConnection(uri, user, password)
+        );
+        Thread.sleep(50);
+        assertFalse(waiter.isDone());
+        first.close();
+        final PoolableConnection second = waiter.get(10, TimeUnit.SECONDS);
+        assertEquals(first.getId(), second.getId());
+        assertEquals(1, instance.metrics().createdCount());
+        assertTrue(instance.metrics().maxWaitTimeNanos() > 0);
+        second.close();
+    }
+
+    @Test
+    public void testReturnTwice() throws Exception {
+        String uri = "thecooldatabase";
+        String user = "tryggve";
+        char[] password = "arne".toCharArray();
+        instance.setMaxAge(60 * 60_000);
+        instance.setMaxRetainSize(10);
+        instance.setMaxSize(1);
+        instance.setAcquireTimeout(50);
+        final PoolableConnection connection = instance.getConnection(uri, user, password);
+        connection.close();
+        connection.close();
+        assertEquals(1, instance.poolSize());
+        instance.getConnection(uri, user, password);
+        try {
+            instance.getConnection(uri, user, password);
+            fail("A connection returned twice must not release two permits");
+        } catch (SpeedmentException expected) {
+            // Expected
+        }
+    }
+
+    @Test
+    public void testLeakDetection() throws Exception {
+        String uri = "thecooldatabase";
+        String user = "tryggve";
+        char[] password = "arne".toCharArray();
+        instance.setMaxAge(60 * 60_000);
+        instance.setLeakDetectionThreshold(1);
+        final PoolableConnection connection = instance.getConnection(uri, user, password);
+        Thread.sleep(10);
+        instance.maintain();
+        assertEquals(1, instance.metrics().leakCount());
+        instance.maintain();
+        assertEquals("A leak shall only be reported once", 1, instance.metrics().leakCount());
+        connection.close();
+    }
+
+    @Test
+    public void testIdleEviction() throws Exception {
+        String uri = "thecooldatabase";
+        String user = "tryggve";
+        char[] password = "arne".toCharArray();
+        instance.setMaxAge(60 * 60_000);
+        instance.setMaxRetainSize(10);
+        instance.setMaxIdleTime(1);
+        instance.getConnection(uri, user, password).close();
+        assertEquals(1, instance.poolSize());
+        Thread.sleep(10);
+        instance.maintain();
+        assertEquals(0, instance.poolSize());
+        assertEquals(1, instance.metrics().discardedCount());
+    }
+
+    @Test
+    public void testMaintenanceDefaultOffWhenUnbounded() {
+        instance.startMaintenance();
+        try {
+            assertFalse(instance.isMaintenanceRunning());
+        } finally {
+            instance.stopMaintenance();
+        }
+    }
+
+    @Test
+    public void testMaintenanceDefaultOnWhenBounded() {
+        instance.setMaxSize(2);
+        assertEquals(
+            ConnectionPoolComponentImpl.DEFAULT_BOUNDED_MAINTENANCE_INTERVAL,
+            instance.effectiveMaintenanceInterval()
+        );
+        instance.setMaintenanceInterval(-1);
+        assertEquals(0, instance.effectiveMaintenanceInterval());
+    }
+
+    @Test
+    public void testClosedIdleConnectionIsReplaced() throws Exception {
+        String uri = "thecooldatabase";
+        String user = "tryggve";
+        char[] password = "arne".toCharArray();
+        instance.setMaxAge(60 * 60_000);
+        instance.setMaxRetainSize(10);
+        instance.setMaxSize(1);
+        instance.setAcquireTimeout(50);
+        instance.setValidateOnBorrow(true);
+        instance.setValidationBypassWindow(60 * 60_000);
+        instance.startMaintenance();
+        try {
+            assertTrue(instance.isMaintenanceRunning());
+            final PoolableConnection first = instance.getConnection(uri, user, password);
+            first.close();
+            first.rawClose(); // Closed after it was returned to the pool
+            final PoolableConnection second = instance.getConnection(uri, user, password);
+            assertNotEquals(first.getId(), second.getId());
+            assertFalse(second.isClosed());
+            assertEquals(1, instance.metrics().discardedCount());
+            second.close();
+        } finally {
+            instance.stopMaintenance();
+        }
+    }
+
+    @Test
+    public void testDeadIdleConnectionIsReplaced() throws Exception {
+        String uri = "thecooldatabase";
+        String user = "tryggve";
+        char[] password = "arne".toCharArray();
+        instance.setMaxAge(60 * 60_000);
+        instance.setMaxRetainSize(10);
+        instance.setValidateOnBorrow(true);
+        instance.setValidationBypassWindow(0);
+        final PoolableConnection first = instance.getConnection(uri, user, password);
+        first.close();
+        created.get(0).dead = true; // The server dropped the idle connection
+        Thread.sleep(5);
+        final PoolableConnection second = instance.getConnection(uri, user, password);
+        assertNotEquals(first.getId(), second.getId());
+        assertEquals(2, instance.metrics().createdCount());
+        second.close();
+    }
+
+    @Test
+    public void testDeadIdleConnectionIsEvictedByMaintenance() throws Exception {
+        String uri = "thecooldatabase";
+        String user = "tryggve";
+        char[] password = "arne".toCharArray();
+        instance.setMaxAge(60 * 60_000);
+        instance.setMaxRetainSize(10);
+        instance.setValidationBypassWindow(0);
+        final PoolableConnection first = instance.getConnection(uri, user, password);
+        first.close();
+        created.get(0).dead = true; // The server dropped the idle connection
+        Thread.sleep(5);
+        // Not validated against the database when it is leased
+        final PoolableConnection second = instance.getConnection(uri, user, password);
+        assertEquals(first.getId(), second.getId());
+        second.close();
+        instance.maintain();
+        assertEquals(0, instance.poolSize());
+        assertEquals(1, instance.metrics().discardedCount());
+    }
+
+    @Test
+    public void testAcquireMetrics() throws Exception {
+        String uri = "thecooldatabase";
+        String user = "tryggve";
+        char[] password = "arne".toCharArray();
+        instance.setMaxAge(60 * 60_000);
+        instance.setMaxRetainSize(10);
+        for (int i = 0; i < 10; i++) {
+            instance.getConnection(uri, user, password).close();
+        }
+        final ConnectionPoolMetrics metrics = instance.metrics();
+        assertEquals(10, metrics.acquireCount());
+        assertEquals(1, metrics.createdCount());
+        assertEquals(10, Arrays.stream(metrics.acquireLatencyHistogram()).sum());
+        assertEquals(
+            metrics.acquireLatencyBucketLimitsNanos().length + 1,
+            metrics.acquireLatencyHistogram().length
+        );
+    }
+
+    @Test
+    public void testGetConnectionResolvedDbms() throws Exception {
+        final DbmsHandlerComponentImpl dbmsHandlerComponent = new DbmsHandlerComponentImpl();
+        dbmsHandlerComponent.install(new MockDbmsType());
+        final PasswordComponentImpl passwordComponent = new PasswordComponentImpl();
+        final Map<String, Object> data = new HashMap<>();
+        data.put(HasId.ID, "db0");
+        data.put(HasName.NAME, "db0");
+        data.put(Dbms.TYPE_NAME, "MockDb");
+        data.put(Dbms.IP_ADDRESS, "localhost");
+        data.put(Dbms.PORT, 42);
+        data.put(Dbms.USERNAME, "tryggve");
+        final Dbms dbms = new DbmsImpl(null, data);
+        passwordComponent.put(dbms, "arne".toCharArray());
+        inject("dbmsHandlerComponent", dbmsHandlerComponent);
+        inject("passwordComponent", passwordComponent);
+        instance.setMaxAge(60 * 60_000);
+        instance.setMaxRetainSize(10);
+
+        instance.resolveDbmsPool(dbms);
+        final PoolableConnection connection = instance.getConnection(dbms);
+        assertEquals("jdbc:mockdb://localhost:42", connection.getUri());
+        assertEquals("tryggve", connection.getUser());
+        connection.close();
+
+        // The resolved handle shares its pool with the explicit parameters
+        final PoolableConnection other = instance.getConnection("jdbc:mockdb://localhost:42", "tryggve", "arne".toCharArray());
+        assertEquals(connection.getId(), other.getId());
+        other.close();
+    }
+
+    private void inject(String fieldName, Object value) throws ReflectiveOperationException {
+        final java.lang.reflect.Field field = ConnectionPoolComponentImpl.class.getDeclaredField(fieldName);
+        field.setAccessible(true);
+        field.set(instance, value);
+    }
+
     /**
      * Test of setPoolSize method, of class ConnectionPoolComponentImpl.
      */
@@ -197,6 +458,7 @@ public class ConnectionPoolComponentImplTest {
         final char[] password;
 
         private boolean closed;
+        private boolean dead;
 
         public DummyConnectionImpl(String uri, String user, char[] password) {
             this.uri = uri;
@@ -410,7 +672,7 @@ public class ConnectionPoolComponentImplTest {
 
         @Override
         public boolean isValid(int timeout) throws SQLException {
-            throw new UnsupportedOperationException("Not supported yet."); //To change body of generated methods, choose Tools | Templates.
+            return !closed && !dead;
         }
 
         @Override
@@ -0,0 +1,190 @@
+/**
+ *
+ * Copyright (c) 2006-2018, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.internal.component.cache;
+
+import com.speedment.runtime.config.identifier.TableIdentifier;
+import com.speedment.runtime.core.component.cache.EntityCacheListener;
+import com.speedment.runtime.core.component.cache.EntityCacheSettings;
+import com.speedment.runtime.core.component.cache.EvictionPolicy;
+import com.speedment.runtime.test_support.MockEntity;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Per Minborg
+ */
+public class EntityCacheImplTest {
+
+    private static final TableIdentifier<MockEntity> TABLE = TableIdentifier.of("db", "schema", "mock_entity");
+
+    private long now;
+    private List<String> events;
+    private EntityCacheListener listener;
+
+    @Before
+    public void setUp() {
+        now = 0;
+        events = new ArrayList<>();
+        listener = new EntityCacheListener() {
+            @Override
+            public void onHit(TableIdentifier<?> tableId) { events.add("hit"); }
+            @Override
+            public void onMiss(TableIdentifier<?> tableId) { events.add("miss"); }
+            @Override
+            public void onEviction(TableIdentifier<?> tableId) { events.add("eviction"); }
+            @Override
+            public void onExpiration(TableIdentifier<?> tableId) { events.add("expiration"); }
+        };
+    }
+
+    @Test
+    public void testGetAndPut() {
+        final EntityCacheImpl<MockEntity> cache = cache(EntityCacheSettings.of(10));
+        final MockEntity entity = new MockEntity(1);
+        assertFalse(cache.get(1).isPresent());
+        cache.put(entity);
+        assertSame(entity, cache.get(1).get());
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void testLeastRecentlyUsed() {
+        final EntityCacheImpl<MockEntity> cache = cache(EntityCacheSettings.of(2));
+        cache.put(new MockEntity(1));
+        cache.put(new MockEntity(2));
+        cache.get(1);
+        cache.put(new MockEntity(3));
+        assertTrue(cache.get(1).isPresent());
+        assertFalse(cache.get(2).isPresent());
+        assertTrue(cache.get(3).isPresent());
+        assertEquals(1, cache.metrics().evictionCount());
+    }
+
+    @Test
+    public void testLeastFrequentlyUsed() {
+        final EntityCacheImpl<MockEntity> cache = cache(EntityCacheSettings.of(2)
+            .withEvictionPolicy(EvictionPolicy.LEAST_FREQUENTLY_USED));
+        cache.put(new MockEntity(1));
+        cache.put(new MockEntity(2));
+        cache.get(1);
+        cache.get(1);
+        cache.get(2);
+        cache.put(new MockEntity(3)); // Evicts 2 that was read once
+        assertFalse(cache.get(2).isPresent());
+        cache.put(new MockEntity(4)); // Evicts 3 that has not been read
+        assertTrue(cache.get(1).isPresent());
+        assertFalse(cache.get(3).isPresent());
+        assertTrue(cache.get(4).isPresent());
+    }
+
+    @Test
+    public void testLeastFrequentlyUsedAfterInvalidate() {
+        final EntityCacheImpl<MockEntity> cache = cache(EntityCacheSettings.of(2)
+            .withEvictionPolicy(EvictionPolicy.LEAST_FREQUENTLY_USED));
+        cache.put(new MockEntity(1));
+        cache.put(new MockEntity(2));
+        cache.get(2);
+        cache.invalidateKey(1);
+        cache.put(new MockEntity(3));
+        cache.get(3);
+        cache.get(3);
+        cache.put(new MockEntity(4));
+        assertFalse(cache.get(2).isPresent());
+        assertTrue(cache.get(3).isPresent());
+        assertTrue(cache.get(4).isPresent());
+    }
+
+    @Test
+    public void testTimeToLive() {
+        final EntityCacheImpl<MockEntity> cache = cache(EntityCacheSettings.of(10)
+            .withTimeToLive(Duration.ofNanos(100)));
+        cache.put(new MockEntity(1));
+        now = 99;
+        assertTrue(cache.get(1).isPresent());
+        now = 100;
+        assertFalse(cache.get(1).isPresent());
+        assertEquals(0, cache.size());
+        assertEquals(1, cache.metrics().expirationCount());
+    }
+
+    @Test
+    public void testInvalidate() {
+        final EntityCacheImpl<MockEntity> cache = cache(EntityCacheSettings.of(10));
+        cache.put(new MockEntity(1));
+        cache.put(new MockEntity(2));
+        cache.invalidate(new MockEntity(1));
+        assertFalse(cache.get(1).isPresent());
+        assertTrue(cache.get(2).isPresent());
+        cache.invalidateAll();
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testPutIfNotInvalidated() {
+        final EntityCacheImpl<MockEntity> cache = cache(EntityCacheSettings.of(10));
+        final long generation = cache.generation(1);
+        assertTrue(cache.putIfNotInvalidated(new MockEntity(1), generation));
+        assertTrue(cache.get(1).isPresent());
+
+        cache.invalidateKey(1);
+        assertFalse(cache.putIfNotInvalidated(new MockEntity(1), generation));
+        assertFalse(cache.get(1).isPresent());
+
+        final long generationAfterInvalidate = cache.generation(1);
+        cache.invalidateAll();
+        assertFalse(cache.putIfNotInvalidated(new MockEntity(1), generationAfterInvalidate));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testMetricsAndListener() {
+        final EntityCacheImpl<MockEntity> cache = cache(EntityCacheSettings.of(1)
+            .withTimeToLive(Duration.ofNanos(10)));
+        assertEquals(0, cache.metrics().hitRatio(), 0);
+        cache.put(new MockEntity(1));
+        cache.get(1);
+        cache.get(2);
+        cache.put(new MockEntity(2));
+        now = 10;
+        cache.get(2);
+
+        assertEquals(asList("hit", "miss", "eviction", "expiration", "miss"), events);
+        assertEquals(1, cache.metrics().hitCount());
+        assertEquals(2, cache.metrics().missCount());
+        assertEquals(1, cache.metrics().evictionCount());
+        assertEquals(1, cache.metrics().expirationCount());
+        assertEquals(1d / 3, cache.metrics().hitRatio(), 1e-9);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testIllegalMaxSize() {
+        EntityCacheSettings.of(0);
+    }
+
+    private EntityCacheImpl<MockEntity> cache(EntityCacheSettings settings) {
+        return new EntityCacheImpl<>(TABLE, MockEntity.ID, settings.withListener(listener), () -> now);
+    }
+
+}
@@ -0,0 +1,168 @@
+/**
+ *
+ * Copyright (c) 2006-2018, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.internal.component.snapshot;
+
+import com.speedment.runtime.config.identifier.ColumnIdentifier;
+import com.speedment.runtime.core.internal.stream.builder.ReferenceStreamBuilder;
+import com.speedment.runtime.core.internal.stream.builder.pipeline.PipelineImpl;
+import com.speedment.runtime.field.Field;
+import com.speedment.runtime.field.predicate.FieldPredicate;
+import com.speedment.runtime.field.predicate.Inclusion;
+import com.speedment.runtime.test_support.MockEntity;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static java.util.stream.Collectors.toList;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Per Minborg
+ */
+public class SnapshotIndexTest {
+
+    private List<MockEntity> entities;
+    private ColumnarSnapshot<MockEntity> indexed;
+
+    @Before
+    public void setup() {
+        entities = IntStream.range(0, 50)
+            .mapToObj(i -> new MockEntity((i * 7) % 13 - 4).setName(i % 11 == 0 ? null : "N" + (i % 5) + "x" + (i % 3)))
+            .collect(toList());
+        final Set<ColumnIdentifier<MockEntity>> indexedColumns = new HashSet<>();
+        indexedColumns.add(MockEntity.ID.identifier());
+        indexedColumns.add(MockEntity.NAME.identifier());
+        indexed = new ColumnarSnapshot<>(
+            Stream.<Field<MockEntity>>of(MockEntity.ID, MockEntity.NAME),
+            entities,
+            () -> new MockEntity(0),
+            indexedColumns
+        );
+    }
+
+    @Test
+    public void testIndexesCreated() {
+        assertEquals(2, indexed.indexes().count());
+        indexed.indexes().forEach(index -> assertTrue(index.memoryUsage() > 0));
+        assertTrue(lookup(MockEntity.ID.equal(3)));
+        assertTrue(lookup(MockEntity.ID.between(1, 4)));
+        assertTrue(lookup(MockEntity.NAME.startsWith("N1")));
+        assertTrue(lookup(MockEntity.NAME.in("N1x1", "N2x2")));
+    }
+
+    @Test
+    public void testComparisons() {
+        for (int value = -6; value <= 10; value++) {
+            assertFilter(MockEntity.ID.equal(value));
+            assertFilter(MockEntity.ID.greaterThan(value));
+            assertFilter(MockEntity.ID.greaterOrEqual(value));
+            assertFilter(MockEntity.ID.lessThan(value));
+            assertFilter(MockEntity.ID.lessOrEqual(value));
+        }
+        assertFilter(MockEntity.NAME.equal("N3x1"));
+        assertFilter(MockEntity.NAME.greaterThan("N2"));
+        assertFilter(MockEntity.NAME.lessOrEqual("N2x2"));
+    }
+
+    @Test
+    public void testBetween() {
+        for (Inclusion inclusion : Inclusion.values()) {
+            assertFilter(MockEntity.ID.between(-2, 5, inclusion));
+            assertFilter(MockEntity.ID.between(5, -2, inclusion));
+            assertFilter(MockEntity.NAME.between("N1", "N3x1", inclusion));
+        }
+    }
+
+    @Test
+    public void testIn() {
+        assertFilter(MockEntity.ID.in(-4, 0, 3, 42));
+        assertFilter(MockEntity.NAME.in("N0x0", "N4x2", "Nope"));
+    }
+
+    @Test
+    public void testStartsWith() {
+        assertFilter(MockEntity.NAME.startsWith("N2"));
+        assertFilter(MockEntity.NAME.startsWith(""));
+        assertFilter(MockEntity.NAME.startsWith("X"));
+    }
+
+    @Test
+    public void testUnsupported() {
+        assertFalse(lookup(MockEntity.ID.notEqual(3)));
+        assertFalse(lookup(MockEntity.NAME.endsWith("x1")));
+        assertFilter(MockEntity.ID.notEqual(3));
+        assertFilter(MockEntity.NAME.endsWith("x1"));
+    }
+
+    @Test
+    public void testCombined() {
+        assertFilter(MockEntity.ID.greaterThan(0).and(MockEntity.NAME.startsWith("N1")));
+        assertFilter(MockEntity.ID.greaterThan(0).and(MockEntity.NAME.endsWith("x1")));
+        assertFilter(MockEntity.ID.equal(1).or(MockEntity.NAME.startsWith("N4")));
+        assertFilter(MockEntity.ID.equal(1).or(MockEntity.NAME.endsWith("x2")));
+    }
+
+    @Test
+    public void testSorted() {
+        assertSame(s -> s.sorted(MockEntity.ID.comparator()));
+        assertSame(s -> s.sorted(MockEntity.ID.reversed()));
+        assertSame(s -> s.sorted(MockEntity.NAME.comparator()));
+        assertSame(s -> s.filter(MockEntity.ID.greaterThan(-3)).sorted(MockEntity.ID.reversed()));
+        assertSame(s -> s.filter(MockEntity.ID.equal(2)).sorted(MockEntity.ID.comparator()));
+        assertSame(s -> s.filter(MockEntity.NAME.isNotNull()).sorted(MockEntity.NAME.comparator().reversed()));
+        assertSame(s -> s.sorted(MockEntity.NAME.comparatorNullFieldsFirst()).sorted(MockEntity.ID.comparator()));
+        assertSame(s -> s.sorted(MockEntity.ID.comparator()).filter(MockEntity.ID.lessThan(4)).limit(5));
+    }
+
+    private void assertFilter(Predicate<MockEntity> predicate) {
+        assertSame(s -> s.filter(predicate));
+    }
+
+    private void assertSame(Function<Stream<MockEntity>, Stream<MockEntity>> operations) {
+        assertEquals(
+            fingerprint(operations.apply(entities.stream())),
+            fingerprint(operations.apply(stream()))
+        );
+    }
+
+    private boolean lookup(Predicate<MockEntity> predicate) {
+        @SuppressWarnings("unchecked")
+        final FieldPredicate<MockEntity> fieldPredicate = (FieldPredicate<MockEntity>) predicate;
+        return indexed.indexes()
+            .anyMatch(i -> i.lookup(fieldPredicate).isPresent());
+    }
+
+    private Stream<MockEntity> stream() {
+        return new ReferenceStreamBuilder<>(
+            new PipelineImpl<>(() -> indexed.stream(null)),
+            new SnapshotStreamTerminator<>(indexed)
+        );
+    }
+
+    private static List<String> fingerprint(Stream<MockEntity> stream) {
+        return stream.map(e -> e.getId() + "/" + e.getName()).collect(toList());
+    }
+
+}
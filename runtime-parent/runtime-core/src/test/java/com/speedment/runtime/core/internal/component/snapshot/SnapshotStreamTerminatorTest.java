@@ -0,0 +1,161 @@
+/**
+ *
+ * Copyright (c) 2006-2018, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.internal.component.snapshot;
+
+import com.speedment.runtime.core.internal.stream.builder.ReferenceStreamBuilder;
+import com.speedment.runtime.core.internal.stream.builder.pipeline.PipelineImpl;
+import com.speedment.runtime.field.Field;
+import com.speedment.runtime.test_support.MockEntity;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import static java.util.stream.Collectors.toList;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Per Minborg
+ */
+public class SnapshotStreamTerminatorTest {
+
+    private static final int[] IDS = {5, 3, 8, 1, 9, 3, 7, 2, 6, 4};
+
+    private List<MockEntity> entities;
+    private ColumnarSnapshot<MockEntity> snapshot;
+    private int created;
+
+    @Before
+    public void setup() {
+        entities = Arrays.stream(IDS)
+            .mapToObj(id -> new MockEntity(id).setName(id % 2 == 0 ? "Even" + id : "Odd" + id))
+            .collect(toList());
+        snapshot = new ColumnarSnapshot<>(
+            Stream.<Field<MockEntity>>of(MockEntity.ID, MockEntity.NAME),
+            entities,
+            () -> {
+                created++;
+                return new MockEntity(0);
+            }
+        );
+        created = 0;
+    }
+
+    @Test
+    public void testAll() {
+        assertSame(s -> s);
+        assertEquals(
+            Arrays.stream(IDS).boxed().collect(toList()),
+            stream().map(MockEntity::getId).collect(toList())
+        );
+    }
+
+    @Test
+    public void testFilterSortedSkipLimit() {
+        assertSame(s -> s
+            .filter(MockEntity.ID.greaterThan(2))
+            .sorted(MockEntity.ID.reversed())
+            .skip(1)
+            .limit(3)
+        );
+        assertEquals(3, created);
+    }
+
+    @Test
+    public void testLimitBeforeFilter() {
+        assertSame(s -> s
+            .limit(4)
+            .filter(MockEntity.ID.lessThan(6))
+            .sorted(MockEntity.ID)
+        );
+    }
+
+    @Test
+    public void testStableSort() {
+        assertSame(s -> s
+            .sorted(MockEntity.ID)
+            .sorted(MockEntity.NAME.comparator().reversed())
+        );
+    }
+
+    @Test
+    public void testReferencePredicates() {
+        assertSame(s -> s.filter(MockEntity.NAME.startsWith("Even")));
+        assertSame(s -> s.filter(MockEntity.NAME.in("Odd3", "Even8", "Odd11")));
+        assertSame(s -> s.filter(MockEntity.ID.between(3, 7)));
+    }
+
+    @Test
+    public void testCombinedPredicates() {
+        assertSame(s -> s.filter(MockEntity.ID.greaterThan(2).and(MockEntity.NAME.startsWith("Odd"))));
+        assertSame(s -> s.filter(MockEntity.ID.equal(1).or(MockEntity.ID.greaterOrEqual(8))));
+    }
+
+    @Test
+    public void testOtherOperationsRemain() {
+        assertSame(s -> s
+            .filter(MockEntity.ID.notEqual(3))
+            .filter(e -> e.getId() % 3 == 0)
+            .sorted(MockEntity.ID)
+        );
+    }
+
+    @Test
+    public void testCountWithoutEntities() {
+        assertEquals(2, stream().filter(MockEntity.ID.equal(3)).count());
+        assertEquals(IDS.length, stream().count());
+        assertEquals(3, stream().sorted(MockEntity.ID).skip(7).count());
+        assertEquals(0, created);
+    }
+
+    @Test
+    public void testEntitiesAreCopies() {
+        stream().forEach(e -> e.setId(-1));
+        assertSame(s -> s);
+    }
+
+    @Test
+    public void testEmpty() {
+        snapshot = new ColumnarSnapshot<>(
+            Stream.<Field<MockEntity>>of(MockEntity.ID, MockEntity.NAME),
+            Arrays.asList(),
+            () -> null
+        );
+        assertEquals(0, stream().filter(MockEntity.NAME.startsWith("O")).count());
+        assertEquals(0, stream().sorted(MockEntity.NAME).collect(toList()).size());
+    }
+
+    private void assertSame(Function<Stream<MockEntity>, Stream<MockEntity>> operations) {
+        assertEquals(ids(operations.apply(entities.stream())), ids(operations.apply(stream())));
+    }
+
+    private Stream<MockEntity> stream() {
+        return new ReferenceStreamBuilder<>(
+            new PipelineImpl<>(() -> snapshot.stream(null)),
+            new SnapshotStreamTerminator<>(snapshot)
+        );
+    }
+
+    private static List<Integer> ids(Stream<MockEntity> stream) {
+        return stream.map(e -> e.getId() * 100 + e.getName().length()).collect(toList());
+    }
+
+}
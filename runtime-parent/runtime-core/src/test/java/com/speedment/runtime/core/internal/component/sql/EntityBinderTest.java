@@ -0,0 +1,164 @@
+/**
+ *
+ * Copyright (c) 2006-2018, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.internal.component.sql;
+
+import com.speedment.runtime.config.identifier.ColumnIdentifier;
+import com.speedment.runtime.field.Field;
+import com.speedment.runtime.field.IntField;
+import com.speedment.runtime.field.ShortField;
+import com.speedment.runtime.field.StringField;
+import com.speedment.runtime.typemapper.TypeMapper;
+import com.speedment.runtime.typemapper.integer.PrimitiveIntegerToShortMapper;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.reflect.Proxy;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ *
+ * @author Per Minborg
+ */
+public class EntityBinderTest {
+
+    private static final IntField<Person, Integer> ID = IntField.create(
+        ColumnIdentifier.of("db", "schema", "person", "id"),
+        Person::getId,
+        Person::setId,
+        TypeMapper.primitive(),
+        true
+    );
+
+    private static final StringField<Person, String> NAME = StringField.create(
+        ColumnIdentifier.of("db", "schema", "person", "name"),
+        Person::getName,
+        Person::setName,
+        TypeMapper.identity(),
+        false
+    );
+
+    private static final ShortField<Person, Integer> AGE = ShortField.create(
+        ColumnIdentifier.of("db", "schema", "person", "age"),
+        Person::getAge,
+        Person::setAge,
+        new PrimitiveIntegerToShortMapper(),
+        false
+    );
+
+    private List<String> calls;
+
+    @Before
+    public void setup() {
+        calls = new ArrayList<>();
+    }
+
+    @Test
+    public void testBindUsesTypedSetters() throws SQLException {
+        final EntityBinder<Person> binder = binder(ID, NAME, AGE);
+        binder.bind(preparedStatement(), new Person(42, "Ada", (short) 36));
+        assertEquals(
+            Arrays.asList(
+                "setInt(1, 42)",
+                "setString(2, Ada)",
+                "setObject(3, 36)"
+            ),
+            calls
+        );
+    }
+
+    @Test
+    public void testBindNull() throws SQLException {
+        final EntityBinder<Person> binder = binder(NAME);
+        binder.bind(preparedStatement(), new Person(1, null, (short) 0));
+        assertEquals(Arrays.asList("setString(1, null)"), calls);
+    }
+
+    @Test
+    public void testValues() {
+        final EntityBinder<Person> binder = binder(AGE, ID, NAME);
+        final List<Object> values = binder.values(new Person(7, "Bo", (short) 3));
+        assertEquals(Arrays.<Object>asList(3, 7, "Bo"), values);
+        assertEquals(Integer.class, values.get(0).getClass());
+        assertEquals(3, binder.size());
+    }
+
+    @SafeVarargs
+    private static EntityBinder<Person> binder(Field<Person>... fields) {
+        return new EntityBinder<>(Arrays.asList(fields));
+    }
+
+    private PreparedStatement preparedStatement() {
+        return (PreparedStatement) Proxy.newProxyInstance(
+            EntityBinderTest.class.getClassLoader(),
+            new Class<?>[]{PreparedStatement.class},
+            (proxy, method, args) -> {
+                if (method.getName().startsWith("set") && args.length == 2) {
+                    calls.add(method.getName() + "(" + args[0] + ", " + args[1] + ")");
+                    return null;
+                }
+                throw new UnsupportedOperationException(method.getName());
+            }
+        );
+    }
+
+    private static final class Person {
+
+        private int id;
+        private String name;
+        private short age;
+
+        private Person(int id, String name, short age) {
+            this.id = id;
+            this.name = name;
+            this.age = age;
+        }
+
+        int getId() {
+            return id;
+        }
+
+        Person setId(int id) {
+            this.id = id;
+            return this;
+        }
+
+        String getName() {
+            return name;
+        }
+
+        Person setName(String name) {
+            this.name = name;
+            return this;
+        }
+
+        short getAge() {
+            return age;
+        }
+
+        Person setAge(short age) {
+            this.age = age;
+            return this;
+        }
+    }
+
+}
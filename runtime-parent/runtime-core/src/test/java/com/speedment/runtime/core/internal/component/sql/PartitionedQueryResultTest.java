@@ -0,0 +1,190 @@
+/**
+ *
+ * Copyright (c) 2006-2018, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.internal.component.sql;
+
+import com.speedment.runtime.core.db.AsynchronousQueryResult;
+import com.speedment.runtime.core.db.SqlFunction;
+import org.junit.Test;
+
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.Spliterator;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Per Minborg
+ */
+public class PartitionedQueryResultTest {
+
+    private static final String FROM = " FROM `mock_entity`";
+    private static final String SELECT = "SELECT `id`,`name`" + FROM;
+
+    @Test
+    public void testRangeSqlWithoutWhere() {
+        assertEquals(
+            Optional.of(SELECT + " WHERE (`id` >= ? AND `id` <= ?)"),
+            PartitionedQueryResult.rangeSql(SELECT, FROM, "`id`")
+        );
+    }
+
+    @Test
+    public void testRangeSqlWithWhere() {
+        assertEquals(
+            Optional.of("SELECT `name`" + FROM + " WHERE ((`name` = ?) OR (`id` < ?)) AND (`id` >= ? AND `id` <= ?)"),
+            PartitionedQueryResult.rangeSql("SELECT `name`" + FROM + " WHERE (`name` = ?) OR (`id` < ?)", FROM, "`id`")
+        );
+    }
+
+    @Test
+    public void testRangeSqlUnpartitionable() {
+        assertFalse(PartitionedQueryResult.rangeSql(SELECT + " ORDER BY `id` ASC", FROM, "`id`").isPresent());
+        assertFalse(PartitionedQueryResult.rangeSql(SELECT + " WHERE (`id` = ?) LIMIT ?", FROM, "`id`").isPresent());
+        assertFalse(PartitionedQueryResult.rangeSql("SELECT COUNT(*) FROM (" + SELECT + ")", FROM, "`id`").isPresent());
+        assertFalse(PartitionedQueryResult.rangeSql("SELECT `id` FROM `other`", FROM, "`id`").isPresent());
+    }
+
+    @Test
+    public void testRanges() {
+        assertRanges(Arrays.asList("1..4", "5..7", "8..10"), PartitionedQueryResult.ranges(1, 10, 3));
+        assertRanges(Arrays.asList("-1..-1", "0..0", "1..1"), PartitionedQueryResult.ranges(-1, 1, 8));
+        assertRanges(Arrays.asList("7..7"), PartitionedQueryResult.ranges(7, 7, 4));
+        assertRanges(
+            Arrays.asList(Long.MIN_VALUE + "..-1", "0.." + Long.MAX_VALUE),
+            PartitionedQueryResult.ranges(Long.MIN_VALUE, Long.MAX_VALUE, 2)
+        );
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRangesIllegal() {
+        PartitionedQueryResult.ranges(2, 1, 3);
+    }
+
+    @Test
+    public void testStream() {
+        final List<FakeQueryResult> partitions = partitions(4, 10);
+        try (PartitionedQueryResult<Integer> result = new PartitionedQueryResult<>(new ArrayList<>(partitions))) {
+            assertEquals(
+                IntStream.range(0, 40).boxed().collect(Collectors.toList()),
+                result.stream().sorted().collect(Collectors.toList())
+            );
+            // Consumed partitions are closed directly
+            partitions.forEach(p -> assertEquals(1, p.closed));
+        }
+        partitions.forEach(p -> assertEquals(1, p.closed));
+    }
+
+    @Test
+    public void testParallelStream() {
+        final List<FakeQueryResult> partitions = partitions(8, 1000);
+        try (PartitionedQueryResult<Integer> result = new PartitionedQueryResult<>(new ArrayList<>(partitions))) {
+            assertEquals(8_000, result.stream().parallel().count());
+            assertEquals(IntStream.range(0, 8_000).asLongStream().sum(), result.stream().parallel().mapToLong(i -> i).sum());
+        }
+    }
+
+    @Test
+    public void testSplitHandsOutPartitions() {
+        final List<FakeQueryResult> partitions = partitions(4, 10);
+        try (PartitionedQueryResult<Integer> result = new PartitionedQueryResult<>(new ArrayList<>(partitions))) {
+            final Spliterator<Integer> spliterator = result.stream().spliterator();
+            final Spliterator<Integer> prefix = spliterator.trySplit();
+            assertNotNull(prefix);
+            assertTrue(prefix.tryAdvance(i -> assertEquals(0, (int) i)));
+            assertEquals(1, partitions.get(0).opened);
+            assertEquals(0, partitions.get(2).opened);
+            assertTrue(spliterator.tryAdvance(i -> assertEquals(20, (int) i)));
+            assertEquals(1, partitions.get(2).opened);
+            assertEquals(0, partitions.get(1).opened);
+            assertEquals(0, partitions.get(3).opened);
+        }
+        // Unconsumed partitions are closed upon close
+        partitions.forEach(p -> assertEquals(1, p.closed));
+    }
+
+    private static void assertRanges(List<String> expected, List<long[]> actual) {
+        assertEquals(expected, actual.stream().map(r -> r[0] + ".." + r[1]).collect(Collectors.toList()));
+    }
+
+    private static List<FakeQueryResult> partitions(int count, int size) {
+        return IntStream.range(0, count)
+            .mapToObj(i -> new FakeQueryResult(i * size, size))
+            .collect(Collectors.toList());
+    }
+
+    private static final class FakeQueryResult implements AsynchronousQueryResult<Integer> {
+
+        private final int first;
+        private final int size;
+        private int opened;
+        private int closed;
+
+        private FakeQueryResult(int first, int size) {
+            this.first = first;
+            this.size = size;
+        }
+
+        @Override
+        public Stream<Integer> stream() {
+            opened++;
+            return IntStream.range(first, first + size).boxed();
+        }
+
+        @Override
+        public void close() {
+            closed++;
+        }
+
+        @Override
+        public String getSql() {
+            return SELECT;
+        }
+
+        @Override
+        public void setSql(String sql) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public List<?> getValues() {
+            return new ArrayList<>();
+        }
+
+        @Override
+        public void setValues(List<?> values) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public SqlFunction<ResultSet, Integer> getRsMapper() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void setRsMapper(SqlFunction<ResultSet, Integer> rsMapper) {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+}
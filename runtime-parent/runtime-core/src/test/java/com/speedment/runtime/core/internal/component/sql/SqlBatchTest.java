@@ -0,0 +1,253 @@
+/**
+ *
+ * Copyright (c) 2006-2018, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.internal.component.sql;
+
+import com.speedment.runtime.core.component.connectionpool.ConnectionPoolComponent;
+import com.speedment.runtime.core.component.connectionpool.PoolableConnection;
+import com.speedment.runtime.core.exception.SpeedmentException;
+import com.speedment.runtime.core.internal.db.ConnectionInfo;
+import com.speedment.runtime.core.manager.BatchedPersister;
+import com.speedment.runtime.core.manager.Persister;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.reflect.Proxy;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+import static java.util.Collections.singletonList;
+import static java.util.stream.Collectors.toList;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Per Minborg
+ */
+public class SqlBatchTest {
+
+    private static final String SQL = "INSERT INTO `s`.`t` (`a`,`b`) VALUES (?,?)";
+
+    private int getConnectionCount;
+    private int closeConnectionCount;
+    private int commitCount;
+    private int rollbackCount;
+    private List<String> prepared;
+    private List<Integer> batchSizes;
+    private List<List<Object>> rows;
+    private List<Object> values;
+    private int inBatch;
+    private boolean failOnExecute;
+
+    private Supplier<ConnectionInfo> connectionInfoSupplier;
+
+    @Before
+    public void setup() {
+        prepared = new ArrayList<>();
+        batchSizes = new ArrayList<>();
+        rows = new ArrayList<>();
+        values = new ArrayList<>();
+
+        final ConnectionPoolComponent pool = (ConnectionPoolComponent) Proxy.newProxyInstance(
+            SqlBatchTest.class.getClassLoader(),
+            new Class<?>[]{ConnectionPoolComponent.class},
+            (proxy, method, args) -> {
+                if ("getConnection".equals(method.getName())) {
+                    getConnectionCount++;
+                    return connection();
+                }
+                throw new UnsupportedOperationException(method.getName());
+            }
+        );
+
+        connectionInfoSupplier = () -> new ConnectionInfo(null, pool, null);
+    }
+
+    @Test
+    public void testFlushEveryBatchSize() {
+        try (final BatchedPersister<Integer> batched = persister(new ArrayList<>(), 4)) {
+            IntStream.range(0, 10).boxed().forEach(batched);
+            assertEquals(Arrays.asList(4, 4), batchSizes);
+        }
+        assertEquals(Arrays.asList(4, 4, 2), batchSizes);
+        assertEquals(singletonList(SQL), prepared);
+        assertEquals(3, commitCount);
+        assertEquals(1, getConnectionCount);
+        assertEquals(1, closeConnectionCount);
+        assertEquals(Arrays.asList(9, "v9"), rows.get(9));
+    }
+
+    @Test
+    public void testExplicitFlush() {
+        try (final BatchedPersister<Integer> batched = persister(new ArrayList<>(), 100)) {
+            batched.accept(1);
+            batched.accept(2);
+            batched.flush();
+            assertEquals(singletonList(2), batchSizes);
+            batched.flush(); // Nothing pending
+            assertEquals(1, commitCount);
+        }
+        assertEquals(singletonList(2), batchSizes);
+        assertEquals(1, commitCount);
+    }
+
+    @Test
+    public void testNoConnectionIfEmpty() {
+        persister(new ArrayList<>(), 100).close();
+        assertEquals(0, getConnectionCount);
+        assertTrue(prepared.isEmpty());
+    }
+
+    @Test
+    public void testListenerReceivesBatchInOrder() {
+        final List<List<Integer>> executed = new ArrayList<>();
+        try (final BatchedPersister<Integer> batched = persister(executed, 3)) {
+            IntStream.range(0, 7).boxed().forEach(batched);
+        }
+        assertEquals(
+            Arrays.asList(
+                Arrays.asList(0, 1, 2),
+                Arrays.asList(3, 4, 5),
+                singletonList(6)
+            ),
+            executed
+        );
+    }
+
+    @Test
+    public void testFailureRollsBackAndCloses() {
+        failOnExecute = true;
+        final BatchedPersister<Integer> batched = persister(new ArrayList<>(), 2);
+        batched.accept(1);
+        try {
+            batched.accept(2);
+            fail("Expected a SpeedmentException");
+        } catch (final SpeedmentException ignored) {
+            // Expected
+        }
+        assertEquals(1, rollbackCount);
+        assertEquals(0, commitCount);
+        assertEquals(1, closeConnectionCount);
+        try {
+            batched.accept(3);
+            fail("Expected an IllegalStateException");
+        } catch (final IllegalStateException ignored) {
+            // Expected
+        }
+        batched.close();
+        assertEquals(1, closeConnectionCount);
+    }
+
+    @Test
+    public void testDefaultBatchedDelegates() {
+        final List<Integer> persisted = new ArrayList<>();
+        final Persister<Integer> persister = i -> {
+            persisted.add(i);
+            return i;
+        };
+        try (final BatchedPersister<Integer> batched = persister.batched(10)) {
+            IntStream.range(0, 3).boxed().forEach(batched);
+            assertEquals(Arrays.asList(0, 1, 2), persisted);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testIllegalBatchSize() {
+        final Persister<Integer> persister = i -> i;
+        persister.batched(0);
+    }
+
+    private BatchedPersister<Integer> persister(List<List<Integer>> executed, int batchSize) {
+        return new SqlBatch.BatchedPersisterImpl<>(
+            connectionInfoSupplier,
+            SQL,
+            (ps, i) -> {
+                ps.setObject(1, i);
+                ps.setObject(2, "v" + i);
+            },
+            (ps, entities) -> executed.add(entities.stream().collect(toList())),
+            true,
+            batchSize
+        );
+    }
+
+    private PoolableConnection connection() {
+        return (PoolableConnection) Proxy.newProxyInstance(
+            SqlBatchTest.class.getClassLoader(),
+            new Class<?>[]{PoolableConnection.class},
+            (proxy, method, args) -> {
+                switch (method.getName()) {
+                    case "setAutoCommit": return null;
+                    case "prepareStatement": {
+                        prepared.add((String) args[0]);
+                        return preparedStatement();
+                    }
+                    case "commit": {
+                        commitCount++;
+                        return null;
+                    }
+                    case "rollback": {
+                        rollbackCount++;
+                        return null;
+                    }
+                    case "close": {
+                        closeConnectionCount++;
+                        return null;
+                    }
+                    default: throw new UnsupportedOperationException(method.getName());
+                }
+            }
+        );
+    }
+
+    private PreparedStatement preparedStatement() {
+        return (PreparedStatement) Proxy.newProxyInstance(
+            SqlBatchTest.class.getClassLoader(),
+            new Class<?>[]{PreparedStatement.class},
+            (proxy, method, args) -> {
+                switch (method.getName()) {
+                    case "setObject": {
+                        values.add(args[1]);
+                        return null;
+                    }
+                    case "addBatch": {
+                        rows.add(new ArrayList<>(values));
+                        values.clear();
+                        inBatch++;
+                        return null;
+                    }
+                    case "executeBatch": {
+                        if (failOnExecute) {
+                            throw new SQLException("Simulated failure");
+                        }
+                        batchSizes.add(inBatch);
+                        final int[] result = new int[inBatch];
+                        inBatch = 0;
+                        return result;
+                    }
+                    case "close": return null;
+                    default: throw new UnsupportedOperationException(method.getName());
+                }
+            }
+        );
+    }
+
+}
@@ -0,0 +1,502 @@
+/**
+ *
+ * Copyright (c) 2006-2018, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.internal.component.sql;
+
+import com.speedment.runtime.config.Column;
+import com.speedment.runtime.config.Dbms;
+import com.speedment.runtime.config.Project;
+import com.speedment.runtime.config.Schema;
+import com.speedment.runtime.config.Table;
+import com.speedment.runtime.config.identifier.ColumnIdentifier;
+import com.speedment.runtime.config.identifier.TableIdentifier;
+import com.speedment.runtime.config.internal.ProjectImpl;
+import com.speedment.runtime.config.trait.HasName;
+import com.speedment.runtime.config.trait.HasOrdinalPosition;
+import com.speedment.runtime.core.component.DbmsHandlerComponent;
+import com.speedment.runtime.core.component.ManagerComponent;
+import com.speedment.runtime.core.component.ProjectComponent;
+import com.speedment.runtime.core.component.connectionpool.ConnectionPoolComponent;
+import com.speedment.runtime.core.component.connectionpool.PoolableConnection;
+import com.speedment.runtime.core.component.resultset.ResultSetMapperComponent;
+import com.speedment.runtime.core.component.transaction.TransactionComponent;
+import com.speedment.runtime.core.db.DbmsColumnHandler;
+import com.speedment.runtime.core.db.DbmsOperationHandler;
+import com.speedment.runtime.core.db.DbmsType;
+import com.speedment.runtime.core.internal.component.resultset.ResultSetMapperComponentImpl;
+import com.speedment.runtime.core.internal.db.DefaultDatabaseNamingConvention;
+import com.speedment.runtime.core.internal.manager.sql.SqlInsertStatement;
+import com.speedment.runtime.core.manager.BatchedPersister;
+import com.speedment.runtime.core.manager.HasDirtyFields;
+import com.speedment.runtime.core.manager.Manager;
+import com.speedment.runtime.field.Field;
+import com.speedment.runtime.field.IntField;
+import com.speedment.runtime.field.StringField;
+import com.speedment.runtime.typemapper.TypeMapper;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.reflect.Proxy;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static java.util.Collections.singletonList;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Per Minborg
+ */
+public class SqlPersistenceImplTest {
+
+    private static final String DBMS = "dbms";
+    private static final String SCHEMA = "schema";
+    private static final String TABLE = "point";
+
+    private List<String> updates;
+    private List<List<?>> values;
+    private SqlPersistenceImpl<Point> instance;
+
+    private List<Long> generatedKeys;
+    private List<Integer> preparedKeyFlags;
+    private Object transaction; // Nullable
+
+    @Before
+    public void setup() {
+        updates = new ArrayList<>();
+        values = new ArrayList<>();
+        generatedKeys = new ArrayList<>();
+        preparedKeyFlags = new ArrayList<>();
+        transaction = null;
+        instance = new SqlPersistenceImpl<>(
+            TableIdentifier.of(DBMS, SCHEMA, TABLE),
+            proxy(ProjectComponent.class, "getProject", project()),
+            proxy(DbmsHandlerComponent.class, "findByName", Optional.of(dbmsType())),
+            proxy(ManagerComponent.class, "stream", Stream.of(manager())),
+            proxy(ResultSetMapperComponent.class, "apply", null),
+            proxy(ConnectionPoolComponent.class, "getConnection", null),
+            transactionComponent()
+        );
+    }
+
+    private SqlPersistenceImpl<Point> persistence(String... autoIncrementColumns) {
+        return new SqlPersistenceImpl<>(
+            TableIdentifier.of(DBMS, SCHEMA, TABLE),
+            proxy(ProjectComponent.class, "getProject", project(autoIncrementColumns)),
+            proxy(DbmsHandlerComponent.class, "findByName", Optional.of(dbmsType())),
+            proxy(ManagerComponent.class, "stream", Stream.of(manager())),
+            new ResultSetMapperComponentImpl(),
+            proxy(ConnectionPoolComponent.class, "getConnection", connection()),
+            proxy(TransactionComponent.class, "get", Optional.empty())
+        );
+    }
+
+    @Test
+    public void testUpdateOnlyWritesDirtyFields() {
+        final Point point = new Point(1, "a", 2);
+        point.clearDirtyFields();
+        point.setAge(3);
+        instance.update(point);
+
+        assertEquals(singletonList("UPDATE `schema`.`point` SET `age` = ? WHERE `id` = ?"), updates);
+        assertEquals(singletonList(Arrays.asList(3, 1)), values);
+        assertEquals(0, point.dirtyFields());
+    }
+
+    @Test
+    public void testUpdateWithoutDirtyFields() {
+        final Point point = new Point(1, "a", 2);
+        point.clearDirtyFields();
+        instance.update(point);
+
+        assertTrue(updates.isEmpty());
+    }
+
+    @Test
+    public void testUpdateAllFields() {
+        instance.update(new Point(1, "a", 2));
+
+        assertEquals(
+            singletonList("UPDATE `schema`.`point` SET `id` = ?,`name` = ?,`age` = ? WHERE `id` = ?"),
+            updates
+        );
+        assertEquals(singletonList(Arrays.asList(1, "a", 2, 1)), values);
+    }
+
+    @Test
+    public void testPartialUpdateIsCached() {
+        assertSame(instance.partialUpdate(0b110), instance.partialUpdate(0b110));
+        assertEquals(
+            "UPDATE `schema`.`point` SET `name` = ?,`age` = ? WHERE `id` = ?",
+            instance.partialUpdate(0b110).sql
+        );
+    }
+
+    @Test
+    public void testUpdateInTransactionKeepsDirtyFields() {
+        transaction = new Object();
+        final Point point = new Point(1, "a", 2);
+        point.clearDirtyFields();
+        point.setAge(3);
+        instance.update(point);
+        // The transaction may be rolled back so the update must be retried
+        instance.update(point);
+
+        assertEquals(2, updates.size());
+        assertEquals(Arrays.asList(Arrays.asList(3, 1), Arrays.asList(3, 1)), values);
+        assertNotEquals(0, point.dirtyFields());
+    }
+
+    @Test
+    public void testPersistInTransactionKeepsDirtyFields() {
+        transaction = new Object();
+        final Point point = new Point(1, "a", 2);
+        instance.persist(point);
+        assertNotEquals(0, point.dirtyFields());
+    }
+
+    @Test
+    public void testPersistClearsDirtyFields() {
+        final Point point = new Point(1, "a", 2);
+        instance.persist(point);
+        assertEquals(0, point.dirtyFields());
+    }
+
+    @Test
+    public void testBatchedPersistSetsSingleGeneratedKey() {
+        generatedKeys.addAll(Arrays.asList(10L, 11L, 12L));
+        final List<Point> points = Arrays.asList(
+            new Point(0, "a", 1),
+            new Point(0, "b", 2),
+            new Point(0, "c", 3)
+        );
+        try (final BatchedPersister<Point> batched = persistence("id").batchedPersister(10)) {
+            points.forEach(batched);
+        }
+
+        assertEquals(singletonList(Statement.RETURN_GENERATED_KEYS), preparedKeyFlags);
+        assertEquals(Arrays.asList(10, 11, 12), Arrays.asList(
+            points.get(0).getId(), points.get(1).getId(), points.get(2).getId()
+        ));
+        assertEquals(Arrays.asList(1, 2, 3), Arrays.asList(
+            points.get(0).getAge(), points.get(1).getAge(), points.get(2).getAge()
+        ));
+    }
+
+    @Test
+    public void testBatchedPersistWithMultipleGeneratedColumns() {
+        // One key per row is returned and can not be aligned with two columns
+        generatedKeys.addAll(Arrays.asList(10L, 11L, 12L));
+        final List<Point> points = Arrays.asList(
+            new Point(0, "a", 1),
+            new Point(0, "b", 2),
+            new Point(0, "c", 3)
+        );
+        try (final BatchedPersister<Point> batched = persistence("id", "age").batchedPersister(10)) {
+            points.forEach(batched);
+        }
+
+        assertEquals(singletonList(-1), preparedKeyFlags);
+        assertEquals(Arrays.asList(0, 0, 0), Arrays.asList(
+            points.get(0).getId(), points.get(1).getId(), points.get(2).getId()
+        ));
+        assertEquals(Arrays.asList(1, 2, 3), Arrays.asList(
+            points.get(0).getAge(), points.get(1).getAge(), points.get(2).getAge()
+        ));
+    }
+
+    private PoolableConnection connection() {
+        return (PoolableConnection) Proxy.newProxyInstance(
+            SqlPersistenceImplTest.class.getClassLoader(),
+            new Class<?>[]{PoolableConnection.class},
+            (proxy, method, args) -> {
+                switch (method.getName()) {
+                    case "prepareStatement": {
+                        preparedKeyFlags.add(args.length > 1 ? (Integer) args[1] : -1);
+                        return preparedStatement();
+                    }
+                    case "setAutoCommit":
+                    case "commit":
+                    case "close": return null;
+                    default: throw new UnsupportedOperationException(method.getName());
+                }
+            }
+        );
+    }
+
+    private PreparedStatement preparedStatement() {
+        return (PreparedStatement) Proxy.newProxyInstance(
+            SqlPersistenceImplTest.class.getClassLoader(),
+            new Class<?>[]{PreparedStatement.class},
+            (proxy, method, args) -> {
+                switch (method.getName()) {
+                    case "setObject":
+                    case "setInt":
+                    case "setString":
+                    case "addBatch":
+                    case "close": return null;
+                    case "executeBatch": return new int[]{1, 1, 1};
+                    case "getGeneratedKeys": return generatedKeysResultSet();
+                    default: throw new UnsupportedOperationException(method.getName());
+                }
+            }
+        );
+    }
+
+    private ResultSet generatedKeysResultSet() {
+        final Iterator<Long> iterator = generatedKeys.iterator();
+        final long[] current = new long[1];
+        return (ResultSet) Proxy.newProxyInstance(
+            SqlPersistenceImplTest.class.getClassLoader(),
+            new Class<?>[]{ResultSet.class},
+            (proxy, method, args) -> {
+                switch (method.getName()) {
+                    case "next": {
+                        if (iterator.hasNext()) {
+                            current[0] = iterator.next();
+                            return true;
+                        }
+                        return false;
+                    }
+                    case "getLong": return current[0];
+                    case "close": return null;
+                    default: throw new UnsupportedOperationException(method.getName());
+                }
+            }
+        );
+    }
+
+    private DbmsType dbmsType() {
+        final DbmsColumnHandler columnHandler = new DbmsColumnHandler() {
+            @Override
+            public java.util.function.Predicate<Column> excludedInInsertStatement() {
+                return c -> false;
+            }
+
+            @Override
+            public java.util.function.Predicate<Column> excludedInUpdateStatement() {
+                return c -> false;
+            }
+        };
+
+        final DbmsOperationHandler operationHandler = (DbmsOperationHandler) Proxy.newProxyInstance(
+            SqlPersistenceImplTest.class.getClassLoader(),
+            new Class<?>[]{DbmsOperationHandler.class},
+            (proxy, method, args) -> {
+                switch (method.getName()) {
+                    case "executeUpdate": {
+                        updates.add((String) args[1]);
+                        values.add((List<?>) args[2]);
+                        return null;
+                    }
+                    case "executeInsert": return null;
+                    case "handleGeneratedKeys": {
+                        // Like the default handler, one key is read per row
+                        final SqlInsertStatement statement = (SqlInsertStatement) args[1];
+                        try (final ResultSet rs = ((PreparedStatement) args[0]).getGeneratedKeys()) {
+                            while (rs.next()) {
+                                statement.addGeneratedKey(rs.getLong(1));
+                            }
+                        }
+                        return null;
+                    }
+                    default: throw new UnsupportedOperationException(method.getName());
+                }
+            }
+        );
+
+        return (DbmsType) Proxy.newProxyInstance(
+            SqlPersistenceImplTest.class.getClassLoader(),
+            new Class<?>[]{DbmsType.class},
+            (proxy, method, args) -> {
+                switch (method.getName()) {
+                    case "getDatabaseNamingConvention": return new DefaultDatabaseNamingConvention();
+                    case "getColumnHandler": return columnHandler;
+                    case "getOperationHandler": return operationHandler;
+                    default: throw new UnsupportedOperationException(method.getName());
+                }
+            }
+        );
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Manager<Point> manager() {
+        return (Manager<Point>) Proxy.newProxyInstance(
+            SqlPersistenceImplTest.class.getClassLoader(),
+            new Class<?>[]{Manager.class},
+            (proxy, method, args) -> {
+                switch (method.getName()) {
+                    case "getTableIdentifier": return TableIdentifier.of(DBMS, SCHEMA, TABLE);
+                    case "getEntityClass": return Point.class;
+                    case "fields": return Stream.of(Point.ID, Point.NAME, Point.AGE);
+                    case "primaryKeyFields": return Stream.of(Point.ID);
+                    default: throw new UnsupportedOperationException(method.getName());
+                }
+            }
+        );
+    }
+
+    private TransactionComponent transactionComponent() {
+        return (TransactionComponent) Proxy.newProxyInstance(
+            SqlPersistenceImplTest.class.getClassLoader(),
+            new Class<?>[]{TransactionComponent.class},
+            (proxy, method, args) -> {
+                if ("get".equals(method.getName())) {
+                    return Optional.ofNullable(transaction);
+                }
+                throw new UnsupportedOperationException(method.getName());
+            }
+        );
+    }
+
+    private static <T> T proxy(Class<T> iface, String methodName, Object result) {
+        return iface.cast(Proxy.newProxyInstance(
+            SqlPersistenceImplTest.class.getClassLoader(),
+            new Class<?>[]{iface},
+            (proxy, method, args) -> {
+                if (method.getName().equals(methodName)) {
+                    return result;
+                }
+                throw new UnsupportedOperationException(method.getName());
+            }
+        ));
+    }
+
+    private static Project project(String... autoIncrementColumns) {
+        final Map<String, Object> pk = new HashMap<>();
+        pk.put(HasName.NAME, "id");
+
+        final Map<String, Object> table = new HashMap<>();
+        table.put(HasName.NAME, TABLE);
+        final List<Map<String, Object>> columns = Arrays.asList(
+            column("age", Integer.class, 3),
+            column("id", Integer.class, 1),
+            column("name", String.class, 2)
+        );
+        final List<String> autoIncrement = Arrays.asList(autoIncrementColumns);
+        columns.forEach(c -> c.put(Column.AUTO_INCREMENT, autoIncrement.contains(c.get(HasName.NAME))));
+        table.put(Table.COLUMNS, new ArrayList<>(columns));
+        table.put(Table.PRIMARY_KEY_COLUMNS, new ArrayList<>(singletonList(pk)));
+
+        final Map<String, Object> schema = new HashMap<>();
+        schema.put(HasName.NAME, SCHEMA);
+        schema.put(Schema.TABLES, new ArrayList<>(singletonList(table)));
+
+        final Map<String, Object> dbms = new HashMap<>();
+        dbms.put(HasName.NAME, DBMS);
+        dbms.put(Dbms.TYPE_NAME, "MockDb");
+        dbms.put(Dbms.SCHEMAS, new ArrayList<>(singletonList(schema)));
+
+        final Map<String, Object> project = new HashMap<>();
+        project.put(HasName.NAME, "project");
+        project.put(Project.DBMSES, new ArrayList<>(singletonList(dbms)));
+
+        return new ProjectImpl(project);
+    }
+
+    private static Map<String, Object> column(String name, Class<?> type, int ordinalPosition) {
+        final Map<String, Object> column = new HashMap<>();
+        column.put(HasName.NAME, name);
+        column.put(Column.DATABASE_TYPE, type.getName());
+        column.put(HasOrdinalPosition.ORDINAL_POSITION, ordinalPosition);
+        return column;
+    }
+
+    private static final class Point implements HasDirtyFields {
+
+        static final IntField<Point, Integer> ID = IntField.create(
+            ColumnIdentifier.of(DBMS, SCHEMA, TABLE, "id"),
+            Point::getId,
+            Point::setId,
+            TypeMapper.primitive(),
+            true
+        );
+
+        static final StringField<Point, String> NAME = StringField.create(
+            ColumnIdentifier.of(DBMS, SCHEMA, TABLE, "name"),
+            Point::getName,
+            Point::setName,
+            TypeMapper.identity(),
+            false
+        );
+
+        static final IntField<Point, Integer> AGE = IntField.create(
+            ColumnIdentifier.of(DBMS, SCHEMA, TABLE, "age"),
+            Point::getAge,
+            Point::setAge,
+            TypeMapper.primitive(),
+            false
+        );
+
+        private long dirtyFields;
+        private int id;
+        private String name;
+        private int age;
+
+        Point(int id, String name, int age) {
+            setId(id);
+            setName(name);
+            setAge(age);
+        }
+
+        @Override
+        public long dirtyFields() {
+            return dirtyFields;
+        }
+
+        @Override
+        public void clearDirtyFields() {
+            dirtyFields = 0;
+        }
+
+        int getId() {
+            return id;
+        }
+
+        void setId(int id) {
+            this.id = id;
+            this.dirtyFields |= 1L << 0;
+        }
+
+        String getName() {
+            return name;
+        }
+
+        void setName(String name) {
+            this.name = name;
+            this.dirtyFields |= 1L << 1;
+        }
+
+        int getAge() {
+            return age;
+        }
+
+        void setAge(int age) {
+            this.age = age;
+            this.dirtyFields |= 1L << 2;
+        }
+    }
+
+}
@@ -0,0 +1,152 @@
+/**
+ *
+ * Copyright (c) 2006-2018, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.internal.component.sql.optimizer;
+
+import com.speedment.runtime.core.component.sql.SqlStreamOptimizerInfo;
+import com.speedment.runtime.core.db.AsynchronousQueryResult;
+import com.speedment.runtime.core.db.SqlFunction;
+import com.speedment.runtime.core.internal.db.AsynchronousQueryResultImpl;
+import com.speedment.runtime.core.internal.stream.builder.action.reference.MapAction;
+import com.speedment.runtime.core.internal.stream.builder.action.reference.MapToIntAction;
+import com.speedment.runtime.core.internal.stream.builder.action.reference.SkipAction;
+import com.speedment.runtime.core.internal.stream.builder.pipeline.PipelineImpl;
+import com.speedment.runtime.core.stream.action.Action;
+import com.speedment.runtime.core.stream.parallel.ParallelStrategy;
+import com.speedment.runtime.test_support.MockDbmsType;
+import com.speedment.runtime.test_support.MockEntity;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Per Minborg
+ */
+public class ColumnProjectionOptimizerTest {
+
+    private static final String SELECT = "SELECT `id`,`name` FROM `mock_entity`";
+    private static final String SELECT_COUNT = "SELECT COUNT(*) FROM `mock_entity`";
+    private static final SqlFunction<ResultSet, MockEntity> ENTITY_MAPPER = rs -> new MockEntity(1);
+    private static final SqlFunction<ResultSet, Object> COLUMN_READER = rs -> 1;
+
+    private ColumnProjectionOptimizer<MockEntity> instance;
+    private AsynchronousQueryResult<MockEntity> query;
+    private SqlStreamOptimizerInfo<MockEntity> info;
+
+    @Before
+    public void setUp() {
+        instance = new ColumnProjectionOptimizer<>(f -> Optional.of(COLUMN_READER));
+        query = new AsynchronousQueryResultImpl<>(
+            SELECT + " WHERE (`id` = ?)",
+            new ArrayList<>(),
+            ENTITY_MAPPER,
+            () -> null,
+            ParallelStrategy.computeIntensityDefault(),
+            st -> {},
+            rs -> {}
+        );
+        info = SqlStreamOptimizerInfo.of(
+            new MockDbmsType(),
+            SELECT,
+            SELECT_COUNT,
+            (sql, l) -> 1L,
+            f -> "`" + f.identifier().getColumnId() + "`",
+            f -> Object.class
+        );
+    }
+
+    @Test
+    public void testMap() {
+        final PipelineImpl<?> pipeline = pipelineOf(new MapAction<>(MockEntity.NAME));
+        instance.optimize(pipeline, info, query);
+        assertEquals("SELECT `name` FROM `mock_entity` WHERE (`id` = ?)", query.getSql());
+        assertSame(COLUMN_READER, query.getRsMapper());
+        assertTrue(pipeline.isEmpty());
+    }
+
+    @Test
+    public void testMapToIntAfterSkip() {
+        final SkipAction<MockEntity> skip = new SkipAction<>(1);
+        final PipelineImpl<?> pipeline = pipelineOf(skip, new MapToIntAction<>(MockEntity.ID));
+        pipeline.setInitialSupplier(() -> Stream.of(1, 2, 3));
+        instance.optimize(pipeline, info, query);
+        assertEquals("SELECT `id` FROM `mock_entity` WHERE (`id` = ?)", query.getSql());
+        assertEquals(2, pipeline.size());
+        assertSame(skip, pipeline.getFirst());
+        assertEquals(5, pipeline.getAsIntStream().sum());
+    }
+
+    @Test
+    public void testNonFieldMapper() {
+        final PipelineImpl<?> pipeline = pipelineOf(new MapAction<MockEntity, String>(MockEntity::getName));
+        instance.optimize(pipeline, info, query);
+        assertUnchanged(pipeline);
+    }
+
+    @Test
+    public void testFieldOfOtherTable() {
+        info = SqlStreamOptimizerInfo.of(
+            new MockDbmsType(), SELECT, SELECT_COUNT, (sql, l) -> 1L, f -> null, f -> Object.class
+        );
+        final PipelineImpl<?> pipeline = pipelineOf(new MapAction<>(MockEntity.NAME));
+        instance.optimize(pipeline, info, query);
+        assertUnchanged(pipeline);
+    }
+
+    @Test
+    public void testUnsupportedColumn() {
+        instance = new ColumnProjectionOptimizer<>(f -> Optional.empty());
+        final PipelineImpl<?> pipeline = pipelineOf(new MapAction<>(MockEntity.NAME));
+        instance.optimize(pipeline, info, query);
+        assertUnchanged(pipeline);
+    }
+
+    @Test
+    public void testRewrittenSelect() {
+        query.setSql("SELECT COUNT(*) FROM (" + SELECT + ")");
+        final PipelineImpl<?> pipeline = pipelineOf(new MapAction<>(MockEntity.NAME));
+        instance.optimize(pipeline, info, query);
+        assertEquals("SELECT COUNT(*) FROM (" + SELECT + ")", query.getSql());
+        assertEquals(1, pipeline.size());
+    }
+
+    @Test
+    public void testNone() {
+        final PipelineImpl<?> pipeline = pipelineOf(new MapAction<>(MockEntity.NAME));
+        ColumnProjectionOptimizer.<MockEntity>none().optimize(pipeline, info, query);
+        assertUnchanged(pipeline);
+    }
+
+    private void assertUnchanged(PipelineImpl<?> pipeline) {
+        assertEquals(SELECT + " WHERE (`id` = ?)", query.getSql());
+        assertSame(ENTITY_MAPPER, query.getRsMapper());
+        assertEquals(1, pipeline.size());
+    }
+
+    private static PipelineImpl<?> pipelineOf(Action<?, ?>... actions) {
+        final PipelineImpl<?> pipeline = new PipelineImpl<>(Stream::empty);
+        Stream.of(actions).forEachOrdered(pipeline::add);
+        return pipeline;
+    }
+
+}
@@ -0,0 +1,180 @@
+/**
+ *
+ * Copyright (c) 2006-2018, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.internal.component.sql.optimizer;
+
+import com.speedment.runtime.config.identifier.TableIdentifier;
+import com.speedment.runtime.core.component.cache.EntityCache;
+import com.speedment.runtime.core.component.cache.EntityCacheSettings;
+import com.speedment.runtime.core.db.AsynchronousQueryResult;
+import com.speedment.runtime.core.db.SqlFunction;
+import com.speedment.runtime.core.internal.component.cache.EntityCacheImpl;
+import com.speedment.runtime.core.internal.db.AsynchronousQueryResultImpl;
+import com.speedment.runtime.core.internal.stream.builder.action.reference.FilterAction;
+import com.speedment.runtime.core.internal.stream.builder.pipeline.PipelineImpl;
+import com.speedment.runtime.core.stream.parallel.ParallelStrategy;
+import com.speedment.runtime.test_support.MockEntity;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Per Minborg
+ */
+public class EntityCacheOptimizerTest {
+
+    private static final String SELECT = "SELECT `id`,`name` FROM `mock_entity`";
+
+    private EntityCache<MockEntity> cache;
+    private AsynchronousQueryResult<MockEntity> query;
+    private SqlFunction<ResultSet, MockEntity> entityMapper;
+    private boolean inTransaction;
+    private int sqlOptimizations;
+    private EntityCacheOptimizer<MockEntity> instance;
+
+    @Before
+    public void setUp() {
+        cache = new EntityCacheImpl<>(
+            TableIdentifier.of("db", "schema", "mock_entity"),
+            MockEntity.ID,
+            EntityCacheSettings.of(10)
+        );
+        entityMapper = rs -> new MockEntity(42);
+        query = new AsynchronousQueryResultImpl<>(
+            SELECT,
+            new ArrayList<>(),
+            entityMapper,
+            () -> null,
+            ParallelStrategy.computeIntensityDefault(),
+            st -> {},
+            rs -> {}
+        );
+        inTransaction = false;
+        sqlOptimizations = 0;
+        instance = new EntityCacheOptimizer<>(
+            () -> Optional.of(cache),
+            () -> inTransaction,
+            e -> new MockEntity(e.getId()).setName(e.getName())
+        );
+    }
+
+    @Test
+    public void testHit() throws Exception {
+        final MockEntity entity = new MockEntity(42);
+        cache.put(entity);
+        final PipelineImpl<MockEntity> pipeline = pipelineOf(new FilterAction<>(MockEntity.ID.equal(42)));
+        instance.optimize(pipeline, query, this::sqlOptimize);
+        assertEquals(0, sqlOptimizations);
+        assertEquals(1, pipeline.size());
+        final MockEntity found = pipeline.getAsReferenceStream().findAny().get();
+        assertNotSame(entity, found);
+        assertEquals(42, found.getId());
+        assertEquals("Name42", found.getName());
+    }
+
+    @Test
+    public void testModifiedHitDoesNotAffectCache() throws Exception {
+        cache.put(new MockEntity(42));
+        final PipelineImpl<MockEntity> pipeline = pipelineOf(new FilterAction<>(MockEntity.ID.equal(42)));
+        instance.optimize(pipeline, query, this::sqlOptimize);
+        pipeline.getAsReferenceStream().findAny().get().setName("Modified");
+        assertEquals("Name42", cache.get(42).get().getName());
+    }
+
+    @Test
+    public void testMissPopulatesCache() throws Exception {
+        final PipelineImpl<MockEntity> pipeline = pipelineOf(new FilterAction<>(MockEntity.ID.equal(42)));
+        instance.optimize(pipeline, query, this::sqlOptimize);
+        assertEquals(1, sqlOptimizations);
+        assertNotSame(entityMapper, query.getRsMapper());
+
+        final MockEntity read = query.getRsMapper().apply(null);
+        final MockEntity cached = cache.get(42).get();
+        assertNotSame(read, cached);
+        assertEquals(read.getName(), cached.getName());
+
+        read.setName("Modified");
+        assertEquals("Name42", cache.get(42).get().getName());
+    }
+
+    @Test
+    public void testMissInvalidatedWhileReadingDoesNotPopulateCache() throws Exception {
+        final PipelineImpl<MockEntity> pipeline = pipelineOf(new FilterAction<>(MockEntity.ID.equal(42)));
+        instance.optimize(pipeline, query, this::sqlOptimize);
+        cache.invalidateKey(42); // A concurrent update of the entity
+        query.getRsMapper().apply(null);
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testMissOfOtherKeyDoesNotPopulateCache() throws Exception {
+        final PipelineImpl<MockEntity> pipeline = pipelineOf(new FilterAction<>(MockEntity.ID.equal(1)));
+        instance.optimize(pipeline, query, this::sqlOptimize);
+        query.getRsMapper().apply(null);
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testNotKeyLookup() {
+        cache.put(new MockEntity(42));
+        assertNotOptimized(pipelineOf(new FilterAction<>(MockEntity.ID.greaterThan(41))));
+        assertNotOptimized(pipelineOf(new FilterAction<>(MockEntity.NAME.equal("a"))));
+        assertNotOptimized(pipelineOf(new FilterAction<MockEntity>(e -> e.getId() == 42)));
+        assertNotOptimized(pipelineOf());
+    }
+
+    @Test
+    public void testBypassedInTransaction() {
+        cache.put(new MockEntity(42));
+        inTransaction = true;
+        assertNotOptimized(pipelineOf(new FilterAction<>(MockEntity.ID.equal(42))));
+    }
+
+    @Test
+    public void testNone() {
+        cache.put(new MockEntity(42));
+        instance = EntityCacheOptimizer.none();
+        assertNotOptimized(pipelineOf(new FilterAction<>(MockEntity.ID.equal(42))));
+    }
+
+    private void assertNotOptimized(PipelineImpl<MockEntity> pipeline) {
+        sqlOptimizations = 0;
+        instance.optimize(pipeline, query, this::sqlOptimize);
+        assertEquals(1, sqlOptimizations);
+        assertSame(entityMapper, query.getRsMapper());
+        assertEquals(0, pipeline.getAsReferenceStream().count());
+    }
+
+    private <P> P sqlOptimize(P pipeline) {
+        sqlOptimizations++;
+        return pipeline;
+    }
+
+    @SafeVarargs
+    private static PipelineImpl<MockEntity> pipelineOf(FilterAction<MockEntity>... actions) {
+        final PipelineImpl<MockEntity> pipeline = new PipelineImpl<>(Stream::empty);
+        Stream.of(actions).forEachOrdered(pipeline::add);
+        return pipeline;
+    }
+
+}
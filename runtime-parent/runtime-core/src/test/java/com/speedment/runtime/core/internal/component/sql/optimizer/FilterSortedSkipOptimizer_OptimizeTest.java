@@ -16,6 +16,7 @@
  */
 package com.speedment.runtime.core.internal.component.sql.optimizer;
 
+import com.speedment.runtime.compute.ToInt;
 import com.speedment.runtime.core.component.sql.SqlStreamOptimizerInfo;
 import com.speedment.runtime.core.db.AsynchronousQueryResult;
 import com.speedment.runtime.core.db.DbmsType;
@@ -26,6 +27,8 @@ import com.speedment.runtime.core.internal.stream.builder.action.reference.PeekA
 import com.speedment.runtime.core.internal.stream.builder.action.reference.SkipAction;
 import com.speedment.runtime.core.internal.stream.builder.action.reference.SortedComparatorAction;
 import com.speedment.runtime.core.internal.stream.builder.pipeline.PipelineImpl;
+import com.speedment.runtime.core.stream.KeysetCursor;
+import com.speedment.runtime.core.stream.KeysetPagination;
 import com.speedment.runtime.core.stream.Pipeline;
 import com.speedment.runtime.core.stream.action.Action;
 import com.speedment.runtime.core.stream.parallel.ParallelStrategy;
@@ -33,12 +36,17 @@ import com.speedment.runtime.test_support.MockDbmsType;
 import com.speedment.runtime.test_support.MockEntity;
 import com.speedment.runtime.test_support.MockEntityUtil;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.function.Supplier;
 import java.util.stream.BaseStream;
 import java.util.stream.Stream;
 import org.junit.Before;
 import org.junit.Test;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
 /**
  *
  * @author Per Minborg
@@ -94,6 +102,54 @@ public class FilterSortedSkipOptimizer_OptimizeTest {
         printInfo("After", newPipeline, asynchronousQueryResult);
     }
 
+    @Test
+    public void testKeysetPage() {
+        final KeysetPagination<MockEntity> pagination = KeysetPagination.of(MockEntity.NAME.comparator().thenComparing(MockEntity.ID));
+        final Pipeline pipeline = pipelineOf(
+            new FilterAction<>(pagination.after(KeysetCursor.of(Arrays.asList("Name1", 1)))),
+            new SortedComparatorAction<>(pagination.comparator()),
+            new LimitAction<>(10)
+        );
+        final Pipeline newPipeline = instance.optimize(pipeline, sqlStreamOptimizerInfo, asynchronousQueryResult);
+        printInfo("After", newPipeline, asynchronousQueryResult);
+        assertTrue(newPipeline.isEmpty());
+        final String sql = asynchronousQueryResult.getSql();
+        assertTrue(sql, sql.contains(" WHERE ((name > ?) OR ((name = ?) AND (id > ?)))"));
+        assertTrue(sql, sql.contains(" ORDER BY name ASC, id ASC"));
+        assertEquals(Arrays.asList("Name1", "Name1", 1, 10L), asynchronousQueryResult.getValues());
+    }
+
+    @Test
+    public void testSortedExpression() {
+        final SqlStreamOptimizerInfo<MockEntity> info = SqlStreamOptimizerInfo.of(
+            DBMS_TYPE,
+            "SELECT id, name from mock_entity",
+            "SELECT count(*) from mock_entity",
+            (sql, l) -> 1L,
+            f -> f.identifier().getColumnId(),
+            f -> MockEntity.ID.equals(f) ? Integer.class : String.class
+        );
+        final Pipeline pipeline = pipelineOf(
+            FILTER_ACTION,
+            new SortedComparatorAction<>(MockEntity.ID.negate()),
+            SKIP_ACTION
+        );
+        assertEquals(3, instance.metrics(pipeline, DBMS_TYPE).getPipelineReductions());
+        final Pipeline newPipeline = instance.optimize(pipeline, info, asynchronousQueryResult);
+        assertTrue(newPipeline.isEmpty());
+        final String sql = asynchronousQueryResult.getSql();
+        assertTrue(sql, sql.contains(" ORDER BY (-id) ASC"));
+    }
+
+    @Test
+    public void testSortedUnsupportedExpression() {
+        final ToInt<MockEntity> lambda = MockEntity::getId;
+        final Pipeline pipeline = pipelineOf(FILTER_ACTION, new SortedComparatorAction<>(lambda), SKIP_ACTION);
+        final Pipeline newPipeline = instance.optimize(pipeline, sqlStreamOptimizerInfo, asynchronousQueryResult);
+        assertEquals(2, newPipeline.size());
+        assertFalse(asynchronousQueryResult.getSql().contains("ORDER BY"));
+    }
+
     private Pipeline pipelineOf(Action<?, ?>... actions) {
         return Stream.of(actions)
             .collect(
@@ -37,6 +37,8 @@ import com.speedment.runtime.core.component.sql.override.reference.SpliteratorTe
 import com.speedment.runtime.core.component.sql.override.reference.ToArrayGeneratorTerminator;
 import com.speedment.runtime.core.component.sql.override.reference.ToArrayTerminator;
 import com.speedment.runtime.core.internal.component.sql.override.optimized.reference.OptimizedCountTerminator;
+import com.speedment.runtime.core.internal.component.sql.override.optimized.reference.OptimizedMaxTerminator;
+import com.speedment.runtime.core.internal.component.sql.override.optimized.reference.OptimizedMinTerminator;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.util.stream.Stream;
@@ -61,7 +63,10 @@ public class SqlStreamTerminatorComponentImplTest {
     @Test
     public void testGetters() {
         referenceTerminators()
-            .filter(c -> !CountTerminator.class.equals(c)) // Count is optimized by default. Test separately
+            // Count, min and max are optimized by default. Test separately
+            .filter(c -> !CountTerminator.class.equals(c))
+            .filter(c -> !MinTerminator.class.equals(c))
+            .filter(c -> !MaxTerminator.class.equals(c))
             .forEach(this::testGetter);
     }
 
@@ -73,6 +78,22 @@ public class SqlStreamTerminatorComponentImplTest {
         );
     }
 
+    @Test
+    public void testGetMinTerminator() {
+        assertEquals(
+            OptimizedMinTerminator.create().getClass().getName(),
+            instance.getMinTerminator().getClass().getName()
+        );
+    }
+
+    @Test
+    public void testGetMaxTerminator() {
+        assertEquals(
+            OptimizedMaxTerminator.create().getClass().getName(),
+            instance.getMaxTerminator().getClass().getName()
+        );
+    }
+
     @Test
     public void testSetters() {
         referenceTerminators()
@@ -0,0 +1,300 @@
+/**
+ *
+ * Copyright (c) 2006-2018, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.internal.component.sql.override.optimized.util;
+
+import com.speedment.runtime.core.component.sql.SqlStreamOptimizerInfo;
+import com.speedment.runtime.core.db.AsynchronousQueryResult;
+import com.speedment.runtime.core.db.SqlFunction;
+import com.speedment.runtime.core.internal.component.sql.SqlStreamOptimizerComponentImpl;
+import com.speedment.runtime.core.internal.component.sql.override.SqlStreamTerminatorComponentImpl;
+import com.speedment.runtime.core.internal.manager.sql.SqlStreamTerminator;
+import com.speedment.runtime.core.internal.stream.builder.action.ints.IntDistinctAction;
+import com.speedment.runtime.core.internal.stream.builder.action.reference.DistinctAction;
+import com.speedment.runtime.core.internal.stream.builder.action.reference.FilterAction;
+import com.speedment.runtime.core.internal.stream.builder.action.reference.MapAction;
+import com.speedment.runtime.core.internal.stream.builder.action.reference.MapToIntAction;
+import com.speedment.runtime.core.internal.stream.builder.action.reference.SkipAction;
+import com.speedment.runtime.core.internal.stream.builder.action.reference.SortedComparatorAction;
+import com.speedment.runtime.core.internal.stream.builder.pipeline.PipelineImpl;
+import com.speedment.runtime.core.stream.action.Action;
+import com.speedment.runtime.test_support.MockDbmsType;
+import com.speedment.runtime.test_support.MockEntity;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IntSummaryStatistics;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalDouble;
+import java.util.OptionalInt;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Per Minborg
+ */
+public class AggregateUtilTest {
+
+    private static final String SELECT = "SELECT `id`,`name` FROM `mock_entity`";
+    private static final String SELECT_COUNT = "SELECT COUNT(*) FROM `mock_entity`";
+
+    private Map<Integer, Object> row;
+    private FakeQueryResult query;
+    private String executedSql;
+    private SqlStreamOptimizerInfo<MockEntity> info;
+    private SqlStreamTerminator<MockEntity> terminator;
+
+    @Before
+    public void setUp() {
+        row = new HashMap<>();
+        query = new FakeQueryResult();
+        info = SqlStreamOptimizerInfo.of(
+            new MockDbmsType(),
+            SELECT,
+            SELECT_COUNT,
+            (sql, l) -> 1L,
+            f -> "`" + f.identifier().getColumnId() + "`",
+            f -> MockEntity.ID.equals(f) ? Integer.class : String.class,
+            new SqlStreamOptimizerInfo.QueryExecutor() {
+                @Override
+                public <T> Stream<T> executeQuery(String sql, List<Object> values, SqlFunction<ResultSet, T> rsMapper) {
+                    executedSql = sql;
+                    try {
+                        return Stream.of(rsMapper.apply(resultSet()));
+                    } catch (SQLException e) {
+                        throw new RuntimeException(e);
+                    }
+                }
+            }
+        );
+        terminator = new SqlStreamTerminator<>(
+            info,
+            query,
+            new SqlStreamOptimizerComponentImpl(),
+            new SqlStreamTerminatorComponentImpl(),
+            false
+        );
+    }
+
+    @Test
+    public void testIntSum() {
+        row.put(1, new BigDecimal(42));
+        final PipelineImpl<?> pipeline = pipelineOf(
+            new FilterAction<>(MockEntity.ID.greaterThan(1)),
+            new SortedComparatorAction<>(MockEntity.NAME.comparator()),
+            new MapToIntAction<>(MockEntity.ID)
+        );
+        assertEquals(Optional.of(42), AggregateUtil.intSum(info, terminator, pipeline));
+        assertTrue(executedSql.startsWith("SELECT SUM(`id`) FROM `mock_entity` WHERE "));
+        assertFalse(executedSql.contains("ORDER BY"));
+        assertTrue(pipeline.isEmpty());
+    }
+
+    @Test
+    public void testIntSumOfNoRows() {
+        row.put(1, null);
+        final PipelineImpl<?> pipeline = pipelineOf(new MapToIntAction<>(MockEntity.ID));
+        assertEquals(Optional.of(0), AggregateUtil.intSum(info, terminator, pipeline));
+        assertEquals("SELECT SUM(`id`) FROM `mock_entity`", executedSql);
+    }
+
+    @Test
+    public void testIntMaxUsingSubSelect() {
+        row.put(1, null);
+        final PipelineImpl<?> pipeline = pipelineOf(
+            new SkipAction<>(1),
+            new MapToIntAction<>(MockEntity.ID)
+        );
+        assertEquals(Optional.of(OptionalInt.empty()), AggregateUtil.intMax(info, terminator, pipeline));
+        assertTrue(executedSql, executedSql.startsWith("SELECT MAX(`id`) FROM (" + SELECT));
+    }
+
+    @Test
+    public void testIntAverage() {
+        row.put(1, 4L);
+        row.put(2, new BigDecimal(10));
+        final PipelineImpl<?> pipeline = pipelineOf(new MapToIntAction<>(MockEntity.ID));
+        assertEquals(Optional.of(OptionalDouble.of(2.5)), AggregateUtil.intAverage(info, terminator, pipeline));
+        assertEquals("SELECT COUNT(*), SUM(`id`) FROM `mock_entity`", executedSql);
+    }
+
+    @Test
+    public void testIntSummaryStatistics() {
+        row.put(1, 2L);
+        row.put(2, new BigDecimal(5));
+        row.put(3, 1);
+        row.put(4, 4);
+        final PipelineImpl<?> pipeline = pipelineOf(new MapToIntAction<>(MockEntity.ID));
+        final Optional<IntSummaryStatistics> result = AggregateUtil.intSummaryStatistics(info, terminator, pipeline);
+        if (result.isPresent()) {
+            assertEquals("SELECT COUNT(*), SUM(`id`), MIN(`id`), MAX(`id`) FROM `mock_entity`", executedSql);
+            assertEquals(2, result.get().getCount());
+            assertEquals(5, result.get().getSum());
+            assertEquals(1, result.get().getMin());
+            assertEquals(4, result.get().getMax());
+        } else {
+            // Not supported before Java 10
+            assertEquals(1, pipeline.size());
+            assertEquals(SELECT, query.getSql());
+        }
+    }
+
+    @Test
+    public void testIntSumOfExpression() {
+        row.put(1, new BigDecimal(42));
+        final PipelineImpl<?> pipeline = pipelineOf(
+            new FilterAction<>(MockEntity.ID.greaterThan(1)),
+            new MapToIntAction<>(MockEntity.ID.multiply(2).plus(1))
+        );
+        assertEquals(Optional.of(42), AggregateUtil.intSum(info, terminator, pipeline));
+        assertTrue(executedSql, executedSql.startsWith("SELECT SUM(((`id` * 2) + 1)) FROM `mock_entity` WHERE "));
+        assertTrue(pipeline.isEmpty());
+    }
+
+    @Test
+    public void testNonFieldMapper() {
+        final PipelineImpl<?> pipeline = pipelineOf(new MapToIntAction<MockEntity>(MockEntity::getId));
+        assertFalse(AggregateUtil.intSum(info, terminator, pipeline).isPresent());
+        assertEquals(1, pipeline.size());
+        assertEquals(SELECT, query.getSql());
+    }
+
+    @Test
+    public void testNotPushable() {
+        final MapToIntAction<MockEntity> map = new MapToIntAction<>(MockEntity.ID);
+        final PipelineImpl<?> pipeline = pipelineOf(
+            new FilterAction<MockEntity>(e -> e.getId() > 1),
+            map
+        );
+        assertFalse(AggregateUtil.intSum(info, terminator, pipeline).isPresent());
+        assertEquals(2, pipeline.size());
+        assertSame(map, pipeline.getLast());
+    }
+
+    @Test
+    public void testDistinctCount() {
+        row.put(1, 3L);
+        final PipelineImpl<?> pipeline = pipelineOf(
+            new MapToIntAction<>(MockEntity.ID),
+            new IntDistinctAction()
+        );
+        assertEquals(3L, AggregateUtil.distinctCount(info, terminator, pipeline).getAsLong());
+        assertEquals(
+            "SELECT COUNT(DISTINCT `id`) + COUNT(DISTINCT CASE WHEN `id` IS NULL THEN 1 END) FROM `mock_entity`",
+            executedSql
+        );
+    }
+
+    @Test
+    public void testDistinctCountOfString() {
+        final PipelineImpl<?> pipeline = pipelineOf(
+            new MapAction<>(MockEntity.NAME),
+            new DistinctAction<>()
+        );
+        assertFalse(AggregateUtil.distinctCount(info, terminator, pipeline).isPresent());
+        assertEquals(2, pipeline.size());
+    }
+
+    private static PipelineImpl<?> pipelineOf(Action<?, ?>... actions) {
+        final PipelineImpl<?> pipeline = new PipelineImpl<>(Stream::empty);
+        Stream.of(actions).forEachOrdered(pipeline::add);
+        return pipeline;
+    }
+
+    private ResultSet resultSet() {
+        final Object[] lastValue = new Object[1];
+        return (ResultSet) Proxy.newProxyInstance(
+            AggregateUtilTest.class.getClassLoader(),
+            new Class<?>[]{ResultSet.class},
+            (proxy, method, args) -> {
+                if ("wasNull".equals(method.getName())) {
+                    return lastValue[0] == null;
+                }
+                lastValue[0] = row.get((Integer) args[0]);
+                switch (method.getName()) {
+                    case "getInt":
+                        return lastValue[0] == null ? 0 : ((Number) lastValue[0]).intValue();
+                    case "getLong":
+                        return lastValue[0] == null ? 0L : ((Number) lastValue[0]).longValue();
+                    case "getBigDecimal":
+                        return lastValue[0];
+                    default:
+                        throw new UnsupportedOperationException(method.getName());
+                }
+            }
+        );
+    }
+
+    private final class FakeQueryResult implements AsynchronousQueryResult<MockEntity> {
+
+        private String sql = SELECT;
+        private List<?> values = new ArrayList<>();
+        private SqlFunction<ResultSet, MockEntity> rsMapper = rs -> new MockEntity(1);
+
+        @Override
+        public Stream<MockEntity> stream() {
+            try {
+                return Stream.of(rsMapper.apply(resultSet()));
+            } catch (SQLException e) {
+                throw new RuntimeException(e);
+            }
+        }
+
+        @Override
+        public void close() {}
+
+        @Override
+        public String getSql() {
+            return sql;
+        }
+
+        @Override
+        public void setSql(String sql) {
+            this.sql = sql;
+        }
+
+        @Override
+        public List<?> getValues() {
+            return values;
+        }
+
+        @Override
+        public void setValues(List<?> values) {
+            this.values = values;
+        }
+
+        @Override
+        public SqlFunction<ResultSet, MockEntity> getRsMapper() {
+            return rsMapper;
+        }
+
+        @Override
+        public void setRsMapper(SqlFunction<ResultSet, MockEntity> rsMapper) {
+            this.rsMapper = rsMapper;
+        }
+    }
+
+}
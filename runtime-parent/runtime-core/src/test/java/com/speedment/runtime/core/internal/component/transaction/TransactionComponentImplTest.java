@@ -0,0 +1,155 @@
+/**
+ *
+ * Copyright (c) 2006-2018, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.internal.component.transaction;
+
+import com.speedment.runtime.core.component.transaction.TransactionComponent;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static java.util.stream.Collectors.toSet;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Per Minborg
+ */
+public class TransactionComponentImplTest {
+
+    private static final Object TX = "tx";
+    private static final Object OTHER_TX = "otherTx";
+
+    private TransactionComponent instance;
+    private ExecutorService executor;
+
+    @Before
+    public void setup() {
+        instance = new TransactionComponentImpl();
+        executor = Executors.newSingleThreadExecutor();
+    }
+
+    @After
+    public void tearDown() {
+        instance.remove(Thread.currentThread());
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testPutGetRemove() {
+        final Thread thread = Thread.currentThread();
+        assertEquals(Optional.empty(), instance.get(thread));
+        instance.put(thread, TX);
+        assertEquals(Optional.of(TX), instance.get(thread));
+        assertTrue(instance.threads(TX).anyMatch(thread::equals));
+        instance.remove(thread);
+        assertEquals(Optional.empty(), instance.get(thread));
+        assertEquals(0, instance.threads(TX).count());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testPutTwice() {
+        instance.put(Thread.currentThread(), TX);
+        instance.put(Thread.currentThread(), OTHER_TX);
+    }
+
+    @Test
+    public void testForeignPut() throws Exception {
+        final Thread worker = executor.submit(Thread::currentThread).get();
+        instance.put(worker, TX);
+        assertEquals(Optional.of(TX), instance.get(worker));
+        assertEquals(Optional.of(TX), executor.submit(() -> instance.get(Thread.currentThread())).get());
+        // The worker has now adopted the txObject
+        assertEquals(Optional.of(TX), instance.get(worker));
+        assertEquals(Optional.empty(), instance.get(Thread.currentThread()));
+        instance.remove(worker);
+        assertEquals(Optional.empty(), instance.get(worker));
+        assertEquals(Optional.empty(), executor.submit(() -> instance.get(Thread.currentThread())).get());
+    }
+
+    @Test
+    public void testThreads() throws Exception {
+        final Thread worker = executor.submit(Thread::currentThread).get();
+        instance.put(Thread.currentThread(), TX);
+        instance.put(worker, TX);
+        assertEquals(2, instance.threads(TX).collect(toSet()).size());
+        instance.remove(worker);
+        assertEquals(1, instance.threads(TX).count());
+    }
+
+    @Test
+    public void testPropagateRunnable() throws Exception {
+        final Runnable unchanged = () -> {};
+        assertSame(unchanged, instance.propagate(unchanged));
+
+        instance.put(Thread.currentThread(), TX);
+        final Object[] seen = new Object[1];
+        executor.submit(instance.propagate(() -> {
+            seen[0] = instance.get(Thread.currentThread()).orElse(null);
+        })).get();
+        assertEquals(TX, seen[0]);
+        // The association is removed when the task completes
+        assertEquals(Optional.empty(), executor.submit(() -> instance.get(Thread.currentThread())).get());
+        assertEquals(1, instance.threads(TX).count());
+    }
+
+    @Test
+    public void testPropagateInSameThread() throws Exception {
+        instance.put(Thread.currentThread(), TX);
+        assertEquals(Optional.of(TX), instance.propagate((Callable<Optional<Object>>) () -> instance.get(Thread.currentThread())).call());
+        // The association of the calling thread is retained
+        assertEquals(Optional.of(TX), instance.get(Thread.currentThread()));
+    }
+
+    @Test
+    public void testPropagateToBusyThread() throws Exception {
+        final Thread worker = executor.submit(Thread::currentThread).get();
+        instance.put(worker, OTHER_TX);
+        instance.put(Thread.currentThread(), TX);
+        final Future<?> future = executor.submit(instance.propagate(() -> {}));
+        try {
+            future.get();
+            fail("Expected an exception");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof IllegalStateException);
+        }
+        assertEquals(Optional.of(OTHER_TX), instance.get(worker));
+        instance.remove(worker);
+    }
+
+    @Test
+    public void testCompletableFuture() throws Exception {
+        instance.put(Thread.currentThread(), TX);
+        final Optional<Object> result = CompletableFuture
+            .supplyAsync(() -> instance.get(Thread.currentThread()), instance.propagating(executor))
+            .get();
+        assertEquals(Optional.of(TX), result);
+
+        final Optional<Object> supplied = CompletableFuture
+            .supplyAsync(instance.propagateSupplier(() -> instance.get(Thread.currentThread())), executor)
+            .get();
+        assertEquals(Optional.of(TX), supplied);
+    }
+
+}
@@ -0,0 +1,214 @@
+/**
+ *
+ * Copyright (c) 2006-2018, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.internal.db;
+
+import com.speedment.runtime.config.Dbms;
+import com.speedment.runtime.config.internal.DbmsImpl;
+import com.speedment.runtime.config.trait.HasName;
+import com.speedment.runtime.core.component.DbmsHandlerComponent;
+import com.speedment.runtime.core.component.connectionpool.ConnectionPoolComponent;
+import com.speedment.runtime.core.component.connectionpool.PoolableConnection;
+import com.speedment.runtime.core.db.DbmsType;
+import com.speedment.runtime.core.db.RetryMetrics;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Proxy;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Optional;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Per Minborg
+ */
+public class AbstractDbmsOperationHandlerTest {
+
+    private static final String SQL = "UPDATE `s`.`t` SET `a` = 1";
+
+    private AbstractDbmsOperationHandler instance;
+    private Dbms dbms;
+    private int failures;
+    private String failureSqlState;
+    private int connectionCount;
+    private int closeCount;
+    private int rollbackCount;
+    private int commitCount;
+
+    @Before
+    public void setup() throws Exception {
+        failures = 0;
+        failureSqlState = "40P01";
+
+        final Map<String, Object> data = new HashMap<>();
+        data.put(HasName.NAME, "db");
+        data.put(Dbms.TYPE_NAME, "MockDb");
+        dbms = new DbmsImpl(null, data);
+
+        final DbmsType dbmsType = proxy(DbmsType.class, (method, args) -> {
+            if ("getRetryableSqlStates".equals(method)) {
+                return new HashSet<>(asList("40001", "40P01"));
+            }
+            throw new UnsupportedOperationException(method);
+        });
+
+        instance = new AbstractDbmsOperationHandler() {};
+        inject("connectionPoolComponent", proxy(ConnectionPoolComponent.class, (method, args) -> {
+            if ("getConnection".equals(method)) {
+                connectionCount++;
+                return connection();
+            }
+            throw new UnsupportedOperationException(method);
+        }));
+        inject("dbmsHandlerComponent", proxy(DbmsHandlerComponent.class, (method, args) -> {
+            if ("findByName".equals(method)) {
+                return Optional.of(dbmsType);
+            }
+            throw new UnsupportedOperationException(method);
+        }));
+        inject("retryPolicy", new ExponentialBackoffRetryPolicy(3, Duration.ZERO, Duration.ZERO));
+    }
+
+    @Test
+    public void testNoFailure() throws SQLException {
+        instance.executeUpdate(dbms, SQL, emptyList());
+        assertEquals(1, connectionCount);
+        assertEquals(1, commitCount);
+        assertEquals(1, closeCount);
+        assertMetrics(0, 0, 0);
+    }
+
+    @Test
+    public void testRecovered() throws SQLException {
+        failures = 2;
+        instance.executeUpdate(dbms, SQL, emptyList());
+        assertEquals("Each attempt shall use a new connection", 3, connectionCount);
+        assertEquals(2, rollbackCount);
+        assertEquals(1, commitCount);
+        assertEquals(3, closeCount);
+        assertMetrics(2, 1, 0);
+    }
+
+    @Test
+    public void testExhausted() {
+        failures = Integer.MAX_VALUE;
+        try {
+            instance.executeUpdate(dbms, SQL, emptyList());
+            fail("Expected an exception");
+        } catch (SQLException expected) {
+            assertEquals("40P01", expected.getSQLState());
+        }
+        assertEquals(3, connectionCount);
+        assertEquals(3, rollbackCount);
+        assertEquals(0, commitCount);
+        assertEquals(3, closeCount);
+        assertMetrics(2, 0, 1);
+    }
+
+    @Test
+    public void testNotRetryable() {
+        failures = Integer.MAX_VALUE;
+        failureSqlState = "23000";
+        try {
+            instance.executeUpdate(dbms, SQL, emptyList());
+            fail("Expected an exception");
+        } catch (SQLException expected) {
+            assertEquals("23000", expected.getSQLState());
+        }
+        assertEquals(1, connectionCount);
+        assertEquals(1, closeCount);
+        assertMetrics(0, 0, 0);
+    }
+
+    @Test
+    public void testRetryableCause() throws SQLException {
+        failures = 1;
+        failureSqlState = null;
+        instance.executeUpdate(dbms, SQL, emptyList());
+        assertEquals(2, connectionCount);
+        assertMetrics(1, 1, 0);
+    }
+
+    private void assertMetrics(long retries, long recovered, long exhausted) {
+        final RetryMetrics metrics = instance.retryMetrics();
+        assertEquals(retries, metrics.retryCount());
+        assertEquals(recovered, metrics.recoveredCount());
+        assertEquals(exhausted, metrics.exhaustedCount());
+    }
+
+    private PoolableConnection connection() {
+        return proxy(PoolableConnection.class, (method, args) -> {
+            switch (method) {
+                case "setAutoCommit": return null;
+                case "prepareStatement": return preparedStatement();
+                case "commit": commitCount++; return null;
+                case "rollback": rollbackCount++; return null;
+                case "close": closeCount++; return null;
+                default: throw new UnsupportedOperationException(method);
+            }
+        });
+    }
+
+    private PreparedStatement preparedStatement() {
+        return proxy(PreparedStatement.class, (method, args) -> {
+            switch (method) {
+                case "executeUpdate": {
+                    if (failures > 0) {
+                        failures--;
+                        if (failureSqlState == null) {
+                            throw new SQLException("Wrapped", "HY000", new SQLException("Deadlock", "40001"));
+                        }
+                        throw new SQLException("Simulated failure", failureSqlState);
+                    }
+                    return 1;
+                }
+                case "close": return null;
+                default: throw new UnsupportedOperationException(method);
+            }
+        });
+    }
+
+    private void inject(String fieldName, Object value) throws Exception {
+        final Field field = AbstractDbmsOperationHandler.class.getDeclaredField(fieldName);
+        field.setAccessible(true);
+        field.set(instance, value);
+    }
+
+    @FunctionalInterface
+    private interface Handler {
+        Object invoke(String method, Object[] args) throws Throwable;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> iface, Handler handler) {
+        return (T) Proxy.newProxyInstance(
+            AbstractDbmsOperationHandlerTest.class.getClassLoader(),
+            new Class<?>[]{iface},
+            (proxy, method, args) -> handler.invoke(method.getName(), args)
+        );
+    }
+
+}
@@ -0,0 +1,184 @@
+/**
+ *
+ * Copyright (c) 2006-2018, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.internal.db;
+
+import com.speedment.runtime.core.component.connectionpool.ConnectionPoolComponent;
+import com.speedment.runtime.core.component.transaction.DataSourceHandler;
+import com.speedment.runtime.core.component.transaction.TransactionComponent;
+import com.speedment.runtime.core.component.transaction.TransactionHandler;
+import com.speedment.runtime.core.internal.component.transaction.TransactionComponentImpl;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Measures the cost of creating a {@link ConnectionInfo} under load, both
+ * outside and inside a transaction, using the thread-local bookkeeping of
+ * {@link TransactionComponentImpl} and, for comparison, a component that keeps
+ * track of transactions in a map that is shared by all threads (the way
+ * {@code TransactionComponentImpl} did before 3.1.6).
+ * <p>
+ * Run using the {@link #main(String[])} method from the test class path.
+ *
+ * @author Per Minborg
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(16)
+public class ConnectionInfoBenchmark {
+
+    private static final TransactionComponent THREAD_LOCAL = new TransactionComponentImpl();
+    private static final TransactionComponent SHARED_MAP = new SharedMapTransactionComponent();
+
+    private final Connection connection = dummyConnection();
+    private ConnectionPoolComponent connectionPoolComponent;
+
+    @Setup
+    public void setup() {
+        connectionPoolComponent = (ConnectionPoolComponent) Proxy.newProxyInstance(
+            ConnectionInfoBenchmark.class.getClassLoader(),
+            new Class<?>[]{ConnectionPoolComponent.class},
+            (proxy, method, args) -> {
+                if ("getConnection".equals(method.getName())) {
+                    return connection;
+                }
+                throw new UnsupportedOperationException(method.getName());
+            }
+        );
+    }
+
+    @State(Scope.Thread)
+    public static class InTransaction {
+
+        private final Connection txConnection = dummyConnection();
+
+        @Setup
+        public void setup() {
+            THREAD_LOCAL.put(Thread.currentThread(), txConnection);
+            SHARED_MAP.put(Thread.currentThread(), txConnection);
+        }
+
+        @TearDown
+        public void tearDown() {
+            THREAD_LOCAL.remove(Thread.currentThread());
+            SHARED_MAP.remove(Thread.currentThread());
+        }
+    }
+
+    @Benchmark
+    public boolean sharedMapNoTransaction() {
+        return new ConnectionInfo(null, connectionPoolComponent, SHARED_MAP).isInTransaction();
+    }
+
+    @Benchmark
+    public boolean threadLocalNoTransaction() {
+        return new ConnectionInfo(null, connectionPoolComponent, THREAD_LOCAL).isInTransaction();
+    }
+
+    @Benchmark
+    public boolean sharedMapInTransaction(InTransaction tx) {
+        return new ConnectionInfo(null, connectionPoolComponent, SHARED_MAP).isInTransaction();
+    }
+
+    @Benchmark
+    public boolean threadLocalInTransaction(InTransaction tx) {
+        return new ConnectionInfo(null, connectionPoolComponent, THREAD_LOCAL).isInTransaction();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        final Options options = new OptionsBuilder()
+            .include(ConnectionInfoBenchmark.class.getSimpleName())
+            .build();
+
+        new Runner(options).run();
+    }
+
+    private static Connection dummyConnection() {
+        return (Connection) Proxy.newProxyInstance(
+            ConnectionInfoBenchmark.class.getClassLoader(),
+            new Class<?>[]{Connection.class},
+            (proxy, method, args) -> {
+                switch (method.getName()) {
+                    case "hashCode": return System.identityHashCode(proxy);
+                    case "equals": return proxy == args[0];
+                    case "toString": return "DummyConnection";
+                    default: return null;
+                }
+            }
+        );
+    }
+
+    /**
+     * The bookkeeping parts of the previous TransactionComponentImpl.
+     */
+    private static final class SharedMapTransactionComponent implements TransactionComponent {
+
+        private final Map<Thread, Object> txObjects = new ConcurrentHashMap<>();
+
+        @Override
+        public void put(Thread thread, Object txObject) {
+            if (txObjects.putIfAbsent(thread, txObject) != null) {
+                throw new IllegalStateException();
+            }
+        }
+
+        @Override
+        public Optional<Object> get(Thread thread) {
+            return Optional.ofNullable(txObjects.get(thread));
+        }
+
+        @Override
+        public void remove(Thread thread) {
+            txObjects.remove(thread);
+        }
+
+        @Override
+        public Stream<Thread> threads(Object txObject) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public TransactionHandler createTransactionHandler() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public <T> TransactionHandler creaateTransactionHandler(T dataSource) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public <D, T> void putDataSourceHandler(Class<D> dataSourceClass, DataSourceHandler<D, T> dataSourceHandler) {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+}
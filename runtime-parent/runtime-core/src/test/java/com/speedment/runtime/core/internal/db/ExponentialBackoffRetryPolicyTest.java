@@ -0,0 +1,76 @@
+/**
+ *
+ * Copyright (c) 2006-2018, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.internal.db;
+
+import com.speedment.runtime.core.db.RetryPolicy;
+import org.junit.Test;
+
+import java.time.Duration;
+
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Per Minborg
+ */
+public class ExponentialBackoffRetryPolicyTest {
+
+    @Test
+    public void testBackoff() {
+        final ExponentialBackoffRetryPolicy policy = new ExponentialBackoffRetryPolicy(
+            10, Duration.ofMillis(10), Duration.ofMillis(100), () -> 1.0
+        );
+        assertEquals(10, policy.getMaxAttempts());
+        assertEquals(Duration.ofMillis(10), policy.getDelay(1));
+        assertEquals(Duration.ofMillis(20), policy.getDelay(2));
+        assertEquals(Duration.ofMillis(80), policy.getDelay(4));
+        assertEquals(Duration.ofMillis(100), policy.getDelay(5));
+        assertEquals(Duration.ofMillis(100), policy.getDelay(Integer.MAX_VALUE));
+    }
+
+    @Test
+    public void testJitter() {
+        final ExponentialBackoffRetryPolicy policy = new ExponentialBackoffRetryPolicy(
+            10, Duration.ofMillis(10), Duration.ofMillis(100), () -> 0.25
+        );
+        assertEquals(Duration.ofMillis(5), policy.getDelay(2));
+
+        final RetryPolicy random = RetryPolicy.exponentialBackoff(10, Duration.ofMillis(10), Duration.ofMillis(100));
+        for (int i = 0; i < 100; i++) {
+            final Duration delay = random.getDelay(3);
+            assertFalse(delay.isNegative());
+            assertTrue(delay.compareTo(Duration.ofMillis(40)) <= 0);
+        }
+    }
+
+    @Test
+    public void testNone() {
+        assertEquals(1, RetryPolicy.none().getMaxAttempts());
+        assertEquals(Duration.ZERO, RetryPolicy.none().getDelay(100));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testIllegalMaxAttempts() {
+        RetryPolicy.exponentialBackoff(0, Duration.ZERO, Duration.ZERO);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testIllegalMaxDelay() {
+        RetryPolicy.exponentialBackoff(3, Duration.ofSeconds(2), Duration.ofSeconds(1));
+    }
+
+}
@@ -0,0 +1,216 @@
+/**
+ *
+ * Copyright (c) 2006-2018, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.internal.db;
+
+import com.speedment.runtime.core.component.connectionpool.ConnectionPoolComponent;
+import com.speedment.runtime.core.component.connectionpool.PoolableConnection;
+import com.speedment.runtime.core.exception.SpeedmentException;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.reflect.Proxy;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static java.util.Collections.singletonList;
+import static java.util.stream.Collectors.toList;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Per Minborg
+ */
+public class LazyQueryResultTest {
+
+    private static final String SQL = "SELECT `a` FROM `s`.`t` WHERE (`a` > ?)";
+
+    private int rowCount;
+    private int readCount;
+    private int failAtRow;
+    private int closeConnectionCount;
+    private int closeStatementCount;
+    private int closeResultSetCount;
+    private int commitCount;
+    private ConnectionPoolComponent pool;
+
+    @Before
+    public void setup() {
+        rowCount = 5;
+        failAtRow = -1;
+        pool = (ConnectionPoolComponent) Proxy.newProxyInstance(
+            LazyQueryResultTest.class.getClassLoader(),
+            new Class<?>[]{ConnectionPoolComponent.class},
+            (proxy, method, args) -> {
+                if ("getConnection".equals(method.getName())) {
+                    return connection();
+                }
+                throw new UnsupportedOperationException(method.getName());
+            }
+        );
+    }
+
+    @Test
+    public void testLazy() {
+        try (Stream<Integer> stream = query().stream(0)) {
+            assertEquals(0, readCount);
+            final Iterator<Integer> iterator = stream.iterator();
+            assertEquals(1, (int) iterator.next());
+            assertEquals(1, readCount);
+            assertEquals(0, closeConnectionCount);
+        }
+        assertReleased();
+    }
+
+    @Test
+    public void testReleasedWhenExhausted() {
+        final List<Integer> result = query().stream(0).collect(toList());
+        assertEquals(Arrays.asList(1, 2, 3, 4, 5), result);
+        assertReleased();
+    }
+
+    @Test
+    public void testPrefetchAll() {
+        final Stream<Integer> stream = query().stream(5);
+        assertEquals(6, readCount); // Including the call that detects the end
+        assertReleased();
+        assertEquals(Arrays.asList(1, 2, 3, 4, 5), stream.collect(toList()));
+    }
+
+    @Test
+    public void testPrefetchPartial() {
+        try (Stream<Integer> stream = query().stream(2)) {
+            assertEquals(3, readCount); // Including the call that detects there is more
+            assertEquals(0, closeConnectionCount);
+            assertEquals(Arrays.asList(1, 2, 3, 4, 5), stream.collect(toList()));
+        }
+        assertReleased();
+    }
+
+    @Test
+    public void testEmpty() {
+        rowCount = 0;
+        assertEquals(0, query().stream(1).count());
+        assertReleased();
+    }
+
+    @Test
+    public void testFailureWhileReading() {
+        failAtRow = 3;
+        try (Stream<Integer> stream = query().stream(0)) {
+            stream.forEach(i -> {});
+            fail("Expected an exception");
+        } catch (SpeedmentException expected) {
+            assertReleased();
+        }
+        assertReleased();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNegativePrefetch() {
+        query().stream(-1);
+    }
+
+    private void assertReleased() {
+        assertEquals(1, closeResultSetCount);
+        assertEquals(1, closeStatementCount);
+        assertEquals(1, commitCount);
+        assertEquals(1, closeConnectionCount);
+    }
+
+    private LazyQueryResult<Integer> query() {
+        return new LazyQueryResult<>(
+            SQL,
+            singletonList(0),
+            rs -> rs.getInt(1),
+            () -> new ConnectionInfo(null, pool, null),
+            ps -> {},
+            rs -> {}
+        );
+    }
+
+    private PoolableConnection connection() {
+        return (PoolableConnection) Proxy.newProxyInstance(
+            LazyQueryResultTest.class.getClassLoader(),
+            new Class<?>[]{PoolableConnection.class},
+            (proxy, method, args) -> {
+                switch (method.getName()) {
+                    case "setAutoCommit": return null;
+                    case "prepareStatement": {
+                        assertEquals(SQL, args[0]);
+                        return preparedStatement();
+                    }
+                    case "commit": {
+                        commitCount++;
+                        return null;
+                    }
+                    case "close": {
+                        closeConnectionCount++;
+                        return null;
+                    }
+                    default: throw new UnsupportedOperationException(method.getName());
+                }
+            }
+        );
+    }
+
+    private PreparedStatement preparedStatement() {
+        return (PreparedStatement) Proxy.newProxyInstance(
+            LazyQueryResultTest.class.getClassLoader(),
+            new Class<?>[]{PreparedStatement.class},
+            (proxy, method, args) -> {
+                switch (method.getName()) {
+                    case "setObject": return null;
+                    case "executeQuery": return resultSet();
+                    case "close": {
+                        closeStatementCount++;
+                        return null;
+                    }
+                    default: throw new UnsupportedOperationException(method.getName());
+                }
+            }
+        );
+    }
+
+    private ResultSet resultSet() {
+        return (ResultSet) Proxy.newProxyInstance(
+            LazyQueryResultTest.class.getClassLoader(),
+            new Class<?>[]{ResultSet.class},
+            (proxy, method, args) -> {
+                switch (method.getName()) {
+                    case "next": {
+                        if (readCount == failAtRow) {
+                            throw new SQLException("Simulated failure");
+                        }
+                        return readCount++ < rowCount;
+                    }
+                    case "getInt": return readCount;
+                    case "close": {
+                        closeResultSetCount++;
+                        return null;
+                    }
+                    default: throw new UnsupportedOperationException(method.getName());
+                }
+            }
+        );
+    }
+
+}
@@ -0,0 +1,145 @@
+/**
+ *
+ * Copyright (c) 2006-2018, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.internal.db;
+
+import com.speedment.runtime.core.exception.SpeedmentException;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.reflect.Proxy;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Per Minborg
+ */
+public class ReadAheadIteratorTest {
+
+    private int rowCount;
+    private int failAtRow;
+    private AtomicInteger readCount;
+    private volatile Thread readerThread;
+
+    @Before
+    public void setup() {
+        rowCount = 10;
+        failAtRow = -1;
+        readCount = new AtomicInteger();
+    }
+
+    @Test
+    public void testAllRows() {
+        assertEquals(expected(10), drain(iterator(3, 2)));
+        assertNotSame(Thread.currentThread(), readerThread);
+    }
+
+    @Test
+    public void testBlockSizeDividesRows() {
+        rowCount = 9;
+        assertEquals(expected(9), drain(iterator(3, 1)));
+    }
+
+    @Test
+    public void testEmpty() {
+        rowCount = 0;
+        final ReadAheadIterator<Integer> iterator = iterator(4, 2);
+        assertFalse(iterator.hasNext());
+        assertFalse(iterator.hasNext());
+        iterator.close();
+    }
+
+    @Test
+    public void testFailure() {
+        failAtRow = 5;
+        final ReadAheadIterator<Integer> iterator = iterator(2, 2);
+        final List<Integer> read = new ArrayList<>();
+        try {
+            while (iterator.hasNext()) {
+                read.add(iterator.next());
+            }
+            fail("Expected an exception");
+        } catch (SpeedmentException expected) {
+            assertEquals(expected(4), read);
+        } finally {
+            iterator.close();
+        }
+    }
+
+    @Test
+    public void testCloseEarly() throws InterruptedException {
+        rowCount = 1_000_000;
+        final ReadAheadIterator<Integer> iterator = iterator(10, 2);
+        assertEquals(1, (int) iterator.next());
+        iterator.close();
+        final int readAfterClose = readCount.get();
+        assertTrue(readAfterClose < rowCount);
+        assertFalse(readerThread.isAlive());
+        assertFalse(iterator.hasNext());
+        Thread.sleep(20);
+        assertEquals(readAfterClose, readCount.get());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testIllegalBlockSize() {
+        iterator(0, 1);
+    }
+
+    private ReadAheadIterator<Integer> iterator(int blockSize, int blocks) {
+        return new ReadAheadIterator<>(resultSet(), rs -> rs.getInt(1), blockSize, blocks);
+    }
+
+    private static List<Integer> drain(ReadAheadIterator<Integer> iterator) {
+        final List<Integer> result = new ArrayList<>();
+        iterator.forEachRemaining(result::add);
+        iterator.close();
+        return result;
+    }
+
+    private static List<Integer> expected(int count) {
+        return IntStream.rangeClosed(1, count).boxed().collect(Collectors.toList());
+    }
+
+    private ResultSet resultSet() {
+        return (ResultSet) Proxy.newProxyInstance(
+            ReadAheadIteratorTest.class.getClassLoader(),
+            new Class<?>[]{ResultSet.class},
+            (proxy, method, args) -> {
+                switch (method.getName()) {
+                    case "next": {
+                        readerThread = Thread.currentThread();
+                        if (readCount.get() == failAtRow) {
+                            throw new SQLException("Failed at row " + failAtRow);
+                        }
+                        return readCount.incrementAndGet() <= rowCount;
+                    }
+                    case "getInt": return readCount.get();
+                    default: throw new UnsupportedOperationException(method.getName() + Arrays.toString(args));
+                }
+            }
+        );
+    }
+
+}
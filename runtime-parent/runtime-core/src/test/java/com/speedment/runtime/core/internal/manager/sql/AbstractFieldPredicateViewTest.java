@@ -0,0 +1,110 @@
+/**
+ *
+ * Copyright (c) 2006-2018, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.internal.manager.sql;
+
+import com.speedment.runtime.core.db.SqlPredicateFragment;
+import com.speedment.runtime.field.predicate.FieldPredicate;
+import com.speedment.runtime.test_support.MockEntity;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ *
+ * @author Per Minborg
+ */
+public class AbstractFieldPredicateViewTest {
+
+    private final AbstractFieldPredicateView instance = new ChunkingFieldPredicateView();
+
+    @Test
+    public void testSmallInList() {
+        final SqlPredicateFragment fragment = transform(MockEntity.ID.in(1, 2));
+        assertEquals("(`id` IN (?,?))", fragment.getSql());
+        assertEquals(Arrays.asList(1, 2), values(fragment));
+    }
+
+    @Test
+    public void testLargeInListIsChunked() {
+        final SqlPredicateFragment fragment = transform(MockEntity.ID.in(1, 2, 3, 4, 5));
+        assertEquals("(`id` IN (?,?) OR `id` IN (?,?) OR `id` IN (?))", fragment.getSql());
+        assertEquals(Arrays.asList(1, 2, 3, 4, 5), values(fragment));
+    }
+
+    @Test
+    public void testLargeNotInListIsChunked() {
+        final SqlPredicateFragment fragment = transform(MockEntity.ID.notIn(1, 2, 3));
+        assertEquals("(NOT((`id` IN (?,?) OR `id` IN (?))))", fragment.getSql());
+        assertEquals(Arrays.asList(1, 2, 3), values(fragment));
+    }
+
+    @SuppressWarnings("unchecked")
+    private SqlPredicateFragment transform(Object predicate) {
+        return instance.transform(f -> "`" + f.identifier().getColumnId() + "`", f -> Integer.class, (FieldPredicate<MockEntity>) predicate);
+    }
+
+    private static Object values(SqlPredicateFragment fragment) {
+        return fragment.objects().sorted().collect(Collectors.toList());
+    }
+
+    private static final class ChunkingFieldPredicateView extends AbstractFieldPredicateView {
+
+        @Override
+        protected int inListThreshold() {
+            return 2;
+        }
+
+        @Override
+        protected SqlPredicateFragment equalIgnoreCaseHelper(String cn, FieldPredicate<?> model, boolean negated) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        protected SqlPredicateFragment startsWithHelper(String cn, FieldPredicate<?> model, boolean negated) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        protected SqlPredicateFragment startsWithIgnoreCaseHelper(String cn, FieldPredicate<?> model, boolean negated) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        protected SqlPredicateFragment endsWithHelper(String cn, FieldPredicate<?> model, boolean negated) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        protected SqlPredicateFragment endsWithIgnoreCaseHelper(String cn, FieldPredicate<?> model, boolean negated) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        protected SqlPredicateFragment containsHelper(String cn, FieldPredicate<?> model, boolean negated) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        protected SqlPredicateFragment containsIgnoreCaseHelper(String cn, FieldPredicate<?> model, boolean negated) {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+}
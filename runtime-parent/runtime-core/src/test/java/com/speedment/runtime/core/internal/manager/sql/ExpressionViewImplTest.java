@@ -0,0 +1,154 @@
+/**
+ *
+ * Copyright (c) 2006-2018, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.internal.manager.sql;
+
+import com.speedment.runtime.compute.ToDouble;
+import com.speedment.runtime.compute.ToInt;
+import com.speedment.runtime.compute.expression.Expression;
+import com.speedment.runtime.core.db.ExpressionView;
+import com.speedment.runtime.field.Field;
+import com.speedment.runtime.field.ReferenceField;
+import com.speedment.runtime.test_support.MockEntity;
+import com.speedment.runtime.typemapper.TypeMapper;
+import org.junit.Test;
+
+import java.util.Optional;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+/**
+ *
+ * @author Per Minborg
+ */
+public class ExpressionViewImplTest {
+
+    private static final ReferenceField<MockEntity, Integer, Integer> NULLABLE_ID = ReferenceField.create(
+        MockEntity.ID.identifier(),
+        MockEntity::getId,
+        MockEntity::setId,
+        TypeMapper.identity(),
+        false
+    );
+
+    private final ExpressionView instance = ExpressionView.standard();
+
+    @Test
+    public void testField() {
+        assertRendered("`id`", MockEntity.ID);
+    }
+
+    @Test
+    public void testArithmetic() {
+        assertRendered("((`id` + 1) * `id`)", MockEntity.ID.plus(1).multiply(MockEntity.ID));
+        assertRendered("(`id` - (-2))", MockEntity.ID.minus(-2));
+        assertRendered("(-ABS(`id`))", MockEntity.ID.abs().negate());
+    }
+
+    @Test
+    public void testDivide() {
+        assertRendered(
+            "(CAST(`id` AS DOUBLE PRECISION) / 2)",
+            MockEntity.ID.divide(2)
+        );
+        assertRendered(
+            "(CAST(`id` AS DOUBLE PRECISION) / CAST(0.5 AS DOUBLE PRECISION))",
+            MockEntity.ID.divide(ToDouble.constant(0.5))
+        );
+        // Division by zero is infinite or NaN in the JVM
+        assertNotRendered(MockEntity.ID.divide(0));
+        assertNotRendered(MockEntity.ID.divide(0.0));
+        assertNotRendered(MockEntity.ID.divide(MockEntity.ID));
+    }
+
+    @Test
+    public void testSqrt() {
+        assertRendered("SQRT(ABS(CAST(`id` AS DOUBLE PRECISION)))", MockEntity.ID.asDouble().abs().sqrt());
+        // The square root of a negative value is NaN in the JVM
+        assertNotRendered(MockEntity.ID.sqrt());
+        assertNotRendered(MockEntity.ID.abs().sqrt());
+    }
+
+    @Test
+    public void testCasts() {
+        assertRendered("CAST(`id` AS DOUBLE PRECISION)", MockEntity.ID.asDouble());
+        assertRendered("`id`", MockEntity.ID.asLong());
+    }
+
+    @Test
+    public void testPow() {
+        assertRendered("POWER(CAST(`id` AS DOUBLE PRECISION), 3)", MockEntity.ID.pow(3));
+        assertRendered("POWER(CAST(`id` AS DOUBLE PRECISION), CAST(2.0 AS DOUBLE PRECISION))", MockEntity.ID.asDouble().pow(2.0));
+        assertRendered(
+            "POWER(ABS(CAST(`id` AS DOUBLE PRECISION)), CAST(0.5 AS DOUBLE PRECISION))",
+            MockEntity.ID.asDouble().abs().pow(0.5)
+        );
+        // Computed using integer division in the JVM
+        assertNotRendered(MockEntity.ID.pow(-1));
+        // A fractional power of a negative value is NaN in the JVM
+        assertNotRendered(MockEntity.ID.asDouble().pow(0.5));
+        // Zero raised to a negative power is infinite in the JVM
+        assertNotRendered(MockEntity.ID.asDouble().pow(-1.0));
+    }
+
+    @Test
+    public void testOrElse() {
+        assertRendered("COALESCE(`id`, 0)", NULLABLE_ID.asInt().orElse(0));
+        assertRendered(
+            "(CAST(COALESCE(`id`, (-1)) AS DOUBLE PRECISION) * CAST(1.5 AS DOUBLE PRECISION))",
+            NULLABLE_ID.asLong().orElse(-1L).multiply(1.5)
+        );
+        // Would narrow the database value
+        assertNotRendered(NULLABLE_ID.asShort().orElse((short) 0));
+        // Nullable expressions can not be rendered
+        assertNotRendered(NULLABLE_ID.asInt());
+        assertNotRendered(NULLABLE_ID.asInt().orElseGet(e -> 0));
+    }
+
+    @Test
+    public void testUnsupported() {
+        final ToInt<MockEntity> lambda = MockEntity::getId;
+        assertNotRendered(lambda);
+        assertNotRendered(MockEntity.ID.plus(lambda));
+        assertNotRendered(ToDouble.constant(Double.NaN));
+    }
+
+    @Test
+    public void testFieldOfOtherTable() {
+        assertEquals(
+            Optional.empty(),
+            instance.render(f -> null, f -> Integer.class, MockEntity.ID.plus(1))
+        );
+    }
+
+    private void assertRendered(String expected, Expression<MockEntity> expression) {
+        assertEquals(Optional.of(expected), render(expression));
+    }
+
+    private void assertNotRendered(Expression<MockEntity> expression) {
+        assertFalse(render(expression).isPresent());
+    }
+
+    private Optional<String> render(Expression<MockEntity> expression) {
+        return instance.render(
+            (Field<MockEntity> f) -> "`" + f.identifier().getColumnId() + "`",
+            f -> Integer.class,
+            expression
+        );
+    }
+
+}
@@ -0,0 +1,322 @@
+/**
+ *
+ * Copyright (c) 2006-2018, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.internal.pool;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Per Minborg
+ */
+public class PreparedStatementCacheTest {
+
+    private static final String SELECT = "SELECT `a` FROM `t` WHERE `a` = ?";
+    private static final String INSERT = "INSERT INTO `t` (`a`) VALUES (?)";
+    private static final String DELETE = "DELETE FROM `t` WHERE `a` = ?";
+
+    private List<PhysicalStatement> created;
+    private ConnectionPoolMetricsImpl metrics;
+    private PoolableConnectionImpl connection;
+
+    @Before
+    public void setup() {
+        created = new ArrayList<>();
+        metrics = new ConnectionPoolMetricsImpl();
+        connection = new PoolableConnectionImpl("jdbc:test", null, null, physicalConnection(), Long.MAX_VALUE, 2, metrics);
+    }
+
+    @Test
+    public void testReuse() throws SQLException {
+        try (PreparedStatement ps = connection.prepareStatement(SELECT)) {
+            ps.setInt(1, 1);
+            ps.executeQuery();
+        }
+        try (PreparedStatement ps = connection.prepareStatement(SELECT)) {
+            ps.setInt(1, 2);
+            ps.executeQuery();
+        }
+        assertEquals(1, created.size());
+        assertEquals(1, metrics.statementCacheMissCount());
+        assertEquals(1, metrics.statementCacheHitCount());
+        final PhysicalStatement physical = created.get(0);
+        assertFalse(physical.closed);
+        assertEquals(2, physical.clearParametersCount);
+        assertEquals(2, physical.closedResultSets);
+    }
+
+    @Test
+    public void testFlagsArePartOfKey() throws SQLException {
+        connection.prepareStatement(INSERT).close();
+        connection.prepareStatement(INSERT, Statement.RETURN_GENERATED_KEYS).close();
+        connection.prepareStatement(INSERT, Statement.RETURN_GENERATED_KEYS).close();
+        assertEquals(2, created.size());
+        assertEquals(1, metrics.statementCacheHitCount());
+    }
+
+    @Test
+    public void testLeasedStatementIsNotShared() throws SQLException {
+        final PreparedStatement first = connection.prepareStatement(SELECT);
+        final PreparedStatement second = connection.prepareStatement(SELECT);
+        assertEquals(2, created.size());
+        first.close();
+        second.close();
+        assertTrue(created.get(0).closed ^ created.get(1).closed);
+    }
+
+    @Test
+    public void testLeastRecentlyUsedIsEvicted() throws SQLException {
+        connection.prepareStatement(SELECT).close();
+        connection.prepareStatement(INSERT).close();
+        connection.prepareStatement(SELECT).close();
+        connection.prepareStatement(DELETE).close();
+        assertEquals(3, created.size());
+        assertFalse(created.get(0).closed);
+        assertTrue(created.get(1).closed);
+        assertFalse(created.get(2).closed);
+        assertEquals(1, metrics.statementCacheEvictionCount());
+    }
+
+    @Test
+    public void testFailedStatementIsNotReused() throws SQLException {
+        try (PreparedStatement ps = connection.prepareStatement(SELECT)) {
+            ps.executeUpdate();
+            fail("Expected an exception");
+        } catch (SQLException expected) {
+            // Expected
+        }
+        assertTrue(created.get(0).closed);
+        connection.prepareStatement(SELECT).close();
+        assertEquals(2, created.size());
+    }
+
+    @Test
+    public void testAbandonedBatchIsNotExecutedByNextBorrower() throws SQLException {
+        try (PreparedStatement ps = connection.prepareStatement(INSERT)) {
+            ps.setInt(1, 1);
+            ps.addBatch();
+            ps.setInt(1, 2);
+            throw new IllegalStateException("Binder failed");
+        } catch (IllegalStateException expected) {
+            // Expected
+        }
+        try (PreparedStatement ps = connection.prepareStatement(INSERT)) {
+            ps.setInt(1, 3);
+            ps.addBatch();
+            assertEquals(1, ps.executeBatch().length);
+        }
+        assertEquals(1, created.size());
+        assertEquals(1, created.get(0).clearBatchCount);
+        assertEquals(1, created.get(0).executedRows);
+    }
+
+    @Test
+    public void testExecutedBatchIsNotCleared() throws SQLException {
+        try (PreparedStatement ps = connection.prepareStatement(INSERT)) {
+            ps.setInt(1, 1);
+            ps.addBatch();
+            ps.executeBatch();
+        }
+        assertEquals(0, created.get(0).clearBatchCount);
+    }
+
+    @Test
+    public void testStatementPropertiesAreRestored() throws SQLException {
+        try (PreparedStatement ps = connection.prepareStatement(SELECT)) {
+            ps.setFetchSize(100);
+            ps.setMaxRows(10);
+            ps.setQueryTimeout(5);
+            ps.executeQuery();
+        }
+        try (PreparedStatement ps = connection.prepareStatement(SELECT)) {
+            assertEquals(0, ps.getFetchSize());
+            assertEquals(0, ps.getMaxRows());
+            assertEquals(0, ps.getQueryTimeout());
+        }
+        assertEquals(1, created.size());
+    }
+
+    @Test
+    public void testUnrestorablePropertyIsNotReused() throws SQLException {
+        try (PreparedStatement ps = connection.prepareStatement(SELECT)) {
+            ps.setEscapeProcessing(false);
+        }
+        assertTrue(created.get(0).closed);
+        connection.prepareStatement(SELECT).close();
+        assertEquals(2, created.size());
+    }
+
+    @Test
+    public void testRuntimeExceptionIsNotReused() throws SQLException {
+        try (PreparedStatement ps = connection.prepareStatement(SELECT)) {
+            ps.setString(1, "a");
+            fail("Expected an exception");
+        } catch (UnsupportedOperationException expected) {
+            // Expected
+        }
+        assertTrue(created.get(0).closed);
+    }
+
+    @Test
+    public void testClosedStatement() throws SQLException {
+        final PreparedStatement ps = connection.prepareStatement(SELECT);
+        ps.close();
+        assertTrue(ps.isClosed());
+        assertSame(connection, ps.getConnection());
+        try {
+            ps.executeQuery();
+            fail("Expected an exception");
+        } catch (SQLException expected) {
+            // Expected
+        }
+    }
+
+    @Test
+    public void testRawCloseClosesCachedStatements() throws SQLException {
+        connection.prepareStatement(SELECT).close();
+        connection.prepareStatement(INSERT).close();
+        connection.rawClose();
+        assertTrue(created.get(0).closed);
+        assertTrue(created.get(1).closed);
+    }
+
+    @Test
+    public void testDisabled() throws SQLException {
+        connection = new PoolableConnectionImpl("jdbc:test", null, null, physicalConnection(), Long.MAX_VALUE);
+        connection.prepareStatement(SELECT).close();
+        connection.prepareStatement(SELECT).close();
+        assertEquals(2, created.size());
+        assertTrue(created.get(0).closed);
+        assertEquals(0, metrics.statementCacheMissCount());
+    }
+
+    private Connection physicalConnection() {
+        return (Connection) Proxy.newProxyInstance(
+            PreparedStatementCacheTest.class.getClassLoader(),
+            new Class<?>[]{Connection.class},
+            (proxy, method, args) -> {
+                switch (method.getName()) {
+                    case "prepareStatement": {
+                        final PhysicalStatement statement = new PhysicalStatement();
+                        created.add(statement);
+                        return statement.proxy();
+                    }
+                    case "close": return null;
+                    default: throw new UnsupportedOperationException(method.getName());
+                }
+            }
+        );
+    }
+
+    private static final class PhysicalStatement {
+
+        private boolean closed;
+        private int clearParametersCount;
+        private int clearBatchCount;
+        private int closedResultSets;
+        private int batchSize;
+        private int executedRows;
+        private int fetchSize;
+        private int maxRows;
+        private int queryTimeout;
+
+        private PreparedStatement proxy() {
+            return (PreparedStatement) Proxy.newProxyInstance(
+                PreparedStatementCacheTest.class.getClassLoader(),
+                new Class<?>[]{PreparedStatement.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "setInt": return null;
+                        case "setEscapeProcessing": return null;
+                        case "getFetchSize": return fetchSize;
+                        case "getMaxRows": return maxRows;
+                        case "getQueryTimeout": return queryTimeout;
+                        case "getFetchDirection": return ResultSet.FETCH_FORWARD;
+                        case "getMaxFieldSize": return 0;
+                        case "setFetchSize": {
+                            fetchSize = (Integer) args[0];
+                            return null;
+                        }
+                        case "setMaxRows": {
+                            maxRows = (Integer) args[0];
+                            return null;
+                        }
+                        case "setQueryTimeout": {
+                            queryTimeout = (Integer) args[0];
+                            return null;
+                        }
+                        case "setFetchDirection": return null;
+                        case "setMaxFieldSize": return null;
+                        case "clearWarnings": return null;
+                        case "addBatch": {
+                            batchSize++;
+                            return null;
+                        }
+                        case "clearBatch": {
+                            clearBatchCount++;
+                            batchSize = 0;
+                            return null;
+                        }
+                        case "executeBatch": {
+                            final int[] result = new int[batchSize];
+                            executedRows += batchSize;
+                            batchSize = 0;
+                            return result;
+                        }
+                        case "clearParameters": {
+                            clearParametersCount++;
+                            return null;
+                        }
+                        case "executeQuery": return resultSet();
+                        case "executeUpdate": throw new SQLException("Failed");
+                        case "close": {
+                            closed = true;
+                            return null;
+                        }
+                        default: throw new UnsupportedOperationException(method.getName());
+                    }
+                }
+            );
+        }
+
+        private ResultSet resultSet() {
+            return (ResultSet) Proxy.newProxyInstance(
+                PreparedStatementCacheTest.class.getClassLoader(),
+                new Class<?>[]{ResultSet.class},
+                (proxy, method, args) -> {
+                    if ("close".equals(method.getName())) {
+                        closedResultSets++;
+                        return null;
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                }
+            );
+        }
+    }
+
+}
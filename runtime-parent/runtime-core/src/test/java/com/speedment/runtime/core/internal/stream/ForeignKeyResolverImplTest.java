@@ -0,0 +1,186 @@
+/**
+ *
+ * Copyright (c) 2006-2018, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.internal.stream;
+
+import com.speedment.runtime.config.identifier.ColumnIdentifier;
+import com.speedment.runtime.core.stream.ForeignKeyResolver;
+import com.speedment.runtime.field.IntField;
+import com.speedment.runtime.field.IntForeignKeyField;
+import com.speedment.runtime.typemapper.TypeMapper;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static java.util.stream.Collectors.toList;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Per Minborg
+ */
+public class ForeignKeyResolverImplTest {
+
+    private static final IntField<Parent, Integer> PARENT_ID = IntField.create(
+        ColumnIdentifier.of("db", "schema", "parent", "id"),
+        Parent::getId,
+        Parent::setId,
+        TypeMapper.primitive(),
+        true
+    );
+
+    private static final IntForeignKeyField<Child, Integer, Parent> CHILD_PARENT_ID = IntForeignKeyField.create(
+        ColumnIdentifier.of("db", "schema", "child", "parent_id"),
+        Child::getParentId,
+        Child::setParentId,
+        PARENT_ID,
+        TypeMapper.primitive(),
+        false
+    );
+
+    private List<Parent> parents;
+    private int queryCount;
+
+    @Before
+    public void setup() {
+        parents = IntStream.range(0, 10).mapToObj(Parent::new).collect(toList());
+        queryCount = 0;
+    }
+
+    @Test
+    public void testPairs() {
+        final ForeignKeyResolver<Child, Parent> resolver = resolver(3, 100);
+        final List<Map.Entry<Child, Parent>> pairs = resolver.pairs(children(1, 2, 3, 4, 5, 6, 7))
+            .collect(toList());
+        assertEquals(7, pairs.size());
+        for (final Map.Entry<Child, Parent> pair : pairs) {
+            assertEquals(pair.getKey().getParentId(), pair.getValue().getId());
+        }
+        // One query per chunk
+        assertEquals(3, queryCount);
+    }
+
+    @Test
+    public void testPairsMissingParent() {
+        final List<Parent> resolved = resolver(10, 100).pairs(children(1, 42, 2))
+            .map(Map.Entry::getValue)
+            .collect(toList());
+        assertEquals(Arrays.asList(parents.get(1), null, parents.get(2)), resolved);
+    }
+
+    @Test
+    public void testCache() {
+        final long count = resolver(2, 100).pairs(children(1, 2, 1, 2, 2, 3, 42, 42, 42)).count();
+        assertEquals(9, count);
+        // Cached keys (including missing ones) are not read again
+        assertEquals(3, queryCount);
+    }
+
+    @Test
+    public void testNoCache() {
+        resolver(2, 0).pairs(children(1, 2, 1, 2)).count();
+        assertEquals(2, queryCount);
+    }
+
+    @Test
+    public void testPairsIsLazy() {
+        final Stream<Map.Entry<Child, Parent>> pairs = resolver(2, 100).pairs(children(1, 2, 3, 4, 5));
+        assertEquals(0, queryCount);
+        assertEquals(parents.get(1), pairs.findFirst().get().getValue());
+        assertEquals(1, queryCount);
+    }
+
+    @Test
+    public void testPairsClosesSource() {
+        final AtomicBoolean closed = new AtomicBoolean();
+        resolver(2, 100).pairs(children(1, 2).onClose(() -> closed.set(true))).close();
+        assertTrue(closed.get());
+    }
+
+    @Test
+    public void testToMap() {
+        final Map<Child, Parent> map = Stream.of(3, 42, 1, 3)
+            .map(Child::new)
+            .collect(resolver(2, 100).toMap());
+        assertEquals(3, map.size());
+        map.forEach((child, parent) -> assertEquals(child.getParentId(), parent.getId()));
+        assertEquals(2, queryCount);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testIllegalChunkSize() {
+        resolver(0, 100);
+    }
+
+    private ForeignKeyResolver<Child, Parent> resolver(int chunkSize, int cacheSize) {
+        return ForeignKeyResolver.of(
+            CHILD_PARENT_ID,
+            () -> {
+                queryCount++;
+                return parents.stream();
+            },
+            chunkSize,
+            cacheSize
+        );
+    }
+
+    private static Stream<Child> children(Integer... parentIds) {
+        return Stream.of(parentIds).map(Child::new);
+    }
+
+    private static final class Parent {
+
+        private int id;
+
+        private Parent(int id) {
+            this.id = id;
+        }
+
+        int getId() {
+            return id;
+        }
+
+        Parent setId(int id) {
+            this.id = id;
+            return this;
+        }
+    }
+
+    private static final class Child {
+
+        private int parentId;
+
+        private Child(int parentId) {
+            this.parentId = parentId;
+        }
+
+        int getParentId() {
+            return parentId;
+        }
+
+        Child setParentId(int parentId) {
+            this.parentId = parentId;
+            return this;
+        }
+    }
+
+}
@@ -0,0 +1,81 @@
+/**
+ *
+ * Copyright (c) 2006-2018, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.internal.stream;
+
+import com.speedment.runtime.core.stream.KeysetCursor;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Per Minborg
+ */
+public class KeysetCursorImplTest {
+
+    @Test
+    public void testTokenRoundTrip() {
+        final Timestamp timestamp = new Timestamp(1_500_000_000_123L);
+        timestamp.setNanos(123_456_789);
+        final List<Object> values = Arrays.asList(
+            true, (byte) 1, (short) 2, 3, 4L, 5.5f, 6.25d, 'x',
+            "a:b 1:cå", "", new BigInteger("12345678901234567890"), new BigDecimal("1.50"),
+            timestamp, LocalDate.of(2018, 1, 2), LocalDateTime.of(2018, 1, 2, 3, 4, 5),
+            Instant.ofEpochSecond(1_500_000_000L, 42)
+        );
+        final KeysetCursor cursor = KeysetCursor.of(values);
+        final String token = cursor.toToken();
+        assertTrue(token, token.matches("[A-Za-z0-9_-]+"));
+        final KeysetCursor parsed = KeysetCursor.parse(token);
+        assertEquals(values, parsed.values());
+        for (int i = 0; i < values.size(); i++) {
+            assertEquals(values.get(i).getClass(), parsed.values().get(i).getClass());
+        }
+        assertEquals(cursor, parsed);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testUnsupportedType() {
+        KeysetCursor.of(Arrays.asList(new Object())).toToken();
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void testNullValue() {
+        KeysetCursor.of(Arrays.asList(1, null));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testMalformedToken() {
+        KeysetCursor.parse("not a token");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testTruncatedToken() {
+        final String token = KeysetCursor.of(Arrays.asList("abcdef")).toToken();
+        KeysetCursor.parse(token.substring(0, token.length() - 2));
+    }
+
+}
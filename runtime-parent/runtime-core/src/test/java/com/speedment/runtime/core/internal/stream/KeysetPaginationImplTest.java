@@ -0,0 +1,221 @@
+/**
+ *
+ * Copyright (c) 2006-2018, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.internal.stream;
+
+import com.speedment.runtime.config.identifier.ColumnIdentifier;
+import com.speedment.runtime.core.stream.KeysetCursor;
+import com.speedment.runtime.core.stream.KeysetPagination;
+import com.speedment.runtime.field.IntField;
+import com.speedment.runtime.field.predicate.CombinedPredicate;
+import com.speedment.runtime.field.predicate.FieldPredicate;
+import com.speedment.runtime.typemapper.TypeMapper;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+import java.util.stream.IntStream;
+
+import static java.util.stream.Collectors.toList;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Per Minborg
+ */
+public class KeysetPaginationImplTest {
+
+    private static final IntField<Item, Integer> ID = IntField.create(
+        ColumnIdentifier.of("db", "schema", "item", "id"),
+        Item::getId,
+        Item::setId,
+        TypeMapper.primitive(),
+        true
+    );
+
+    private static final IntField<Item, Integer> GROUP = IntField.create(
+        ColumnIdentifier.of("db", "schema", "item", "grp"),
+        Item::getGroup,
+        Item::setGroup,
+        TypeMapper.primitive(),
+        false
+    );
+
+    private static final IntField<Item, Integer> ORDER = IntField.create(
+        ColumnIdentifier.of("db", "schema", "item", "ord"),
+        Item::getId,
+        Item::setId,
+        TypeMapper.primitive(),
+        false
+    );
+
+    private List<Item> items;
+
+    @Before
+    public void setUp() {
+        // Ten items in three groups, listed out of order
+        items = IntStream.of(7, 2, 9, 0, 4, 1, 8, 3, 6, 5)
+            .mapToObj(i -> new Item(i, i % 3))
+            .collect(toList());
+    }
+
+    @Test
+    public void testAfterSingleKey() {
+        final KeysetPagination<Item> pagination = KeysetPagination.of(ID);
+        final Predicate<Item> after = pagination.after(KeysetCursor.of(Arrays.asList(5)));
+        assertTrue(after instanceof FieldPredicate);
+        assertEquals(Arrays.asList(6, 7, 8, 9), ids(items.stream().filter(after).sorted(ID).collect(toList())));
+    }
+
+    @Test
+    public void testAfterCompositeKey() {
+        final KeysetPagination<Item> pagination = KeysetPagination.of(GROUP.comparator().thenComparing(ID));
+        final Predicate<Item> after = pagination.after(pagination.cursorOf(new Item(4, 1)));
+        assertTrue(after instanceof CombinedPredicate);
+        // Order is (0,0) (3,0) (6,0) (9,0) (1,1) (4,1) (7,1) (2,2) (5,2) (8,2)
+        assertEquals(
+            Arrays.asList(7, 2, 5, 8),
+            ids(pagination.page(items.stream(), pagination.cursorOf(new Item(4, 1)), 10).collect(toList()))
+        );
+    }
+
+    @Test
+    public void testReversedKey() {
+        final KeysetPagination<Item> pagination = KeysetPagination.of(ID.reversed());
+        assertEquals(
+            Arrays.asList(4, 3),
+            ids(pagination.page(items.stream(), KeysetCursor.of(Arrays.asList(5)), 2).collect(toList()))
+        );
+    }
+
+    @Test
+    public void testStream() {
+        final KeysetPagination<Item> pagination = KeysetPagination.of(GROUP.comparator().thenComparing(ID));
+        final AtomicInteger queries = new AtomicInteger();
+        final List<Integer> result = ids(
+            pagination.stream(() -> {
+                queries.incrementAndGet();
+                return items.stream();
+            }, 3).collect(toList())
+        );
+        assertEquals(Arrays.asList(0, 3, 6, 9, 1, 4, 7, 2, 5, 8), result);
+        assertEquals(4, queries.get());
+    }
+
+    @Test
+    public void testStreamIsLazy() {
+        final KeysetPagination<Item> pagination = KeysetPagination.of(ID);
+        final AtomicInteger queries = new AtomicInteger();
+        final List<Integer> result = ids(
+            pagination.stream(() -> {
+                queries.incrementAndGet();
+                return items.stream();
+            }, 2).limit(3).collect(toList())
+        );
+        assertEquals(Arrays.asList(0, 1, 2), result);
+        assertEquals(2, queries.get());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNonUniqueKey() {
+        KeysetPagination.of(GROUP);
+    }
+
+    @Test
+    public void testCompositeUniqueKey() {
+        // (grp, ord) is unique even though neither of the fields is
+        final KeysetPagination<Item> pagination = KeysetPagination.of(
+            GROUP.comparator().thenComparing(ORDER),
+            Arrays.asList(GROUP, ORDER)
+        );
+        assertEquals(
+            Arrays.asList(7, 2, 5, 8),
+            ids(pagination.page(items.stream(), pagination.cursorOf(new Item(4, 1)), 10).collect(toList()))
+        );
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testCompositeUniqueKeyNotCovered() {
+        KeysetPagination.of(GROUP, Arrays.asList(GROUP, ORDER));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testCursorOfWrongType() {
+        KeysetPagination.of(ID).after(KeysetCursor.of(Arrays.asList(5L)));
+    }
+
+    @Test
+    public void testTokenOfWrongType() {
+        final KeysetPagination<Item> pagination = KeysetPagination.of(GROUP.comparator().thenComparing(ID));
+        final String token = KeysetCursor.of(Arrays.asList(1, "4")).toToken();
+        try {
+            pagination.after(KeysetCursor.parse(token));
+            fail("Expected an IllegalArgumentException");
+        } catch (final IllegalArgumentException expected) {
+            assertTrue(expected.getMessage(), expected.getMessage().contains("id"));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNonFieldKey() {
+        KeysetPagination.<Item>of((a, b) -> Integer.compare(a.getId(), b.getId()));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testCursorOfWrongSize() {
+        KeysetPagination.of(ID).after(KeysetCursor.of(Arrays.asList(1, 2)));
+    }
+
+    private static List<Integer> ids(List<Item> items) {
+        final List<Integer> result = new ArrayList<>();
+        items.forEach(i -> result.add(i.getId()));
+        return result;
+    }
+
+    private static final class Item {
+
+        private int id;
+        private int group;
+
+        private Item(int id, int group) {
+            this.id = id;
+            this.group = group;
+        }
+
+        int getId() {
+            return id;
+        }
+
+        Item setId(int id) {
+            this.id = id;
+            return this;
+        }
+
+        int getGroup() {
+            return group;
+        }
+
+        Item setGroup(int group) {
+            this.group = group;
+            return this;
+        }
+    }
+
+}
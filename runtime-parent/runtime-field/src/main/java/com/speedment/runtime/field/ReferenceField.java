@@ -116,15 +116,7 @@ extends Field<ENTITY>,
      * @since 3.1.0
      */
     default ToByteNullable<ENTITY> asByte() {
-        return mapToByteIfPresent(val -> {
-            if (val instanceof Number) {
-                final Number number = (Number) val;
-                return number.byteValue();
-            } else throw new SpeedmentFieldException(format(
-                "Expected field %s to be of type byte, but it was not.",
-                identifier()
-            ));
-        });
+        return mapToByteIfPresent(new NumberCastMapper<>(identifier()));
     }
 
     /**
@@ -152,15 +144,7 @@ extends Field<ENTITY>,
      * @since 3.1.0
      */
     default ToShortNullable<ENTITY> asShort() {
-        return mapToShortIfPresent(val -> {
-            if (val instanceof Number) {
-                final Number number = (Number) val;
-                return number.shortValue();
-            } else throw new SpeedmentFieldException(format(
-                "Expected field %s to be of type short, but it was not.",
-                identifier()
-            ));
-        });
+        return mapToShortIfPresent(new NumberCastMapper<>(identifier()));
     }
 
     /**
@@ -188,15 +172,7 @@ extends Field<ENTITY>,
      * @since 3.1.0
      */
     default ToIntNullable<ENTITY> asInt() {
-        return mapToIntIfPresent(val -> {
-            if (val instanceof Number) {
-                final Number number = (Number) val;
-                return number.intValue();
-            } else throw new SpeedmentFieldException(format(
-                "Expected field %s to be of type int, but it was not.",
-                identifier()
-            ));
-        });
+        return mapToIntIfPresent(new NumberCastMapper<>(identifier()));
     }
 
     /**
@@ -224,15 +200,7 @@ extends Field<ENTITY>,
      * @since 3.1.0
      */
     default ToLongNullable<ENTITY> asLong() {
-        return mapToLongIfPresent(val -> {
-            if (val instanceof Number) {
-                final Number number = (Number) val;
-                return number.longValue();
-            } else throw new SpeedmentFieldException(format(
-                "Expected field %s to be of type long, but it was not.",
-                identifier()
-            ));
-        });
+        return mapToLongIfPresent(new NumberCastMapper<>(identifier()));
     }
 
     /**
@@ -260,15 +228,7 @@ extends Field<ENTITY>,
      * @since 3.1.0
      */
     default ToFloatNullable<ENTITY> asFloat() {
-        return mapToFloatIfPresent(val -> {
-            if (val instanceof Number) {
-                final Number number = (Number) val;
-                return number.floatValue();
-            } else throw new SpeedmentFieldException(format(
-                "Expected field %s to be of type float, but it was not.",
-                identifier()
-            ));
-        });
+        return mapToFloatIfPresent(new NumberCastMapper<>(identifier()));
     }
 
     /**
@@ -297,15 +257,7 @@ extends Field<ENTITY>,
      * @since 3.1.0
      */
     default ToDoubleNullable<ENTITY> asDouble() {
-        return mapToDoubleIfPresent(val -> {
-            if (val instanceof Number) {
-                final Number number = (Number) val;
-                return number.doubleValue();
-            } else throw new SpeedmentFieldException(format(
-                "Expected field %s to be of type double, but it was not.",
-                identifier()
-            ));
-        });
+        return mapToDoubleIfPresent(new NumberCastMapper<>(identifier()));
     }
 
     /**
@@ -0,0 +1,82 @@
+/**
+ *
+ * Copyright (c) 2006-2018, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.field.comparator;
+
+import com.speedment.runtime.field.internal.comparator.ComposedComparatorImpl;
+
+import java.util.Comparator;
+import java.util.function.Function;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A {@link Comparator} that composes a {@code Function} and a
+ * {@link FieldComparator}, comparing the outputs of the function using the
+ * field comparator. This can for example be used to sort tuples of entities
+ * by a field of one of the entities, in which case streams that know about
+ * the function (like join streams) can let the database do the sorting.
+ * <p>
+ * If the function returns {@code null}, the element is ordered as if the
+ * field value was {@code null}.
+ *
+ * @param <T>       the type of the compared elements
+ * @param <ENTITY>  the entity type of the field comparator
+ *
+ * @author Per Minborg
+ * @since  3.1.6
+ */
+public interface ComposedComparator<T, ENTITY> extends Comparator<T> {
+
+    /**
+     * Returns the function that is applied to the elements before they are
+     * compared.
+     *
+     * @return  the function applied first
+     */
+    Function<T, ENTITY> firstStep();
+
+    /**
+     * Returns the field comparator that is used to compare the outputs of
+     * the {@link #firstStep() first step}.
+     *
+     * @return  the field comparator
+     */
+    FieldComparator<ENTITY> secondStep();
+
+    @Override
+    ComposedComparator<T, ENTITY> reversed();
+
+    /**
+     * Returns a new {@code ComposedComparator} that compares elements by
+     * first applying the given function to them and then comparing the
+     * results using the given field comparator.
+     *
+     * @param <T>         the type of the compared elements
+     * @param <ENTITY>    the entity type of the field comparator
+     * @param before      the function to apply first
+     * @param comparator  the field comparator to compare the results with
+     * @return            a new composed comparator
+     */
+    static <T, ENTITY> ComposedComparator<T, ENTITY> of(
+            Function<? super T, ? extends ENTITY> before,
+            FieldComparator<ENTITY> comparator) {
+        requireNonNull(before);
+        requireNonNull(comparator);
+        return new ComposedComparatorImpl<>(before, comparator);
+    }
+
+}
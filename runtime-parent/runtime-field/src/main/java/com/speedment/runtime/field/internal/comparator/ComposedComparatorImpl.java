@@ -0,0 +1,89 @@
+/**
+ *
+ * Copyright (c) 2006-2018, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.field.internal.comparator;
+
+import com.speedment.runtime.field.comparator.ComposedComparator;
+import com.speedment.runtime.field.comparator.FieldComparator;
+import com.speedment.runtime.field.comparator.NullOrder;
+
+import java.util.function.Function;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Default implementation of the {@link ComposedComparator}
+ *
+ * @param <T>       the type of the compared elements
+ * @param <ENTITY>  the entity type of the field comparator
+ *
+ * @author Per Minborg
+ * @since  3.1.6
+ */
+public final class ComposedComparatorImpl<T, ENTITY>
+implements ComposedComparator<T, ENTITY> {
+
+    private final Function<? super T, ? extends ENTITY> firstStep;
+    private final FieldComparator<ENTITY> secondStep;
+
+    public ComposedComparatorImpl(Function<? super T, ? extends ENTITY> firstStep,
+                                  FieldComparator<ENTITY> secondStep) {
+        this.firstStep  = requireNonNull(firstStep);
+        this.secondStep = requireNonNull(secondStep);
+    }
+
+    @Override
+    public Function<T, ENTITY> firstStep() {
+        @SuppressWarnings("unchecked")
+        final Function<T, ENTITY> function = (Function<T, ENTITY>) firstStep;
+        return function;
+    }
+
+    @Override
+    public FieldComparator<ENTITY> secondStep() {
+        return secondStep;
+    }
+
+    @Override
+    public ComposedComparator<T, ENTITY> reversed() {
+        return new ComposedComparatorImpl<>(firstStep, secondStep.reversed());
+    }
+
+    @Override
+    public int compare(T first, T second) {
+        final ENTITY a = firstStep.apply(first);
+        final ENTITY b = firstStep.apply(second);
+        if (a == null && b == null) {
+            return 0;
+        } else if (a == null || b == null) {
+            // A missing entity is ordered as if the field was null
+            final NullOrder nullOrder = secondStep.isReversed()
+                ? secondStep.getNullOrder().reversed()
+                : secondStep.getNullOrder();
+            final int nullFirst = nullOrder == NullOrder.FIRST ? -1 : 1;
+            return a == null ? nullFirst : -nullFirst;
+        }
+        return secondStep.compare(a, b);
+    }
+
+    @Override
+    public String toString() {
+        return "ComposedComparatorImpl{" +
+            "firstStep=" + firstStep +
+            ", secondStep=" + secondStep +
+            '}';
+    }
+}
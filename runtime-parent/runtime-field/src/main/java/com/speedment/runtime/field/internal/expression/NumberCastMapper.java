@@ -0,0 +1,96 @@
+/**
+ *
+ * Copyright (c) 2006-2018, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.field.internal.expression;
+
+import com.speedment.common.function.ToByteFunction;
+import com.speedment.common.function.ToFloatFunction;
+import com.speedment.common.function.ToShortFunction;
+import com.speedment.runtime.config.identifier.ColumnIdentifier;
+import com.speedment.runtime.field.exception.SpeedmentFieldException;
+
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+
+import static java.lang.String.format;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Mapper used by the {@code asX()}-methods of
+ * {@link com.speedment.runtime.field.ReferenceField} that casts the value of
+ * a field to a primitive by first casting it to {@link Number}. Since the
+ * class is known, expressions using it can be introspected and, for example,
+ * be rendered as SQL.
+ *
+ * @param <V>  the field value type
+ *
+ * @author Per Minborg
+ * @since  3.1.6
+ */
+public final class NumberCastMapper<V> implements
+    ToByteFunction<V>,
+    ToShortFunction<V>,
+    ToIntFunction<V>,
+    ToLongFunction<V>,
+    ToFloatFunction<V>,
+    ToDoubleFunction<V> {
+
+    private final ColumnIdentifier<?> identifier;
+
+    public NumberCastMapper(ColumnIdentifier<?> identifier) {
+        this.identifier = requireNonNull(identifier);
+    }
+
+    @Override
+    public byte applyAsByte(V value) {
+        return number(value, "byte").byteValue();
+    }
+
+    @Override
+    public short applyAsShort(V value) {
+        return number(value, "short").shortValue();
+    }
+
+    @Override
+    public int applyAsInt(V value) {
+        return number(value, "int").intValue();
+    }
+
+    @Override
+    public long applyAsLong(V value) {
+        return number(value, "long").longValue();
+    }
+
+    @Override
+    public float applyAsFloat(V value) {
+        return number(value, "float").floatValue();
+    }
+
+    @Override
+    public double applyAsDouble(V value) {
+        return number(value, "double").doubleValue();
+    }
+
+    private Number number(V value, String type) {
+        if (value instanceof Number) {
+            return (Number) value;
+        } else throw new SpeedmentFieldException(format(
+            "Expected field %s to be of type %s, but it was not.",
+            identifier, type
+        ));
+    }
+}
@@ -19,6 +19,7 @@ package com.speedment.runtime.field.internal.predicate.bytes;
 import com.speedment.common.annotation.GeneratedCode;
 import com.speedment.common.tuple.Tuple1;
 import com.speedment.runtime.field.internal.predicate.AbstractFieldPredicate;
+import com.speedment.runtime.field.internal.util.IntHashSet;
 import com.speedment.runtime.field.predicate.PredicateType;
 import com.speedment.runtime.field.trait.HasByteValue;
 
@@ -43,7 +44,11 @@ implements Tuple1<Set<Byte>> {
     private final Set<Byte> set;
     
     public ByteNotInPredicate(HasByteValue<ENTITY, D> field, Set<Byte> set) {
-        super(PredicateType.NOT_IN, field, entity -> !set.contains(field.getAsByte(entity)));
+        this(field, set, IntHashSet.of(set, Byte::intValue));
+    }
+    
+    private ByteNotInPredicate(HasByteValue<ENTITY, D> field, Set<Byte> set, IntHashSet values) {
+        super(PredicateType.NOT_IN, field, entity -> !values.contains(field.getAsByte(entity)));
         this.set = requireNonNull(set);
     }
     
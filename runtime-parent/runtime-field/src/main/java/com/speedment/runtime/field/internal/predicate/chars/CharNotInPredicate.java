@@ -19,6 +19,7 @@ package com.speedment.runtime.field.internal.predicate.chars;
 import com.speedment.common.annotation.GeneratedCode;
 import com.speedment.common.tuple.Tuple1;
 import com.speedment.runtime.field.internal.predicate.AbstractFieldPredicate;
+import com.speedment.runtime.field.internal.util.IntHashSet;
 import com.speedment.runtime.field.predicate.PredicateType;
 import com.speedment.runtime.field.trait.HasCharValue;
 
@@ -43,7 +44,11 @@ implements Tuple1<Set<Character>> {
     private final Set<Character> set;
     
     public CharNotInPredicate(HasCharValue<ENTITY, D> field, Set<Character> set) {
-        super(PredicateType.NOT_IN, field, entity -> !set.contains(field.getAsChar(entity)));
+        this(field, set, IntHashSet.of(set, Character::charValue));
+    }
+    
+    private CharNotInPredicate(HasCharValue<ENTITY, D> field, Set<Character> set, IntHashSet values) {
+        super(PredicateType.NOT_IN, field, entity -> !values.contains(field.getAsChar(entity)));
         this.set = requireNonNull(set);
     }
     
@@ -19,6 +19,7 @@ package com.speedment.runtime.field.internal.predicate.doubles;
 import com.speedment.common.annotation.GeneratedCode;
 import com.speedment.common.tuple.Tuple1;
 import com.speedment.runtime.field.internal.predicate.AbstractFieldPredicate;
+import com.speedment.runtime.field.internal.util.LongHashSet;
 import com.speedment.runtime.field.predicate.PredicateType;
 import com.speedment.runtime.field.trait.HasDoubleValue;
 
@@ -43,7 +44,11 @@ implements Tuple1<Set<Double>> {
     private final Set<Double> set;
     
     public DoubleInPredicate(HasDoubleValue<ENTITY, D> field, Set<Double> set) {
-        super(PredicateType.IN, field, entity -> set.contains(field.getAsDouble(entity)));
+        this(field, set, LongHashSet.of(set, Double::doubleToLongBits));
+    }
+    
+    private DoubleInPredicate(HasDoubleValue<ENTITY, D> field, Set<Double> set, LongHashSet values) {
+        super(PredicateType.IN, field, entity -> values.contains(Double.doubleToLongBits(field.getAsDouble(entity))));
         this.set = requireNonNull(set);
     }
     
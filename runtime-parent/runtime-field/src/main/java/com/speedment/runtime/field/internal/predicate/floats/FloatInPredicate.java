@@ -19,6 +19,7 @@ package com.speedment.runtime.field.internal.predicate.floats;
 import com.speedment.common.annotation.GeneratedCode;
 import com.speedment.common.tuple.Tuple1;
 import com.speedment.runtime.field.internal.predicate.AbstractFieldPredicate;
+import com.speedment.runtime.field.internal.util.IntHashSet;
 import com.speedment.runtime.field.predicate.PredicateType;
 import com.speedment.runtime.field.trait.HasFloatValue;
 
@@ -43,7 +44,11 @@ implements Tuple1<Set<Float>> {
     private final Set<Float> set;
     
     public FloatInPredicate(HasFloatValue<ENTITY, D> field, Set<Float> set) {
-        super(PredicateType.IN, field, entity -> set.contains(field.getAsFloat(entity)));
+        this(field, set, IntHashSet.of(set, Float::floatToIntBits));
+    }
+    
+    private FloatInPredicate(HasFloatValue<ENTITY, D> field, Set<Float> set, IntHashSet values) {
+        super(PredicateType.IN, field, entity -> values.contains(Float.floatToIntBits(field.getAsFloat(entity))));
         this.set = requireNonNull(set);
     }
     
@@ -19,6 +19,7 @@ package com.speedment.runtime.field.internal.predicate.ints;
 import com.speedment.common.annotation.GeneratedCode;
 import com.speedment.common.tuple.Tuple1;
 import com.speedment.runtime.field.internal.predicate.AbstractFieldPredicate;
+import com.speedment.runtime.field.internal.util.IntHashSet;
 import com.speedment.runtime.field.predicate.PredicateType;
 import com.speedment.runtime.field.trait.HasIntValue;
 
@@ -43,7 +44,11 @@ implements Tuple1<Set<Integer>> {
     private final Set<Integer> set;
     
     public IntInPredicate(HasIntValue<ENTITY, D> field, Set<Integer> set) {
-        super(PredicateType.IN, field, entity -> set.contains(field.getAsInt(entity)));
+        this(field, set, IntHashSet.of(set, Integer::intValue));
+    }
+    
+    private IntInPredicate(HasIntValue<ENTITY, D> field, Set<Integer> set, IntHashSet values) {
+        super(PredicateType.IN, field, entity -> values.contains(field.getAsInt(entity)));
         this.set = requireNonNull(set);
     }
     
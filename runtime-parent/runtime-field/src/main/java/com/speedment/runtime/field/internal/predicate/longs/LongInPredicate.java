@@ -19,6 +19,7 @@ package com.speedment.runtime.field.internal.predicate.longs;
 import com.speedment.common.annotation.GeneratedCode;
 import com.speedment.common.tuple.Tuple1;
 import com.speedment.runtime.field.internal.predicate.AbstractFieldPredicate;
+import com.speedment.runtime.field.internal.util.LongHashSet;
 import com.speedment.runtime.field.predicate.PredicateType;
 import com.speedment.runtime.field.trait.HasLongValue;
 
@@ -43,7 +44,11 @@ implements Tuple1<Set<Long>> {
     private final Set<Long> set;
     
     public LongInPredicate(HasLongValue<ENTITY, D> field, Set<Long> set) {
-        super(PredicateType.IN, field, entity -> set.contains(field.getAsLong(entity)));
+        this(field, set, LongHashSet.of(set, Long::longValue));
+    }
+    
+    private LongInPredicate(HasLongValue<ENTITY, D> field, Set<Long> set, LongHashSet values) {
+        super(PredicateType.IN, field, entity -> values.contains(field.getAsLong(entity)));
         this.set = requireNonNull(set);
     }
     
@@ -19,6 +19,7 @@ package com.speedment.runtime.field.internal.predicate.shorts;
 import com.speedment.common.annotation.GeneratedCode;
 import com.speedment.common.tuple.Tuple1;
 import com.speedment.runtime.field.internal.predicate.AbstractFieldPredicate;
+import com.speedment.runtime.field.internal.util.IntHashSet;
 import com.speedment.runtime.field.predicate.PredicateType;
 import com.speedment.runtime.field.trait.HasShortValue;
 
@@ -43,7 +44,11 @@ implements Tuple1<Set<Short>> {
     private final Set<Short> set;
     
     public ShortInPredicate(HasShortValue<ENTITY, D> field, Set<Short> set) {
-        super(PredicateType.IN, field, entity -> set.contains(field.getAsShort(entity)));
+        this(field, set, IntHashSet.of(set, Short::intValue));
+    }
+    
+    private ShortInPredicate(HasShortValue<ENTITY, D> field, Set<Short> set, IntHashSet values) {
+        super(PredicateType.IN, field, entity -> values.contains(field.getAsShort(entity)));
         this.set = requireNonNull(set);
     }
     
@@ -0,0 +1,146 @@
+/**
+ *
+ * Copyright (c) 2006-2018, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.field.internal.util;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.function.ToIntFunction;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * An immutable set of primitive {@code int} values backed by an open
+ * addressing hash table. In contrast to a {@code Set<Integer>}, no values need to
+ * be boxed when the set is queried.
+ *
+ * @author Per Minborg
+ * @since  3.1.6
+ */
+public final class IntHashSet {
+
+    private static final int EMPTY = 0;
+
+    private final int[] table;
+    private final int mask;
+    private final boolean containsEmpty;
+    private final int size;
+
+    private IntHashSet(int[] table, boolean containsEmpty, int size) {
+        this.table         = table;
+        this.mask          = table.length - 1;
+        this.containsEmpty = containsEmpty;
+        this.size          = size;
+    }
+
+    /**
+     * Creates a new set with the values of the specified collection as mapped
+     * by the specified mapper. Null elements are ignored.
+     *
+     * @param <T>         the element type of the collection
+     * @param collection  the collection
+     * @param mapper      mapping each element to a int value
+     * @return            the new set
+     */
+    public static <T> IntHashSet of(Collection<T> collection, ToIntFunction<? super T> mapper) {
+        requireNonNull(collection);
+        requireNonNull(mapper);
+        // Keep the load factor at or below 0.5
+        final int capacity = Integer.highestOneBit(Math.max(2, collection.size()) * 2 - 1) << 1;
+        final int[] table = new int[capacity];
+        final int mask = capacity - 1;
+        boolean containsEmpty = false;
+        int size = 0;
+        for (final T element : collection) {
+            if (element == null) {
+                continue;
+            }
+            final int value = mapper.applyAsInt(element);
+            if (value == EMPTY) {
+                if (!containsEmpty) {
+                    containsEmpty = true;
+                    size++;
+                }
+                continue;
+            }
+            int slot = slotOf(value, mask);
+            while (table[slot] != EMPTY && table[slot] != value) {
+                slot = (slot + 1) & mask;
+            }
+            if (table[slot] == EMPTY) {
+                table[slot] = value;
+                size++;
+            }
+        }
+        return new IntHashSet(table, containsEmpty, size);
+    }
+
+    /**
+     * Returns {@code true} if this set contains the specified value.
+     *
+     * @param value  the value to look for
+     * @return       {@code true} if the value is in this set
+     */
+    public boolean contains(int value) {
+        if (value == EMPTY) {
+            return containsEmpty;
+        }
+        int slot = slotOf(value, mask);
+        while (true) {
+            final int candidate = table[slot];
+            if (candidate == value) {
+                return true;
+            } else if (candidate == EMPTY) {
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    /**
+     * Returns the number of distinct values in this set.
+     *
+     * @return  the number of values
+     */
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public String toString() {
+        return "IntHashSet{size=" + size + ", values="
+            + Arrays.toString(values()) + "}";
+    }
+
+    private int[] values() {
+        final int[] values = new int[size];
+        int i = 0;
+        if (containsEmpty) {
+            values[i++] = EMPTY;
+        }
+        for (final int value : table) {
+            if (value != EMPTY) {
+                values[i++] = value;
+            }
+        }
+        return values;
+    }
+
+    private static int slotOf(int value, int mask) {
+        final int h = Integer.hashCode(value) * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & mask;
+    }
+}
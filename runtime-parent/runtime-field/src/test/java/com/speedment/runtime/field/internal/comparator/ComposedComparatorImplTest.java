@@ -0,0 +1,84 @@
+/**
+ *
+ * Copyright (c) 2006-2018, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.field.internal.comparator;
+
+import com.speedment.runtime.field.BasicEntity;
+import com.speedment.runtime.field.StringField;
+import com.speedment.runtime.field.comparator.ComposedComparator;
+import com.speedment.runtime.typemapper.TypeMapper;
+import org.junit.Test;
+
+import java.util.AbstractMap.SimpleEntry;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import static java.util.stream.Collectors.toList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+/**
+ *
+ * @author Per Minborg
+ */
+public class ComposedComparatorImplTest {
+
+    private static final StringField<BasicEntity, String> VAR_STRING = StringField.create(
+        BasicEntity.Identifier.VAR_STRING,
+        BasicEntity::getVarString,
+        BasicEntity::setVarString,
+        TypeMapper.identity(),
+        false
+    );
+
+    private static final Function<Map.Entry<String, BasicEntity>, BasicEntity> VALUE = Map.Entry::getValue;
+
+    private final List<Map.Entry<String, BasicEntity>> entries = Arrays.asList(
+        entry("b", "2"),
+        entry("none", null),
+        entry("a", "1"),
+        entry("c", "3")
+    );
+
+    @Test
+    public void testCompare() {
+        final ComposedComparator<Map.Entry<String, BasicEntity>, BasicEntity> comparator
+            = ComposedComparator.of(VALUE, VAR_STRING.comparator());
+        assertSame(VALUE, comparator.firstStep());
+        assertEquals(Arrays.asList("a", "b", "c", "none"), keys(comparator));
+    }
+
+    @Test
+    public void testReversed() {
+        final ComposedComparator<Map.Entry<String, BasicEntity>, BasicEntity> comparator
+            = ComposedComparator.of(VALUE, VAR_STRING.comparator()).reversed();
+        assertEquals(Arrays.asList("none", "c", "b", "a"), keys(comparator));
+    }
+
+    private List<String> keys(ComposedComparator<Map.Entry<String, BasicEntity>, BasicEntity> comparator) {
+        return entries.stream()
+            .sorted(comparator)
+            .map(Map.Entry::getKey)
+            .collect(toList());
+    }
+
+    private static Map.Entry<String, BasicEntity> entry(String key, String value) {
+        return new SimpleEntry<>(key, value == null ? null : new BasicEntity().setVarString(value));
+    }
+
+}
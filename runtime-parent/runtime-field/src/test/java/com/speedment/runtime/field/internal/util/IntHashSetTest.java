@@ -0,0 +1,78 @@
+/**
+ *
+ * Copyright (c) 2006-2018, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.field.internal.util;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Per Minborg
+ */
+public class IntHashSetTest {
+
+    @Test
+    public void testContains() {
+        final IntHashSet set = IntHashSet.of(Arrays.asList(0, -1, 7, 7, null, Integer.MIN_VALUE), Integer::intValue);
+        assertEquals(4, set.size());
+        assertTrue(set.contains(0));
+        assertTrue(set.contains(-1));
+        assertTrue(set.contains(7));
+        assertTrue(set.contains(Integer.MIN_VALUE));
+        assertFalse(set.contains(1));
+        assertFalse(set.contains(Integer.MAX_VALUE));
+    }
+
+    @Test
+    public void testEmpty() {
+        final IntHashSet set = IntHashSet.of(new HashSet<Integer>(), Integer::intValue);
+        assertEquals(0, set.size());
+        assertFalse(set.contains(0));
+        assertFalse(set.contains(1));
+    }
+
+    @Test
+    public void testSameAsHashSet() {
+        final Random random = new Random(42);
+        final Set<Integer> expected = new HashSet<>();
+        for (int i = 0; i < 10_000; i++) {
+            expected.add(random.nextInt(50_000));
+        }
+        final IntHashSet set = IntHashSet.of(expected, Integer::intValue);
+        assertEquals(expected.size(), set.size());
+        for (int i = -10; i < 50_010; i++) {
+            assertEquals(expected.contains(i), set.contains(i));
+        }
+    }
+
+    @Test
+    public void testLongHashSet() {
+        final LongHashSet set = LongHashSet.of(Arrays.asList(0L, Long.MAX_VALUE, 1L << 40), Long::longValue);
+        assertEquals(3, set.size());
+        assertTrue(set.contains(0));
+        assertTrue(set.contains(Long.MAX_VALUE));
+        assertTrue(set.contains(1L << 40));
+        assertFalse(set.contains(1));
+    }
+
+}
@@ -27,6 +27,7 @@ import com.speedment.runtime.core.component.ProjectComponent;
 import com.speedment.runtime.core.component.SqlAdapter;
 import com.speedment.runtime.join.Join;
 import com.speedment.runtime.join.JoinStreamSupplierComponent;
+import com.speedment.runtime.join.internal.component.stream.sql.HashJoinSettings;
 import com.speedment.runtime.join.internal.component.stream.sql.SqlHasCreateJoin10;
 import com.speedment.runtime.join.internal.component.stream.sql.SqlHasCreateJoin2;
 import com.speedment.runtime.join.internal.component.stream.sql.SqlHasCreateJoin3;
@@ -39,6 +40,7 @@ import com.speedment.runtime.join.internal.component.stream.sql.SqlHasCreateJoin
 import com.speedment.runtime.join.stage.Stage;
 import com.speedment.runtime.join.trait.*;
 
+import java.nio.file.Paths;
 import java.util.List;
 import java.util.Map;
 import java.util.function.BiFunction;
@@ -66,6 +68,12 @@ public class SqlJoinStreamSupplierComponent
     @Config(name = "allowStreamIteratorAndSpliterator", value = "false")
     private boolean allowStreamIteratorAndSpliterator;
 
+    @Config(name = "join.hashJoin.memoryBudget", value = "67108864")
+    private long hashJoinMemoryBudget;
+
+    @Config(name = "join.hashJoin.spillDirectory", value = "")
+    private String hashJoinSpillDirectory;
+
     @Execute
     void init(
         final Injector injector,
@@ -82,15 +90,20 @@ public class SqlJoinStreamSupplierComponent
                 )
             );
 
-        join2Creator = new SqlHasCreateJoin2(dbmsHandlerComponent, project, this::sqlAdapterMapper, allowStreamIteratorAndSpliterator);
-        join3Creator = new SqlHasCreateJoin3(dbmsHandlerComponent, project, this::sqlAdapterMapper, allowStreamIteratorAndSpliterator);
-        join4Creator = new SqlHasCreateJoin4(dbmsHandlerComponent, project, this::sqlAdapterMapper, allowStreamIteratorAndSpliterator);
-        join5Creator = new SqlHasCreateJoin5(dbmsHandlerComponent, project, this::sqlAdapterMapper, allowStreamIteratorAndSpliterator);
-        join6Creator = new SqlHasCreateJoin6(dbmsHandlerComponent, project, this::sqlAdapterMapper, allowStreamIteratorAndSpliterator);
-        join7Creator = new SqlHasCreateJoin7(dbmsHandlerComponent, project, this::sqlAdapterMapper, allowStreamIteratorAndSpliterator);
-        join8Creator = new SqlHasCreateJoin8(dbmsHandlerComponent, project, this::sqlAdapterMapper, allowStreamIteratorAndSpliterator);
-        join9Creator = new SqlHasCreateJoin9(dbmsHandlerComponent, project, this::sqlAdapterMapper, allowStreamIteratorAndSpliterator);
-        join10Creator = new SqlHasCreateJoin10(dbmsHandlerComponent, project, this::sqlAdapterMapper, allowStreamIteratorAndSpliterator);
+        final HashJoinSettings hashJoinSettings = new HashJoinSettings(
+            hashJoinMemoryBudget,
+            hashJoinSpillDirectory.isEmpty() ? null : Paths.get(hashJoinSpillDirectory)
+        );
+
+        join2Creator = new SqlHasCreateJoin2(dbmsHandlerComponent, project, this::sqlAdapterMapper, allowStreamIteratorAndSpliterator, hashJoinSettings);
+        join3Creator = new SqlHasCreateJoin3(dbmsHandlerComponent, project, this::sqlAdapterMapper, allowStreamIteratorAndSpliterator, hashJoinSettings);
+        join4Creator = new SqlHasCreateJoin4(dbmsHandlerComponent, project, this::sqlAdapterMapper, allowStreamIteratorAndSpliterator, hashJoinSettings);
+        join5Creator = new SqlHasCreateJoin5(dbmsHandlerComponent, project, this::sqlAdapterMapper, allowStreamIteratorAndSpliterator, hashJoinSettings);
+        join6Creator = new SqlHasCreateJoin6(dbmsHandlerComponent, project, this::sqlAdapterMapper, allowStreamIteratorAndSpliterator, hashJoinSettings);
+        join7Creator = new SqlHasCreateJoin7(dbmsHandlerComponent, project, this::sqlAdapterMapper, allowStreamIteratorAndSpliterator, hashJoinSettings);
+        join8Creator = new SqlHasCreateJoin8(dbmsHandlerComponent, project, this::sqlAdapterMapper, allowStreamIteratorAndSpliterator, hashJoinSettings);
+        join9Creator = new SqlHasCreateJoin9(dbmsHandlerComponent, project, this::sqlAdapterMapper, allowStreamIteratorAndSpliterator, hashJoinSettings);
+        join10Creator = new SqlHasCreateJoin10(dbmsHandlerComponent, project, this::sqlAdapterMapper, allowStreamIteratorAndSpliterator, hashJoinSettings);
     }
 
     @Override
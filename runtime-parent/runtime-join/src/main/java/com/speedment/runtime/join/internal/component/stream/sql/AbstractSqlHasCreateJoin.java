@@ -16,6 +16,7 @@
  */
 package com.speedment.runtime.join.internal.component.stream.sql;
 
+import com.speedment.common.lazy.LazyReference;
 import com.speedment.runtime.config.Project;
 import com.speedment.runtime.config.identifier.TableIdentifier;
 import com.speedment.runtime.core.component.DbmsHandlerComponent;
@@ -39,17 +40,20 @@ abstract class AbstractSqlHasCreateJoin {
     private final Project project;
     private final SqlAdapterMapper sqlAdapterMapper;
     private final boolean allowStreamIteratorAndSpliterator;
+    private final HashJoinSettings hashJoinSettings;
 
     AbstractSqlHasCreateJoin(
         final DbmsHandlerComponent dbmsHandlerComponent,
         final Project project,
         final SqlAdapterMapper sqlAdapterMapper,
-        final boolean allowStreamIteratorAndSpliterator
+        final boolean allowStreamIteratorAndSpliterator,
+        final HashJoinSettings hashJoinSettings
     ) {
         this.dbmsHandlerComponent = requireNonNull(dbmsHandlerComponent);
         this.project = requireNonNull(project);
         this.sqlAdapterMapper = requireNonNull(sqlAdapterMapper);
         this.allowStreamIteratorAndSpliterator = allowStreamIteratorAndSpliterator;
+        this.hashJoinSettings = requireNonNull(hashJoinSettings);
     }
 
     <T> SqlFunction<ResultSet, T> rsMapper(
@@ -63,8 +67,25 @@ abstract class AbstractSqlHasCreateJoin {
     <T> Join<T> newJoin(final List<Stage<?>> stages, final SqlFunction<ResultSet, T> rsMapper) {
         requireNonNull(stages);
         requireNonNull(rsMapper);
+        if (!JoinSqlUtil.isSameDbms(project, stages)) {
+            // Tables in different databases are read separately and joined in memory
+            final LazyReference<List<JoinSql>> stageSqls = LazyReference.create();
+            return new JoinImpl<>(
+                () -> HashJoinUtil.stream(
+                    stageSqls.getOrCompute(() -> HashJoinUtil.render(dbmsHandlerComponent, project, stages)),
+                    rsMapper,
+                    hashJoinSettings
+                )
+            );
+        }
+        // The SQL is the same for every stream so it is only rendered once
+        final LazyReference<JoinSql> joinSql = LazyReference.create();
         return new JoinImpl<>(
-            () -> JoinSqlUtil.stream(dbmsHandlerComponent, project, stages, rsMapper, allowStreamIteratorAndSpliterator)
+            () -> JoinSqlUtil.stream(
+                joinSql.getOrCompute(() -> JoinSqlUtil.render(dbmsHandlerComponent, project, stages)),
+                rsMapper,
+                allowStreamIteratorAndSpliterator
+            )
         );
     }
 
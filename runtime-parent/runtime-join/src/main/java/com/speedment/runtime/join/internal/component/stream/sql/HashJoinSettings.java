@@ -0,0 +1,59 @@
+/**
+ *
+ * Copyright (c) 2006-2018, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.join.internal.component.stream.sql;
+
+import java.nio.file.Path;
+import java.util.Optional;
+
+import static com.speedment.common.invariant.LongRangeUtil.requirePositive;
+
+/**
+ * Settings used when joining tables that reside in different databases. Such
+ * joins can not be rendered to a single SQL query so the rows of each table
+ * are instead read separately and then joined in memory using a hash join.
+ *
+ * @author Per Minborg
+ * @since 3.1.6
+ */
+public final class HashJoinSettings {
+
+    private final long memoryBudget;
+    private final Path spillDirectory;
+
+    /**
+     * Creates new HashJoinSettings.
+     *
+     * @param memoryBudget the estimated number of bytes a hash table may
+     * occupy before its rows are spilled to disk
+     * @param spillDirectory the directory to put spilled rows in, or
+     * {@code null} if the default temporary-file directory shall be used
+     * @throws IllegalArgumentException if {@code memoryBudget} is not positive
+     */
+    public HashJoinSettings(long memoryBudget, Path spillDirectory) {
+        this.memoryBudget = requirePositive(memoryBudget);
+        this.spillDirectory = spillDirectory;
+    }
+
+    long memoryBudget() {
+        return memoryBudget;
+    }
+
+    Optional<Path> spillDirectory() {
+        return Optional.ofNullable(spillDirectory);
+    }
+
+}
@@ -0,0 +1,254 @@
+/**
+ *
+ * Copyright (c) 2006-2018, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.join.internal.component.stream.sql;
+
+import com.speedment.common.logger.Logger;
+import com.speedment.common.logger.LoggerManager;
+import com.speedment.runtime.core.ApplicationBuilder;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * One equality join between a build side, that is held in a hash table, and
+ * a probe side, that is streamed. Rows are arrays with one slot per stage of
+ * the join where the slots of stages that are not (yet) part of the row are
+ * {@code null}.
+ * <p>
+ * If the build side exceeds the memory budget, both sides are partitioned by
+ * key into spill files and each pair of partitions is then joined separately
+ * (a grace hash join). Partitions that still exceed the budget are
+ * partitioned again using another hash function, up to a maximum depth.
+ * A partition that exceeds the budget at the maximum depth (typically because
+ * many rows share the same key) is held in memory anyway and a warning is
+ * logged.
+ *
+ * @author Per Minborg
+ * @since 3.1.6
+ */
+final class HashJoinStep {
+
+    static final int PARTITIONS = 16;
+    static final int MAX_LEVEL = 3;
+
+    private static final Logger LOGGER_JOIN =
+        LoggerManager.getLogger(ApplicationBuilder.LogType.JOIN.getLoggerName());
+
+    private final Supplier<Stream<Object[][]>> build;
+    private final Function<Object[][], Object> buildKey;
+    private final boolean keepUnmatchedBuild;
+    private final Function<Object[][], Object> probeKey;
+    private final boolean keepUnmatchedProbe;
+    private final HashJoinSettings settings;
+    private final int level;
+
+    /**
+     * Creates a new HashJoinStep.
+     *
+     * @param build supplier of the rows to build the hash table from
+     * @param buildKey extracting the key of a build row
+     * @param keepUnmatchedBuild if build rows without a match shall be
+     * retained in the result
+     * @param probeKey extracting the key of a probe row
+     * @param keepUnmatchedProbe if probe rows without a match shall be
+     * retained in the result
+     * @param settings containing the memory budget
+     * @param level the partitioning depth of this step
+     */
+    HashJoinStep(
+        final Supplier<Stream<Object[][]>> build,
+        final Function<Object[][], Object> buildKey,
+        final boolean keepUnmatchedBuild,
+        final Function<Object[][], Object> probeKey,
+        final boolean keepUnmatchedProbe,
+        final HashJoinSettings settings,
+        final int level
+    ) {
+        this.build = requireNonNull(build);
+        this.buildKey = requireNonNull(buildKey);
+        this.keepUnmatchedBuild = keepUnmatchedBuild;
+        this.probeKey = requireNonNull(probeKey);
+        this.keepUnmatchedProbe = keepUnmatchedProbe;
+        this.settings = requireNonNull(settings);
+        this.level = level;
+    }
+
+    /**
+     * Returns a stream of the joined rows. The build side is not read until
+     * the returned stream is consumed.
+     *
+     * @param probe the rows to probe the hash table with
+     * @return a stream of the joined rows
+     */
+    Stream<Object[][]> join(Stream<Object[][]> probe) {
+        requireNonNull(probe);
+        return HashJoinUtil.concat(Collections.<Supplier<Stream<Object[][]>>>singletonList(() -> buildAndProbe(probe)))
+            .onClose(probe::close);
+    }
+
+    private Stream<Object[][]> buildAndProbe(Stream<Object[][]> probe) {
+        HashJoinTable table = new HashJoinTable();
+        SpillFile[] buildFiles = null;
+        boolean warned = false;
+        try (Stream<Object[][]> rows = build.get()) {
+            final Iterator<Object[][]> iterator = rows.iterator();
+            while (iterator.hasNext()) {
+                final Object[][] row = iterator.next();
+                final Object key = buildKey.apply(row);
+                if (key == null && !keepUnmatchedBuild) {
+                    continue; // The row can never be part of the result
+                }
+                if (buildFiles != null) {
+                    write(buildFiles, key, row);
+                } else {
+                    table.add(key, row);
+                    if (table.estimatedBytes() > settings.memoryBudget()) {
+                        if (level < MAX_LEVEL) {
+                            buildFiles = newSpillFiles();
+                            final SpillFile[] files = buildFiles;
+                            table.rows().forEachOrdered(r -> write(files, buildKey.apply(r), r));
+                            table = null;
+                        } else if (!warned) {
+                            warned = true;
+                            LOGGER_JOIN.warn(
+                                "A hash join partition exceeds the memory budget of %d bytes after %d levels of "
+                                + "partitioning, probably because many rows share the same key. The partition is "
+                                + "held in memory, which may exhaust the heap. Consider increasing "
+                                + "join.hashJoin.memoryBudget or the heap size.",
+                                settings.memoryBudget(),
+                                MAX_LEVEL
+                            );
+                        }
+                    }
+                }
+            }
+        } catch (final RuntimeException ex) {
+            delete(buildFiles);
+            throw ex;
+        }
+        if (buildFiles == null) {
+            return probe(table, probe);
+        }
+        return spilled(buildFiles, probe);
+    }
+
+    private Stream<Object[][]> probe(HashJoinTable table, Stream<Object[][]> probe) {
+        final Stream<Object[][]> matches = probe.flatMap(row -> {
+            int index = table.first(probeKey.apply(row));
+            if (index == HashJoinTable.NONE) {
+                return keepUnmatchedProbe ? Stream.<Object[][]>of(row) : Stream.<Object[][]>empty();
+            }
+            final List<Object[][]> result = new ArrayList<>();
+            do {
+                table.markMatched(index);
+                result.add(merge(row, table.row(index)));
+                index = table.next(index);
+            } while (index != HashJoinTable.NONE);
+            return result.stream();
+        });
+        if (!keepUnmatchedBuild) {
+            return matches;
+        }
+        // Unmatched build rows are only known when all probe rows are consumed
+        return HashJoinUtil.concat(Arrays.<Supplier<Stream<Object[][]>>>asList(
+            () -> matches,
+            table::unmatched
+        ));
+    }
+
+    private Stream<Object[][]> spilled(SpillFile[] buildFiles, Stream<Object[][]> probe) {
+        final SpillFile[] probeFiles = newSpillFiles();
+        try (Stream<Object[][]> rows = probe) {
+            rows.forEachOrdered(row -> write(probeFiles, probeKey.apply(row), row));
+        } catch (final RuntimeException ex) {
+            delete(buildFiles);
+            delete(probeFiles);
+            throw ex;
+        }
+        final List<Supplier<Stream<Object[][]>>> partitions = new ArrayList<>(PARTITIONS);
+        for (int i = 0; i < PARTITIONS; i++) {
+            final SpillFile buildFile = buildFiles[i];
+            final SpillFile probeFile = probeFiles[i];
+            partitions.add(() -> new HashJoinStep(
+                    buildFile::read,
+                    buildKey,
+                    keepUnmatchedBuild,
+                    probeKey,
+                    keepUnmatchedProbe,
+                    settings,
+                    level + 1
+                ).join(probeFile.read())
+                .onClose(() -> {
+                    buildFile.delete();
+                    probeFile.delete();
+                })
+            );
+        }
+        return HashJoinUtil.concat(partitions).onClose(() -> {
+            delete(buildFiles);
+            delete(probeFiles);
+        });
+    }
+
+    private SpillFile[] newSpillFiles() {
+        final SpillFile[] files = new SpillFile[PARTITIONS];
+        try {
+            for (int i = 0; i < PARTITIONS; i++) {
+                files[i] = SpillFile.create(settings.spillDirectory());
+            }
+        } catch (final RuntimeException ex) {
+            delete(files);
+            throw ex;
+        }
+        return files;
+    }
+
+    private void write(SpillFile[] files, Object key, Object[][] row) {
+        // Rows without a key never match and can be put in any partition
+        final int partition = key == null
+            ? 0
+            : Math.floorMod(HashJoinUtil.mix(HashJoinUtil.hash(key) + level * 0x9E3779B9), PARTITIONS);
+        files[partition].write(row);
+    }
+
+    private static Object[][] merge(Object[][] first, Object[][] second) {
+        final Object[][] result = new Object[first.length][];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = first[i] != null ? first[i] : second[i];
+        }
+        return result;
+    }
+
+    private static void delete(SpillFile[] files) {
+        if (files != null) {
+            for (final SpillFile file : files) {
+                if (file != null) {
+                    file.delete();
+                }
+            }
+        }
+    }
+
+}
@@ -0,0 +1,176 @@
+/**
+ *
+ * Copyright (c) 2006-2018, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.join.internal.component.stream.sql;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * The in-memory table of the build side of a hash join. Rows are chained per
+ * key. Keys of integral types are stored in an open addressing table of
+ * primitive {@code long} keys so that no boxed keys or map entries need to be
+ * retained per key. Other keys are stored in a {@code HashMap}.
+ * <p>
+ * Rows with a {@code null} key are retained but never matched.
+ *
+ * @author Per Minborg
+ * @since 3.1.6
+ */
+final class HashJoinTable {
+
+    static final int NONE = -1;
+
+    private static final int INITIAL_CAPACITY = 16;
+    private static final long ROW_OVERHEAD = 32;
+
+    private final List<Object[][]> rows;
+    private final Map<Object, Integer> objectHeads;
+    private final BitSet matched;
+    private int[] next;
+    private long[] longKeys;
+    private int[] longHeads;
+    private int longKeyCount;
+    private long estimatedBytes;
+
+    HashJoinTable() {
+        this.rows = new ArrayList<>();
+        this.objectHeads = new HashMap<>();
+        this.matched = new BitSet();
+        this.next = new int[INITIAL_CAPACITY];
+        this.longKeys = new long[INITIAL_CAPACITY];
+        this.longHeads = newHeads(INITIAL_CAPACITY);
+    }
+
+    void add(Object key, Object[][] row) {
+        final int index = rows.size();
+        rows.add(row);
+        if (index == next.length) {
+            next = Arrays.copyOf(next, next.length * 2);
+        }
+        next[index] = NONE;
+        estimatedBytes += ROW_OVERHEAD + HashJoinUtil.estimateSize(row);
+        if (key == null) {
+            return;
+        }
+        if (HashJoinUtil.isIntegral(key)) {
+            addLong(((Number) key).longValue(), index);
+        } else {
+            final Integer head = objectHeads.put(key, index);
+            next[index] = head == null ? NONE : head;
+        }
+    }
+
+    /**
+     * Returns the index of the first row with the given key, or
+     * {@link #NONE} if there is no such row.
+     *
+     * @param key to look up
+     * @return the index of the first row with the given key
+     */
+    int first(Object key) {
+        if (key == null) {
+            return NONE;
+        }
+        if (HashJoinUtil.isIntegral(key)) {
+            return longHeads[slotOf(((Number) key).longValue())];
+        }
+        return objectHeads.getOrDefault(key, NONE);
+    }
+
+    /**
+     * Returns the index of the next row with the same key as the row with
+     * the given index, or {@link #NONE} if there is no such row.
+     *
+     * @param index of the previous row
+     * @return the index of the next row with the same key
+     */
+    int next(int index) {
+        return next[index];
+    }
+
+    Object[][] row(int index) {
+        return rows.get(index);
+    }
+
+    void markMatched(int index) {
+        matched.set(index);
+    }
+
+    long estimatedBytes() {
+        return estimatedBytes;
+    }
+
+    Stream<Object[][]> rows() {
+        return rows.stream();
+    }
+
+    Stream<Object[][]> unmatched() {
+        return IntStream.range(0, rows.size())
+            .filter(i -> !matched.get(i))
+            .mapToObj(rows::get);
+    }
+
+    private void addLong(long key, int index) {
+        if ((longKeyCount + 1) * 2 > longKeys.length) {
+            rehash(longKeys.length * 2);
+        }
+        final int slot = slotOf(key);
+        if (longHeads[slot] == NONE) {
+            longKeys[slot] = key;
+            longKeyCount++;
+        }
+        next[index] = longHeads[slot];
+        longHeads[slot] = index;
+    }
+
+    private int slotOf(long key) {
+        final int mask = longKeys.length - 1;
+        int slot = HashJoinUtil.mix(Long.hashCode(key)) & mask;
+        while (longHeads[slot] != NONE && longKeys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void rehash(int capacity) {
+        final long[] oldKeys = longKeys;
+        final int[] oldHeads = longHeads;
+        longKeys = new long[capacity];
+        longHeads = newHeads(capacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldHeads[i] != NONE) {
+                final int slot = slotOf(oldKeys[i]);
+                longKeys[slot] = oldKeys[i];
+                longHeads[slot] = oldHeads[i];
+            }
+        }
+        estimatedBytes += (capacity - oldKeys.length) * (long) (Long.BYTES + Integer.BYTES);
+    }
+
+    private static int[] newHeads(int capacity) {
+        final int[] heads = new int[capacity];
+        Arrays.fill(heads, NONE);
+        return heads;
+    }
+
+}
@@ -0,0 +1,335 @@
+/**
+ *
+ * Copyright (c) 2006-2018, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.join.internal.component.stream.sql;
+
+import com.speedment.runtime.config.Column;
+import com.speedment.runtime.config.Project;
+import com.speedment.runtime.core.component.DbmsHandlerComponent;
+import com.speedment.runtime.core.db.SqlFunction;
+import com.speedment.runtime.core.exception.SpeedmentException;
+import com.speedment.runtime.field.trait.HasComparableOperators;
+import com.speedment.runtime.join.stage.JoinOperator;
+import com.speedment.runtime.join.stage.JoinType;
+import com.speedment.runtime.join.stage.Stage;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import static java.util.Collections.singletonList;
+import static java.util.Collections.unmodifiableList;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Utility methods for joins between tables that reside in different
+ * databases. The rows of each stage are read using a separate query, where
+ * the predicates of the stage are rendered to SQL, and the stages are then
+ * joined in memory using one {@link HashJoinStep} per stage.
+ * <p>
+ * The first two stages are joined by building a hash table of the smaller of
+ * the two tables, as determined by {@code COUNT(*)} queries. Each following
+ * stage is then joined by building a hash table of the rows of that stage and
+ * streaming the rows joined so far.
+ * <p>
+ * Only equality joins are supported.
+ *
+ * @author Per Minborg
+ * @since 3.1.6
+ */
+final class HashJoinUtil {
+
+    private HashJoinUtil() {}
+
+    /**
+     * Renders one query per stage of the join.
+     *
+     * @param dbmsHandlerComponent to look up the database types with
+     * @param project the project that holds the tables
+     * @param stages of the join
+     * @return the rendered queries in stage order
+     * @throws IllegalStateException if the join can not be performed in
+     * memory
+     */
+    static List<JoinSql> render(
+        final DbmsHandlerComponent dbmsHandlerComponent,
+        final Project project,
+        final List<Stage<?>> stages
+    ) {
+        requireNonNull(dbmsHandlerComponent);
+        requireNonNull(project);
+        requireNonNull(stages);
+        final List<JoinSql> result = new ArrayList<>(stages.size());
+        for (int i = 0; i < stages.size(); i++) {
+            final Stage<?> stage = stages.get(i);
+            if (i > 0) {
+                requireHashJoinable(stage, i);
+            }
+            result.add(JoinSqlUtil.render(dbmsHandlerComponent, project, singletonList(stage)));
+        }
+        return unmodifiableList(result);
+    }
+
+    static <T> Stream<T> stream(
+        final List<JoinSql> stageSqls,
+        final SqlFunction<ResultSet, T> rsMapper,
+        final HashJoinSettings settings
+    ) {
+        requireNonNull(stageSqls);
+        requireNonNull(rsMapper);
+        requireNonNull(settings);
+        final int[] columnCounts = stageSqls.stream()
+            .mapToInt(s -> (int) s.sqlInfo().sqlStages().get(0).table().columns().filter(Column::isEnabled).count())
+            .toArray();
+        final int totalColumnCount = IntStream.of(columnCounts).sum();
+
+        return concat(Collections.<Supplier<Stream<Object[][]>>>singletonList(() -> joinAll(stageSqls, settings)))
+            .map(row -> {
+                final Object[] flat = new Object[totalColumnCount];
+                int offset = 0;
+                for (int i = 0; i < row.length; i++) {
+                    if (row[i] != null) {
+                        System.arraycopy(row[i], 0, flat, offset, columnCounts[i]);
+                    }
+                    offset += columnCounts[i];
+                }
+                try {
+                    return rsMapper.apply(RowResultSet.of(flat));
+                } catch (final SQLException sqle) {
+                    throw new SpeedmentException(sqle);
+                }
+            });
+    }
+
+    private static Stream<Object[][]> joinAll(List<JoinSql> stageSqls, HashJoinSettings settings) {
+        final int size = stageSqls.size();
+        final Stage<?> second = stageSqls.get(1).sqlInfo().stages().get(0);
+        final JoinType secondJoinType = second.joinType().get();
+        final Function<Object[][], Object> firstKey = keyOf(stageSqls, 0, second.foreignField().get());
+        final Function<Object[][], Object> secondKey = keyOf(stageSqls, 1, second.field().get());
+
+        // Build the hash table of the smaller of the first two stages
+        Stream<Object[][]> joined;
+        if (count(stageSqls.get(0)) < count(stageSqls.get(1))) {
+            joined = new HashJoinStep(
+                () -> rows(stageSqls, 0), firstKey, secondJoinType.isNullableSelf(),
+                secondKey, secondJoinType.isNullableOther(),
+                settings, 0
+            ).join(rows(stageSqls, 1));
+        } else {
+            joined = new HashJoinStep(
+                () -> rows(stageSqls, 1), secondKey, secondJoinType.isNullableOther(),
+                firstKey, secondJoinType.isNullableSelf(),
+                settings, 0
+            ).join(rows(stageSqls, 0));
+        }
+
+        for (int i = 2; i < size; i++) {
+            final int stageIndex = i;
+            final Stage<?> stage = stageSqls.get(i).sqlInfo().stages().get(0);
+            final JoinType joinType = stage.joinType().get();
+            joined = new HashJoinStep(
+                () -> rows(stageSqls, stageIndex), keyOf(stageSqls, stageIndex, stage.field().get()), joinType.isNullableOther(),
+                keyOf(stageSqls, stage.referencedStage(), stage.foreignField().get()), joinType.isNullableSelf(),
+                settings, 0
+            ).join(joined);
+        }
+        return joined;
+    }
+
+    private static void requireHashJoinable(Stage<?> stage, int stageIndex) {
+        final JoinType joinType = stage.joinType()
+            .orElseThrow(() -> new IllegalStateException("Stage " + stageIndex + " has no join type: " + stage));
+        if (joinType == JoinType.CROSS_JOIN) {
+            throw new IllegalStateException(
+                "A " + joinType.sql() + " can not be performed between tables in different databases: " + stage
+            );
+        }
+        if (stage.joinOperator().orElse(null) != JoinOperator.EQUAL) {
+            throw new IllegalStateException(
+                "Only equality joins can be performed between tables in different databases: " + stage
+            );
+        }
+        if (stage.referencedStage() >= stageIndex) {
+            throw new IllegalStateException(
+                "Stage " + stageIndex + " references the later stage " + stage.referencedStage() + ": " + stage
+            );
+        }
+    }
+
+    private static Function<Object[][], Object> keyOf(
+        final List<JoinSql> stageSqls,
+        final int stageIndex,
+        final HasComparableOperators<?, ?> field
+    ) {
+        final SqlStage sqlStage = stageSqls.get(stageIndex).sqlInfo().sqlStages().get(0);
+        final int offset = JoinSqlUtil.findColumnOffset(sqlStage.table(), sqlStage.stage(), field);
+        return row -> row[stageIndex] == null ? null : row[stageIndex][offset];
+    }
+
+    private static Stream<Object[][]> rows(List<JoinSql> stageSqls, int stageIndex) {
+        final int size = stageSqls.size();
+        final JoinSql joinSql = stageSqls.get(stageIndex);
+        final SqlInfo sqlInfo = joinSql.sqlInfo();
+        final int columns = (int) sqlInfo.sqlStages().get(0).table().columns().filter(Column::isEnabled).count();
+        return sqlInfo.dbmsType().getOperationHandler().executeQuery(
+            sqlInfo.dbms(),
+            joinSql.sql(),
+            joinSql.values(),
+            rs -> {
+                final Object[] values = new Object[columns];
+                for (int i = 0; i < columns; i++) {
+                    values[i] = rs.getObject(i + 1);
+                }
+                final Object[][] row = new Object[size][];
+                row[stageIndex] = values;
+                return row;
+            }
+        );
+    }
+
+    private static long count(JoinSql joinSql) {
+        final SqlInfo sqlInfo = joinSql.sqlInfo();
+        final JoinSql countSql = JoinSqlUtil.renderCount(sqlInfo);
+        try (Stream<Long> counts = sqlInfo.dbmsType().getOperationHandler()
+            .executeQuery(sqlInfo.dbms(), countSql.sql(), countSql.values(), rs -> rs.getLong(1), 1)) {
+            return counts.findFirst().orElse(0L);
+        }
+    }
+
+    /**
+     * Returns a stream that lazily concatenates the streams provided by the
+     * given suppliers. A stream is not created until all elements of the
+     * previous stream have been consumed and each stream is closed as soon as
+     * it has been consumed. The streams are always consumed sequentially, even
+     * if the returned stream is parallel.
+     *
+     * @param <T> element type
+     * @param parts supplying the streams to concatenate
+     * @return the concatenated stream
+     */
+    static <T> Stream<T> concat(List<Supplier<Stream<T>>> parts) {
+        final ConcatSpliterator<T> spliterator = new ConcatSpliterator<>(parts);
+        return StreamSupport.stream(spliterator, false).onClose(spliterator::close);
+    }
+
+    static boolean isIntegral(Object key) {
+        return key instanceof Integer
+            || key instanceof Long
+            || key instanceof Short
+            || key instanceof Byte;
+    }
+
+    /**
+     * Returns the hash code of a key where integral keys of different types
+     * but with the same value have the same hash code.
+     *
+     * @param key to hash
+     * @return the hash code of the key
+     */
+    static int hash(Object key) {
+        return isIntegral(key) ? Long.hashCode(((Number) key).longValue()) : key.hashCode();
+    }
+
+    static int mix(int hash) {
+        int h = hash * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Returns a rough estimate of the number of bytes that the given row
+     * occupies on the heap.
+     *
+     * @param row to estimate
+     * @return an estimate of the size of the row
+     */
+    static long estimateSize(Object[][] row) {
+        long size = 16 + 8L * row.length;
+        for (final Object[] values : row) {
+            if (values != null) {
+                size += 16 + 8L * values.length;
+                for (final Object value : values) {
+                    size += estimateSize(value);
+                }
+            }
+        }
+        return size;
+    }
+
+    private static long estimateSize(Object value) {
+        if (value == null) {
+            return 0;
+        } else if (value instanceof String) {
+            return 40 + 2L * ((String) value).length();
+        } else if (value instanceof byte[]) {
+            return 16 + ((byte[]) value).length;
+        } else if (value instanceof BigDecimal) {
+            return 64;
+        }
+        return 24;
+    }
+
+    private static final class ConcatSpliterator<T> extends Spliterators.AbstractSpliterator<T> {
+
+        private final List<Supplier<Stream<T>>> parts;
+        private int index;
+        private Stream<T> current;
+        private Spliterator<T> spliterator;
+
+        private ConcatSpliterator(List<Supplier<Stream<T>>> parts) {
+            super(Long.MAX_VALUE, Spliterator.ORDERED);
+            this.parts = requireNonNull(parts);
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super T> action) {
+            while (true) {
+                if (current == null) {
+                    if (index == parts.size()) {
+                        return false;
+                    }
+                    current = parts.get(index++).get();
+                    spliterator = current.spliterator();
+                }
+                if (spliterator.tryAdvance(action)) {
+                    return true;
+                }
+                close();
+            }
+        }
+
+        private void close() {
+            if (current != null) {
+                final Stream<T> stream = current;
+                current = null;
+                spliterator = null;
+                stream.close();
+            }
+        }
+    }
+
+}
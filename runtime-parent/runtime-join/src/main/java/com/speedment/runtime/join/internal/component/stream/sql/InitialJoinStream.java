@@ -2,8 +2,13 @@ package com.speedment.runtime.join.internal.component.stream.sql;
 
 import com.speedment.runtime.core.db.AsynchronousQueryResult;
 import com.speedment.runtime.core.db.DbmsType;
+import com.speedment.runtime.core.db.SqlPredicateFragment;
 import com.speedment.runtime.core.stream.AutoClosingStream;
 import com.speedment.runtime.core.stream.ComposeRunnableUtil;
+import com.speedment.runtime.field.comparator.ComposedComparator;
+import com.speedment.runtime.field.comparator.FieldComparator;
+import com.speedment.runtime.field.predicate.ComposedPredicate;
+import com.speedment.runtime.field.predicate.FieldPredicate;
 
 import java.util.*;
 import java.util.function.*;
@@ -15,8 +20,13 @@ import static java.util.Objects.requireNonNull;
 final class InitialJoinStream<T> implements Stream<T>/*, Java9StreamAdditions<T>*/ {
 
     private final AsynchronousQueryResult<T> asynchronousQueryResult;
-    private final SqlInfo sqlInfo;
+    private final JoinSql joinSql;
     private final boolean allowStreamIteratorAndSpliterator;
+    // Filters and comparators that are rendered to SQL and their stage indexes
+    private final List<FieldPredicate<?>> filters;
+    private final List<Integer> filterStages;
+    private final List<FieldComparator<?>> comparators;
+    private final List<Integer> comparatorStages;
     private boolean parallel;
     private boolean unordered;
     private boolean consumed;
@@ -26,12 +36,16 @@ final class InitialJoinStream<T> implements Stream<T>/*, Java9StreamAdditions<T>
 
     InitialJoinStream(
         final AsynchronousQueryResult<T> asynchronousQueryResult,
-        final SqlInfo sqlInfo,
+        final JoinSql joinSql,
         final boolean allowStreamIteratorAndSpliterator
     ) {
         this.asynchronousQueryResult = requireNonNull(asynchronousQueryResult);
-        this.sqlInfo = requireNonNull(sqlInfo);
+        this.joinSql = requireNonNull(joinSql);
         this.allowStreamIteratorAndSpliterator = allowStreamIteratorAndSpliterator;
+        this.filters = new ArrayList<>();
+        this.filterStages = new ArrayList<>();
+        this.comparators = new ArrayList<>();
+        this.comparatorStages = new ArrayList<>();
         this.closeHandlers = new ArrayList<>();
         this.skip = 0;
         this.limit = Long.MAX_VALUE;
@@ -52,6 +66,15 @@ final class InitialJoinStream<T> implements Stream<T>/*, Java9StreamAdditions<T>
     @Override
     public Stream<T> filter(Predicate<? super T> predicate) {
         requireNonNull(predicate);
+        if (predicate instanceof ComposedPredicate && isBeforeSkipAndLimit()) {
+            final ComposedPredicate<?, ?> composed = (ComposedPredicate<?, ?>) predicate;
+            final int stageIndex = JoinSqlUtil.renderableStageIndex(joinSql.sqlInfo(), composed);
+            if (stageIndex >= 0) {
+                filters.add((FieldPredicate<?>) composed.secondStep());
+                filterStages.add(stageIndex);
+                return this;
+            }
+        }
         return materialize().filter(predicate);
     }
 
@@ -117,6 +140,15 @@ final class InitialJoinStream<T> implements Stream<T>/*, Java9StreamAdditions<T>
     @Override
     public Stream<T> sorted(Comparator<? super T> comparator) {
         requireNonNull(comparator);
+        if (comparator instanceof ComposedComparator && isBeforeSkipAndLimit()) {
+            final ComposedComparator<?, ?> composed = (ComposedComparator<?, ?>) comparator;
+            final int stageIndex = JoinSqlUtil.renderableStageIndex(joinSql.sqlInfo(), composed);
+            if (stageIndex >= 0) {
+                comparators.add(composed.secondStep());
+                comparatorStages.add(stageIndex);
+                return this;
+            }
+        }
         return materialize().sorted(comparator);
     }
 
@@ -305,6 +337,9 @@ final class InitialJoinStream<T> implements Stream<T>/*, Java9StreamAdditions<T>
         assertNotConsumed();
         consumed = true;
 
+        renderFiltersAndComparators();
+
+        final SqlInfo sqlInfo = joinSql.sqlInfo();
         final boolean skipLimitInSql = sqlInfo.dbmsType().getSkipLimitSupport() == DbmsType.SkipLimitSupport.STANDARD;
         if (skipLimitInSql) {
             // Render SKIP and LIMIT to SQL
@@ -337,6 +372,41 @@ final class InitialJoinStream<T> implements Stream<T>/*, Java9StreamAdditions<T>
         return result;
     }
 
+    /**
+     * Filters and sorting can only be rendered to SQL if they are applied
+     * before any skip() or limit() operation.
+     */
+    private boolean isBeforeSkipAndLimit() {
+        return skip == 0 && limit == Long.MAX_VALUE;
+    }
+
+    private void renderFiltersAndComparators() {
+        if (filters.isEmpty() && comparators.isEmpty()) {
+            return;
+        }
+        final SqlInfo sqlInfo = joinSql.sqlInfo();
+        final StringBuilder sql = new StringBuilder(asynchronousQueryResult.getSql());
+        final List<Object> values = new ArrayList<>(asynchronousQueryResult.getValues());
+
+        if (!filters.isEmpty()) {
+            final SqlPredicateFragment fragment = JoinSqlUtil.renderWhere(sqlInfo, filterStages, filters);
+            sql.append(joinSql.hasWhere() ? " AND " : " WHERE ").append(fragment.getSql());
+            fragment.objects().forEachOrdered(values::add);
+        }
+
+        if (!comparators.isEmpty()) {
+            // The last sorted() operation is the most significant one
+            final List<FieldComparator<?>> orderBy = new ArrayList<>(comparators);
+            final List<Integer> orderByStages = new ArrayList<>(comparatorStages);
+            Collections.reverse(orderBy);
+            Collections.reverse(orderByStages);
+            sql.append(" ORDER BY ").append(JoinSqlUtil.renderOrderBy(sqlInfo, orderByStages, orderBy));
+        }
+
+        asynchronousQueryResult.setSql(sql.toString());
+        asynchronousQueryResult.setValues(values);
+    }
+
     private void assertNotConsumed() {
         if (consumed) {
             throw new IllegalStateException("This stream has already been consumed");
@@ -0,0 +1,73 @@
+/**
+ *
+ * Copyright (c) 2006-2018, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.join.internal.component.stream.sql;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.util.Collections.unmodifiableList;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * The rendered SQL query of a join together with the values of its
+ * parameters. Instances are created once per join and are then shared by
+ * all streams of the join.
+ *
+ * @author Per Minborg
+ * @since 3.1.6
+ */
+final class JoinSql {
+
+    private final SqlInfo sqlInfo;
+    private final String sql;
+    private final List<Object> values;
+    private final boolean hasWhere;
+
+    JoinSql(
+        final SqlInfo sqlInfo,
+        final String sql,
+        final List<Object> values,
+        final boolean hasWhere
+    ) {
+        this.sqlInfo = requireNonNull(sqlInfo);
+        this.sql = requireNonNull(sql);
+        this.values = unmodifiableList(new ArrayList<>(values));
+        this.hasWhere = hasWhere;
+    }
+
+    SqlInfo sqlInfo() {
+        return sqlInfo;
+    }
+
+    String sql() {
+        return sql;
+    }
+
+    List<Object> values() {
+        return values;
+    }
+
+    /**
+     * Returns if the SQL query already has a WHERE clause.
+     *
+     * @return if the SQL query already has a WHERE clause
+     */
+    boolean hasWhere() {
+        return hasWhere;
+    }
+
+}
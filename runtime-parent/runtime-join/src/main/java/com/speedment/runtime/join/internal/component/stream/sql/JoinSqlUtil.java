@@ -17,6 +17,7 @@
 package com.speedment.runtime.join.internal.component.stream.sql;
 
 import static com.speedment.common.invariant.IntRangeUtil.requireNonNegative;
+import com.speedment.common.tuple.getter.TupleGetter;
 import com.speedment.runtime.config.Column;
 import com.speedment.runtime.config.Dbms;
 import com.speedment.runtime.config.Project;
@@ -27,10 +28,16 @@ import com.speedment.runtime.core.component.DbmsHandlerComponent;
 import com.speedment.runtime.core.component.SqlAdapter;
 import com.speedment.runtime.core.db.AsynchronousQueryResult;
 import com.speedment.runtime.core.db.DatabaseNamingConvention;
+import com.speedment.runtime.core.db.DbmsType;
 import com.speedment.runtime.core.db.FieldPredicateView;
 import com.speedment.runtime.core.db.SqlFunction;
 import com.speedment.runtime.core.db.SqlPredicateFragment;
 import com.speedment.runtime.core.stream.parallel.ParallelStrategy;
+import com.speedment.runtime.field.Field;
+import com.speedment.runtime.field.comparator.ComposedComparator;
+import com.speedment.runtime.field.comparator.FieldComparator;
+import com.speedment.runtime.field.comparator.NullOrder;
+import com.speedment.runtime.field.predicate.ComposedPredicate;
 import com.speedment.runtime.field.predicate.FieldPredicate;
 import com.speedment.runtime.field.trait.HasComparableOperators;
 import com.speedment.runtime.join.internal.component.stream.SqlAdapterMapper;
@@ -45,6 +52,7 @@ import static com.speedment.runtime.join.JoinComponent.MAX_DEGREE;
 import static java.util.Collections.emptyList;
 import static java.util.Objects.requireNonNull;
 
+import java.util.function.Function;
 import java.util.function.Predicate;
 import static java.util.stream.Collectors.joining;
 import static java.util.stream.Collectors.toList;
@@ -84,6 +92,27 @@ final class JoinSqlUtil {
         return dbms;
     }
 
+    /**
+     * Returns if all stages of a join reside in the same database, in which
+     * case the join can be rendered to a single SQL query.
+     *
+     * @param project the project that holds the tables
+     * @param stages of the join
+     * @return if all stages reside in the same database
+     */
+    static boolean isSameDbms(
+        final Project project,
+        final List<Stage<?>> stages
+    ) {
+        requireNonNull(project);
+        requireNonNull(stages);
+        final Dbms dbms = DocumentDbUtil.referencedDbms(project, stages.get(0).identifier());
+        return stages.stream()
+            .skip(1)
+            .map(stage -> DocumentDbUtil.referencedDbms(project, stage.identifier()))
+            .allMatch(otherDbms -> DocumentDbUtil.isSame(dbms, otherDbms));
+    }
+
     static <T> SqlFunction<ResultSet, T> resultSetMapper(
         final Project project,
         final TableIdentifier<T> identifier,
@@ -113,7 +142,7 @@ final class JoinSqlUtil {
 
         // Check if this stage renders an on-field to be nullable
         if (stage.joinType().isPresent() && stage.joinType().get().isNullableSelf()) {
-            nullOffset = findNullOffset(table, stage, stage.field().get());
+            nullOffset = findColumnOffset(table, stage, stage.field().get());
         }
 
         // Check if another (RIGHT JOIN) stage renders an on-field in this stage to be nullable
@@ -129,7 +158,7 @@ final class JoinSqlUtil {
                 if (otherStage.joinType().isPresent() && otherStage.joinType().get().isNullableOther()) {
                     final TableIdentifier<?> referencedId = otherStage.foreignField().get().identifier().asTableIdentifier();
                     if (thisId.equals(referencedId)) {
-                        nullOffset = findNullOffset(table, otherStage, otherStage.foreignField().get());
+                        nullOffset = findColumnOffset(table, otherStage, otherStage.foreignField().get());
                         // If we have a between operation where there is another field pointed, my
                         // belief is that we can safely ignore that because both fields will be null and we
                         // only need to detect one
@@ -146,7 +175,7 @@ final class JoinSqlUtil {
 
     }
 
-    private static int findNullOffset(
+    static int findColumnOffset(
         final Table table,
         final Stage<?> stage,
         final HasComparableOperators<?, ?> field
@@ -214,27 +243,51 @@ final class JoinSqlUtil {
 
     }
 
-    static <T> Stream<T> stream(
+    /**
+     * Renders the SQL query of a join. The result does not depend on the
+     * stream operations and can therefore be reused for every stream of the
+     * same join.
+     *
+     * @param dbmsHandlerComponent to look up the database type with
+     * @param project the project that holds the tables
+     * @param stages of the join
+     * @return the rendered join query
+     */
+    static JoinSql render(
         final DbmsHandlerComponent dbmsHandlerComponent,
         final Project project,
-        final List<Stage<?>> stages,
-        final SqlFunction<ResultSet, T> rsMapper,
-        final boolean allowStreamIteratorAndSpliterator
+        final List<Stage<?>> stages
     ) {
         requireNonNull(project);
         requireNonNull(dbmsHandlerComponent);
         requireNonNull(stages);
-        requireNonNull(rsMapper);
         final SqlInfo sqlInfo = new SqlInfo(dbmsHandlerComponent, project, stages);
+        return render(
+            sqlInfo,
+            sqlInfo.sqlStages().stream()
+                .map(SqlStage::sqlColumnList)
+                .collect(joining(", "))
+        );
+    }
+
+    /**
+     * Renders a query that counts the rows of the join described by the
+     * given SqlInfo.
+     *
+     * @param sqlInfo of the join
+     * @return the rendered count query
+     */
+    static JoinSql renderCount(SqlInfo sqlInfo) {
+        return render(requireNonNull(sqlInfo), "COUNT(*)");
+    }
+
+    private static JoinSql render(SqlInfo sqlInfo, String selectList) {
+        final List<Stage<?>> stages = sqlInfo.stages();
         final List<SqlStage> sqlStages = sqlInfo.sqlStages();
 
         final StringBuilder sb = new StringBuilder();
         sb.append("SELECT ");
-        sb.append(
-            sqlStages.stream()
-                .map(SqlStage::sqlColumnList)
-                .collect(joining(", "))
-        );
+        sb.append(selectList);
 
         final SqlStage firstSqlStage = sqlStages.get(0);
 
@@ -249,7 +302,7 @@ final class JoinSqlUtil {
         final List<SqlPredicateFragment> fragments
             = renderPredicates(sqlInfo.project(), sqlInfo.namingConvention(), sqlInfo.fieldPredicateView(), stages);
 
-        final List<?> values;
+        final List<Object> values;
         if (!fragments.isEmpty()) {
             sb.append(
                 fragments.stream().map(SqlPredicateFragment::getSql).collect(joining(" AND ", " WHERE ", ""))
@@ -259,18 +312,160 @@ final class JoinSqlUtil {
             values = emptyList();
         }
 
-        final String sql = sb.toString();
+        return new JoinSql(sqlInfo, sb.toString(), values, !fragments.isEmpty());
+    }
+
+    static <T> Stream<T> stream(
+        final JoinSql joinSql,
+        final SqlFunction<ResultSet, T> rsMapper,
+        final boolean allowStreamIteratorAndSpliterator
+    ) {
+        requireNonNull(joinSql);
+        requireNonNull(rsMapper);
+        final SqlInfo sqlInfo = joinSql.sqlInfo();
 
+        // The values are modified when the stream operations are rendered
         final AsynchronousQueryResult<T> asynchronousQueryResult
             = sqlInfo.dbmsType().getOperationHandler().executeQueryAsync(
                 sqlInfo.dbms(),
-                sql,
-                values,
+                joinSql.sql(),
+                new ArrayList<>(joinSql.values()),
                 rsMapper,
                 ParallelStrategy.computeIntensityDefault()
             );
 
-        return new InitialJoinStream<>(asynchronousQueryResult, sqlInfo, allowStreamIteratorAndSpliterator);
+        return new InitialJoinStream<>(asynchronousQueryResult, joinSql, allowStreamIteratorAndSpliterator);
+    }
+
+    /**
+     * Returns the index of the stage that the given composed predicate can be
+     * rendered to SQL for, or -1 if it can not be rendered. The predicate can
+     * be rendered if it tests a {@link FieldPredicate} on the output of a
+     * {@link TupleGetter} and the field belongs to the table of the stage
+     * with the same index as the getter.
+     *
+     * @param sqlInfo of the join
+     * @param predicate to check
+     * @return the index of the stage or -1
+     */
+    static int renderableStageIndex(SqlInfo sqlInfo, ComposedPredicate<?, ?> predicate) {
+        if (predicate.secondStep() instanceof FieldPredicate) {
+            return stageIndexOf(sqlInfo, predicate.firstStep(), ((FieldPredicate<?>) predicate.secondStep()).getField());
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the index of the stage that the given composed comparator can be
+     * rendered to SQL for, or -1 if it can not be rendered. The comparator can
+     * be rendered if it compares the outputs of a {@link TupleGetter} and the
+     * field belongs to the table of the stage with the same index as the
+     * getter.
+     *
+     * @param sqlInfo of the join
+     * @param comparator to check
+     * @return the index of the stage or -1
+     */
+    static int renderableStageIndex(SqlInfo sqlInfo, ComposedComparator<?, ?> comparator) {
+        return stageIndexOf(sqlInfo, comparator.firstStep(), comparator.secondStep().getField());
+    }
+
+    private static int stageIndexOf(SqlInfo sqlInfo, Function<?, ?> firstStep, Field<?> field) {
+        if (!(firstStep instanceof TupleGetter)) {
+            return -1;
+        }
+        final int stageIndex = ((TupleGetter<?, ?>) firstStep).index();
+        final List<Stage<?>> stages = sqlInfo.stages();
+        if (stageIndex < stages.size()
+            && stages.get(stageIndex).identifier().equals(field.identifier().asTableIdentifier())) {
+            return stageIndex;
+        }
+        return -1;
+    }
+
+    /**
+     * Renders the given field predicates to an SQL condition where the
+     * predicates are combined using AND.
+     *
+     * @param sqlInfo of the join
+     * @param stageIndexes the stage index of each predicate
+     * @param predicates to render
+     * @return the rendered predicates
+     */
+    static SqlPredicateFragment renderWhere(
+        final SqlInfo sqlInfo,
+        final List<Integer> stageIndexes,
+        final List<FieldPredicate<?>> predicates
+    ) {
+        requireNonNull(sqlInfo);
+        requireNonNull(stageIndexes);
+        requireNonNull(predicates);
+        final List<SqlPredicateFragment> fragments = new ArrayList<>();
+        for (int i = 0; i < predicates.size(); i++) {
+            final int stageIndex = stageIndexes.get(i);
+            fragments.add(sqlInfo.fieldPredicateView().transform(
+                f -> tableAlias(stageIndex) + "." + sqlInfo.namingConvention().encloseField(f.identifier().getColumnId()),
+                f -> f.findColumn(sqlInfo.project()).get().findDatabaseType(),
+                predicates.get(i)
+            ));
+        }
+        return SqlPredicateFragment.of(
+            fragments.stream().map(SqlPredicateFragment::getSql).collect(joining(" AND ")),
+            fragments.stream().flatMap(SqlPredicateFragment::objects).collect(toList())
+        );
+    }
+
+    /**
+     * Renders the given field comparators to an SQL ORDER BY list. The
+     * comparators are given with the most significant comparator first.
+     *
+     * @param sqlInfo of the join
+     * @param stageIndexes the stage index of each comparator
+     * @param comparators to render
+     * @return the rendered ORDER BY list
+     */
+    static String renderOrderBy(
+        final SqlInfo sqlInfo,
+        final List<Integer> stageIndexes,
+        final List<FieldComparator<?>> comparators
+    ) {
+        requireNonNull(sqlInfo);
+        requireNonNull(stageIndexes);
+        requireNonNull(comparators);
+        final DbmsType dbmsType = sqlInfo.dbmsType();
+        // Some databases (e.g. SQL Server) only allows distinct columns in ORDER BY
+        final Set<String> columnNames = new HashSet<>();
+        final StringJoiner sj = new StringJoiner(", ");
+        for (int i = 0; i < comparators.size(); i++) {
+            final FieldComparator<?> fieldComparator = comparators.get(i);
+            final String columnName = tableAlias(stageIndexes.get(i)) + "."
+                + sqlInfo.namingConvention().encloseField(fieldComparator.getField().identifier().getColumnId());
+            if (!columnNames.add(columnName)) {
+                continue;
+            }
+
+            final NullOrder effectiveNullOrder = fieldComparator.isReversed()
+                ? fieldComparator.getNullOrder().reversed()
+                : fieldComparator.getNullOrder();
+
+            final StringBuilder sb = new StringBuilder();
+            // Specify NullOrder pre column if nulls are first
+            if (effectiveNullOrder == NullOrder.FIRST) {
+                if (dbmsType.getSortByNullOrderInsertion() == DbmsType.SortByNullOrderInsertion.PRE) {
+                    sb.append(columnName).append(" IS NOT NULL, ");
+                }
+                if (dbmsType.getSortByNullOrderInsertion() == DbmsType.SortByNullOrderInsertion.PRE_WITH_CASE) {
+                    sb.append("CASE WHEN ").append(columnName).append(" IS NULL THEN 0 ELSE 1 END, ");
+                }
+            }
+            sb.append(columnName).append(fieldComparator.isReversed() ? " DESC" : " ASC");
+            // Specify NullOrder post column
+            if (effectiveNullOrder == NullOrder.FIRST && dbmsType.getSortByNullOrderInsertion() == DbmsType.SortByNullOrderInsertion.POST) {
+                sb.append(" NULLS FIRST");
+            }
+            sj.add(sb);
+        }
+        return sj.toString();
     }
 
     private static final String[] ALIASES = IntStream.range(0, MAX_DEGREE)
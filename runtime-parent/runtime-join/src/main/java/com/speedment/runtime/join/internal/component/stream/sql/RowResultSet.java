@@ -0,0 +1,203 @@
+/**
+ *
+ * Copyright (c) 2006-2018, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.join.internal.component.stream.sql;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A read-only {@link ResultSet} view of a single row of column values that
+ * has previously been read using {@link ResultSet#getObject(int)}. This makes
+ * it possible to apply the ordinary entity mappers to rows that have been
+ * joined in memory.
+ * <p>
+ * Only the getters that take a column index are supported.
+ *
+ * @author Per Minborg
+ * @since 3.1.6
+ */
+final class RowResultSet implements InvocationHandler {
+
+    private static final Constructor<?> PROXY_CONSTRUCTOR;
+
+    static {
+        try {
+            PROXY_CONSTRUCTOR = Proxy.getProxyClass(
+                RowResultSet.class.getClassLoader(),
+                ResultSet.class
+            ).getConstructor(InvocationHandler.class);
+        } catch (final NoSuchMethodException nsme) {
+            throw new ExceptionInInitializerError(nsme);
+        }
+    }
+
+    private final Object[] row;
+    private boolean wasNull;
+
+    private RowResultSet(Object[] row) {
+        this.row = requireNonNull(row);
+    }
+
+    static ResultSet of(Object[] row) {
+        try {
+            return (ResultSet) PROXY_CONSTRUCTOR.newInstance(new RowResultSet(row));
+        } catch (final InstantiationException | IllegalAccessException | InvocationTargetException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws SQLException {
+        final String name = method.getName();
+        switch (name) {
+            case "wasNull":  return wasNull;
+            case "isClosed": return false;
+            case "close":    return null;
+            case "toString": return RowResultSet.class.getSimpleName();
+            case "hashCode": return System.identityHashCode(proxy);
+            case "equals":   return proxy == args[0];
+        }
+        if (!name.startsWith("get") || args == null || !(args[0] instanceof Integer)) {
+            throw new SQLFeatureNotSupportedException(name);
+        }
+        final int columnIndex = (Integer) args[0];
+        if (columnIndex < 1 || columnIndex > row.length) {
+            throw new SQLException("Column index " + columnIndex + " is not in [1, " + row.length + "]");
+        }
+        final Object value = row[columnIndex - 1];
+        wasNull = value == null;
+        if (args.length == 2 && args[1] instanceof Class) {
+            return convert(value, (Class<?>) args[1]);
+        }
+        return convert(value, method.getReturnType());
+    }
+
+    private static Object convert(Object value, Class<?> type) throws SQLException {
+        if (type.isPrimitive()) {
+            return primitive(value, type);
+        }
+        if (value == null || type.isInstance(value)) {
+            return value;
+        }
+        if (type == String.class) {
+            return value.toString();
+        } else if (type == Timestamp.class) {
+            if (value instanceof LocalDateTime) {
+                return Timestamp.valueOf((LocalDateTime) value);
+            } else if (value instanceof java.util.Date) {
+                return new Timestamp(((java.util.Date) value).getTime());
+            }
+        } else if (type == Date.class) {
+            if (value instanceof LocalDate) {
+                return Date.valueOf((LocalDate) value);
+            } else if (value instanceof java.util.Date) {
+                return new Date(((java.util.Date) value).getTime());
+            }
+        } else if (type == Time.class) {
+            if (value instanceof LocalTime) {
+                return Time.valueOf((LocalTime) value);
+            } else if (value instanceof java.util.Date) {
+                return new Time(((java.util.Date) value).getTime());
+            }
+        } else if (type == BigDecimal.class) {
+            if (value instanceof BigInteger) {
+                return new BigDecimal((BigInteger) value);
+            }
+            return new BigDecimal(number(value).toString());
+        } else if (type == Long.class) {
+            return number(value).longValue();
+        } else if (type == Integer.class) {
+            return number(value).intValue();
+        } else if (type == Short.class) {
+            return number(value).shortValue();
+        } else if (type == Byte.class) {
+            return number(value).byteValue();
+        } else if (type == Double.class) {
+            return number(value).doubleValue();
+        } else if (type == Float.class) {
+            return number(value).floatValue();
+        } else if (type == Boolean.class) {
+            return bool(value);
+        }
+        throw new SQLException("Unable to convert " + value.getClass().getName() + " to " + type.getName());
+    }
+
+    private static Object primitive(Object value, Class<?> type) throws SQLException {
+        if (type == boolean.class) {
+            return value != null && bool(value);
+        }
+        final Number number = value == null ? 0 : number(value);
+        if (type == int.class) {
+            return number.intValue();
+        } else if (type == long.class) {
+            return number.longValue();
+        } else if (type == short.class) {
+            return number.shortValue();
+        } else if (type == byte.class) {
+            return number.byteValue();
+        } else if (type == double.class) {
+            return number.doubleValue();
+        } else if (type == float.class) {
+            return number.floatValue();
+        }
+        throw new SQLException("Unable to convert " + value + " to " + type.getName());
+    }
+
+    private static Number number(Object value) throws SQLException {
+        if (value instanceof Number) {
+            return (Number) value;
+        } else if (value instanceof Boolean) {
+            return (Boolean) value ? 1 : 0;
+        } else if (value instanceof Character) {
+            return (int) (Character) value;
+        } else if (value instanceof String) {
+            try {
+                return new BigDecimal(((String) value).trim());
+            } catch (final NumberFormatException nfe) {
+                throw new SQLException("Unable to convert '" + value + "' to a number", nfe);
+            }
+        }
+        throw new SQLException("Unable to convert " + value.getClass().getName() + " to a number");
+    }
+
+    private static boolean bool(Object value) throws SQLException {
+        if (value instanceof Boolean) {
+            return (Boolean) value;
+        } else if (value instanceof String) {
+            final String s = ((String) value).trim();
+            return "true".equalsIgnoreCase(s) || "1".equals(s);
+        }
+        return number(value).intValue() != 0;
+    }
+
+}
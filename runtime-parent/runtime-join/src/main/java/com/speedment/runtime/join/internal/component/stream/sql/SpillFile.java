@@ -0,0 +1,156 @@
+/**
+ *
+ * Copyright (c) 2006-2018, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.join.internal.component.stream.sql;
+
+import com.speedment.runtime.core.exception.SpeedmentException;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A temporary file that hash join rows are spilled to when they do not fit in
+ * memory. The column values of the rows are written using Java serialization.
+ *
+ * @author Per Minborg
+ * @since 3.1.6
+ */
+final class SpillFile {
+
+    private static final String PREFIX = "speedment-join-";
+    private static final String SUFFIX = ".spill";
+
+    // ObjectOutputStream retains references to all written objects until reset
+    private static final int RESET_INTERVAL = 1024;
+
+    private final Path path;
+    private ObjectOutputStream out;
+    private long rows;
+    private long estimatedBytes;
+
+    private SpillFile(Path path) {
+        this.path = requireNonNull(path);
+    }
+
+    static SpillFile create(Optional<Path> directory) {
+        requireNonNull(directory);
+        try {
+            final Path path = directory.isPresent()
+                ? Files.createTempFile(directory.get(), PREFIX, SUFFIX)
+                : Files.createTempFile(PREFIX, SUFFIX);
+            return new SpillFile(path);
+        } catch (final IOException ioe) {
+            throw new SpeedmentException("Unable to create a spill file for a join", ioe);
+        }
+    }
+
+    void write(Object[][] row) {
+        try {
+            if (out == null) {
+                out = new ObjectOutputStream(new BufferedOutputStream(Files.newOutputStream(path)));
+            }
+            out.writeObject(row);
+            if (++rows % RESET_INTERVAL == 0) {
+                out.reset();
+            }
+            estimatedBytes += HashJoinUtil.estimateSize(row);
+        } catch (final IOException ioe) {
+            throw new SpeedmentException("Unable to spill join rows to " + path
+                + ". All column values must be serializable.", ioe);
+        }
+    }
+
+    long estimatedBytes() {
+        return estimatedBytes;
+    }
+
+    /**
+     * Finishes writing and returns a stream of the rows in this file. The
+     * file is read as the stream is consumed.
+     *
+     * @return a stream of the rows in this file
+     */
+    Stream<Object[][]> read() {
+        if (rows == 0) {
+            return Stream.empty();
+        }
+        try {
+            out.close();
+            final ObjectInputStream in = new ObjectInputStream(new BufferedInputStream(Files.newInputStream(path)));
+            final Iterator<Object[][]> iterator = new Iterator<Object[][]>() {
+
+                private long remaining = rows;
+
+                @Override
+                public boolean hasNext() {
+                    return remaining > 0;
+                }
+
+                @Override
+                public Object[][] next() {
+                    if (remaining == 0) {
+                        throw new NoSuchElementException();
+                    }
+                    remaining--;
+                    try {
+                        return (Object[][]) in.readObject();
+                    } catch (final IOException | ClassNotFoundException ex) {
+                        throw new SpeedmentException("Unable to read spilled join rows from " + path, ex);
+                    }
+                }
+            };
+            return StreamSupport.stream(
+                Spliterators.spliterator(iterator, rows, Spliterator.ORDERED | Spliterator.NONNULL),
+                false
+            ).onClose(() -> {
+                try {
+                    in.close();
+                } catch (final IOException ioe) {
+                    throw new UncheckedIOException(ioe);
+                }
+            });
+        } catch (final IOException ioe) {
+            throw new SpeedmentException("Unable to read spilled join rows from " + path, ioe);
+        }
+    }
+
+    void delete() {
+        try {
+            if (out != null) {
+                out.close();
+            }
+            Files.deleteIfExists(path);
+        } catch (final IOException ioe) {
+            throw new UncheckedIOException(ioe);
+        }
+    }
+
+}
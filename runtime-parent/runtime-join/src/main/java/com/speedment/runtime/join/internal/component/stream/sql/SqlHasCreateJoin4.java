@@ -40,9 +40,10 @@ public final class SqlHasCreateJoin4
         final DbmsHandlerComponent dbmsHandlerComponent,
         final Project project,
         final SqlAdapterMapper sqlAdapterMapper,
-        final boolean allowStreamIteratorAndSpliterator
+        final boolean allowStreamIteratorAndSpliterator,
+        final HashJoinSettings hashJoinSettings
     ) {
-        super(dbmsHandlerComponent, project, sqlAdapterMapper, allowStreamIteratorAndSpliterator);
+        super(dbmsHandlerComponent, project, sqlAdapterMapper, allowStreamIteratorAndSpliterator, hashJoinSettings);
     }
 
     @Override
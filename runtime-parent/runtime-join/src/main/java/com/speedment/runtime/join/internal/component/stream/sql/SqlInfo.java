@@ -78,6 +78,10 @@ final class SqlInfo {
         return fieldPredicateView;
     }
 
+    List<Stage<?>> stages() {
+        return stages;
+    }
+
     List<SqlStage> sqlStages() {
         final List<SqlStage> sqlStages = new ArrayList<>();
         for (int i = 0; i < stages.size(); i++) {
@@ -0,0 +1,169 @@
+/**
+ *
+ * Copyright (c) 2006-2018, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.join.internal.component.stream.sql;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import static java.util.stream.Collectors.toList;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Per Minborg
+ */
+public class HashJoinStepTest {
+
+    // Rows have two slots: 0 = order(id, customer_id), 1 = customer(id, name)
+    private static final Function<Object[][], Object> ORDER_KEY = row -> row[0] == null ? null : row[0][1];
+    private static final Function<Object[][], Object> CUSTOMER_KEY = row -> row[1] == null ? null : row[1][0];
+
+    private Path spillDirectory;
+
+    @Before
+    public void setUp() throws IOException {
+        spillDirectory = Files.createTempDirectory("hash-join-test");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.list(spillDirectory)) {
+            assertEquals("Spill files left behind", 0, files.count());
+        }
+        Files.delete(spillDirectory);
+    }
+
+    @Test
+    public void testInnerJoin() {
+        assertEquals(
+            Arrays.asList("1:Ada", "2:Ada", "3:Bo"),
+            join(Long.MAX_VALUE, false, false)
+        );
+    }
+
+    @Test
+    public void testLeftJoin() {
+        assertEquals(
+            Arrays.asList("1:Ada", "2:Ada", "3:Bo", "4:null", "5:null"),
+            join(Long.MAX_VALUE, false, true)
+        );
+    }
+
+    @Test
+    public void testRightJoin() {
+        assertEquals(
+            Arrays.asList("1:Ada", "2:Ada", "3:Bo", "null:Cy"),
+            join(Long.MAX_VALUE, true, false)
+        );
+    }
+
+    @Test
+    public void testSpilledJoinsAreEqual() {
+        for (final boolean keepCustomers : new boolean[]{false, true}) {
+            for (final boolean keepOrders : new boolean[]{false, true}) {
+                assertEquals(
+                    join(Long.MAX_VALUE, keepCustomers, keepOrders),
+                    join(1, keepCustomers, keepOrders)
+                );
+            }
+        }
+    }
+
+    @Test
+    public void testManyRowsSpilled() {
+        final int customers = 1_000;
+        final HashJoinStep step = new HashJoinStep(
+            () -> Stream.iterate(0, i -> i + 1).limit(customers).map(i -> customer((long) i, "c" + i)),
+            CUSTOMER_KEY, false,
+            ORDER_KEY, false,
+            new HashJoinSettings(10_000, spillDirectory),
+            0
+        );
+        try (Stream<Object[][]> orders = Stream.iterate(0, i -> i + 1).limit(3 * customers).map(i -> order(i, i % customers))) {
+            final long joined = step.join(orders)
+                .filter(row -> ((Integer) row[0][1]).longValue() == (Long) row[1][0])
+                .count();
+            assertEquals(3 * customers, joined);
+        }
+    }
+
+    @Test
+    public void testTableWithMixedIntegralKeys() {
+        final HashJoinTable table = new HashJoinTable();
+        for (int i = 0; i < 100; i++) {
+            table.add((long) i, customer((long) i, "c" + i));
+        }
+        table.add("x", customer("x", "X"));
+        table.add(null, customer(null, "nobody"));
+        assertEquals("c42", table.row(table.first(42))[1][1]);
+        assertEquals("c7", table.row(table.first((short) 7))[1][1]);
+        assertEquals("X", table.row(table.first("x"))[1][1]);
+        assertEquals(HashJoinTable.NONE, table.first(100));
+        assertEquals(HashJoinTable.NONE, table.first(null));
+        table.markMatched(table.first(1));
+        assertEquals(101, table.unmatched().count());
+    }
+
+    private List<String> join(long memoryBudget, boolean keepCustomers, boolean keepOrders) {
+        final HashJoinStep step = new HashJoinStep(
+            () -> Stream.of(
+                customer(1L, "Ada"),
+                customer(2L, "Bo"),
+                customer(3L, "Cy"),
+                customer(null, "Nobody")
+            ).filter(row -> keepCustomers || row[1][0] != null),
+            CUSTOMER_KEY, keepCustomers,
+            ORDER_KEY, keepOrders,
+            new HashJoinSettings(memoryBudget, spillDirectory),
+            0
+        );
+        // Integer keys in one database shall match Long keys in the other
+        final Stream<Object[][]> orders = Stream.of(
+            order(1, 1),
+            order(2, 1),
+            order(3, 2),
+            order(4, 4),
+            order(5, null)
+        );
+        try (Stream<Object[][]> joined = step.join(orders)) {
+            return joined
+                .filter(row -> row[1] == null || row[1][0] != null)
+                .map(row -> (row[0] == null ? "null" : row[0][0]) + ":" + (row[1] == null ? "null" : row[1][1]))
+                .sorted(Comparator.naturalOrder())
+                .collect(toList());
+        }
+    }
+
+    private static Object[][] order(int id, Integer customerId) {
+        return new Object[][]{{id, customerId}, null};
+    }
+
+    private static Object[][] customer(Object id, String name) {
+        return new Object[][]{null, {id, name}};
+    }
+
+}
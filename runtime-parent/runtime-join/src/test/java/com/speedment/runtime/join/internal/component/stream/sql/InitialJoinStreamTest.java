@@ -0,0 +1,437 @@
+/**
+ *
+ * Copyright (c) 2006-2018, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.join.internal.component.stream.sql;
+
+import com.speedment.common.tuple.Tuple2;
+import com.speedment.common.tuple.Tuples;
+import com.speedment.runtime.config.Column;
+import com.speedment.runtime.config.Dbms;
+import com.speedment.runtime.config.Project;
+import com.speedment.runtime.config.Schema;
+import com.speedment.runtime.config.Table;
+import com.speedment.runtime.config.identifier.ColumnIdentifier;
+import com.speedment.runtime.config.identifier.TableIdentifier;
+import com.speedment.runtime.config.internal.ProjectImpl;
+import com.speedment.runtime.config.trait.HasName;
+import com.speedment.runtime.config.trait.HasOrdinalPosition;
+import com.speedment.runtime.core.component.DbmsHandlerComponent;
+import com.speedment.runtime.core.component.SqlAdapter;
+import com.speedment.runtime.core.db.AsynchronousQueryResult;
+import com.speedment.runtime.core.db.DbmsOperationHandler;
+import com.speedment.runtime.core.db.DbmsType;
+import com.speedment.runtime.core.db.SqlPredicateFragment;
+import com.speedment.runtime.core.internal.db.DefaultDatabaseNamingConvention;
+import com.speedment.runtime.core.internal.manager.sql.AbstractFieldPredicateView;
+import com.speedment.runtime.field.IntField;
+import com.speedment.runtime.field.StringField;
+import com.speedment.runtime.field.comparator.ComposedComparator;
+import com.speedment.runtime.field.predicate.FieldPredicate;
+import com.speedment.runtime.join.Join;
+import com.speedment.runtime.join.internal.component.stream.SqlAdapterMapper;
+import com.speedment.runtime.join.stage.JoinOperator;
+import com.speedment.runtime.join.stage.JoinType;
+import com.speedment.runtime.join.stage.Stage;
+import com.speedment.runtime.typemapper.TypeMapper;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
+import static java.util.stream.Collectors.toList;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Per Minborg
+ */
+public class InitialJoinStreamTest {
+
+    private static final String DBMS = "dbms";
+    private static final String SCHEMA = "schema";
+
+    private static final String SELECT = "SELECT A.`id`,A.`language_id`,A.`title`, B.`id`,B.`name` "
+        + "FROM `schema`.`film` AS A INNER JOIN `schema`.`language` AS B ON (B.`id` = A.`language_id`) ";
+
+    private static final Film FILM_1 = new Film(1, 1, "Alien");
+    private static final Film FILM_2 = new Film(2, 2, "Brazil");
+    private static final Language ENGLISH = new Language(1, "English");
+    private static final Language SWEDISH = new Language(2, "Swedish");
+
+    private List<String> sqls;
+    private List<List<?>> values;
+    private AtomicInteger lookups;
+    private DbmsHandlerComponent dbmsHandlerComponent;
+
+    @Before
+    public void setup() {
+        sqls = new ArrayList<>();
+        values = new ArrayList<>();
+        lookups = new AtomicInteger();
+        final DbmsType dbmsType = dbmsType();
+        dbmsHandlerComponent = (DbmsHandlerComponent) Proxy.newProxyInstance(
+            InitialJoinStreamTest.class.getClassLoader(),
+            new Class<?>[]{DbmsHandlerComponent.class},
+            (proxy, method, args) -> {
+                if ("findByName".equals(method.getName())) {
+                    lookups.incrementAndGet();
+                    return Optional.of(dbmsType);
+                }
+                throw new UnsupportedOperationException(method.getName());
+            }
+        );
+    }
+
+    @Test
+    public void testSqlIsRenderedOncePerJoin() {
+        final Join<Tuple2<Film, Language>> join = new SqlHasCreateJoin2(
+            dbmsHandlerComponent, project(), sqlAdapterMapper(), false, new HashJoinSettings(1, null)
+        ).createJoin(stages(emptyList()), Tuples::of, Film.IDENTIFIER, Language.IDENTIFIER);
+
+        join.stream().count();
+        join.stream().count();
+
+        assertEquals(1, lookups.get());
+        assertEquals(Arrays.asList(SELECT, SELECT), sqls);
+    }
+
+    @Test
+    public void testFilterAndSortedPushedDown() {
+        final List<Tuple2<Film, Language>> result = stream(emptyList())
+            .filter(Film.TITLE.equal("Alien").compose(Tuple2.<Film, Language>getter0()))
+            .sorted(ComposedComparator.of(Tuple2.<Film, Language>getter1(), Language.NAME.comparator()))
+            .sorted(ComposedComparator.of(Tuple2.<Film, Language>getter0(), Film.TITLE.comparator().reversed()))
+            .collect(toList());
+
+        assertEquals(
+            singletonList(SELECT + " WHERE (A.`title` = ?) ORDER BY A.`title` DESC NULLS FIRST, B.`name` ASC"),
+            sqls
+        );
+        assertEquals(singletonList(singletonList("Alien")), values);
+        // Filtering and sorting was left to the database
+        assertEquals(2, result.size());
+    }
+
+    @Test
+    public void testFilterAppendedToStagePredicates() {
+        stream(singletonList(Film.ID.greaterThan(0)))
+            .filter(Language.NAME.equal("English").compose(Tuple2.<Film, Language>getter1()))
+            .count();
+
+        assertEquals(singletonList(SELECT + " WHERE (A.`id` > ?) AND (B.`name` = ?)"), sqls);
+        assertEquals(singletonList(Arrays.asList(0, "English")), values);
+    }
+
+    @Test
+    public void testRenderCount() {
+        final JoinSql joinSql = JoinSqlUtil.render(
+            dbmsHandlerComponent, project(), stages(singletonList(Film.ID.greaterThan(0)))
+        );
+        final JoinSql countSql = JoinSqlUtil.renderCount(joinSql.sqlInfo());
+
+        assertEquals(
+            "SELECT COUNT(*) FROM `schema`.`film` AS A INNER JOIN `schema`.`language` AS B "
+            + "ON (B.`id` = A.`language_id`)  WHERE (A.`id` > ?)",
+            countSql.sql()
+        );
+        assertEquals(singletonList(0), countSql.values());
+    }
+
+    @Test
+    public void testFilterAfterLimitNotPushedDown() {
+        final List<Tuple2<Film, Language>> result = stream(emptyList())
+            .limit(2)
+            .filter(Language.NAME.equal("Swedish").compose(Tuple2.<Film, Language>getter1()))
+            .collect(toList());
+
+        assertEquals(singletonList(SELECT + " LIMIT 2"), sqls);
+        assertEquals(singletonList(Tuples.of(FILM_2, SWEDISH)), result);
+    }
+
+    @Test
+    public void testLambdaNotPushedDown() {
+        final List<Tuple2<Film, Language>> result = stream(emptyList())
+            .sorted(ComposedComparator.of((Tuple2<Film, Language> t) -> t.get0(), Film.ID.comparator().reversed()))
+            .collect(toList());
+
+        assertEquals(singletonList(SELECT), sqls);
+        assertEquals(Arrays.asList(Tuples.of(FILM_2, SWEDISH), Tuples.of(FILM_1, ENGLISH)), result);
+    }
+
+    private java.util.stream.Stream<Tuple2<Film, Language>> stream(List<Predicate<? super Film>> filmPredicates) {
+        final JoinSql joinSql = JoinSqlUtil.render(dbmsHandlerComponent, project(), stages(filmPredicates));
+        return JoinSqlUtil.stream(joinSql, rs -> null, false);
+    }
+
+    private static List<Stage<?>> stages(List<Predicate<? super Film>> filmPredicates) {
+        return Arrays.asList(
+            Stage.of(Film.IDENTIFIER, new ArrayList<>(filmPredicates), null, null, null, null, -1),
+            Stage.of(Language.IDENTIFIER, new ArrayList<>(), JoinType.INNER_JOIN, Language.ID, JoinOperator.EQUAL, Film.LANGUAGE_ID, 0)
+        );
+    }
+
+    private static SqlAdapterMapper sqlAdapterMapper() {
+        return new SqlAdapterMapper() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <ENTITY> SqlAdapter<ENTITY> apply(TableIdentifier<ENTITY> identifier) {
+                return (SqlAdapter<ENTITY>) Proxy.newProxyInstance(
+                    InitialJoinStreamTest.class.getClassLoader(),
+                    new Class<?>[]{SqlAdapter.class},
+                    (proxy, method, args) -> {
+                        if ("entityMapper".equals(method.getName())) {
+                            return (com.speedment.runtime.core.db.SqlFunction<?, ?>) rs -> null;
+                        }
+                        throw new UnsupportedOperationException(method.getName());
+                    }
+                );
+            }
+        };
+    }
+
+    private DbmsType dbmsType() {
+        final DbmsOperationHandler operationHandler = (DbmsOperationHandler) Proxy.newProxyInstance(
+            InitialJoinStreamTest.class.getClassLoader(),
+            new Class<?>[]{DbmsOperationHandler.class},
+            (proxy, method, args) -> {
+                if ("executeQueryAsync".equals(method.getName())) {
+                    return queryResult((String) args[1], (List<?>) args[2]);
+                }
+                throw new UnsupportedOperationException(method.getName());
+            }
+        );
+        final MockFieldPredicateView fieldPredicateView = new MockFieldPredicateView();
+
+        return (DbmsType) Proxy.newProxyInstance(
+            InitialJoinStreamTest.class.getClassLoader(),
+            new Class<?>[]{DbmsType.class},
+            (proxy, method, args) -> {
+                switch (method.getName()) {
+                    case "getDatabaseNamingConvention": return new DefaultDatabaseNamingConvention();
+                    case "getFieldPredicateView": return fieldPredicateView;
+                    case "getOperationHandler": return operationHandler;
+                    case "getSubSelectAlias": return DbmsType.SubSelectAlias.REQUIRED;
+                    case "getSkipLimitSupport": return DbmsType.SkipLimitSupport.STANDARD;
+                    case "getSortByNullOrderInsertion": return DbmsType.SortByNullOrderInsertion.POST;
+                    case "applySkipLimit": return args[0] + ((long) args[3] == Long.MAX_VALUE ? "" : " LIMIT " + args[3]);
+                    default: throw new UnsupportedOperationException(method.getName());
+                }
+            }
+        );
+    }
+
+    @SuppressWarnings("unchecked")
+    private AsynchronousQueryResult<?> queryResult(String initialSql, List<?> initialValues) {
+        final Map<String, Object> state = new HashMap<>();
+        state.put("sql", initialSql);
+        state.put("values", initialValues);
+        return (AsynchronousQueryResult<?>) Proxy.newProxyInstance(
+            InitialJoinStreamTest.class.getClassLoader(),
+            new Class<?>[]{AsynchronousQueryResult.class},
+            (proxy, method, args) -> {
+                switch (method.getName()) {
+                    case "getSql": return state.get("sql");
+                    case "setSql": state.put("sql", args[0]); return null;
+                    case "getValues": return state.get("values");
+                    case "setValues": state.put("values", args[0]); return null;
+                    case "stream": {
+                        sqls.add((String) state.get("sql"));
+                        values.add(new ArrayList<>((List<?>) state.get("values")));
+                        return java.util.stream.Stream.of(Tuples.of(FILM_1, ENGLISH), Tuples.of(FILM_2, SWEDISH));
+                    }
+                    case "close": return null;
+                    default: throw new UnsupportedOperationException(method.getName());
+                }
+            }
+        );
+    }
+
+    private static Project project() {
+        final Map<String, Object> dbms = new HashMap<>();
+        dbms.put(HasName.NAME, DBMS);
+        dbms.put(Dbms.TYPE_NAME, "MockDb");
+        dbms.put(Dbms.SCHEMAS, new ArrayList<>(singletonList(schema())));
+
+        final Map<String, Object> project = new HashMap<>();
+        project.put(HasName.NAME, "project");
+        project.put(Project.DBMSES, new ArrayList<>(singletonList(dbms)));
+
+        return new ProjectImpl(project);
+    }
+
+    private static Map<String, Object> schema() {
+        final Map<String, Object> schema = new HashMap<>();
+        schema.put(HasName.NAME, SCHEMA);
+        schema.put(Schema.TABLES, new ArrayList<>(Arrays.asList(
+            table("film", column("id", 1), column("language_id", 2), column("title", 3)),
+            table("language", column("id", 1), column("name", 2))
+        )));
+        return schema;
+    }
+
+    @SafeVarargs
+    private static Map<String, Object> table(String name, Map<String, Object>... columns) {
+        final Map<String, Object> table = new HashMap<>();
+        table.put(HasName.NAME, name);
+        table.put(Table.COLUMNS, new ArrayList<>(Arrays.asList(columns)));
+        return table;
+    }
+
+    private static Map<String, Object> column(String name, int ordinalPosition) {
+        final Map<String, Object> column = new HashMap<>();
+        column.put(HasName.NAME, name);
+        column.put(Column.DATABASE_TYPE, ("id".equals(name) || name.endsWith("_id") ? Integer.class : String.class).getName());
+        column.put(HasOrdinalPosition.ORDINAL_POSITION, ordinalPosition);
+        return column;
+    }
+
+    private static final class MockFieldPredicateView extends AbstractFieldPredicateView {
+
+        @Override
+        protected SqlPredicateFragment equalIgnoreCaseHelper(String cn, FieldPredicate<?> model, boolean negated) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        protected SqlPredicateFragment startsWithHelper(String cn, FieldPredicate<?> model, boolean negated) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        protected SqlPredicateFragment startsWithIgnoreCaseHelper(String cn, FieldPredicate<?> model, boolean negated) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        protected SqlPredicateFragment endsWithHelper(String cn, FieldPredicate<?> model, boolean negated) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        protected SqlPredicateFragment endsWithIgnoreCaseHelper(String cn, FieldPredicate<?> model, boolean negated) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        protected SqlPredicateFragment containsHelper(String cn, FieldPredicate<?> model, boolean negated) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        protected SqlPredicateFragment containsIgnoreCaseHelper(String cn, FieldPredicate<?> model, boolean negated) {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    private static final class Film {
+
+        static final TableIdentifier<Film> IDENTIFIER = TableIdentifier.of(DBMS, SCHEMA, "film");
+
+        static final IntField<Film, Integer> ID = IntField.create(
+            ColumnIdentifier.of(DBMS, SCHEMA, "film", "id"), Film::getId, Film::setId, TypeMapper.primitive(), true
+        );
+
+        static final IntField<Film, Integer> LANGUAGE_ID = IntField.create(
+            ColumnIdentifier.of(DBMS, SCHEMA, "film", "language_id"), Film::getLanguageId, Film::setLanguageId, TypeMapper.primitive(), false
+        );
+
+        static final StringField<Film, String> TITLE = StringField.create(
+            ColumnIdentifier.of(DBMS, SCHEMA, "film", "title"), Film::getTitle, Film::setTitle, TypeMapper.identity(), false
+        );
+
+        private int id;
+        private int languageId;
+        private String title;
+
+        Film(int id, int languageId, String title) {
+            this.id = id;
+            this.languageId = languageId;
+            this.title = title;
+        }
+
+        int getId() {
+            return id;
+        }
+
+        void setId(int id) {
+            this.id = id;
+        }
+
+        int getLanguageId() {
+            return languageId;
+        }
+
+        void setLanguageId(int languageId) {
+            this.languageId = languageId;
+        }
+
+        String getTitle() {
+            return title;
+        }
+
+        void setTitle(String title) {
+            this.title = title;
+        }
+    }
+
+    private static final class Language {
+
+        static final TableIdentifier<Language> IDENTIFIER = TableIdentifier.of(DBMS, SCHEMA, "language");
+
+        static final IntField<Language, Integer> ID = IntField.create(
+            ColumnIdentifier.of(DBMS, SCHEMA, "language", "id"), Language::getId, Language::setId, TypeMapper.primitive(), true
+        );
+
+        static final StringField<Language, String> NAME = StringField.create(
+            ColumnIdentifier.of(DBMS, SCHEMA, "language", "name"), Language::getName, Language::setName, TypeMapper.identity(), false
+        );
+
+        private int id;
+        private String name;
+
+        Language(int id, String name) {
+            this.id = id;
+            this.name = name;
+        }
+
+        int getId() {
+            return id;
+        }
+
+        void setId(int id) {
+            this.id = id;
+        }
+
+        String getName() {
+            return name;
+        }
+
+        void setName(String name) {
+            this.name = name;
+        }
+    }
+
+}